@@ -453,6 +453,12 @@
      *
      * <br>
      *
+     * The {@code handle} (since 3.0.0-M6) is the {@code native} checker which does not spawn the commands
+     * {@code ps} or {@code wmic} every second in every forked JVM. It reads {@code /proc/<ppid>/stat} on Linux
+     * or it uses {@code ProcessHandle} on Java 9+, and falls back to the commands on other platforms.
+     *
+     * <br>
+     *
      * Another useful configuration parameter is {@code forkedProcessTimeoutInSeconds}.
      * <br>
      * See the Frequently Asked Questions page with more details:<br>
@@ -523,6 +529,19 @@ protected void handleSummary( RunResult summary, Exception firstForkException )
         getPluginContext().put( FAILSAFE_IN_PROGRESS_CONTEXT_KEY, FAILSAFE_IN_PROGRESS_CONTEXT_KEY );
     }
 
+    @Override
+    protected void handleUpToDateTests()
+        throws MojoExecutionException
+    {
+        // the verify goal finds no summary of this build and does not check failIfNoTests
+        File summaryFile = getSummaryFile();
+        if ( getPluginContext().get( FAILSAFE_IN_PROGRESS_CONTEXT_KEY ) == null && summaryFile.isFile()
+            && !summaryFile.delete() )
+        {
+            throw new MojoExecutionException( "Cannot delete the summary file " + summaryFile );
+        }
+    }
+
     private boolean isJarArtifact( File artifactFile )
     {
         return artifactFile != null && artifactFile.isFile() && artifactFile.getName().toLowerCase().endsWith( ".jar" );
@@ -38,12 +38,15 @@
 import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
 import org.apache.maven.artifact.versioning.InvalidVersionSpecificationException;
 import org.apache.maven.artifact.versioning.VersionRange;
+import org.apache.maven.execution.MavenExecutionRequest;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.plugin.surefire.booterclient.AdaptiveForkCount;
 import org.apache.maven.plugin.surefire.booterclient.ChecksumCalculator;
+import org.apache.maven.plugin.surefire.booterclient.ClassDataSharing;
 import org.apache.maven.plugin.surefire.booterclient.ForkConfiguration;
 import org.apache.maven.plugin.surefire.booterclient.ForkStarter;
 import org.apache.maven.plugin.surefire.booterclient.ClasspathForkConfiguration;
@@ -51,18 +54,25 @@
 import org.apache.maven.plugin.surefire.booterclient.ModularClasspathForkConfiguration;
 import org.apache.maven.plugin.surefire.booterclient.Platform;
 import org.apache.maven.plugin.surefire.booterclient.ProviderDetector;
+import org.apache.maven.plugin.surefire.booterclient.output.EventQueueWaitStrategy;
 import org.apache.maven.plugin.surefire.log.PluginConsoleLogger;
 import org.apache.maven.plugin.surefire.log.api.ConsoleLogger;
+import org.apache.maven.plugin.surefire.report.DefaultReporterFactory;
 import org.apache.maven.plugin.surefire.util.DependencyScanner;
 import org.apache.maven.plugin.surefire.util.DirectoryScanner;
+import org.apache.maven.plugin.surefire.util.TestClassFileFilter;
+import org.apache.maven.plugin.surefire.util.TestImpactIndex;
+import org.apache.maven.plugin.surefire.util.TestResultCache;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.shared.artifact.filter.PatternIncludesArtifactFilter;
 import org.apache.maven.shared.transfer.dependencies.resolve.DependencyResolver;
 import org.apache.maven.surefire.shared.utils.io.FileUtils;
+import org.apache.maven.surefire.booter.BooterConstants;
 import org.apache.maven.surefire.booter.ClassLoaderConfiguration;
 import org.apache.maven.surefire.booter.Classpath;
 import org.apache.maven.surefire.booter.ClasspathConfiguration;
+import org.apache.maven.surefire.booter.EventBatchingType;
 import org.apache.maven.surefire.booter.KeyValueSource;
 import org.apache.maven.surefire.booter.ModularClasspath;
 import org.apache.maven.surefire.booter.ModularClasspathConfiguration;
@@ -99,6 +109,7 @@
 import org.codehaus.plexus.languages.java.jpms.ResolvePathsResult;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Method;
@@ -107,6 +118,7 @@
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -122,7 +134,9 @@
 import java.util.zip.ZipFile;
 
 import static java.lang.Integer.parseInt;
+import static java.lang.System.identityHashCode;
 import static java.lang.Thread.currentThread;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.asList;
 import static java.util.Collections.addAll;
 import static java.util.Collections.emptyList;
@@ -135,6 +149,7 @@
 import static org.apache.maven.plugin.surefire.util.DependencyScanner.filter;
 import static org.apache.maven.plugin.surefire.SurefireHelper.replaceThreadNumberPlaceholders;
 import static org.apache.maven.surefire.shared.utils.StringUtils.capitalizeFirstLetter;
+import static org.apache.maven.surefire.shared.utils.StringUtils.isBlank;
 import static org.apache.maven.surefire.shared.utils.StringUtils.isEmpty;
 import static org.apache.maven.surefire.shared.utils.StringUtils.isNotBlank;
 import static org.apache.maven.surefire.shared.utils.StringUtils.isNotEmpty;
@@ -548,6 +563,21 @@
     @Parameter( property = "forkCount", defaultValue = "1" )
     private String forkCount;
 
+    /**
+     * Adapts the number of VMs forked in parallel to the system load and the available memory, ranging from
+     * {@code minForkCount} to {@code forkCount}. The runs start with {@code minForkCount} VMs. Another VM is forked
+     * while the CPUs are not saturated and the memory suffices, and fewer VMs run while the load average exceeds the
+     * CPUs or the memory runs short. The limits {@code cpu.max} and {@code memory.max} of the control group v2 apply,
+     * e.g. in a container. The reused VMs end before their next test class if fewer VMs should run. When terminated
+     * with "C", the number part is multiplied with the number of CPU cores. The adapted number of VMs is logged.<br>
+     * <br>
+     * Only makes sense to use in conjunction with {@code forkCount} greater than {@code minForkCount}.
+     *
+     * @since 3.0.0-M6
+     */
+    @Parameter( property = "surefire.minForkCount" )
+    private String minForkCount;
+
     /**
      * Indicates if forked VMs can be reused. If set to "false", a new VM is forked for each test class to be executed.
      * If set to "true", up to {@code forkCount} VMs will be forked and then reused to execute all tests.
@@ -558,6 +588,216 @@
     @Parameter( property = "reuseForks", defaultValue = "true" )
     private boolean reuseForks;
 
+    /**
+     * Dispatches the test classes to the forked VMs ordered from the longest to the shortest run time recorded in the
+     * run statistics of the previous builds, see the file <em>.surefire-*</em> in the base directory.
+     * Only makes sense to use in conjunction with {@code forkCount} greater than "1".
+     * The predicted and actual time of running the forks is printed at the end of the execution.
+     *
+     * @since 3.0.0-M6
+     */
+    @Parameter( property = "balanceForks", defaultValue = "false" )
+    private boolean balanceForks;
+
+    /**
+     * The run time in milliseconds estimated for a test class which has not been recorded in the run statistics yet.
+     * Only makes sense to use in conjunction with {@code balanceForks}.
+     *
+     * @since 3.0.0-M6
+     */
+    @Parameter( property = "defaultTestClassRunTimeInMillis", defaultValue = "1000" )
+    private int defaultTestClassRunTimeInMillis;
+
+    /**
+     * Keeps the forked JVMs alive after the tests of this module have finished and reuses them for the tests of the
+     * next modules in the reactor build, provided that the JVM executable, {@code argLine} and booter classpath of
+     * the forks are equal. Each test set is loaded by a new class loader in the reused JVM, and the system property
+     * {@code user.dir} is the {@code workingDirectory} of its module. The environment variables and the working
+     * directory of the process are those of the module which has started the JVM. The idle JVMs are destroyed after
+     * the last module of the reactor build which uses this plugin.
+     * <br>
+     * Only makes sense to use in conjunction with {@code reuseForks=true}, the class-path (no module-path) and the
+     * TCP/IP fork channel
+     * {@code <forkNode implementation="org.apache.maven.plugin.surefire.extensions.SurefireForkNodeFactory"/>}.
+     * The tests must not rely on static state of the JVM, e.g. {@code System.setSecurityManager()} or threads which
+     * are left running.
+     *
+     * @since 3.0.0-M6
+     */
+    @Parameter( property = "reuseForksAcrossModules", defaultValue = "false" )
+    private boolean reuseForksAcrossModules;
+
+    /**
+     * The way the plugin threads wait on the queue of the events sent by the forked JVM. The queue is full if the
+     * events are produced faster than the reports are written, and empty if the forked JVM is idle.
+     * <br>
+     * The value is one of:
+     * <ul>
+     *     <li>{@code park} - the threads are parked, does not waste the CPU (default)</li>
+     *     <li>{@code yield} - the threads yield the CPU to other threads</li>
+     *     <li>{@code spin} - busy spinning, the lowest latency at the cost of the CPU cycles</li>
+     * </ul>
+     *
+     * @since 3.0.0-M6
+     */
+    @Parameter( property = "surefire.eventQueueWaitStrategy", defaultValue = "park" )
+    private String eventQueueWaitStrategy;
+
+    /**
+     * Runs only the test classes which are affected by the classes changed since the test classes have passed
+     * (test impact analysis). The forked JVMs record the classes loaded by every test class with a Java agent, and
+     * the plugin adds the classes referred in the bytecode, transitively. The classes in the directories of the test
+     * classpath are compared by the hash of the class file. The index is kept in the directory
+     * <em>${project.build.directory}/surefire-test-impact</em> (<em>failsafe-test-impact</em>).
+     * <br>
+     * All the test classes run if the jar files of the test classpath, {@code argLine}, the system properties or the
+     * environment variables have changed. Changes of the resource files are not detected.
+     * Only makes sense to use in conjunction with {@code forkCount} greater than "0" and the providers which report
+     * the test classes as test sets (JUnit, JUnit Platform).
+     * <br>
+     * A class is loaded once in a JVM, therefore every test class depends on all the classes loaded in its forked JVM
+     * before it has completed. With {@code reuseForks} set to "false" the selection of the affected tests is the most
+     * precise.
+     * If no test class is affected, the execution is successful and {@code failIfNoTests} is not checked.
+     *
+     * @since 3.0.0-M6
+     */
+    @Parameter( property = "testImpact", defaultValue = "false" )
+    private boolean testImpact;
+
+    /**
+     * Replays the cached results of the test classes which have passed before with the same content, instead of
+     * running them in the forked JVM. The key of the test class is the hash of its class files, of the test classes
+     * it refers to, of the files of the test classpath, of the configuration of the plugin, and of the
+     * <em>release</em> file of the JDK of the forked JVM. A change of a main class, of a dependency or of the JDK
+     * therefore runs all the test classes again.
+     * <br>
+     * Only the test classes without failures and errors are cached. The console output of the cached tests is not
+     * replayed. Only makes sense to use in conjunction with {@code forkCount} greater than "0".
+     *
+     * @since 3.0.0-M6
+     */
+    @Parameter( property = "testResultCache", defaultValue = "false" )
+    private boolean testResultCache;
+
+    /**
+     * The directory of the test result cache, shared by the modules and the builds.
+     *
+     * @since 3.0.0-M6
+     */
+    @Parameter( property = "testResultCacheDirectory", defaultValue = "${user.home}/.m2/surefire-test-results" )
+    private File testResultCacheDirectory;
+
+    /**
+     * The limit of the size of the test result cache in megabytes. The least recently used results are deleted when
+     * the cache exceeds the limit.
+     *
+     * @since 3.0.0-M6
+     */
+    @Parameter( property = "testResultCacheSize", defaultValue = "256" )
+    private int testResultCacheSize;
+
+    /**
+     * Packs the events of the forked JVM in batch frames, which reduces the count of writes to the fork channel when
+     * the tests print a lot to the standard streams. The batch is sent when it is full, on the control events (next
+     * test, bye), or when the fork is idle for 100 milliseconds.
+     * <br>
+     * The value is one of:
+     * <ul>
+     *     <li>{@code none} - every event is sent in its own frame (default)</li>
+     *     <li>{@code batch} - the events are sent in batches</li>
+     *     <li>{@code deflate} - the batches are deflated, trades the CPU for the size of the stream</li>
+     * </ul>
+     * Only makes sense to use in conjunction with {@code forkCount} greater than "0".
+     *
+     * @since 3.0.0-M6
+     */
+    @Parameter( property = "surefire.eventBatching", defaultValue = "none" )
+    private String eventBatching;
+
+    /**
+     * Creates the dynamic class data sharing archive (AppCDS) of the classes which the forked JVMs load from the
+     * surefire booter classpath, and starts the forked JVMs with the archive. The archive is created by a short
+     * training run of the JVM in the background, and the forked JVMs started after that map the archive instead of
+     * loading the classes again. The archive is specific to the JDK and to the booter classpath.
+     * <br>
+     * Requires Java 13 or later in the forked JVM and {@code useManifestOnlyJar=false}. Only makes sense to use in
+     * conjunction with {@code forkCount} greater than "0", and mainly with {@code reuseForks=false}.
+     *
+     * @since 3.0.0-M6
+     */
+    @Parameter( property = "surefire.classDataSharing", defaultValue = "false" )
+    private boolean classDataSharing;
+
+    /**
+     * The directory of the class data sharing archives, see {@code classDataSharing}. The archives can be shared by
+     * several projects in a user cache directory.
+     *
+     * @since 3.0.0-M6
+     */
+    @Parameter( property = "surefire.classDataSharingDirectory",
+                defaultValue = "${project.build.directory}/surefire-cds" )
+    private File classDataSharingDirectory;
+
+    /**
+     * The forked JVMs measure the phases of their startup and send them to the plugin: the launch of the JVM, reading
+     * the booter properties, connecting the fork channel, creating the test class loader, instantiating the provider,
+     * and the discovery of the tests until the first test set starts. The minimum, median, 99th percentile and maximum
+     * of each phase across the forked JVMs are printed in the summary of the run, and written together with the times
+     * of all forked JVMs to the file {@code surefire-fork-startup.json} in the reports directory.
+     * <br>
+     * Only makes sense to use in conjunction with {@code forkCount} greater than "0".
+     *
+     * @since 3.0.0-M6
+     */
+    @Parameter( property = "surefire.forkStartupProfile", defaultValue = "false" )
+    private boolean forkStartupProfile;
+
+    /**
+     * The period in milliseconds of the samples of the resources of the forked JVMs: the used and committed heap, the
+     * heap after the garbage collection, the count and time of the garbage collections, the threads, the CPU time and
+     * the loaded classes. The samples are written per forked JVM and per test class to the file
+     * {@code surefire-fork-resources.json} in the reports directory, and the peak values of each test class are added
+     * to the properties of the test suite in the XML report, e.g. {@code surefire.resources.peakHeapUsedKiB}.
+     * A warning is printed for the test classes which have grown the heap after the garbage collection by 16 MiB or
+     * more in a reused forked JVM. The value "0" does not sample the resources.
+     * <br>
+     * Only makes sense to use in conjunction with {@code forkCount} greater than "0".
+     *
+     * @since 3.0.0-M6
+     */
+    @Parameter( property = "surefire.forkResourceUsageInterval", defaultValue = "0" )
+    private long forkResourceUsageInterval;
+
+    /**
+     * Reads the class files of the scanned test classes in the plugin and does not send the classes which cannot be
+     * a test to the forked JVM: interfaces, abstract classes, and classes without annotations, without a JUnit 3
+     * {@code suite()} method and without POJO test methods in the class and in its superclasses. The forked JVM does
+     * not load these classes, so their static initializers do not run. The test classes directory and the
+     * {@code dependenciesToScan} are read in parallel.
+     *
+     * @since 3.0.0-M6
+     */
+    @Parameter( property = "surefire.testClassPreFilter", defaultValue = "false" )
+    private boolean testClassPreFilter;
+
+    /**
+     * (JUnit Platform provider) Splits the test classes which have more test methods than this number in chunks of
+     * this number of test methods, and distributes the chunks over the forked JVMs, so that one long running test
+     * class does not keep the build running in one JVM while the others are idle. The chunk runs the test methods
+     * selected by their names in the test class, the class-level setup such as {@code @BeforeAll} runs once in every
+     * chunk. The results of the chunks are merged in one XML report of the test class.
+     * <br>
+     * The classes with {@code @TestMethodOrder}, {@code @TestInstance} or {@code @Nested} classes are not split.
+     * The value 0 does not split the test classes. Only makes sense to use in conjunction with {@code forkCount}
+     * greater than "1" and {@code reuseForks=true}. Ignored if {@code rerunFailingTestsCount} or
+     * {@code testResultCache} is used.
+     *
+     * @since 3.0.0-M6
+     */
+    @Parameter( property = "surefire.testMethodChunkSize", defaultValue = "0" )
+    private int testMethodChunkSize;
+
     /**
      * (JUnit 4.7 provider) Indicates that threadCount, threadCountSuites, threadCountClasses, threadCountMethods
      * are per cpu core.
@@ -614,6 +854,33 @@
     @Parameter( property = "parallelOptimized", defaultValue = "true" )
     private boolean parallelOptimized;
 
+    /**
+     * (JUnit 4.7 provider) Suites, classes and methods run in one work-stealing {@code ForkJoinPool} if set to
+     * <strong>true</strong>. The threads waiting for the methods of a class, or the classes of a suite, run other
+     * tests meanwhile instead of being blocked. The thread-count parameters keep their meaning, and the parameter
+     * {@code threadCount} determines the parallelism of the pool.
+     * <br>
+     * False by default.
+     *
+     * @since 3.0.0-M6
+     */
+    @Parameter( property = "parallelWorkStealing", defaultValue = "false" )
+    private boolean parallelWorkStealing;
+
+    /**
+     * (JUnit 4.7 provider and TestNG 7.9.0+) The tests run in virtual threads if set to <strong>true</strong>.
+     * The virtual threads require Java 21 or later in the forked JVM, otherwise the platform threads are used.
+     * The thread-count parameters still limit the number of the tests running concurrently, and
+     * {@code useUnlimitedThreads} removes the limit. The output of the tests is reported the same way as with the
+     * platform threads.
+     * <br>
+     * False by default.
+     *
+     * @since 3.0.0-M6
+     */
+    @Parameter( property = "useVirtualThreads", defaultValue = "false" )
+    private boolean useVirtualThreads;
+
     /**
      * (JUnit 4.7 provider) This attribute allows you to specify the concurrency in test suites, i.e.:
      * <ul>
@@ -915,37 +1182,51 @@ private String getDefaultExcludes()
 
     private volatile PluginConsoleLogger consoleLogger;
 
+    private File testImpactDirectory;
+
+    private TestResultCache resultCache;
+
     @Override
     public void execute()
         throws MojoExecutionException, MojoFailureException
     {
-        cli = commandLineOptions();
-        // Stuff that should have been final
-        setupStuff();
-        Platform platform = PLATFORM.withJdkExecAttributesForTests( getEffectiveJvm() );
-
-        if ( verifyParameters() && !hasExecutedBefore() )
+        try
         {
-            DefaultScanResult scan = scanForTestClasses();
-            if ( !hasSuiteXmlFiles() && scan.isEmpty() )
+            cli = commandLineOptions();
+            // Stuff that should have been final
+            setupStuff();
+            Platform platform = PLATFORM.withJdkExecAttributesForTests( getEffectiveJvm() );
+
+            if ( verifyParameters() && !hasExecutedBefore() )
             {
-                switch ( getEffectiveFailIfNoTests() )
+                DefaultScanResult scan = scanForTestClasses();
+                if ( !hasSuiteXmlFiles() && scan.isEmpty() )
                 {
-                    case COULD_NOT_RUN_DEFAULT_TESTS:
-                        throw new MojoFailureException(
-                            "No tests were executed!  (Set -DfailIfNoTests=false to ignore this error.)" );
-                    case COULD_NOT_RUN_SPECIFIED_TESTS:
-                        throw new MojoFailureException( "No tests matching pattern \""
-                            + getSpecificTests().toString()
-                            + "\" were executed! (Set "
-                            + "-D" + getPluginName() + ".failIfNoSpecifiedTests=false to ignore this error.)" );
-                    default:
-                        handleSummary( noTestsRun(), null );
-                        return;
+                    switch ( getEffectiveFailIfNoTests() )
+                    {
+                        case COULD_NOT_RUN_DEFAULT_TESTS:
+                            throw new MojoFailureException(
+                                "No tests were executed!  (Set -DfailIfNoTests=false to ignore this error.)" );
+                        case COULD_NOT_RUN_SPECIFIED_TESTS:
+                            throw new MojoFailureException( "No tests matching pattern \""
+                                + getSpecificTests().toString()
+                                + "\" were executed! (Set "
+                                + "-D" + getPluginName() + ".failIfNoSpecifiedTests=false to ignore this error.)" );
+                        default:
+                            handleSummary( noTestsRun(), null );
+                            return;
+                    }
                 }
+                logReportsDirectory();
+                executeAfterPreconditionsChecked( scan, platform );
+            }
+        }
+        finally
+        {
+            if ( isReuseForksAcrossModules() && isLastModuleOfReactorBuild() )
+            {
+                ForkStarter.endReactorBuild( getReactorBuild() );
             }
-            logReportsDirectory();
-            executeAfterPreconditionsChecked( scan, platform );
         }
     }
 
@@ -1038,7 +1319,8 @@ private DefaultScanResult scanForTestClasses()
     {
         DefaultScanResult scan = scanDirectories();
         DefaultScanResult scanDeps = scanDependencies();
-        return scan.append( scanDeps );
+        scan = scan.append( scanDeps );
+        return isTestClassPreFilter() ? preFilterTestClasses( scan ) : scan;
     }
 
     private DefaultScanResult scanDirectories()
@@ -1048,11 +1330,53 @@ private DefaultScanResult scanDirectories()
         return scanner.scan();
     }
 
+    private DefaultScanResult preFilterTestClasses( DefaultScanResult scan )
+        throws MojoFailureException
+    {
+        List<File> classpathRoots = new ArrayList<>();
+        classpathRoots.add( getTestClassesDirectory() );
+        if ( getDependenciesToScan() != null )
+        {
+            classpathRoots.addAll( getDependencyFilesToScan() );
+        }
+
+        try
+        {
+            DefaultScanResult filtered = new TestClassFileFilter( classpathRoots ).filter( scan );
+            getConsoleLogger().debug( "The test class pre-filter discarded " + ( scan.size() - filtered.size() )
+                + " of " + scan.size() + " scanned classes." );
+            return filtered;
+        }
+        catch ( IOException e )
+        {
+            throw new MojoFailureException( e.getLocalizedMessage(), e );
+        }
+    }
+
     List<Artifact> getProjectTestArtifacts()
     {
         return project.getTestArtifacts();
     }
 
+    /**
+     * @return the jar files and directories of the {@code dependenciesToScan}
+     */
+    private List<File> getDependencyFilesToScan()
+    {
+        List<File> files = new ArrayList<>();
+        for ( Artifact artifact : filter( getProjectTestArtifacts(), asList( getDependenciesToScan() ) ) )
+        {
+            String type = artifact.getType();
+            File out = artifact.getFile();
+            if ( out != null && out.exists()
+                    && ( "jar".equals( type ) || out.isDirectory() || out.getName().endsWith( ".jar" ) ) )
+            {
+                files.add( out );
+            }
+        }
+        return files;
+    }
+
     DefaultScanResult scanDependencies() throws MojoFailureException
     {
         if ( getDependenciesToScan() == null )
@@ -1065,19 +1389,8 @@ DefaultScanResult scanDependencies() throws MojoFailureException
             {
                 DefaultScanResult result = null;
 
-                List<Artifact> dependenciesToScan =
-                        filter( getProjectTestArtifacts(), asList( getDependenciesToScan() ) );
-
-                for ( Artifact artifact : dependenciesToScan )
+                for ( File out : getDependencyFilesToScan() )
                 {
-                    String type = artifact.getType();
-                    File out = artifact.getFile();
-                    if ( out == null || !out.exists()
-                            || !( "jar".equals( type ) || out.isDirectory() || out.getName().endsWith( ".jar" ) ) )
-                    {
-                        continue;
-                    }
-
                     if ( out.isFile() )
                     {
                         DependencyScanner scanner =
@@ -1133,6 +1446,8 @@ boolean verifyParameters()
         else
         {
             ensureEnableProcessChecker();
+            ensureEventQueueWaitStrategy();
+            ensureEventBatching();
             convertDeprecatedForkMode();
             ensureWorkingDirectoryExists();
             ensureParallelRunningCompatibility();
@@ -1166,22 +1481,61 @@ private void executeAfterPreconditionsChecked( @Nonnull DefaultScanResult scanRe
         List<ProviderInfo> providers = createProviders( testClasspath );
         ResolvePathResultWrapper wrapper = findModuleDescriptor( platform.getJdkExecAttributesForTests().getJdkHome() );
 
-        RunResult current = noTestsRun();
+        TestImpactIndex testImpactIndex = loadTestImpactIndex( testClasspath );
+        DefaultScanResult tests = scanResult;
+        if ( testImpactIndex != null )
+        {
+            tests = testImpactIndex.selectAffectedTests( scanResult );
+            getConsoleLogger().info( "Test impact analysis selected " + tests.size() + " of " + scanResult.size()
+                + " test classes." );
+        }
 
-        Exception firstForkException = null;
-        for ( ProviderInfo provider : providers )
+        TestResultCache replayedResults =
+            createTestResultCache( testClasspath, providers, platform.getJdkExecAttributesForTests(), tests );
+        if ( replayedResults != null )
         {
-            try
+            DefaultScanResult notCachedTests = replayedResults.lookup( tests );
+            getConsoleLogger().info( "Replaying the cached results of " + replayedResults.getHits() + " of "
+                + tests.size() + " test classes." );
+            tests = notCachedTests;
+            if ( replayedResults.getHits() == 0 )
             {
-                current =
-                    current.aggregate( executeProvider( provider, scanResult, testClasspath, platform, wrapper ) );
+                replayedResults = null;
             }
-            catch ( SurefireBooterForkException | SurefireExecutionException | TestSetFailedException e )
+        }
+
+        RunResult current = noTestsRun();
+
+        Exception firstForkException = null;
+        boolean upToDate = false;
+        if ( tests.isEmpty() && replayedResults != null )
+        {
+            // the replayed counts reach the summary and failIfNoTests
+            current = replayTestResults( replayedResults );
+        }
+        else if ( tests.isEmpty() && testImpactIndex != null && !scanResult.isEmpty() )
+        {
+            getConsoleLogger().info( "No test class is affected by the changes since the tests have passed." );
+            upToDate = true;
+        }
+        else
+        {
+            for ( ProviderInfo provider : providers )
             {
-                if ( firstForkException == null )
+                try
                 {
-                    firstForkException = e;
+                    current = current.aggregate(
+                        executeProvider( provider, tests, testClasspath, platform, wrapper, replayedResults ) );
+                }
+                catch ( SurefireBooterForkException | SurefireExecutionException | TestSetFailedException e )
+                {
+                    if ( firstForkException == null )
+                    {
+                        firstForkException = e;
+                    }
                 }
+                // the cached results are reported once
+                replayedResults = null;
             }
         }
 
@@ -1190,7 +1544,230 @@ private void executeAfterPreconditionsChecked( @Nonnull DefaultScanResult scanRe
             current = failure( current, firstForkException );
         }
 
-        handleSummary( current, firstForkException );
+        if ( testImpactIndex != null )
+        {
+            storeTestImpactIndex( testImpactIndex );
+        }
+
+        if ( resultCache != null )
+        {
+            int evicted = resultCache.evict();
+            getConsoleLogger().debug( "Cached the results of " + resultCache.getRecorded() + " test classes, evicted "
+                + evicted + " least recently used results." );
+        }
+
+        if ( upToDate )
+        {
+            handleUpToDateTests();
+        }
+        else
+        {
+            handleSummary( current, firstForkException );
+        }
+    }
+
+    /**
+     * Called instead of {@link #handleSummary(RunResult, Exception)} if the test impact analysis has found no test
+     * class affected by the changes since the tests have passed. No test has run, but the execution is successful
+     * regardless of {@code failIfNoTests}.
+     *
+     * @throws MojoExecutionException error handling the execution
+     * @since 3.0.0-M6
+     */
+    protected void handleUpToDateTests()
+        throws MojoExecutionException
+    {
+        // nothing to report
+    }
+
+    /**
+     * Loads the index of the test impact analysis and scans the class files in the directories of the test classpath.
+     * Sets up {@link #testImpactDirectory} for the Java agent in the forked JVMs.
+     *
+     * @param testClasspath the test classpath
+     * @return the index or null if the test impact analysis is disabled or cannot be used
+     */
+    private TestImpactIndex loadTestImpactIndex( TestClassPath testClasspath )
+    {
+        testImpactDirectory = null;
+        if ( !isTestImpact() )
+        {
+            return null;
+        }
+
+        File booterJar = getBooterArtifact().getFile();
+        if ( isNotForking() || hasSuiteXmlFiles() || booterJar == null || !booterJar.isFile() )
+        {
+            getConsoleLogger().warning( "The test impact analysis requires the forked JVM and the test classes. "
+                + "Running all the tests." );
+            return null;
+        }
+
+        ChecksumCalculator fingerprint = new ChecksumCalculator();
+        fingerprint.add( getPluginName() );
+        fingerprint.add( getJvm() );
+        fingerprint.add( getArgLine() );
+        fingerprint.add( getSystemProperties() );
+        fingerprint.add( getSystemPropertyVariables() );
+        fingerprint.add( getSystemPropertiesFile() );
+        fingerprint.add( getEnvironmentVariables() );
+        fingerprint.add( getWorkingDirectory() );
+        List<File> classesDirectories = new ArrayList<>();
+        for ( String element : testClasspath.toClasspath().getClassPath() )
+        {
+            File file = new File( element );
+            if ( file.isDirectory() )
+            {
+                classesDirectories.add( file );
+            }
+            else
+            {
+                fingerprint.add( element + ':' + file.length() + ':' + file.lastModified() );
+            }
+        }
+
+        File directory = new File( getProjectBuildDirectory(), getPluginName() + "-test-impact" );
+        TestImpactIndex index;
+        try
+        {
+            index = TestImpactIndex.load( directory, fingerprint.getSha1() );
+        }
+        catch ( IOException e )
+        {
+            getConsoleLogger().warning( "Ignoring the index of the test impact analysis: " + e.getLocalizedMessage() );
+            index = TestImpactIndex.empty( directory, fingerprint.getSha1() );
+        }
+
+        try
+        {
+            if ( !directory.isDirectory() && !directory.mkdirs() )
+            {
+                throw new IOException( "Cannot create the directory " + directory );
+            }
+            index.deleteForkFiles();
+            index.scanClasses( classesDirectories );
+        }
+        catch ( IOException e )
+        {
+            getConsoleLogger().warning( "The test impact analysis failed: " + e.getLocalizedMessage()
+                + ". Running all the tests." );
+            return null;
+        }
+
+        testImpactDirectory = directory;
+        return index;
+    }
+
+    private void storeTestImpactIndex( TestImpactIndex testImpactIndex )
+    {
+        try
+        {
+            int recordedTests = testImpactIndex.recordForkFiles();
+            testImpactIndex.store();
+            getConsoleLogger().debug( "Recorded " + recordedTests + " test classes in the test impact analysis." );
+        }
+        catch ( IOException e )
+        {
+            getConsoleLogger().warning( "Cannot store the index of the test impact analysis: "
+                + e.getLocalizedMessage() );
+        }
+    }
+
+    /**
+     * Computes the keys of the test classes in the test result cache. Sets up {@link #resultCache} for the reporters
+     * which cache the results of the test classes which have passed.
+     *
+     * @param testClasspath the test classpath
+     * @param providers     the providers running the tests
+     * @param jdk           the JDK of the forked JVM
+     * @param tests         the test classes
+     * @return the cache or null if the test result cache is disabled or cannot be used
+     */
+    private TestResultCache createTestResultCache( TestClassPath testClasspath, List<ProviderInfo> providers,
+                                                   JdkAttributes jdk, DefaultScanResult tests )
+    {
+        resultCache = null;
+        if ( !isTestResultCache() )
+        {
+            return null;
+        }
+
+        if ( isNotForking() || hasSuiteXmlFiles() )
+        {
+            getConsoleLogger().warning( "The test result cache requires the forked JVM and the test classes. "
+                + "Running all the tests." );
+            return null;
+        }
+
+        ChecksumCalculator fingerprint = new ChecksumCalculator();
+        fingerprint.add( getConfigChecksum() );
+        fingerprint.add( getBooterArtifact() );
+        for ( ProviderInfo provider : providers )
+        {
+            fingerprint.add( provider.getProviderName() );
+        }
+
+        try
+        {
+            fingerprint.add( getJdkVersion( jdk ) );
+            resultCache = TestResultCache.create( getTestResultCacheDirectory(),
+                getTestResultCacheSize() * 1024L * 1024L, fingerprint.getSha1(),
+                testClasspath.toClasspath().getClassPath(), getTestClassesDirectory(), tests );
+            return resultCache;
+        }
+        catch ( IOException e )
+        {
+            getConsoleLogger().warning( "The test result cache failed: " + e.getLocalizedMessage()
+                + ". Running all the tests." );
+            return null;
+        }
+    }
+
+    /**
+     * The <em>release</em> file of the JDK contains the full version of the JDK, therefore an in-place upgrade of the
+     * JDK changes the keys of the test result cache. Without the file, the size and the last modification time of the
+     * java executable are used instead.
+     *
+     * @param jdk the JDK of the forked JVM
+     * @return the content of the <em>release</em> file of the JDK
+     * @throws IOException error reading the file
+     */
+    private static String getJdkVersion( JdkAttributes jdk )
+        throws IOException
+    {
+        File release = jdk.getJdkHome() == null ? null : new File( jdk.getJdkHome(), "release" );
+        if ( release != null && release.isFile() )
+        {
+            return new String( Files.readAllBytes( release.toPath() ), UTF_8 );
+        }
+        File jvmExecutable = jdk.getJvmExecutable();
+        return jvmExecutable.getAbsolutePath() + ':' + jvmExecutable.length() + ':' + jvmExecutable.lastModified();
+    }
+
+    /**
+     * Reports the cached results if all the test classes are cached and no JVM is forked.
+     */
+    private RunResult replayTestResults( TestResultCache replayedResults )
+    {
+        StartupReportConfiguration startupReportConfiguration =
+            getStartupReportConfiguration( getConfigChecksum(), true );
+        DefaultReporterFactory reporterFactory =
+            new DefaultReporterFactory( startupReportConfiguration, getConsoleLogger(), 1 );
+        return replayedResults.replayRun( reporterFactory );
+    }
+
+    /**
+     * @return {@link #getArgLine()} and the Java agent of the test impact analysis
+     */
+    private String getForkArgLine()
+    {
+        if ( testImpactDirectory == null )
+        {
+            return getArgLine();
+        }
+        String agent = "\"-javaagent:" + getBooterArtifact().getFile().getAbsolutePath()
+            + '=' + testImpactDirectory.getAbsolutePath() + '"';
+        return isNotBlank( getArgLine() ) ? getArgLine() + ' ' + agent : agent;
     }
 
     protected List<ProviderInfo> createProviders( TestClassPath testClasspath )
@@ -1298,7 +1875,8 @@ private void showToLog( SurefireProperties props, ConsoleLogger log )
     @Nonnull
     private RunResult executeProvider( @Nonnull ProviderInfo provider, @Nonnull DefaultScanResult scanResult,
                                        @Nonnull TestClassPath testClasspathWrapper, @Nonnull Platform platform,
-                                       @Nonnull ResolvePathResultWrapper resolvedJavaModularityResult )
+                                       @Nonnull ResolvePathResultWrapper resolvedJavaModularityResult,
+                                       @Nullable TestResultCache replayedResults )
         throws MojoExecutionException, MojoFailureException, SurefireExecutionException, SurefireBooterForkException,
         TestSetFailedException
     {
@@ -1342,7 +1920,8 @@ private RunResult executeProvider( @Nonnull ProviderInfo provider, @Nonnull Defa
                                                        runOrderParameters, getConsoleLogger(), scanResult,
                                                        testClasspathWrapper, platform, resolvedJavaModularityResult );
 
-                return forkStarter.run( effectiveProperties, scanResult );
+                RunResult replayed = replayedResults == null ? noTestsRun() : forkStarter.replay( replayedResults );
+                return replayed.aggregate( forkStarter.run( effectiveProperties, scanResult ) );
             }
             catch ( SurefireBooterForkException e )
             {
@@ -1495,10 +2074,20 @@ private void convertTestNGParameters() throws MojoExecutionException
             getProperties().setProperty( "testng.test.classpath", getTestClassesDirectory().getAbsolutePath() );
         }
 
+        if ( isUseVirtualThreads() )
+        {
+            getProperties().setProperty( ProviderParameterNames.USEVIRTUALTHREADS_PROP, "true" );
+        }
+
         Artifact testNgArtifact = getTestNgArtifact();
         if ( testNgArtifact != null )
         {
             DefaultArtifactVersion defaultArtifactVersion = new DefaultArtifactVersion( testNgArtifact.getVersion() );
+            if ( isUseVirtualThreads()
+                && defaultArtifactVersion.compareTo( new DefaultArtifactVersion( "7.9.0" ) ) < 0 )
+            {
+                getConsoleLogger().warning( "The parameter useVirtualThreads requires TestNG 7.9.0 or later." );
+            }
             getProperties().setProperty( "testng.configurator", getConfiguratorName( defaultArtifactVersion,
                                                                                            getConsoleLogger()
                     )
@@ -1557,11 +2146,16 @@ private static String getConfiguratorName( ArtifactVersion version, PluginConsol
             {
                 return "org.apache.maven.surefire.testng.conf.TestNG60Configurator";
             }
-            range = VersionRange.createFromVersionSpec( "[7.4.0,)" );
+            range = VersionRange.createFromVersionSpec( "[7.4.0,7.9.0)" );
             if ( range.containsVersion( version ) )
             {
                 return "org.apache.maven.surefire.testng.conf.TestNG740Configurator";
             }
+            range = VersionRange.createFromVersionSpec( "[7.9.0,)" );
+            if ( range.containsVersion( version ) )
+            {
+                return "org.apache.maven.surefire.testng.conf.TestNG790Configurator";
+            }
 
             throw new MojoExecutionException( "Unknown TestNG version " + version );
         }
@@ -1656,6 +2250,10 @@ private void convertJunitCoreParameters() throws MojoExecutionException
                                      Double.toString( getParallelTestsTimeoutForcedInSeconds() ) );
         getProperties().setProperty( ProviderParameterNames.PARALLEL_OPTIMIZE_PROP,
                                      Boolean.toString( isParallelOptimized() ) );
+        getProperties().setProperty( ProviderParameterNames.PARALLEL_WORKSTEALING_PROP,
+                                     Boolean.toString( isParallelWorkStealing() ) );
+        getProperties().setProperty( ProviderParameterNames.USEVIRTUALTHREADS_PROP,
+                                     Boolean.toString( isUseVirtualThreads() ) );
 
         String message = "parallel='" + usedParallel + '\''
             + ", perCoreThreadCount=" + getPerCoreThreadCount()
@@ -1664,7 +2262,9 @@ private void convertJunitCoreParameters() throws MojoExecutionException
             + ", threadCountSuites=" + getThreadCountSuites()
             + ", threadCountClasses=" + getThreadCountClasses()
             + ", threadCountMethods=" + getThreadCountMethods()
-            + ", parallelOptimized=" + isParallelOptimized();
+            + ", parallelOptimized=" + isParallelOptimized()
+            + ", parallelWorkStealing=" + isParallelWorkStealing()
+            + ", useVirtualThreads=" + isUseVirtualThreads();
 
         logDebugOrCliShowErrors( message );
     }
@@ -1845,7 +2445,8 @@ private List<RunOrder> getRunOrders()
     private boolean requiresRunHistory()
     {
         final List<RunOrder> runOrders = getRunOrders();
-        return runOrders.contains( RunOrder.BALANCED ) || runOrders.contains( RunOrder.FAILEDFIRST );
+        return runOrders.contains( RunOrder.BALANCED ) || runOrders.contains( RunOrder.FAILEDFIRST )
+            || isBalanceForks();
     }
 
     private PluginFailureReason getEffectiveFailIfNoTests()
@@ -1902,6 +2503,23 @@ private ProviderConfiguration createProviderConfiguration( RunOrderParameters ru
         }
 
         Map<String, String> providerProperties = toStringProperties( getProperties() );
+        EventBatchingType eventBatchingType = EventBatchingType.toEnum( getEventBatching() );
+        if ( eventBatchingType != EventBatchingType.NONE )
+        {
+            // negotiated with the forked JVM, see BooterDeserializer#getEventBatching()
+            providerProperties.put( BooterConstants.EVENT_BATCHING, eventBatchingType.getType() );
+        }
+        if ( isForkStartupProfile() )
+        {
+            // see BooterDeserializer#isStartupProfile()
+            providerProperties.put( BooterConstants.STARTUP_PROFILE, "true" );
+        }
+        if ( getForkResourceUsageInterval() > 0L )
+        {
+            // see BooterDeserializer#getResourceUsageInterval()
+            providerProperties.put( BooterConstants.RESOURCE_USAGE_INTERVAL,
+                String.valueOf( getForkResourceUsageInterval() ) );
+        }
 
         return new ProviderConfiguration( directoryScannerParameters, runOrderParameters,
                                           reporterConfiguration,
@@ -2175,12 +2793,15 @@ private StartupReportConfiguration getStartupReportConfiguration( String configC
                 statelessTestsetInfoReporter == null
                         ? new SurefireStatelessTestsetInfoReporter() : statelessTestsetInfoReporter;
 
-        return new StartupReportConfiguration( isUseFile(), isPrintSummary(), getReportFormat(),
-                                               isRedirectTestOutputToFile(),
-                                               getReportsDirectory(), isTrimStackTrace(), getReportNameSuffix(),
-                                               getStatisticsFile( configChecksum ), requiresRunHistory(),
-                                               getRerunFailingTestsCount(), getReportSchemaLocation(), getEncoding(),
-                                               isForkMode, xmlReporter, outReporter, testsetReporter );
+        StartupReportConfiguration startupReportConfiguration =
+            new StartupReportConfiguration( isUseFile(), isPrintSummary(), getReportFormat(),
+                                            isRedirectTestOutputToFile(),
+                                            getReportsDirectory(), isTrimStackTrace(), getReportNameSuffix(),
+                                            getStatisticsFile( configChecksum ), requiresRunHistory(),
+                                            getRerunFailingTestsCount(), getReportSchemaLocation(), getEncoding(),
+                                            isForkMode, xmlReporter, outReporter, testsetReporter );
+        startupReportConfiguration.setTestResultCache( resultCache );
+        return startupReportConfiguration;
     }
 
     private boolean isSpecificTestSpecified()
@@ -2436,7 +3057,80 @@ private ForkStarter createForkStarter( @Nonnull ProviderInfo provider, @Nonnull
         StartupReportConfiguration startupReportConfiguration = getStartupReportConfiguration( configChecksum, true );
         ProviderConfiguration providerConfiguration = createProviderConfiguration( runOrderParameters );
         return new ForkStarter( providerConfiguration, startupConfiguration, forkConfiguration,
-                                getForkedProcessTimeoutInSeconds(), startupReportConfiguration, log );
+                                getForkedProcessTimeoutInSeconds(), startupReportConfiguration, log,
+                                isBalanceForks(), getDefaultTestClassRunTimeInMillis(),
+                                isReuseForksAcrossModules() ? getReactorBuild() : null,
+                                EventQueueWaitStrategy.toEnum( getEventQueueWaitStrategy() ),
+                                isClassDataSharing()
+                                    ? new ClassDataSharing( getClassDataSharingDirectory(), log )
+                                    : null,
+                                getEffectiveTestMethodChunkSize( provider ),
+                                createAdaptiveForkCount( log ) );
+    }
+
+    /**
+     * @return the identity of the reactor build which is shared by the modules and differs in the next build of a
+     * long-living Maven JVM, e.g. mvnd
+     */
+    private String getReactorBuild()
+    {
+        MavenExecutionRequest request = getSession().getRequest();
+        Date startTime = request.getStartTime();
+        return identityHashCode( request ) + "@" + ( startTime == null ? 0L : startTime.getTime() );
+    }
+
+    /**
+     * @return {@code true} if no other module after this one in the reactor build uses this plugin
+     */
+    private boolean isLastModuleOfReactorBuild()
+    {
+        String pluginKey = getPluginDescriptor().getPluginLookupKey();
+        List<MavenProject> projects = getSession().getProjects();
+        for ( int i = projects.size() - 1; i >= 0; i-- )
+        {
+            MavenProject project = projects.get( i );
+            if ( project.getPlugin( pluginKey ) != null )
+            {
+                return project == getProject();
+            }
+        }
+        return true;
+    }
+
+    private AdaptiveForkCount createAdaptiveForkCount( @Nonnull ConsoleLogger log )
+    {
+        int maxForkCount = getEffectiveForkCount();
+        if ( isBlank( getMinForkCount() ) || maxForkCount < 2 )
+        {
+            return null;
+        }
+
+        int min;
+        try
+        {
+            min = convertWithCoreCount( getMinForkCount() );
+        }
+        catch ( NumberFormatException e )
+        {
+            throw new IllegalArgumentException( "Fork count " + getMinForkCount().trim() + " is not a legal value." );
+        }
+        return min < maxForkCount ? new AdaptiveForkCount( Math.max( min, 1 ), maxForkCount, log ) : null;
+    }
+
+    private int getEffectiveTestMethodChunkSize( @Nonnull ProviderInfo provider )
+    {
+        if ( getTestMethodChunkSize() < 1 || !( provider instanceof JUnitPlatformProviderInfo ) )
+        {
+            return 0;
+        }
+
+        if ( getRerunFailingTestsCount() > 0 || resultCache != null )
+        {
+            getConsoleLogger().warning( "The parameter testMethodChunkSize is ignored with the parameters "
+                + "rerunFailingTestsCount and testResultCache." );
+            return 0;
+        }
+        return getTestMethodChunkSize();
     }
 
     private InPluginVMSurefireStarter createInprocessStarter( @Nonnull ProviderInfo provider,
@@ -2485,7 +3179,7 @@ private ForkConfiguration createForkConfiguration( @Nonnull Platform platform,
                     getEffectiveDebugForkedProcess(),
                     getWorkingDirectory() != null ? getWorkingDirectory() : getBasedir(),
                     getProject().getModel().getProperties(),
-                    getArgLine(),
+                    getForkArgLine(),
                     getEnvironmentVariables(),
                     getExcludedEnvironmentVariables(),
                     getConsoleLogger().isDebugEnabled(),
@@ -2502,7 +3196,7 @@ else if ( getClassLoaderConfiguration().isManifestOnlyJarRequestedAndUsable() )
                     getEffectiveDebugForkedProcess(),
                     getWorkingDirectory() != null ? getWorkingDirectory() : getBasedir(),
                     getProject().getModel().getProperties(),
-                    getArgLine(),
+                    getForkArgLine(),
                     getEnvironmentVariables(),
                     getExcludedEnvironmentVariables(),
                     getConsoleLogger().isDebugEnabled(),
@@ -2519,7 +3213,7 @@ else if ( getClassLoaderConfiguration().isManifestOnlyJarRequestedAndUsable() )
                     getEffectiveDebugForkedProcess(),
                     getWorkingDirectory() != null ? getWorkingDirectory() : getBasedir(),
                     getProject().getModel().getProperties(),
-                    getArgLine(),
+                    getForkArgLine(),
                     getEnvironmentVariables(),
                     getExcludedEnvironmentVariables(),
                     getConsoleLogger().isDebugEnabled(),
@@ -2541,6 +3235,26 @@ private void ensureEnableProcessChecker() throws MojoFailureException
         }
     }
 
+    private void ensureEventQueueWaitStrategy() throws MojoFailureException
+    {
+        if ( !EventQueueWaitStrategy.isValid( getEventQueueWaitStrategy() ) )
+        {
+            throw new MojoFailureException( "Unexpected value '"
+                    + getEventQueueWaitStrategy()
+                    + "' in the configuration parameter 'eventQueueWaitStrategy'." );
+        }
+    }
+
+    private void ensureEventBatching() throws MojoFailureException
+    {
+        if ( !EventBatchingType.isValid( getEventBatching() ) )
+        {
+            throw new MojoFailureException( "Unexpected value '"
+                    + getEventBatching()
+                    + "' in the configuration parameter 'eventBatching'." );
+        }
+    }
+
     private void convertDeprecatedForkMode()
     {
         String effectiveForkMode = getEffectiveForkMode();
@@ -3900,6 +4614,28 @@ public void setParallelOptimized( boolean parallelOptimized )
         this.parallelOptimized = parallelOptimized;
     }
 
+    public boolean isParallelWorkStealing()
+    {
+        return parallelWorkStealing;
+    }
+
+    @SuppressWarnings( "UnusedDeclaration" )
+    public void setParallelWorkStealing( boolean parallelWorkStealing )
+    {
+        this.parallelWorkStealing = parallelWorkStealing;
+    }
+
+    public boolean isUseVirtualThreads()
+    {
+        return useVirtualThreads;
+    }
+
+    @SuppressWarnings( "UnusedDeclaration" )
+    public void setUseVirtualThreads( boolean useVirtualThreads )
+    {
+        this.useVirtualThreads = useVirtualThreads;
+    }
+
     public int getThreadCountSuites()
     {
         return threadCountSuites;
@@ -4091,6 +4827,166 @@ public boolean isReuseForks()
         return reuseForks;
     }
 
+    public boolean isBalanceForks()
+    {
+        return balanceForks;
+    }
+
+    public void setBalanceForks( boolean balanceForks )
+    {
+        this.balanceForks = balanceForks;
+    }
+
+    public int getDefaultTestClassRunTimeInMillis()
+    {
+        return defaultTestClassRunTimeInMillis;
+    }
+
+    public void setDefaultTestClassRunTimeInMillis( int defaultTestClassRunTimeInMillis )
+    {
+        this.defaultTestClassRunTimeInMillis = defaultTestClassRunTimeInMillis;
+    }
+
+    public boolean isReuseForksAcrossModules()
+    {
+        return reuseForksAcrossModules;
+    }
+
+    public void setReuseForksAcrossModules( boolean reuseForksAcrossModules )
+    {
+        this.reuseForksAcrossModules = reuseForksAcrossModules;
+    }
+
+    public String getEventQueueWaitStrategy()
+    {
+        return eventQueueWaitStrategy;
+    }
+
+    public void setEventQueueWaitStrategy( String eventQueueWaitStrategy )
+    {
+        this.eventQueueWaitStrategy = eventQueueWaitStrategy;
+    }
+
+    public boolean isTestImpact()
+    {
+        return testImpact;
+    }
+
+    public void setTestImpact( boolean testImpact )
+    {
+        this.testImpact = testImpact;
+    }
+
+    public boolean isTestResultCache()
+    {
+        return testResultCache;
+    }
+
+    public void setTestResultCache( boolean testResultCache )
+    {
+        this.testResultCache = testResultCache;
+    }
+
+    public File getTestResultCacheDirectory()
+    {
+        return testResultCacheDirectory;
+    }
+
+    public void setTestResultCacheDirectory( File testResultCacheDirectory )
+    {
+        this.testResultCacheDirectory = testResultCacheDirectory;
+    }
+
+    public int getTestResultCacheSize()
+    {
+        return testResultCacheSize;
+    }
+
+    public void setTestResultCacheSize( int testResultCacheSize )
+    {
+        this.testResultCacheSize = testResultCacheSize;
+    }
+
+    public String getEventBatching()
+    {
+        return eventBatching;
+    }
+
+    public void setEventBatching( String eventBatching )
+    {
+        this.eventBatching = eventBatching;
+    }
+
+    public boolean isClassDataSharing()
+    {
+        return classDataSharing;
+    }
+
+    public void setClassDataSharing( boolean classDataSharing )
+    {
+        this.classDataSharing = classDataSharing;
+    }
+
+    public File getClassDataSharingDirectory()
+    {
+        return classDataSharingDirectory;
+    }
+
+    public void setClassDataSharingDirectory( File classDataSharingDirectory )
+    {
+        this.classDataSharingDirectory = classDataSharingDirectory;
+    }
+
+    public boolean isForkStartupProfile()
+    {
+        return forkStartupProfile;
+    }
+
+    public void setForkStartupProfile( boolean forkStartupProfile )
+    {
+        this.forkStartupProfile = forkStartupProfile;
+    }
+
+    public long getForkResourceUsageInterval()
+    {
+        return forkResourceUsageInterval;
+    }
+
+    public void setForkResourceUsageInterval( long forkResourceUsageInterval )
+    {
+        this.forkResourceUsageInterval = forkResourceUsageInterval;
+    }
+
+    public boolean isTestClassPreFilter()
+    {
+        return testClassPreFilter;
+    }
+
+    public void setTestClassPreFilter( boolean testClassPreFilter )
+    {
+        this.testClassPreFilter = testClassPreFilter;
+    }
+
+    public int getTestMethodChunkSize()
+    {
+        return testMethodChunkSize;
+    }
+
+    public void setTestMethodChunkSize( int testMethodChunkSize )
+    {
+        this.testMethodChunkSize = testMethodChunkSize;
+    }
+
+    public String getMinForkCount()
+    {
+        return minForkCount;
+    }
+
+    public void setMinForkCount( String minForkCount )
+    {
+        this.minForkCount = minForkCount;
+    }
+
     public String[] getAdditionalClasspathElements()
     {
         return additionalClasspathElements;
@@ -24,9 +24,12 @@
 import org.apache.maven.plugin.surefire.extensions.SurefireStatelessReporter;
 import org.apache.maven.plugin.surefire.extensions.SurefireStatelessTestsetInfoReporter;
 import org.apache.maven.plugin.surefire.log.api.ConsoleLogger;
+import org.apache.maven.plugin.surefire.report.StatelessXmlReporter;
+import org.apache.maven.plugin.surefire.report.TestSetChunks;
 import org.apache.maven.plugin.surefire.report.TestSetStats;
 import org.apache.maven.plugin.surefire.report.WrappedReportEntry;
 import org.apache.maven.plugin.surefire.runorder.StatisticsReporter;
+import org.apache.maven.plugin.surefire.util.TestResultCache;
 import org.apache.maven.surefire.extensions.ConsoleOutputReportEventListener;
 import org.apache.maven.surefire.extensions.StatelessReportEventListener;
 import org.apache.maven.surefire.extensions.StatelessTestsetInfoConsoleReportEventListener;
@@ -82,6 +85,8 @@
 
     private final Map<String, Deque<WrappedReportEntry>> testClassMethodRunHistory = new ConcurrentHashMap<>();
 
+    private final TestSetChunks testSetChunks = new TestSetChunks();
+
     private final Charset encoding;
 
     private final boolean isForkMode;
@@ -94,6 +99,8 @@
 
     private StatisticsReporter statisticsReporter;
 
+    private volatile TestResultCache testResultCache;
+
     @SuppressWarnings( "checkstyle:parameternumber" )
     public StartupReportConfiguration( boolean useFile, boolean printSummary, String reportFormat,
                boolean redirectTestOutputToFile,
@@ -177,7 +184,28 @@ public StatelessReportEventListener<WrappedReportEntry, TestSetStats> instantiat
                 new DefaultStatelessReportMojoConfiguration( resolveReportsDirectory( forkNumber ), reportNameSuffix,
                         trimStackTrace, rerunFailingTestsCount, xsdSchemaLocation, testClassMethodRunHistory );
 
-        return xmlReporter.isDisable() ? null : xmlReporter.createListener( xmlReporterConfig );
+        if ( xmlReporter.isDisable() )
+        {
+            return null;
+        }
+
+        StatelessReportEventListener<WrappedReportEntry, TestSetStats> listener =
+                xmlReporter.createListener( xmlReporterConfig );
+        if ( listener instanceof StatelessXmlReporter )
+        {
+            // the chunks of the test classes run in several forks and are merged in one report
+            ( (StatelessXmlReporter) listener ).setTestSetChunks( testSetChunks );
+        }
+        return listener;
+    }
+
+    /**
+     * @return the test classes which run in chunks in several forked JVMs
+     * @since 3.0.0-M6
+     */
+    public TestSetChunks getTestSetChunks()
+    {
+        return testSetChunks;
     }
 
     public StatelessTestsetInfoFileReportEventListener<WrappedReportEntry, TestSetStats> instantiateFileReporter(
@@ -218,6 +246,19 @@ public synchronized StatisticsReporter getStatisticsReporter()
         return statisticsReporter;
     }
 
+    /**
+     * @return the cache which records the results of the test classes which have passed, or null
+     */
+    public TestResultCache getTestResultCache()
+    {
+        return testResultCache;
+    }
+
+    public void setTestResultCache( TestResultCache testResultCache )
+    {
+        this.testResultCache = testResultCache;
+    }
+
     public File getStatisticsFile()
     {
         return statisticsFile;
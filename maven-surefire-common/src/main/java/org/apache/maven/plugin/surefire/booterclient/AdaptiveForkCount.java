@@ -0,0 +1,198 @@
+package org.apache.maven.plugin.surefire.booterclient;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.surefire.log.api.ConsoleLogger;
+
+import javax.annotation.Nonnull;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.System.currentTimeMillis;
+import static java.util.Locale.ROOT;
+import static org.apache.maven.plugin.surefire.booterclient.SystemResources.UNKNOWN;
+
+/**
+ * The number of the forked JVMs running at the same time between {@code minForkCount} and {@code forkCount}, adapted
+ * to the system load and the available memory sampled every {@link #SAMPLING_PERIOD_MILLIS}.
+ * <br>
+ * The runs start with the minimum. Another fork starts if the CPUs are not saturated and the memory would suffice
+ * for two more forks. A fork less runs if the load exceeds the CPUs or the memory would not suffice for a half of
+ * a fork. The memory of one fork is estimated by the memory which the running forks took since the first sample.
+ * The system load average lags behind the forks, therefore the count is stable for {@link #STABILIZATION_SAMPLES}
+ * samples after each change. Unknown load or memory does not limit the count.
+ * <br>
+ * The fork starts after {@link #acquire()} and ends with {@link #release()}. The reusable forks {@link #leave()}
+ * before the next test class if too many forks run.
+ *
+ * @since 3.0.0-M6
+ */
+public final class AdaptiveForkCount
+{
+    static final long SAMPLING_PERIOD_MILLIS = 2000L;
+    static final int STABILIZATION_SAMPLES = 5;
+
+    private static final long MIN_MEMORY_PER_FORK = 256L * 1024L * 1024L;
+    private static final double OVERLOADED = 1d;
+    private static final double UNDERUSED = 0.75d;
+
+    private final int min;
+    private final int max;
+    private final ConsoleLogger log;
+    private final SystemResources resources;
+    private final long startedAt = currentTimeMillis();
+    private long baselineMemory = UNKNOWN;
+    private int target;
+    private int running;
+    private int stableSamples;
+
+    public AdaptiveForkCount( int min, int max, @Nonnull ConsoleLogger log )
+    {
+        this( min, max, log, new SystemResources() );
+    }
+
+    AdaptiveForkCount( int min, int max, @Nonnull ConsoleLogger log, @Nonnull SystemResources resources )
+    {
+        if ( min < 1 || max < min )
+        {
+            throw new IllegalArgumentException( "Fork count " + min + " to " + max + " is not a valid range." );
+        }
+        this.min = min;
+        this.max = max;
+        this.log = log;
+        this.resources = resources;
+        target = min;
+    }
+
+    public int getMin()
+    {
+        return min;
+    }
+
+    public int getMax()
+    {
+        return max;
+    }
+
+    synchronized int getTarget()
+    {
+        return target;
+    }
+
+    /**
+     * Samples the system resources and adapts the count.
+     */
+    void update()
+    {
+        adapt( resources.getLoadAverage(), resources.getCpus(), resources.getAvailableMemory() );
+    }
+
+    /**
+     * @param loadAverage     the system load average, or a negative value if unknown
+     * @param cpus            the number of the processors
+     * @param availableMemory the bytes of the available memory, or {@link SystemResources#UNKNOWN}
+     */
+    synchronized void adapt( double loadAverage, int cpus, long availableMemory )
+    {
+        if ( baselineMemory == UNKNOWN && running == 0 )
+        {
+            baselineMemory = availableMemory;
+        }
+
+        if ( stableSamples > 0 )
+        {
+            stableSamples--;
+            return;
+        }
+
+        double load = loadAverage < 0d ? -1d : loadAverage / max( cpus, 1 );
+        long memoryPerFork = estimateMemoryPerFork( availableMemory );
+        boolean knownMemory = availableMemory != UNKNOWN;
+        int newTarget = target;
+        if ( load > OVERLOADED || knownMemory && availableMemory < memoryPerFork / 2 )
+        {
+            newTarget = max( target - 1, min );
+        }
+        else if ( load < UNDERUSED && ( !knownMemory || availableMemory > 2 * memoryPerFork ) && running >= target )
+        {
+            newTarget = min( target + 1, max );
+        }
+
+        if ( newTarget != target )
+        {
+            target = newTarget;
+            stableSamples = STABILIZATION_SAMPLES;
+            notifyAll();
+            log.info( String.format( ROOT, "Adaptive fork count %d after %d s: load %.2f on %d CPUs, %d MiB "
+                + "available memory.", target, ( currentTimeMillis() - startedAt ) / 1000L,
+                max( loadAverage, 0d ), cpus, max( availableMemory, 0L ) / ( 1024L * 1024L ) ) );
+        }
+    }
+
+    private long estimateMemoryPerFork( long availableMemory )
+    {
+        if ( running == 0 || baselineMemory == UNKNOWN || availableMemory == UNKNOWN )
+        {
+            return MIN_MEMORY_PER_FORK;
+        }
+        return max( ( baselineMemory - availableMemory ) / running, MIN_MEMORY_PER_FORK );
+    }
+
+    /**
+     * Waits until another fork may start.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    synchronized void acquire()
+        throws InterruptedException
+    {
+        while ( running >= target )
+        {
+            wait();
+        }
+        running++;
+    }
+
+    /**
+     * The fork has ended.
+     */
+    synchronized void release()
+    {
+        running--;
+        notifyAll();
+    }
+
+    /**
+     * Ends the reusable fork before the next test class if too many forks run. The fork which leaves is not
+     * {@link #release() released} again.
+     *
+     * @return {@code true} if the fork should end
+     */
+    public synchronized boolean leave()
+    {
+        if ( running > target )
+        {
+            running--;
+            notifyAll();
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,214 @@
+package org.apache.maven.plugin.surefire.booterclient;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.surefire.JdkAttributes;
+import org.apache.maven.plugin.surefire.log.api.ConsoleLogger;
+import org.apache.maven.surefire.booter.Classpath;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.apache.maven.surefire.booter.SystemUtils.toJdkVersionFromReleaseFile;
+import static org.apache.maven.surefire.shared.utils.StringUtils.join;
+
+/**
+ * The dynamic class data sharing archive (AppCDS) of the classes loaded by the forked JVMs from the booter class path.
+ * The forked JVMs map the archive with {@code -XX:SharedArchiveFile} instead of loading and verifying the same
+ * classes again.
+ * <br>
+ * The archive is keyed by the checksum of the JDK release, the JVM executable and the jar files of the booter class
+ * path, see {@link ChecksumCalculator}. The booter class path must be the prefix of the class path of the forked JVM.
+ * If the archive does not exist, it is created by the training run of {@code ClassDataSharingTrainer} with
+ * {@code -XX:ArchiveClassesAtExit} in the background and the forked JVMs start without the archive until it is ready.
+ * The archive is created once per plugin process even if the training run fails.
+ * <br>
+ * The dynamic archive requires Java 13 or later.
+ *
+ * @since 3.0.0-M6
+ */
+public final class ClassDataSharing
+{
+    private static final BigDecimal DYNAMIC_ARCHIVE_JAVA_VERSION = new BigDecimal( 13 );
+
+    private static final ConcurrentMap<File, Boolean> TRAINED_ARCHIVES = new ConcurrentHashMap<>();
+
+    private final File archiveDirectory;
+    private final ConsoleLogger log;
+
+    /**
+     * @param archiveDirectory directory of the archives, e.g. {@code target/surefire-cds} or a user cache directory
+     *                         shared by several projects
+     * @param log              plugin logger
+     */
+    public ClassDataSharing( @Nonnull File archiveDirectory, @Nonnull ConsoleLogger log )
+    {
+        this.archiveDirectory = archiveDirectory;
+        this.log = log;
+    }
+
+    /**
+     * @param jdk the JDK of the forked JVMs
+     * @return {@code true} if the JDK can create the dynamic archive
+     */
+    public static boolean isSupported( @Nonnull JdkAttributes jdk )
+    {
+        BigDecimal version = jdk.getJdkHome() == null ? null : toJdkVersionFromReleaseFile( jdk.getJdkHome() );
+        return version != null && version.compareTo( DYNAMIC_ARCHIVE_JAVA_VERSION ) >= 0;
+    }
+
+    /**
+     * Returns the JVM option mapping the archive if it exists, otherwise the archive is created in the background.
+     *
+     * @param jdk             the JDK of the forked JVM
+     * @param booterClasspath the jar files which are the prefix of the class path of the forked JVM
+     * @param trainerClass    the main class of the training run which is in the booter class path
+     * @return the option {@code -XX:SharedArchiveFile}, or null if the archive is not ready
+     */
+    @Nullable
+    public String getJvmOption( @Nonnull JdkAttributes jdk, @Nonnull Classpath booterClasspath,
+                                @Nonnull String trainerClass )
+    {
+        File archive = getArchive( jdk, booterClasspath );
+        if ( archive.isFile() )
+        {
+            return "-XX:SharedArchiveFile=" + archive.getAbsolutePath();
+        }
+
+        if ( TRAINED_ARCHIVES.putIfAbsent( archive, Boolean.TRUE ) == null )
+        {
+            startTraining( jdk, booterClasspath, trainerClass, archive );
+        }
+        return null;
+    }
+
+    @Nonnull
+    File getArchive( @Nonnull JdkAttributes jdk, @Nonnull Classpath booterClasspath )
+    {
+        ChecksumCalculator checksum = new ChecksumCalculator();
+        checksum.add( jdk.getJvmExecutable().getAbsolutePath() );
+        File release = jdk.getJdkHome() == null ? null : new File( jdk.getJdkHome(), "release" );
+        try
+        {
+            checksum.add( release != null && release.isFile()
+                ? new String( Files.readAllBytes( release.toPath() ), UTF_8 ) : null );
+        }
+        catch ( IOException e )
+        {
+            checksum.add( String.valueOf( release.lastModified() ) );
+        }
+        for ( String path : booterClasspath.getClassPath() )
+        {
+            File file = new File( path );
+            checksum.add( file.getAbsolutePath() + ':' + file.length() + ':' + file.lastModified() );
+        }
+        return new File( archiveDirectory, "surefire-" + checksum.getSha1() + ".jsa" );
+    }
+
+    private void startTraining( final JdkAttributes jdk, final Classpath booterClasspath, final String trainerClass,
+                                final File archive )
+    {
+        Thread training = new Thread( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                train( jdk, booterClasspath, trainerClass, archive );
+            }
+        }, "surefire-class-data-sharing-training" );
+        training.setDaemon( true );
+        training.start();
+    }
+
+    private void train( JdkAttributes jdk, Classpath booterClasspath, String trainerClass, File archive )
+    {
+        File trainedArchive = null;
+        File trainingLog = new File( archiveDirectory, archive.getName() + ".log" );
+        try
+        {
+            Files.createDirectories( archiveDirectory.toPath() );
+            // the JVM creates the archive in a unique file, other plugin processes may train at the same time
+            trainedArchive = Files.createTempFile( archiveDirectory.toPath(), archive.getName(), ".tmp" ).toFile();
+            Files.delete( trainedArchive.toPath() );
+            // the same class path as the prefix of the class path of the forked JVM
+            String classPath = join( booterClasspath.iterator(), File.pathSeparator );
+            Process process = new ProcessBuilder( jdk.getJvmExecutable().getAbsolutePath(),
+                "-XX:ArchiveClassesAtExit=" + trainedArchive.getAbsolutePath(),
+                "-cp", classPath,
+                trainerClass )
+                .redirectErrorStream( true )
+                .redirectOutput( trainingLog )
+                .start();
+            process.getOutputStream().close();
+            int exitCode = process.waitFor();
+            if ( exitCode == 0 && trainedArchive.isFile() )
+            {
+                moveArchive( trainedArchive, archive );
+                Files.deleteIfExists( trainingLog.toPath() );
+                log.debug( "Created the class data sharing archive " + archive + " of the class path " + classPath );
+            }
+            else
+            {
+                log.warning( "Could not create the class data sharing archive " + archive + ", see the log "
+                    + trainingLog + ". The forked JVMs start without the archive." );
+            }
+        }
+        catch ( IOException e )
+        {
+            log.warning( "Could not create the class data sharing archive " + archive + ": "
+                + e.getLocalizedMessage() );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        finally
+        {
+            if ( trainedArchive != null )
+            {
+                //noinspection ResultOfMethodCallIgnored
+                trainedArchive.delete();
+            }
+        }
+    }
+
+    private static void moveArchive( File trainedArchive, File archive ) throws IOException
+    {
+        try
+        {
+            // the other plugin processes see either the whole archive or nothing
+            Files.move( trainedArchive.toPath(), archive.toPath(), ATOMIC_MOVE );
+        }
+        catch ( AtomicMoveNotSupportedException e )
+        {
+            Files.move( trainedArchive.toPath(), archive.toPath(), REPLACE_EXISTING );
+        }
+    }
+}
@@ -24,6 +24,7 @@
 import org.apache.maven.plugin.surefire.log.api.ConsoleLogger;
 import org.apache.maven.surefire.booter.AbstractPathConfiguration;
 import org.apache.maven.surefire.booter.Classpath;
+import org.apache.maven.surefire.booter.PooledForkedBooter;
 import org.apache.maven.surefire.booter.StartupConfiguration;
 import org.apache.maven.surefire.booter.SurefireBooterForkException;
 import org.apache.maven.surefire.extensions.ForkNodeFactory;
@@ -42,6 +43,7 @@
 import static org.apache.maven.plugin.surefire.util.Relocator.relocate;
 import static org.apache.maven.plugin.surefire.SurefireHelper.replaceThreadNumberPlaceholders;
 import static org.apache.maven.surefire.booter.Classpath.join;
+import static org.apache.maven.surefire.shared.utils.StringUtils.join;
 
 /**
  * Basic framework which constructs CLI.
@@ -132,6 +134,38 @@ public OutputStreamFlushableCommandline createCommandLine( @Nonnull StartupConfi
                                                                int forkNumber,
                                                                @Nonnull File dumpLogDirectory )
             throws SurefireBooterForkException
+    {
+        OutputStreamFlushableCommandline cli = createJvmCommandLine( forkNumber );
+        resolveClasspath( cli, findStartClass( config ), config, dumpLogDirectory );
+        return cli;
+    }
+
+    /**
+     * The command line of the JVM which runs the test sets of several modules, see {@link PooledForkedBooter}.
+     * Only the booter classpath is on the system classpath of the JVM, the test classpath and provider classpath
+     * are loaded by a new class loader per test set.
+     *
+     * @param config       The startup configuration
+     * @param forkNumber   index of forked JVM, to be the replacement in the argLine
+     * @return CommandLine of the pooled JVM without the arguments of the test set
+     * @throws SurefireBooterForkException when unable to perform the fork
+     */
+    @Nonnull
+    @Override
+    public OutputStreamFlushableCommandline createPooledCommandLine( @Nonnull StartupConfiguration config,
+                                                                     int forkNumber )
+            throws SurefireBooterForkException
+    {
+        OutputStreamFlushableCommandline cli = createJvmCommandLine( forkNumber );
+        cli.addEnvironment( "CLASSPATH", join( getBooterClasspath().iterator(), File.pathSeparator ) );
+        String mainClass = PooledForkedBooter.class.getName();
+        cli.createArg().setValue( config.isShadefire() ? relocate( mainClass ) : mainClass );
+        return cli;
+    }
+
+    @Nonnull
+    private OutputStreamFlushableCommandline createJvmCommandLine( int forkNumber )
+            throws SurefireBooterForkException
     {
         OutputStreamFlushableCommandline cli =
                 new OutputStreamFlushableCommandline( getExcludedEnvironmentVariables() );
@@ -159,8 +193,6 @@ public OutputStreamFlushableCommandline createCommandLine( @Nonnull StartupConfi
                     .setLine( getDebugLine() );
         }
 
-        resolveClasspath( cli, findStartClass( config ), config, dumpLogDirectory );
-
         return cli;
     }
 
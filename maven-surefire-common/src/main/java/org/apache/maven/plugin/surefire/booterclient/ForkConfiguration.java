@@ -68,4 +68,16 @@ public abstract OutputStreamFlushableCommandline createCommandLine( @Nonnull Sta
                                                                         int forkNumber,
                                                                         @Nonnull File dumpLogDirectory )
             throws SurefireBooterForkException;
+
+    /**
+     * @param config               The startup configuration
+     * @param forkNumber           index of forked JVM, to be the replacement in the argLine
+     * @return CommandLine of the JVM kept in the {@link ForkPool fork pool}
+     * @throws org.apache.maven.surefire.booter.SurefireBooterForkException
+     *          when unable to perform the fork
+     */
+    @Nonnull
+    public abstract OutputStreamFlushableCommandline createPooledCommandLine( @Nonnull StartupConfiguration config,
+                                                                              int forkNumber )
+            throws SurefireBooterForkException;
 }
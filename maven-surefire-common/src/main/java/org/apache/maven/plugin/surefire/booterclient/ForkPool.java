@@ -0,0 +1,214 @@
+package org.apache.maven.plugin.surefire.booterclient;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.surefire.shared.utils.cli.CommandLineException;
+import org.apache.maven.surefire.shared.utils.cli.Commandline;
+
+import javax.annotation.Nonnull;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.apache.maven.surefire.shared.utils.cli.ShutdownHookUtils.addShutDownHook;
+
+/**
+ * Keeps the idle forked JVMs of {@link org.apache.maven.surefire.booter.PooledForkedBooter} alive between the
+ * executions of the plugin in the reactor build. The pool lives as long as the class loader of the plugin.
+ * <br>
+ * The forked JVMs are interchangeable if their JVM executable, JVM arguments and booter classpath are equal. The key
+ * of the command line is the checksum of these items, see {@link ChecksumCalculator}. The working directory of the
+ * module is not a part of the key, it is sent along with each test set, see {@link PooledFork#runTestSet}.
+ * <br>
+ * The idle JVMs are destroyed at the {@link #endReactorBuild(String) end of the reactor build}, or when the first
+ * test set of the next reactor build is leased in a long-living Maven JVM, and in the shutdown hook of the plugin
+ * process. The JVMs which have terminated are discarded. The forked JVMs exit as well if their standard input is
+ * closed.
+ *
+ * @since 3.0.0-M6
+ */
+final class ForkPool
+{
+    private static final ForkPool FORK_POOL = new ForkPool();
+
+    private final ConcurrentMap<String, Queue<PooledFork>> idleForks = new ConcurrentHashMap<>();
+
+    private final Queue<PooledFork> forks = new ConcurrentLinkedQueue<>();
+
+    private volatile String reactorBuild;
+
+    private String endedReactorBuild;
+
+    ForkPool()
+    {
+        Thread shutdownHook = new Thread( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                destroyAll();
+            }
+        }, "surefire-fork-pool-shutdown-hook" );
+        shutdownHook.setDaemon( true );
+        addShutDownHook( shutdownHook );
+    }
+
+    static ForkPool getForkPool()
+    {
+        return FORK_POOL;
+    }
+
+    /**
+     * Takes an idle forked JVM with equal command line out of the pool or starts a new JVM.
+     *
+     * @param cli          command line of the pooled JVM
+     * @param reactorBuild the reactor build of the module, see {@link #endReactorBuild(String)}
+     * @return the forked JVM which is not idle until {@link #release(PooledFork) released}
+     * @throws CommandLineException if a new JVM cannot be started
+     */
+    @Nonnull
+    PooledFork lease( @Nonnull Commandline cli, @Nonnull String reactorBuild )
+        throws CommandLineException
+    {
+        joinReactorBuild( reactorBuild );
+        String key = toKey( cli );
+        Queue<PooledFork> idle = idleForks.get( key );
+        if ( idle != null )
+        {
+            for ( PooledFork fork = idle.poll(); fork != null; fork = idle.poll() )
+            {
+                if ( fork.isAlive() )
+                {
+                    return fork;
+                }
+                forks.remove( fork );
+            }
+        }
+        PooledFork fork = new PooledFork( key, reactorBuild, cli.execute() );
+        forks.add( fork );
+        return fork;
+    }
+
+    /**
+     * Returns the forked JVM back to the pool after the test set has finished. The JVM is destroyed if it has not
+     * finished the test set normally or its reactor build has ended.
+     *
+     * @param fork leased JVM
+     */
+    void release( @Nonnull PooledFork fork )
+    {
+        if ( fork.isAlive() && fork.isIdle() && fork.getReactorBuild().equals( reactorBuild ) )
+        {
+            Queue<PooledFork> idle = idleForks.get( fork.getKey() );
+            if ( idle == null )
+            {
+                Queue<PooledFork> newIdle = new ConcurrentLinkedQueue<>();
+                idle = idleForks.putIfAbsent( fork.getKey(), newIdle );
+                if ( idle == null )
+                {
+                    idle = newIdle;
+                }
+            }
+            idle.add( fork );
+        }
+        else
+        {
+            forks.remove( fork );
+            fork.destroy();
+        }
+    }
+
+    /**
+     * Destroys the idle forked JVMs of the reactor build after its last module has finished. The JVMs which are still
+     * running a test set, e.g. in a parallel reactor build, are destroyed when they are {@link #release released}.
+     *
+     * @param reactorBuild the reactor build which has ended
+     */
+    synchronized void endReactorBuild( @Nonnull String reactorBuild )
+    {
+        if ( reactorBuild.equals( this.reactorBuild ) )
+        {
+            this.reactorBuild = null;
+            endedReactorBuild = reactorBuild;
+            destroyIdleForks();
+        }
+    }
+
+    /**
+     * The forked JVMs of the previous reactor build are not reused by the next build in a long-living Maven JVM.
+     */
+    synchronized void joinReactorBuild( @Nonnull String reactorBuild )
+    {
+        if ( !reactorBuild.equals( this.reactorBuild ) && !reactorBuild.equals( endedReactorBuild ) )
+        {
+            destroyIdleForks();
+            this.reactorBuild = reactorBuild;
+        }
+    }
+
+    private void destroyIdleForks()
+    {
+        for ( Queue<PooledFork> idle : idleForks.values() )
+        {
+            for ( PooledFork fork = idle.poll(); fork != null; fork = idle.poll() )
+            {
+                forks.remove( fork );
+                fork.destroy();
+            }
+        }
+    }
+
+    int countIdleForks()
+    {
+        int count = 0;
+        for ( Queue<PooledFork> idle : idleForks.values() )
+        {
+            count += idle.size();
+        }
+        return count;
+    }
+
+    void destroyAll()
+    {
+        idleForks.clear();
+        for ( PooledFork fork = forks.poll(); fork != null; fork = forks.poll() )
+        {
+            fork.destroy();
+        }
+    }
+
+    @Nonnull
+    static String toKey( @Nonnull Commandline cli )
+    {
+        ChecksumCalculator checksum = new ChecksumCalculator();
+        checksum.add( cli.getExecutable() );
+        checksum.add( cli.getArguments() );
+        for ( String environmentVariable : cli.getEnvironmentVariables() )
+        {
+            // the booter classpath
+            if ( environmentVariable.startsWith( "CLASSPATH=" ) )
+            {
+                checksum.add( environmentVariable );
+            }
+        }
+        return checksum.getSha1();
+    }
+}
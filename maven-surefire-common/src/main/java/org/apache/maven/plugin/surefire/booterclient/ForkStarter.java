@@ -27,13 +27,17 @@
 import org.apache.maven.plugin.surefire.booterclient.lazytestprovider.OutputStreamFlushableCommandline;
 import org.apache.maven.plugin.surefire.booterclient.lazytestprovider.TestLessInputStream;
 import org.apache.maven.plugin.surefire.booterclient.lazytestprovider.TestProvidingInputStream;
+import org.apache.maven.plugin.surefire.booterclient.output.EventQueueWaitStrategy;
 import org.apache.maven.plugin.surefire.booterclient.output.ForkClient;
 import org.apache.maven.plugin.surefire.booterclient.output.InPluginProcessDumpSingleton;
 import org.apache.maven.plugin.surefire.booterclient.output.NativeStdErrStreamConsumer;
 import org.apache.maven.plugin.surefire.booterclient.output.ThreadedStreamConsumer;
+import org.apache.maven.plugin.surefire.extensions.SurefireForkNodeFactory;
 import org.apache.maven.plugin.surefire.log.api.ConsoleLogger;
 import org.apache.maven.plugin.surefire.report.DefaultReporterFactory;
+import org.apache.maven.plugin.surefire.util.TestResultCache;
 import org.apache.maven.surefire.booter.AbstractPathConfiguration;
+import org.apache.maven.surefire.booter.ClassDataSharingTrainer;
 import org.apache.maven.surefire.booter.PropertiesWrapper;
 import org.apache.maven.surefire.booter.ProviderConfiguration;
 import org.apache.maven.surefire.booter.ProviderFactory;
@@ -53,15 +57,20 @@
 import org.apache.maven.surefire.api.provider.SurefireProvider;
 import org.apache.maven.surefire.api.report.StackTraceWriter;
 import org.apache.maven.surefire.api.suite.RunResult;
+import org.apache.maven.surefire.api.testset.RunOrderParameters;
 import org.apache.maven.surefire.api.testset.TestRequest;
 import org.apache.maven.surefire.api.util.DefaultScanResult;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
@@ -83,16 +92,21 @@
 import static java.lang.System.currentTimeMillis;
 import static java.lang.Thread.currentThread;
 import static java.util.Collections.addAll;
+import static java.util.Collections.singletonList;
 import static java.util.UUID.randomUUID;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.apache.maven.plugin.surefire.AbstractSurefireMojo.createCopyAndReplaceForkNumPlaceholder;
 import static org.apache.maven.plugin.surefire.SurefireHelper.DUMP_FILE_PREFIX;
 import static org.apache.maven.plugin.surefire.SurefireHelper.replaceForkThreadsInPath;
+import static org.apache.maven.plugin.surefire.booterclient.AdaptiveForkCount.SAMPLING_PERIOD_MILLIS;
 import static org.apache.maven.plugin.surefire.booterclient.ForkNumberBucket.drawNumber;
 import static org.apache.maven.plugin.surefire.booterclient.ForkNumberBucket.returnNumber;
 import static org.apache.maven.plugin.surefire.booterclient.lazytestprovider.TestLessInputStream.TestLessInputStreamBuilder;
+import static org.apache.maven.plugin.surefire.booterclient.output.EventQueueWaitStrategy.PARK;
+import static org.apache.maven.plugin.surefire.util.Relocator.relocate;
 import static org.apache.maven.surefire.booter.SystemPropertyManager.writePropertiesFile;
 import static org.apache.maven.surefire.api.cli.CommandLineOption.SHOW_ERRORS;
 import static org.apache.maven.surefire.shared.utils.cli.ShutdownHookUtils.addShutDownHook;
@@ -159,6 +173,20 @@
 
     private final Collection<DefaultReporterFactory> defaultReporterFactories;
 
+    private final LongestFirstTestScheduler testScheduler;
+
+    private final ForkPool forkPool;
+
+    private final String reactorBuild;
+
+    private final EventQueueWaitStrategy eventQueueWaitStrategy;
+
+    private final ClassDataSharing classDataSharing;
+
+    private final TestMethodChunker testMethodChunker;
+
+    private final AdaptiveForkCount adaptiveForkCount;
+
     /**
      * Closes stuff, with a shutdown hook to make sure things really get closed.
      */
@@ -240,6 +268,31 @@ void addCloseable( Closeable closeable )
     public ForkStarter( ProviderConfiguration providerConfiguration, StartupConfiguration startupConfiguration,
                         ForkConfiguration forkConfiguration, int forkedProcessTimeoutInSeconds,
                         StartupReportConfiguration startupReportConfiguration, ConsoleLogger log )
+    {
+        this( providerConfiguration, startupConfiguration, forkConfiguration, forkedProcessTimeoutInSeconds,
+            startupReportConfiguration, log, false, 0, null, PARK, null, 0, null );
+    }
+
+    /**
+     * @param balanceForks                    dispatch the test classes longest first by the run statistics
+     * @param defaultTestClassRunTimeInMillis estimated run time of the test class which is not in the statistics
+     * @param reactorBuild                    the reactor build whose modules run the test sets in the JVMs of the
+     *                                        {@link ForkPool}, or null to not reuse the JVMs across the modules
+     * @param eventQueueWaitStrategy          the way the threads wait on the queue of the events from the fork
+     * @param classDataSharing                the class data sharing archive of the forked JVMs, or null
+     * @param testMethodChunkSize             the number of the test methods of JUnit Platform in one chunk of a test
+     *                                        class distributed over the forked JVMs, or 0 to run the whole classes
+     * @param adaptiveForkCount               the number of the forks running at the same time adapted to the system
+     *                                        resources, or null to run {@code forkCount} forks
+     */
+    @SuppressWarnings( "checkstyle:parameternumber" )
+    public ForkStarter( ProviderConfiguration providerConfiguration, StartupConfiguration startupConfiguration,
+                        ForkConfiguration forkConfiguration, int forkedProcessTimeoutInSeconds,
+                        StartupReportConfiguration startupReportConfiguration, ConsoleLogger log,
+                        boolean balanceForks, int defaultTestClassRunTimeInMillis, @Nullable String reactorBuild,
+                        @Nonnull EventQueueWaitStrategy eventQueueWaitStrategy,
+                        @Nullable ClassDataSharing classDataSharing, int testMethodChunkSize,
+                        @Nullable AdaptiveForkCount adaptiveForkCount )
     {
         this.forkConfiguration = forkConfiguration;
         this.providerConfiguration = providerConfiguration;
@@ -247,12 +300,19 @@ public ForkStarter( ProviderConfiguration providerConfiguration, StartupConfigur
         this.startupConfiguration = startupConfiguration;
         this.startupReportConfiguration = startupReportConfiguration;
         this.log = log;
+        this.eventQueueWaitStrategy = eventQueueWaitStrategy;
         defaultReporterFactory = new DefaultReporterFactory( startupReportConfiguration, log );
         defaultReporterFactory.runStarting();
         defaultReporterFactories = new ConcurrentLinkedQueue<>();
         currentForkClients = new ConcurrentLinkedQueue<>();
         timeoutCheckScheduler = createTimeoutCheckScheduler();
         triggerTimeoutCheck();
+        testScheduler = balanceForks ? createTestScheduler( defaultTestClassRunTimeInMillis ) : null;
+        this.reactorBuild = reactorBuild;
+        forkPool = reactorBuild != null && canReuseForksAcrossModules() ? ForkPool.getForkPool() : null;
+        this.classDataSharing = classDataSharing != null && canShareClassData() ? classDataSharing : null;
+        testMethodChunker = testMethodChunkSize > 0 ? new TestMethodChunker( testMethodChunkSize ) : null;
+        this.adaptiveForkCount = adaptiveForkCount;
     }
 
     public RunResult run( @Nonnull SurefireProperties effectiveSystemProperties, @Nonnull DefaultScanResult scanResult )
@@ -268,6 +328,8 @@ public RunResult run( @Nonnull SurefireProperties effectiveSystemProperties, @No
         }
         finally
         {
+            // the chunks of a test class whose other chunks have not completed, e.g. in a crashed fork
+            startupReportConfiguration.getTestSetChunks().completeRemainingTestSets();
             defaultReporterFactory.mergeFromOtherFactories( defaultReporterFactories );
             defaultReporterFactory.close();
             pingThreadScheduler.shutdownNow();
@@ -279,6 +341,32 @@ public RunResult run( @Nonnull SurefireProperties effectiveSystemProperties, @No
         }
     }
 
+    /**
+     * Replays the cached results of the test classes which do not run in the forked JVMs. The replayed tests are
+     * reported in the summary of the run.
+     *
+     * @param testResultCache the cached results
+     * @return the statistics of the replayed tests
+     */
+    public RunResult replay( @Nonnull TestResultCache testResultCache )
+    {
+        DefaultReporterFactory replayedReporterFactory =
+            new DefaultReporterFactory( startupReportConfiguration, log, 1 );
+        defaultReporterFactories.add( replayedReporterFactory );
+        return testResultCache.replay( replayedReporterFactory );
+    }
+
+    /**
+     * Destroys the idle forked JVMs which the modules of the reactor build have reused, see
+     * {@code reuseForksAcrossModules}. Called after the last module of the reactor build.
+     *
+     * @param reactorBuild the reactor build which has ended
+     */
+    public static void endReactorBuild( @Nonnull String reactorBuild )
+    {
+        ForkPool.getForkPool().endReactorBuild( reactorBuild );
+    }
+
     public void killOrphanForks()
     {
         for ( ForkClient fork : currentForkClients )
@@ -318,9 +406,20 @@ private RunResult run( SurefireProperties effectiveSystemProperties, Map<String,
     private RunResult run( SurefireProperties effectiveSystemProperties )
             throws SurefireBooterForkException
     {
-        return forkConfiguration.isReuseForks()
-                ? runSuitesForkOnceMultiple( effectiveSystemProperties, forkConfiguration.getForkCount() )
-                : runSuitesForkPerTestSet( effectiveSystemProperties, forkConfiguration.getForkCount() );
+        ScheduledFuture<?> adaptation = triggerAdaptiveForkCount();
+        try
+        {
+            return forkConfiguration.isReuseForks()
+                    ? runSuitesForkOnceMultiple( effectiveSystemProperties, forkConfiguration.getForkCount() )
+                    : runSuitesForkPerTestSet( effectiveSystemProperties, forkConfiguration.getForkCount() );
+        }
+        finally
+        {
+            if ( adaptation != null )
+            {
+                adaptation.cancel( true );
+            }
+        }
     }
 
     private boolean isForkOnce()
@@ -344,25 +443,29 @@ private RunResult runSuitesForkOnceMultiple( final SurefireProperties effectiveS
 
         final Queue<String> tests = new ConcurrentLinkedQueue<>();
 
-        for ( Class<?> clazz : getSuitesIterator() )
+        Iterable<Class<?>> suites = scheduleSuites( forkCount );
+        for ( Class<?> clazz : suites )
         {
-            tests.add( clazz.getName() );
+            tests.addAll( toTests( clazz ) );
         }
 
         final Queue<TestProvidingInputStream> testStreams = new ConcurrentLinkedQueue<>();
 
-        for ( int forkNum = 0, total = min( forkCount, tests.size() ); forkNum < total; forkNum++ )
+        // the adaptive forks create the streams on their own
+        final int streamCount = min( forkCount, tests.size() );
+        for ( int forkNum = 0; adaptiveForkCount == null && forkNum < streamCount; forkNum++ )
         {
             testStreams.add( new TestProvidingInputStream( tests ) );
         }
 
         ScheduledFuture<?> ping = triggerPingTimerForShutdown( testStreams );
         Thread shutdown = createShutdownHookThread( testStreams, providerConfiguration.getShutdown() );
+        long startedAt = currentTimeMillis();
 
         try
         {
             addShutDownHook( shutdown );
-            int failFastCount = providerConfiguration.getSkipAfterFailureCount();
+            final int failFastCount = providerConfiguration.getSkipAfterFailureCount();
             final AtomicInteger notifyStreamsToSkipTestsJustNow = new AtomicInteger( failFastCount );
             final Collection<Future<RunResult>> results = new ArrayList<>( forkCount );
             for ( final TestProvidingInputStream testProvidingInputStream : testStreams )
@@ -373,37 +476,59 @@ private RunResult runSuitesForkOnceMultiple( final SurefireProperties effectiveS
                     public RunResult call()
                         throws Exception
                     {
-                        int forkNumber = drawNumber();
-                        DefaultReporterFactory reporter =
-                                new DefaultReporterFactory( startupReportConfiguration, log, forkNumber );
-                        defaultReporterFactories.add( reporter );
-                        ForkClient forkClient = new ForkClient( reporter, testProvidingInputStream, forkNumber )
+                        return fork( testProvidingInputStream, testStreams, notifyStreamsToSkipTestsJustNow,
+                            effectiveSystemProperties );
+                    }
+                };
+                results.add( executorService.submit( pf ) );
+            }
+            for ( int forkNum = 0; adaptiveForkCount != null && forkNum < streamCount; forkNum++ )
+            {
+                Callable<RunResult> pf = new Callable<RunResult>()
+                {
+                    @Override
+                    public RunResult call()
+                        throws Exception
+                    {
+                        RunResult runResult = new RunResult( 0, 0, 0, 0 );
+                        TestProvidingInputStream stream;
+                        do
                         {
-                            @Override
-                            protected void stopOnNextTest()
+                            adaptiveForkCount.acquire();
+                            if ( tests.isEmpty() )
                             {
-                                if ( countDownToZero( notifyStreamsToSkipTestsJustNow ) )
+                                adaptiveForkCount.release();
+                                break;
+                            }
+                            stream = new TestProvidingInputStream( tests, adaptiveForkCount );
+                            testStreams.add( stream );
+                            if ( failFastCount > 0 && notifyStreamsToSkipTestsJustNow.get() == 0 )
+                            {
+                                stream.skipSinceNextTest();
+                            }
+                            try
+                            {
+                                runResult = runResult.aggregate( fork( stream, testStreams,
+                                    notifyStreamsToSkipTestsJustNow, effectiveSystemProperties ) );
+                            }
+                            finally
+                            {
+                                testStreams.remove( stream );
+                                if ( !stream.hasLeft() )
                                 {
-                                    notifyStreamsToSkipTests( testStreams );
+                                    adaptiveForkCount.release();
                                 }
                             }
-                        };
-                        Map<String, String> providerProperties = providerConfiguration.getProviderProperties();
-                        try
-                        {
-                            return fork( null, new PropertiesWrapper( providerProperties ), forkClient,
-                                    effectiveSystemProperties, forkNumber, testProvidingInputStream,
-                                    forkConfiguration.getForkNodeFactory(), true );
-                        }
-                        finally
-                        {
-                            returnNumber( forkNumber );
                         }
+                        while ( stream.hasLeft() );
+                        return runResult;
                     }
                 };
                 results.add( executorService.submit( pf ) );
             }
-            return awaitResultsDone( results, executorService );
+            RunResult runResult = awaitResultsDone( results, executorService );
+            logMakespan( suites, forkCount, startedAt );
+            return runResult;
         }
         finally
         {
@@ -413,6 +538,41 @@ protected void stopOnNextTest()
         }
     }
 
+    /**
+     * Runs the tests of the {@code testProvidingInputStream} in a reusable fork.
+     */
+    private RunResult fork( TestProvidingInputStream testProvidingInputStream,
+                            final Collection<TestProvidingInputStream> testStreams,
+                            final AtomicInteger notifyStreamsToSkipTestsJustNow,
+                            SurefireProperties effectiveSystemProperties )
+        throws SurefireBooterForkException
+    {
+        int forkNumber = drawNumber();
+        DefaultReporterFactory reporter = new DefaultReporterFactory( startupReportConfiguration, log, forkNumber );
+        defaultReporterFactories.add( reporter );
+        ForkClient forkClient = new ForkClient( reporter, testProvidingInputStream, forkNumber )
+        {
+            @Override
+            protected void stopOnNextTest()
+            {
+                if ( countDownToZero( notifyStreamsToSkipTestsJustNow ) )
+                {
+                    notifyStreamsToSkipTests( testStreams );
+                }
+            }
+        };
+        Map<String, String> providerProperties = providerConfiguration.getProviderProperties();
+        try
+        {
+            return fork( null, new PropertiesWrapper( providerProperties ), forkClient, effectiveSystemProperties,
+                forkNumber, testProvidingInputStream, forkConfiguration.getForkNodeFactory(), true );
+        }
+        finally
+        {
+            returnNumber( forkNumber );
+        }
+    }
+
     private static void notifyStreamsToSkipTests( Collection<? extends NotifiableTestStream> notifiableTestStreams )
     {
         for ( NotifiableTestStream notifiableTestStream : notifiableTestStreams )
@@ -432,12 +592,14 @@ private RunResult runSuitesForkPerTestSet( final SurefireProperties effectiveSys
         final TestLessInputStreamBuilder builder = new TestLessInputStreamBuilder();
         ScheduledFuture<?> ping = triggerPingTimerForShutdown( builder );
         Thread shutdown = createCachableShutdownHookThread( builder, providerConfiguration.getShutdown() );
+        long startedAt = currentTimeMillis();
         try
         {
             addShutDownHook( shutdown );
             int failFastCount = providerConfiguration.getSkipAfterFailureCount();
             final AtomicInteger notifyStreamsToSkipTestsJustNow = new AtomicInteger( failFastCount );
-            for ( final Object testSet : getSuitesIterator() )
+            Iterable<Class<?>> suites = scheduleSuites( forkCount );
+            for ( final Object testSet : suites )
             {
                 Callable<RunResult> pf = new Callable<RunResult>()
                 {
@@ -445,6 +607,10 @@ private RunResult runSuitesForkPerTestSet( final SurefireProperties effectiveSys
                     public RunResult call()
                         throws Exception
                     {
+                        if ( adaptiveForkCount != null )
+                        {
+                            adaptiveForkCount.acquire();
+                        }
                         int forkNumber = drawNumber();
                         DefaultReporterFactory forkedReporterFactory =
                             new DefaultReporterFactory( startupReportConfiguration, log, forkNumber );
@@ -472,12 +638,18 @@ protected void stopOnNextTest()
                         {
                             returnNumber( forkNumber );
                             builder.removeStream( stream );
+                            if ( adaptiveForkCount != null )
+                            {
+                                adaptiveForkCount.release();
+                            }
                         }
                     }
                 };
                 results.add( executorService.submit( pf ) );
             }
-            return awaitResultsDone( results, executorService );
+            RunResult runResult = awaitResultsDone( results, executorService );
+            logMakespan( suites, forkCount, startedAt );
+            return runResult;
         }
         finally
         {
@@ -607,20 +779,43 @@ private RunResult fork( Object testSet, PropertiesWrapper providerProperties, Fo
             throw new SurefireBooterForkException( "Error creating properties files for forking", e );
         }
 
-        OutputStreamFlushableCommandline cli =
-                forkConfiguration.createCommandLine( startupConfiguration, forkNumber, dumpLogDir );
+        OutputStreamFlushableCommandline cli = forkPool == null
+            ? forkConfiguration.createCommandLine( startupConfiguration, forkNumber, dumpLogDir )
+            : forkConfiguration.createPooledCommandLine( startupConfiguration, forkNumber );
+
+        if ( classDataSharing != null )
+        {
+            String trainerClass = ClassDataSharingTrainer.class.getName();
+            String sharedArchive = classDataSharing.getJvmOption( forkConfiguration.getJdkForTests(),
+                forkConfiguration.getBooterClasspath(),
+                startupConfiguration.isShadefire() ? relocate( trainerClass ) : trainerClass );
+            if ( sharedArchive != null )
+            {
+                // the first argument, the JVM option precedes the main class
+                cli.createArg( true ).setValue( sharedArchive );
+            }
+        }
 
         commandReader.setFlushReceiverProvider( cli );
 
-        cli.createArg().setValue( tempDir );
-        cli.createArg().setValue( DUMP_FILE_PREFIX + forkNumber );
-        cli.createArg().setValue( surefireProperties.getName() );
+        List<String> testSetArguments = new ArrayList<>();
+        testSetArguments.add( tempDir );
+        testSetArguments.add( DUMP_FILE_PREFIX + forkNumber );
+        testSetArguments.add( surefireProperties.getName() );
         if ( systPropsFile != null )
         {
-            cli.createArg().setValue( systPropsFile.getName() );
+            testSetArguments.add( systPropsFile.getName() );
         }
 
-        ThreadedStreamConsumer eventConsumer = new ThreadedStreamConsumer( forkClient );
+        if ( forkPool == null )
+        {
+            for ( String testSetArgument : testSetArguments )
+            {
+                cli.createArg().setValue( testSetArgument );
+            }
+        }
+
+        ThreadedStreamConsumer eventConsumer = new ThreadedStreamConsumer( forkClient, eventQueueWaitStrategy );
         closer.addCloseable( eventConsumer );
 
         log.debug( "Forking command line: " + cli );
@@ -635,26 +830,55 @@ private RunResult fork( Object testSet, PropertiesWrapper providerProperties, Fo
         currentForkClients.add( forkClient );
         CountdownCloseable countdownCloseable =
             new CountdownCloseable( eventConsumer, forkChannel.getCountdownCloseablePermits() );
-        try ( CommandlineExecutor exec = new CommandlineExecutor( cli, countdownCloseable ) )
+        PooledFork pooledFork = null;
+        try ( CommandlineExecutor exec = forkPool == null ? new CommandlineExecutor( cli, countdownCloseable ) : null )
         {
-            CommandlineStreams streams = exec.execute();
-            closer.addCloseable( streams );
+            final ReadableByteChannel stdOut;
+            final ReadableByteChannel stdErr;
+            final WritableByteChannel stdIn;
+            if ( exec == null )
+            {
+                pooledFork = forkPool.lease( cli, reactorBuild );
+                pooledFork.runTestSet( cli.getWorkingDirectory(), testSetArguments );
+                stdOut = pooledFork.getStdOutChannel();
+                stdErr = pooledFork.getStdErrChannel();
+                // the standard input of the pooled JVM is the channel of the test set requests
+                stdIn = null;
+                closer.addCloseable( stdOut );
+                closer.addCloseable( stdErr );
+            }
+            else
+            {
+                CommandlineStreams streams = exec.execute();
+                closer.addCloseable( streams );
+                stdOut = streams.getStdOutChannel();
+                stdErr = streams.getStdErrChannel();
+                stdIn = streams.getStdInChannel();
+            }
 
             forkChannel.connectToClient();
             log.debug( "Fork Channel [" + forkNumber + "] connected to the client." );
 
-            in = forkChannel.bindCommandReader( commandReader, streams.getStdInChannel() );
+            in = forkChannel.bindCommandReader( commandReader, stdIn );
             in.start();
 
-            out = forkChannel.bindEventHandler( eventConsumer, countdownCloseable, streams.getStdOutChannel() );
+            out = forkChannel.bindEventHandler( eventConsumer, countdownCloseable, stdOut );
             out.start();
 
             EventHandler<String> errConsumer = new NativeStdErrStreamConsumer( log );
-            err = new LineConsumerThread( "fork-" + forkNumber + "-err-thread", streams.getStdErrChannel(),
+            err = new LineConsumerThread( "fork-" + forkNumber + "-err-thread", stdErr,
                 errConsumer, countdownCloseable );
             err.start();
 
-            result = exec.awaitExit();
+            if ( exec == null )
+            {
+                result = pooledFork.awaitTestSet();
+                countdownCloseable.awaitClosed();
+            }
+            else
+            {
+                result = exec.awaitExit();
+            }
 
             if ( forkClient.hadTimeout() )
             {
@@ -688,6 +912,13 @@ else if ( result != SUCCESS )
             log.debug( "Closing the fork " + forkNumber + " after "
                 + ( forkClient.isSaidGoodBye() ? "saying GoodBye." : "not saying Good Bye." ) );
             currentForkClients.remove( forkClient );
+            if ( pooledFork != null )
+            {
+                forkPool.release( pooledFork );
+            }
+            log.debug( "Event queue of the fork " + forkNumber + ": max depth " + eventConsumer.getMaxQueueDepth()
+                + ", producer stalls " + eventConsumer.getProducerStalls() + " in "
+                + NANOSECONDS.toMillis( eventConsumer.getProducerStallNanos() ) + " millis." );
             try
             {
                 Closeable c = forkClient.isSaidGoodBye() ? closer : commandReader;
@@ -761,6 +992,85 @@ else if ( result != SUCCESS )
         return runResult;
     }
 
+    private boolean canShareClassData()
+    {
+        // the booter classpath is the prefix of the system classpath of the forked JVM
+        boolean canShare = forkPool == null
+            && forkConfiguration instanceof ClasspathForkConfiguration
+            && ClassDataSharing.isSupported( forkConfiguration.getJdkForTests() );
+        if ( !canShare )
+        {
+            log.warning( "The parameter classDataSharing requires Java 13 or later in the forked JVM, the class-path "
+                + "(not the module-path), useManifestOnlyJar=false and reuseForksAcrossModules=false. The forked "
+                + "JVMs start without the class data sharing archive." );
+        }
+        return canShare;
+    }
+
+    private boolean canReuseForksAcrossModules()
+    {
+        boolean canReuse = forkConfiguration.isReuseForks()
+            && startupConfiguration.getClasspathConfiguration().isClassPathConfig()
+            && forkConfiguration.getForkNodeFactory() instanceof SurefireForkNodeFactory;
+        if ( !canReuse )
+        {
+            log.warning( "The parameter reuseForksAcrossModules requires reuseForks=true, the class-path (not the "
+                + "module-path) and the forkNode " + SurefireForkNodeFactory.class.getName()
+                + ". The forked JVMs are not reused across the modules." );
+        }
+        return canReuse;
+    }
+
+    private LongestFirstTestScheduler createTestScheduler( int defaultTestClassRunTimeInMillis )
+    {
+        RunOrderParameters runOrderParameters = providerConfiguration.getRunOrderParameters();
+        File statisticsFile = runOrderParameters == null ? null : runOrderParameters.getRunStatisticsFile();
+        return LongestFirstTestScheduler.fromStatisticsFile( statisticsFile, defaultTestClassRunTimeInMillis );
+    }
+
+    private Iterable<Class<?>> scheduleSuites( int forkCount )
+        throws SurefireBooterForkException
+    {
+        Iterable<Class<?>> suites = getSuitesIterator();
+        if ( testScheduler == null )
+        {
+            return suites;
+        }
+        List<Class<?>> scheduledSuites = testScheduler.schedule( suites );
+        log.debug( "Scheduled " + scheduledSuites.size() + " test classes longest first in " + forkCount + " forks." );
+        return scheduledSuites;
+    }
+
+    /**
+     * @return the name of the test class, or the chunks of its test methods which run in several forks in parallel
+     */
+    private List<String> toTests( Class<?> testClass )
+    {
+        if ( testMethodChunker == null )
+        {
+            return singletonList( testClass.getName() );
+        }
+
+        List<String> chunks = testMethodChunker.split( testClass );
+        if ( chunks.size() > 1 )
+        {
+            startupReportConfiguration.getTestSetChunks().register( testClass.getName(), chunks.size() );
+            log.debug( "Split the test class " + testClass.getName() + " in " + chunks.size() + " chunks." );
+        }
+        return chunks;
+    }
+
+    private void logMakespan( Iterable<Class<?>> suites, int forkCount, long startedAt )
+    {
+        if ( testScheduler != null )
+        {
+            long actualMakespan = currentTimeMillis() - startedAt;
+            long predictedMakespan = testScheduler.predictMakespan( suites, forkCount );
+            log.info( "Forks balanced by test run statistics: predicted makespan " + predictedMakespan
+                + " ms, actual makespan " + actualMakespan + " ms." );
+        }
+    }
+
     private Iterable<Class<?>> getSuitesIterator()
         throws SurefireBooterForkException
     {
@@ -864,6 +1174,25 @@ public void run()
         }, 0, PING_IN_SECONDS, SECONDS );
     }
 
+    private ScheduledFuture<?> triggerAdaptiveForkCount()
+    {
+        if ( adaptiveForkCount == null )
+        {
+            return null;
+        }
+        adaptiveForkCount.update();
+        log.info( "Adaptive fork count from " + adaptiveForkCount.getMin() + " to " + adaptiveForkCount.getMax()
+            + ", starting with " + adaptiveForkCount.getTarget() + "." );
+        return timeoutCheckScheduler.scheduleWithFixedDelay( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                adaptiveForkCount.update();
+            }
+        }, SAMPLING_PERIOD_MILLIS, SAMPLING_PERIOD_MILLIS, MILLISECONDS );
+    }
+
     private ScheduledFuture<?> triggerTimeoutCheck()
     {
         return timeoutCheckScheduler.scheduleWithFixedDelay( new Runnable()
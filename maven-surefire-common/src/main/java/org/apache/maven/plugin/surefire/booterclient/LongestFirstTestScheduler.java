@@ -0,0 +1,117 @@
+package org.apache.maven.plugin.surefire.booterclient;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.surefire.api.runorder.RunEntryStatisticsMap;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import static java.lang.Math.max;
+
+/**
+ * Orders the test classes dispatched to the forked JVMs from the longest to the shortest run time recorded in
+ * the statistics file of the previous builds (the longest processing time first rule).
+ * The forks pick the test classes from one queue, therefore the long running test classes start first and
+ * the short ones fill the gaps at the end of the build instead of one fork running a long test class alone.
+ * <br>
+ * The test classes which have not been recorded yet are estimated by the default run time.
+ *
+ * @since 3.0.0-M6
+ */
+final class LongestFirstTestScheduler
+{
+    private final Map<String, Integer> runTimes;
+
+    private final int defaultRunTime;
+
+    LongestFirstTestScheduler( @Nonnull Map<String, Integer> runTimes, int defaultRunTime )
+    {
+        this.runTimes = runTimes;
+        this.defaultRunTime = defaultRunTime;
+    }
+
+    static LongestFirstTestScheduler fromStatisticsFile( File statisticsFile, int defaultRunTime )
+    {
+        RunEntryStatisticsMap statistics = statisticsFile == null
+            ? new RunEntryStatisticsMap() : RunEntryStatisticsMap.fromFile( statisticsFile );
+        return new LongestFirstTestScheduler( statistics.getTestClassRunTimes(), defaultRunTime );
+    }
+
+    int estimateRunTime( @Nonnull Class<?> testClass )
+    {
+        Integer runTime = runTimes.get( testClass.getName() );
+        return runTime == null ? defaultRunTime : runTime;
+    }
+
+    /**
+     * @param testClasses test classes in the order of the run order calculator
+     * @return test classes sorted by the estimated run time in descending order, the ties keep their order
+     */
+    @Nonnull
+    List<Class<?>> schedule( @Nonnull Iterable<Class<?>> testClasses )
+    {
+        List<Class<?>> scheduled = new ArrayList<>();
+        for ( Class<?> testClass : testClasses )
+        {
+            scheduled.add( testClass );
+        }
+        Collections.sort( scheduled, new Comparator<Class<?>>()
+        {
+            @Override
+            public int compare( Class<?> o1, Class<?> o2 )
+            {
+                return Integer.compare( estimateRunTime( o2 ), estimateRunTime( o1 ) );
+            }
+        } );
+        return scheduled;
+    }
+
+    /**
+     * Simulates the forks picking the test classes one after another from the queue.
+     *
+     * @param testClasses test classes in the order of dispatching
+     * @param forkCount   the number of concurrent forks
+     * @return the estimated wall-clock time in milliseconds until the last fork has finished
+     */
+    long predictMakespan( @Nonnull Iterable<Class<?>> testClasses, int forkCount )
+    {
+        int concurrency = max( forkCount, 1 );
+        PriorityQueue<Long> forks = new PriorityQueue<>( concurrency );
+        for ( int i = 0; i < concurrency; i++ )
+        {
+            forks.add( 0L );
+        }
+        long makespan = 0L;
+        for ( Class<?> testClass : testClasses )
+        {
+            long finished = forks.poll() + estimateRunTime( testClass );
+            makespan = max( makespan, finished );
+            forks.add( finished );
+        }
+        return makespan;
+    }
+}
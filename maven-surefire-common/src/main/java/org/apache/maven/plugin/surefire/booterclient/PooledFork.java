@@ -0,0 +1,296 @@
+package org.apache.maven.plugin.surefire.booterclient;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import javax.annotation.Nonnull;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.maven.surefire.booter.PooledForkedBooter.ARGUMENTS_SEPARATOR;
+import static org.apache.maven.surefire.booter.PooledForkedBooter.TEST_SET_FINISHED;
+
+/**
+ * The forked JVM of {@link org.apache.maven.surefire.booter.PooledForkedBooter} in the {@link ForkPool}.
+ * <br>
+ * The native standard output and error streams of the process are read by two daemon threads as long as the process
+ * is alive. The lines printed within one test set are forwarded to the {@link #getStdOutChannel() out} and
+ * {@link #getStdErrChannel() err} channels of the test set. These channels reach the end of stream when the forked
+ * JVM has printed the line {@link org.apache.maven.surefire.booter.PooledForkedBooter#TEST_SET_FINISHED} or
+ * the process has terminated.
+ *
+ * @since 3.0.0-M6
+ */
+final class PooledFork
+{
+    private static final byte[] END_OF_TEST_SET = TEST_SET_FINISHED.getBytes( US_ASCII );
+
+    private final String key;
+    private final String reactorBuild;
+    private final Process process;
+    private final OutputStream requests;
+    private final OutputPump out;
+    private final OutputPump err;
+    private volatile CountDownLatch testSetFinished = new CountDownLatch( 0 );
+    private volatile boolean alive = true;
+
+    PooledFork( @Nonnull String key, @Nonnull String reactorBuild, @Nonnull Process process )
+    {
+        this.key = key;
+        this.reactorBuild = reactorBuild;
+        this.process = process;
+        requests = process.getOutputStream();
+        out = new OutputPump( "surefire-pooled-fork-out-thread", process.getInputStream() );
+        err = new OutputPump( "surefire-pooled-fork-err-thread", process.getErrorStream() );
+        out.start();
+        err.start();
+    }
+
+    @Nonnull
+    String getKey()
+    {
+        return key;
+    }
+
+    @Nonnull
+    String getReactorBuild()
+    {
+        return reactorBuild;
+    }
+
+    boolean isAlive()
+    {
+        return alive;
+    }
+
+    boolean isIdle()
+    {
+        return testSetFinished.getCount() == 0;
+    }
+
+    /**
+     * Requests the forked JVM to run the test set.
+     *
+     * @param workingDirectory the working directory of the module, the system property {@code user.dir} of the
+     *                         test set
+     * @param arguments        the arguments of {@link org.apache.maven.surefire.booter.ForkedBooter#main(String[])}
+     * @throws IOException if the request cannot be sent to the forked JVM
+     */
+    void runTestSet( @Nonnull File workingDirectory, @Nonnull List<String> arguments )
+        throws IOException
+    {
+        if ( !isIdle() )
+        {
+            throw new IllegalStateException( "The pooled fork is running a test set." );
+        }
+        testSetFinished = new CountDownLatch( 2 );
+        out.open();
+        err.open();
+
+        StringBuilder request = new StringBuilder( workingDirectory.getAbsolutePath() );
+        for ( String argument : arguments )
+        {
+            request.append( ARGUMENTS_SEPARATOR )
+                .append( argument );
+        }
+        request.append( '\n' );
+        requests.write( request.toString().getBytes( UTF_8 ) );
+        requests.flush();
+    }
+
+    @Nonnull
+    ReadableByteChannel getStdOutChannel()
+    {
+        return out.source();
+    }
+
+    @Nonnull
+    ReadableByteChannel getStdErrChannel()
+    {
+        return err.source();
+    }
+
+    /**
+     * @return {@code 0} if the test set has finished and the JVM can run the next test set, otherwise the exit code
+     * of the process
+     * @throws InterruptedException if the current thread is interrupted
+     */
+    int awaitTestSet()
+        throws InterruptedException
+    {
+        testSetFinished.await();
+        return alive ? 0 : process.waitFor();
+    }
+
+    void destroy()
+    {
+        alive = false;
+        try
+        {
+            requests.close();
+        }
+        catch ( IOException e )
+        {
+            // the process has already terminated
+        }
+        process.destroy();
+    }
+
+    private final class OutputPump
+        extends Thread
+    {
+        private final InputStream stream;
+        private volatile Pipe pipe;
+
+        OutputPump( String name, InputStream stream )
+        {
+            super( name );
+            this.stream = stream;
+            setDaemon( true );
+        }
+
+        void open()
+            throws IOException
+        {
+            pipe = Pipe.open();
+        }
+
+        ReadableByteChannel source()
+        {
+            return pipe.source();
+        }
+
+        @Override
+        public void run()
+        {
+            try ( InputStream is = new BufferedInputStream( stream ) )
+            {
+                ByteArrayOutputStream line = new ByteArrayOutputStream();
+                for ( int b = is.read(); b != -1; b = is.read() )
+                {
+                    line.write( b );
+                    if ( b == '\n' )
+                    {
+                        forward( line.toByteArray() );
+                        line.reset();
+                    }
+                }
+                forward( line.toByteArray() );
+            }
+            catch ( IOException e )
+            {
+                // the process has terminated
+            }
+            finally
+            {
+                alive = false;
+                finishTestSet();
+            }
+        }
+
+        private void forward( byte[] line )
+        {
+            int length = line.length;
+            while ( length != 0 && ( line[length - 1] == '\n' || line[length - 1] == '\r' ) )
+            {
+                length--;
+            }
+
+            if ( endsWithEndOfTestSet( line, length ) )
+            {
+                int outputLength = length - END_OF_TEST_SET.length;
+                if ( outputLength != 0 )
+                {
+                    write( ByteBuffer.wrap( line, 0, outputLength ) );
+                    write( ByteBuffer.wrap( new byte[] {'\n'} ) );
+                }
+                finishTestSet();
+            }
+            else if ( line.length != 0 )
+            {
+                write( ByteBuffer.wrap( line ) );
+            }
+        }
+
+        private void write( ByteBuffer bytes )
+        {
+            Pipe currentPipe = pipe;
+            if ( currentPipe != null )
+            {
+                WritableByteChannel sink = currentPipe.sink();
+                try
+                {
+                    while ( bytes.hasRemaining() && sink.isOpen() )
+                    {
+                        sink.write( bytes );
+                    }
+                }
+                catch ( IOException e )
+                {
+                    // the test set has stopped reading the stream
+                }
+            }
+        }
+
+        private void finishTestSet()
+        {
+            Pipe currentPipe = pipe;
+            if ( currentPipe != null )
+            {
+                try
+                {
+                    currentPipe.sink().close();
+                }
+                catch ( IOException e )
+                {
+                    // already closed
+                }
+            }
+            testSetFinished.countDown();
+        }
+    }
+
+    private static boolean endsWithEndOfTestSet( byte[] line, int length )
+    {
+        if ( length < END_OF_TEST_SET.length )
+        {
+            return false;
+        }
+        for ( int i = 0, offset = length - END_OF_TEST_SET.length; i < END_OF_TEST_SET.length; i++ )
+        {
+            if ( line[offset + i] != END_OF_TEST_SET[i] )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+}
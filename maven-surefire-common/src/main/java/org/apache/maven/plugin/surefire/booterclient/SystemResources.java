@@ -0,0 +1,229 @@
+package org.apache.maven.plugin.surefire.booterclient;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import javax.annotation.Nonnull;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.management.ManagementFactory.OPERATING_SYSTEM_MXBEAN_NAME;
+import static java.lang.management.ManagementFactory.getOperatingSystemMXBean;
+import static java.lang.management.ManagementFactory.getPlatformMBeanServer;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Samples the resources of the machine which limit the number of the forked JVMs running at the same time: the CPUs,
+ * the system load average and the available memory.
+ * <br>
+ * On Linux the available memory is {@code MemAvailable} of {@code /proc/meminfo}, i.e. including the reclaimable page
+ * cache. Elsewhere it is the attribute {@code FreePhysicalMemorySize} of the operating system MXBean which is not
+ * standard, but both HotSpot and OpenJ9 provide it. If the plugin runs in a control group v2, e.g. in a container,
+ * the limits {@code cpu.max} and {@code memory.max} of the group apply as well since the forked JVMs inherit the group.
+ *
+ * @since 3.0.0-M6
+ */
+final class SystemResources
+{
+    static final long UNKNOWN = -1L;
+
+    private static final String FREE_PHYSICAL_MEMORY = "FreePhysicalMemorySize";
+    private static final String MEM_AVAILABLE = "MemAvailable:";
+    private static final String INACTIVE_FILE = "inactive_file ";
+    private static final String NO_LIMIT = "max";
+    private static final String UNIFIED_HIERARCHY = "0::";
+    private static final long KIBIBYTE = 1024L;
+
+    private final File root;
+    private final File controlGroup;
+
+    SystemResources()
+    {
+        this( new File( "/" ) );
+    }
+
+    /**
+     * @param root the root of the file system, a different directory in the tests
+     */
+    SystemResources( @Nonnull File root )
+    {
+        this.root = root;
+        controlGroup = findControlGroup( root );
+    }
+
+    /**
+     * @return the number of the processors available to the JVM, limited by the quota of the control group
+     */
+    int getCpus()
+    {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        // cpu.max: "$MAX $PERIOD", e.g. "max 100000" or "150000 100000"
+        String[] cpuMax = split( readFirstLine( "cpu.max" ) );
+        if ( cpuMax.length == 2 && !NO_LIMIT.equals( cpuMax[0] ) )
+        {
+            long quota = toLong( cpuMax[0] );
+            long period = toLong( cpuMax[1] );
+            if ( quota > 0L && period > 0L )
+            {
+                cpus = min( cpus, (int) max( ( quota + period - 1L ) / period, 1L ) );
+            }
+        }
+        return cpus;
+    }
+
+    /**
+     * @return the system load average for the last minute, or a negative value if not available
+     */
+    double getLoadAverage()
+    {
+        return getOperatingSystemMXBean().getSystemLoadAverage();
+    }
+
+    /**
+     * @return the bytes of the memory available for starting new processes, or {@link #UNKNOWN}
+     */
+    long getAvailableMemory()
+    {
+        long available = readMemAvailable();
+        if ( available == UNKNOWN )
+        {
+            available = readFreePhysicalMemory();
+        }
+
+        long limit = toLong( readFirstLine( "memory.max" ) );
+        long used = toLong( readFirstLine( "memory.current" ) );
+        if ( limit >= 0L && used >= 0L )
+        {
+            // the page cache of the group is charged to the group, but it is reclaimed on demand
+            long inactiveFile = toLong( readValue( "memory.stat", INACTIVE_FILE ) );
+            long availableInGroup = max( limit - used + max( inactiveFile, 0L ), 0L );
+            available = available == UNKNOWN ? availableInGroup : min( available, availableInGroup );
+        }
+        return available;
+    }
+
+    private long readMemAvailable()
+    {
+        String line = readValue( new File( root, "proc/meminfo" ), MEM_AVAILABLE );
+        // MemAvailable:    5587608 kB
+        String[] value = split( line );
+        long kibibytes = value.length == 0 ? UNKNOWN : toLong( value[0] );
+        return kibibytes < 0L ? UNKNOWN : kibibytes * KIBIBYTE;
+    }
+
+    private static long readFreePhysicalMemory()
+    {
+        try
+        {
+            MBeanServer server = getPlatformMBeanServer();
+            Object free = server.getAttribute( new ObjectName( OPERATING_SYSTEM_MXBEAN_NAME ), FREE_PHYSICAL_MEMORY );
+            return free instanceof Number ? max( ( (Number) free ).longValue(), UNKNOWN ) : UNKNOWN;
+        }
+        catch ( Exception e )
+        {
+            return UNKNOWN;
+        }
+    }
+
+    private String readFirstLine( String controlFile )
+    {
+        return controlGroup == null ? null : readValue( new File( controlGroup, controlFile ), "" );
+    }
+
+    private String readValue( String controlFile, String key )
+    {
+        return controlGroup == null ? null : readValue( new File( controlGroup, controlFile ), key );
+    }
+
+    /**
+     * The control group v2 of this process is the path in the line {@code 0::/path} of {@code /proc/self/cgroup}
+     * within the hierarchy mounted in {@code /sys/fs/cgroup}. The path is {@code /} in the namespace of a container.
+     */
+    private static File findControlGroup( File root )
+    {
+        String path = readValue( new File( root, "proc/self/cgroup" ), UNIFIED_HIERARCHY );
+        File hierarchy = new File( root, "sys/fs/cgroup" );
+        if ( path != null )
+        {
+            File group = new File( hierarchy, path );
+            if ( isControlGroup( group ) )
+            {
+                return group;
+            }
+        }
+        return isControlGroup( hierarchy ) ? hierarchy : null;
+    }
+
+    private static boolean isControlGroup( File dir )
+    {
+        return new File( dir, "cpu.max" ).isFile() || new File( dir, "memory.max" ).isFile();
+    }
+
+    /**
+     * @return the rest of the first line starting with the {@code key}, or {@code null}
+     */
+    private static String readValue( File file, String key )
+    {
+        if ( !file.isFile() )
+        {
+            return null;
+        }
+
+        try ( BufferedReader reader = new BufferedReader( new InputStreamReader( new FileInputStream( file ),
+            US_ASCII ) ) )
+        {
+            for ( String line; ( line = reader.readLine() ) != null; )
+            {
+                if ( line.startsWith( key ) )
+                {
+                    return line.substring( key.length() ).trim();
+                }
+            }
+            return null;
+        }
+        catch ( IOException e )
+        {
+            return null;
+        }
+    }
+
+    private static String[] split( String line )
+    {
+        return line == null || line.isEmpty() ? new String[0] : line.split( "\\s+" );
+    }
+
+    private static long toLong( String value )
+    {
+        try
+        {
+            return value == null ? UNKNOWN : Long.parseLong( value );
+        }
+        catch ( NumberFormatException e )
+        {
+            return UNKNOWN;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package org.apache.maven.plugin.surefire.booterclient;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import javax.annotation.Nonnull;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static java.util.Collections.singletonList;
+import static org.apache.maven.surefire.api.util.TestClassChunk.toChunk;
+
+/**
+ * Splits the test classes of JUnit Platform in chunks of test methods, so that the test methods of one long running
+ * class run in several forked JVMs in parallel. The test methods are the methods annotated by an annotation which is
+ * annotated by {@code org.junit.platform.commons.annotation.Testable}, e.g. {@code @Test}, {@code @ParameterizedTest}
+ * or {@code @TestFactory}, in the class, its superclasses and interfaces.
+ * <br>
+ * The class is not split if the order of its methods or the state of the test instance is shared between the methods
+ * ({@code @TestMethodOrder}, {@code @TestInstance}), if it has {@code @Nested} classes, or if it has no more test
+ * methods than the size of one chunk. The annotations are found by their names, the plugin does not depend on
+ * JUnit Platform.
+ *
+ * @since 3.0.0-M6
+ */
+final class TestMethodChunker
+{
+    private static final String TESTABLE = "org.junit.platform.commons.annotation.Testable";
+
+    private static final String NESTED = "org.junit.jupiter.api.Nested";
+
+    private static final Set<String> SHARED_STATE_ANNOTATIONS = new HashSet<>( Arrays.asList(
+        "org.junit.jupiter.api.TestMethodOrder", "org.junit.jupiter.api.TestInstance" ) );
+
+    private final int chunkSize;
+
+    private final String testableAnnotation;
+
+    TestMethodChunker( int chunkSize )
+    {
+        this( chunkSize, TESTABLE );
+    }
+
+    /**
+     * @param chunkSize          the maximal number of the test methods in one chunk
+     * @param testableAnnotation the name of the annotation which marks the test methods directly or as a
+     *                           meta-annotation
+     */
+    TestMethodChunker( int chunkSize, @Nonnull String testableAnnotation )
+    {
+        if ( chunkSize < 1 )
+        {
+            throw new IllegalArgumentException( "chunkSize should be positive: " + chunkSize );
+        }
+        this.chunkSize = chunkSize;
+        this.testableAnnotation = testableAnnotation;
+    }
+
+    /**
+     * @param testClass the test class
+     * @return the chunks of the test methods in the format of
+     * {@link org.apache.maven.surefire.api.util.TestClassChunk}, or the name of the class if the class is not split
+     */
+    @Nonnull
+    List<String> split( @Nonnull Class<?> testClass )
+    {
+        List<String> methods;
+        try
+        {
+            methods = canSplit( testClass ) ? findTestMethods( testClass ) : null;
+        }
+        catch ( LinkageError e )
+        {
+            // the class is loaded in the forked JVM again and its error is reported there
+            methods = null;
+        }
+
+        if ( methods == null || methods.size() <= chunkSize )
+        {
+            return singletonList( testClass.getName() );
+        }
+
+        List<String> chunks = new ArrayList<>();
+        for ( int from = 0; from < methods.size(); from += chunkSize )
+        {
+            List<String> chunk = methods.subList( from, Math.min( from + chunkSize, methods.size() ) );
+            chunks.add( toChunk( testClass.getName(), chunk ) );
+        }
+        return chunks;
+    }
+
+    private static boolean canSplit( Class<?> testClass )
+    {
+        if ( testClass.isInterface() || Modifier.isAbstract( testClass.getModifiers() )
+            || hasAnnotation( testClass.getAnnotations(), SHARED_STATE_ANNOTATIONS ) )
+        {
+            return false;
+        }
+
+        for ( Class<?> type = testClass; type != null && type != Object.class; type = type.getSuperclass() )
+        {
+            for ( Class<?> nestedClass : type.getDeclaredClasses() )
+            {
+                if ( hasAnnotation( nestedClass.getAnnotations(), singletonList( NESTED ) ) )
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the test methods sorted by their names and parameter types, the overridden methods are found once
+     */
+    private List<String> findTestMethods( Class<?> testClass )
+    {
+        Map<String, Boolean> methods = new TreeMap<>();
+        List<Class<?>> interfaces = new ArrayList<>();
+        for ( Class<?> type = testClass; type != null && type != Object.class; type = type.getSuperclass() )
+        {
+            findTestMethods( type, methods );
+            interfaces.addAll( Arrays.asList( type.getInterfaces() ) );
+        }
+
+        // the default methods of the interfaces are overridden by the methods of the classes
+        Set<Class<?>> visited = new HashSet<>();
+        for ( int i = 0; i < interfaces.size(); i++ )
+        {
+            Class<?> interfaceType = interfaces.get( i );
+            if ( visited.add( interfaceType ) )
+            {
+                findTestMethods( interfaceType, methods );
+                interfaces.addAll( Arrays.asList( interfaceType.getInterfaces() ) );
+            }
+        }
+
+        List<String> testMethods = new ArrayList<>();
+        for ( Map.Entry<String, Boolean> method : methods.entrySet() )
+        {
+            if ( method.getValue() )
+            {
+                testMethods.add( method.getKey() );
+            }
+        }
+        return testMethods;
+    }
+
+    private void findTestMethods( Class<?> type, Map<String, Boolean> methods )
+    {
+        for ( Method method : type.getDeclaredMethods() )
+        {
+            int modifiers = method.getModifiers();
+            if ( method.isSynthetic() || method.isBridge() || Modifier.isPrivate( modifiers )
+                || Modifier.isStatic( modifiers ) )
+            {
+                continue;
+            }
+
+            String signature = toSignature( method );
+            // the method of the subclass overrides the method of the superclass, annotated or not
+            if ( !methods.containsKey( signature ) )
+            {
+                methods.put( signature, isTestable( method.getAnnotations(), new HashSet<Class<?>>() ) );
+            }
+        }
+    }
+
+    private static String toSignature( Method method )
+    {
+        StringBuilder signature = new StringBuilder( method.getName() )
+            .append( '(' );
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for ( int i = 0; i < parameterTypes.length; i++ )
+        {
+            if ( i != 0 )
+            {
+                signature.append( ',' );
+            }
+            signature.append( parameterTypes[i].getName() );
+        }
+        return signature.append( ')' )
+            .toString();
+    }
+
+    /**
+     * @return {@code true} if one of the annotations is {@code @Testable} or is meta-annotated by it
+     */
+    private boolean isTestable( Annotation[] annotations, Set<Class<?>> visited )
+    {
+        for ( Annotation annotation : annotations )
+        {
+            Class<? extends Annotation> annotationType = annotation.annotationType();
+            if ( testableAnnotation.equals( annotationType.getName() ) )
+            {
+                return true;
+            }
+
+            if ( !annotationType.getName().startsWith( "java.lang." ) && visited.add( annotationType )
+                && isTestable( annotationType.getAnnotations(), visited ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasAnnotation( Annotation[] annotations, Collection<String> annotationTypes )
+    {
+        for ( Annotation annotation : annotations )
+        {
+            if ( annotationTypes.contains( annotation.annotationType().getName() ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -19,9 +19,11 @@
  * under the License.
  */
 
+import org.apache.maven.plugin.surefire.booterclient.AdaptiveForkCount;
 import org.apache.maven.surefire.api.booter.Command;
 import org.apache.maven.surefire.api.booter.Shutdown;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -61,14 +63,38 @@
 
     private final Queue<String> testClassNames;
 
+    private final AdaptiveForkCount adaptiveForkCount;
+
+    private volatile boolean left;
+
     /**
      * C'tor
      *
      * @param testClassNames source of the tests to be read from this stream
      */
     public TestProvidingInputStream( Queue<String> testClassNames )
+    {
+        this( testClassNames, null );
+    }
+
+    /**
+     * @param testClassNames    source of the tests to be read from this stream
+     * @param adaptiveForkCount ends the fork before the next test if too many forks run, or null
+     * @since 3.0.0-M6
+     */
+    public TestProvidingInputStream( Queue<String> testClassNames, @Nullable AdaptiveForkCount adaptiveForkCount )
     {
         this.testClassNames = testClassNames;
+        this.adaptiveForkCount = adaptiveForkCount;
+    }
+
+    /**
+     * @return {@code true} if the fork has {@link AdaptiveForkCount#leave() left} before all the tests were read
+     * @since 3.0.0-M6
+     */
+    public boolean hasLeft()
+    {
+        return left;
     }
 
     /**
@@ -129,6 +155,15 @@ protected Command nextCommand()
         Command cmd = commands.poll();
         if ( cmd == null )
         {
+            if ( left )
+            {
+                return TEST_SET_FINISHED;
+            }
+            if ( adaptiveForkCount != null && !testClassNames.isEmpty() && adaptiveForkCount.leave() )
+            {
+                left = true;
+                return TEST_SET_FINISHED;
+            }
             String cmdData = testClassNames.poll();
             return cmdData == null ? TEST_SET_FINISHED : toRunClass( cmdData );
         }
@@ -0,0 +1,95 @@
+package org.apache.maven.plugin.surefire.booterclient.output;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.apache.maven.surefire.shared.utils.StringUtils.isBlank;
+
+/**
+ * The way the threads wait on the event queue of {@link ThreadedStreamConsumer} if the queue is empty (the consumer)
+ * or full (the producers).
+ *
+ * @since 3.0.0-M6
+ */
+public enum EventQueueWaitStrategy
+{
+    /**
+     * Busy spinning. The lowest latency at the cost of one CPU core per waiting thread.
+     */
+    SPIN( "spin" ),
+
+    /**
+     * The waiting thread yields the CPU to other threads.
+     */
+    YIELD( "yield" ),
+
+    /**
+     * The waiting thread is parked. The default strategy without wasting the CPU.
+     */
+    PARK( "park" );
+
+    private final String strategy;
+
+    EventQueueWaitStrategy( String strategy )
+    {
+        this.strategy = strategy;
+    }
+
+    /**
+     * Converts string (spin, yield, park) to {@link EventQueueWaitStrategy}.
+     *
+     * @param strategy spin, yield, park
+     * @return {@link EventQueueWaitStrategy}, {@link #PARK} if blank
+     */
+    public static EventQueueWaitStrategy toEnum( String strategy )
+    {
+        if ( isBlank( strategy ) )
+        {
+            return PARK;
+        }
+
+        for ( EventQueueWaitStrategy e : values() )
+        {
+            if ( e.strategy.equals( strategy ) )
+            {
+                return e;
+            }
+        }
+
+        throw new IllegalArgumentException( "unknown wait strategy" );
+    }
+
+    public static boolean isValid( String strategy )
+    {
+        try
+        {
+            toEnum( strategy );
+            return true;
+        }
+        catch ( IllegalArgumentException e )
+        {
+            return false;
+        }
+    }
+
+    public String getStrategy()
+    {
+        return strategy;
+    }
+}
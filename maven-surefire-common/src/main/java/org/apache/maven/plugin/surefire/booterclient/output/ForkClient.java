@@ -23,6 +23,7 @@
 import org.apache.maven.plugin.surefire.log.api.ConsoleLogger;
 import org.apache.maven.plugin.surefire.report.DefaultReporterFactory;
 import org.apache.maven.surefire.api.event.Event;
+import org.apache.maven.surefire.api.event.ResourceUsageEvent;
 import org.apache.maven.surefire.extensions.EventHandler;
 import org.apache.maven.surefire.api.booter.MasterProcessChannelEncoder;
 import org.apache.maven.surefire.api.report.ConsoleOutputReceiver;
@@ -31,9 +32,12 @@
 import org.apache.maven.surefire.api.report.RunMode;
 import org.apache.maven.surefire.api.report.StackTraceWriter;
 import org.apache.maven.surefire.api.report.TestSetReportEntry;
+import org.apache.maven.surefire.api.report.Utf8ConsoleOutputReceiver;
 
 import javax.annotation.Nonnull;
 import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
@@ -46,6 +50,8 @@
 import static java.util.Collections.unmodifiableMap;
 import static org.apache.maven.surefire.api.booter.Shutdown.KILL;
 import static org.apache.maven.surefire.api.report.CategorizedReportEntry.reportEntry;
+import static org.apache.maven.surefire.api.util.internal.StringUtils.decodeUtf8;
+import static org.apache.maven.surefire.api.util.internal.StringUtils.toValidUtf8;
 
 // todo move to the same package with ForkStarter
 
@@ -80,6 +86,13 @@
 
     private RunListener testSetReporter;
 
+    /**
+     * The name of the running test set to which the samples of the resources of the forked JVM belong.
+     */
+    private volatile String currentTestSet;
+
+    private volatile boolean resourceUsageSampled;
+
     /**
      * Written by one Thread and read by another: Main Thread and ForkStarter's Thread.
      */
@@ -112,6 +125,8 @@ public ForkClient( DefaultReporterFactory defaultReporterFactory, NotifiableTest
         notifier.setConsoleDebugListener( new DebugListener() );
         notifier.setConsoleWarningListener( new WarningListener() );
         notifier.setExitErrorEventListener( new ExitErrorEventListener() );
+        notifier.setStartupPhaseListener( new StartupPhaseListener() );
+        notifier.setResourceUsageListener( new ResourceUsageListener() );
     }
 
     private final class TestSetStartingListener
@@ -120,6 +135,7 @@ public ForkClient( DefaultReporterFactory defaultReporterFactory, NotifiableTest
         @Override
         public void handle( RunMode runMode, TestSetReportEntry reportEntry )
         {
+            currentTestSet = reportEntry.getSourceName();
             getTestSetReporter().testSetStarting( reportEntry );
             setCurrentStartTime();
         }
@@ -135,7 +151,7 @@ public void handle( RunMode runMode, TestSetReportEntry reportEntry )
             TestSetReportEntry entry = reportEntry( reportEntry.getSourceName(), reportEntry.getSourceText(),
                     reportEntry.getName(), reportEntry.getNameText(),
                     reportEntry.getGroup(), reportEntry.getStackTraceWriter(), reportEntry.getElapsed(),
-                    reportEntry.getMessage(), getTestVmSystemProperties() );
+                    reportEntry.getMessage(), getTestSetProperties( reportEntry.getSourceName() ) );
             getTestSetReporter().testSetCompleted( entry );
         }
     }
@@ -209,22 +225,34 @@ public void handle( RunMode runMode, String key, String value )
         }
     }
 
-    private final class StdOutListener implements ForkedProcessStandardOutErrEventListener
+    private final class StdOutListener implements ForkedProcessUtf8OutErrEventListener
     {
         @Override
         public void handle( RunMode runMode, String output, boolean newLine )
         {
             writeTestOutput( output, newLine, true );
         }
+
+        @Override
+        public void handle( RunMode runMode, ByteBuffer utf8Output, boolean newLine )
+        {
+            writeUtf8TestOutput( utf8Output, newLine, true );
+        }
     }
 
-    private final class StdErrListener implements ForkedProcessStandardOutErrEventListener
+    private final class StdErrListener implements ForkedProcessUtf8OutErrEventListener
     {
         @Override
         public void handle( RunMode runMode, String output, boolean newLine )
         {
             writeTestOutput( output, newLine, false );
         }
+
+        @Override
+        public void handle( RunMode runMode, ByteBuffer utf8Output, boolean newLine )
+        {
+            writeUtf8TestOutput( utf8Output, newLine, false );
+        }
     }
 
     private final class ConsoleListener implements ForkedProcessStringEventListener
@@ -314,6 +342,25 @@ public void handle( StackTraceWriter stackTrace )
         }
     }
 
+    private final class StartupPhaseListener implements ForkedProcessStartupPhaseListener
+    {
+        @Override
+        public void handle( String phase, int elapsedMicros )
+        {
+            defaultReporterFactory.addStartupPhase( phase, elapsedMicros );
+        }
+    }
+
+    private final class ResourceUsageListener implements ForkedProcessResourceUsageListener
+    {
+        @Override
+        public void handle( ResourceUsageEvent usage )
+        {
+            resourceUsageSampled = true;
+            defaultReporterFactory.addResourceUsage( forkNumber, currentTestSet, usage );
+        }
+    }
+
     /**
      * Overridden by a subclass, see {@link org.apache.maven.plugin.surefire.booterclient.ForkStarter}.
      */
@@ -398,11 +445,42 @@ private void writeTestOutput( String output, boolean newLine, boolean isStdout )
                 .writeTestOutput( output, newLine, isStdout );
     }
 
+    private void writeUtf8TestOutput( ByteBuffer utf8Output, boolean newLine, boolean isStdout )
+    {
+        ConsoleOutputReceiver receiver = getOrCreateConsoleOutputReceiver();
+        if ( receiver instanceof Utf8ConsoleOutputReceiver )
+        {
+            // the tests may print malformed UTF-8 which must not get in the XML report and the output file
+            ByteBuffer validUtf8Output = toValidUtf8( utf8Output );
+            ( (Utf8ConsoleOutputReceiver) receiver ).writeUtf8TestOutput( validUtf8Output, newLine, isStdout );
+        }
+        else
+        {
+            receiver.writeTestOutput( decodeUtf8( utf8Output ), newLine, isStdout );
+        }
+    }
+
     public final Map<String, String> getTestVmSystemProperties()
     {
         return unmodifiableMap( testVmSystemProperties );
     }
 
+    /**
+     * The system properties of the forked JVM, and the peak values of the resources of the forked JVM during the
+     * test set if the JVM has sent the samples.
+     */
+    private Map<String, String> getTestSetProperties( String testSet )
+    {
+        if ( !resourceUsageSampled )
+        {
+            return getTestVmSystemProperties();
+        }
+        Map<String, String> peaks = defaultReporterFactory.getResourceUsagePeaks( forkNumber, testSet );
+        Map<String, String> properties = new HashMap<>( testVmSystemProperties );
+        properties.putAll( peaks );
+        return unmodifiableMap( properties );
+    }
+
     /**
      * Used when getting reporters on the plugin side of a fork.
      * Used by testing purposes only. May not be volatile variable.
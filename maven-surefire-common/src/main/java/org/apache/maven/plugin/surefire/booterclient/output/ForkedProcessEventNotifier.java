@@ -26,10 +26,13 @@
 import org.apache.maven.surefire.api.event.ConsoleErrorEvent;
 import org.apache.maven.surefire.api.event.Event;
 import org.apache.maven.surefire.api.event.JvmExitErrorEvent;
+import org.apache.maven.surefire.api.event.ResourceUsageEvent;
+import org.apache.maven.surefire.api.event.StartupPhaseEvent;
 import org.apache.maven.surefire.api.event.SystemPropertyEvent;
 import org.apache.maven.surefire.api.report.ReportEntry;
 import org.apache.maven.surefire.api.report.RunMode;
 
+import java.nio.ByteBuffer;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -64,6 +67,8 @@
     private volatile ForkedProcessPropertyEventListener propertyEventListener;
     private volatile ForkedProcessStackTraceEventListener consoleErrorEventListener;
     private volatile ForkedProcessExitErrorListener exitErrorEventListener;
+    private volatile ForkedProcessStartupPhaseListener startupPhaseListener;
+    private volatile ForkedProcessResourceUsageListener resourceUsageListener;
 
     private final ConcurrentMap<ForkedProcessEventType, ForkedProcessReportEventListener<?>> reportEventListeners =
             new ConcurrentHashMap<>();
@@ -174,6 +179,16 @@ public void setExitErrorEventListener( ForkedProcessExitErrorListener listener )
         exitErrorEventListener = requireNonNull( listener );
     }
 
+    public void setStartupPhaseListener( ForkedProcessStartupPhaseListener listener )
+    {
+        startupPhaseListener = requireNonNull( listener );
+    }
+
+    public void setResourceUsageListener( ForkedProcessResourceUsageListener listener )
+    {
+        resourceUsageListener = requireNonNull( listener );
+    }
+
     public void notifyEvent( Event event )
     {
         ForkedProcessEventType eventType = event.getEventType();
@@ -205,7 +220,13 @@ else if ( event.isStandardStreamCategory() )
             boolean newLine = eventType == BOOTERCODE_STDOUT_NEW_LINE || eventType == BOOTERCODE_STDERR_NEW_LINE;
             AbstractStandardStreamEvent standardStreamEvent = (AbstractStandardStreamEvent) event;
             ForkedProcessStandardOutErrEventListener listener = stdOutErrEventListeners.get( eventType );
-            if ( listener != null )
+            ByteBuffer utf8Output = standardStreamEvent.getUtf8Message();
+            if ( utf8Output != null && listener instanceof ForkedProcessUtf8OutErrEventListener )
+            {
+                ( (ForkedProcessUtf8OutErrEventListener) listener )
+                    .handle( standardStreamEvent.getRunMode(), utf8Output, newLine );
+            }
+            else if ( listener != null )
             {
                 listener.handle( standardStreamEvent.getRunMode(), standardStreamEvent.getMessage(), newLine );
             }
@@ -240,6 +261,21 @@ else if ( event.isJvmExitError() )
                 exitErrorEventListener.handle( jvmExitErrorEvent.getStackTraceWriter() );
             }
         }
+        else if ( event.isStartupPhaseCategory() )
+        {
+            StartupPhaseEvent startupPhaseEvent = (StartupPhaseEvent) event;
+            if ( startupPhaseListener != null )
+            {
+                startupPhaseListener.handle( startupPhaseEvent.getPhase(), startupPhaseEvent.getElapsedMicros() );
+            }
+        }
+        else if ( event.isResourceUsageCategory() )
+        {
+            if ( resourceUsageListener != null )
+            {
+                resourceUsageListener.handle( (ResourceUsageEvent) event );
+            }
+        }
         else
         {
             throw new IllegalArgumentException( "Unknown event type " + eventType );
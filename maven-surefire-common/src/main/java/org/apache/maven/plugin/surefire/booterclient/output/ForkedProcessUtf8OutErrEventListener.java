@@ -0,0 +1,40 @@
+package org.apache.maven.plugin.surefire.booterclient.output;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.surefire.api.report.RunMode;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The listener of standard streams which accepts the output in UTF-8 as it has been received from the forked JVM.
+ *
+ * @since 3.0.0-M6
+ */
+public interface ForkedProcessUtf8OutErrEventListener
+    extends ForkedProcessStandardOutErrEventListener
+{
+    /**
+     * @param runMode    run mode
+     * @param utf8Output the output encoded in UTF-8
+     * @param newLine    print on new line
+     */
+    void handle( RunMode runMode, ByteBuffer utf8Output, boolean newLine );
+}
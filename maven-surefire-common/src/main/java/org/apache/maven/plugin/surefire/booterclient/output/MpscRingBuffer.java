@@ -0,0 +1,265 @@
+package org.apache.maven.plugin.surefire.booterclient.output;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.lang.System.nanoTime;
+import static java.lang.Thread.currentThread;
+import static org.apache.maven.plugin.surefire.booterclient.output.EventQueueWaitStrategy.PARK;
+import static org.apache.maven.plugin.surefire.booterclient.output.EventQueueWaitStrategy.YIELD;
+
+/**
+ * Bounded lock-free queue with multiple producers and a single consumer. The slots are allocated in the constructor
+ * and reused in the cycles. Every slot has a sequence number which tells the producers that the slot is free and
+ * the consumer that the slot is published (the algorithm of Dmitry Vyukov).
+ * <br>
+ * The producers wait if the queue is full, and the consumer waits if the queue is empty, according to the
+ * {@link EventQueueWaitStrategy wait strategy}. The time the producers have spent waiting on the full queue is
+ * accumulated in {@link #getProducerStallNanos()}.
+ *
+ * @param <T> element type in the queue
+ * @since 3.0.0-M6
+ */
+final class MpscRingBuffer<T>
+{
+    private static final long PRODUCER_PARK_NANOS = 50_000L;
+
+    private final int mask;
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong producerStalls = new AtomicLong();
+    private final AtomicLong producerStallNanos = new AtomicLong();
+    private final EventQueueWaitStrategy waitStrategy;
+    private volatile long head;
+    private volatile int maxDepth;
+    private volatile Thread parkedConsumer;
+
+    /**
+     * @param capacity     the power of two
+     * @param waitStrategy the way the producers and the consumer wait
+     */
+    MpscRingBuffer( int capacity, @Nonnull EventQueueWaitStrategy waitStrategy )
+    {
+        if ( capacity < 2 || Integer.bitCount( capacity ) != 1 )
+        {
+            throw new IllegalArgumentException( "The capacity " + capacity + " is not a power of two." );
+        }
+        mask = capacity - 1;
+        slots = new AtomicReferenceArray<>( capacity );
+        sequences = new AtomicLongArray( capacity );
+        for ( int i = 0; i < capacity; i++ )
+        {
+            sequences.set( i, i );
+        }
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * Called by producers.
+     *
+     * @param item the element added to the tail
+     * @return {@code false} if the queue is full
+     */
+    boolean offer( @Nonnull T item )
+    {
+        while ( true )
+        {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long delta = sequences.get( index ) - position;
+            if ( delta == 0 )
+            {
+                if ( tail.compareAndSet( position, position + 1 ) )
+                {
+                    slots.lazySet( index, item );
+                    // volatile write publishes the item before the parked consumer is read below
+                    sequences.set( index, position + 1 );
+                    wakeUpConsumer();
+                    return true;
+                }
+            }
+            else if ( delta < 0 )
+            {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Called by producers. Waits while the queue is full.
+     *
+     * @param item the element added to the tail
+     */
+    void put( @Nonnull T item )
+    {
+        if ( offer( item ) )
+        {
+            return;
+        }
+
+        long stalledSince = nanoTime();
+        for ( int attempts = 0; !offer( item ); attempts++ )
+        {
+            if ( waitStrategy == PARK )
+            {
+                LockSupport.parkNanos( this, PRODUCER_PARK_NANOS );
+            }
+            else if ( waitStrategy == YIELD )
+            {
+                Thread.yield();
+            }
+        }
+        producerStalls.incrementAndGet();
+        producerStallNanos.addAndGet( nanoTime() - stalledSince );
+    }
+
+    /**
+     * Called by the consumer.
+     *
+     * @return the head of the queue or {@code null} if empty
+     */
+    T poll()
+    {
+        long position = head;
+        int index = (int) position & mask;
+        if ( sequences.get( index ) != position + 1 )
+        {
+            return null;
+        }
+        T item = slots.get( index );
+        slots.lazySet( index, null );
+        sequences.lazySet( index, position + mask + 1 );
+        head = position + 1;
+        return item;
+    }
+
+    /**
+     * Called by the consumer.
+     *
+     * @param batch    the list where the elements are moved to
+     * @param maxItems the maximum number of elements moved at once
+     * @return the number of elements moved to the {@code batch}
+     */
+    int drainTo( @Nonnull List<? super T> batch, int maxItems )
+    {
+        int depth = size();
+        if ( depth > maxDepth )
+        {
+            maxDepth = depth;
+        }
+
+        int count = 0;
+        for ( T item; count < maxItems && ( item = poll() ) != null; count++ )
+        {
+            batch.add( item );
+        }
+        return count;
+    }
+
+    /**
+     * Called by the consumer. Waits while the queue is empty and not {@code stopped}. Returns without waiting if the
+     * consumer thread is interrupted, and the interrupted status of the thread is kept.
+     *
+     * @param stopped the consumer does not wait after the flag has been set and {@link #wakeUpConsumer()} called
+     */
+    void awaitNotEmpty( @Nonnull AtomicBoolean stopped )
+    {
+        while ( isEmpty() && !stopped.get() )
+        {
+            if ( currentThread().isInterrupted() )
+            {
+                return;
+            }
+
+            if ( waitStrategy == PARK )
+            {
+                parkedConsumer = currentThread();
+                if ( isEmpty() && !stopped.get() )
+                {
+                    LockSupport.park( this );
+                }
+                parkedConsumer = null;
+            }
+            else if ( waitStrategy == YIELD )
+            {
+                Thread.yield();
+            }
+        }
+    }
+
+    void wakeUpConsumer()
+    {
+        Thread consumer = parkedConsumer;
+        if ( consumer != null )
+        {
+            LockSupport.unpark( consumer );
+        }
+    }
+
+    boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    /**
+     * @return the number of elements in the queue
+     */
+    int size()
+    {
+        return (int) Math.max( tail.get() - head, 0L );
+    }
+
+    int capacity()
+    {
+        return mask + 1;
+    }
+
+    /**
+     * @return the maximal number of elements observed by the consumer
+     */
+    int getMaxDepth()
+    {
+        return maxDepth;
+    }
+
+    /**
+     * @return how many times a producer waited on the full queue
+     */
+    long getProducerStalls()
+    {
+        return producerStalls.get();
+    }
+
+    /**
+     * @return the total time the producers waited on the full queue
+     */
+    long getProducerStallNanos()
+    {
+        return producerStallNanos.get();
+    }
+}
@@ -26,30 +26,31 @@
 import javax.annotation.Nonnull;
 import java.io.Closeable;
 import java.io.IOException;
-import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.AbstractQueuedSynchronizer;
 
+import static java.lang.Thread.currentThread;
+import static org.apache.maven.plugin.surefire.booterclient.output.EventQueueWaitStrategy.PARK;
 import static org.apache.maven.surefire.api.util.internal.DaemonThreadFactory.newDaemonThread;
 
 /**
  * Knows how to reconstruct *all* the state transmitted over Channel by the forked process.
  * <br>
- * After applying the performance improvements with {@link QueueSynchronizer} the throughput becomes
- * 6.33 mega messages per second
- * (158 nano seconds per message, 5 million messages within 0.79 seconds - see the test ThreadedStreamConsumerTest)
- * on CPU i5 Dual Core 2.6 GHz and Oracle JDK 11.
+ * The events are passed from the producers to the pumper thread through the pre-allocated lock-free
+ * {@link MpscRingBuffer}. The pumper drains the events in batches and the threads wait on the empty or full queue
+ * according to the {@link EventQueueWaitStrategy}. The depth of the queue and the time the producers have been stalled
+ * on the full queue are exposed as metrics.
  *
  * @author Kristian Rosenvold
  */
 public final class ThreadedStreamConsumer
     implements EventHandler<Event>, Closeable
 {
-    private static final int QUEUE_MAX_ITEMS = 10_000;
-    private static final Event END_ITEM = new FinalEvent();
+    private static final int QUEUE_CAPACITY = 16 * 1024;
+    private static final int BATCH_MAX_ITEMS = 256;
 
-    private final QueueSynchronizer<Event> synchronizer = new QueueSynchronizer<>( QUEUE_MAX_ITEMS, END_ITEM );
+    private final MpscRingBuffer<Event> queue;
     private final AtomicBoolean stop = new AtomicBoolean();
     private final AtomicBoolean isAlive = new AtomicBoolean( true );
     private final Pumper pumper;
@@ -61,6 +62,8 @@
 
         private final MultipleFailureException errors = new MultipleFailureException();
 
+        private final List<Event> batch = new ArrayList<>( BATCH_MAX_ITEMS );
+
         Pumper( EventHandler<Event> target )
         {
             this.target = target;
@@ -80,28 +83,41 @@
         @Override
         public void run()
         {
-            while ( !stop.get() || !synchronizer.isEmptyQueue() )
+            while ( !stop.get() || !queue.isEmpty() )
             {
-                try
+                if ( queue.drainTo( batch, BATCH_MAX_ITEMS ) == 0 )
                 {
-                    Event item = synchronizer.awaitNext();
-
-                    if ( shouldStopQueueing( item ) )
+                    queue.awaitNotEmpty( stop );
+                    if ( currentThread().isInterrupted() )
                     {
+                        errors.addException( new InterruptedException( "The pumper thread has been interrupted." ) );
                         break;
                     }
-
-                    target.handleEvent( item );
+                    continue;
                 }
-                catch ( Throwable t )
+
+                for ( int i = 0, size = batch.size(); i < size; i++ )
                 {
-                    // ensure the stack trace to be at the instance of the exception
-                    t.getStackTrace();
-                    errors.addException( t );
+                    try
+                    {
+                        target.handleEvent( batch.get( i ) );
+                    }
+                    catch ( Throwable t )
+                    {
+                        // ensure the stack trace to be at the instance of the exception
+                        t.getStackTrace();
+                        errors.addException( t );
+                    }
                 }
+                batch.clear();
             }
 
             isAlive.set( false );
+            // releases the producers waiting on the full queue after the pumper has been interrupted
+            while ( queue.drainTo( batch, BATCH_MAX_ITEMS ) != 0 )
+            {
+                batch.clear();
+            }
         }
 
         boolean hasErrors()
@@ -117,6 +133,17 @@ void throwErrors() throws IOException
 
     public ThreadedStreamConsumer( EventHandler<Event> target )
     {
+        this( target, PARK );
+    }
+
+    /**
+     * @param target       the handler called in the pumper thread
+     * @param waitStrategy the way the threads wait on the empty or full queue
+     * @since 3.0.0-M6
+     */
+    public ThreadedStreamConsumer( EventHandler<Event> target, @Nonnull EventQueueWaitStrategy waitStrategy )
+    {
+        queue = new MpscRingBuffer<>( QUEUE_CAPACITY, waitStrategy );
         pumper = new Pumper( target );
         Thread thread = newDaemonThread( pumper, "ThreadedStreamConsumer" );
         thread.start();
@@ -125,19 +152,13 @@ public ThreadedStreamConsumer( EventHandler<Event> target )
     @Override
     public void handleEvent( @Nonnull Event event )
     {
-        if ( stop.get() )
-        {
-            return;
-        }
         // Do NOT call Thread.isAlive() - slow.
-        // It makes worse performance from 790 millis to 1250 millis for 5 million messages.
-        else if ( !isAlive.get() )
+        if ( stop.get() || !isAlive.get() )
         {
-            synchronizer.clearQueue();
             return;
         }
 
-        synchronizer.pushNext( event );
+        queue.put( event );
     }
 
     @Override
@@ -146,7 +167,7 @@ public void close()
     {
         if ( stop.compareAndSet( false, true ) )
         {
-            synchronizer.markStopped();
+            queue.wakeUpConsumer();
         }
 
         if ( pumper.hasErrors() )
@@ -156,184 +177,38 @@ public void close()
     }
 
     /**
-     * Compared item with {@link #END_ITEM} by identity.
-     *
-     * @param item    element from <code>items</code>
-     * @return {@code true} if tail of the queue
+     * @return the number of events waiting for the pumper thread
+     * @since 3.0.0-M6
      */
-    private static boolean shouldStopQueueing( Event item )
+    public int getQueueDepth()
     {
-        return item == END_ITEM;
+        return queue.size();
     }
 
     /**
-     *
+     * @return the maximal number of events which have been waiting for the pumper thread
+     * @since 3.0.0-M6
      */
-    private static class FinalEvent extends Event
+    public int getMaxQueueDepth()
     {
-        FinalEvent()
-        {
-            super( null );
-        }
-
-        @Override
-        public boolean isControlCategory()
-        {
-            return false;
-        }
-
-        @Override
-        public boolean isConsoleCategory()
-        {
-            return false;
-        }
-
-        @Override
-        public boolean isConsoleErrorCategory()
-        {
-            return false;
-        }
-
-        @Override
-        public boolean isStandardStreamCategory()
-        {
-            return false;
-        }
-
-        @Override
-        public boolean isSysPropCategory()
-        {
-            return false;
-        }
-
-        @Override
-        public boolean isTestCategory()
-        {
-            return false;
-        }
-
-        @Override
-        public boolean isJvmExitError()
-        {
-            return false;
-        }
+        return queue.getMaxDepth();
     }
 
     /**
-     * This synchronization helper mostly avoids the locks.
-     * If the queue size has reached zero or {@code maxQueueSize} then the threads are locked (parked/unparked).
-     * The thread instance T1 is reader (see the class "Pumper") and T2 is the writer (see the method "handleEvent").
-     *
-     * @param <T> element type in the queue
+     * @return how many times the producers have been stalled on the full queue
+     * @since 3.0.0-M6
      */
-    static class QueueSynchronizer<T>
+    public long getProducerStalls()
     {
-        private final SyncT1 t1 = new SyncT1();
-        private final SyncT2 t2 = new SyncT2();
-        private final ConcurrentLinkedDeque<T> queue = new ConcurrentLinkedDeque<>();
-        private final AtomicInteger queueSize = new AtomicInteger();
-        private final int maxQueueSize;
-        private final T stopItemMarker;
-
-        QueueSynchronizer( int maxQueueSize, T stopItemMarker )
-        {
-            this.maxQueueSize = maxQueueSize;
-            this.stopItemMarker = stopItemMarker;
-        }
-
-        private class SyncT1 extends AbstractQueuedSynchronizer
-        {
-            private static final long serialVersionUID = 1L;
-
-            @Override
-            protected int tryAcquireShared( int arg )
-            {
-                return queueSize.get() == 0 ? -1 : 1;
-            }
-
-            @Override
-            protected boolean tryReleaseShared( int arg )
-            {
-                return true;
-            }
-
-            void waitIfZero() throws InterruptedException
-            {
-                acquireSharedInterruptibly( 1 );
-            }
-
-            void release()
-            {
-                releaseShared( 0 );
-            }
-        }
-
-        private class SyncT2 extends AbstractQueuedSynchronizer
-        {
-            private static final long serialVersionUID = 1L;
-
-            @Override
-            protected int tryAcquireShared( int arg )
-            {
-                return queueSize.get() < maxQueueSize ? 1 : -1;
-            }
-
-            @Override
-            protected boolean tryReleaseShared( int arg )
-            {
-                return true;
-            }
-
-            void awaitMax()
-            {
-                acquireShared( 1 );
-            }
-
-            void tryRelease()
-            {
-                if ( queueSize.get() == 0 )
-                {
-                    releaseShared( 0 );
-                }
-            }
-        }
-
-        void markStopped()
-        {
-            addNext( stopItemMarker );
-        }
-
-        void pushNext( T t )
-        {
-            t2.awaitMax();
-            addNext( t );
-        }
-
-        T awaitNext() throws InterruptedException
-        {
-            t2.tryRelease();
-            t1.waitIfZero();
-            queueSize.decrementAndGet();
-            return queue.pollFirst();
-        }
-
-        boolean isEmptyQueue()
-        {
-            return queue.isEmpty();
-        }
-
-        void clearQueue()
-        {
-            queue.clear();
-        }
+        return queue.getProducerStalls();
+    }
 
-        private void addNext( T t )
-        {
-            queue.addLast( t );
-            if ( queueSize.getAndIncrement() == 0 )
-            {
-                t1.release();
-            }
-        }
+    /**
+     * @return the total time in nanoseconds the producers have been stalled on the full queue
+     * @since 3.0.0-M6
+     */
+    public long getProducerStallNanos()
+    {
+        return queue.getProducerStallNanos();
     }
 }
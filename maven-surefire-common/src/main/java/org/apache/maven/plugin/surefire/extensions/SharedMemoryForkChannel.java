@@ -0,0 +1,197 @@
+package org.apache.maven.plugin.surefire.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.surefire.booterclient.output.NativeStdOutStreamConsumer;
+import org.apache.maven.surefire.api.event.Event;
+import org.apache.maven.surefire.api.fork.ForkNodeArguments;
+import org.apache.maven.surefire.api.util.internal.MappedRingBuffer;
+import org.apache.maven.surefire.extensions.CloseableDaemonThread;
+import org.apache.maven.surefire.extensions.CommandReader;
+import org.apache.maven.surefire.extensions.EventHandler;
+import org.apache.maven.surefire.extensions.ForkChannel;
+import org.apache.maven.surefire.extensions.util.CountdownCloseable;
+import org.apache.maven.surefire.extensions.util.LineConsumerThread;
+
+import javax.annotation.Nonnull;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLEncoder;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+
+import static java.net.StandardSocketOptions.TCP_NODELAY;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.apache.maven.surefire.api.util.internal.Channels.newChannel;
+import static org.apache.maven.surefire.api.util.internal.Channels.newInputStream;
+import static org.apache.maven.surefire.api.util.internal.Channels.newOutputStream;
+
+/**
+ * The channel transferring the events and commands through the {@link MappedRingBuffer ring buffers} in two
+ * memory-mapped files, one for the events of the forked JVM and one for the commands of the plugin. The files are
+ * created in a new temporary directory. The framing of the events and commands is the same as in the other channels,
+ * therefore the decoders are the same.
+ * <br>
+ * The forked JVM connects to the loopback TCP/IP server, see {@code SharedMemoryMasterProcessChannelProcessorFactory}.
+ * The client sends the session id, and then the socket is used only as the doorbell waking up the consumers of the
+ * ring buffers, and for detecting the end of the peer process.
+ * <br>
+ * The standard output of the forked JVM, i.e. the native output and the JVM crash, is read by
+ * {@link NativeStdOutStreamConsumer} as in {@link SurefireForkChannel}.
+ *
+ * @since 3.0.0-M6
+ */
+final class SharedMemoryForkChannel extends ForkChannel
+{
+    static final int EVENTS_CAPACITY = 8 * 1024 * 1024;
+    static final int COMMANDS_CAPACITY = 64 * 1024;
+
+    private final File directory;
+    private final MappedRingBuffer events;
+    private final MappedRingBuffer commands;
+    private final ServerSocketChannel server;
+    private final String localHost;
+    private final int localPort;
+    private final String sessionId;
+    private volatile SocketChannel worker;
+    private volatile LineConsumerThread out;
+
+    SharedMemoryForkChannel( @Nonnull ForkNodeArguments arguments ) throws IOException
+    {
+        super( arguments );
+        sessionId = arguments.getSessionId();
+        directory = Files.createTempDirectory( "surefire-shm" ).toFile();
+        events = MappedRingBuffer.create( new File( directory, "events" ), EVENTS_CAPACITY );
+        commands = MappedRingBuffer.create( new File( directory, "commands" ), COMMANDS_CAPACITY );
+        server = ServerSocketChannel.open();
+        server.bind( new InetSocketAddress( InetAddress.getLoopbackAddress(), 0 ), 1 );
+        InetSocketAddress localAddress = (InetSocketAddress) server.getLocalAddress();
+        localHost = localAddress.getHostString();
+        localPort = localAddress.getPort();
+    }
+
+    @Override
+    public void connectToClient() throws IOException
+    {
+        if ( worker != null )
+        {
+            throw new IllegalStateException( "already accepted TCP client connection" );
+        }
+
+        worker = server.accept();
+        server.close();
+        worker.setOption( TCP_NODELAY, true );
+        verifySessionId();
+    }
+
+    private void verifySessionId() throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate( sessionId.length() );
+        int read;
+        do
+        {
+            read = worker.read( buffer );
+        } while ( read != -1 && buffer.hasRemaining() );
+        if ( read == -1 )
+        {
+            throw new IOException( "Channel closed while verifying the client." );
+        }
+        ( (Buffer) buffer ).flip();
+        String clientSessionId = new String( buffer.array(), US_ASCII );
+        if ( !clientSessionId.equals( sessionId ) )
+        {
+            throw new InvalidSessionIdException( clientSessionId, sessionId );
+        }
+    }
+
+    @Override
+    public String getForkNodeConnectionString()
+    {
+        return "shm://" + localHost + ":" + localPort + "?sessionId=" + sessionId
+            + "&events=" + encode( events.getFile() ) + "&commands=" + encode( commands.getFile() );
+    }
+
+    @Override
+    public int getCountdownCloseablePermits()
+    {
+        return 3;
+    }
+
+    @Override
+    public CloseableDaemonThread bindCommandReader( @Nonnull CommandReader commands,
+                                                    WritableByteChannel stdIn )
+    {
+        // the commands are not buffered, every command is written to the ring buffer immediately
+        WritableByteChannel channel = newChannel( this.commands.newOutputStream( newOutputStream( worker ) ) );
+        return new StreamFeeder( "commands-fork-" + getArguments().getForkChannelId(), channel, commands,
+            getArguments().getConsoleLogger() );
+    }
+
+    @Override
+    public CloseableDaemonThread bindEventHandler( @Nonnull EventHandler<Event> eventHandler,
+                                                   @Nonnull CountdownCloseable countdownCloseable,
+                                                   ReadableByteChannel stdOut )
+    {
+        out = new LineConsumerThread( "fork-" + getArguments().getForkChannelId() + "-out-thread", stdOut,
+            new NativeStdOutStreamConsumer( getArguments().getConsoleLogger() ), countdownCloseable );
+        out.start();
+
+        ReadableByteChannel channel = events.newReadableChannel( newInputStream( worker ) );
+        return new EventConsumerThread( "fork-" + getArguments().getForkChannelId() + "-event-thread", channel,
+            eventHandler, countdownCloseable, getArguments() );
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        //noinspection unused,EmptyTryBlock,EmptyTryBlock
+        try ( Closeable c1 = worker; Closeable c2 = server; Closeable c3 = out )
+        {
+            // the files stay mapped until the buffers are garbage collected, Windows cannot delete them now
+            boolean deleted = events.getFile().delete() & commands.getFile().delete() && directory.delete();
+            if ( !deleted )
+            {
+                directory.deleteOnExit();
+                events.getFile().deleteOnExit();
+                commands.getFile().deleteOnExit();
+            }
+        }
+    }
+
+    private static String encode( File file )
+    {
+        try
+        {
+            return URLEncoder.encode( file.getAbsolutePath(), "UTF-8" );
+        }
+        catch ( IOException e )
+        {
+            throw new IllegalStateException( e.getLocalizedMessage(), e );
+        }
+    }
+}
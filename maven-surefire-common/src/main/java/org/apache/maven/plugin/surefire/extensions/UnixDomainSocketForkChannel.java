@@ -0,0 +1,233 @@
+package org.apache.maven.plugin.surefire.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.surefire.booterclient.output.NativeStdOutStreamConsumer;
+import org.apache.maven.surefire.api.event.Event;
+import org.apache.maven.surefire.api.fork.ForkNodeArguments;
+import org.apache.maven.surefire.extensions.CloseableDaemonThread;
+import org.apache.maven.surefire.extensions.CommandReader;
+import org.apache.maven.surefire.extensions.EventHandler;
+import org.apache.maven.surefire.extensions.ForkChannel;
+import org.apache.maven.surefire.extensions.util.CountdownCloseable;
+import org.apache.maven.surefire.extensions.util.LineConsumerThread;
+
+import javax.annotation.Nonnull;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+import static java.net.StandardSocketOptions.SO_KEEPALIVE;
+import static java.net.StandardSocketOptions.TCP_NODELAY;
+import static java.nio.channels.SelectionKey.OP_ACCEPT;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.apache.maven.surefire.api.util.internal.Channels.newBufferedChannel;
+import static org.apache.maven.surefire.api.util.internal.Channels.newChannel;
+import static org.apache.maven.surefire.api.util.internal.Channels.newInputStream;
+import static org.apache.maven.surefire.api.util.internal.Channels.newOutputStream;
+import static org.apache.maven.surefire.api.util.internal.UnixDomainSockets.address;
+import static org.apache.maven.surefire.api.util.internal.UnixDomainSockets.openServerSocketChannel;
+
+/**
+ * The server of Unix domain socket accepting only one client connection. The forked JVM connects to the server
+ * using the {@link #getForkNodeConnectionString() connection string}, see
+ * {@code UnixDomainSocketMasterProcessChannelProcessorFactory}.
+ * <br>
+ * The plugin does not know whether the JVM of the forked process supports Unix domain sockets, therefore the channel
+ * listens on a loopback TCP/IP port as well, and the connection string contains both addresses. The first accepted
+ * client wins and both servers are closed. The client has to send the session id first, as in
+ * {@link SurefireForkChannel}.
+ * <br>
+ * The blocking {@link SocketChannel} is an interruptible channel, and therefore it is wrapped by the streams which do
+ * not close the channel if the operational Thread has been interrupted.
+ * <br>
+ * The socket file is created in a new temporary directory accessible only by the owner, so that no other process can
+ * bind the path before the server. The socket file and the directory are deleted when the client has connected or
+ * when the channel is closed.
+ *
+ * @since 3.0.0-M6
+ */
+final class UnixDomainSocketForkChannel extends ForkChannel
+{
+    private final Path socketDirectory;
+    private final Path socketFile;
+    private final Selector selector;
+    private final ServerSocketChannel unixServer;
+    private final ServerSocketChannel tcpServer;
+    private final String localHost;
+    private final int localPort;
+    private final String sessionId;
+    private volatile SocketChannel worker;
+    private volatile LineConsumerThread out;
+
+    UnixDomainSocketForkChannel( @Nonnull ForkNodeArguments arguments ) throws IOException
+    {
+        super( arguments );
+        sessionId = arguments.getSessionId();
+        // the path of the socket file is limited to ~100 characters, hence the temporary directory
+        socketDirectory = Files.createTempDirectory( "surefire" );
+        socketFile = socketDirectory.resolve( "fork.sock" );
+        try
+        {
+            selector = Selector.open();
+            unixServer = openServerSocketChannel();
+            tcpServer = ServerSocketChannel.open();
+
+            unixServer.bind( address( socketFile ), 1 );
+            unixServer.configureBlocking( false );
+            unixServer.register( selector, OP_ACCEPT );
+
+            tcpServer.bind( new InetSocketAddress( InetAddress.getLoopbackAddress(), 0 ), 1 );
+            tcpServer.configureBlocking( false );
+            tcpServer.register( selector, OP_ACCEPT );
+            InetSocketAddress localAddress = (InetSocketAddress) tcpServer.getLocalAddress();
+            localHost = localAddress.getHostString();
+            localPort = localAddress.getPort();
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            closeServers();
+            throw e;
+        }
+    }
+
+    @Override
+    public void connectToClient() throws IOException
+    {
+        if ( worker != null )
+        {
+            throw new IllegalStateException( "already accepted client connection" );
+        }
+
+        try
+        {
+            while ( worker == null )
+            {
+                selector.select();
+                for ( Iterator<SelectionKey> it = selector.selectedKeys().iterator(); it.hasNext() && worker == null; )
+                {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    worker = ( (ServerSocketChannel) key.channel() ).accept();
+                }
+            }
+        }
+        finally
+        {
+            closeServers();
+        }
+
+        worker.configureBlocking( true );
+        if ( worker.supportedOptions().contains( TCP_NODELAY ) )
+        {
+            worker.setOption( TCP_NODELAY, true );
+            worker.setOption( SO_KEEPALIVE, true );
+        }
+        verifySessionId();
+    }
+
+    private void verifySessionId() throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate( sessionId.length() );
+        int read;
+        do
+        {
+            read = worker.read( buffer );
+        } while ( read != -1 && buffer.hasRemaining() );
+        if ( read == -1 )
+        {
+            throw new IOException( "Channel closed while verifying the client." );
+        }
+        ( (Buffer) buffer ).flip();
+        String clientSessionId = new String( buffer.array(), US_ASCII );
+        if ( !clientSessionId.equals( sessionId ) )
+        {
+            throw new InvalidSessionIdException( clientSessionId, sessionId );
+        }
+    }
+
+    @Override
+    public String getForkNodeConnectionString()
+    {
+        return "unix://" + socketFile + "?sessionId=" + sessionId + "&tcp=" + localHost + ":" + localPort;
+    }
+
+    @Override
+    public int getCountdownCloseablePermits()
+    {
+        return 3;
+    }
+
+    @Override
+    public CloseableDaemonThread bindCommandReader( @Nonnull CommandReader commands,
+                                                    WritableByteChannel stdIn )
+    {
+        // dont use newBufferedChannel here - may cause the command is not sent and the JVM hangs
+        WritableByteChannel channel = newChannel( newOutputStream( worker ) );
+        return new StreamFeeder( "commands-fork-" + getArguments().getForkChannelId(), channel, commands,
+            getArguments().getConsoleLogger() );
+    }
+
+    @Override
+    public CloseableDaemonThread bindEventHandler( @Nonnull EventHandler<Event> eventHandler,
+                                                   @Nonnull CountdownCloseable countdownCloseable,
+                                                   ReadableByteChannel stdOut )
+    {
+        out = new LineConsumerThread( "fork-" + getArguments().getForkChannelId() + "-out-thread", stdOut,
+            new NativeStdOutStreamConsumer( getArguments().getConsoleLogger() ), countdownCloseable );
+        out.start();
+
+        ReadableByteChannel channel = newBufferedChannel( newInputStream( worker ) );
+        return new EventConsumerThread( "fork-" + getArguments().getForkChannelId() + "-event-thread", channel,
+            eventHandler, countdownCloseable, getArguments() );
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        //noinspection unused,EmptyTryBlock,EmptyTryBlock
+        try ( Closeable c1 = worker; Closeable c2 = out )
+        {
+            closeServers();
+        }
+    }
+
+    private void closeServers() throws IOException
+    {
+        //noinspection unused,EmptyTryBlock,EmptyTryBlock
+        try ( Closeable c1 = unixServer; Closeable c2 = tcpServer; Closeable c3 = selector )
+        {
+            Files.deleteIfExists( socketFile );
+            Files.deleteIfExists( socketDirectory );
+        }
+    }
+}
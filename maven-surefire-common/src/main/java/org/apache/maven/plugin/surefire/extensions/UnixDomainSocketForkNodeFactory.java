@@ -0,0 +1,49 @@
+package org.apache.maven.plugin.surefire.extensions;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.surefire.api.fork.ForkNodeArguments;
+import org.apache.maven.surefire.extensions.ForkChannel;
+import org.apache.maven.surefire.extensions.ForkNodeFactory;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+
+import static org.apache.maven.surefire.api.util.internal.UnixDomainSockets.isSupported;
+
+/**
+ * The factory of {@link UnixDomainSocketForkChannel}. If the plugin runs on a JVM without Unix domain sockets
+ * (before Java 16), the factory creates the TCP/IP channel {@link SurefireForkChannel}.
+ * <br>
+ * Usage:
+ * {@code <forkNode implementation="org.apache.maven.plugin.surefire.extensions.UnixDomainSocketForkNodeFactory"/>}
+ *
+ * @since 3.0.0-M6
+ */
+public class UnixDomainSocketForkNodeFactory implements ForkNodeFactory
+{
+    @Nonnull
+    @Override
+    public ForkChannel createForkChannel( @Nonnull ForkNodeArguments arguments )
+        throws IOException
+    {
+        return isSupported() ? new UnixDomainSocketForkChannel( arguments ) : new SurefireForkChannel( arguments );
+    }
+}
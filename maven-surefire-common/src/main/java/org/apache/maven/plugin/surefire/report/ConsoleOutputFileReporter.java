@@ -22,17 +22,22 @@
 import org.apache.maven.plugin.surefire.booterclient.output.InPluginProcessDumpSingleton;
 import org.apache.maven.surefire.api.report.ReportEntry;
 import org.apache.maven.surefire.api.report.TestSetReportEntry;
+import org.apache.maven.surefire.api.report.Utf8ConsoleOutputReceiver;
 
 import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.concurrent.atomic.AtomicStampedReference;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.apache.maven.plugin.surefire.report.FileReporter.getReportFile;
 import static org.apache.maven.surefire.api.util.internal.StringUtils.NL;
+import static org.apache.maven.surefire.api.util.internal.StringUtils.decodeUtf8;
 
 /**
  * Surefire output consumer proxy that writes test output to a {@link java.io.File} for each test suite.
@@ -41,8 +46,9 @@
  * @author Carlos Sanchez
  */
 public class ConsoleOutputFileReporter
-    implements TestcycleConsoleOutputReceiver
+    implements TestcycleConsoleOutputReceiver, Utf8ConsoleOutputReceiver
 {
+    private static final byte[] NL_BYTES = NL.getBytes( UTF_8 );
     private static final int STREAM_BUFFER_SIZE = 64 * 1024;
     private static final int OPEN = 0;
     private static final int CLOSED_TO_REOPEN = 1;
@@ -52,7 +58,7 @@
     private final String reportNameSuffix;
     private final boolean usePhrasedFileName;
     private final Integer forkNumber;
-    private final String encoding;
+    private final Charset encoding;
 
     private final AtomicStampedReference<FilterOutputStream> fileOutputStream =
             new AtomicStampedReference<>( null, OPEN );
@@ -66,7 +72,7 @@ public ConsoleOutputFileReporter( File reportsDirectory, String reportNameSuffix
         this.reportNameSuffix = reportNameSuffix;
         this.usePhrasedFileName = usePhrasedFileName;
         this.forkNumber = forkNumber;
-        this.encoding = encoding;
+        this.encoding = Charset.forName( encoding );
     }
 
     @Override
@@ -92,33 +98,60 @@ public synchronized void writeTestOutput( String output, boolean newLine, boolea
     {
         try
         {
-            // This method is called in single thread T1 per fork JVM (see ThreadedStreamConsumer).
-            // The close() method is called in main Thread T2.
-            int[] status = new int[1];
-            FilterOutputStream os = fileOutputStream.get( status );
-            if ( status[0] != CLOSED )
+            FilterOutputStream os = getOrCreateReportFile();
+            if ( os != null )
             {
-                if ( os == null )
+                if ( output == null )
+                {
+                    output = "null";
+                }
+                os.write( output.getBytes( encoding ) );
+                if ( newLine )
                 {
-                    if ( !reportsDirectory.exists() )
-                    {
-                        //noinspection ResultOfMethodCallIgnored
-                        reportsDirectory.mkdirs();
-                    }
-                    File file = getReportFile( reportsDirectory, reportEntryName, reportNameSuffix, "-output.txt" );
-                    os = new BufferedOutputStream( new FileOutputStream( file ), STREAM_BUFFER_SIZE );
-                    fileOutputStream.set( os, OPEN );
+                    os.write( NL.getBytes( encoding ) );
                 }
+            }
+        }
+        catch ( IOException e )
+        {
+            dumpException( e );
+            // todo use UncheckedIOException in Java 8
+            throw new RuntimeException( e );
+        }
+    }
 
-                if ( output == null )
+    /**
+     * The bytes are written to the report file as they are if the encoding of the file is UTF-8.
+     */
+    @Override
+    public synchronized void writeUtf8TestOutput( ByteBuffer utf8Output, boolean newLine, boolean stdout )
+    {
+        if ( !UTF_8.equals( encoding ) )
+        {
+            writeTestOutput( decodeUtf8( utf8Output ), newLine, stdout );
+            return;
+        }
+
+        try
+        {
+            FilterOutputStream os = getOrCreateReportFile();
+            if ( os != null )
+            {
+                if ( utf8Output.hasArray() )
                 {
-                    output = "null";
+                    os.write( utf8Output.array(), utf8Output.arrayOffset() + ( (Buffer) utf8Output ).position(),
+                        utf8Output.remaining() );
+                }
+                else
+                {
+                    byte[] bytes = new byte[utf8Output.remaining()];
+                    utf8Output.duplicate().get( bytes );
+                    os.write( bytes );
                 }
-                Charset charset = Charset.forName( encoding );
-                os.write( output.getBytes( charset ) );
+
                 if ( newLine )
                 {
-                    os.write( NL.getBytes( charset ) );
+                    os.write( NL_BYTES );
                 }
             }
         }
@@ -130,6 +163,36 @@ public synchronized void writeTestOutput( String output, boolean newLine, boolea
         }
     }
 
+    /**
+     * This method is called in single thread T1 per fork JVM (see ThreadedStreamConsumer).
+     * The close() method is called in main Thread T2.
+     *
+     * @return the stream of the report file, or {@code null} if the reporter has been closed
+     */
+    private FilterOutputStream getOrCreateReportFile()
+        throws IOException
+    {
+        int[] status = new int[1];
+        FilterOutputStream os = fileOutputStream.get( status );
+        if ( status[0] == CLOSED )
+        {
+            return null;
+        }
+
+        if ( os == null )
+        {
+            if ( !reportsDirectory.exists() )
+            {
+                //noinspection ResultOfMethodCallIgnored
+                reportsDirectory.mkdirs();
+            }
+            File file = getReportFile( reportsDirectory, reportEntryName, reportNameSuffix, "-output.txt" );
+            os = new BufferedOutputStream( new FileOutputStream( file ), STREAM_BUFFER_SIZE );
+            fileOutputStream.set( os, OPEN );
+        }
+        return os;
+    }
+
     @SuppressWarnings( "checkstyle:emptyblock" )
     private void closeNullReportFile( ReportEntry reportEntry )
     {
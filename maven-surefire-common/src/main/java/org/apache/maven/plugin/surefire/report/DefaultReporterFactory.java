@@ -28,6 +28,7 @@
 import org.apache.maven.surefire.extensions.StatelessReportEventListener;
 import org.apache.maven.surefire.extensions.StatelessTestsetInfoConsoleReportEventListener;
 import org.apache.maven.surefire.extensions.StatelessTestsetInfoFileReportEventListener;
+import org.apache.maven.surefire.api.event.ResourceUsageEvent;
 import org.apache.maven.surefire.api.report.ReporterFactory;
 import org.apache.maven.surefire.api.report.RunListener;
 import org.apache.maven.surefire.report.RunStatistics;
@@ -35,6 +36,7 @@
 import org.apache.maven.surefire.api.suite.RunResult;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -71,6 +73,8 @@
     private final StartupReportConfiguration reportConfiguration;
     private final ConsoleLogger consoleLogger;
     private final Integer forkNumber;
+    private final ForkStartupStatistics startupStatistics = new ForkStartupStatistics();
+    private final ForkResourceStatistics resourceStatistics = new ForkResourceStatistics();
 
     private RunStatistics globalStats = new RunStatistics();
 
@@ -107,7 +111,9 @@ public RunListener createReporter()
                                     createStatisticsReporter(),
                                     reportConfiguration.isTrimStackTrace(),
                                     PLAIN.equals( reportConfiguration.getReportFormat() ),
-                                    reportConfiguration.isBriefOrPlainFormat() );
+                                    reportConfiguration.isBriefOrPlainFormat(),
+                                    reportConfiguration.getTestResultCache(),
+                                    reportConfiguration.getTestSetChunks() );
         addListener( testSetRunListener );
         return testSetRunListener;
     }
@@ -156,9 +162,44 @@ public void mergeFromOtherFactories( Collection<DefaultReporterFactory> factorie
         for ( DefaultReporterFactory factory : factories )
         {
             listeners.addAll( factory.listeners );
+            startupStatistics.addAll( factory.startupStatistics );
+            resourceStatistics.addAll( factory.resourceStatistics );
         }
     }
 
+    /**
+     * Collects the phase of the startup of a forked JVM which has sent its startup profile.
+     *
+     * @param phase         the name of the phase
+     * @param elapsedMicros the elapsed time of the phase in microseconds
+     */
+    public void addStartupPhase( String phase, int elapsedMicros )
+    {
+        startupStatistics.add( phase, elapsedMicros );
+    }
+
+    /**
+     * Collects the sample of the resources of a forked JVM.
+     *
+     * @param forkNumber the number of the forked JVM
+     * @param testSet    the name of the test set which is running in the JVM
+     * @param usage      the sample
+     */
+    public void addResourceUsage( int forkNumber, String testSet, ResourceUsageEvent usage )
+    {
+        resourceStatistics.add( forkNumber, testSet, usage );
+    }
+
+    /**
+     * @param forkNumber the number of the forked JVM
+     * @param testSet    the name of the test set
+     * @return the peak values of the resources of the test set as properties, or empty map without samples
+     */
+    public Map<String, String> getResourceUsagePeaks( int forkNumber, String testSet )
+    {
+        return resourceStatistics.getPeakProperties( forkNumber, testSet );
+    }
+
     final void addListener( TestSetRunListener listener )
     {
         listeners.add( listener );
@@ -209,6 +250,54 @@ private void runCompleted()
             log( globalStats.getSummary(), hasSuccessful, printedFailures, printedErrors, hasSkipped, printedFlakes );
             log( "" );
         }
+        if ( !startupStatistics.isEmpty() )
+        {
+            reportStartupStatistics();
+        }
+        if ( !resourceStatistics.isEmpty() )
+        {
+            reportResourceStatistics();
+        }
+    }
+
+    private void reportStartupStatistics()
+    {
+        if ( reportConfiguration.isPrintSummary() )
+        {
+            for ( String line : startupStatistics.toSummaryLines() )
+            {
+                log( line );
+            }
+            log( "" );
+        }
+        File report = new File( getReportsDirectory(), ForkStartupStatistics.REPORT_FILE_NAME );
+        try
+        {
+            startupStatistics.writeJson( report );
+        }
+        catch ( IOException e )
+        {
+            consoleLogger.warning( "Cannot write the startup profile of the forked JVMs to " + report + ": "
+                + e.getLocalizedMessage() );
+        }
+    }
+
+    private void reportResourceStatistics()
+    {
+        for ( String warning : resourceStatistics.toLeakWarnings() )
+        {
+            consoleLogger.warning( warning );
+        }
+        File report = new File( getReportsDirectory(), ForkResourceStatistics.REPORT_FILE_NAME );
+        try
+        {
+            resourceStatistics.writeJson( report );
+        }
+        catch ( IOException e )
+        {
+            consoleLogger.warning( "Cannot write the resource usage of the forked JVMs to " + report + ": "
+                + e.getLocalizedMessage() );
+        }
     }
 
     public RunStatistics getGlobalRunStatistics()
@@ -0,0 +1,377 @@
+package org.apache.maven.plugin.surefire.report;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.surefire.api.event.ResourceUsageEvent;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import static java.lang.Math.max;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Locale.ROOT;
+import static org.apache.maven.surefire.api.event.ResourceUsageEvent.UNAVAILABLE;
+
+/**
+ * The samples of the resources of the forked JVMs, i.e. the heap, the garbage collectors, the threads, the CPU time
+ * and the loaded classes, as a time series per forked JVM and per test set. The test sets which run in a reused
+ * forked JVM are checked for growing heap after the garbage collection, which is a hint of a memory leak.
+ *
+ * @since 3.0.0-M6
+ */
+public final class ForkResourceStatistics
+{
+    /**
+     * The name of the machine-readable report in the reports directory.
+     */
+    public static final String REPORT_FILE_NAME = "surefire-fork-resources.json";
+
+    /**
+     * The prefix of the properties of the test set with the peak values.
+     */
+    public static final String PROPERTY_PREFIX = "surefire.resources.";
+
+    /**
+     * The growth of the heap after the garbage collection during one test set which is reported as a possible leak.
+     */
+    public static final int LEAK_THRESHOLD_KIB = 16 * 1024;
+
+    private static final int KIBIBYTES_IN_MEBIBYTE = 1024;
+
+    // the samples of all forked JVMs in the order they have been received
+    private final List<Sample> samples = new ArrayList<>();
+
+    public synchronized void add( int forkNumber, String testSet, @Nonnull ResourceUsageEvent usage )
+    {
+        samples.add( new Sample( forkNumber, testSet, usage ) );
+    }
+
+    public void addAll( @Nonnull ForkResourceStatistics other )
+    {
+        for ( Sample sample : other.snapshot() )
+        {
+            add( sample.forkNumber, sample.testSet, sample.usage );
+        }
+    }
+
+    public synchronized boolean isEmpty()
+    {
+        return samples.isEmpty();
+    }
+
+    /**
+     * The peak values of the test set in the forked JVM. The counters of the garbage collections and the CPU time are
+     * the increments during the test set.
+     *
+     * @param forkNumber the number of the forked JVM
+     * @param testSet    the name of the test set
+     * @return the properties of the test set, or empty map if the test set has no samples
+     */
+    @Nonnull
+    public Map<String, String> getPeakProperties( int forkNumber, @Nonnull String testSet )
+    {
+        TestSetSeries series = getTestSetSeries( forkNumber ).get( testSet );
+        Map<String, String> properties = new LinkedHashMap<>();
+        if ( series != null )
+        {
+            properties.put( PROPERTY_PREFIX + "peakHeapUsedKiB", String.valueOf( series.getPeakHeapUsedKiB() ) );
+            properties.put( PROPERTY_PREFIX + "peakHeapCommittedKiB",
+                String.valueOf( series.getPeakHeapCommittedKiB() ) );
+            properties.put( PROPERTY_PREFIX + "peakHeapUsedAfterGcKiB",
+                String.valueOf( series.getPeakHeapUsedAfterGcKiB() ) );
+            properties.put( PROPERTY_PREFIX + "peakThreadCount", String.valueOf( series.getPeakThreadCount() ) );
+            properties.put( PROPERTY_PREFIX + "peakLoadedClassCount",
+                String.valueOf( series.getPeakLoadedClassCount() ) );
+            properties.put( PROPERTY_PREFIX + "gcCount", String.valueOf( series.getGcCount() ) );
+            properties.put( PROPERTY_PREFIX + "gcTimeMillis", String.valueOf( series.getGcTimeMillis() ) );
+            properties.put( PROPERTY_PREFIX + "cpuTimeMillis", String.valueOf( series.getCpuTimeMillis() ) );
+        }
+        return properties;
+    }
+
+    /**
+     * The test sets during which the heap after the garbage collection has grown by at least
+     * {@link #LEAK_THRESHOLD_KIB} in a forked JVM which has run a previous test set.
+     *
+     * @return the warnings in the order of the forked JVMs and the test sets
+     */
+    @Nonnull
+    public List<String> toLeakWarnings()
+    {
+        List<String> warnings = new ArrayList<>();
+        for ( int forkNumber : getForkNumbers() )
+        {
+            for ( TestSetSeries series : getTestSetSeries( forkNumber ).values() )
+            {
+                int growth = series.getHeapUsedAfterGcGrowthKiB();
+                if ( growth >= LEAK_THRESHOLD_KIB )
+                {
+                    warnings.add( String.format( ROOT, "The heap after GC grew by %d MiB (%d MiB -> %d MiB) during %s "
+                            + "in the forked JVM %d, the test set may leak memory.",
+                        growth / KIBIBYTES_IN_MEBIBYTE, series.getBaselineHeapUsedAfterGcKiB() / KIBIBYTES_IN_MEBIBYTE,
+                        series.getLastHeapUsedAfterGcKiB() / KIBIBYTES_IN_MEBIBYTE, series.testSet, forkNumber ) );
+                }
+            }
+        }
+        return warnings;
+    }
+
+    /**
+     * Writes the samples per forked JVM and per test set in JSON, the times are in milliseconds and the memory is in
+     * kibibytes.
+     *
+     * @param file the JSON file
+     * @throws IOException if the file cannot be written
+     */
+    public void writeJson( @Nonnull File file ) throws IOException
+    {
+        File dir = file.getParentFile();
+        if ( dir != null && !dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory() )
+        {
+            throw new IOException( "Cannot create the directory " + dir );
+        }
+
+        try ( Writer json = new OutputStreamWriter( new FileOutputStream( file ), UTF_8 ) )
+        {
+            json.write( "{\n  \"forks\": [" );
+            String forkSeparator = "\n";
+            for ( int forkNumber : getForkNumbers() )
+            {
+                json.write( forkSeparator );
+                json.write( "    {\"fork\": " + forkNumber + ", \"testSets\": [" );
+                String testSetSeparator = "\n";
+                for ( TestSetSeries series : getTestSetSeries( forkNumber ).values() )
+                {
+                    json.write( testSetSeparator );
+                    json.write( "      {\"testSet\": " );
+                    json.write( ForkStartupStatistics.toJsonString( series.testSet ) );
+                    json.write( ", \"samples\": [" );
+                    String sampleSeparator = "\n";
+                    for ( ResourceUsageEvent usage : series.samples )
+                    {
+                        json.write( sampleSeparator );
+                        json.write( "        " );
+                        json.write( toJson( usage ) );
+                        sampleSeparator = ",\n";
+                    }
+                    json.write( "\n      ]}" );
+                    testSetSeparator = ",\n";
+                }
+                json.write( "\n    ]}" );
+                forkSeparator = ",\n";
+            }
+            json.write( "\n  ]\n}\n" );
+        }
+    }
+
+    private static String toJson( ResourceUsageEvent usage )
+    {
+        return "{\"uptimeMillis\": " + usage.getUptimeMillis()
+            + ", \"heapUsedKiB\": " + usage.getHeapUsedKiB()
+            + ", \"heapCommittedKiB\": " + usage.getHeapCommittedKiB()
+            + ", \"heapUsedAfterGcKiB\": " + usage.getHeapUsedAfterGcKiB()
+            + ", \"gcCount\": " + usage.getGcCount()
+            + ", \"gcTimeMillis\": " + usage.getGcTimeMillis()
+            + ", \"threadCount\": " + usage.getThreadCount()
+            + ", \"cpuTimeMillis\": " + usage.getCpuTimeMillis()
+            + ", \"loadedClassCount\": " + usage.getLoadedClassCount() + "}";
+    }
+
+    private Iterable<Integer> getForkNumbers()
+    {
+        Map<Integer, Boolean> forkNumbers = new TreeMap<>();
+        for ( Sample sample : snapshot() )
+        {
+            forkNumbers.put( sample.forkNumber, true );
+        }
+        return forkNumbers.keySet();
+    }
+
+    /**
+     * @return the test sets of the forked JVM in the order they have run
+     */
+    private Map<String, TestSetSeries> getTestSetSeries( int forkNumber )
+    {
+        Map<String, TestSetSeries> testSets = new LinkedHashMap<>();
+        ResourceUsageEvent previous = null;
+        for ( Sample sample : snapshot() )
+        {
+            if ( sample.forkNumber == forkNumber )
+            {
+                if ( previous != null && sample.usage.getUptimeMillis() < previous.getUptimeMillis() )
+                {
+                    // the fork number has been reused by a new JVM
+                    previous = null;
+                }
+                TestSetSeries series = testSets.get( sample.testSet );
+                if ( series == null )
+                {
+                    series = new TestSetSeries( sample.testSet, previous );
+                    testSets.put( sample.testSet, series );
+                }
+                series.samples.add( sample.usage );
+                previous = sample.usage;
+            }
+        }
+        return testSets;
+    }
+
+    private synchronized List<Sample> snapshot()
+    {
+        return new ArrayList<>( samples );
+    }
+
+    private static final class Sample
+    {
+        private final int forkNumber;
+        private final String testSet;
+        private final ResourceUsageEvent usage;
+
+        Sample( int forkNumber, String testSet, ResourceUsageEvent usage )
+        {
+            this.forkNumber = forkNumber;
+            this.testSet = testSet == null ? "" : testSet;
+            this.usage = usage;
+        }
+    }
+
+    /**
+     * The samples of one test set in one forked JVM, and the last sample of the previous test set in the JVM.
+     */
+    private static final class TestSetSeries
+    {
+        private final String testSet;
+        private final ResourceUsageEvent baseline;
+        private final List<ResourceUsageEvent> samples = new ArrayList<>();
+
+        TestSetSeries( String testSet, ResourceUsageEvent baseline )
+        {
+            this.testSet = testSet;
+            this.baseline = baseline;
+        }
+
+        int getPeakHeapUsedKiB()
+        {
+            int peak = UNAVAILABLE;
+            for ( ResourceUsageEvent usage : samples )
+            {
+                peak = max( peak, usage.getHeapUsedKiB() );
+            }
+            return peak;
+        }
+
+        int getPeakHeapCommittedKiB()
+        {
+            int peak = UNAVAILABLE;
+            for ( ResourceUsageEvent usage : samples )
+            {
+                peak = max( peak, usage.getHeapCommittedKiB() );
+            }
+            return peak;
+        }
+
+        int getPeakHeapUsedAfterGcKiB()
+        {
+            int peak = UNAVAILABLE;
+            for ( ResourceUsageEvent usage : samples )
+            {
+                peak = max( peak, usage.getHeapUsedAfterGcKiB() );
+            }
+            return peak;
+        }
+
+        int getPeakThreadCount()
+        {
+            int peak = UNAVAILABLE;
+            for ( ResourceUsageEvent usage : samples )
+            {
+                peak = max( peak, usage.getThreadCount() );
+            }
+            return peak;
+        }
+
+        int getPeakLoadedClassCount()
+        {
+            int peak = UNAVAILABLE;
+            for ( ResourceUsageEvent usage : samples )
+            {
+                peak = max( peak, usage.getLoadedClassCount() );
+            }
+            return peak;
+        }
+
+        int getGcCount()
+        {
+            return increment( baseline == null ? 0 : baseline.getGcCount(), last().getGcCount() );
+        }
+
+        int getGcTimeMillis()
+        {
+            return increment( baseline == null ? 0 : baseline.getGcTimeMillis(), last().getGcTimeMillis() );
+        }
+
+        int getCpuTimeMillis()
+        {
+            return increment( baseline == null ? samples.get( 0 ).getCpuTimeMillis() : baseline.getCpuTimeMillis(),
+                last().getCpuTimeMillis() );
+        }
+
+        int getBaselineHeapUsedAfterGcKiB()
+        {
+            return baseline == null ? UNAVAILABLE : baseline.getHeapUsedAfterGcKiB();
+        }
+
+        int getLastHeapUsedAfterGcKiB()
+        {
+            return last().getHeapUsedAfterGcKiB();
+        }
+
+        /**
+         * @return the growth of the heap after GC since the previous test set in the same JVM, {@code 0} if this
+         * test set is the first one in the JVM
+         */
+        int getHeapUsedAfterGcGrowthKiB()
+        {
+            int before = getBaselineHeapUsedAfterGcKiB();
+            int after = getLastHeapUsedAfterGcKiB();
+            return before == UNAVAILABLE || after == UNAVAILABLE ? 0 : after - before;
+        }
+
+        private ResourceUsageEvent last()
+        {
+            return samples.get( samples.size() - 1 );
+        }
+
+        private static int increment( int before, int after )
+        {
+            return before == UNAVAILABLE || after == UNAVAILABLE ? UNAVAILABLE : max( after - before, 0 );
+        }
+    }
+}
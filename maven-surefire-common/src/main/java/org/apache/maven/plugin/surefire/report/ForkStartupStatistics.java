@@ -0,0 +1,254 @@
+package org.apache.maven.plugin.surefire.report;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import static java.lang.Math.ceil;
+import static java.lang.Math.max;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Locale.ROOT;
+
+/**
+ * The elapsed times of the phases of the startup of the forked JVMs, e.g. the launch of the JVM, reading the booter
+ * properties, connecting the fork channel, creating the class loader and the provider, and the discovery of the tests
+ * until the first test set has started. The times of all forked JVMs are aggregated to the minimum, the median, the
+ * 99th percentile and the maximum per phase.
+ *
+ * @since 3.0.0-M6
+ */
+public final class ForkStartupStatistics
+{
+    /**
+     * The name of the machine-readable report in the reports directory.
+     */
+    public static final String REPORT_FILE_NAME = "surefire-fork-startup.json";
+
+    private static final double MICROS_IN_MILLI = 1000d;
+
+    // the phase -> elapsed times in microseconds, in the order the phases appeared
+    private final Map<String, List<Integer>> phases = new LinkedHashMap<>();
+
+    public synchronized void add( @Nonnull String phase, int elapsedMicros )
+    {
+        List<Integer> elapsedTimes = phases.get( phase );
+        if ( elapsedTimes == null )
+        {
+            elapsedTimes = new ArrayList<>();
+            phases.put( phase, elapsedTimes );
+        }
+        elapsedTimes.add( elapsedMicros );
+    }
+
+    public void addAll( @Nonnull ForkStartupStatistics other )
+    {
+        for ( Entry<String, List<Integer>> phase : other.snapshot().entrySet() )
+        {
+            for ( Integer elapsedMicros : phase.getValue() )
+            {
+                add( phase.getKey(), elapsedMicros );
+            }
+        }
+    }
+
+    public synchronized boolean isEmpty()
+    {
+        return phases.isEmpty();
+    }
+
+    /**
+     * @return the aggregated phases in the order they appeared
+     */
+    @Nonnull
+    public List<PhaseStatistics> getPhaseStatistics()
+    {
+        List<PhaseStatistics> statistics = new ArrayList<>();
+        for ( Entry<String, List<Integer>> phase : snapshot().entrySet() )
+        {
+            List<Integer> elapsedTimes = phase.getValue();
+            Collections.sort( elapsedTimes );
+            statistics.add( new PhaseStatistics( phase.getKey(), elapsedTimes ) );
+        }
+        return statistics;
+    }
+
+    /**
+     * @return the lines of the summary in the console, the times are in milliseconds
+     */
+    @Nonnull
+    public List<String> toSummaryLines()
+    {
+        List<PhaseStatistics> statistics = getPhaseStatistics();
+        int width = "Phase".length();
+        for ( PhaseStatistics phase : statistics )
+        {
+            width = max( width, phase.getPhase().length() );
+        }
+        String format = "  %-" + width + "s %10s %10s %10s %10s %7s";
+        List<String> lines = new ArrayList<>();
+        lines.add( "Startup of the forked JVMs (milliseconds):" );
+        lines.add( String.format( ROOT, format, "Phase", "Min", "Median", "P99", "Max", "Forks" ) );
+        for ( PhaseStatistics phase : statistics )
+        {
+            lines.add( String.format( ROOT, format, phase.getPhase(), toMillis( phase.getMinMicros() ),
+                toMillis( phase.getMedianMicros() ), toMillis( phase.getP99Micros() ),
+                toMillis( phase.getMaxMicros() ), phase.getCount() ) );
+        }
+        return lines;
+    }
+
+    /**
+     * Writes the aggregated phases and the elapsed times of all forked JVMs in JSON, the times are in microseconds.
+     *
+     * @param file the JSON file
+     * @throws IOException if the file cannot be written
+     */
+    public void writeJson( @Nonnull File file ) throws IOException
+    {
+        File dir = file.getParentFile();
+        if ( dir != null && !dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory() )
+        {
+            throw new IOException( "Cannot create the directory " + dir );
+        }
+
+        try ( Writer json = new OutputStreamWriter( new FileOutputStream( file ), UTF_8 ) )
+        {
+            json.write( "{\n  \"phases\": [" );
+            String separator = "\n";
+            for ( PhaseStatistics phase : getPhaseStatistics() )
+            {
+                json.write( separator );
+                json.write( "    {\"phase\": " );
+                json.write( toJsonString( phase.getPhase() ) );
+                json.write( ", \"count\": " + phase.getCount() );
+                json.write( ", \"minMicros\": " + phase.getMinMicros() );
+                json.write( ", \"medianMicros\": " + phase.getMedianMicros() );
+                json.write( ", \"p99Micros\": " + phase.getP99Micros() );
+                json.write( ", \"maxMicros\": " + phase.getMaxMicros() );
+                json.write( ", \"elapsedMicros\": " + phase.elapsedTimes.toString() );
+                json.write( "}" );
+                separator = ",\n";
+            }
+            json.write( "\n  ]\n}\n" );
+        }
+    }
+
+    private synchronized Map<String, List<Integer>> snapshot()
+    {
+        Map<String, List<Integer>> snapshot = new LinkedHashMap<>();
+        for ( Entry<String, List<Integer>> phase : phases.entrySet() )
+        {
+            snapshot.put( phase.getKey(), new ArrayList<>( phase.getValue() ) );
+        }
+        return snapshot;
+    }
+
+    private static String toMillis( int micros )
+    {
+        return String.format( ROOT, "%.1f", micros / MICROS_IN_MILLI );
+    }
+
+    static String toJsonString( String s )
+    {
+        StringBuilder json = new StringBuilder( s.length() + 2 ).append( '"' );
+        for ( int i = 0; i < s.length(); i++ )
+        {
+            char c = s.charAt( i );
+            if ( c == '"' || c == '\\' )
+            {
+                json.append( '\\' ).append( c );
+            }
+            else if ( c < ' ' )
+            {
+                json.append( String.format( ROOT, "\\u%04x", (int) c ) );
+            }
+            else
+            {
+                json.append( c );
+            }
+        }
+        return json.append( '"' ).toString();
+    }
+
+    /**
+     * The elapsed times of one phase aggregated over the forked JVMs.
+     */
+    public static final class PhaseStatistics
+    {
+        private final String phase;
+        private final List<Integer> elapsedTimes;
+
+        PhaseStatistics( String phase, List<Integer> sortedElapsedTimes )
+        {
+            this.phase = phase;
+            elapsedTimes = sortedElapsedTimes;
+        }
+
+        public String getPhase()
+        {
+            return phase;
+        }
+
+        public int getCount()
+        {
+            return elapsedTimes.size();
+        }
+
+        public int getMinMicros()
+        {
+            return elapsedTimes.get( 0 );
+        }
+
+        public int getMedianMicros()
+        {
+            return percentile( 0.5d );
+        }
+
+        public int getP99Micros()
+        {
+            return percentile( 0.99d );
+        }
+
+        public int getMaxMicros()
+        {
+            return elapsedTimes.get( elapsedTimes.size() - 1 );
+        }
+
+        /**
+         * The nearest-rank percentile.
+         */
+        private int percentile( double p )
+        {
+            int rank = (int) ceil( p * elapsedTimes.size() );
+            return elapsedTimes.get( max( rank, 1 ) - 1 );
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package org.apache.maven.plugin.surefire.report;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Append-only memory-mapped file shared by all {@link Utf8RecodingDeferredFileOutputStream deferred streams} of one
+ * {@link TestSetRunListener} (one forked JVM). The streams store the console output of the tests as
+ * {@link Slice slices} (offset, length) of the arena instead of keeping a heap cache and a temporary file per stream.
+ * <br>
+ * The file is mapped in segments of {@link #SEGMENT_SIZE} bytes on demand. The positions of the slices are logical,
+ * and every segment counts the live slices it holds. A segment which does not hold any live slice anymore is returned
+ * to a free list and mapped again at the next logical position, so that a single long-living slice does not make
+ * the file grow forever. The arena is filled from the beginning again as soon as all the slices have been
+ * {@link #release(Slice) released}, i.e. after the XML reports of the running tests have been written.
+ *
+ * @since 3.0.0-M6
+ */
+final class MappedSpillArena
+{
+    static final int SEGMENT_SIZE = 4 * 1024 * 1024;
+
+    private final String prefix;
+    private final Map<Long, Segment> segments = new HashMap<>();
+    private final Deque<MappedByteBuffer> freeSegments = new ArrayDeque<>();
+    private Path file;
+    private FileChannel channel;
+    private long position;
+    private long highWaterMark;
+    private int mappedSegments;
+    private int liveSlices;
+    private boolean closed;
+
+    MappedSpillArena( @Nonnull String prefix )
+    {
+        this.prefix = requireNonNull( prefix );
+    }
+
+    /**
+     * Appends the bytes at the end of the arena.
+     *
+     * @param last   the last slice of the calling stream or null; extended if the bytes follow it in the arena
+     * @param bytes  the data
+     * @param offset offset in {@code bytes}
+     * @param length number of bytes to append
+     * @return {@code last} extended by {@code length} bytes, or a new slice
+     * @throws IOException if the file cannot be created or mapped
+     */
+    @Nonnull
+    synchronized Slice append( @Nullable Slice last, @Nonnull byte[] bytes, int offset, int length )
+        throws IOException
+    {
+        if ( closed )
+        {
+            throw new IOException( "The arena " + file + " has been closed." );
+        }
+
+        long start = position;
+        for ( int written = 0; written < length; )
+        {
+            ByteBuffer segment = segmentAt( position ).duplicate();
+            ( (Buffer) segment ).position( (int) ( position % SEGMENT_SIZE ) );
+            int chunk = min( segment.remaining(), length - written );
+            segment.put( bytes, offset + written, chunk );
+            written += chunk;
+            position += chunk;
+        }
+        highWaterMark = max( highWaterMark, position );
+
+        if ( last != null && !last.released && last.offset + last.length == start )
+        {
+            if ( length != 0 )
+            {
+                retain( last.length == 0 ? firstSegment( start ) : lastSegment( start ) + 1, lastSegment( position ) );
+            }
+            last.length += length;
+            return last;
+        }
+
+        if ( length != 0 )
+        {
+            retain( firstSegment( start ), lastSegment( position ) );
+        }
+        liveSlices++;
+        return new Slice( start, length );
+    }
+
+    /**
+     * Copies the slice to {@code out} in chunks of the size of {@code buffer}. The arena is not locked while
+     * {@code out} is being written.
+     *
+     * @param slice  a live slice
+     * @param out    target stream
+     * @param buffer the transfer buffer
+     * @throws IOException error writing {@code out}
+     */
+    void writeTo( @Nonnull Slice slice, @Nonnull OutputStream out, @Nonnull byte[] buffer )
+        throws IOException
+    {
+        for ( long read = 0; read < slice.length; )
+        {
+            int chunk = read( slice.offset + read, buffer, (int) min( buffer.length, slice.length - read ) );
+            out.write( buffer, 0, chunk );
+            read += chunk;
+        }
+    }
+
+    /**
+     * Releases the slice and frees the segments which do not hold any other live slice. The arena is rewound when
+     * the last live slice has been released.
+     *
+     * @param slice the slice returned by {@link #append(Slice, byte[], int, int)}
+     */
+    synchronized void release( @Nonnull Slice slice )
+    {
+        if ( !slice.released )
+        {
+            slice.released = true;
+            if ( slice.length != 0 )
+            {
+                long last = lastSegment( slice.offset + slice.length );
+                for ( long index = firstSegment( slice.offset ); index <= last; index++ )
+                {
+                    Segment segment = segments.get( index );
+                    if ( --segment.slices == 0 )
+                    {
+                        segments.remove( index );
+                        freeSegments.push( segment.buffer );
+                    }
+                }
+            }
+
+            if ( --liveSlices == 0 )
+            {
+                position = 0L;
+            }
+        }
+    }
+
+    synchronized void close()
+    {
+        if ( closed )
+        {
+            return;
+        }
+
+        closed = true;
+        segments.clear();
+        freeSegments.clear();
+        if ( channel != null )
+        {
+            try
+            {
+                channel.close();
+                Files.delete( file );
+            }
+            catch ( IOException e )
+            {
+                // the mapped segments may prevent deleting the file on some platforms until they are collected
+                file.toFile()
+                    .deleteOnExit();
+            }
+        }
+    }
+
+    synchronized int getLiveSlices()
+    {
+        return liveSlices;
+    }
+
+    synchronized long getPosition()
+    {
+        return position;
+    }
+
+    /**
+     * @return the highest position ever written in the arena
+     */
+    synchronized long getHighWaterMark()
+    {
+        return highWaterMark;
+    }
+
+    /**
+     * @return the number of segments mapped in the file, i.e. the size of the file in segments
+     */
+    synchronized int getMappedSegments()
+    {
+        return mappedSegments;
+    }
+
+    private synchronized int read( long from, byte[] buffer, int length )
+        throws IOException
+    {
+        if ( closed )
+        {
+            throw new IOException( "The arena " + file + " has been closed." );
+        }
+
+        ByteBuffer segment = segments.get( from / SEGMENT_SIZE ).buffer.duplicate();
+        ( (Buffer) segment ).position( (int) ( from % SEGMENT_SIZE ) );
+        int chunk = min( segment.remaining(), length );
+        segment.get( buffer, 0, chunk );
+        return chunk;
+    }
+
+    private MappedByteBuffer segmentAt( long position )
+        throws IOException
+    {
+        if ( channel == null )
+        {
+            file = Files.createTempFile( prefix, "arena" );
+            channel = FileChannel.open( file, READ, WRITE );
+        }
+
+        long index = position / SEGMENT_SIZE;
+        Segment segment = segments.get( index );
+        if ( segment == null )
+        {
+            MappedByteBuffer buffer = freeSegments.poll();
+            if ( buffer == null )
+            {
+                buffer = channel.map( READ_WRITE, (long) mappedSegments++ * SEGMENT_SIZE, SEGMENT_SIZE );
+            }
+            segment = new Segment( buffer );
+            segments.put( index, segment );
+        }
+        return segment.buffer;
+    }
+
+    /**
+     * Counts a live slice in the segments {@code first} to {@code last} (inclusive).
+     */
+    private void retain( long first, long last )
+    {
+        for ( long index = first; index <= last; index++ )
+        {
+            segments.get( index ).slices++;
+        }
+    }
+
+    /**
+     * @param offset the first position of a slice
+     * @return the index of the segment holding the position
+     */
+    private static long firstSegment( long offset )
+    {
+        return offset / SEGMENT_SIZE;
+    }
+
+    /**
+     * @param end the position after a non-empty slice
+     * @return the index of the segment holding the last byte of the slice
+     */
+    private static long lastSegment( long end )
+    {
+        return ( end - 1 ) / SEGMENT_SIZE;
+    }
+
+    /**
+     * A mapped region of the file and the number of the live slices it holds.
+     */
+    private static final class Segment
+    {
+        private final MappedByteBuffer buffer;
+        private int slices;
+
+        private Segment( MappedByteBuffer buffer )
+        {
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * A contiguous region of the arena owned by one stream.
+     */
+    static final class Slice
+    {
+        private final long offset;
+        private long length;
+        private boolean released;
+
+        private Slice( long offset, long length )
+        {
+            this.offset = offset;
+            this.length = length;
+        }
+
+        long getOffset()
+        {
+            return offset;
+        }
+
+        long getLength()
+        {
+            return length;
+        }
+    }
+}
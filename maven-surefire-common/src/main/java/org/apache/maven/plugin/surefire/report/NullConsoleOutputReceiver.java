@@ -20,6 +20,9 @@
  */
 
 import org.apache.maven.surefire.api.report.TestSetReportEntry;
+import org.apache.maven.surefire.api.report.Utf8ConsoleOutputReceiver;
+
+import java.nio.ByteBuffer;
 
 /**
  * TestcycleConsoleOutputReceiver doing nothing rather than using null.
@@ -28,7 +31,7 @@
  * @since 3.0.0-M4
  */
 public class NullConsoleOutputReceiver
-    implements TestcycleConsoleOutputReceiver
+    implements TestcycleConsoleOutputReceiver, Utf8ConsoleOutputReceiver
 {
 
     static final NullConsoleOutputReceiver INSTANCE = new NullConsoleOutputReceiver();
@@ -60,4 +63,10 @@ public void writeTestOutput( String output, boolean newLine, boolean stdout )
     {
 
     }
+
+    @Override
+    public void writeUtf8TestOutput( ByteBuffer utf8Output, boolean newLine, boolean stdout )
+    {
+
+    }
 }
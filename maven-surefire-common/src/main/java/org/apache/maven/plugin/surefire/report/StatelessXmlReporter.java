@@ -20,6 +20,8 @@
  */
 
 import org.apache.maven.plugin.surefire.booterclient.output.InPluginProcessDumpSingleton;
+import org.apache.maven.plugin.surefire.report.TestCaseFragments.TestCaseGroup;
+import org.apache.maven.plugin.surefire.report.TestSetChunks.ChunkedTestSet;
 import org.apache.maven.surefire.shared.utils.xml.PrettyPrintXMLWriter;
 import org.apache.maven.surefire.shared.utils.xml.XMLWriter;
 import org.apache.maven.surefire.extensions.StatelessReportEventListener;
@@ -33,8 +35,10 @@
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -43,6 +47,9 @@
 import java.util.concurrent.ConcurrentLinkedDeque;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Collections.singletonList;
+import static org.apache.maven.plugin.surefire.report.TestCaseFragments.copy;
 import static org.apache.maven.plugin.surefire.report.DefaultReporterFactory.TestResultType;
 import static org.apache.maven.plugin.surefire.report.FileReporterUtils.stripIllegalFilenameChars;
 import static org.apache.maven.plugin.surefire.report.ReportEntryType.SUCCESS;
@@ -77,6 +84,11 @@
  *    &lt;<b>skipped</b>/>
  *  &lt;/testcase>
  *  [...]</pre>
+ * <br>
+ * If the failing tests are not rerun, the <code>testcase</code> elements are written to a temporary file as soon as
+ * the tests have completed, see {@link #testCompleted(WrappedReportEntry)}, and the report is assembled from the
+ * <code>testsuite</code> header and this file after the test set has completed. The memory used by the reporter does
+ * not grow with the number of the tests in the test set.
  *
  * @author Kristian Rosenvold
  * @see <a href="http://wiki.apache.org/ant/Proposals/EnhancedTestReports">Ant's format enhancement proposal</a>
@@ -110,6 +122,16 @@
 
     private final boolean phrasedMethodName;
 
+    // report file -> testcase elements per test method in the report written by the previous test set of the same name
+    private final Map<File, List<TestCaseGroup>> streamedTestCaseGroups = new HashMap<>();
+
+    // testcase elements of the running test set if rerunFailingTestsCount is 0
+    private StreamedTestCases streamedTestCases;
+
+    private boolean streamingFailed;
+
+    private volatile TestSetChunks testSetChunks;
+
     public StatelessXmlReporter( File reportsDirectory, String reportNameSuffix, boolean trimStackTrace,
                                  int rerunFailingTestsCount,
                                  Map<String, Deque<WrappedReportEntry>> testClassMethodRunHistoryMap,
@@ -129,9 +151,110 @@ public StatelessXmlReporter( File reportsDirectory, String reportNameSuffix, boo
         this.phrasedMethodName = phrasedMethodName;
     }
 
+    /**
+     * Appends the <code>testcase</code> element of the completed test to a temporary file of the running test set
+     * if the failing tests are not rerun. The report file is written in
+     * {@link #testSetCompleted(WrappedReportEntry, TestSetStats)}.
+     *
+     * @param methodEntry the completed test
+     * @return {@code true} if the test has been written and its stdout/stderr are no longer needed by this reporter
+     * @throws ReporterException if the test cannot be written, then the report of the test set is not written
+     * @since 3.0.0-M6
+     */
+    public synchronized boolean testCompleted( WrappedReportEntry methodEntry )
+    {
+        if ( rerunFailingTestsCount > 0 )
+        {
+            return false;
+        }
+
+        if ( streamingFailed )
+        {
+            // the report of this test set is not written
+            return true;
+        }
+
+        try
+        {
+            if ( streamedTestCases == null )
+            {
+                streamedTestCases = new StreamedTestCases();
+            }
+            StreamedTestCases testCases = streamedTestCases;
+            serializeTestClassWithoutRerun( testCases.outputStream, testCases.writer, testCases.xmlWriter,
+                singletonList( methodEntry ) );
+            testCases.completed( methodEntry );
+            return true;
+        }
+        catch ( Exception e )
+        {
+            streamingFailed = true;
+            InPluginProcessDumpSingleton.getSingleton()
+                    .dumpException( e, e.getLocalizedMessage(), reportsDirectory );
+            throw new ReporterException( "Cannot write the XML report of the test set "
+                + methodEntry.getSourceName() + ", the report is not written.", e );
+        }
+    }
+
+    /**
+     * @param testSetChunks the test classes which run in chunks in several forked JVMs, merged in one report
+     * @since 3.0.0-M6
+     */
+    public void setTestSetChunks( TestSetChunks testSetChunks )
+    {
+        this.testSetChunks = testSetChunks;
+    }
+
     @Override
     public void testSetCompleted( WrappedReportEntry testSetReportEntry, TestSetStats testSetStats )
     {
+        StreamedTestCases testCases;
+        boolean failed;
+        synchronized ( this )
+        {
+            testCases = streamedTestCases;
+            failed = streamingFailed;
+            streamedTestCases = null;
+            streamingFailed = false;
+        }
+
+        TestSetChunks chunks = testSetChunks;
+        ChunkedTestSet chunkedTestSet = chunks == null ? null : chunks.get( testSetReportEntry.getSourceName() );
+        if ( chunkedTestSet != null )
+        {
+            completeChunk( testSetReportEntry, testSetStats, chunkedTestSet, testCases, failed );
+            return;
+        }
+
+        if ( failed )
+        {
+            // the failure has been reported in testCompleted()
+            if ( testCases != null )
+            {
+                testCases.delete();
+            }
+            return;
+        }
+
+        if ( testCases != null )
+        {
+            try
+            {
+                testCases.close();
+                writeStreamedTestSet( testSetReportEntry, testSetStats, testCases );
+            }
+            catch ( Exception e )
+            {
+                InPluginProcessDumpSingleton.getSingleton()
+                        .dumpException( e, e.getLocalizedMessage(), reportsDirectory );
+            }
+            finally
+            {
+                testCases.delete();
+            }
+            return;
+        }
+
         Map<String, Map<String, List<WrappedReportEntry>>> classMethodStatistics =
                 arrangeMethodStatistics( testSetReportEntry, testSetStats );
 
@@ -165,6 +288,156 @@ public void testSetCompleted( WrappedReportEntry testSetReportEntry, TestSetStat
         }
     }
 
+    /**
+     * Writes the header of the test set, the <code>testcase</code> elements which have been written by the previous
+     * test set of the same name (the same as the history of the reruns) and the <code>testcase</code> elements of
+     * this test set, then replaces the report file. The elements are grouped by the test class and the test method
+     * like in {@link #arrangeMethodStatistics(WrappedReportEntry, TestSetStats)}.
+     */
+    private void writeStreamedTestSet( WrappedReportEntry testSetReportEntry, TestSetStats testSetStats,
+                                       StreamedTestCases testCases )
+        throws IOException
+    {
+        File reportFile = getReportFile( testSetReportEntry );
+        File reportDir = reportFile.getParentFile();
+        //noinspection ResultOfMethodCallIgnored
+        reportDir.mkdirs();
+        File tmpReportFile = new File( reportDir, reportFile.getName() + ".tmp" );
+        List<TestCaseGroup> previousGroups = reportFile.isFile() ? streamedTestCaseGroups.get( reportFile ) : null;
+
+        try ( OutputStream outputStream = new BufferedOutputStream( new FileOutputStream( tmpReportFile ), 64 * 1024 );
+              OutputStreamWriter fw = getWriter( outputStream ) )
+        {
+            XMLWriter ppw = new PrettyPrintXMLWriter( fw );
+            ppw.setEncoding( UTF_8.name() );
+
+            createTestSuiteElement( ppw, testSetReportEntry, testSetStats ); // TestSuite
+
+            showProperties( ppw, testSetReportEntry.getSystemProperties() );
+
+            fw.flush();
+            outputStream.flush();
+            List<TestCaseGroup> groups = testCases.fragments.copyGrouped( reportFile, previousGroups, testCases.file,
+                outputStream, tmpReportFile.length() );
+            streamedTestCaseGroups.put( reportFile, groups );
+
+            ppw.endElement(); // TestSuite
+        }
+
+        Files.move( tmpReportFile.toPath(), reportFile.toPath(), REPLACE_EXISTING );
+    }
+
+    /**
+     * Appends the <code>testcase</code> elements of the chunk to the test set of the class. The report of the class is
+     * written by the last completed chunk unless the elements of a chunk could not be written.
+     */
+    private void completeChunk( WrappedReportEntry testSetReportEntry, TestSetStats testSetStats,
+                                ChunkedTestSet chunkedTestSet, StreamedTestCases streamed, boolean failed )
+    {
+        StreamedTestCases testCases = streamed;
+        try
+        {
+            if ( testCases == null && !failed )
+            {
+                // the failing tests are rerun, the testcase elements of the chunk are written from TestSetStats
+                testCases = new StreamedTestCases();
+                for ( WrappedReportEntry methodEntry : testSetStats.getReportEntries() )
+                {
+                    serializeTestClassWithoutRerun( testCases.outputStream, testCases.writer, testCases.xmlWriter,
+                        singletonList( methodEntry ) );
+                    testCases.completed( methodEntry );
+                }
+            }
+
+            if ( testCases != null )
+            {
+                testCases.close();
+            }
+
+            // the failure has been reported in testCompleted()
+            if ( chunkedTestSet.addChunk( failed ? null : testCases.fragments, failed ? null : testCases.file,
+                testSetStats, testSetReportEntry, this ) )
+            {
+                if ( chunkedTestSet.hasFailedChunk() )
+                {
+                    chunkedTestSet.delete();
+                }
+                else
+                {
+                    chunkedTestSetCompleted( testSetReportEntry, chunkedTestSet );
+                }
+            }
+        }
+        catch ( Exception e )
+        {
+            InPluginProcessDumpSingleton.getSingleton()
+                    .dumpException( e, e.getLocalizedMessage(), reportsDirectory );
+        }
+        finally
+        {
+            if ( testCases != null )
+            {
+                testCases.delete();
+            }
+        }
+    }
+
+    /**
+     * Writes the report of the chunks, and deletes their temporary file. Called by the last completed chunk, or at the
+     * end of the run with the chunks which have completed if a forked JVM has failed.
+     */
+    void chunkedTestSetCompleted( WrappedReportEntry lastChunk, ChunkedTestSet chunkedTestSet )
+    {
+        try
+        {
+            writeChunkedTestSet( lastChunk, chunkedTestSet );
+        }
+        catch ( Exception e )
+        {
+            InPluginProcessDumpSingleton.getSingleton()
+                    .dumpException( e, e.getLocalizedMessage(), reportsDirectory );
+        }
+        finally
+        {
+            chunkedTestSet.delete();
+        }
+    }
+
+    private void writeChunkedTestSet( WrappedReportEntry lastChunk, ChunkedTestSet chunkedTestSet )
+        throws IOException
+    {
+        WrappedReportEntry testSetReportEntry = new WrappedReportEntry( lastChunk, lastChunk.getReportEntryType(),
+            chunkedTestSet.getElapsed(), lastChunk.getStdout(), lastChunk.getStdErr(),
+            lastChunk.getSystemProperties() );
+        File reportFile = getReportFile( testSetReportEntry );
+        File reportDir = reportFile.getParentFile();
+        //noinspection ResultOfMethodCallIgnored
+        reportDir.mkdirs();
+        File tmpReportFile = new File( reportDir, reportFile.getName() + ".tmp" );
+
+        try ( OutputStream outputStream = new BufferedOutputStream( new FileOutputStream( tmpReportFile ), 64 * 1024 );
+              OutputStreamWriter fw = getWriter( outputStream ) )
+        {
+            XMLWriter ppw = new PrettyPrintXMLWriter( fw );
+            ppw.setEncoding( UTF_8.name() );
+
+            createTestSuiteElement( ppw, testSetReportEntry, chunkedTestSet.getTests(), chunkedTestSet.getErrors(),
+                chunkedTestSet.getSkipped(), chunkedTestSet.getFailures() ); // TestSuite
+
+            showProperties( ppw, testSetReportEntry.getSystemProperties() );
+
+            fw.flush();
+            outputStream.flush();
+            File testCases = chunkedTestSet.getTestCases();
+            copy( testCases, 0, testCases.length(), outputStream );
+            outputStream.flush();
+
+            ppw.endElement(); // TestSuite
+        }
+
+        Files.move( tmpReportFile.toPath(), reportFile.toPath(), REPLACE_EXISTING );
+    }
+
     private Map<String, Map<String, List<WrappedReportEntry>>> arrangeMethodStatistics(
             WrappedReportEntry testSetReportEntry, TestSetStats testSetStats )
     {
@@ -391,6 +664,13 @@ private void startTestElement( XMLWriter ppw, WrappedReportEntry report )
     }
 
     private void createTestSuiteElement( XMLWriter ppw, WrappedReportEntry report, TestSetStats testSetStats )
+    {
+        createTestSuiteElement( ppw, report, testSetStats.getCompletedCount(), testSetStats.getErrors(),
+            testSetStats.getSkipped(), testSetStats.getFailures() );
+    }
+
+    private void createTestSuiteElement( XMLWriter ppw, WrappedReportEntry report, int tests, int errors,
+                                         int skipped, int failures )
     {
         ppw.startElement( "testsuite" );
 
@@ -409,13 +689,13 @@ private void createTestSuiteElement( XMLWriter ppw, WrappedReportEntry report, T
 
         ppw.addAttribute( "time", report.elapsedTimeAsString() );
 
-        ppw.addAttribute( "tests", String.valueOf( testSetStats.getCompletedCount() ) );
+        ppw.addAttribute( "tests", String.valueOf( tests ) );
 
-        ppw.addAttribute( "errors", String.valueOf( testSetStats.getErrors() ) );
+        ppw.addAttribute( "errors", String.valueOf( errors ) );
 
-        ppw.addAttribute( "skipped", String.valueOf( testSetStats.getSkipped() ) );
+        ppw.addAttribute( "skipped", String.valueOf( skipped ) );
 
-        ppw.addAttribute( "failures", String.valueOf( testSetStats.getFailures() ) );
+        ppw.addAttribute( "failures", String.valueOf( failures ) );
     }
 
     private static void getTestProblems( OutputStreamWriter outputStreamWriter, XMLWriter ppw,
@@ -584,6 +864,107 @@ private static void extraEscapeElementValue( String message, OutputStreamWriter
         }
     }
 
+    /**
+     * Temporary file of the <code>testcase</code> elements of the running test set. The file starts with a prefix
+     * of the document header, the start of <code>testsuite</code> and empty <code>properties</code> which brings
+     * the XML writer to the same state as the writer of the report after the properties. The prefix is not copied to
+     * the report.
+     */
+    private static final class StreamedTestCases
+    {
+        private final File file;
+        private final CountingOutputStream outputStream;
+        private final OutputStreamWriter writer;
+        private final XMLWriter xmlWriter;
+        private final TestCaseFragments fragments;
+
+        StreamedTestCases()
+            throws IOException
+        {
+            file = File.createTempFile( "surefire-testcases", ".xml" );
+            outputStream = new CountingOutputStream( new BufferedOutputStream( new FileOutputStream( file ),
+                64 * 1024 ) );
+            writer = getWriter( outputStream );
+            xmlWriter = new PrettyPrintXMLWriter( writer );
+            xmlWriter.setEncoding( UTF_8.name() );
+            xmlWriter.startElement( "testsuite" );
+            xmlWriter.startElement( "properties" );
+            xmlWriter.endElement();
+            writer.flush();
+            fragments = new TestCaseFragments( outputStream.count );
+        }
+
+        /**
+         * Indexes the <code>testcase</code> element of the test which has just been written.
+         */
+        void completed( WrappedReportEntry methodEntry )
+            throws IOException
+        {
+            writer.flush();
+            fragments.add( methodEntry.getSourceName(), methodEntry.getName(), outputStream.count );
+        }
+
+        void close()
+            throws IOException
+        {
+            writer.close();
+        }
+
+        void delete()
+        {
+            try
+            {
+                writer.close();
+            }
+            catch ( IOException e )
+            {
+                // the file is deleted on exit
+            }
+
+            if ( !file.delete() )
+            {
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Counts the bytes of the <code>testcase</code> elements. The flush of the writer after every element encodes the
+     * pending characters but does not write the buffer to the file.
+     */
+    private static final class CountingOutputStream
+        extends FilterOutputStream
+    {
+        private long count;
+
+        CountingOutputStream( OutputStream out )
+        {
+            super( out );
+        }
+
+        @Override
+        public void write( int b )
+            throws IOException
+        {
+            out.write( b );
+            count++;
+        }
+
+        @Override
+        public void write( byte[] b, int off, int len )
+            throws IOException
+        {
+            out.write( b, off, len );
+            count += len;
+        }
+
+        @Override
+        public void flush()
+        {
+            // the buffer is written to the file when it is full or closed
+        }
+    }
+
     private static final class EncodingOutputStream
         extends FilterOutputStream
     {
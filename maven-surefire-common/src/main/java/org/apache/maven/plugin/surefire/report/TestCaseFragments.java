@@ -0,0 +1,273 @@
+package org.apache.maven.plugin.surefire.report;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.Math.min;
+
+/**
+ * Index of the <code>testcase</code> elements which have been written to a file in the order the tests completed.
+ * The elements are copied to the report grouped by the test class and by the test method in the order of their first
+ * run, which is the order of the report written at the end of the test set. The index holds two numbers per test and
+ * one pair of the names per test method.
+ *
+ * @since 3.0.0-M6
+ */
+final class TestCaseFragments
+{
+    private final Map<String, Map<String, Integer>> groupIds = new HashMap<>();
+
+    private final List<String> groupClassNames = new ArrayList<>();
+
+    private final List<String> groupMethodNames = new ArrayList<>();
+
+    private final long start;
+
+    private int[] groups = new int[16];
+
+    private long[] ends = new long[16];
+
+    private int size;
+
+    /**
+     * @param start the offset of the first <code>testcase</code> element in the file
+     */
+    TestCaseFragments( long start )
+    {
+        this.start = start;
+    }
+
+    /**
+     * @param className  the test class of the element
+     * @param methodName the test method of the element
+     * @param end        the offset in the file after the element
+     */
+    void add( String className, String methodName, long end )
+    {
+        Map<String, Integer> methodIds = groupIds.get( className );
+        if ( methodIds == null )
+        {
+            methodIds = new HashMap<>();
+            groupIds.put( className, methodIds );
+        }
+        Integer groupId = methodIds.get( methodName );
+        if ( groupId == null )
+        {
+            groupId = groupClassNames.size();
+            methodIds.put( methodName, groupId );
+            groupClassNames.add( className );
+            groupMethodNames.add( methodName );
+        }
+        if ( size == groups.length )
+        {
+            groups = Arrays.copyOf( groups, 2 * size );
+            ends = Arrays.copyOf( ends, 2 * size );
+        }
+        groups[size] = groupId;
+        ends[size++] = end;
+    }
+
+    /**
+     * Copies the <code>testcase</code> elements of the previous test set of the same report and the elements of this
+     * index grouped by the test class and by the test method. The previous test set is the history of the reruns.
+     *
+     * @param previousFile   the report of the previous test set, or {@code null}
+     * @param previousGroups the groups of the previous test set in {@code previousFile}, or {@code null}
+     * @param file           the file of this index
+     * @param target         the report
+     * @param targetOffset   the offset of {@code target} where the first element is written
+     * @return the groups written to {@code target}
+     * @throws IOException error reading the files or writing the report
+     */
+    List<TestCaseGroup> copyGrouped( File previousFile, List<TestCaseGroup> previousGroups, File file,
+                                     OutputStream target, long targetOffset )
+        throws IOException
+    {
+        int previousCount = previousGroups == null ? 0 : previousGroups.size();
+        int count = previousCount + size;
+        long[] offsets = new long[count];
+        long[] lengths = new long[count];
+        int[] keys = new int[count];
+
+        // the keys are numbered in the order of their first appearance in the previous test set and in this one
+        Map<String, Map<String, Integer>> keyIds = new LinkedHashMap<>();
+        List<String> keyClassNames = new ArrayList<>();
+        List<String> keyMethodNames = new ArrayList<>();
+        for ( int i = 0; i < previousCount; i++ )
+        {
+            TestCaseGroup group = previousGroups.get( i );
+            offsets[i] = group.offset;
+            lengths[i] = group.length;
+            keys[i] = keyOf( keyIds, keyClassNames, keyMethodNames, group.className, group.methodName );
+        }
+        for ( int i = 0; i < size; i++ )
+        {
+            long begin = i == 0 ? start : ends[i - 1];
+            offsets[previousCount + i] = begin;
+            lengths[previousCount + i] = ends[i] - begin;
+            keys[previousCount + i] = keyOf( keyIds, keyClassNames, keyMethodNames,
+                groupClassNames.get( groups[i] ), groupMethodNames.get( groups[i] ) );
+        }
+
+        // the fragments of every key are chained in their order
+        int keyCount = keyClassNames.size();
+        int[] heads = new int[keyCount];
+        int[] tails = new int[keyCount];
+        int[] next = new int[count];
+        Arrays.fill( heads, -1 );
+        for ( int i = 0; i < count; i++ )
+        {
+            int key = keys[i];
+            next[i] = -1;
+            if ( heads[key] == -1 )
+            {
+                heads[key] = i;
+            }
+            else
+            {
+                next[tails[key]] = i;
+            }
+            tails[key] = i;
+        }
+
+        List<TestCaseGroup> written = new ArrayList<>( keyCount );
+        try ( RandomAccessFile previous = previousCount == 0 ? null : new RandomAccessFile( previousFile, "r" );
+              RandomAccessFile current = size == 0 ? null : new RandomAccessFile( file, "r" ) )
+        {
+            byte[] buffer = new byte[64 * 1024];
+            long position = targetOffset;
+            // adjacent fragments of the same file are copied at once
+            int pendingFrom = -1;
+            long pendingOffset = 0;
+            long pendingLength = 0;
+            for ( Map<String, Integer> methodKeys : keyIds.values() )
+            {
+                for ( int key : methodKeys.values() )
+                {
+                    long groupLength = 0;
+                    for ( int i = heads[key]; i != -1; i = next[i] )
+                    {
+                        int from = i < previousCount ? 0 : 1;
+                        if ( from == pendingFrom && offsets[i] == pendingOffset + pendingLength )
+                        {
+                            pendingLength += lengths[i];
+                        }
+                        else
+                        {
+                            copy( pendingFrom == 0 ? previous : current, pendingOffset, pendingLength, target,
+                                buffer );
+                            pendingFrom = from;
+                            pendingOffset = offsets[i];
+                            pendingLength = lengths[i];
+                        }
+                        groupLength += lengths[i];
+                    }
+                    written.add( new TestCaseGroup( keyClassNames.get( key ), keyMethodNames.get( key ), position,
+                        groupLength ) );
+                    position += groupLength;
+                }
+            }
+            copy( pendingFrom == 0 ? previous : current, pendingOffset, pendingLength, target, buffer );
+        }
+        return Collections.unmodifiableList( written );
+    }
+
+    private static int keyOf( Map<String, Map<String, Integer>> keyIds, List<String> keyClassNames,
+                              List<String> keyMethodNames, String className, String methodName )
+    {
+        Map<String, Integer> methodKeys = keyIds.get( className );
+        if ( methodKeys == null )
+        {
+            methodKeys = new LinkedHashMap<>();
+            keyIds.put( className, methodKeys );
+        }
+        Integer key = methodKeys.get( methodName );
+        if ( key == null )
+        {
+            key = keyClassNames.size();
+            methodKeys.put( methodName, key );
+            keyClassNames.add( className );
+            keyMethodNames.add( methodName );
+        }
+        return key;
+    }
+
+    static void copy( File source, long offset, long length, OutputStream target )
+        throws IOException
+    {
+        try ( RandomAccessFile file = new RandomAccessFile( source, "r" ) )
+        {
+            copy( file, offset, length, target, new byte[64 * 1024] );
+        }
+    }
+
+    private static void copy( RandomAccessFile source, long offset, long length, OutputStream target, byte[] buffer )
+        throws IOException
+    {
+        if ( length == 0 )
+        {
+            return;
+        }
+        source.seek( offset );
+        for ( long remaining = length; remaining > 0; )
+        {
+            int readCount = source.read( buffer, 0, (int) min( buffer.length, remaining ) );
+            if ( readCount == -1 )
+            {
+                throw new IOException( "Unexpected end of file" );
+            }
+            target.write( buffer, 0, readCount );
+            remaining -= readCount;
+        }
+    }
+
+    /**
+     * The <code>testcase</code> elements of one test method in a report.
+     */
+    static final class TestCaseGroup
+    {
+        private final String className;
+
+        private final String methodName;
+
+        private final long offset;
+
+        private final long length;
+
+        TestCaseGroup( String className, String methodName, long offset, long length )
+        {
+            this.className = className;
+            this.methodName = methodName;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
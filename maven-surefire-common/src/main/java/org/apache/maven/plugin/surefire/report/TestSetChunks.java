@@ -0,0 +1,267 @@
+package org.apache.maven.plugin.surefire.report;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import javax.annotation.Nonnull;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The test classes whose test methods run in chunks in several forked JVMs. Every chunk is a test set of the class
+ * in its fork. The XML reporters of all the forks append the <code>testcase</code> elements of the chunks to one
+ * temporary file of the class, and the reporter of the last completed chunk writes one report of the class. The time
+ * of the test suite is the sum of the times of the chunks. Likewise the console and the file summary of the class are
+ * merged from the chunks and printed once. If a forked JVM has crashed or timed out, the chunks which have completed
+ * are reported by {@link #completeRemainingTestSets()} at the end of the run.
+ *
+ * @since 3.0.0-M6
+ */
+public final class TestSetChunks
+{
+    private final ConcurrentMap<String, ChunkedTestSet> testSets = new ConcurrentHashMap<>();
+
+    /**
+     * @param testClassName the test class
+     * @param chunkCount    the number of the chunks the class runs in
+     */
+    public void register( @Nonnull String testClassName, int chunkCount )
+    {
+        testSets.put( testClassName, new ChunkedTestSet( chunkCount ) );
+    }
+
+    ChunkedTestSet get( String testSetName )
+    {
+        return testSetName == null ? null : testSets.get( testSetName );
+    }
+
+    /**
+     * Called at the end of the run, even if a forked JVM has failed. Writes the partial report and the summary of the
+     * test classes whose chunks have not all completed, and deletes their temporary files.
+     */
+    public void completeRemainingTestSets()
+    {
+        for ( ChunkedTestSet testSet : testSets.values() )
+        {
+            testSet.completeRemaining();
+        }
+        testSets.clear();
+    }
+
+    /**
+     * The merged results of the completed chunks of one test class.
+     */
+    static final class ChunkedTestSet
+    {
+        private final int chunkCount;
+
+        private File testCases;
+
+        private int completedChunks;
+
+        private int tests;
+
+        private int errors;
+
+        private int skipped;
+
+        private int failures;
+
+        private int elapsed;
+
+        private boolean failedChunk;
+
+        private boolean reported;
+
+        private StatelessXmlReporter reporter;
+
+        private WrappedReportEntry lastChunk;
+
+        // the console and file summary merged from the chunks
+        private final TestSetStats summary = new TestSetStats( false, false );
+
+        private int summarizedChunks;
+
+        private int summaryElapsed;
+
+        private boolean summarized;
+
+        private TestSetRunListener summaryListener;
+
+        private WrappedReportEntry lastSummarizedChunk;
+
+        ChunkedTestSet( int chunkCount )
+        {
+            this.chunkCount = chunkCount;
+        }
+
+        /**
+         * @param fragments      the <code>testcase</code> elements of the chunk, or {@code null} if they could not be
+         *                       written
+         * @param chunkTestCases the file with the <code>testcase</code> elements of the chunk
+         * @param stats          the statistics of the chunk
+         * @param chunk          the test set of the chunk
+         * @param reporter       the reporter of the chunk which writes the report if the last chunk never completes
+         * @return {@code true} if all the chunks have completed
+         * @throws IOException error writing the temporary file
+         */
+        synchronized boolean addChunk( TestCaseFragments fragments, File chunkTestCases, TestSetStats stats,
+                                       WrappedReportEntry chunk, StatelessXmlReporter reporter )
+            throws IOException
+        {
+            this.reporter = reporter;
+            lastChunk = chunk;
+            if ( fragments == null )
+            {
+                failedChunk = true;
+            }
+            else
+            {
+                if ( testCases == null )
+                {
+                    testCases = File.createTempFile( "surefire-testcases", ".xml" );
+                }
+
+                try ( OutputStream os =
+                          new BufferedOutputStream( new FileOutputStream( testCases, true ), 64 * 1024 ) )
+                {
+                    fragments.copyGrouped( null, null, chunkTestCases, os, testCases.length() );
+                }
+            }
+
+            tests += stats.getCompletedCount();
+            errors += stats.getErrors();
+            skipped += stats.getSkipped();
+            failures += stats.getFailures();
+            Integer chunkElapsed = chunk.getElapsed();
+            elapsed += chunkElapsed == null ? 0 : chunkElapsed;
+            reported = ++completedChunks == chunkCount;
+            return reported;
+        }
+
+        /**
+         * @param chunk    the test set of the chunk
+         * @param stats    the statistics of the chunk
+         * @param listener the listener of the chunk which prints the summary if the last chunk never completes
+         * @return {@code true} if all the chunks have completed and the {@link #getSummary() summary} is complete
+         */
+        synchronized boolean addSummary( WrappedReportEntry chunk, TestSetStats stats, TestSetRunListener listener )
+        {
+            summaryListener = listener;
+            lastSummarizedChunk = chunk;
+            summary.addChunk( stats );
+            Integer chunkElapsed = chunk.getElapsed();
+            summaryElapsed += chunkElapsed == null ? 0 : chunkElapsed;
+            summarized = ++summarizedChunks == chunkCount;
+            return summarized;
+        }
+
+        synchronized TestSetStats getSummary()
+        {
+            return summary;
+        }
+
+        synchronized int getSummaryElapsed()
+        {
+            return summaryElapsed;
+        }
+
+        synchronized WrappedReportEntry getLastSummarizedChunk()
+        {
+            return lastSummarizedChunk;
+        }
+
+        /**
+         * Reports the chunks which have completed if the other chunks have not.
+         */
+        synchronized void completeRemaining()
+        {
+            try
+            {
+                if ( !summarized && summaryListener != null )
+                {
+                    summarized = true;
+                    summaryListener.chunkedTestSetCompleted( this );
+                }
+
+                if ( !reported && reporter != null && !failedChunk )
+                {
+                    reported = true;
+                    reporter.chunkedTestSetCompleted( lastChunk, this );
+                }
+            }
+            finally
+            {
+                delete();
+            }
+        }
+
+        /**
+         * @return {@code true} if the <code>testcase</code> elements of a chunk could not be written
+         */
+        synchronized boolean hasFailedChunk()
+        {
+            return failedChunk;
+        }
+
+        synchronized File getTestCases()
+        {
+            return testCases;
+        }
+
+        synchronized int getTests()
+        {
+            return tests;
+        }
+
+        synchronized int getErrors()
+        {
+            return errors;
+        }
+
+        synchronized int getSkipped()
+        {
+            return skipped;
+        }
+
+        synchronized int getFailures()
+        {
+            return failures;
+        }
+
+        synchronized int getElapsed()
+        {
+            return elapsed;
+        }
+
+        synchronized void delete()
+        {
+            if ( testCases != null && !testCases.delete() )
+            {
+                testCases.deleteOnExit();
+            }
+            testCases = null;
+        }
+    }
+}
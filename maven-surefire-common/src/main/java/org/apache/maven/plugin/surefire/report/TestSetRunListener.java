@@ -20,28 +20,33 @@
  */
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.apache.maven.plugin.surefire.log.api.ConsoleLogger;
+import org.apache.maven.plugin.surefire.report.TestSetChunks.ChunkedTestSet;
 import org.apache.maven.plugin.surefire.runorder.StatisticsReporter;
+import org.apache.maven.plugin.surefire.util.TestResultCache;
 import org.apache.maven.surefire.extensions.ConsoleOutputReportEventListener;
 import org.apache.maven.surefire.extensions.StatelessReportEventListener;
 import org.apache.maven.surefire.extensions.StatelessTestsetInfoConsoleReportEventListener;
 import org.apache.maven.surefire.extensions.StatelessTestsetInfoFileReportEventListener;
-import org.apache.maven.surefire.api.report.ConsoleOutputReceiver;
 import org.apache.maven.surefire.api.report.ReportEntry;
+import org.apache.maven.surefire.api.report.ReporterException;
 import org.apache.maven.surefire.api.report.RunListener;
 import org.apache.maven.surefire.api.report.RunMode;
 import org.apache.maven.surefire.api.report.TestSetReportEntry;
+import org.apache.maven.surefire.api.report.Utf8ConsoleOutputReceiver;
 
 import static org.apache.maven.plugin.surefire.report.ReportEntryType.ERROR;
 import static org.apache.maven.plugin.surefire.report.ReportEntryType.FAILURE;
 import static org.apache.maven.plugin.surefire.report.ReportEntryType.SKIPPED;
 import static org.apache.maven.plugin.surefire.report.ReportEntryType.SUCCESS;
 import static org.apache.maven.surefire.api.report.RunMode.NORMAL_RUN;
+import static org.apache.maven.surefire.api.util.internal.StringUtils.decodeUtf8;
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -51,7 +56,7 @@
  * @author Kristian Rosenvold
  */
 public class TestSetRunListener
-    implements RunListener, ConsoleOutputReceiver, ConsoleLogger
+    implements RunListener, Utf8ConsoleOutputReceiver, ConsoleLogger
 {
     private final Queue<TestMethodStats> testMethodStats = new ConcurrentLinkedQueue<>();
 
@@ -69,6 +74,14 @@
 
     private final StatisticsReporter statisticsReporter;
 
+    private final TestResultCache testResultCache;
+
+    private final TestSetChunks testSetChunks;
+
+    private final boolean releasesStreamedTests;
+
+    private final MappedSpillArena spillArena = new MappedSpillArena( "surefire-output" );
+
     private Utf8RecodingDeferredFileOutputStream testStdOut = initDeferred( "stdout" );
 
     private Utf8RecodingDeferredFileOutputStream testStdErr = initDeferred( "stderr" );
@@ -83,7 +96,8 @@ public TestSetRunListener( StatelessTestsetInfoConsoleReportEventListener<Wrappe
                                StatelessReportEventListener<WrappedReportEntry, TestSetStats> simpleXMLReporter,
                                ConsoleOutputReportEventListener consoleOutputReceiver,
                                StatisticsReporter statisticsReporter, boolean trimStackTrace,
-                               boolean isPlainFormat, boolean briefOrPlainFormat )
+                               boolean isPlainFormat, boolean briefOrPlainFormat,
+                               TestResultCache testResultCache, TestSetChunks testSetChunks )
     {
         this.consoleReporter = consoleReporter;
         this.fileReporter = fileReporter;
@@ -91,7 +105,13 @@ public TestSetRunListener( StatelessTestsetInfoConsoleReportEventListener<Wrappe
         this.simpleXMLReporter = simpleXMLReporter;
         this.consoleOutputReceiver = consoleOutputReceiver;
         this.briefOrPlainFormat = briefOrPlainFormat;
+        this.testResultCache = testResultCache;
+        this.testSetChunks = testSetChunks;
         detailsForThis = new TestSetStats( trimStackTrace, isPlainFormat );
+        // the cache and the custom reporters read the entries of all the tests when the test set has completed
+        releasesStreamedTests = testResultCache == null
+            && ( consoleReporter.getClass() == ConsoleReporter.class || consoleReporter instanceof NullConsoleReporter )
+            && ( fileReporter.getClass() == FileReporter.class || fileReporter instanceof NullFileReporter );
     }
 
     @Override
@@ -169,6 +189,28 @@ public void writeTestOutput( String output, boolean newLine, boolean stdout )
         }
     }
 
+    @Override
+    public void writeUtf8TestOutput( ByteBuffer utf8Output, boolean newLine, boolean stdout )
+    {
+        try
+        {
+            Utf8RecodingDeferredFileOutputStream stream = stdout ? testStdOut : testStdErr;
+            stream.write( utf8Output, newLine );
+            if ( consoleOutputReceiver instanceof Utf8ConsoleOutputReceiver )
+            {
+                ( (Utf8ConsoleOutputReceiver) consoleOutputReceiver ).writeUtf8TestOutput( utf8Output, newLine, stdout );
+            }
+            else
+            {
+                consoleOutputReceiver.writeTestOutput( decodeUtf8( utf8Output ), newLine, stdout );
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new RuntimeException( e );
+        }
+    }
+
     @Override
     public void testSetStarting( TestSetReportEntry report )
     {
@@ -189,12 +231,28 @@ public void testSetCompleted( TestSetReportEntry report )
         final WrappedReportEntry wrap = wrapTestSet( report );
         final List<String> testResults =
                 briefOrPlainFormat ? detailsForThis.getTestResults() : Collections.<String>emptyList();
-        fileReporter.testSetCompleted( wrap, detailsForThis, testResults );
+        ChunkedTestSet chunkedTestSet = testSetChunks == null ? null : testSetChunks.get( wrap.getSourceName() );
+        if ( chunkedTestSet == null )
+        {
+            fileReporter.testSetCompleted( wrap, detailsForThis, testResults );
+        }
         simpleXMLReporter.testSetCompleted( wrap, detailsForThis );
         statisticsReporter.testSetCompleted();
-        consoleReporter.testSetCompleted( wrap, detailsForThis, testResults );
+        if ( chunkedTestSet == null )
+        {
+            consoleReporter.testSetCompleted( wrap, detailsForThis, testResults );
+        }
+        else if ( chunkedTestSet.addSummary( wrap, detailsForThis, this ) )
+        {
+            // the summary of the class is printed once, merged from all its chunks
+            chunkedTestSetCompleted( chunkedTestSet );
+        }
         consoleOutputReceiver.testSetCompleted( wrap );
         consoleReporter.reset();
+        if ( testResultCache != null )
+        {
+            testResultCache.testSetCompleted( wrap, detailsForThis.getReportEntries() );
+        }
 
         wrap.getStdout().free();
         wrap.getStdErr().free();
@@ -204,6 +262,24 @@ public void testSetCompleted( TestSetReportEntry report )
         clearCapture();
     }
 
+    /**
+     * Prints the summary merged from the chunks of the test class. Called by the last completed chunk, or at the end
+     * of the run with the chunks which have completed if a forked JVM has failed.
+     */
+    void chunkedTestSetCompleted( ChunkedTestSet chunkedTestSet )
+    {
+        WrappedReportEntry lastChunk = chunkedTestSet.getLastSummarizedChunk();
+        WrappedReportEntry wrap = new WrappedReportEntry( lastChunk, lastChunk.getReportEntryType(),
+            chunkedTestSet.getSummaryElapsed(), lastChunk.getStdout(), lastChunk.getStdErr(),
+            lastChunk.getSystemProperties() );
+        TestSetStats summary = chunkedTestSet.getSummary();
+        List<String> testResults =
+            briefOrPlainFormat ? summary.getTestResults() : Collections.<String>emptyList();
+        fileReporter.testSetCompleted( wrap, summary, testResults );
+        consoleReporter.testSetCompleted( wrap, summary, testResults );
+        consoleReporter.reset();
+    }
+
     // ----------------------------------------------------------------------
     // Test callback methods:
     // ----------------------------------------------------------------------
@@ -219,6 +295,7 @@ public void testSucceeded( ReportEntry reportEntry )
     {
         WrappedReportEntry wrapped = wrap( reportEntry, SUCCESS );
         detailsForThis.testSucceeded( wrapped );
+        streamToXmlReport( wrapped );
         statisticsReporter.testSucceeded( reportEntry );
         clearCapture();
     }
@@ -228,6 +305,7 @@ public void testError( ReportEntry reportEntry )
     {
         WrappedReportEntry wrapped = wrap( reportEntry, ERROR );
         detailsForThis.testError( wrapped );
+        streamToXmlReport( wrapped );
         statisticsReporter.testError( reportEntry );
         clearCapture();
     }
@@ -237,6 +315,7 @@ public void testFailed( ReportEntry reportEntry )
     {
         WrappedReportEntry wrapped = wrap( reportEntry, FAILURE );
         detailsForThis.testFailure( wrapped );
+        streamToXmlReport( wrapped );
         statisticsReporter.testFailed( reportEntry );
         clearCapture();
     }
@@ -250,6 +329,7 @@ public void testSkipped( ReportEntry reportEntry )
     {
         WrappedReportEntry wrapped = wrap( reportEntry, SKIPPED );
         detailsForThis.testSkipped( wrapped );
+        streamToXmlReport( wrapped );
         statisticsReporter.testSkipped( reportEntry );
         clearCapture();
     }
@@ -294,19 +374,57 @@ private WrappedReportEntry wrapTestSet( TestSetReportEntry other )
     public void close()
     {
         consoleOutputReceiver.close();
+        spillArena.close();
+    }
+
+    /**
+     * Writes the test to the XML report as soon as it completes. The output of the test is freed, and the test is
+     * released from {@link TestSetStats} unless it is needed until the test set completes.
+     */
+    private void streamToXmlReport( WrappedReportEntry testCase )
+    {
+        if ( simpleXMLReporter instanceof StatelessXmlReporter )
+        {
+            boolean written;
+            try
+            {
+                written = ( (StatelessXmlReporter) simpleXMLReporter ).testCompleted( testCase );
+            }
+            catch ( ReporterException e )
+            {
+                error( e.getLocalizedMessage() );
+                written = true;
+            }
+
+            if ( written )
+            {
+                testCase.getStdout().free();
+                testCase.getStdErr().free();
+                if ( releasesStreamedTests )
+                {
+                    detailsForThis.release( testCase );
+                    addTestMethodStats( testCase );
+                }
+            }
+        }
     }
 
     private void addTestMethodStats()
     {
         for ( WrappedReportEntry reportEntry : detailsForThis.getReportEntries() )
         {
-            TestMethodStats methodStats =
-                new TestMethodStats( reportEntry.getClassMethodName(), reportEntry.getReportEntryType(),
-                                     reportEntry.getStackTraceWriter() );
-            testMethodStats.add( methodStats );
+            addTestMethodStats( reportEntry );
         }
     }
 
+    private void addTestMethodStats( WrappedReportEntry reportEntry )
+    {
+        TestMethodStats methodStats =
+            new TestMethodStats( reportEntry.getClassMethodName(), reportEntry.getReportEntryType(),
+                                 reportEntry.getStackTraceWriter() );
+        testMethodStats.add( methodStats );
+    }
+
     public Queue<TestMethodStats> getTestMethodStats()
     {
         return testMethodStats;
@@ -323,8 +441,8 @@ private static int lineBoundSymbolWidth( String message )
         return message.endsWith( "\r\n" ) ? 2 : ( message.endsWith( "\n" ) || message.endsWith( "\r" ) ? 1 : 0 );
     }
 
-    private static Utf8RecodingDeferredFileOutputStream initDeferred( String channel )
+    private Utf8RecodingDeferredFileOutputStream initDeferred( String channel )
     {
-        return new Utf8RecodingDeferredFileOutputStream( channel );
+        return new Utf8RecodingDeferredFileOutputStream( channel, spillArena );
     }
 }
@@ -48,6 +48,8 @@
 
     private final Queue<WrappedReportEntry> reportEntries = new ConcurrentLinkedQueue<>();
 
+    private final Queue<String> releasedTestResults = new ConcurrentLinkedQueue<>();
+
     private final boolean trimStackTrace;
 
     private final boolean plainFormat;
@@ -143,6 +145,43 @@ public void reset()
         }
 
         reportEntries.clear();
+        releasedTestResults.clear();
+    }
+
+    /**
+     * Stops holding the entry of a completed test, e.g. when its <code>testcase</code> element has already been
+     * written to the XML report. Only the line of the test in {@link #getTestResults()} is kept. The entry is no
+     * longer returned by {@link #getReportEntries()}.
+     *
+     * @param reportEntry the completed test
+     * @since 3.0.0-M6
+     */
+    public void release( WrappedReportEntry reportEntry )
+    {
+        if ( reportEntries.remove( reportEntry ) )
+        {
+            String testResult = toTestResult( reportEntry );
+            if ( testResult != null )
+            {
+                releasedTestResults.add( testResult );
+            }
+        }
+    }
+
+    /**
+     * Adds the counts and the lines of {@link #getTestResults()} of one chunk of a test class which runs in several
+     * forked JVMs, see {@link TestSetChunks}.
+     *
+     * @param chunk the statistics of the chunk
+     * @since 3.0.0-M6
+     */
+    void addChunk( TestSetStats chunk )
+    {
+        completedCount += chunk.completedCount;
+        errors += chunk.errors;
+        failures += chunk.failures;
+        skipped += chunk.skipped;
+        releasedTestResults.addAll( chunk.getTestResults() );
     }
 
     public int getCompletedCount()
@@ -262,26 +301,36 @@ public String getColoredTestSetSummary( WrappedReportEntry reportEntry, boolean
 
     public List<String> getTestResults()
     {
-        List<String> result = new ArrayList<>();
+        List<String> result = new ArrayList<>( releasedTestResults );
         for ( WrappedReportEntry testResult : reportEntries )
         {
-            if ( testResult.isErrorOrFailure() )
-            {
-                result.add( testResult.getOutput( trimStackTrace ) );
-            }
-            else if ( plainFormat && testResult.isSkipped() )
+            String line = toTestResult( testResult );
+            if ( line != null )
             {
-                result.add( testResult.getSourceName() + " skipped" );
-            }
-            else if ( plainFormat && testResult.isSucceeded() )
-            {
-                result.add( testResult.getElapsedTimeSummary() );
+                result.add( line );
             }
         }
         // This should be Map with an enum and the enums will be displayed with colors on console.
         return result;
     }
 
+    private String toTestResult( WrappedReportEntry testResult )
+    {
+        if ( testResult.isErrorOrFailure() )
+        {
+            return testResult.getOutput( trimStackTrace );
+        }
+        else if ( plainFormat && testResult.isSkipped() )
+        {
+            return testResult.getSourceName() + " skipped";
+        }
+        else if ( plainFormat && testResult.isSucceeded() )
+        {
+            return testResult.getElapsedTimeSummary();
+        }
+        return null;
+    }
+
     public Collection<WrappedReportEntry> getReportEntries()
     {
         return reportEntries;
@@ -19,6 +19,8 @@
  * under the License.
  */
 
+import org.apache.maven.plugin.surefire.report.MappedSpillArena.Slice;
+
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
@@ -27,7 +29,10 @@
 import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
+import static java.lang.Math.min;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.requireNonNull;
 import static org.apache.maven.surefire.api.util.internal.StringUtils.NL;
@@ -35,6 +40,9 @@
 /**
  * A deferred file output stream decorator that recodes the bytes written into the stream from the VM default encoding
  * to UTF-8.
+ * <br>
+ * If the stream is created with a {@link MappedSpillArena}, the bytes are appended to the shared arena without
+ * a heap cache and the stream keeps only the slices of the arena.
  *
  * @author Andreas Gudian
  */
@@ -44,6 +52,9 @@
     public static final int CACHE_SIZE = 64 * 1024;
 
     private final String channel;
+    private final MappedSpillArena arena;
+    private List<Slice> slices;
+    private long arenaByteCount;
     private Path file;
     private RandomAccessFile storage;
     private boolean closed;
@@ -52,8 +63,19 @@
     private boolean isDirty;
 
     Utf8RecodingDeferredFileOutputStream( String channel )
+    {
+        this( channel, null );
+    }
+
+    /**
+     * @param channel the prefix of the temporary file
+     * @param arena   shared arena storing the bytes, or null to spill to a temporary file of this stream
+     * @since 3.0.0-M6
+     */
+    Utf8RecodingDeferredFileOutputStream( String channel, MappedSpillArena arena )
     {
         this.channel = requireNonNull( channel );
+        this.arena = arena;
     }
 
     public synchronized void write( String output, boolean newLine )
@@ -64,15 +86,57 @@ public synchronized void write( String output, boolean newLine )
             return;
         }
 
-        if ( storage == null )
+        if ( output == null )
         {
-            file = Files.createTempFile( channel, "deferred" );
-            storage = new RandomAccessFile( file.toFile(), "rw" );
+            output = "null";
         }
 
-        if ( output == null )
+        byte[] decodedString = output.getBytes( UTF_8 );
+        write( decodedString, 0, decodedString.length, newLine );
+    }
+
+    /**
+     * Writes the bytes which are already encoded in UTF-8 without recoding them.
+     *
+     * @param utf8Output the output encoded in UTF-8, the position of the buffer is not changed
+     * @param newLine    appends the line separator
+     * @throws IOException error writing the file
+     * @since 3.0.0-M6
+     */
+    public synchronized void write( ByteBuffer utf8Output, boolean newLine )
+        throws IOException
+    {
+        if ( closed )
         {
-            output = "null";
+            return;
+        }
+
+        if ( utf8Output.hasArray() )
+        {
+            write( utf8Output.array(), utf8Output.arrayOffset() + ( (Buffer) utf8Output ).position(),
+                utf8Output.remaining(), newLine );
+        }
+        else
+        {
+            byte[] bytes = new byte[utf8Output.remaining()];
+            utf8Output.duplicate().get( bytes );
+            write( bytes, 0, bytes.length, newLine );
+        }
+    }
+
+    private void write( byte[] bytes, int offset, int length, boolean newLine )
+        throws IOException
+    {
+        if ( arena != null )
+        {
+            writeToArena( bytes, offset, length, newLine );
+            return;
+        }
+
+        if ( storage == null )
+        {
+            file = Files.createTempFile( channel, "deferred" );
+            storage = new RandomAccessFile( file.toFile(), "rw" );
         }
 
         if ( cache == null )
@@ -82,11 +146,10 @@ public synchronized void write( String output, boolean newLine )
 
         isDirty = true;
 
-        byte[] decodedString = output.getBytes( UTF_8 );
         int newLineLength = newLine ? NL_BYTES.length : 0;
-        if ( cache.remaining() >= decodedString.length + newLineLength )
+        if ( cache.remaining() >= length + newLineLength )
         {
-            cache.put( decodedString );
+            cache.put( bytes, offset, length );
             if ( newLine )
             {
                 cache.put( NL_BYTES );
@@ -95,7 +158,7 @@ public synchronized void write( String output, boolean newLine )
         else
         {
             ( (Buffer) cache ).flip();
-            int minLength = cache.remaining() + decodedString.length + NL_BYTES.length;
+            int minLength = cache.remaining() + length + NL_BYTES.length;
             byte[] buffer = getLargeCache( minLength );
             int bufferLength = 0;
             System.arraycopy( cache.array(), cache.arrayOffset() + ( (Buffer) cache ).position(),
@@ -103,8 +166,8 @@ public synchronized void write( String output, boolean newLine )
             bufferLength += cache.remaining();
             ( (Buffer) cache ).clear();
 
-            System.arraycopy( decodedString, 0, buffer, bufferLength, decodedString.length );
-            bufferLength += decodedString.length;
+            System.arraycopy( bytes, offset, buffer, bufferLength, length );
+            bufferLength += length;
 
             if ( newLine )
             {
@@ -116,8 +179,40 @@ public synchronized void write( String output, boolean newLine )
         }
     }
 
+    private void writeToArena( byte[] bytes, int offset, int length, boolean newLine )
+        throws IOException
+    {
+        if ( slices == null )
+        {
+            slices = new ArrayList<>();
+        }
+
+        appendToArena( bytes, offset, length );
+        if ( newLine )
+        {
+            appendToArena( NL_BYTES, 0, NL_BYTES.length );
+        }
+    }
+
+    private void appendToArena( byte[] bytes, int offset, int length )
+        throws IOException
+    {
+        Slice last = slices.isEmpty() ? null : slices.get( slices.size() - 1 );
+        Slice slice = arena.append( last, bytes, offset, length );
+        if ( slice != last )
+        {
+            slices.add( slice );
+        }
+        arenaByteCount += length;
+    }
+
     public synchronized long getByteCount()
     {
+        if ( arena != null )
+        {
+            return arenaByteCount;
+        }
+
         try
         {
             long length = 0;
@@ -138,7 +233,15 @@ public synchronized long getByteCount()
     public synchronized void writeTo( OutputStream out )
         throws IOException
     {
-        if ( storage != null )
+        if ( slices != null && !closed )
+        {
+            byte[] buffer = getLargeCache( (int) min( arenaByteCount, CACHE_SIZE ) );
+            for ( Slice slice : slices )
+            {
+                arena.writeTo( slice, out, buffer );
+            }
+        }
+        else if ( storage != null )
         {
             sync();
             storage.seek( 0L );
@@ -155,7 +258,15 @@ public synchronized void free()
         if ( !closed )
         {
             closed = true;
-            if ( cache != null )
+            if ( slices != null )
+            {
+                for ( Slice slice : slices )
+                {
+                    arena.release( slice );
+                }
+                slices = null;
+            }
+            else if ( cache != null )
             {
                 try
                 {
@@ -0,0 +1,492 @@
+package org.apache.maven.plugin.surefire.util;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.surefire.api.util.DefaultScanResult;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static org.apache.maven.plugin.surefire.util.ScannerUtil.isJavaClassFile;
+import static org.apache.maven.surefire.api.util.internal.DaemonThreadFactory.newDaemonThreadFactory;
+
+/**
+ * Filters the scanned test classes by reading their class files, without loading the classes in the forked JVM. The
+ * class is discarded if it is an interface, an abstract class, an annotation or an enum, or if neither the class nor
+ * its superclasses and interfaces have an annotation (on the class or on a method), a JUnit 3 {@code suite()}
+ * method, a public {@code void test*()} method of a POJO test, or a superclass or an interface outside of the scanned
+ * directories and jars. The JDK types do not count as
+ * test superclasses and a few JDK and Kotlin annotations do not count as test annotations.
+ * <br>
+ * The filter is conservative: the annotations are not matched against the annotations of a particular test
+ * framework, because the frameworks support meta-annotations, and the classes which cannot be read are kept.
+ * The final decision is made by the provider in the forked JVM.
+ * <br>
+ * The class files of the directories and jars are read in parallel, one task per directory or jar.
+ *
+ * @since 3.0.0-M6
+ */
+public final class TestClassFileFilter
+{
+    private static final String OBJECT = "java/lang/Object";
+
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_STATIC = 0x0008;
+    private static final int ACC_INTERFACE = 0x0200;
+    private static final int ACC_ABSTRACT = 0x0400;
+    private static final int ACC_ANNOTATION = 0x2000;
+    private static final int ACC_ENUM = 0x4000;
+    private static final int ACC_MODULE = 0x8000;
+    private static final int NOT_A_TEST_CLASS = ACC_INTERFACE | ACC_ABSTRACT | ACC_ANNOTATION | ACC_ENUM | ACC_MODULE;
+
+    private final List<File> classpathRoots;
+
+    private final int threads;
+
+    private final Map<String, ClassFileHeader> headers = new HashMap<>();
+
+    private final Map<String, Boolean> hasTestMarkers = new HashMap<>();
+
+    /**
+     * @param classpathRoots the directories and jars which have been scanned for the test classes
+     */
+    public TestClassFileFilter( @Nonnull List<File> classpathRoots )
+    {
+        this( classpathRoots, Runtime.getRuntime().availableProcessors() );
+    }
+
+    TestClassFileFilter( @Nonnull List<File> classpathRoots, int threads )
+    {
+        this.classpathRoots = classpathRoots;
+        this.threads = max( 1, min( threads, classpathRoots.size() ) );
+    }
+
+    /**
+     * Reads the class files in the directories and jars, and keeps the classes in the scan result which can be a test.
+     *
+     * @param scanResult the test classes found by {@link DirectoryScanner} and {@link DependencyScanner}
+     * @return the classes of {@code scanResult} which can be a test, in the same order
+     * @throws IOException if a jar cannot be opened or a class file cannot be read
+     */
+    @Nonnull
+    public DefaultScanResult filter( @Nonnull DefaultScanResult scanResult )
+        throws IOException
+    {
+        readClassFiles();
+        List<String> classes = new ArrayList<>();
+        for ( String className : scanResult.getClasses() )
+        {
+            if ( canBeTest( className.replace( '.', '/' ) ) )
+            {
+                classes.add( className );
+            }
+        }
+        return new DefaultScanResult( classes );
+    }
+
+    private void readClassFiles()
+        throws IOException
+    {
+        if ( classpathRoots.isEmpty() )
+        {
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool( threads,
+            newDaemonThreadFactory( "surefire-class-file-filter" ) );
+        try
+        {
+            List<Future<List<ClassFileHeader>>> results = new ArrayList<>();
+            for ( final File root : classpathRoots )
+            {
+                results.add( executor.submit( new Callable<List<ClassFileHeader>>()
+                {
+                    @Override
+                    public List<ClassFileHeader> call()
+                        throws IOException
+                    {
+                        return readClassFiles( root );
+                    }
+                } ) );
+            }
+
+            for ( Future<List<ClassFileHeader>> result : results )
+            {
+                for ( ClassFileHeader header : result.get() )
+                {
+                    // the first directory or jar in the class-path wins
+                    if ( !headers.containsKey( header.name ) )
+                    {
+                        headers.put( header.name, header );
+                    }
+                }
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException( e.getLocalizedMessage(), e );
+        }
+        catch ( ExecutionException e )
+        {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException( cause );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private boolean canBeTest( String internalName )
+    {
+        ClassFileHeader header = headers.get( internalName );
+        return header == null || ( header.access & NOT_A_TEST_CLASS ) == 0 && hasTestMarkers( internalName );
+    }
+
+    private boolean hasTestMarkers( String internalName )
+    {
+        Boolean cached = hasTestMarkers.get( internalName );
+        if ( cached != null )
+        {
+            return cached;
+        }
+
+        ClassFileHeader header = headers.get( internalName );
+        if ( header == null )
+        {
+            // unknown super type, e.g. junit.framework.TestCase or a base class in the main classes
+            return !isJdkType( internalName );
+        }
+
+        // the class hierarchy is a tree in valid class files, this only protects against broken ones
+        hasTestMarkers.put( internalName, false );
+        boolean markers = header.hasTestMarkers
+            || header.superName != null && hasTestMarkers( header.superName );
+        for ( int i = 0; !markers && i < header.interfaces.length; i++ )
+        {
+            markers = hasTestMarkers( header.interfaces[i] );
+        }
+        hasTestMarkers.put( internalName, markers );
+        return markers;
+    }
+
+    private static boolean isJdkType( String internalName )
+    {
+        return internalName.startsWith( "java/" ) || internalName.startsWith( "javax/" )
+            || internalName.startsWith( "jdk/" ) || internalName.startsWith( "sun/" );
+    }
+
+    private static List<ClassFileHeader> readClassFiles( File root )
+        throws IOException
+    {
+        List<ClassFileHeader> headers = new ArrayList<>();
+        if ( root.isDirectory() )
+        {
+            readDirectory( root, headers );
+        }
+        else if ( root.isFile() )
+        {
+            try ( JarFile jar = new JarFile( root ) )
+            {
+                for ( Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements(); )
+                {
+                    JarEntry entry = entries.nextElement();
+                    if ( !entry.isDirectory() && isJavaClassFile( entry.getName() ) )
+                    {
+                        try ( InputStream is = jar.getInputStream( entry ) )
+                        {
+                            addHeader( is, headers );
+                        }
+                    }
+                }
+            }
+        }
+        return headers;
+    }
+
+    private static void readDirectory( File dir, List<ClassFileHeader> headers )
+        throws IOException
+    {
+        File[] files = dir.listFiles();
+        if ( files != null )
+        {
+            for ( File file : files )
+            {
+                if ( file.isDirectory() )
+                {
+                    readDirectory( file, headers );
+                }
+                else if ( isJavaClassFile( file.getName() ) )
+                {
+                    try ( InputStream is = new FileInputStream( file ) )
+                    {
+                        addHeader( is, headers );
+                    }
+                }
+            }
+        }
+    }
+
+    private static void addHeader( InputStream classFile, List<ClassFileHeader> headers )
+    {
+        try
+        {
+            headers.add( readHeader( classFile ) );
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            // not a class file, e.g. a multi-release or a shaded resource; the scanned class is kept
+        }
+    }
+
+    /**
+     * Reads the name, the access flags, the super types and the test markers of the class file, see the chapter 4 of
+     * the Java Virtual Machine Specification.
+     */
+    static ClassFileHeader readHeader( InputStream classFile )
+        throws IOException
+    {
+        DataInputStream in = new DataInputStream( new BufferedInputStream( classFile ) );
+        if ( in.readInt() != 0xCAFEBABE )
+        {
+            throw new IOException( "Not a class file" );
+        }
+        in.readUnsignedShort(); // minor version
+        in.readUnsignedShort(); // major version
+        int size = in.readUnsignedShort();
+        String[] utf8 = new String[size];
+        int[] classes = new int[size];
+        for ( int i = 1; i < size; )
+        {
+            int tag = in.readUnsignedByte();
+            switch ( tag )
+            {
+                case 1: // Utf8
+                    utf8[i] = in.readUTF();
+                    break;
+                case 7: // Class
+                    classes[i] = in.readUnsignedShort();
+                    break;
+                case 8: // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    in.readUnsignedShort();
+                    break;
+                case 15: // MethodHandle
+                    in.readUnsignedByte();
+                    in.readUnsignedShort();
+                    break;
+                case 3: // Integer
+                case 4: // Float
+                case 9: // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    in.readInt();
+                    break;
+                case 5: // Long
+                case 6: // Double
+                    in.readLong();
+                    break;
+                default:
+                    throw new IOException( "Unknown constant pool tag " + tag );
+            }
+            i += tag == 5 || tag == 6 ? 2 : 1;
+        }
+
+        int access = in.readUnsignedShort();
+        String name = utf8[classes[in.readUnsignedShort()]];
+        int superClass = in.readUnsignedShort();
+        String superName = superClass == 0 ? null : utf8[classes[superClass]];
+        String[] interfaces = new String[in.readUnsignedShort()];
+        for ( int i = 0; i < interfaces.length; i++ )
+        {
+            interfaces[i] = utf8[classes[in.readUnsignedShort()]];
+        }
+
+        boolean hasTestMarkers = false;
+        for ( int i = 0, fields = in.readUnsignedShort(); i < fields; i++ )
+        {
+            in.readUnsignedShort(); // access flags
+            in.readUnsignedShort(); // name
+            in.readUnsignedShort(); // descriptor
+            skipAttributes( in );
+        }
+        for ( int i = 0, methods = in.readUnsignedShort(); i < methods; i++ )
+        {
+            int methodAccess = in.readUnsignedShort();
+            String methodName = utf8[in.readUnsignedShort()];
+            String descriptor = utf8[in.readUnsignedShort()];
+            hasTestMarkers |= readAttributes( in, utf8 )
+                || isJUnit3Suite( methodAccess, methodName, descriptor )
+                || isPojoTest( methodAccess, methodName, descriptor );
+        }
+        hasTestMarkers |= readAttributes( in, utf8 );
+
+        return new ClassFileHeader( name, access, OBJECT.equals( superName ) ? null : superName, interfaces,
+            hasTestMarkers );
+    }
+
+    /**
+     * @return {@code true} if the attributes have a runtime visible annotation which can mark a test
+     */
+    private static boolean readAttributes( DataInputStream in, String[] utf8 )
+        throws IOException
+    {
+        boolean hasTestAnnotation = false;
+        for ( int i = 0, attributes = in.readUnsignedShort(); i < attributes; i++ )
+        {
+            String attributeName = utf8[in.readUnsignedShort()];
+            int length = in.readInt();
+            if ( RUNTIME_VISIBLE_ANNOTATIONS.equals( attributeName ) )
+            {
+                for ( int j = 0, annotations = in.readUnsignedShort(); j < annotations; j++ )
+                {
+                    hasTestAnnotation |= !isIgnoredAnnotation( utf8[in.readUnsignedShort()] );
+                    skipElementValuePairs( in );
+                }
+            }
+            else
+            {
+                skipBytes( in, length );
+            }
+        }
+        return hasTestAnnotation;
+    }
+
+    private static void skipAttributes( DataInputStream in )
+        throws IOException
+    {
+        for ( int i = 0, attributes = in.readUnsignedShort(); i < attributes; i++ )
+        {
+            in.readUnsignedShort(); // name
+            skipBytes( in, in.readInt() );
+        }
+    }
+
+    private static void skipBytes( DataInputStream in, int length )
+        throws IOException
+    {
+        if ( in.skipBytes( length ) != length )
+        {
+            throw new EOFException();
+        }
+    }
+
+    private static void skipElementValuePairs( DataInputStream in )
+        throws IOException
+    {
+        for ( int i = 0, pairs = in.readUnsignedShort(); i < pairs; i++ )
+        {
+            in.readUnsignedShort(); // element name
+            skipElementValue( in );
+        }
+    }
+
+    private static void skipElementValue( DataInputStream in )
+        throws IOException
+    {
+        int tag = in.readUnsignedByte();
+        switch ( tag )
+        {
+            case 'e': // enum constant: type name, constant name
+                in.readInt();
+                break;
+            case '@':
+                in.readUnsignedShort(); // type
+                skipElementValuePairs( in );
+                break;
+            case '[':
+                for ( int i = 0, values = in.readUnsignedShort(); i < values; i++ )
+                {
+                    skipElementValue( in );
+                }
+                break;
+            default: // constant value or class
+                in.readUnsignedShort();
+        }
+    }
+
+    private static boolean isJUnit3Suite( int access, String name, String descriptor )
+    {
+        return ( access & ACC_STATIC ) != 0 && "suite".equals( name ) && "()Ljunit/framework/Test;".equals( descriptor );
+    }
+
+    /**
+     * The POJO test has public instance methods {@code void test*()} without annotations.
+     */
+    private static boolean isPojoTest( int access, String name, String descriptor )
+    {
+        return ( access & ( ACC_PUBLIC | ACC_STATIC ) ) == ACC_PUBLIC && name.startsWith( "test" )
+            && "()V".equals( descriptor );
+    }
+
+    private static boolean isIgnoredAnnotation( String descriptor )
+    {
+        return "Ljava/lang/Deprecated;".equals( descriptor )
+            || "Ljava/lang/FunctionalInterface;".equals( descriptor )
+            || "Ljava/lang/SafeVarargs;".equals( descriptor )
+            || "Lkotlin/Metadata;".equals( descriptor );
+    }
+
+    static final class ClassFileHeader
+    {
+        final String name;
+        final int access;
+        final String superName;
+        final String[] interfaces;
+        final boolean hasTestMarkers;
+
+        ClassFileHeader( String name, int access, String superName, String[] interfaces, boolean hasTestMarkers )
+        {
+            this.name = name;
+            this.access = access;
+            this.superName = superName;
+            this.interfaces = interfaces;
+            this.hasTestMarkers = hasTestMarkers;
+        }
+    }
+}
@@ -0,0 +1,731 @@
+package org.apache.maven.plugin.surefire.util;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.surefire.api.util.DefaultScanResult;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.apache.maven.surefire.booter.TestImpactAgent.FAILED;
+import static org.apache.maven.surefire.booter.TestImpactAgent.FORK_FILE_EXTENSION;
+import static org.apache.maven.surefire.booter.TestImpactAgent.PASSED;
+
+/**
+ * Index of the test impact analysis. The test class is selected to run if it has never passed, or if one of the
+ * classes it depends on has changed since it has passed.
+ * <br>
+ * The dependencies of the test class are the test class itself and the classes loaded in the forked JVM before the
+ * test class has completed, see {@code TestImpactAgent}, together with all the classes they refer to in their
+ * bytecode, transitively. Only the classes in the directories of the test classpath are tracked. A class is changed
+ * if the hash of its class file has changed; the class files are read again only if their last modification time or
+ * size has changed.
+ * <br>
+ * Every run of the plugin is one generation. The index stores the generation of the last change of every class and
+ * the generation in which every test class has passed. All the test classes are selected if the fingerprint of the
+ * test classpath (the jar files) and of the configuration of the plugin has changed.
+ *
+ * @since 3.0.0-M6
+ */
+public final class TestImpactIndex
+{
+    public static final String INDEX_FILE_NAME = "test-impact.index";
+
+    private static final int MAGIC = 0x54494158;
+
+    private static final int VERSION = 1;
+
+    private static final String CLASS_FILE_EXTENSION = ".class";
+
+    private static final int NEVER_PASSED = -1;
+
+    private static final int DELETED = Integer.MAX_VALUE;
+
+    private final File directory;
+    private final String fingerprint;
+    private final int generation;
+    private final Map<String, ClassEntry> classes;
+    private final Map<String, TestEntry> tests;
+    private final Map<String, ClassEntry> currentClasses = new LinkedHashMap<>();
+    private Map<String, Integer> latestChanges;
+
+    private TestImpactIndex( File directory, String fingerprint, int generation, Map<String, ClassEntry> classes,
+                             Map<String, TestEntry> tests )
+    {
+        this.directory = directory;
+        this.fingerprint = fingerprint;
+        this.generation = generation;
+        this.classes = classes;
+        this.tests = tests;
+    }
+
+    /**
+     * Loads the index from the directory. The recorded test classes are discarded if the fingerprint has changed.
+     *
+     * @param directory   the directory of the index and of the files written by the forks
+     * @param fingerprint the checksum of the test classpath and of the configuration
+     * @return the index, empty if the index file does not exist
+     * @throws IOException the index file cannot be read or it is corrupted
+     */
+    @Nonnull
+    public static TestImpactIndex load( @Nonnull File directory, @Nonnull String fingerprint )
+        throws IOException
+    {
+        File indexFile = new File( directory, INDEX_FILE_NAME );
+        if ( !indexFile.isFile() )
+        {
+            return empty( directory, fingerprint );
+        }
+
+        try ( DataInputStream in =
+                  new DataInputStream( new BufferedInputStream( new FileInputStream( indexFile ), 64 * 1024 ) ) )
+        {
+            if ( in.readInt() != MAGIC || in.readInt() != VERSION )
+            {
+                throw new IOException( "Unknown format of the test impact index " + indexFile );
+            }
+            boolean sameFingerprint = fingerprint.equals( in.readUTF() );
+            int generation = in.readInt();
+
+            String[] classNames = new String[in.readInt()];
+            int[][] classReferences = new int[classNames.length][];
+            ClassEntry[] classEntries = new ClassEntry[classNames.length];
+            for ( int i = 0; i < classNames.length; i++ )
+            {
+                classNames[i] = in.readUTF();
+                long lastModified = in.readLong();
+                long length = in.readLong();
+                long hash = in.readLong();
+                int changedAt = in.readInt();
+                classReferences[i] = readIds( in, classNames.length );
+                classEntries[i] = new ClassEntry( lastModified, length, hash, changedAt );
+            }
+            Map<String, ClassEntry> classes = new LinkedHashMap<>();
+            for ( int i = 0; i < classNames.length; i++ )
+            {
+                classEntries[i].references = toNames( classReferences[i], classNames );
+                classes.put( classNames[i], classEntries[i] );
+            }
+
+            Map<String, TestEntry> tests = new LinkedHashMap<>();
+            for ( int i = 0, size = in.readInt(); i < size; i++ )
+            {
+                String test = in.readUTF();
+                int passedAt = in.readInt();
+                tests.put( test, new TestEntry( passedAt, toNames( readIds( in, classNames.length ), classNames ) ) );
+            }
+
+            if ( !sameFingerprint )
+            {
+                tests.clear();
+            }
+
+            return new TestImpactIndex( directory, fingerprint, generation + 1, classes, tests );
+        }
+    }
+
+    /**
+     * Creates an empty index which overrides the index file in the directory when it is stored.
+     *
+     * @param directory   the directory of the index and of the files written by the forks
+     * @param fingerprint the checksum of the test classpath and of the configuration
+     * @return empty index
+     */
+    @Nonnull
+    public static TestImpactIndex empty( @Nonnull File directory, @Nonnull String fingerprint )
+    {
+        return new TestImpactIndex( directory, fingerprint, 1, new HashMap<String, ClassEntry>(),
+            new LinkedHashMap<String, TestEntry>() );
+    }
+
+    /**
+     * Reads the class files in the directories which have been modified since the last generation. The directories
+     * are scanned in the order of the classpath, a class found in more than one directory is taken from the first
+     * one.
+     *
+     * @param classesDirectories the directories of the test classpath
+     * @throws IOException error reading a class file
+     */
+    public void scanClasses( @Nonnull Iterable<File> classesDirectories )
+        throws IOException
+    {
+        MessageDigest digest = sha1();
+        for ( File classesDirectory : classesDirectories )
+        {
+            scanClasses( classesDirectory, "", digest );
+        }
+        latestChanges = null;
+    }
+
+    /**
+     * Removes the test classes which are not affected by the changed classes.
+     *
+     * @param scanResult the test classes
+     * @return the test classes to run
+     */
+    @Nonnull
+    public DefaultScanResult selectAffectedTests( @Nonnull DefaultScanResult scanResult )
+    {
+        List<String> affectedTests = new ArrayList<>();
+        for ( String test : scanResult.getClasses() )
+        {
+            if ( isAffected( test ) )
+            {
+                affectedTests.add( test );
+            }
+        }
+        return new DefaultScanResult( affectedTests );
+    }
+
+    /**
+     * @param test the name of the test class
+     * @return {@code true} if the test class has never passed, or if one of its dependencies has changed since
+     */
+    public boolean isAffected( @Nonnull String test )
+    {
+        TestEntry entry = tests.get( test );
+        if ( entry == null || entry.passedAt == NEVER_PASSED )
+        {
+            return true;
+        }
+
+        if ( latestChanges == null )
+        {
+            latestChanges = computeLatestChanges();
+        }
+
+        Integer latestChange = latestChanges.get( toInternalName( test ) );
+        if ( latestChange != null && latestChange > entry.passedAt )
+        {
+            return true;
+        }
+
+        for ( String loadedClass : entry.loadedClasses )
+        {
+            latestChange = latestChanges.get( loadedClass );
+            if ( latestChange == null || latestChange > entry.passedAt )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the files written by the forks, records the test classes which have passed in this generation and
+     * forgets the test classes which have failed. The files are deleted. A test class which has run in several forks,
+     * e.g. in chunks, is recorded with the classes loaded in all of them, and only if it has passed in all of them.
+     *
+     * @return the number of recorded test classes
+     * @throws IOException error reading the files
+     */
+    public int recordForkFiles()
+        throws IOException
+    {
+        Map<String, Set<String>> passedTests = new LinkedHashMap<>();
+        Set<String> failedTests = new HashSet<>();
+        for ( File forkFile : listForkFiles() )
+        {
+            recordForkFile( forkFile, passedTests, failedTests );
+            Files.delete( forkFile.toPath() );
+        }
+
+        int recordedTests = 0;
+        for ( String failedTest : failedTests )
+        {
+            tests.remove( failedTest );
+        }
+        for ( Map.Entry<String, Set<String>> passedTest : passedTests.entrySet() )
+        {
+            if ( !failedTests.contains( passedTest.getKey() ) )
+            {
+                Set<String> testDependencies = passedTest.getValue();
+                tests.put( passedTest.getKey(),
+                    new TestEntry( generation, testDependencies.toArray( new String[testDependencies.size()] ) ) );
+                recordedTests++;
+            }
+        }
+        return recordedTests;
+    }
+
+    /**
+     * Deletes the files left by the forks of a previous run which has not recorded them.
+     *
+     * @throws IOException error deleting a file
+     */
+    public void deleteForkFiles()
+        throws IOException
+    {
+        for ( File forkFile : listForkFiles() )
+        {
+            Files.delete( forkFile.toPath() );
+        }
+    }
+
+    /**
+     * Writes the index file in the directory with the classes found by {@link #scanClasses(Iterable)}. The test
+     * classes whose class files do not exist anymore are dropped.
+     *
+     * @throws IOException error writing the index file
+     */
+    public void store()
+        throws IOException
+    {
+        if ( !directory.isDirectory() && !directory.mkdirs() )
+        {
+            throw new IOException( "Cannot create the directory " + directory );
+        }
+
+        Map<String, Integer> classIds = new HashMap<>();
+        for ( String className : currentClasses.keySet() )
+        {
+            classIds.put( className, classIds.size() );
+        }
+
+        File indexFile = new File( directory, INDEX_FILE_NAME );
+        File tmpIndexFile = new File( directory, INDEX_FILE_NAME + ".tmp" );
+        try ( DataOutputStream out =
+                  new DataOutputStream( new BufferedOutputStream( new FileOutputStream( tmpIndexFile ), 64 * 1024 ) ) )
+        {
+            out.writeInt( MAGIC );
+            out.writeInt( VERSION );
+            out.writeUTF( fingerprint );
+            out.writeInt( generation );
+
+            out.writeInt( currentClasses.size() );
+            for ( Map.Entry<String, ClassEntry> entry : currentClasses.entrySet() )
+            {
+                ClassEntry classEntry = entry.getValue();
+                out.writeUTF( entry.getKey() );
+                out.writeLong( classEntry.lastModified );
+                out.writeLong( classEntry.length );
+                out.writeLong( classEntry.hash );
+                out.writeInt( classEntry.changedAt );
+                writeIds( out, classEntry.references, classIds );
+            }
+
+            List<String> storedTests = new ArrayList<>();
+            for ( String test : tests.keySet() )
+            {
+                if ( currentClasses.containsKey( toInternalName( test ) ) )
+                {
+                    storedTests.add( test );
+                }
+            }
+            out.writeInt( storedTests.size() );
+            for ( String test : storedTests )
+            {
+                TestEntry testEntry = tests.get( test );
+                boolean deletedClass = false;
+                for ( String loadedClass : testEntry.loadedClasses )
+                {
+                    deletedClass |= !classIds.containsKey( loadedClass );
+                }
+                out.writeUTF( test );
+                out.writeInt( deletedClass ? NEVER_PASSED : testEntry.passedAt );
+                writeIds( out, testEntry.loadedClasses, classIds );
+            }
+        }
+        Files.move( tmpIndexFile.toPath(), indexFile.toPath(), REPLACE_EXISTING );
+    }
+
+    /**
+     * @return the number of recorded test classes
+     */
+    public int getRecordedTestsCount()
+    {
+        return tests.size();
+    }
+
+    private void recordForkFile( File forkFile, Map<String, Set<String>> passedTests, Set<String> failedTests )
+        throws IOException
+    {
+        // the test set may use any class loaded in the reused JVM before it has completed, even by another test set
+        Set<String> loadedClasses = new LinkedHashSet<>();
+        try ( BufferedReader reader =
+                  new BufferedReader( new InputStreamReader( new FileInputStream( forkFile ), UTF_8 ) ) )
+        {
+            for ( String line; ( line = reader.readLine() ) != null; )
+            {
+                if ( line.isEmpty() )
+                {
+                    continue;
+                }
+
+                char prefix = line.charAt( 0 );
+                if ( prefix == PASSED )
+                {
+                    String test = line.substring( 1 );
+                    Set<String> testDependencies = passedTests.get( test );
+                    if ( testDependencies == null )
+                    {
+                        passedTests.put( test, new LinkedHashSet<>( loadedClasses ) );
+                    }
+                    else
+                    {
+                        testDependencies.addAll( loadedClasses );
+                    }
+                }
+                else if ( prefix == FAILED )
+                {
+                    failedTests.add( line.substring( 1 ) );
+                }
+                else if ( currentClasses.containsKey( line ) )
+                {
+                    loadedClasses.add( line );
+                }
+            }
+        }
+    }
+
+    /**
+     * The latest generation in which a class or one of its transitive references has changed, computed by walking
+     * the references backwards from the classes which have changed most recently.
+     */
+    private Map<String, Integer> computeLatestChanges()
+    {
+        Map<String, List<String>> referencedBy = new HashMap<>();
+        Map<String, Integer> changes = new HashMap<>();
+        for ( Map.Entry<String, ClassEntry> entry : currentClasses.entrySet() )
+        {
+            changes.put( entry.getKey(), entry.getValue().changedAt );
+            for ( String reference : entry.getValue().references )
+            {
+                List<String> dependants = referencedBy.get( reference );
+                if ( dependants == null )
+                {
+                    dependants = new ArrayList<>();
+                    referencedBy.put( reference, dependants );
+                }
+                dependants.add( entry.getKey() );
+                if ( !currentClasses.containsKey( reference ) && classes.containsKey( reference ) )
+                {
+                    changes.put( reference, DELETED );
+                }
+            }
+        }
+
+        final List<Map.Entry<String, Integer>> sortedChanges = new ArrayList<>( changes.entrySet() );
+        Collections.sort( sortedChanges, new Comparator<Map.Entry<String, Integer>>()
+        {
+            @Override
+            public int compare( Map.Entry<String, Integer> o1, Map.Entry<String, Integer> o2 )
+            {
+                return Integer.compare( o2.getValue(), o1.getValue() );
+            }
+        } );
+
+        Map<String, Integer> latestChanges = new HashMap<>();
+        Queue<String> queue = new ArrayDeque<>();
+        for ( Map.Entry<String, Integer> change : sortedChanges )
+        {
+            if ( latestChanges.containsKey( change.getKey() ) )
+            {
+                continue;
+            }
+            latestChanges.put( change.getKey(), change.getValue() );
+            queue.add( change.getKey() );
+            for ( String className; ( className = queue.poll() ) != null; )
+            {
+                List<String> dependants = referencedBy.get( className );
+                if ( dependants != null )
+                {
+                    for ( String dependant : dependants )
+                    {
+                        if ( !latestChanges.containsKey( dependant ) )
+                        {
+                            latestChanges.put( dependant, change.getValue() );
+                            queue.add( dependant );
+                        }
+                    }
+                }
+            }
+        }
+        return latestChanges;
+    }
+
+    private void scanClasses( File directory, String packagePath, MessageDigest digest )
+        throws IOException
+    {
+        File[] files = directory.listFiles();
+        if ( files == null )
+        {
+            return;
+        }
+
+        for ( File file : files )
+        {
+            String name = file.getName();
+            if ( file.isDirectory() )
+            {
+                scanClasses( file, packagePath + name + '/', digest );
+            }
+            else if ( name.endsWith( CLASS_FILE_EXTENSION ) )
+            {
+                String className = packagePath + name.substring( 0, name.length() - CLASS_FILE_EXTENSION.length() );
+                if ( !currentClasses.containsKey( className ) )
+                {
+                    currentClasses.put( className, scanClass( className, file, digest ) );
+                }
+            }
+        }
+    }
+
+    private ClassEntry scanClass( String className, File file, MessageDigest digest )
+        throws IOException
+    {
+        long lastModified = file.lastModified();
+        long length = file.length();
+        ClassEntry entry = classes.get( className );
+        if ( entry != null && entry.lastModified == lastModified && entry.length == length )
+        {
+            return entry;
+        }
+
+        byte[] bytecode = Files.readAllBytes( file.toPath() );
+        long hash = hash( bytecode, digest );
+        ClassEntry scanned =
+            new ClassEntry( lastModified, length, hash, entry != null && entry.hash == hash ? entry.changedAt
+                : generation );
+        scanned.references = entry != null && entry.hash == hash ? entry.references : readReferences( bytecode );
+        return scanned;
+    }
+
+    /**
+     * Reads the names of the classes in the constant pool of the class file: the internal names, the type
+     * descriptors, and the string constants which look like a class name, e.g. in {@code Class.forName()}. The
+     * names which are not classes of the test classpath directories are dropped later.
+     */
+    static String[] readReferences( byte[] bytecode )
+        throws IOException
+    {
+        Set<String> references = new LinkedHashSet<>();
+        DataInputStream in = new DataInputStream( new ByteArrayInputStream( bytecode ) );
+        in.readInt(); // magic
+        in.readUnsignedShort(); // minor version
+        in.readUnsignedShort(); // major version
+        for ( int i = 1, size = in.readUnsignedShort(); i < size; )
+        {
+            int tag = in.readUnsignedByte();
+            i += tag == 5 || tag == 6 ? 2 : 1;
+            switch ( tag )
+            {
+                case 1: // Utf8
+                    addReferences( in.readUTF(), references );
+                    break;
+                case 7: // Class
+                case 8: // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    in.readUnsignedShort();
+                    break;
+                case 15: // MethodHandle
+                    in.readUnsignedByte();
+                    in.readUnsignedShort();
+                    break;
+                case 3: // Integer
+                case 4: // Float
+                case 9: // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    in.readInt();
+                    break;
+                case 5: // Long
+                case 6: // Double
+                    in.readLong();
+                    break;
+                default:
+                    throw new IOException( "Unknown constant pool tag " + tag );
+            }
+        }
+        return references.toArray( new String[references.size()] );
+    }
+
+    private static void addReferences( String utf8, Set<String> references )
+    {
+        if ( utf8.isEmpty() )
+        {
+            return;
+        }
+        references.add( utf8.indexOf( '.' ) == -1 ? utf8 : toInternalName( utf8 ) );
+        for ( int from = utf8.indexOf( 'L' ); from != -1; from = utf8.indexOf( 'L', from + 1 ) )
+        {
+            int to = utf8.indexOf( ';', from );
+            if ( to == -1 )
+            {
+                break;
+            }
+            if ( to > from + 1 )
+            {
+                references.add( utf8.substring( from + 1, to ) );
+            }
+        }
+    }
+
+    private static String toInternalName( String className )
+    {
+        return className.replace( '.', '/' );
+    }
+
+    private static long hash( byte[] bytecode, MessageDigest digest )
+    {
+        digest.reset();
+        byte[] sha1 = digest.digest( bytecode );
+        long hash = 0L;
+        for ( int i = 0; i < 8; i++ )
+        {
+            hash = ( hash << 8 ) | ( sha1[i] & 0xff );
+        }
+        return hash;
+    }
+
+    private static MessageDigest sha1()
+    {
+        try
+        {
+            return MessageDigest.getInstance( "SHA-1" );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new IllegalStateException( e.getLocalizedMessage(), e );
+        }
+    }
+
+    private static int[] readIds( DataInputStream in, int size )
+        throws IOException
+    {
+        int[] ids = new int[in.readInt()];
+        for ( int i = 0; i < ids.length; i++ )
+        {
+            ids[i] = in.readInt();
+            if ( ids[i] < 0 || ids[i] >= size )
+            {
+                throw new IOException( "Corrupted test impact index: " + ids[i] + " is out of range " + size );
+            }
+        }
+        return ids;
+    }
+
+    private static String[] toNames( int[] ids, String[] names )
+    {
+        String[] result = new String[ids.length];
+        for ( int i = 0; i < ids.length; i++ )
+        {
+            result[i] = names[ids[i]];
+        }
+        return result;
+    }
+
+    private static void writeIds( DataOutputStream out, String[] names, Map<String, Integer> ids )
+        throws IOException
+    {
+        List<Integer> knownIds = new ArrayList<>( names.length );
+        for ( String name : names )
+        {
+            Integer id = ids.get( name );
+            if ( id != null )
+            {
+                knownIds.add( id );
+            }
+        }
+        out.writeInt( knownIds.size() );
+        for ( int id : knownIds )
+        {
+            out.writeInt( id );
+        }
+    }
+
+    private List<File> listForkFiles()
+    {
+        List<File> forkFiles = new ArrayList<>();
+        File[] files = directory.listFiles();
+        if ( files != null )
+        {
+            for ( File file : files )
+            {
+                if ( file.isFile() && file.getName().endsWith( FORK_FILE_EXTENSION ) )
+                {
+                    forkFiles.add( file );
+                }
+            }
+        }
+        return forkFiles;
+    }
+
+    private static final class ClassEntry
+    {
+        private final long lastModified;
+        private final long length;
+        private final long hash;
+        private final int changedAt;
+        private String[] references;
+
+        ClassEntry( long lastModified, long length, long hash, int changedAt )
+        {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.hash = hash;
+            this.changedAt = changedAt;
+        }
+    }
+
+    private static final class TestEntry
+    {
+        private final int passedAt;
+        private final String[] loadedClasses;
+
+        TestEntry( int passedAt, String[] loadedClasses )
+        {
+            this.passedAt = passedAt;
+            this.loadedClasses = loadedClasses;
+        }
+    }
+}
@@ -0,0 +1,655 @@
+package org.apache.maven.plugin.surefire.util;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.surefire.report.DefaultReporterFactory;
+import org.apache.maven.plugin.surefire.report.WrappedReportEntry;
+import org.apache.maven.surefire.api.report.RunListener;
+import org.apache.maven.surefire.api.report.SimpleReportEntry;
+import org.apache.maven.surefire.api.suite.RunResult;
+import org.apache.maven.surefire.api.util.DefaultScanResult;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.lang.System.currentTimeMillis;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Local cache of the results of the test classes which have passed. The entry of the test class is found by the
+ * SHA-1 key of the content the test class depends on:
+ * <ul>
+ *     <li>the fingerprint of the configuration of the plugin, of the provider and of the JDK of the forked JVM,</li>
+ *     <li>the content of the jar files of the test classpath,</li>
+ *     <li>the content of the files in the directories of the test classpath, except for the class files of the
+ *     test classes,</li>
+ *     <li>the class files of the test class, of its nested classes and of the test classes it refers to in the
+ *     bytecode, transitively, e.g. the abstract test class it extends.</li>
+ * </ul>
+ * A change of a main class or of a resource invalidates all the entries; a change of a test class invalidates its own
+ * entry and the entries of the test classes extending or using it.
+ * <br>
+ * The test class is cached only if none of its tests has failed. The cached results are replayed to the reporters of
+ * the plugin instead of running the test class in the forked JVM. The console output of the tests is not cached.
+ * <br>
+ * Every entry is a file named by its key in the cache directory. A hit updates the last modification time of the
+ * file, and the least recently used entries are deleted when the size of the directory exceeds the limit.
+ *
+ * @since 3.0.0-M6
+ */
+public final class TestResultCache
+{
+    static final String ENTRY_FILE_EXTENSION = ".result";
+
+    private static final int MAGIC = 0x54524358;
+
+    private static final int VERSION = 1;
+
+    private static final String CLASS_FILE_EXTENSION = ".class";
+
+    /**
+     * The digests of the jar files by the path, size and last modification time, shared by the modules of the build.
+     */
+    private static final ConcurrentMap<String, String> JAR_DIGESTS = new ConcurrentHashMap<>();
+
+    private final File directory;
+    private final long maxSize;
+    private final Map<String, String> keys;
+    private final Map<String, CachedTestSet> hits = new LinkedHashMap<>();
+    private final Set<String> completedTestSets = new HashSet<>();
+    private int recorded;
+
+    private TestResultCache( File directory, long maxSize, Map<String, String> keys )
+    {
+        this.directory = directory;
+        this.maxSize = maxSize;
+        this.keys = keys;
+    }
+
+    /**
+     * Computes the keys of the test classes.
+     *
+     * @param directory            the cache directory
+     * @param maxSize              the limit of the size of the cache directory in bytes
+     * @param fingerprint          the checksum of the configuration of the plugin and of the provider
+     * @param classpath            the test classpath
+     * @param testClassesDirectory the directory of the test classes
+     * @param tests                the test classes
+     * @return the cache
+     * @throws IOException error reading the files of the test classpath or creating the directory
+     */
+    @Nonnull
+    public static TestResultCache create( @Nonnull File directory, long maxSize, @Nonnull String fingerprint,
+                                          @Nonnull List<String> classpath, @Nonnull File testClassesDirectory,
+                                          @Nonnull DefaultScanResult tests )
+        throws IOException
+    {
+        if ( !directory.isDirectory() && !directory.mkdirs() )
+        {
+            throw new IOException( "Cannot create the directory " + directory );
+        }
+
+        MessageDigest digest = sha1();
+        Set<String> testClasses = new HashSet<>( tests.getClasses() );
+        Map<String, List<TestClassFile>> testClassFiles = new HashMap<>();
+        MessageDigest classpathDigest = sha1();
+        classpathDigest.update( fingerprint.getBytes( UTF_8 ) );
+        for ( String element : classpath )
+        {
+            File file = new File( element );
+            classpathDigest.update( element.getBytes( UTF_8 ) );
+            if ( file.isDirectory() )
+            {
+                boolean isTestClassesDirectory = file.getCanonicalFile().equals( testClassesDirectory
+                    .getCanonicalFile() );
+                digestDirectory( file, "", classpathDigest, digest,
+                    isTestClassesDirectory ? testClasses : Collections.<String>emptySet(), testClassFiles );
+            }
+            else if ( file.isFile() )
+            {
+                classpathDigest.update( digestJar( file, digest ).getBytes( UTF_8 ) );
+            }
+        }
+        byte[] classpathHash = classpathDigest.digest();
+
+        Map<String, String> keys = new HashMap<>();
+        for ( String testClass : tests.getClasses() )
+        {
+            if ( testClassFiles.containsKey( testClass ) )
+            {
+                digest.reset();
+                digest.update( classpathHash );
+                for ( String dependency : testClassClosure( testClass, testClassFiles ) )
+                {
+                    for ( TestClassFile classFile : testClassFiles.get( dependency ) )
+                    {
+                        digest.update( classFile.path.getBytes( UTF_8 ) );
+                        digest.update( classFile.hash );
+                    }
+                }
+                keys.put( testClass, hex( digest.digest() ) );
+            }
+        }
+        return new TestResultCache( directory, maxSize, keys );
+    }
+
+    /**
+     * Reads the cached results of the test classes. The test classes from dependencies are never cached.
+     *
+     * @param tests the test classes
+     * @return the test classes which are not in the cache and must run
+     */
+    @Nonnull
+    public DefaultScanResult lookup( @Nonnull DefaultScanResult tests )
+    {
+        List<String> misses = new ArrayList<>();
+        for ( String testClass : tests.getClasses() )
+        {
+            String key = keys.get( testClass );
+            CachedTestSet testSet = key == null ? null : read( key );
+            if ( testSet != null && testClass.equals( testSet.sourceName ) )
+            {
+                hits.put( testClass, testSet );
+            }
+            else
+            {
+                misses.add( testClass );
+            }
+        }
+        return new DefaultScanResult( misses );
+    }
+
+    public int getHits()
+    {
+        return hits.size();
+    }
+
+    public synchronized int getRecorded()
+    {
+        return recorded;
+    }
+
+    /**
+     * Replays the cached results of the test classes into a new reporter of the factory.
+     *
+     * @param reporterFactory the factory of the reporters
+     * @return the statistics of the replayed tests
+     */
+    @Nonnull
+    public RunResult replay( @Nonnull DefaultReporterFactory reporterFactory )
+    {
+        RunListener reporter = reporterFactory.createReporter();
+        for ( CachedTestSet testSet : hits.values() )
+        {
+            testSet.replay( reporter );
+        }
+        return reporterFactory.getGlobalRunStatistics().getRunResult();
+    }
+
+    /**
+     * Replays the cached results as the whole run if all the test classes are cached and no JVM is forked.
+     *
+     * @param reporterFactory the factory of the reporters, closed by this method
+     * @return the summary of the run
+     */
+    @Nonnull
+    public RunResult replayRun( @Nonnull DefaultReporterFactory reporterFactory )
+    {
+        reporterFactory.runStarting();
+        replay( reporterFactory );
+        return reporterFactory.close();
+    }
+
+    /**
+     * Called by the reporter of the plugin when the test set has completed. Writes the entry of the test class which
+     * has passed. The test class is not cached if it has run more than once, e.g. its failing tests have been rerun.
+     *
+     * @param testSet the test set
+     * @param tests   the tests of the test set
+     */
+    public synchronized void testSetCompleted( @Nonnull WrappedReportEntry testSet,
+                                               @Nonnull Collection<WrappedReportEntry> tests )
+    {
+        String testClass = testSet.getSourceName();
+        String key = testClass == null ? null : keys.get( testClass );
+        if ( key == null || hits.containsKey( testClass ) || !completedTestSets.add( testClass ) )
+        {
+            return;
+        }
+
+        for ( WrappedReportEntry test : tests )
+        {
+            if ( test.isErrorOrFailure() )
+            {
+                return;
+            }
+        }
+
+        try
+        {
+            write( key, testSet, tests );
+            recorded++;
+        }
+        catch ( IOException e )
+        {
+            // the test class runs again in the next build
+        }
+    }
+
+    /**
+     * Deletes the least recently used entries until the size of the cache directory is within the limit.
+     *
+     * @return the number of deleted entries
+     */
+    public int evict()
+    {
+        File[] entries = directory.listFiles( new FileFilter()
+        {
+            @Override
+            public boolean accept( File file )
+            {
+                return file.getName().endsWith( ENTRY_FILE_EXTENSION );
+            }
+        } );
+
+        if ( entries == null )
+        {
+            return 0;
+        }
+
+        long size = 0L;
+        final Map<File, Long> lastModified = new HashMap<>();
+        for ( File entry : entries )
+        {
+            size += entry.length();
+            lastModified.put( entry, entry.lastModified() );
+        }
+
+        Arrays.sort( entries, new Comparator<File>()
+        {
+            @Override
+            public int compare( File o1, File o2 )
+            {
+                return Long.compare( lastModified.get( o1 ), lastModified.get( o2 ) );
+            }
+        } );
+
+        int deleted = 0;
+        for ( int i = 0; i < entries.length && size > maxSize; i++ )
+        {
+            long length = entries[i].length();
+            if ( entries[i].delete() )
+            {
+                size -= length;
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    private CachedTestSet read( String key )
+    {
+        File entryFile = new File( directory, key + ENTRY_FILE_EXTENSION );
+        if ( !entryFile.isFile() )
+        {
+            return null;
+        }
+
+        try ( DataInputStream in =
+                  new DataInputStream( new BufferedInputStream( new FileInputStream( entryFile ) ) ) )
+        {
+            if ( in.readInt() != MAGIC || in.readInt() != VERSION )
+            {
+                return null;
+            }
+            CachedTestSet testSet = new CachedTestSet( readString( in ), readString( in ), readElapsed( in ) );
+            for ( int i = 0, size = in.readInt(); i < size; i++ )
+            {
+                testSet.systemProperties.put( readString( in ), readString( in ) );
+            }
+            for ( int i = 0, size = in.readInt(); i < size; i++ )
+            {
+                testSet.tests.add( new CachedTest( in.readBoolean(), readString( in ), readString( in ),
+                    readString( in ), readString( in ), readString( in ), readElapsed( in ) ) );
+            }
+            // the least recently used entries are evicted first
+            //noinspection ResultOfMethodCallIgnored
+            entryFile.setLastModified( currentTimeMillis() );
+            return testSet;
+        }
+        catch ( IOException e )
+        {
+            return null;
+        }
+    }
+
+    private void write( String key, WrappedReportEntry testSet, Collection<WrappedReportEntry> tests )
+        throws IOException
+    {
+        File tmpEntryFile = File.createTempFile( key, ".tmp", directory );
+        try ( DataOutputStream out =
+                  new DataOutputStream( new BufferedOutputStream( new FileOutputStream( tmpEntryFile ) ) ) )
+        {
+            out.writeInt( MAGIC );
+            out.writeInt( VERSION );
+            writeString( out, testSet.getSourceName() );
+            writeString( out, testSet.getSourceText() );
+            writeElapsed( out, testSet.getElapsed() );
+            Map<String, String> systemProperties = testSet.getSystemProperties();
+            out.writeInt( systemProperties.size() );
+            for ( Map.Entry<String, String> property : systemProperties.entrySet() )
+            {
+                writeString( out, property.getKey() );
+                writeString( out, property.getValue() );
+            }
+            out.writeInt( tests.size() );
+            for ( WrappedReportEntry test : tests )
+            {
+                out.writeBoolean( test.isSkipped() );
+                writeString( out, test.getSourceName() );
+                writeString( out, test.getSourceText() );
+                writeString( out, test.getName() );
+                writeString( out, test.getNameText() );
+                writeString( out, test.getMessage() );
+                writeElapsed( out, test.getElapsed() );
+            }
+        }
+        Files.move( tmpEntryFile.toPath(), new File( directory, key + ENTRY_FILE_EXTENSION ).toPath(),
+            REPLACE_EXISTING );
+    }
+
+    /**
+     * @return the test class and the test classes it refers to, transitively, in the order of the names
+     */
+    private static Set<String> testClassClosure( String testClass, Map<String, List<TestClassFile>> testClassFiles )
+    {
+        Set<String> closure = new TreeSet<>();
+        Queue<String> queue = new ArrayDeque<>();
+        closure.add( testClass );
+        queue.add( testClass );
+        for ( String dependency; ( dependency = queue.poll() ) != null; )
+        {
+            for ( TestClassFile classFile : testClassFiles.get( dependency ) )
+            {
+                for ( String reference : classFile.references )
+                {
+                    String referredTestClass = toTestClass( reference );
+                    if ( testClassFiles.containsKey( referredTestClass ) && closure.add( referredTestClass ) )
+                    {
+                        queue.add( referredTestClass );
+                    }
+                }
+            }
+        }
+        return closure;
+    }
+
+    /**
+     * Digests the files of the directory in the order of the names. The class files of the test classes and of their
+     * nested classes are collected in {@code testClassFiles}.
+     */
+    private static void digestDirectory( File directory, String path, MessageDigest directoryDigest,
+                                         MessageDigest digest, Set<String> testClasses,
+                                         Map<String, List<TestClassFile>> testClassFiles )
+        throws IOException
+    {
+        File[] files = directory.listFiles();
+        if ( files == null )
+        {
+            return;
+        }
+
+        Arrays.sort( files );
+        for ( File file : files )
+        {
+            String filePath = path + file.getName();
+            if ( file.isDirectory() )
+            {
+                digestDirectory( file, filePath + '/', directoryDigest, digest, testClasses, testClassFiles );
+                continue;
+            }
+
+            byte[] content = Files.readAllBytes( file.toPath() );
+            digest.reset();
+            byte[] hash = digest.digest( content );
+            String testClass = filePath.endsWith( CLASS_FILE_EXTENSION )
+                ? toTestClass( filePath.substring( 0, filePath.length() - CLASS_FILE_EXTENSION.length() ) )
+                : null;
+            if ( testClass != null && testClasses.contains( testClass ) )
+            {
+                List<TestClassFile> classFiles = testClassFiles.get( testClass );
+                if ( classFiles == null )
+                {
+                    classFiles = new ArrayList<>();
+                    testClassFiles.put( testClass, classFiles );
+                }
+                classFiles.add( new TestClassFile( filePath, hash, TestImpactIndex.readReferences( content ) ) );
+            }
+            else
+            {
+                directoryDigest.update( filePath.getBytes( UTF_8 ) );
+                directoryDigest.update( hash );
+            }
+        }
+    }
+
+    private static String digestJar( File jar, MessageDigest digest )
+        throws IOException
+    {
+        String jarKey = jar.getAbsolutePath() + ':' + jar.length() + ':' + jar.lastModified();
+        String jarDigest = JAR_DIGESTS.get( jarKey );
+        if ( jarDigest == null )
+        {
+            digest.reset();
+            byte[] buffer = new byte[64 * 1024];
+            try ( InputStream is = new FileInputStream( jar ) )
+            {
+                for ( int read; ( read = is.read( buffer ) ) != -1; )
+                {
+                    digest.update( buffer, 0, read );
+                }
+            }
+            jarDigest = hex( digest.digest() );
+            JAR_DIGESTS.put( jarKey, jarDigest );
+        }
+        return jarDigest;
+    }
+
+    /**
+     * @param internalName the internal name of the class, e.g. {@code a/b/C$D}
+     * @return the name of the top level class, e.g. {@code a.b.C}
+     */
+    private static String toTestClass( String internalName )
+    {
+        int nested = internalName.indexOf( '$' );
+        return ( nested == -1 ? internalName : internalName.substring( 0, nested ) ).replace( '/', '.' );
+    }
+
+    private static void writeElapsed( DataOutputStream out, Integer elapsed )
+        throws IOException
+    {
+        out.writeInt( elapsed == null ? -1 : elapsed );
+    }
+
+    private static Integer readElapsed( DataInputStream in )
+        throws IOException
+    {
+        int elapsed = in.readInt();
+        return elapsed == -1 ? null : elapsed;
+    }
+
+    private static void writeString( DataOutputStream out, String s )
+        throws IOException
+    {
+        if ( s == null )
+        {
+            out.writeInt( -1 );
+        }
+        else
+        {
+            byte[] bytes = s.getBytes( UTF_8 );
+            out.writeInt( bytes.length );
+            out.write( bytes );
+        }
+    }
+
+    private static String readString( DataInputStream in )
+        throws IOException
+    {
+        int length = in.readInt();
+        if ( length == -1 )
+        {
+            return null;
+        }
+        else if ( length < 0 )
+        {
+            throw new IOException( "Corrupted string of the length " + length );
+        }
+        byte[] bytes = new byte[length];
+        in.readFully( bytes );
+        return new String( bytes, UTF_8 );
+    }
+
+    @SuppressWarnings( "checkstyle:magicnumber" )
+    private static String hex( byte[] bytes )
+    {
+        StringBuilder hex = new StringBuilder( 2 * bytes.length );
+        for ( byte b : bytes )
+        {
+            hex.append( Character.forDigit( ( b >> 4 ) & 0xf, 16 ) ).append( Character.forDigit( b & 0xf, 16 ) );
+        }
+        return hex.toString();
+    }
+
+    private static MessageDigest sha1()
+    {
+        try
+        {
+            return MessageDigest.getInstance( "SHA-1" );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new IllegalStateException( e.getLocalizedMessage(), e );
+        }
+    }
+
+    private static final class TestClassFile
+    {
+        private final String path;
+        private final byte[] hash;
+        private final String[] references;
+
+        TestClassFile( String path, byte[] hash, String[] references )
+        {
+            this.path = path;
+            this.hash = hash;
+            this.references = references;
+        }
+    }
+
+    private static final class CachedTestSet
+    {
+        private final String sourceName;
+        private final String sourceText;
+        private final Integer elapsed;
+        private final Map<String, String> systemProperties = new LinkedHashMap<>();
+        private final List<CachedTest> tests = new ArrayList<>();
+
+        CachedTestSet( String sourceName, String sourceText, Integer elapsed )
+        {
+            this.sourceName = sourceName;
+            this.sourceText = sourceText;
+            this.elapsed = elapsed;
+        }
+
+        void replay( RunListener reporter )
+        {
+            reporter.testSetStarting( new SimpleReportEntry( sourceName, sourceText, null, null ) );
+            for ( CachedTest test : tests )
+            {
+                SimpleReportEntry entry = new SimpleReportEntry( test.sourceName, test.sourceText, test.name,
+                    test.nameText, null, test.elapsed, test.message, Collections.<String, String>emptyMap() );
+                reporter.testStarting( entry );
+                if ( test.skipped )
+                {
+                    reporter.testSkipped( entry );
+                }
+                else
+                {
+                    reporter.testSucceeded( entry );
+                }
+            }
+            reporter.testSetCompleted(
+                new SimpleReportEntry( sourceName, sourceText, null, null, null, elapsed, systemProperties ) );
+        }
+    }
+
+    private static final class CachedTest
+    {
+        private final boolean skipped;
+        private final String sourceName;
+        private final String sourceText;
+        private final String name;
+        private final String nameText;
+        private final String message;
+        private final Integer elapsed;
+
+        CachedTest( boolean skipped, String sourceName, String sourceText, String name, String nameText,
+                    String message, Integer elapsed )
+        {
+            this.skipped = skipped;
+            this.sourceName = sourceName;
+            this.sourceText = sourceText;
+            this.name = name;
+            this.nameText = nameText;
+            this.message = message;
+            this.elapsed = elapsed;
+        }
+    }
+}
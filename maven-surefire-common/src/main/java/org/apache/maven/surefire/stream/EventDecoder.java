@@ -30,10 +30,12 @@
 import org.apache.maven.surefire.api.event.ControlStopOnNextTestEvent;
 import org.apache.maven.surefire.api.event.Event;
 import org.apache.maven.surefire.api.event.JvmExitErrorEvent;
+import org.apache.maven.surefire.api.event.ResourceUsageEvent;
 import org.apache.maven.surefire.api.event.StandardStreamErrEvent;
 import org.apache.maven.surefire.api.event.StandardStreamErrWithNewLineEvent;
 import org.apache.maven.surefire.api.event.StandardStreamOutEvent;
 import org.apache.maven.surefire.api.event.StandardStreamOutWithNewLineEvent;
+import org.apache.maven.surefire.api.event.StartupPhaseEvent;
 import org.apache.maven.surefire.api.event.SystemPropertyEvent;
 import org.apache.maven.surefire.api.event.TestAssumptionFailureEvent;
 import org.apache.maven.surefire.api.event.TestErrorEvent;
@@ -57,21 +59,33 @@
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
 import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.FutureTask;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
 
+import static java.lang.Math.min;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.maven.surefire.api.booter.Constants.BATCH_DEFLATED;
+import static org.apache.maven.surefire.api.booter.Constants.BATCH_UNCOMPRESSED;
 import static org.apache.maven.surefire.api.booter.Constants.MAGIC_NUMBER_FOR_EVENTS_BYTES;
+import static org.apache.maven.surefire.api.booter.Constants.STACK_TRACE_DICTIONARY_SIZE;
 import static org.apache.maven.surefire.api.report.CategorizedReportEntry.reportEntry;
 import static org.apache.maven.surefire.api.stream.SegmentType.DATA_INTEGER;
 import static org.apache.maven.surefire.api.stream.SegmentType.DATA_STRING;
+import static org.apache.maven.surefire.api.stream.SegmentType.DATA_STRING_BYTES;
 import static org.apache.maven.surefire.api.stream.SegmentType.END_OF_FRAME;
 import static org.apache.maven.surefire.api.stream.SegmentType.RUN_MODE;
 import static org.apache.maven.surefire.api.stream.SegmentType.STRING_ENCODING;
+import static org.apache.maven.surefire.booter.spi.EventBatchChannel.BATCH_SIZE;
 
 /**
  *
@@ -101,10 +115,30 @@ public class EventDecoder extends AbstractStreamDecoder<Event, ForkedProcessEven
         END_OF_FRAME
     };
 
-    private static final SegmentType[] EVENT_WITH_RUNMODE_AND_ONE_STRING = new SegmentType[] {
-        RUN_MODE,
+    private static final SegmentType[] EVENT_WITH_ONE_STRING_AND_INTEGER = new SegmentType[] {
         STRING_ENCODING,
         DATA_STRING,
+        DATA_INTEGER,
+        END_OF_FRAME
+    };
+
+    private static final SegmentType[] EVENT_WITH_RESOURCE_USAGE = new SegmentType[] {
+        DATA_INTEGER,
+        DATA_INTEGER,
+        DATA_INTEGER,
+        DATA_INTEGER,
+        DATA_INTEGER,
+        DATA_INTEGER,
+        DATA_INTEGER,
+        DATA_INTEGER,
+        DATA_INTEGER,
+        END_OF_FRAME
+    };
+
+    private static final SegmentType[] EVENT_WITH_RUNMODE_AND_STANDARD_STREAM = new SegmentType[] {
+        RUN_MODE,
+        STRING_ENCODING,
+        DATA_STRING_BYTES,
         END_OF_FRAME
     };
 
@@ -129,18 +163,31 @@ public class EventDecoder extends AbstractStreamDecoder<Event, ForkedProcessEven
         DATA_STRING,
         DATA_STRING,
         DATA_STRING,
+        DATA_INTEGER,
         END_OF_FRAME
     };
 
     private static final int NO_POSITION = -1;
 
     private final OutputStream debugSink;
+    private final BatchChannel channel;
+    private final int[] traceIds = new int[STACK_TRACE_DICTIONARY_SIZE];
+    private final String[] smartTrimmedStackTraces = new String[STACK_TRACE_DICTIONARY_SIZE];
+    private final String[] stackTraces = new String[STACK_TRACE_DICTIONARY_SIZE];
+    private Inflater inflater;
 
     public EventDecoder( @Nonnull ReadableByteChannel channel,
                          @Nonnull ForkNodeArguments arguments )
+    {
+        this( new BatchChannel( channel ), arguments );
+    }
+
+    private EventDecoder( @Nonnull BatchChannel channel, @Nonnull ForkNodeArguments arguments )
     {
         super( channel, arguments, EVENT_TYPES );
+        this.channel = channel;
         debugSink = newDebugSink( arguments );
+        Arrays.fill( traceIds, -1 );
     }
 
     @Override
@@ -154,6 +201,11 @@ public Event decode( @Nonnull Memento memento ) throws IOException
                 throw new MalformedFrameException( memento.getLine().getPositionByteBuffer(),
                     memento.getByteBuffer().position() );
             }
+            if ( eventType.isBatch() )
+            {
+                unpackBatch( memento );
+                return null;
+            }
             RunMode runMode = null;
             for ( SegmentType segmentType : nextSegmentType( eventType ) )
             {
@@ -168,6 +220,11 @@ public Event decode( @Nonnull Memento memento ) throws IOException
                     case DATA_STRING:
                         memento.getData().add( readString( memento ) );
                         break;
+                    case DATA_STRING_BYTES:
+                        // the bytes in UTF-8 are passed through to the reports without decoding them
+                        boolean isUtf8 = UTF_8.equals( memento.getDecoder().charset() );
+                        memento.getData().add( isUtf8 ? readBytes( memento ) : readString( memento ) );
+                        break;
                     case DATA_INTEGER:
                         memento.getData().add( readInteger( memento ) );
                         break;
@@ -215,6 +272,68 @@ public Event decode( @Nonnull Memento memento ) throws IOException
         throw new IOException( "unreachable statement" );
     }
 
+    /**
+     * The frames of the batch are read as if they were in the stream after the batch frame, i.e. before the bytes
+     * which have been already read after the batch frame. The length of the frames cannot exceed
+     * {@link org.apache.maven.surefire.booter.spi.EventBatchChannel#BATCH_SIZE} so that a corrupted batch frame
+     * does not allocate an arbitrary array.
+     */
+    private void unpackBatch( @Nonnull Memento memento ) throws IOException, MalformedFrameException
+    {
+        byte compression = readByte( memento );
+        int length = readInt( memento );
+        ByteBuffer frames = readBytes( memento );
+        ByteBuffer bb = memento.getByteBuffer();
+        boolean isKnownCompression = compression == BATCH_UNCOMPRESSED || compression == BATCH_DEFLATED;
+        if ( length < 0 || length > BATCH_SIZE || frames == null || !isKnownCompression )
+        {
+            throw new MalformedFrameException( memento.getLine().getPositionByteBuffer(), bb.position() );
+        }
+
+        if ( compression == BATCH_DEFLATED )
+        {
+            frames = inflate( frames, length, memento );
+        }
+        else if ( frames.remaining() != length )
+        {
+            throw new MalformedFrameException( memento.getLine().getPositionByteBuffer(), bb.position() );
+        }
+
+        memento.getLine().setPositionByteBuffer( bb.position() );
+        memento.getLine().clear();
+        channel.unread( frames, bb );
+    }
+
+    private ByteBuffer inflate( ByteBuffer deflated, int length, Memento memento ) throws MalformedFrameException
+    {
+        if ( inflater == null )
+        {
+            inflater = new Inflater();
+        }
+        inflater.reset();
+        inflater.setInput( deflated.array(), deflated.arrayOffset() + deflated.position(), deflated.remaining() );
+        byte[] frames = new byte[length];
+        try
+        {
+            int inflated = 0;
+            while ( inflated < length && !inflater.finished() && !inflater.needsInput() )
+            {
+                inflated += inflater.inflate( frames, inflated, length - inflated );
+            }
+            if ( inflated != length )
+            {
+                throw new MalformedFrameException( memento.getLine().getPositionByteBuffer(),
+                    memento.getByteBuffer().position() );
+            }
+            return ByteBuffer.wrap( frames );
+        }
+        catch ( DataFormatException e )
+        {
+            throw new MalformedFrameException( memento.getLine().getPositionByteBuffer(),
+                memento.getByteBuffer().position() );
+        }
+    }
+
     @Nonnull
     @Override
     protected final byte[] getEncodedMagicNumber()
@@ -239,11 +358,15 @@ protected final SegmentType[] nextSegmentType( @Nonnull ForkedProcessEventType e
             case BOOTERCODE_CONSOLE_DEBUG:
             case BOOTERCODE_CONSOLE_WARNING:
                 return EVENT_WITH_ONE_STRING;
+            case BOOTERCODE_STARTUP_PHASE:
+                return EVENT_WITH_ONE_STRING_AND_INTEGER;
+            case BOOTERCODE_RESOURCE_USAGE:
+                return EVENT_WITH_RESOURCE_USAGE;
             case BOOTERCODE_STDOUT:
             case BOOTERCODE_STDOUT_NEW_LINE:
             case BOOTERCODE_STDERR:
             case BOOTERCODE_STDERR_NEW_LINE:
-                return EVENT_WITH_RUNMODE_AND_ONE_STRING;
+                return EVENT_WITH_RUNMODE_AND_STANDARD_STREAM;
             case BOOTERCODE_SYSPROPS:
                 return EVENT_WITH_RUNMODE_AND_TWO_STRINGS;
             case BOOTERCODE_TESTSET_STARTING:
@@ -293,46 +416,69 @@ protected final Event toMessage( @Nonnull ForkedProcessEventType eventType,
             case BOOTERCODE_CONSOLE_WARNING:
                 checkArguments( memento, 1 );
                 return new ConsoleWarningEvent( (String) memento.getData().get( 0 ) );
+            case BOOTERCODE_STARTUP_PHASE:
+                checkArguments( memento, 2 );
+                String phase = (String) memento.getData().get( 0 );
+                Integer elapsedMicros = (Integer) memento.getData().get( 1 );
+                return new StartupPhaseEvent( phase, elapsedMicros == null ? 0 : elapsedMicros );
+            case BOOTERCODE_RESOURCE_USAGE:
+                checkArguments( memento, 9 );
+                List<Object> usage = memento.getData();
+                return new ResourceUsageEvent( toInt( usage.get( 0 ) ), toInt( usage.get( 1 ) ),
+                    toInt( usage.get( 2 ) ), toInt( usage.get( 3 ) ), toInt( usage.get( 4 ) ), toInt( usage.get( 5 ) ),
+                    toInt( usage.get( 6 ) ), toInt( usage.get( 7 ) ), toInt( usage.get( 8 ) ) );
             case BOOTERCODE_STDOUT:
                 checkArguments( runMode, memento, 1 );
-                return new StandardStreamOutEvent( runMode, (String) memento.getData().get( 0 ) );
+                Object out = memento.getData().get( 0 );
+                return out instanceof ByteBuffer
+                    ? new StandardStreamOutEvent( runMode, (ByteBuffer) out )
+                    : new StandardStreamOutEvent( runMode, (String) out );
             case BOOTERCODE_STDOUT_NEW_LINE:
                 checkArguments( runMode, memento, 1 );
-                return new StandardStreamOutWithNewLineEvent( runMode, (String) memento.getData().get( 0 ) );
+                Object outLine = memento.getData().get( 0 );
+                return outLine instanceof ByteBuffer
+                    ? new StandardStreamOutWithNewLineEvent( runMode, (ByteBuffer) outLine )
+                    : new StandardStreamOutWithNewLineEvent( runMode, (String) outLine );
             case BOOTERCODE_STDERR:
                 checkArguments( runMode, memento, 1 );
-                return new StandardStreamErrEvent( runMode, (String) memento.getData().get( 0 ) );
+                Object err = memento.getData().get( 0 );
+                return err instanceof ByteBuffer
+                    ? new StandardStreamErrEvent( runMode, (ByteBuffer) err )
+                    : new StandardStreamErrEvent( runMode, (String) err );
             case BOOTERCODE_STDERR_NEW_LINE:
                 checkArguments( runMode, memento, 1 );
-                return new StandardStreamErrWithNewLineEvent( runMode, (String) memento.getData().get( 0 ) );
+                Object errLine = memento.getData().get( 0 );
+                return errLine instanceof ByteBuffer
+                    ? new StandardStreamErrWithNewLineEvent( runMode, (ByteBuffer) errLine )
+                    : new StandardStreamErrWithNewLineEvent( runMode, (String) errLine );
             case BOOTERCODE_SYSPROPS:
                 checkArguments( runMode, memento, 2 );
                 String key = (String) memento.getData().get( 0 );
                 String value = (String) memento.getData().get( 1 );
                 return new SystemPropertyEvent( runMode, key, value );
             case BOOTERCODE_TESTSET_STARTING:
-                checkArguments( runMode, memento, 10 );
+                checkArguments( runMode, memento, 11 );
                 return new TestsetStartingEvent( runMode, toReportEntry( memento.getData() ) );
             case BOOTERCODE_TESTSET_COMPLETED:
-                checkArguments( runMode, memento, 10 );
+                checkArguments( runMode, memento, 11 );
                 return new TestsetCompletedEvent( runMode, toReportEntry( memento.getData() ) );
             case BOOTERCODE_TEST_STARTING:
-                checkArguments( runMode, memento, 10 );
+                checkArguments( runMode, memento, 11 );
                 return new TestStartingEvent( runMode, toReportEntry( memento.getData() ) );
             case BOOTERCODE_TEST_SUCCEEDED:
-                checkArguments( runMode, memento, 10 );
+                checkArguments( runMode, memento, 11 );
                 return new TestSucceededEvent( runMode, toReportEntry( memento.getData() ) );
             case BOOTERCODE_TEST_FAILED:
-                checkArguments( runMode, memento, 10 );
+                checkArguments( runMode, memento, 11 );
                 return new TestFailedEvent( runMode, toReportEntry( memento.getData() ) );
             case BOOTERCODE_TEST_SKIPPED:
-                checkArguments( runMode, memento, 10 );
+                checkArguments( runMode, memento, 11 );
                 return new TestSkippedEvent( runMode, toReportEntry( memento.getData() ) );
             case BOOTERCODE_TEST_ERROR:
-                checkArguments( runMode, memento, 10 );
+                checkArguments( runMode, memento, 11 );
                 return new TestErrorEvent( runMode, toReportEntry( memento.getData() ) );
             case BOOTERCODE_TEST_ASSUMPTIONFAILURE:
-                checkArguments( runMode, memento, 10 );
+                checkArguments( runMode, memento, 11 );
                 return new TestAssumptionFailureEvent( runMode, toReportEntry( memento.getData() ) );
             default:
                 throw new IllegalArgumentException( "Missing a branch for the event type " + eventType );
@@ -340,7 +486,7 @@ protected final Event toMessage( @Nonnull ForkedProcessEventType eventType,
     }
 
     @Nonnull
-    private static TestSetReportEntry toReportEntry( List<Object> args )
+    private TestSetReportEntry toReportEntry( List<Object> args )
     {
         // ReportEntry:
         String source = (String) args.get( 0 );
@@ -354,10 +500,33 @@ private static TestSetReportEntry toReportEntry( List<Object> args )
         String traceMessage = (String) args.get( 7 );
         String smartTrimmedStackTrace = (String) args.get( 8 );
         String stackTrace = (String) args.get( 9 );
+        Integer traceId = (Integer) args.get( 10 );
+        if ( traceId != null && traceId >= 0 )
+        {
+            int slot = traceId % STACK_TRACE_DICTIONARY_SIZE;
+            if ( stackTrace != null )
+            {
+                // the first event with this trace, the next events refer to its id
+                traceIds[slot] = traceId;
+                smartTrimmedStackTraces[slot] = smartTrimmedStackTrace;
+                stackTraces[slot] = stackTrace;
+            }
+            else if ( traceIds[slot] == traceId )
+            {
+                // the reporters share the strings of the trace
+                smartTrimmedStackTrace = smartTrimmedStackTraces[slot];
+                stackTrace = stackTraces[slot];
+            }
+        }
         return newReportEntry( source, sourceText, name, nameText, group, message, timeElapsed,
             traceMessage, smartTrimmedStackTrace, stackTrace );
     }
 
+    private static int toInt( Object integer )
+    {
+        return integer == null ? ResourceUsageEvent.UNAVAILABLE : (Integer) integer;
+    }
+
     private static StackTraceWriter toStackTraceWriter( List<Object> args )
     {
         String traceMessage = (String) args.get( 0 );
@@ -460,9 +629,76 @@ public Void call() throws Exception
     public void close() throws IOException
     {
         // do NOT close the channel, it's std/out.
+        if ( inflater != null )
+        {
+            inflater.end();
+        }
         if ( debugSink != null )
         {
             debugSink.close();
         }
     }
+
+    /**
+     * Reads the unpacked frames of the batches and then the stream.
+     */
+    private static final class BatchChannel implements ReadableByteChannel
+    {
+        private final ReadableByteChannel channel;
+        private ByteBuffer unread;
+
+        BatchChannel( ReadableByteChannel channel )
+        {
+            this.channel = channel;
+        }
+
+        /**
+         * @param frames    the frames of the batch
+         * @param readAhead the remaining bytes in this buffer are moved after the frames
+         */
+        void unread( ByteBuffer frames, ByteBuffer readAhead )
+        {
+            int length = frames.remaining() + readAhead.remaining() + ( unread == null ? 0 : unread.remaining() );
+            ByteBuffer bytes = ByteBuffer.allocate( length );
+            bytes.put( frames ).put( readAhead );
+            if ( unread != null )
+            {
+                bytes.put( unread );
+            }
+            ( (Buffer) bytes ).flip();
+            ( (Buffer) readAhead ).limit( ( (Buffer) readAhead ).position() );
+            unread = bytes;
+        }
+
+        @Override
+        public int read( ByteBuffer dst ) throws IOException
+        {
+            if ( unread == null )
+            {
+                return channel.read( dst );
+            }
+            int length = min( dst.remaining(), unread.remaining() );
+            int limit = ( (Buffer) unread ).limit();
+            ( (Buffer) unread ).limit( ( (Buffer) unread ).position() + length );
+            dst.put( unread );
+            ( (Buffer) unread ).limit( limit );
+            if ( !unread.hasRemaining() )
+            {
+                unread = null;
+            }
+            return length;
+        }
+
+        @Override
+        public boolean isOpen()
+        {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            channel.close();
+        }
+    }
 }
@@ -88,6 +88,7 @@
 import java.util.Set;
 
 import static java.io.File.separatorChar;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.nio.file.Files.write;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
@@ -780,6 +781,31 @@ public void shouldExistTmpDirectory() throws IOException
                 .isDirectory();
     }
 
+    @Test
+    public void shouldChangeJdkVersionWithReleaseFile() throws Exception
+    {
+        File jdkHome = tempFolder.newFolder();
+        File jvmExecutable = new File( new File( jdkHome, "bin" ), "java" );
+        JdkAttributes jdk = new JdkAttributes( jvmExecutable, jdkHome, true );
+        File release = new File( jdkHome, "release" );
+
+        write( release.toPath(), "JAVA_VERSION=\"17.0.1\"".getBytes( UTF_8 ) );
+        String version = invokeMethod( AbstractSurefireMojo.class, "getJdkVersion", jdk );
+        write( release.toPath(), "JAVA_VERSION=\"17.0.2\"".getBytes( UTF_8 ) );
+        String upgradedVersion = invokeMethod( AbstractSurefireMojo.class, "getJdkVersion", jdk );
+
+        assertThat( version )
+            .contains( "17.0.1" );
+        assertThat( upgradedVersion )
+            .isNotEqualTo( version );
+
+        //noinspection ResultOfMethodCallIgnored
+        release.delete();
+        String executableVersion = invokeMethod( AbstractSurefireMojo.class, "getJdkVersion", jdk );
+        assertThat( executableVersion )
+            .startsWith( jvmExecutable.getAbsolutePath() );
+    }
+
     @Test
     public void shouldSmartlyResolveJUnit5ProviderWithJUnit4() throws Exception
     {
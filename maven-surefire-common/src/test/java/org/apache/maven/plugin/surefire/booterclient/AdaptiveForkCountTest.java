@@ -0,0 +1,168 @@
+package org.apache.maven.plugin.surefire.booterclient;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.surefire.log.api.NullConsoleLogger;
+import org.apache.maven.plugin.surefire.booterclient.lazytestprovider.TestProvidingInputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static java.util.Arrays.asList;
+import static org.apache.maven.surefire.api.booter.Command.TEST_SET_FINISHED;
+import static org.apache.maven.plugin.surefire.booterclient.AdaptiveForkCount.STABILIZATION_SAMPLES;
+import static org.apache.maven.plugin.surefire.booterclient.SystemResources.UNKNOWN;
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * Tests for {@link AdaptiveForkCount}.
+ */
+public class AdaptiveForkCountTest
+{
+    private static final long GIB = 1024L * 1024L * 1024L;
+
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void shouldStartMoreForksIfUnderused() throws Exception
+    {
+        AdaptiveForkCount forkCount = newForkCount( 1, 3 );
+        forkCount.adapt( 1d, 8, 16 * GIB );
+        assertThat( forkCount.getTarget() )
+            .isEqualTo( 1 );
+
+        forkCount.acquire();
+        forkCount.adapt( 1d, 8, 15 * GIB );
+        assertThat( forkCount.getTarget() )
+            .isEqualTo( 2 );
+
+        forkCount.acquire();
+        stabilize( forkCount );
+        forkCount.adapt( 2d, 8, 14 * GIB );
+        assertThat( forkCount.getTarget() )
+            .isEqualTo( 3 );
+
+        forkCount.acquire();
+        stabilize( forkCount );
+        forkCount.adapt( 3d, 8, 13 * GIB );
+        assertThat( forkCount.getTarget() )
+            .isEqualTo( 3 );
+    }
+
+    @Test
+    public void shouldRunFewerForksIfOverloaded() throws Exception
+    {
+        AdaptiveForkCount forkCount = newForkCount( 1, 2 );
+        forkCount.adapt( 1d, 8, UNKNOWN );
+        forkCount.acquire();
+        forkCount.adapt( 1d, 8, UNKNOWN );
+        assertThat( forkCount.getTarget() )
+            .isEqualTo( 2 );
+
+        forkCount.adapt( 9d, 8, UNKNOWN );
+        assertThat( forkCount.getTarget() )
+            .describedAs( "stable after a change" )
+            .isEqualTo( 2 );
+
+        stabilize( forkCount );
+        forkCount.adapt( 9d, 8, UNKNOWN );
+        assertThat( forkCount.getTarget() )
+            .isEqualTo( 1 );
+
+        stabilize( forkCount );
+        forkCount.adapt( 9d, 8, UNKNOWN );
+        assertThat( forkCount.getTarget() )
+            .isEqualTo( 1 );
+    }
+
+    @Test
+    public void shouldRunFewerForksIfMemoryRunsShort() throws Exception
+    {
+        AdaptiveForkCount forkCount = newForkCount( 1, 4 );
+        forkCount.adapt( -1d, 8, 4 * GIB );
+        forkCount.acquire();
+        forkCount.adapt( -1d, 8, 3 * GIB );
+        assertThat( forkCount.getTarget() )
+            .isEqualTo( 2 );
+
+        forkCount.acquire();
+        stabilize( forkCount );
+        forkCount.adapt( -1d, 8, GIB + GIB / 2 );
+        assertThat( forkCount.getTarget() )
+            .describedAs( "not enough memory for two more forks" )
+            .isEqualTo( 2 );
+
+        forkCount.adapt( -1d, 8, GIB / 4 );
+        assertThat( forkCount.getTarget() )
+            .isEqualTo( 1 );
+    }
+
+    @Test
+    public void shouldLeaveIfTooManyForksRun() throws Exception
+    {
+        AdaptiveForkCount forkCount = newForkCount( 1, 2 );
+        forkCount.acquire();
+        forkCount.adapt( 0d, 8, UNKNOWN );
+        forkCount.acquire();
+        assertThat( forkCount.leave() )
+            .isFalse();
+
+        stabilize( forkCount );
+        forkCount.adapt( 9d, 8, UNKNOWN );
+        Queue<String> tests = new ConcurrentLinkedQueue<>( asList( "Test1", "Test2" ) );
+        TestProvidingInputStream stream = new TestProvidingInputStream( tests, forkCount );
+        stream.provideNewTest();
+        assertThat( stream.readNextCommand() )
+            .isSameAs( TEST_SET_FINISHED );
+        assertThat( stream.hasLeft() )
+            .isTrue();
+        assertThat( tests )
+            .hasSize( 2 );
+        assertThat( forkCount.leave() )
+            .isFalse();
+
+        forkCount.release();
+        forkCount.acquire();
+        assertThat( forkCount.leave() )
+            .isFalse();
+    }
+
+    private AdaptiveForkCount newForkCount( int min, int max ) throws IOException
+    {
+        return new AdaptiveForkCount( min, max, new NullConsoleLogger(), new SystemResources( tmp.newFolder() ) );
+    }
+
+    private static void stabilize( AdaptiveForkCount forkCount )
+    {
+        int target = forkCount.getTarget();
+        for ( int i = 0; i < STABILIZATION_SAMPLES; i++ )
+        {
+            // neither overloaded nor underused
+            forkCount.adapt( 6.4d, 8, UNKNOWN );
+        }
+        assertThat( forkCount.getTarget() )
+            .isEqualTo( target );
+    }
+}
@@ -0,0 +1,115 @@
+package org.apache.maven.plugin.surefire.booterclient;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.surefire.JdkAttributes;
+import org.apache.maven.plugin.surefire.log.api.NullConsoleLogger;
+import org.apache.maven.surefire.booter.Classpath;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonList;
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * Tests for {@link ClassDataSharing}.
+ */
+public class ClassDataSharingTest
+{
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void shouldSupportJava13AndLater() throws IOException
+    {
+        assertThat( ClassDataSharing.isSupported( newJdk( "17.0.9" ) ) )
+            .isTrue();
+
+        assertThat( ClassDataSharing.isSupported( newJdk( "13" ) ) )
+            .isTrue();
+
+        assertThat( ClassDataSharing.isSupported( newJdk( "11.0.21" ) ) )
+            .isFalse();
+
+        assertThat( ClassDataSharing.isSupported( newJdk( "1.8.0_392" ) ) )
+            .isFalse();
+
+        assertThat( ClassDataSharing.isSupported( new JdkAttributes( new File( "java" ), null, true ) ) )
+            .isFalse();
+    }
+
+    @Test
+    public void shouldUseExistingArchive() throws IOException
+    {
+        JdkAttributes jdk = newJdk( "17.0.9" );
+        Classpath booterClasspath = newClasspath( "booter.jar", "classes" );
+        ClassDataSharing classDataSharing = new ClassDataSharing( tmp.newFolder(), new NullConsoleLogger() );
+        File archive = classDataSharing.getArchive( jdk, booterClasspath );
+        assertThat( archive.getName() )
+            .startsWith( "surefire-" )
+            .endsWith( ".jsa" );
+
+        Files.write( archive.toPath(), new byte[] {1} );
+
+        assertThat( classDataSharing.getJvmOption( jdk, booterClasspath, "Trainer" ) )
+            .isEqualTo( "-XX:SharedArchiveFile=" + archive.getAbsolutePath() );
+    }
+
+    @Test
+    public void shouldKeyArchiveByJdkAndClasspath() throws IOException
+    {
+        JdkAttributes jdk = newJdk( "17.0.9" );
+        Classpath booterClasspath = newClasspath( "booter.jar", "classes" );
+        ClassDataSharing classDataSharing = new ClassDataSharing( tmp.newFolder(), new NullConsoleLogger() );
+        File archive = classDataSharing.getArchive( jdk, booterClasspath );
+
+        assertThat( classDataSharing.getArchive( jdk, booterClasspath ) )
+            .isEqualTo( archive );
+
+        assertThat( classDataSharing.getArchive( newJdk( "17.0.10" ), booterClasspath ) )
+            .isNotEqualTo( archive );
+
+        Files.write( new File( booterClasspath.getClassPath().get( 0 ) ).toPath(), "changed classes".getBytes( UTF_8 ) );
+        assertThat( classDataSharing.getArchive( jdk, booterClasspath ) )
+            .isNotEqualTo( archive );
+    }
+
+    private JdkAttributes newJdk( String javaVersion ) throws IOException
+    {
+        File jdkHome = tmp.newFolder();
+        Files.write( new File( jdkHome, "release" ).toPath(),
+            ( "JAVA_VERSION=\"" + javaVersion + "\"\n" ).getBytes( UTF_8 ) );
+        File java = new File( new File( jdkHome, "bin" ), "java" );
+        return new JdkAttributes( java, jdkHome, true );
+    }
+
+    private Classpath newClasspath( String jar, String content ) throws IOException
+    {
+        File file = new File( tmp.getRoot(), jar );
+        Files.write( file.toPath(), content.getBytes( UTF_8 ) );
+        return new Classpath( singletonList( file.getAbsolutePath() ) );
+    }
+}
@@ -0,0 +1,399 @@
+package org.apache.maven.plugin.surefire.booterclient;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.surefire.JdkAttributes;
+import org.apache.maven.plugin.surefire.StartupReportConfiguration;
+import org.apache.maven.plugin.surefire.SurefireProperties;
+import org.apache.maven.plugin.surefire.extensions.SurefireForkNodeFactory;
+import org.apache.maven.plugin.surefire.log.api.NullConsoleLogger;
+import org.apache.maven.surefire.api.booter.Shutdown;
+import org.apache.maven.surefire.api.cli.CommandLineOption;
+import org.apache.maven.surefire.api.provider.ProviderParameters;
+import org.apache.maven.surefire.api.provider.SurefireProvider;
+import org.apache.maven.surefire.api.report.ReporterConfiguration;
+import org.apache.maven.surefire.api.suite.RunResult;
+import org.apache.maven.surefire.api.testset.RunOrderParameters;
+import org.apache.maven.surefire.api.testset.TestRequest;
+import org.apache.maven.surefire.api.testset.TestSetFailedException;
+import org.apache.maven.surefire.api.util.DefaultScanResult;
+import org.apache.maven.surefire.booter.ClassLoaderConfiguration;
+import org.apache.maven.surefire.booter.Classpath;
+import org.apache.maven.surefire.booter.ClasspathConfiguration;
+import org.apache.maven.surefire.booter.ProviderConfiguration;
+import org.apache.maven.surefire.booter.StartupConfiguration;
+import org.apache.maven.surefire.shared.io.FileUtils;
+import org.apache.maven.surefire.shared.utils.cli.Commandline;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Properties;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.readAllBytes;
+import static java.nio.file.Files.write;
+import static java.util.Arrays.asList;
+import static org.apache.maven.plugin.surefire.booterclient.output.EventQueueWaitStrategy.PARK;
+import static org.apache.maven.surefire.booter.Classpath.emptyClasspath;
+import static org.apache.maven.surefire.booter.PooledForkedBooter.TEST_SET_FINISHED;
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * Tests for {@link ForkPool} and {@link PooledFork}.
+ */
+public class ForkPoolTest
+{
+    private static final String JVM_NAME_FILE = "jvm-name.txt";
+
+    @Test
+    public void shouldComputeEqualKeysOfEqualCommandLines()
+    {
+        assertThat( ForkPool.toKey( newCommandline( "-Xmx1g" ) ) )
+            .isEqualTo( ForkPool.toKey( newCommandline( "-Xmx1g" ) ) );
+
+        assertThat( ForkPool.toKey( newCommandline( "-Xmx1g" ) ) )
+            .isNotEqualTo( ForkPool.toKey( newCommandline( "-Xmx2g" ) ) );
+    }
+
+    @Test
+    public void shouldComputeKeyOfBooterClasspath()
+    {
+        Commandline cli = newCommandline( "-Xmx1g" );
+        cli.addEnvironment( "CLASSPATH", "surefire-booter.jar" );
+        Commandline otherCli = newCommandline( "-Xmx1g" );
+        otherCli.addEnvironment( "CLASSPATH", "surefire-booter.jar" + File.pathSeparator + "surefire-api.jar" );
+
+        assertThat( ForkPool.toKey( cli ) )
+            .isNotEqualTo( ForkPool.toKey( otherCli ) );
+    }
+
+    @Test
+    public void shouldNotComputeKeyOfWorkingDirectory()
+    {
+        Commandline cli = newCommandline( "-Xmx1g" );
+        cli.setWorkingDirectory( "module1" );
+        Commandline otherCli = newCommandline( "-Xmx1g" );
+        otherCli.setWorkingDirectory( "module2" );
+
+        assertThat( ForkPool.toKey( cli ) )
+            .isEqualTo( ForkPool.toKey( otherCli ) );
+    }
+
+    @Test
+    public void shouldForwardNativeOutputOfTestSet() throws Exception
+    {
+        FakeProcess process = new FakeProcess();
+        PooledFork fork = new PooledFork( "key", "build", process );
+        File workingDirectory = new File( "module" );
+        fork.runTestSet( workingDirectory, asList( "tmp", "dump", "surefire.properties" ) );
+
+        assertThat( new String( process.requests.toByteArray(), UTF_8 ) )
+            .isEqualTo( workingDirectory.getAbsolutePath() + "\ttmp\tdump\tsurefire.properties\n" );
+
+        process.stdOut.write( ( "hello\n" + TEST_SET_FINISHED + "\n" ).getBytes( UTF_8 ) );
+        process.stdOut.flush();
+        process.stdErr.write( ( "error" + TEST_SET_FINISHED + "\n" ).getBytes( UTF_8 ) );
+        process.stdErr.flush();
+
+        assertThat( readFully( fork.getStdOutChannel() ) )
+            .isEqualTo( "hello\n" );
+        assertThat( readFully( fork.getStdErrChannel() ) )
+            .isEqualTo( "error\n" );
+        assertThat( fork.awaitTestSet() )
+            .isEqualTo( 0 );
+        assertThat( fork.isAlive() )
+            .isTrue();
+        assertThat( fork.isIdle() )
+            .isTrue();
+        fork.destroy();
+    }
+
+    @Test
+    public void shouldReturnExitCodeOfTerminatedFork() throws Exception
+    {
+        FakeProcess process = new FakeProcess();
+        PooledFork fork = new PooledFork( "key", "build", process );
+        fork.runTestSet( new File( "module" ), asList( "tmp", "dump", "surefire.properties" ) );
+
+        process.stdOut.close();
+        process.stdErr.close();
+
+        assertThat( fork.awaitTestSet() )
+            .isEqualTo( 1 );
+        assertThat( fork.isAlive() )
+            .isFalse();
+    }
+
+    @Test
+    public void shouldReuseIdleFork() throws Exception
+    {
+        Commandline cli = newCommandline( "-Xmx1g" );
+        ForkPool pool = new ForkPool();
+        pool.joinReactorBuild( "build" );
+        PooledFork fork = new PooledFork( ForkPool.toKey( cli ), "build", new FakeProcess() );
+
+        pool.release( fork );
+        assertThat( pool.countIdleForks() )
+            .isEqualTo( 1 );
+
+        assertThat( pool.lease( cli, "build" ) )
+            .isSameAs( fork );
+        assertThat( pool.countIdleForks() )
+            .isEqualTo( 0 );
+
+        fork.destroy();
+        pool.release( fork );
+        assertThat( pool.countIdleForks() )
+            .isEqualTo( 0 );
+    }
+
+    @Test
+    public void shouldDestroyIdleForksAtEndOfReactorBuild() throws Exception
+    {
+        ForkPool pool = new ForkPool();
+        pool.joinReactorBuild( "build" );
+        PooledFork fork = new PooledFork( "key", "build", new FakeProcess() );
+        PooledFork runningFork = new PooledFork( "key", "build", new FakeProcess() );
+        pool.release( fork );
+        assertThat( pool.countIdleForks() )
+            .isEqualTo( 1 );
+
+        pool.endReactorBuild( "build" );
+        assertThat( pool.countIdleForks() )
+            .isEqualTo( 0 );
+        assertThat( fork.isAlive() )
+            .isFalse();
+
+        // the fork of a parallel module which has finished after the last module
+        pool.joinReactorBuild( "build" );
+        pool.release( runningFork );
+        assertThat( pool.countIdleForks() )
+            .isEqualTo( 0 );
+        assertThat( runningFork.isAlive() )
+            .isFalse();
+    }
+
+    @Test
+    public void shouldNotReuseForksOfPreviousReactorBuild() throws Exception
+    {
+        ForkPool pool = new ForkPool();
+        pool.joinReactorBuild( "build1" );
+        PooledFork fork = new PooledFork( "key", "build1", new FakeProcess() );
+        pool.release( fork );
+        assertThat( pool.countIdleForks() )
+            .isEqualTo( 1 );
+
+        pool.joinReactorBuild( "build2" );
+        assertThat( pool.countIdleForks() )
+            .isEqualTo( 0 );
+        assertThat( fork.isAlive() )
+            .isFalse();
+    }
+
+    @Test
+    public void shouldRunTestSetsOfTwoModulesInOneForkedJvm() throws Exception
+    {
+        File basedir = new File( new File( System.getProperty( "user.dir" ), "target" ), "ForkPoolTest" );
+        FileUtils.deleteDirectory( basedir );
+        File module1 = new File( basedir, "module1" );
+        File module2 = new File( basedir, "module2" );
+        String reactorBuild = "ForkPoolTest@" + System.nanoTime();
+        ForkPool pool = ForkPool.getForkPool();
+        try
+        {
+            assertThat( runTestSet( module1, reactorBuild ).isFailureOrTimeout() )
+                .isFalse();
+            assertThat( pool.countIdleForks() )
+                .isEqualTo( 1 );
+
+            assertThat( runTestSet( module2, reactorBuild ).isFailureOrTimeout() )
+                .isFalse();
+            assertThat( pool.countIdleForks() )
+                .isEqualTo( 1 );
+
+            // the provider has run in the same JVM with the working directory of each module
+            String jvmOfModule1 = new String( readAllBytes( new File( module1, JVM_NAME_FILE ).toPath() ), UTF_8 );
+            String jvmOfModule2 = new String( readAllBytes( new File( module2, JVM_NAME_FILE ).toPath() ), UTF_8 );
+            assertThat( jvmOfModule2 )
+                .isEqualTo( jvmOfModule1 )
+                .isNotEqualTo( ManagementFactory.getRuntimeMXBean().getName() );
+        }
+        finally
+        {
+            ForkStarter.endReactorBuild( reactorBuild );
+        }
+
+        assertThat( pool.countIdleForks() )
+            .isEqualTo( 0 );
+    }
+
+    private static RunResult runTestSet( File module, String reactorBuild ) throws Exception
+    {
+        File tmp = new File( module, "tmp" );
+        File reports = new File( module, "reports" );
+        assertThat( tmp.mkdirs() )
+            .isTrue();
+
+        File jvm = new File( new File( System.getProperty( "java.home" ), "bin" ), "java" );
+        Platform platform = new Platform().withJdkExecAttributesForTests(
+            new JdkAttributes( jvm.getAbsolutePath(), false ) );
+        Classpath booterClasspath =
+            new Classpath( asList( System.getProperty( "java.class.path" ).split( File.pathSeparator ) ) );
+        ForkConfiguration forkConfiguration = new ClasspathForkConfiguration( booterClasspath, tmp, null, module,
+            new Properties(), null, Collections.<String, String>emptyMap(), new String[0], false, 1, true, platform,
+            new NullConsoleLogger(), new SurefireForkNodeFactory() );
+
+        StartupConfiguration startupConfiguration = new StartupConfiguration( PooledForkProvider.class.getName(),
+            new ClasspathConfiguration( emptyClasspath(), emptyClasspath(), emptyClasspath(), false, false ),
+            new ClassLoaderConfiguration( false, false ), null, Collections.<String[]>emptyList() );
+
+        ProviderConfiguration providerConfiguration = new ProviderConfiguration( null,
+            new RunOrderParameters( "filesystem", null, 0L ), new ReporterConfiguration( reports, false ), null,
+            new TestRequest( Collections.emptyList(), module, null ), new HashMap<String, String>(), null, false,
+            Collections.<CommandLineOption>emptyList(), 0, Shutdown.DEFAULT, 30 );
+
+        StartupReportConfiguration startupReportConfiguration = new StartupReportConfiguration( false, false, null,
+            false, reports, false, "", null, false, 0, null, null, true, null, null, null );
+
+        ForkStarter forkStarter = new ForkStarter( providerConfiguration, startupConfiguration, forkConfiguration,
+            30, startupReportConfiguration, new NullConsoleLogger(), false, 0, reactorBuild, PARK, null, 0, null );
+
+        return forkStarter.run( new SurefireProperties(),
+            new DefaultScanResult( Collections.<String>emptyList() ) );
+    }
+
+    private static Commandline newCommandline( String jvmArgument )
+    {
+        Commandline cli = new Commandline();
+        cli.setExecutable( "java" );
+        cli.createArg().setValue( jvmArgument );
+        cli.createArg().setValue( "org.apache.maven.surefire.booter.PooledForkedBooter" );
+        return cli;
+    }
+
+    private static String readFully( ReadableByteChannel channel ) throws Exception
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ByteBuffer buffer = ByteBuffer.allocate( 64 );
+        while ( channel.read( buffer ) != -1 )
+        {
+            bytes.write( buffer.array(), 0, buffer.position() );
+            buffer.clear();
+        }
+        return new String( bytes.toByteArray(), UTF_8 );
+    }
+
+    /**
+     * Writes the name of its JVM to the working directory of the module.
+     */
+    public static final class PooledForkProvider implements SurefireProvider
+    {
+        public PooledForkProvider( ProviderParameters parameters )
+        {
+        }
+
+        @Override
+        public Iterable<Class<?>> getSuites()
+        {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public RunResult invoke( Object forkTestSet ) throws TestSetFailedException
+        {
+            try
+            {
+                File jvmName = new File( System.getProperty( "user.dir" ), JVM_NAME_FILE );
+                write( jvmName.toPath(), ManagementFactory.getRuntimeMXBean().getName().getBytes( UTF_8 ) );
+                return new RunResult( 0, 0, 0, 0 );
+            }
+            catch ( IOException e )
+            {
+                throw new TestSetFailedException( e );
+            }
+        }
+
+        @Override
+        public void cancel()
+        {
+        }
+    }
+
+    private static final class FakeProcess extends Process
+    {
+        private final ByteArrayOutputStream requests = new ByteArrayOutputStream();
+        private final PipedOutputStream stdOut = new PipedOutputStream();
+        private final PipedOutputStream stdErr = new PipedOutputStream();
+        private final PipedInputStream stdOutSource;
+        private final PipedInputStream stdErrSource;
+
+        FakeProcess() throws Exception
+        {
+            stdOutSource = new PipedInputStream( stdOut );
+            stdErrSource = new PipedInputStream( stdErr );
+        }
+
+        @Override
+        public OutputStream getOutputStream()
+        {
+            return requests;
+        }
+
+        @Override
+        public InputStream getInputStream()
+        {
+            return stdOutSource;
+        }
+
+        @Override
+        public InputStream getErrorStream()
+        {
+            return stdErrSource;
+        }
+
+        @Override
+        public int waitFor()
+        {
+            return 1;
+        }
+
+        @Override
+        public int exitValue()
+        {
+            return 1;
+        }
+
+        @Override
+        public void destroy()
+        {
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.apache.maven.plugin.surefire.booterclient;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * Tests for {@link LongestFirstTestScheduler}.
+ */
+@SuppressWarnings( "checkstyle:magicnumber" )
+public class LongestFirstTestSchedulerTest
+{
+    @Test
+    public void shouldScheduleLongestFirst()
+    {
+        Map<String, Integer> runTimes = new HashMap<>();
+        runTimes.put( A.class.getName(), 10 );
+        runTimes.put( B.class.getName(), 300 );
+        runTimes.put( C.class.getName(), 20 );
+        LongestFirstTestScheduler scheduler = new LongestFirstTestScheduler( runTimes, 100 );
+
+        List<Class<?>> scheduled = scheduler.schedule( asList( A.class, B.class, C.class, D.class ) );
+
+        assertThat( scheduled )
+            .containsExactly( B.class, D.class, C.class, A.class );
+    }
+
+    @Test
+    public void shouldKeepOrderOfTies()
+    {
+        LongestFirstTestScheduler scheduler = new LongestFirstTestScheduler( new HashMap<String, Integer>(), 100 );
+
+        List<Class<?>> scheduled = scheduler.schedule( asList( C.class, A.class, B.class ) );
+
+        assertThat( scheduled )
+            .containsExactly( C.class, A.class, B.class );
+    }
+
+    @Test
+    public void shouldPredictMakespan()
+    {
+        Map<String, Integer> runTimes = new HashMap<>();
+        runTimes.put( A.class.getName(), 40 );
+        runTimes.put( B.class.getName(), 30 );
+        runTimes.put( C.class.getName(), 20 );
+        runTimes.put( D.class.getName(), 10 );
+        LongestFirstTestScheduler scheduler = new LongestFirstTestScheduler( runTimes, 0 );
+
+        assertThat( scheduler.predictMakespan( asList( A.class, B.class, C.class, D.class ), 2 ) )
+            .isEqualTo( 50L );
+
+        assertThat( scheduler.predictMakespan( asList( D.class, C.class, B.class, A.class ), 2 ) )
+            .isEqualTo( 60L );
+
+        assertThat( scheduler.predictMakespan( asList( A.class, B.class, C.class, D.class ), 1 ) )
+            .isEqualTo( 100L );
+    }
+
+    @Test
+    public void shouldReadStatisticsFile() throws Exception
+    {
+        File statistics = File.createTempFile( "surefire-unit", "test" );
+        statistics.deleteOnExit();
+        String content = "1,17," + A.class.getName() + ",testA1\n"
+            + "1,25," + A.class.getName() + ",testA2\n"
+            + "1,5," + B.class.getName() + ",testB\n";
+        Files.write( statistics.toPath(), content.getBytes( UTF_8 ) );
+
+        LongestFirstTestScheduler scheduler = LongestFirstTestScheduler.fromStatisticsFile( statistics, 1000 );
+
+        assertThat( scheduler.estimateRunTime( A.class ) )
+            .isEqualTo( 42 );
+        assertThat( scheduler.estimateRunTime( B.class ) )
+            .isEqualTo( 5 );
+        assertThat( scheduler.estimateRunTime( C.class ) )
+            .isEqualTo( 1000 );
+    }
+
+    @Test
+    public void shouldFallbackWithoutStatisticsFile()
+    {
+        LongestFirstTestScheduler scheduler = LongestFirstTestScheduler.fromStatisticsFile( null, 1000 );
+
+        assertThat( scheduler.estimateRunTime( A.class ) )
+            .isEqualTo( 1000 );
+    }
+
+    private static class A
+    {
+    }
+
+    private static class B
+    {
+    }
+
+    private static class C
+    {
+    }
+
+    private static class D
+    {
+    }
+}
@@ -0,0 +1,113 @@
+package org.apache.maven.plugin.surefire.booterclient;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * Tests for {@link SystemResources} with the files of Linux in a fake root directory.
+ */
+public class SystemResourcesTest
+{
+    private static final long MIB = 1024L * 1024L;
+
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void shouldReadAvailableMemory() throws IOException
+    {
+        File root = tmp.newFolder();
+        write( root, "proc/meminfo", "MemTotal:       16318436 kB\nMemFree:         1024000 kB\n"
+            + "MemAvailable:    2097152 kB\nBuffers:          123456 kB\n" );
+
+        SystemResources resources = new SystemResources( root );
+
+        assertThat( resources.getAvailableMemory() )
+            .isEqualTo( 2048L * MIB );
+        assertThat( resources.getCpus() )
+            .isEqualTo( Runtime.getRuntime().availableProcessors() );
+    }
+
+    @Test
+    public void shouldApplyLimitsOfControlGroup() throws IOException
+    {
+        File root = tmp.newFolder();
+        write( root, "proc/meminfo", "MemAvailable:    8388608 kB\n" );
+        write( root, "proc/self/cgroup", "0::/user.slice/build.scope\n" );
+        write( root, "sys/fs/cgroup/user.slice/build.scope/cpu.max", "100000 100000\n" );
+        write( root, "sys/fs/cgroup/user.slice/build.scope/memory.max", 1024L * MIB + "\n" );
+        write( root, "sys/fs/cgroup/user.slice/build.scope/memory.current", 768L * MIB + "\n" );
+        write( root, "sys/fs/cgroup/user.slice/build.scope/memory.stat",
+            "anon 402653184\nfile 268435456\ninactive_file " + 128L * MIB + "\nactive_file 134217728\n" );
+
+        SystemResources resources = new SystemResources( root );
+
+        assertThat( resources.getAvailableMemory() )
+            .isEqualTo( 384L * MIB );
+        assertThat( resources.getCpus() )
+            .isEqualTo( 1 );
+    }
+
+    @Test
+    public void shouldIgnoreUnlimitedControlGroup() throws IOException
+    {
+        File root = tmp.newFolder();
+        write( root, "proc/meminfo", "MemAvailable:    1048576 kB\n" );
+        write( root, "proc/self/cgroup", "0::/\n" );
+        write( root, "sys/fs/cgroup/cpu.max", "max 100000\n" );
+        write( root, "sys/fs/cgroup/memory.max", "max\n" );
+        write( root, "sys/fs/cgroup/memory.current", 768L * MIB + "\n" );
+
+        SystemResources resources = new SystemResources( root );
+
+        assertThat( resources.getAvailableMemory() )
+            .isEqualTo( 1024L * MIB );
+        assertThat( resources.getCpus() )
+            .isEqualTo( Runtime.getRuntime().availableProcessors() );
+    }
+
+    @Test
+    public void shouldRoundUpCpuQuota() throws IOException
+    {
+        File root = tmp.newFolder();
+        write( root, "sys/fs/cgroup/cpu.max", "50000 100000\n" );
+
+        assertThat( new SystemResources( root ).getCpus() )
+            .isEqualTo( 1 );
+    }
+
+    private static void write( File root, String path, String content ) throws IOException
+    {
+        File file = new File( root, path );
+        assertThat( file.getParentFile().mkdirs() || file.getParentFile().isDirectory() )
+            .isTrue();
+        Files.write( file.toPath(), content.getBytes( US_ASCII ) );
+    }
+}
@@ -0,0 +1,178 @@
+package org.apache.maven.plugin.surefire.booterclient;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.junit.Test;
+
+import java.lang.annotation.Retention;
+import java.util.List;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import static org.apache.maven.surefire.api.util.TestClassChunk.toClassName;
+import static org.apache.maven.surefire.api.util.TestClassChunk.toMethods;
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * Tests for {@link TestMethodChunker}. The annotation {@link Testable} stands for the annotation of JUnit Platform.
+ */
+public class TestMethodChunkerTest
+{
+    @Test
+    public void shouldSplitTestMethodsInChunks()
+    {
+        List<String> chunks = newChunker( 2 ).split( ChunkedTest.class );
+
+        assertThat( chunks )
+            .hasSize( 2 );
+        assertThat( toClassName( chunks.get( 0 ) ) )
+            .isEqualTo( ChunkedTest.class.getName() );
+        assertThat( toMethods( chunks.get( 0 ) ) )
+            .containsExactly( "a()", "b(java.lang.String,int)" );
+        assertThat( toMethods( chunks.get( 1 ) ) )
+            .containsExactly( "c()", "d()" );
+    }
+
+    @Test
+    public void shouldNotFindOverriddenMethodWithoutAnnotation()
+    {
+        List<String> chunks = newChunker( 3 ).split( OverridingTest.class );
+
+        assertThat( chunks )
+            .hasSize( 2 );
+        assertThat( toMethods( chunks.get( 0 ) ) )
+            .containsExactly( "a()", "b(java.lang.String,int)", "c()" );
+        assertThat( toMethods( chunks.get( 1 ) ) )
+            .containsExactly( "f()" );
+    }
+
+    @Test
+    public void shouldNotSplitSmallClass()
+    {
+        assertThat( newChunker( 5 ).split( ChunkedTest.class ) )
+            .containsExactly( ChunkedTest.class.getName() );
+        assertThat( newChunker( 1 ).split( AbstractBaseTest.class ) )
+            .containsExactly( AbstractBaseTest.class.getName() );
+        assertThat( newChunker( 1 ).split( String.class ) )
+            .containsExactly( String.class.getName() );
+    }
+
+    @Test
+    public void shouldNotSplitWithoutJUnitPlatform()
+    {
+        assertThat( new TestMethodChunker( 1 ).split( ChunkedTest.class ) )
+            .containsExactly( ChunkedTest.class.getName() );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void shouldRejectEmptyChunks()
+    {
+        new TestMethodChunker( 0 );
+    }
+
+    private static TestMethodChunker newChunker( int chunkSize )
+    {
+        return new TestMethodChunker( chunkSize, Testable.class.getName() );
+    }
+
+    /**
+     *
+     */
+    @Retention( RUNTIME )
+    public @interface Testable
+    {
+    }
+
+    /**
+     *
+     */
+    @Retention( RUNTIME )
+    @Testable
+    public @interface MyTest
+    {
+    }
+
+    /**
+     *
+     */
+    public abstract static class AbstractBaseTest
+    {
+        public void a()
+        {
+        }
+
+        @MyTest
+        public void d()
+        {
+        }
+    }
+
+    /**
+     *
+     */
+    public static class ChunkedTest extends AbstractBaseTest implements Runnable
+    {
+        @MyTest
+        @Override
+        public void a()
+        {
+        }
+
+        @Testable
+        void b( String s, int i )
+        {
+        }
+
+        @MyTest
+        protected void c()
+        {
+        }
+
+        @Override
+        public void run()
+        {
+        }
+
+        @MyTest
+        private void privateMethod()
+        {
+        }
+
+        @MyTest
+        public static void staticMethod()
+        {
+        }
+    }
+
+    /**
+     *
+     */
+    public static class OverridingTest extends ChunkedTest
+    {
+        @Override
+        public void d()
+        {
+        }
+
+        @MyTest
+        public void f()
+        {
+        }
+    }
+}
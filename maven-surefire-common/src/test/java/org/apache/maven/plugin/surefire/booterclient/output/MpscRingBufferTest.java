@@ -0,0 +1,286 @@
+package org.apache.maven.plugin.surefire.booterclient.output;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.apache.maven.plugin.surefire.booterclient.output.EventQueueWaitStrategy.PARK;
+import static org.apache.maven.plugin.surefire.booterclient.output.EventQueueWaitStrategy.SPIN;
+import static org.apache.maven.plugin.surefire.booterclient.output.EventQueueWaitStrategy.YIELD;
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * Tests for {@link MpscRingBuffer}.
+ */
+@SuppressWarnings( "checkstyle:magicnumber" )
+public class MpscRingBufferTest
+{
+    @Test
+    public void shouldTransferFromManyProducers() throws Exception
+    {
+        final MpscRingBuffer<Integer> queue = new MpscRingBuffer<>( 8 * 1024, PARK );
+        final CountDownLatch countDown = new CountDownLatch( 5_000_000 );
+        final AtomicBoolean stopped = new AtomicBoolean();
+        final long[] sum = new long[1];
+
+        Thread consumer = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                List<Integer> batch = new ArrayList<>( 256 );
+                while ( !stopped.get() )
+                {
+                    if ( queue.drainTo( batch, 256 ) == 0 )
+                    {
+                        queue.awaitNotEmpty( stopped );
+                    }
+                    for ( Integer item : batch )
+                    {
+                        sum[0] += item;
+                        countDown.countDown();
+                    }
+                    batch.clear();
+                }
+            }
+        };
+        consumer.setDaemon( true );
+        consumer.start();
+
+        long t1 = System.currentTimeMillis();
+
+        Thread[] producers = new Thread[4];
+        for ( int p = 0; p < producers.length; p++ )
+        {
+            producers[p] = new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    for ( int i = 0; i < 1_250_000; i++ )
+                    {
+                        queue.put( i );
+                    }
+                }
+            };
+            producers[p].start();
+        }
+
+        assertThat( countDown.await( 10L, SECONDS ) )
+            .isTrue();
+
+        long t2 = System.currentTimeMillis();
+        System.out.println( ( t2 - t1 ) + " millis in shouldTransferFromManyProducers()" );
+
+        stopped.set( true );
+        queue.wakeUpConsumer();
+        consumer.join();
+
+        assertThat( sum[0] )
+            .isEqualTo( 4L * 1_249_999L * 1_250_000L / 2L );
+    }
+
+    @Test
+    public void shouldDrainInBatches()
+    {
+        MpscRingBuffer<String> queue = new MpscRingBuffer<>( 8, SPIN );
+        for ( int i = 0; i < 5; i++ )
+        {
+            assertThat( queue.offer( "" + i ) )
+                .isTrue();
+        }
+
+        assertThat( queue.size() )
+            .isEqualTo( 5 );
+
+        List<String> batch = new ArrayList<>();
+        assertThat( queue.drainTo( batch, 3 ) )
+            .isEqualTo( 3 );
+        assertThat( batch )
+            .containsExactly( "0", "1", "2" );
+
+        batch.clear();
+        assertThat( queue.drainTo( batch, 3 ) )
+            .isEqualTo( 2 );
+        assertThat( batch )
+            .containsExactly( "3", "4" );
+
+        assertThat( queue.isEmpty() )
+            .isTrue();
+        assertThat( queue.poll() )
+            .isNull();
+        assertThat( queue.getMaxDepth() )
+            .isEqualTo( 5 );
+    }
+
+    @Test
+    public void shouldRejectWhenFull()
+    {
+        MpscRingBuffer<String> queue = new MpscRingBuffer<>( 2, YIELD );
+        assertThat( queue.offer( "1" ) )
+            .isTrue();
+        assertThat( queue.offer( "2" ) )
+            .isTrue();
+        assertThat( queue.offer( "3" ) )
+            .isFalse();
+
+        assertThat( queue.poll() )
+            .isEqualTo( "1" );
+        assertThat( queue.offer( "3" ) )
+            .isTrue();
+        assertThat( queue.poll() )
+            .isEqualTo( "2" );
+        assertThat( queue.poll() )
+            .isEqualTo( "3" );
+        assertThat( queue.poll() )
+            .isNull();
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void shouldRequirePowerOfTwo()
+    {
+        new MpscRingBuffer<String>( 10_000, PARK );
+    }
+
+    @Test
+    public void shouldMeasureProducerStalls() throws Exception
+    {
+        final MpscRingBuffer<String> queue = new MpscRingBuffer<>( 2, PARK );
+        queue.put( "1" );
+        queue.put( "2" );
+
+        Thread producer = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                queue.put( "3" );
+            }
+        };
+        producer.setDaemon( true );
+        producer.start();
+
+        SECONDS.sleep( 1L );
+        assertThat( queue.getProducerStalls() )
+            .isEqualTo( 0L );
+
+        assertThat( queue.poll() )
+            .isEqualTo( "1" );
+        producer.join( 5_000L );
+
+        assertThat( producer.isAlive() )
+            .isFalse();
+        assertThat( queue.getProducerStalls() )
+            .isEqualTo( 1L );
+        assertThat( queue.getProducerStallNanos() )
+            .isGreaterThan( SECONDS.toNanos( 1L ) / 2L );
+    }
+
+    @Test
+    public void shouldParkConsumerOnEmptyQueue() throws Exception
+    {
+        final MpscRingBuffer<String> queue = new MpscRingBuffer<>( 2, PARK );
+        final AtomicBoolean stopped = new AtomicBoolean();
+
+        Thread consumer = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                queue.awaitNotEmpty( stopped );
+            }
+        };
+        consumer.setDaemon( true );
+        consumer.start();
+
+        SECONDS.sleep( 1L );
+        assertThat( consumer.getState() )
+            .isEqualTo( Thread.State.WAITING );
+
+        queue.put( "1" );
+        consumer.join( 5_000L );
+
+        assertThat( consumer.isAlive() )
+            .isFalse();
+    }
+
+    @Test
+    public void shouldWakeUpStoppedConsumer() throws Exception
+    {
+        final MpscRingBuffer<String> queue = new MpscRingBuffer<>( 2, PARK );
+        final AtomicBoolean stopped = new AtomicBoolean();
+
+        Thread consumer = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                queue.awaitNotEmpty( stopped );
+            }
+        };
+        consumer.setDaemon( true );
+        consumer.start();
+
+        SECONDS.sleep( 1L );
+        stopped.set( true );
+        queue.wakeUpConsumer();
+        consumer.join( 5_000L );
+
+        assertThat( consumer.isAlive() )
+            .isFalse();
+        assertThat( queue.isEmpty() )
+            .isTrue();
+    }
+
+    @Test
+    public void shouldKeepInterruptOfConsumer() throws Exception
+    {
+        final MpscRingBuffer<String> queue = new MpscRingBuffer<>( 2, PARK );
+        final AtomicBoolean stopped = new AtomicBoolean();
+        final AtomicBoolean interrupted = new AtomicBoolean();
+
+        Thread consumer = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                queue.awaitNotEmpty( stopped );
+                interrupted.set( isInterrupted() );
+            }
+        };
+        consumer.setDaemon( true );
+        consumer.start();
+
+        SECONDS.sleep( 1L );
+        consumer.interrupt();
+        consumer.join( 5_000L );
+
+        assertThat( consumer.isAlive() )
+            .isFalse();
+        assertThat( interrupted.get() )
+            .isTrue();
+    }
+}
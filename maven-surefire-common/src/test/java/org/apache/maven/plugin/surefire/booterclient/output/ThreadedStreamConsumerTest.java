@@ -19,16 +19,15 @@
  * under the License.
  */
 
-import org.apache.maven.plugin.surefire.booterclient.output.ThreadedStreamConsumer.QueueSynchronizer;
 import org.apache.maven.surefire.api.event.Event;
 import org.apache.maven.surefire.api.event.StandardStreamOutWithNewLineEvent;
 import org.apache.maven.surefire.extensions.EventHandler;
 import org.junit.Test;
 
 import javax.annotation.Nonnull;
-import java.util.concurrent.Callable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.FutureTask;
 
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.apache.maven.surefire.api.report.RunMode.NORMAL_RUN;
@@ -41,32 +40,19 @@
 public class ThreadedStreamConsumerTest
 {
     @Test
-    public void testQueueSynchronizer() throws Exception
+    public void testThreadedStreamConsumer() throws Exception
     {
         final CountDownLatch countDown = new CountDownLatch( 5_000_000 );
-        final QueueSynchronizer<Integer> sync = new QueueSynchronizer<>(  8 * 1024, null );
-
-        Thread t = new Thread()
+        EventHandler<Event> handler = new EventHandler<Event>()
         {
             @Override
-            public void run()
+            public void handleEvent( @Nonnull Event event )
             {
-                while ( true )
-                {
-                    try
-                    {
-                        sync.awaitNext();
-                        countDown.countDown();
-                    }
-                    catch ( InterruptedException e )
-                    {
-                        throw new IllegalStateException( e );
-                    }
-                }
+                countDown.countDown();
             }
         };
-        t.setDaemon( true );
-        t.start();
+
+        ThreadedStreamConsumer streamConsumer = new ThreadedStreamConsumer( handler );
 
         SECONDS.sleep( 1 );
         System.gc();
@@ -74,78 +60,97 @@ public void run()
 
         long t1 = System.currentTimeMillis();
 
+        Event event = new StandardStreamOutWithNewLineEvent( NORMAL_RUN, "" );
         for ( int i = 0; i < 5_000_000; i++ )
         {
-            sync.pushNext( i );
+            streamConsumer.handleEvent( event );
         }
 
         assertThat( countDown.await( 3L, SECONDS ) )
             .isTrue();
 
         long t2 = System.currentTimeMillis();
-        System.out.println( ( t2 - t1 ) + " millis in testQueueSynchronizer()" );
+        System.out.println( ( t2 - t1 ) + " millis in testThreadedStreamConsumer()" );
+
+        streamConsumer.close();
     }
 
     @Test
-    public void testThreadedStreamConsumer() throws Exception
+    public void shouldPassEventsInOrderWithEveryWaitStrategy() throws Exception
     {
-        final CountDownLatch countDown = new CountDownLatch( 5_000_000 );
+        for ( EventQueueWaitStrategy waitStrategy : EventQueueWaitStrategy.values() )
+        {
+            final List<Event> events = new ArrayList<>();
+            final CountDownLatch countDown = new CountDownLatch( 100_000 );
+            EventHandler<Event> handler = new EventHandler<Event>()
+            {
+                @Override
+                public void handleEvent( @Nonnull Event event )
+                {
+                    events.add( event );
+                    countDown.countDown();
+                }
+            };
+
+            ThreadedStreamConsumer streamConsumer = new ThreadedStreamConsumer( handler, waitStrategy );
+            List<Event> expected = new ArrayList<>();
+            for ( int i = 0; i < 100_000; i++ )
+            {
+                Event event = new StandardStreamOutWithNewLineEvent( NORMAL_RUN, "" + i );
+                expected.add( event );
+                streamConsumer.handleEvent( event );
+            }
+
+            assertThat( countDown.await( 10L, SECONDS ) )
+                .isTrue();
+
+            streamConsumer.close();
+
+            assertThat( events )
+                .isEqualTo( expected );
+            assertThat( streamConsumer.getQueueDepth() )
+                .isEqualTo( 0 );
+            assertThat( streamConsumer.getMaxQueueDepth() )
+                .isGreaterThan( 0 );
+        }
+    }
+
+    @Test
+    public void shouldNotLoseEventsAfterFailingHandler() throws Exception
+    {
+        final CountDownLatch countDown = new CountDownLatch( 3 );
         EventHandler<Event> handler = new EventHandler<Event>()
         {
             @Override
             public void handleEvent( @Nonnull Event event )
             {
                 countDown.countDown();
+                if ( countDown.getCount() == 1 )
+                {
+                    throw new IllegalStateException( "handler failure" );
+                }
             }
         };
 
         ThreadedStreamConsumer streamConsumer = new ThreadedStreamConsumer( handler );
-
-        SECONDS.sleep( 1 );
-        System.gc();
-        SECONDS.sleep( 2 );
-
-        long t1 = System.currentTimeMillis();
-
         Event event = new StandardStreamOutWithNewLineEvent( NORMAL_RUN, "" );
-        for ( int i = 0; i < 5_000_000; i++ )
-        {
-            streamConsumer.handleEvent( event );
-        }
+        streamConsumer.handleEvent( event );
+        streamConsumer.handleEvent( event );
+        streamConsumer.handleEvent( event );
 
         assertThat( countDown.await( 3L, SECONDS ) )
             .isTrue();
 
-        long t2 = System.currentTimeMillis();
-        System.out.println( ( t2 - t1 ) + " millis in testThreadedStreamConsumer()" );
-
-        streamConsumer.close();
-    }
-
-    @Test
-    public void testBasicStatus() throws Exception
-    {
-        final QueueSynchronizer<String> sync = new QueueSynchronizer<>( 2, null );
-        sync.pushNext( "1" );
-        sync.pushNext( "2" );
-        String s1 = sync.awaitNext();
-        String s2 = sync.awaitNext();
-        assertThat( s1 ).isEqualTo( "1" );
-        assertThat( s2 ).isEqualTo( "2" );
-        FutureTask<Void> future = new FutureTask<>( new Callable<Void>()
+        try
         {
-            @Override
-            public Void call() throws Exception
-            {
-                sync.awaitNext();
-                return null;
-            }
-        } );
-        Thread t = new Thread( future );
-        t.setDaemon( true );
-        t.start();
-        SECONDS.sleep( 3L );
-        assertThat( t.getState() )
-            .isEqualTo( Thread.State.WAITING );
+            streamConsumer.close();
+        }
+        catch ( MultipleFailureException e )
+        {
+            assertThat( e.getLocalizedMessage() )
+                .contains( "handler failure" );
+            return;
+        }
+        throw new AssertionError( "expected MultipleFailureException" );
     }
 }
@@ -20,6 +20,8 @@
  */
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -35,7 +37,9 @@
 import org.apache.maven.plugin.surefire.log.api.ConsoleLogger;
 import org.apache.maven.surefire.shared.utils.logging.MessageUtils;
 import org.apache.maven.surefire.report.RunStatistics;
+import org.apache.maven.surefire.api.report.RunListener;
 import org.apache.maven.surefire.api.report.SafeThrowable;
+import org.apache.maven.surefire.api.report.SimpleReportEntry;
 import org.apache.maven.surefire.api.report.StackTraceWriter;
 import org.apache.maven.surefire.api.suite.RunResult;
 
@@ -74,6 +78,8 @@
 
     private static final String ERROR = "error";
 
+    private static final String CHUNKED_TEST = "pkg.ChunkedTest";
+
     public void testMergeTestHistoryResult()
             throws Exception
     {
@@ -392,6 +398,90 @@ public void testCreateReporterWithZeroStatistics()
         assertEquals( 9, messages.size() );
     }
 
+    public void testChunksOfTestSetSummarizedOnce() throws IOException
+    {
+        MessageUtils.setColorEnabled( false );
+        File target = new File( System.getProperty( "user.dir" ), "target" );
+        StartupReportConfiguration reportConfig = chunkedReportConfiguration( new File( target, "tmp8" ) );
+        DummyTestReporter reporter = new DummyTestReporter();
+        RunListener forkOne = new DefaultReporterFactory( reportConfig, reporter ).createReporter();
+        RunListener forkTwo = new DefaultReporterFactory( reportConfig, reporter ).createReporter();
+
+        runChunk( forkOne, TEST_ONE, null );
+        assertEquals( 0, countTestSetSummaries( reporter.getMessages() ) );
+
+        runChunk( forkTwo, TEST_TWO, new DummyStackTraceWriter( ASSERTION_FAIL ) );
+        assertEquals( 1, countTestSetSummaries( reporter.getMessages() ) );
+        assertTrue( reporter.getMessages().contains(
+            "Tests run: 2, Failures: 1, Errors: 0, Skipped: 0, Time elapsed: 0.03 s <<< FAILURE! - in "
+                + CHUNKED_TEST ) );
+        File fileReport = new File( new File( target, "tmp8" ), CHUNKED_TEST + ".txt" );
+        assertTrue( new String( Files.readAllBytes( fileReport.toPath() ), UTF_8 ).contains(
+            "Tests run: 2, Failures: 1, Errors: 0, Skipped: 0, Time elapsed: 0.03 s <<< FAILURE! - in "
+                + CHUNKED_TEST ) );
+
+        reportConfig.getTestSetChunks().completeRemainingTestSets();
+        assertEquals( 1, countTestSetSummaries( reporter.getMessages() ) );
+    }
+
+    public void testIncompleteChunksOfTestSetSummarizedAtEnd()
+    {
+        MessageUtils.setColorEnabled( false );
+        File target = new File( System.getProperty( "user.dir" ), "target" );
+        StartupReportConfiguration reportConfig = chunkedReportConfiguration( new File( target, "tmp9" ) );
+        DummyTestReporter reporter = new DummyTestReporter();
+        RunListener forkOne = new DefaultReporterFactory( reportConfig, reporter ).createReporter();
+
+        // the fork of the second chunk has crashed
+        runChunk( forkOne, TEST_ONE, null );
+        assertEquals( 0, countTestSetSummaries( reporter.getMessages() ) );
+
+        reportConfig.getTestSetChunks().completeRemainingTestSets();
+        assertEquals( 1, countTestSetSummaries( reporter.getMessages() ) );
+        assertTrue( reporter.getMessages().contains(
+            "Tests run: 1, Failures: 0, Errors: 0, Skipped: 0, Time elapsed: 0.015 s - in " + CHUNKED_TEST ) );
+    }
+
+    private static StartupReportConfiguration chunkedReportConfiguration( File reportsDirectory )
+    {
+        StartupReportConfiguration reportConfig =
+                new StartupReportConfiguration( true, true, "brief", false, reportsDirectory, false, null,
+                        new File( reportsDirectory, "TESTHASH" ), false, 0, null, null, false,
+                        new SurefireStatelessReporter(), new SurefireConsoleOutputReporter(),
+                        new SurefireStatelessTestsetInfoReporter() );
+        reportConfig.getTestSetChunks().register( CHUNKED_TEST, 2 );
+        return reportConfig;
+    }
+
+    private static void runChunk( RunListener fork, String test, StackTraceWriter failure )
+    {
+        fork.testSetStarting( new SimpleReportEntry( CHUNKED_TEST, null, null, null ) );
+        SimpleReportEntry testEntry = new SimpleReportEntry( CHUNKED_TEST, null, test, null, failure, 10 );
+        fork.testStarting( testEntry );
+        if ( failure == null )
+        {
+            fork.testSucceeded( testEntry );
+        }
+        else
+        {
+            fork.testFailed( testEntry );
+        }
+        fork.testSetCompleted( new SimpleReportEntry( CHUNKED_TEST, null, null, null, 15 ) );
+    }
+
+    private static int countTestSetSummaries( List<String> messages )
+    {
+        int count = 0;
+        for ( String message : messages )
+        {
+            if ( message.startsWith( "Tests run: " ) )
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
     static class DummyStackTraceWriter
         implements StackTraceWriter
     {
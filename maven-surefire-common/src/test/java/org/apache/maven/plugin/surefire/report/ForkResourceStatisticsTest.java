@@ -0,0 +1,161 @@
+package org.apache.maven.plugin.surefire.report;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.surefire.api.event.ResourceUsageEvent;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.maven.plugin.surefire.report.ForkResourceStatistics.LEAK_THRESHOLD_KIB;
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * Tests for {@link ForkResourceStatistics}.
+ */
+public class ForkResourceStatisticsTest
+{
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void shouldComputePeaksOfTestSet()
+    {
+        ForkResourceStatistics statistics = new ForkResourceStatistics();
+        assertThat( statistics.isEmpty() )
+            .isTrue();
+
+        statistics.add( 1, "pkg.ATest", usage( 100, 5000, 8000, 1000, 1, 10, 12, 200, 900 ) );
+        statistics.add( 1, "pkg.BTest", usage( 200, 7000, 9000, 2000, 3, 15, 20, 300, 1000 ) );
+        statistics.add( 1, "pkg.BTest", usage( 300, 6000, 10000, 1500, 4, 25, 18, 450, 1100 ) );
+        statistics.add( 2, "pkg.BTest", usage( 100, 99999, 99999, 99999, 99, 99, 99, 999, 9999 ) );
+
+        assertThat( statistics.isEmpty() )
+            .isFalse();
+
+        Map<String, String> peaks = statistics.getPeakProperties( 1, "pkg.BTest" );
+        assertThat( peaks.get( "surefire.resources.peakHeapUsedKiB" ) )
+            .isEqualTo( "7000" );
+        assertThat( peaks.get( "surefire.resources.peakHeapCommittedKiB" ) )
+            .isEqualTo( "10000" );
+        assertThat( peaks.get( "surefire.resources.peakHeapUsedAfterGcKiB" ) )
+            .isEqualTo( "2000" );
+        assertThat( peaks.get( "surefire.resources.peakThreadCount" ) )
+            .isEqualTo( "20" );
+        assertThat( peaks.get( "surefire.resources.peakLoadedClassCount" ) )
+            .isEqualTo( "1100" );
+        // the increments since the last sample of the previous test set
+        assertThat( peaks.get( "surefire.resources.gcCount" ) )
+            .isEqualTo( "3" );
+        assertThat( peaks.get( "surefire.resources.gcTimeMillis" ) )
+            .isEqualTo( "15" );
+        assertThat( peaks.get( "surefire.resources.cpuTimeMillis" ) )
+            .isEqualTo( "250" );
+
+        assertThat( statistics.getPeakProperties( 1, "pkg.CTest" ) )
+            .isEmpty();
+    }
+
+    @Test
+    public void shouldWarnAboutGrowingHeapInReusedFork()
+    {
+        int leak = LEAK_THRESHOLD_KIB;
+        ForkResourceStatistics statistics = new ForkResourceStatistics();
+        statistics.add( 1, "pkg.ATest", usage( 100, 0, 0, 1024, 0, 0, 0, 0, 0 ) );
+        statistics.add( 1, "pkg.LeakingTest", usage( 200, 0, 0, 1024 + leak, 0, 0, 0, 0, 0 ) );
+        statistics.add( 1, "pkg.CTest", usage( 300, 0, 0, 1024 + leak, 0, 0, 0, 0, 0 ) );
+        statistics.add( 1, "pkg.DTest", usage( 400, 0, 0, 1024 + leak + leak - 1, 0, 0, 0, 0, 0 ) );
+
+        List<String> warnings = statistics.toLeakWarnings();
+        assertThat( warnings )
+            .hasSize( 1 );
+        assertThat( warnings.get( 0 ) )
+            .contains( "pkg.LeakingTest" )
+            .contains( "forked JVM 1" )
+            .contains( "grew by 16 MiB (1 MiB -> 17 MiB)" );
+    }
+
+    @Test
+    public void shouldNotCompareTestSetsOfDifferentJvms()
+    {
+        ForkResourceStatistics fork1 = new ForkResourceStatistics();
+        fork1.add( 1, "pkg.ATest", usage( 5000, 0, 0, 1024, 0, 0, 0, 0, 0 ) );
+        // a new JVM with the same fork number, see reuseForks=false
+        fork1.add( 1, "pkg.BTest", usage( 100, 0, 0, 1024 + 2 * LEAK_THRESHOLD_KIB, 0, 0, 0, 0, 0 ) );
+        ForkResourceStatistics fork2 = new ForkResourceStatistics();
+        fork2.add( 2, "pkg.CTest", usage( 100, 0, 0, 1024 + 2 * LEAK_THRESHOLD_KIB, 0, 0, 0, 0, 0 ) );
+
+        ForkResourceStatistics all = new ForkResourceStatistics();
+        all.addAll( fork1 );
+        all.addAll( fork2 );
+
+        assertThat( all.toLeakWarnings() )
+            .isEmpty();
+    }
+
+    @Test
+    public void shouldWriteJson() throws Exception
+    {
+        ForkResourceStatistics statistics = new ForkResourceStatistics();
+        statistics.add( 2, "pkg.BTest", usage( 300, 2, 3, 4, 5, 6, 7, 8, 9 ) );
+        statistics.add( 1, "pkg.ATest", usage( 100, 2, 3, 4, 5, 6, 7, -1, 9 ) );
+        statistics.add( 1, "pkg.ATest", usage( 200, 2, 3, 4, 5, 6, 7, -1, 9 ) );
+
+        File json = new File( new File( tmp.getRoot(), "reports" ), ForkResourceStatistics.REPORT_FILE_NAME );
+        statistics.writeJson( json );
+
+        String content = new String( Files.readAllBytes( json.toPath() ), UTF_8 );
+        assertThat( content )
+            .isEqualTo( "{\n"
+                + "  \"forks\": [\n"
+                + "    {\"fork\": 1, \"testSets\": [\n"
+                + "      {\"testSet\": \"pkg.ATest\", \"samples\": [\n"
+                + "        {\"uptimeMillis\": 100, \"heapUsedKiB\": 2, \"heapCommittedKiB\": 3,"
+                + " \"heapUsedAfterGcKiB\": 4, \"gcCount\": 5, \"gcTimeMillis\": 6, \"threadCount\": 7,"
+                + " \"cpuTimeMillis\": -1, \"loadedClassCount\": 9},\n"
+                + "        {\"uptimeMillis\": 200, \"heapUsedKiB\": 2, \"heapCommittedKiB\": 3,"
+                + " \"heapUsedAfterGcKiB\": 4, \"gcCount\": 5, \"gcTimeMillis\": 6, \"threadCount\": 7,"
+                + " \"cpuTimeMillis\": -1, \"loadedClassCount\": 9}\n"
+                + "      ]}\n"
+                + "    ]},\n"
+                + "    {\"fork\": 2, \"testSets\": [\n"
+                + "      {\"testSet\": \"pkg.BTest\", \"samples\": [\n"
+                + "        {\"uptimeMillis\": 300, \"heapUsedKiB\": 2, \"heapCommittedKiB\": 3,"
+                + " \"heapUsedAfterGcKiB\": 4, \"gcCount\": 5, \"gcTimeMillis\": 6, \"threadCount\": 7,"
+                + " \"cpuTimeMillis\": 8, \"loadedClassCount\": 9}\n"
+                + "      ]}\n"
+                + "    ]}\n"
+                + "  ]\n"
+                + "}\n" );
+    }
+
+    private static ResourceUsageEvent usage( int uptime, int heapUsed, int heapCommitted, int heapUsedAfterGc,
+                                             int gcCount, int gcTime, int threads, int cpuTime, int classes )
+    {
+        return new ResourceUsageEvent( uptime, heapUsed, heapCommitted, heapUsedAfterGc, gcCount, gcTime, threads,
+            cpuTime, classes );
+    }
+}
@@ -0,0 +1,147 @@
+package org.apache.maven.plugin.surefire.report;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.surefire.report.ForkStartupStatistics.PhaseStatistics;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * Tests for {@link ForkStartupStatistics}.
+ */
+public class ForkStartupStatisticsTest
+{
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void shouldAggregatePhasesInOrder()
+    {
+        ForkStartupStatistics statistics = new ForkStartupStatistics();
+        assertThat( statistics.isEmpty() )
+            .isTrue();
+
+        for ( int i = 100; i >= 1; i-- )
+        {
+            statistics.add( "jvm-launch", i * 1000 );
+            statistics.add( "test-discovery", i );
+        }
+
+        List<PhaseStatistics> phases = statistics.getPhaseStatistics();
+        assertThat( phases )
+            .hasSize( 2 );
+
+        PhaseStatistics jvmLaunch = phases.get( 0 );
+        assertThat( jvmLaunch.getPhase() )
+            .isEqualTo( "jvm-launch" );
+        assertThat( jvmLaunch.getCount() )
+            .isEqualTo( 100 );
+        assertThat( jvmLaunch.getMinMicros() )
+            .isEqualTo( 1000 );
+        assertThat( jvmLaunch.getMedianMicros() )
+            .isEqualTo( 50000 );
+        assertThat( jvmLaunch.getP99Micros() )
+            .isEqualTo( 99000 );
+        assertThat( jvmLaunch.getMaxMicros() )
+            .isEqualTo( 100000 );
+
+        assertThat( phases.get( 1 ).getPhase() )
+            .isEqualTo( "test-discovery" );
+    }
+
+    @Test
+    public void shouldAggregateOneFork()
+    {
+        ForkStartupStatistics statistics = new ForkStartupStatistics();
+        statistics.add( "fork-channel", 7 );
+
+        PhaseStatistics phase = statistics.getPhaseStatistics().get( 0 );
+        assertThat( phase.getMinMicros() )
+            .isEqualTo( 7 );
+        assertThat( phase.getMedianMicros() )
+            .isEqualTo( 7 );
+        assertThat( phase.getP99Micros() )
+            .isEqualTo( 7 );
+        assertThat( phase.getMaxMicros() )
+            .isEqualTo( 7 );
+    }
+
+    @Test
+    public void shouldMergeForks()
+    {
+        ForkStartupStatistics fork1 = new ForkStartupStatistics();
+        fork1.add( "jvm-launch", 2000 );
+        ForkStartupStatistics fork2 = new ForkStartupStatistics();
+        fork2.add( "jvm-launch", 4000 );
+        fork2.add( "fork-channel", 300 );
+
+        ForkStartupStatistics all = new ForkStartupStatistics();
+        all.addAll( fork1 );
+        all.addAll( fork2 );
+
+        List<String> lines = all.toSummaryLines();
+        assertThat( lines )
+            .hasSize( 4 );
+        assertThat( lines.get( 1 ) )
+            .contains( "Phase" )
+            .contains( "Median" )
+            .contains( "P99" );
+        assertThat( lines.get( 2 ) )
+            .startsWith( "  jvm-launch" )
+            .contains( "2.0" )
+            .contains( "4.0" )
+            .endsWith( " 2" );
+        assertThat( lines.get( 3 ) )
+            .startsWith( "  fork-channel" )
+            .contains( "0.3" )
+            .endsWith( " 1" );
+    }
+
+    @Test
+    public void shouldWriteJson() throws Exception
+    {
+        ForkStartupStatistics statistics = new ForkStartupStatistics();
+        statistics.add( "jvm-launch", 3000 );
+        statistics.add( "jvm-launch", 1000 );
+        statistics.add( "quoted \"phase\"", 5 );
+
+        File json = new File( new File( tmp.getRoot(), "reports" ), ForkStartupStatistics.REPORT_FILE_NAME );
+        statistics.writeJson( json );
+
+        String content = new String( Files.readAllBytes( json.toPath() ), UTF_8 );
+        assertThat( content )
+            .isEqualTo( "{\n"
+                + "  \"phases\": [\n"
+                + "    {\"phase\": \"jvm-launch\", \"count\": 2, \"minMicros\": 1000, \"medianMicros\": 1000,"
+                + " \"p99Micros\": 3000, \"maxMicros\": 3000, \"elapsedMicros\": [1000, 3000]},\n"
+                + "    {\"phase\": \"quoted \\\"phase\\\"\", \"count\": 1, \"minMicros\": 5, \"medianMicros\": 5,"
+                + " \"p99Micros\": 5, \"maxMicros\": 5, \"elapsedMicros\": [5]}\n"
+                + "  ]\n"
+                + "}\n" );
+    }
+}
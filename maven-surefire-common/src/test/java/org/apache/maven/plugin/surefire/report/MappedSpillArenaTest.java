@@ -0,0 +1,241 @@
+package org.apache.maven.plugin.surefire.report;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.surefire.report.MappedSpillArena.Slice;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.maven.plugin.surefire.report.MappedSpillArena.SEGMENT_SIZE;
+import static org.apache.maven.surefire.api.util.internal.StringUtils.NL;
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * Tests for {@link MappedSpillArena} and the deferred streams sharing it.
+ */
+@SuppressWarnings( "checkstyle:magicnumber" )
+public class MappedSpillArenaTest
+{
+    private final MappedSpillArena arena = new MappedSpillArena( "test" );
+
+    @After
+    public void closeArena()
+    {
+        arena.close();
+    }
+
+    @Test
+    public void shouldExtendContiguousSlice() throws IOException
+    {
+        Slice slice = arena.append( null, "abc".getBytes( UTF_8 ), 0, 3 );
+        Slice extended = arena.append( slice, "def".getBytes( UTF_8 ), 1, 2 );
+
+        assertThat( extended )
+            .isSameAs( slice );
+        assertThat( slice.getOffset() )
+            .isEqualTo( 0L );
+        assertThat( slice.getLength() )
+            .isEqualTo( 5L );
+        assertThat( arena.getLiveSlices() )
+            .isEqualTo( 1 );
+        assertThat( read( slice ) )
+            .isEqualTo( "abcef" );
+    }
+
+    @Test
+    public void shouldNotExtendInterleavedSlice() throws IOException
+    {
+        Slice first = arena.append( null, "a".getBytes( UTF_8 ), 0, 1 );
+        Slice other = arena.append( null, "b".getBytes( UTF_8 ), 0, 1 );
+        Slice second = arena.append( first, "c".getBytes( UTF_8 ), 0, 1 );
+
+        assertThat( second )
+            .isNotSameAs( first );
+        assertThat( second.getOffset() )
+            .isEqualTo( 2L );
+        assertThat( arena.getLiveSlices() )
+            .isEqualTo( 3 );
+        assertThat( read( first ) + read( other ) + read( second ) )
+            .isEqualTo( "abc" );
+    }
+
+    @Test
+    public void shouldRewindAfterReleasingAllSlices() throws IOException
+    {
+        Slice first = arena.append( null, "ab".getBytes( UTF_8 ), 0, 2 );
+        Slice second = arena.append( null, "cd".getBytes( UTF_8 ), 0, 2 );
+
+        arena.release( first );
+        arena.release( first );
+        assertThat( arena.getLiveSlices() )
+            .isEqualTo( 1 );
+        assertThat( arena.getPosition() )
+            .isEqualTo( 4L );
+
+        arena.release( second );
+        assertThat( arena.getLiveSlices() )
+            .isEqualTo( 0 );
+        assertThat( arena.getPosition() )
+            .isEqualTo( 0L );
+
+        Slice reused = arena.append( second, "ef".getBytes( UTF_8 ), 0, 2 );
+        assertThat( reused )
+            .isNotSameAs( second );
+        assertThat( reused.getOffset() )
+            .isEqualTo( 0L );
+        assertThat( arena.getHighWaterMark() )
+            .isEqualTo( 4L );
+    }
+
+    @Test
+    public void shouldSpanSegments() throws IOException
+    {
+        byte[] bytes = new byte[SEGMENT_SIZE + 10];
+        for ( int i = 0; i < bytes.length; i++ )
+        {
+            bytes[i] = (byte) i;
+        }
+        Slice slice = arena.append( null, bytes, 0, bytes.length );
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream( bytes.length );
+        arena.writeTo( slice, out, new byte[1000] );
+        assertThat( out.toByteArray() )
+            .isEqualTo( bytes );
+    }
+
+    @Test
+    public void shouldReuseSegmentsBesideLiveSlice() throws IOException
+    {
+        Slice live = arena.append( null, "live".getBytes( UTF_8 ), 0, 4 );
+        byte[] bytes = new byte[SEGMENT_SIZE / 2];
+        for ( int i = 0; i < 20; i++ )
+        {
+            Slice slice = arena.append( null, bytes, 0, bytes.length );
+            arena.release( slice );
+        }
+
+        assertThat( arena.getLiveSlices() )
+            .isEqualTo( 1 );
+        assertThat( arena.getHighWaterMark() )
+            .isGreaterThan( 10L * SEGMENT_SIZE );
+        assertThat( arena.getMappedSegments() )
+            .isLessThanOrEqualTo( 3 );
+        assertThat( read( live ) )
+            .isEqualTo( "live" );
+
+        Slice spanning = arena.append( null, new byte[SEGMENT_SIZE + 10], 0, SEGMENT_SIZE + 10 );
+        Slice extended = arena.append( spanning, "end".getBytes( UTF_8 ), 0, 3 );
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        arena.writeTo( extended, out, new byte[1000] );
+        assertThat( out.size() )
+            .isEqualTo( SEGMENT_SIZE + 13 );
+        assertThat( new String( out.toByteArray(), SEGMENT_SIZE + 10, 3, UTF_8 ) )
+            .isEqualTo( "end" );
+
+        arena.release( live );
+        arena.release( extended );
+        assertThat( arena.getPosition() )
+            .isEqualTo( 0L );
+        assertThat( arena.getMappedSegments() )
+            .isLessThanOrEqualTo( 4 );
+    }
+
+    @Test
+    public void shouldReleaseEmptySlice() throws IOException
+    {
+        Slice empty = arena.append( null, new byte[0], 0, 0 );
+        Slice extended = arena.append( empty, "ab".getBytes( UTF_8 ), 0, 2 );
+        assertThat( extended )
+            .isSameAs( empty );
+        assertThat( read( extended ) )
+            .isEqualTo( "ab" );
+        arena.release( extended );
+        assertThat( arena.getLiveSlices() )
+            .isEqualTo( 0 );
+    }
+
+    @Test( expected = IOException.class )
+    public void shouldNotAppendAfterClose() throws IOException
+    {
+        arena.close();
+        arena.append( null, new byte[1], 0, 1 );
+    }
+
+    @Test
+    public void shouldShareArenaBetweenStreams() throws IOException
+    {
+        Utf8RecodingDeferredFileOutputStream out = new Utf8RecodingDeferredFileOutputStream( "stdout", arena );
+        Utf8RecodingDeferredFileOutputStream err = new Utf8RecodingDeferredFileOutputStream( "stderr", arena );
+        for ( int i = 0; i < 1000; i++ )
+        {
+            out.write( "out", true );
+            err.write( "err", false );
+        }
+        out.write( (String) null, false );
+
+        assertThat( out.getByteCount() )
+            .isEqualTo( 1000 * ( 3 + NL.length() ) + 4 );
+        assertThat( err.getByteCount() )
+            .isEqualTo( 3000L );
+
+        StringBuilder expectedOut = new StringBuilder();
+        StringBuilder expectedErr = new StringBuilder();
+        for ( int i = 0; i < 1000; i++ )
+        {
+            expectedOut.append( "out" ).append( NL );
+            expectedErr.append( "err" );
+        }
+        expectedOut.append( "null" );
+
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        out.writeTo( read );
+        assertThat( read.toString( "UTF-8" ) )
+            .isEqualTo( expectedOut.toString() );
+
+        read.reset();
+        err.writeTo( read );
+        assertThat( read.toString( "UTF-8" ) )
+            .isEqualTo( expectedErr.toString() );
+
+        out.free();
+        assertThat( arena.getLiveSlices() )
+            .isGreaterThan( 0 );
+        err.free();
+        assertThat( arena.getLiveSlices() )
+            .isEqualTo( 0 );
+        assertThat( arena.getPosition() )
+            .isEqualTo( 0L );
+
+        out.write( "a", false );
+        assertThat( arena.getPosition() )
+            .isEqualTo( 0L );
+    }
+
+    private String read( Slice slice ) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        arena.writeTo( slice, out, new byte[2] );
+        return new String( out.toByteArray(), UTF_8 );
+    }
+}
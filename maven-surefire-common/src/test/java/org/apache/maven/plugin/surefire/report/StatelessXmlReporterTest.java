@@ -22,6 +22,8 @@
 import junit.framework.TestCase;
 import org.apache.maven.plugin.surefire.booterclient.output.DeserializedStacktraceWriter;
 import org.apache.maven.surefire.api.report.ReportEntry;
+import org.apache.maven.surefire.api.report.ReporterException;
+import org.apache.maven.surefire.api.report.SafeThrowable;
 import org.apache.maven.surefire.api.report.SimpleReportEntry;
 import org.apache.maven.surefire.api.report.StackTraceWriter;
 import org.apache.maven.surefire.shared.utils.StringUtils;
@@ -36,6 +38,7 @@
 import java.io.RandomAccessFile;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Deque;
 import java.util.HashMap;
@@ -290,6 +293,287 @@ public void testOutputRerunFlakyFailure()
         assertNull( testCaseThree.getChild( "system-err" ) );
     }
 
+    public void testStreamedTestCasesEqualReportOfTestSet() throws IOException
+    {
+        File streamedReportDir = new File( reportDir, "streamed" );
+        StatelessXmlReporter streamingReporter = new StatelessXmlReporter( streamedReportDir, null, false, 0,
+            new ConcurrentHashMap<String, Deque<WrappedReportEntry>>(), XSD, "3.0", false, false, false, false );
+        StatelessXmlReporter reporter = new StatelessXmlReporter( reportDir, null, false, 0,
+            new ConcurrentHashMap<String, Deque<WrappedReportEntry>>(), XSD, "3.0", false, false, false, false );
+
+        WrappedReportEntry testSetReportEntry = new WrappedReportEntry(
+            new SimpleReportEntry( getClass().getName(), null, getClass().getName(), null, 12 ),
+            ReportEntryType.SUCCESS, 12, null, null, systemProps() );
+
+        Utf8RecodingDeferredFileOutputStream stdOut = new Utf8RecodingDeferredFileOutputStream( "fds" );
+        stdOut.write( "std-o\u00DCt]]>", true );
+        StackTraceWriter stackTraceWriter = new DeserializedStacktraceWriter( "A fud msg", "trimmed", "fail at foo" );
+        WrappedReportEntry[] testCases = {
+            new WrappedReportEntry( new SimpleReportEntry( getClass().getName(), null, TEST_ONE, null, 12 ),
+                ReportEntryType.SUCCESS, 12, null, null ),
+            new WrappedReportEntry( new SimpleReportEntry( getClass().getName(), null, TEST_TWO, null,
+                stackTraceWriter, 13 ), ReportEntryType.ERROR, 13, stdOut, null ),
+            new WrappedReportEntry( new SimpleReportEntry( getClass().getName(), null, TEST_THREE, null, 14 ),
+                ReportEntryType.SKIPPED, 14, null, null )
+        };
+
+        for ( WrappedReportEntry testCase : testCases )
+        {
+            stats.testSucceeded( testCase );
+            assertTrue( streamingReporter.testCompleted( testCase ) );
+        }
+        streamingReporter.testSetCompleted( testSetReportEntry, stats );
+        reporter.testSetCompleted( testSetReportEntry, stats );
+        stdOut.free();
+
+        String reportName = "TEST-" + getClass().getName() + ".xml";
+        expectedReportFile = new File( reportDir, reportName );
+        File streamedReportFile = new File( streamedReportDir, reportName );
+
+        assertThat( streamedReportFile.exists() )
+            .isTrue();
+        assertThat( new String( Files.readAllBytes( streamedReportFile.toPath() ), UTF_8 ) )
+            .isEqualTo( new String( Files.readAllBytes( expectedReportFile.toPath() ), UTF_8 ) );
+        assertThat( streamedReportDir.list() )
+            .containsOnly( reportName );
+
+        // the same test set again keeps the test cases of the previous run like the history of reruns
+        assertTrue( streamingReporter.testCompleted( testCases[0] ) );
+        streamingReporter.testSetCompleted( testSetReportEntry, stats );
+        reporter.testSetCompleted( testSetReportEntry, stats );
+
+        Xpp3Dom streamedTestSuite = Xpp3DomBuilder.build( new InputStreamReader(
+            new FileInputStream( streamedReportFile ), UTF_8 ) );
+        assertThat( streamedTestSuite.getChildren( "testcase" ) )
+            .hasSize( 4 );
+        assertThat( streamedTestSuite.getChildren( "testcase" )[1].getAttribute( "name" ) )
+            .isEqualTo( TEST_ONE );
+        assertThat( streamedTestSuite.getChildren( "testcase" )[3].getAttribute( "name" ) )
+            .isEqualTo( TEST_THREE );
+
+        streamedReportFile.delete();
+        streamedReportDir.delete();
+    }
+
+    public void testStreamedTestCasesGroupedLikeReportOfTestSet() throws IOException
+    {
+        File streamedReportDir = new File( reportDir, "grouped" );
+        StatelessXmlReporter streamingReporter = new StatelessXmlReporter( streamedReportDir, null, false, 0,
+            new ConcurrentHashMap<String, Deque<WrappedReportEntry>>(), XSD, "3.0", false, false, false, false );
+        StatelessXmlReporter reporter = new StatelessXmlReporter( reportDir, null, false, 0,
+            new ConcurrentHashMap<String, Deque<WrappedReportEntry>>(), XSD, "3.0", false, false, false, false );
+
+        WrappedReportEntry testSetReportEntry = new WrappedReportEntry(
+            new SimpleReportEntry( getClass().getName(), null, getClass().getName(), null, 12 ),
+            ReportEntryType.SUCCESS, 12, null, null, systemProps() );
+
+        String otherClass = getClass().getName() + "$Nested";
+        WrappedReportEntry[] testCases = {
+            new WrappedReportEntry( new SimpleReportEntry( getClass().getName(), null, TEST_ONE, null, 1 ),
+                ReportEntryType.SUCCESS, 1, null, null ),
+            new WrappedReportEntry( new SimpleReportEntry( otherClass, null, TEST_ONE, null, 2 ),
+                ReportEntryType.SUCCESS, 2, null, null ),
+            new WrappedReportEntry( new SimpleReportEntry( getClass().getName(), null, TEST_TWO, null, 3 ),
+                ReportEntryType.SKIPPED, 3, null, null ),
+            new WrappedReportEntry( new SimpleReportEntry( getClass().getName(), null, TEST_ONE, null, 4 ),
+                ReportEntryType.SUCCESS, 4, null, null ),
+            new WrappedReportEntry( new SimpleReportEntry( otherClass, null, TEST_TWO, null, 5 ),
+                ReportEntryType.SUCCESS, 5, null, null ),
+            new WrappedReportEntry( new SimpleReportEntry( otherClass, null, TEST_ONE, null, 6 ),
+                ReportEntryType.SUCCESS, 6, null, null )
+        };
+
+        for ( WrappedReportEntry testCase : testCases )
+        {
+            stats.testSucceeded( testCase );
+            assertTrue( streamingReporter.testCompleted( testCase ) );
+        }
+        streamingReporter.testSetCompleted( testSetReportEntry, stats );
+        reporter.testSetCompleted( testSetReportEntry, stats );
+
+        String reportName = "TEST-" + getClass().getName() + ".xml";
+        expectedReportFile = new File( reportDir, reportName );
+        File streamedReportFile = new File( streamedReportDir, reportName );
+        assertThat( new String( Files.readAllBytes( streamedReportFile.toPath() ), UTF_8 ) )
+            .isEqualTo( new String( Files.readAllBytes( expectedReportFile.toPath() ), UTF_8 ) );
+
+        // the next test set of the same name is grouped together with the history
+        rerunStats.testSucceeded( testCases[4] );
+        assertTrue( streamingReporter.testCompleted( testCases[4] ) );
+        rerunStats.testSucceeded( testCases[2] );
+        assertTrue( streamingReporter.testCompleted( testCases[2] ) );
+        streamingReporter.testSetCompleted( testSetReportEntry, rerunStats );
+        reporter.testSetCompleted( testSetReportEntry, rerunStats );
+
+        assertThat( new String( Files.readAllBytes( streamedReportFile.toPath() ), UTF_8 ) )
+            .isEqualTo( new String( Files.readAllBytes( expectedReportFile.toPath() ), UTF_8 ) );
+
+        streamedReportFile.delete();
+        streamedReportDir.delete();
+    }
+
+    public void testNoReportIfTestCaseCannotBeWritten()
+    {
+        StatelessXmlReporter reporter = new StatelessXmlReporter( reportDir, null, false, 0,
+            new ConcurrentHashMap<String, Deque<WrappedReportEntry>>(), XSD, "3.0", false, false, false, false );
+        WrappedReportEntry testSetReportEntry = new WrappedReportEntry(
+            new SimpleReportEntry( getClass().getName(), null, getClass().getName(), null, 12 ),
+            ReportEntryType.SUCCESS, 12, null, null, systemProps() );
+        StackTraceWriter brokenStackTraceWriter = new StackTraceWriter()
+        {
+            @Override
+            public String writeTraceToString()
+            {
+                throw new IllegalStateException( "broken trace" );
+            }
+
+            @Override
+            public String writeTrimmedTraceToString()
+            {
+                throw new IllegalStateException( "broken trace" );
+            }
+
+            @Override
+            public String smartTrimmedStackTrace()
+            {
+                throw new IllegalStateException( "broken trace" );
+            }
+
+            @Override
+            public SafeThrowable getThrowable()
+            {
+                throw new IllegalStateException( "broken trace" );
+            }
+        };
+        WrappedReportEntry testOne =
+            new WrappedReportEntry( new SimpleReportEntry( getClass().getName(), null, TEST_ONE, null, 12 ),
+                ReportEntryType.SUCCESS, 12, null, null );
+        WrappedReportEntry testTwo =
+            new WrappedReportEntry( new SimpleReportEntry( getClass().getName(), null, TEST_TWO, null,
+                brokenStackTraceWriter, 13 ), ReportEntryType.ERROR, 13, null, null );
+        WrappedReportEntry testThree =
+            new WrappedReportEntry( new SimpleReportEntry( getClass().getName(), null, TEST_THREE, null, 14 ),
+                ReportEntryType.SUCCESS, 14, null, null );
+
+        assertTrue( reporter.testCompleted( testOne ) );
+        try
+        {
+            reporter.testCompleted( testTwo );
+            fail();
+        }
+        catch ( ReporterException e )
+        {
+            assertThat( e.getMessage() )
+                .contains( getClass().getName() );
+        }
+        assertTrue( reporter.testCompleted( testThree ) );
+        reporter.testSetCompleted( testSetReportEntry, stats );
+
+        expectedReportFile = new File( reportDir, "TEST-" + getClass().getName() + ".xml" );
+        assertThat( expectedReportFile.exists() )
+            .isFalse();
+    }
+
+    public void testNoStreamingWithRerun()
+    {
+        StatelessXmlReporter reporter = new StatelessXmlReporter( reportDir, null, false, 1,
+            new ConcurrentHashMap<String, Deque<WrappedReportEntry>>(), XSD, "3.0", false, false, false, false );
+        WrappedReportEntry testCase =
+            new WrappedReportEntry( new SimpleReportEntry( getClass().getName(), null, TEST_ONE, null, 12 ),
+                ReportEntryType.SUCCESS, 12, null, null );
+
+        assertFalse( reporter.testCompleted( testCase ) );
+    }
+
+    public void testChunksOfTestSetMergedInOneReport() throws IOException
+    {
+        TestSetChunks chunks = new TestSetChunks();
+        chunks.register( getClass().getName(), 2 );
+        StatelessXmlReporter forkOne = new StatelessXmlReporter( reportDir, null, false, 0,
+            new ConcurrentHashMap<String, Deque<WrappedReportEntry>>(), XSD, "3.0", false, false, false, false );
+        forkOne.setTestSetChunks( chunks );
+        StatelessXmlReporter forkTwo = new StatelessXmlReporter( reportDir, null, false, 0,
+            new ConcurrentHashMap<String, Deque<WrappedReportEntry>>(), XSD, "3.0", false, false, false, false );
+        forkTwo.setTestSetChunks( chunks );
+
+        WrappedReportEntry testSetReportEntry = new WrappedReportEntry(
+            new SimpleReportEntry( getClass().getName(), null, getClass().getName(), null, 12 ),
+            ReportEntryType.SUCCESS, 12, null, null, systemProps() );
+        WrappedReportEntry testOne =
+            new WrappedReportEntry( new SimpleReportEntry( getClass().getName(), null, TEST_ONE, null, 12 ),
+                ReportEntryType.SUCCESS, 12, null, null );
+        StackTraceWriter stackTraceWriter = new DeserializedStacktraceWriter( "A fud msg", "trimmed", "fail at foo" );
+        WrappedReportEntry testTwo =
+            new WrappedReportEntry( new SimpleReportEntry( getClass().getName(), null, TEST_TWO, null,
+                stackTraceWriter, 13 ), ReportEntryType.ERROR, 13, null, null );
+
+        stats.testSucceeded( testOne );
+        assertTrue( forkOne.testCompleted( testOne ) );
+        rerunStats.testError( testTwo );
+        assertTrue( forkTwo.testCompleted( testTwo ) );
+
+        expectedReportFile = new File( reportDir, "TEST-" + getClass().getName() + ".xml" );
+        forkTwo.testSetCompleted( testSetReportEntry, rerunStats );
+        assertThat( expectedReportFile.exists() )
+            .isFalse();
+
+        forkOne.testSetCompleted( testSetReportEntry, stats );
+        Xpp3Dom testSuite = Xpp3DomBuilder.build( new InputStreamReader(
+            new FileInputStream( expectedReportFile ), UTF_8 ) );
+        assertThat( testSuite.getAttribute( "tests" ) )
+            .isEqualTo( "2" );
+        assertThat( testSuite.getAttribute( "errors" ) )
+            .isEqualTo( "1" );
+        assertThat( testSuite.getAttribute( "time" ) )
+            .isEqualTo( "0.024" );
+        assertThat( testSuite.getChildren( "testcase" ) )
+            .hasSize( 2 );
+        assertThat( testSuite.getChildren( "testcase" )[0].getAttribute( "name" ) )
+            .isEqualTo( TEST_TWO );
+        assertThat( testSuite.getChildren( "testcase" )[1].getAttribute( "name" ) )
+            .isEqualTo( TEST_ONE );
+    }
+
+    public void testPartialReportOfIncompleteChunks() throws IOException
+    {
+        TestSetChunks chunks = new TestSetChunks();
+        chunks.register( getClass().getName(), 2 );
+        StatelessXmlReporter forkOne = new StatelessXmlReporter( reportDir, null, false, 0,
+            new ConcurrentHashMap<String, Deque<WrappedReportEntry>>(), XSD, "3.0", false, false, false, false );
+        forkOne.setTestSetChunks( chunks );
+
+        WrappedReportEntry testSetReportEntry = new WrappedReportEntry(
+            new SimpleReportEntry( getClass().getName(), null, getClass().getName(), null, 12 ),
+            ReportEntryType.SUCCESS, 12, null, null, systemProps() );
+        WrappedReportEntry testOne =
+            new WrappedReportEntry( new SimpleReportEntry( getClass().getName(), null, TEST_ONE, null, 12 ),
+                ReportEntryType.SUCCESS, 12, null, null );
+
+        stats.testSucceeded( testOne );
+        assertTrue( forkOne.testCompleted( testOne ) );
+        forkOne.testSetCompleted( testSetReportEntry, stats );
+        File testCases = chunks.get( getClass().getName() ).getTestCases();
+        assertThat( testCases )
+            .isFile();
+
+        // the fork of the second chunk has crashed
+        expectedReportFile = new File( reportDir, "TEST-" + getClass().getName() + ".xml" );
+        assertThat( expectedReportFile.exists() )
+            .isFalse();
+        chunks.completeRemainingTestSets();
+
+        assertThat( testCases.exists() )
+            .isFalse();
+        Xpp3Dom testSuite = Xpp3DomBuilder.build( new InputStreamReader(
+            new FileInputStream( expectedReportFile ), UTF_8 ) );
+        assertThat( testSuite.getAttribute( "tests" ) )
+            .isEqualTo( "1" );
+        assertThat( testSuite.getChildren( "testcase" ) )
+            .hasSize( 1 );
+        assertThat( testSuite.getChildren( "testcase" )[0].getAttribute( "name" ) )
+            .isEqualTo( TEST_ONE );
+    }
+
     public void testNoWritesOnDeferredFile() throws Exception
     {
         Utf8RecodingDeferredFileOutputStream out = new Utf8RecodingDeferredFileOutputStream( "test" );
@@ -20,12 +20,15 @@
  */
 
 import org.apache.maven.surefire.api.report.ReportEntry;
+import org.apache.maven.surefire.api.report.SimpleReportEntry;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.powermock.core.classloader.annotations.PowerMockIgnore;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import static org.apache.maven.plugin.surefire.report.ReportEntryType.SKIPPED;
+import static org.apache.maven.plugin.surefire.report.ReportEntryType.SUCCESS;
 import static org.apache.maven.surefire.shared.utils.logging.MessageUtils.buffer;
 import static org.fest.assertions.Assertions.assertThat;
 import static org.mockito.Mockito.times;
@@ -68,4 +71,32 @@ public void shouldConcatenateWithJUnit5TestGroup()
         assertThat( actual )
                 .isEqualTo( expected );
     }
+
+    @Test
+    public void shouldKeepTestResultsOfReleasedEntries()
+    {
+        TestSetStats stats = new TestSetStats( false, true );
+        Utf8RecodingDeferredFileOutputStream out = new Utf8RecodingDeferredFileOutputStream( "stdout" );
+        Utf8RecodingDeferredFileOutputStream err = new Utf8RecodingDeferredFileOutputStream( "stderr" );
+        WrappedReportEntry skipped =
+            new WrappedReportEntry( new SimpleReportEntry( "pkg.MyTest", null, "a", null ), SKIPPED, 0, out, err );
+        WrappedReportEntry succeeded =
+            new WrappedReportEntry( new SimpleReportEntry( "pkg.MyTest", null, "b", null ), SUCCESS, 0, out, err );
+        stats.testSkipped( skipped );
+        stats.testSucceeded( succeeded );
+        stats.release( skipped );
+
+        assertThat( stats.getReportEntries() )
+                .containsOnly( succeeded );
+        assertThat( stats.getTestResults() )
+                .containsExactly( "pkg.MyTest skipped", succeeded.getElapsedTimeSummary() );
+        assertThat( stats.getCompletedCount() )
+                .isEqualTo( 2 );
+        assertThat( stats.getSkipped() )
+                .isEqualTo( 1 );
+
+        stats.reset();
+        assertThat( stats.getTestResults() )
+                .isEmpty();
+    }
 }
@@ -72,6 +72,23 @@ public void testPrioritizedFailureFirst()
         assertEquals( B.class, prioritizedTestsClassRunTime.get( 3 ) );
     }
 
+    @SuppressWarnings( "checkstyle:magicnumber" )
+    public void testTestClassRunTimes()
+    {
+        String content = "1,17,abc,method1\n"
+            + "1,25,abc,method2\n"
+            + "1,100,def,method1\n";
+        RunEntryStatisticsMap statistics =
+            RunEntryStatisticsMap.fromStream( new ByteArrayInputStream( content.getBytes( UTF_8 ) ) );
+        Map<String, Integer> runTimes = statistics.getTestClassRunTimes();
+        assertThat( runTimes )
+            .hasSize( 2 );
+        assertThat( runTimes.get( "abc" ) )
+            .isEqualTo( 42 );
+        assertThat( runTimes.get( "def" ) )
+            .isEqualTo( 100 );
+    }
+
     private InputStream getStatisticsFile()
     {
         String content = "0,17,org.apache.maven.plugin.surefire.runorder.RunEntryStatisticsMapTest$A,testA\n"
@@ -0,0 +1,308 @@
+package org.apache.maven.plugin.surefire.util;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import junit.framework.TestCase;
+import org.apache.maven.plugin.surefire.util.TestClassFileFilter.ClassFileHeader;
+import org.apache.maven.surefire.api.util.DefaultScanResult;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.nio.file.Files;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * Tests for {@link TestClassFileFilter}. The scanned classes are the nested classes of this test.
+ */
+public class TestClassFileFilterTest
+{
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void shouldReadClassFileHeader() throws IOException
+    {
+        ClassFileHeader header = readHeader( InheritedTest.class );
+        assertThat( header.name )
+            .isEqualTo( toInternalName( InheritedTest.class ) );
+        assertThat( header.superName )
+            .isEqualTo( toInternalName( AbstractBaseTest.class ) );
+        assertThat( header.interfaces )
+            .isEqualTo( new String[] {"java/lang/Runnable"} );
+        assertThat( header.hasTestMarkers )
+            .isFalse();
+
+        header = readHeader( PlainClass.class );
+        assertThat( header.superName )
+            .isNull();
+        assertThat( header.hasTestMarkers )
+            .isFalse();
+
+        assertThat( readHeader( AnnotatedTest.class ).hasTestMarkers )
+            .isTrue();
+        assertThat( readHeader( RunWithTest.class ).hasTestMarkers )
+            .isTrue();
+        assertThat( readHeader( SuiteTest.class ).hasTestMarkers )
+            .isTrue();
+        assertThat( readHeader( PojoTest.class ).hasTestMarkers )
+            .isTrue();
+        assertThat( readHeader( DeprecatedClass.class ).hasTestMarkers )
+            .isFalse();
+    }
+
+    @Test
+    public void shouldDiscardClassesWhichCannotBeTests() throws IOException
+    {
+        File dir = tmp.newFolder( "test-classes" );
+        File jar = new File( tmp.getRoot(), "tests.jar" );
+        copyClassFiles( dir, AbstractBaseTest.class, AnnotatedTest.class, RunWithTest.class, SuiteTest.class,
+            JUnit3Test.class, PojoTest.class, PlainClass.class, ThreadClass.class, DeprecatedClass.class,
+            TestInterface.class, Marker.class );
+        writeJar( jar, InheritedTest.class );
+
+        DefaultScanResult scan = new DefaultScanResult( asList( AbstractBaseTest.class.getName(),
+            AnnotatedTest.class.getName(), RunWithTest.class.getName(), SuiteTest.class.getName(),
+            JUnit3Test.class.getName(), PojoTest.class.getName(), PlainClass.class.getName(),
+            ThreadClass.class.getName(), DeprecatedClass.class.getName(), TestInterface.class.getName(),
+            Marker.class.getName(), InheritedTest.class.getName(), "pkg.UnknownTest" ) );
+
+        DefaultScanResult filtered = new TestClassFileFilter( asList( dir, jar ), 2 ).filter( scan );
+
+        assertThat( filtered.getClasses() )
+            .containsExactly( AnnotatedTest.class.getName(), RunWithTest.class.getName(),
+                SuiteTest.class.getName(), JUnit3Test.class.getName(), PojoTest.class.getName(),
+                InheritedTest.class.getName(),
+                "pkg.UnknownTest" );
+    }
+
+    @Test
+    public void shouldKeepClassesWithUnknownSuperclass() throws IOException
+    {
+        File dir = tmp.newFolder( "test-classes" );
+        copyClassFiles( dir, InheritedTest.class );
+
+        DefaultScanResult scan = new DefaultScanResult( singletonList( InheritedTest.class.getName() ) );
+        DefaultScanResult filtered = new TestClassFileFilter( singletonList( dir ) ).filter( scan );
+
+        assertThat( filtered.getClasses() )
+            .containsExactly( InheritedTest.class.getName() );
+    }
+
+    @Test
+    public void shouldKeepClassesWhichAreNotClassFiles() throws IOException
+    {
+        File dir = tmp.newFolder( "test-classes" );
+        File classFile = new File( dir, "pkg/BrokenTest.class" );
+        assertThat( classFile.getParentFile().mkdirs() )
+            .isTrue();
+        Files.write( classFile.toPath(), new byte[] {(byte) 0xCA, (byte) 0xFE} );
+
+        DefaultScanResult scan = new DefaultScanResult( singletonList( "pkg.BrokenTest" ) );
+        DefaultScanResult filtered = new TestClassFileFilter( singletonList( dir ) ).filter( scan );
+
+        assertThat( filtered.getClasses() )
+            .containsExactly( "pkg.BrokenTest" );
+    }
+
+    private static ClassFileHeader readHeader( Class<?> type ) throws IOException
+    {
+        try ( InputStream is = openClassFile( type ) )
+        {
+            return TestClassFileFilter.readHeader( is );
+        }
+    }
+
+    private static InputStream openClassFile( Class<?> type )
+    {
+        return TestClassFileFilterTest.class.getResourceAsStream( '/' + toInternalName( type ) + ".class" );
+    }
+
+    private static String toInternalName( Class<?> type )
+    {
+        return type.getName().replace( '.', '/' );
+    }
+
+    private static void copyClassFiles( File dir, Class<?>... types ) throws IOException
+    {
+        for ( Class<?> type : types )
+        {
+            File classFile = new File( dir, toInternalName( type ) + ".class" );
+            //noinspection ResultOfMethodCallIgnored
+            classFile.getParentFile().mkdirs();
+            try ( InputStream is = openClassFile( type ) )
+            {
+                Files.copy( is, classFile.toPath() );
+            }
+        }
+    }
+
+    private static void writeJar( File jar, Class<?>... types ) throws IOException
+    {
+        try ( JarOutputStream os = new JarOutputStream( new FileOutputStream( jar ) ) )
+        {
+            for ( Class<?> type : types )
+            {
+                os.putNextEntry( new JarEntry( toInternalName( type ) + ".class" ) );
+                try ( InputStream is = openClassFile( type ) )
+                {
+                    byte[] buffer = new byte[8192];
+                    for ( int read; ( read = is.read( buffer ) ) != -1; )
+                    {
+                        os.write( buffer, 0, read );
+                    }
+                }
+                os.closeEntry();
+            }
+        }
+    }
+
+    /**
+     *
+     */
+    public abstract static class AbstractBaseTest
+    {
+        @Test( timeout = 1000L )
+        public void test()
+        {
+        }
+    }
+
+    /**
+     *
+     */
+    public static class InheritedTest extends AbstractBaseTest implements Runnable
+    {
+        @Override
+        public void run()
+        {
+        }
+    }
+
+    /**
+     *
+     */
+    public static class AnnotatedTest
+    {
+        @Test
+        public void test()
+        {
+        }
+    }
+
+    /**
+     *
+     */
+    @RunWith( Parameterized.class )
+    public static class RunWithTest
+    {
+    }
+
+    /**
+     *
+     */
+    public static class SuiteTest
+    {
+        public static junit.framework.Test suite()
+        {
+            return null;
+        }
+    }
+
+    /**
+     *
+     */
+    public static class JUnit3Test extends TestCase
+    {
+    }
+
+    /**
+     *
+     */
+    public static class PlainClass
+    {
+        public void run()
+        {
+        }
+
+        public static void testStatic()
+        {
+        }
+    }
+
+    /**
+     *
+     */
+    public static class PojoTest
+    {
+        public void testPojo()
+        {
+        }
+    }
+
+    /**
+     *
+     */
+    public static class ThreadClass extends Thread
+    {
+    }
+
+    /**
+     *
+     */
+    @Deprecated
+    public static class DeprecatedClass
+    {
+    }
+
+    /**
+     *
+     */
+    public interface TestInterface
+    {
+        @Test
+        void test();
+    }
+
+    /**
+     *
+     */
+    @Retention( RUNTIME )
+    @Target( { TYPE, METHOD } )
+    public @interface Marker
+    {
+    }
+}
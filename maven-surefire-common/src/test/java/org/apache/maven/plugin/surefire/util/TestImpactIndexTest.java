@@ -0,0 +1,268 @@
+package org.apache.maven.plugin.surefire.util;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.surefire.api.util.DefaultScanResult;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.apache.maven.surefire.booter.TestImpactAgent.FAILED;
+import static org.apache.maven.surefire.booter.TestImpactAgent.FORK_FILE_EXTENSION;
+import static org.apache.maven.surefire.booter.TestImpactAgent.PASSED;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Tests for {@link TestImpactIndex}. The nested classes are copied to a temporary classes directory.
+ */
+public class TestImpactIndexTest
+{
+    private static final String A = Referring.class.getName();
+    private static final String B = Referred.class.getName();
+    private static final String C = Independent.class.getName();
+    private static final String D = Reflective.class.getName();
+
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    private File classesDirectory;
+
+    private File indexDirectory;
+
+    @Before
+    public void copyClasses() throws IOException
+    {
+        classesDirectory = tmp.newFolder( "classes" );
+        indexDirectory = tmp.newFolder( "test-impact" );
+        for ( Class<?> type : asList( Referring.class, Referred.class, Independent.class, Reflective.class ) )
+        {
+            File classFile = classFile( type.getName() );
+            assertThat( classFile.getParentFile().isDirectory() || classFile.getParentFile().mkdirs(), is( true ) );
+            String resource = type.getName().substring( type.getName().lastIndexOf( '.' ) + 1 ) + ".class";
+            try ( InputStream is = type.getResourceAsStream( resource ) )
+            {
+                Files.copy( is, classFile.toPath() );
+            }
+        }
+    }
+
+    @Test
+    public void shouldReadReferencesInBytecode() throws IOException
+    {
+        String[] references = TestImpactIndex.readReferences( Files.readAllBytes( classFile( A ).toPath() ) );
+        assertThat( asList( references ).contains( B.replace( '.', '/' ) ), is( true ) );
+        assertThat( asList( references ).contains( C.replace( '.', '/' ) ), is( false ) );
+    }
+
+    @Test
+    public void shouldSelectNotRecordedTests() throws IOException
+    {
+        TestImpactIndex index = scan( "fingerprint" );
+        assertThat( index.selectAffectedTests( new DefaultScanResult( asList( A, C ) ) ).getClasses(),
+            is( asList( A, C ) ) );
+    }
+
+    @Test
+    public void shouldSelectTestsAffectedByChangedClasses() throws IOException
+    {
+        record( scan( "fingerprint" ), PASSED + A, C.replace( '.', '/' ), PASSED + C );
+
+        TestImpactIndex index = scan( "fingerprint" );
+        assertThat( index.isAffected( A ), is( false ) );
+        assertThat( index.isAffected( C ), is( false ) );
+        record( index );
+
+        change( B );
+        index = scan( "fingerprint" );
+        assertThat( index.selectAffectedTests( new DefaultScanResult( asList( A, C ) ) ).getClasses(),
+            is( singletonList( A ) ) );
+        record( index, PASSED + A );
+
+        index = scan( "fingerprint" );
+        assertThat( index.isAffected( A ), is( false ) );
+        assertThat( index.isAffected( C ), is( false ) );
+    }
+
+    @Test
+    public void shouldSelectTestsAffectedByLoadedClasses() throws IOException
+    {
+        TestImpactIndex index = scan( "fingerprint" );
+        writeForkFile( D.replace( '.', '/' ), PASSED + C );
+        record( index, PASSED + A );
+
+        change( D );
+        index = scan( "fingerprint" );
+        assertThat( index.isAffected( C ), is( true ) );
+        assertThat( index.isAffected( A ), is( false ) );
+    }
+
+    @Test
+    public void shouldSelectTestsAffectedByClassesLoadedInReusedFork() throws IOException
+    {
+        TestImpactIndex index = scan( "fingerprint" );
+        writeForkFile( PASSED + A );
+        record( index, D.replace( '.', '/' ), PASSED + C, PASSED + A );
+
+        change( D );
+        index = scan( "fingerprint" );
+        assertThat( index.isAffected( C ), is( true ) );
+        assertThat( index.isAffected( A ), is( true ) );
+    }
+
+    @Test
+    public void shouldSelectTestsAffectedByDeletedClasses() throws IOException
+    {
+        record( scan( "fingerprint" ), D.replace( '.', '/' ), PASSED + C, PASSED + A );
+
+        Files.delete( classFile( D ).toPath() );
+        Files.delete( classFile( B ).toPath() );
+        TestImpactIndex index = scan( "fingerprint" );
+        assertThat( index.isAffected( C ), is( true ) );
+        assertThat( index.isAffected( A ), is( true ) );
+    }
+
+    @Test
+    public void shouldSelectFailedTests() throws IOException
+    {
+        record( scan( "fingerprint" ), PASSED + A, PASSED + C );
+        record( scan( "fingerprint" ), FAILED + A );
+
+        TestImpactIndex index = scan( "fingerprint" );
+        assertThat( index.isAffected( A ), is( true ) );
+        assertThat( index.isAffected( C ), is( false ) );
+    }
+
+    @Test
+    public void shouldMergeTestRunInSeveralForks() throws IOException
+    {
+        TestImpactIndex index = scan( "fingerprint" );
+        writeForkFile( PASSED + A );
+        writeForkFile( D.replace( '.', '/' ), PASSED + A );
+        writeForkFile( PASSED + C );
+        writeForkFile( FAILED + C );
+        assertThat( index.recordForkFiles(), is( 1 ) );
+        index.store();
+
+        change( D );
+        index = scan( "fingerprint" );
+        assertThat( index.isAffected( A ), is( true ) );
+        assertThat( index.isAffected( C ), is( true ) );
+    }
+
+    @Test
+    public void shouldSelectAllTestsIfFingerprintChanged() throws IOException
+    {
+        record( scan( "fingerprint" ), PASSED + A, PASSED + C );
+
+        TestImpactIndex index = scan( "another fingerprint" );
+        assertThat( index.isAffected( A ), is( true ) );
+        assertThat( index.isAffected( C ), is( true ) );
+    }
+
+    @Test
+    public void shouldDeleteForkFiles() throws IOException
+    {
+        TestImpactIndex index = scan( "fingerprint" );
+        writeForkFile( PASSED + A );
+        index.deleteForkFiles();
+        assertThat( index.recordForkFiles(), is( 0 ) );
+        assertThat( index.getRecordedTestsCount(), is( 0 ) );
+    }
+
+    @Test( expected = IOException.class )
+    public void shouldFailLoadingIndexOfUnknownFormat() throws IOException
+    {
+        Files.write( new File( indexDirectory, TestImpactIndex.INDEX_FILE_NAME ).toPath(), new byte[8] );
+        TestImpactIndex.load( indexDirectory, "fingerprint" );
+    }
+
+    private TestImpactIndex scan( String fingerprint ) throws IOException
+    {
+        TestImpactIndex index = TestImpactIndex.load( indexDirectory, fingerprint );
+        index.scanClasses( singletonList( classesDirectory ) );
+        return index;
+    }
+
+    private void record( TestImpactIndex index, String... forkFileLines ) throws IOException
+    {
+        if ( forkFileLines.length != 0 )
+        {
+            writeForkFile( forkFileLines );
+        }
+        index.recordForkFiles();
+        index.store();
+    }
+
+    private void writeForkFile( String... lines ) throws IOException
+    {
+        File forkFile = File.createTempFile( "fork-", FORK_FILE_EXTENSION, indexDirectory );
+        Files.write( forkFile.toPath(), asList( lines ), UTF_8 );
+    }
+
+    private void change( String className ) throws IOException
+    {
+        Files.write( classFile( className ).toPath(), new byte[1], StandardOpenOption.APPEND );
+    }
+
+    private File classFile( String className )
+    {
+        return new File( classesDirectory, className.replace( '.', '/' ) + ".class" );
+    }
+
+    /**
+     * Refers to {@link Referred}.
+     */
+    static final class Referring
+    {
+        Referred referred = new Referred();
+    }
+
+    /**
+     * Referred by {@link Referring}.
+     */
+    static final class Referred
+    {
+    }
+
+    /**
+     * No references.
+     */
+    static final class Independent
+    {
+    }
+
+    /**
+     * Loaded by reflection.
+     */
+    static final class Reflective
+    {
+    }
+}
@@ -0,0 +1,264 @@
+package org.apache.maven.plugin.surefire.util;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.surefire.AbstractSurefireMojoTest.Mojo;
+import org.apache.maven.plugin.surefire.StartupReportConfiguration;
+import org.apache.maven.plugin.surefire.extensions.SurefireConsoleOutputReporter;
+import org.apache.maven.plugin.surefire.extensions.SurefireStatelessReporter;
+import org.apache.maven.plugin.surefire.extensions.SurefireStatelessTestsetInfoReporter;
+import org.apache.maven.plugin.surefire.log.api.NullConsoleLogger;
+import org.apache.maven.plugin.surefire.report.DefaultReporterFactory;
+import org.apache.maven.plugin.surefire.report.ReportEntryType;
+import org.apache.maven.plugin.surefire.report.WrappedReportEntry;
+import org.apache.maven.surefire.api.report.SimpleReportEntry;
+import org.apache.maven.surefire.api.suite.RunResult;
+import org.apache.maven.surefire.api.util.DefaultScanResult;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.apache.maven.plugin.surefire.SurefireHelper.reportExecution;
+import static org.apache.maven.plugin.surefire.report.ReportEntryType.FAILURE;
+import static org.apache.maven.plugin.surefire.report.ReportEntryType.SKIPPED;
+import static org.apache.maven.plugin.surefire.report.ReportEntryType.SUCCESS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Tests for {@link TestResultCache}. The test classes are minimal class files written to a temporary directory.
+ */
+@SuppressWarnings( "checkstyle:magicnumber" )
+public class TestResultCacheTest
+{
+    private static final String BASE = "pkg.BaseTest";
+    private static final String EXTENDING = "pkg.ExtendingTest";
+    private static final String OTHER = "pkg.OtherTest";
+    private static final DefaultScanResult TESTS = new DefaultScanResult( asList( BASE, EXTENDING, OTHER ) );
+
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    private File cacheDirectory;
+
+    private File classesDirectory;
+
+    private File reportsDirectory;
+
+    @Before
+    public void writeClasses() throws IOException
+    {
+        cacheDirectory = tmp.newFolder( "cache" );
+        classesDirectory = tmp.newFolder( "test-classes" );
+        reportsDirectory = tmp.newFolder( "reports" );
+        writeClass( BASE, "java/lang/Object" );
+        writeClass( EXTENDING, "pkg/BaseTest" );
+        writeClass( OTHER, "java/lang/Object" );
+        writeClass( OTHER + "$Nested", "java/lang/Object" );
+        writeClass( "pkg.Helper", "java/lang/Object" );
+    }
+
+    @Test
+    public void shouldReplayCachedResults() throws IOException
+    {
+        TestResultCache cache = create( "fingerprint", Long.MAX_VALUE );
+        assertThat( cache.lookup( TESTS ).getClasses(), is( TESTS.getClasses() ) );
+        recordPassed( cache, BASE, EXTENDING );
+        cache.testSetCompleted( testSet( OTHER ), asList( test( OTHER, "a", SUCCESS ), test( OTHER, "b", SKIPPED ) ) );
+        assertThat( cache.getRecorded(), is( 3 ) );
+
+        cache = create( "fingerprint", Long.MAX_VALUE );
+        assertThat( cache.lookup( TESTS ).isEmpty(), is( true ) );
+        assertThat( cache.getHits(), is( 3 ) );
+
+        RunResult result = cache.replay( reporterFactory() );
+        assertThat( result.getCompletedCount(), is( 4 ) );
+        assertThat( result.getSkipped(), is( 1 ) );
+        assertThat( result.getFailures(), is( 0 ) );
+        assertThat( new File( reportsDirectory, "TEST-" + OTHER + ".xml" ).isFile(), is( true ) );
+    }
+
+    @Test
+    public void shouldReportReplayedRunIfAllTestClassesAreCached() throws Exception
+    {
+        recordPassed( create( "fingerprint", Long.MAX_VALUE ), BASE, EXTENDING, OTHER );
+
+        TestResultCache cache = create( "fingerprint", Long.MAX_VALUE );
+        assertThat( cache.lookup( TESTS ).isEmpty(), is( true ) );
+
+        RunResult summary = cache.replayRun( reporterFactory() );
+        assertThat( summary.getCompletedCount(), is( 3 ) );
+        assertThat( summary.getFailures(), is( 0 ) );
+        assertThat( summary.getErrors(), is( 0 ) );
+
+        Mojo reportParameters = new Mojo();
+        reportParameters.setFailIfNoTests( true );
+        reportExecution( reportParameters, summary, null, null );
+    }
+
+    @Test
+    public void shouldNotCacheFailedTestClasses() throws IOException
+    {
+        TestResultCache cache = create( "fingerprint", Long.MAX_VALUE );
+        recordPassed( cache, BASE, EXTENDING );
+        cache.testSetCompleted( testSet( OTHER ), asList( test( OTHER, "a", SUCCESS ), test( OTHER, "b", FAILURE ) ) );
+        // the rerun of the failing test
+        cache.testSetCompleted( testSet( OTHER ), singletonList( test( OTHER, "b", SUCCESS ) ) );
+        assertThat( cache.getRecorded(), is( 2 ) );
+
+        assertThat( create( "fingerprint", Long.MAX_VALUE ).lookup( TESTS ).getClasses(),
+            is( singletonList( OTHER ) ) );
+    }
+
+    @Test
+    public void shouldRunChangedTestClassAndItsSubclasses() throws IOException
+    {
+        recordPassed( create( "fingerprint", Long.MAX_VALUE ), BASE, EXTENDING, OTHER );
+
+        change( BASE );
+        assertThat( create( "fingerprint", Long.MAX_VALUE ).lookup( TESTS ).getClasses(),
+            is( asList( BASE, EXTENDING ) ) );
+
+        change( OTHER + "$Nested" );
+        assertThat( create( "fingerprint", Long.MAX_VALUE ).lookup( TESTS ).getClasses(),
+            is( asList( BASE, EXTENDING, OTHER ) ) );
+    }
+
+    @Test
+    public void shouldRunAllTestClassesIfClasspathOrFingerprintChanged() throws IOException
+    {
+        recordPassed( create( "fingerprint", Long.MAX_VALUE ), BASE, EXTENDING, OTHER );
+
+        assertThat( create( "another fingerprint", Long.MAX_VALUE ).lookup( TESTS ).getClasses(),
+            is( TESTS.getClasses() ) );
+
+        change( "pkg.Helper" );
+        assertThat( create( "fingerprint", Long.MAX_VALUE ).lookup( TESTS ).getClasses(),
+            is( TESTS.getClasses() ) );
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedResults() throws IOException
+    {
+        recordPassed( create( "fingerprint", Long.MAX_VALUE ), BASE, EXTENDING, OTHER );
+
+        File[] entries = cacheDirectory.listFiles();
+        assertThat( entries.length, is( 3 ) );
+        long size = 0L;
+        for ( File entry : entries )
+        {
+            size += entry.length();
+            assertThat( entry.setLastModified( 1000000000000L ), is( true ) );
+        }
+        // hit and touch the entries of the other test classes
+        create( "fingerprint", Long.MAX_VALUE ).lookup( new DefaultScanResult( asList( EXTENDING, OTHER ) ) );
+
+        assertThat( create( "fingerprint", size - 1 ).evict(), is( 1 ) );
+        assertThat( create( "fingerprint", Long.MAX_VALUE ).lookup( TESTS ).getClasses(),
+            is( singletonList( BASE ) ) );
+    }
+
+    private TestResultCache create( String fingerprint, long maxSize ) throws IOException
+    {
+        return TestResultCache.create( cacheDirectory, maxSize, fingerprint,
+            singletonList( classesDirectory.getAbsolutePath() ), classesDirectory, TESTS );
+    }
+
+    private DefaultReporterFactory reporterFactory()
+    {
+        StartupReportConfiguration reportConfig =
+            new StartupReportConfiguration( true, false, "PLAIN", false, reportsDirectory, false, null,
+                new File( reportsDirectory, "TESTHASH" ), false, 0, null, null, false,
+                new SurefireStatelessReporter(), new SurefireConsoleOutputReporter(),
+                new SurefireStatelessTestsetInfoReporter() );
+        return new DefaultReporterFactory( reportConfig, new NullConsoleLogger() );
+    }
+
+    private static void recordPassed( TestResultCache cache, String... testClasses )
+    {
+        for ( String testClass : testClasses )
+        {
+            cache.testSetCompleted( testSet( testClass ), singletonList( test( testClass, "test", SUCCESS ) ) );
+        }
+    }
+
+    private static WrappedReportEntry testSet( String testClass )
+    {
+        return new WrappedReportEntry( new SimpleReportEntry( testClass, null, null, null ), null, 10, null, null,
+            Collections.singletonMap( "java.version", "1.8" ) );
+    }
+
+    private static WrappedReportEntry test( String testClass, String name, ReportEntryType type )
+    {
+        return new WrappedReportEntry( new SimpleReportEntry( testClass, null, name, null, 5 ), type, 5, null, null );
+    }
+
+    private void change( String className ) throws IOException
+    {
+        Files.write( classFile( className ).toPath(), new byte[1], StandardOpenOption.APPEND );
+    }
+
+    private File classFile( String className )
+    {
+        return new File( classesDirectory, className.replace( '.', '/' ) + ".class" );
+    }
+
+    /**
+     * Writes the class file with the constant pool of the class and of its super class, and no members.
+     */
+    private void writeClass( String className, String superClass ) throws IOException
+    {
+        File classFile = classFile( className );
+        assertThat( classFile.getParentFile().isDirectory() || classFile.getParentFile().mkdirs(), is( true ) );
+        try ( DataOutputStream out = new DataOutputStream( new FileOutputStream( classFile ) ) )
+        {
+            out.writeInt( 0xCAFEBABE );
+            out.writeShort( 0 );
+            out.writeShort( 50 );
+            out.writeShort( 5 );
+            out.writeByte( 7 );
+            out.writeShort( 2 );
+            out.writeByte( 1 );
+            out.writeUTF( className.replace( '.', '/' ) );
+            out.writeByte( 7 );
+            out.writeShort( 4 );
+            out.writeByte( 1 );
+            out.writeUTF( superClass );
+            out.writeShort( 0x0021 );
+            out.writeShort( 1 );
+            out.writeShort( 3 );
+            out.writeShort( 0 );
+            out.writeShort( 0 );
+            out.writeShort( 0 );
+            out.writeShort( 0 );
+        }
+    }
+}
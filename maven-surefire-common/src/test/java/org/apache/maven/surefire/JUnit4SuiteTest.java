@@ -30,18 +30,25 @@
 import org.apache.maven.plugin.surefire.MojoMocklessTest;
 import org.apache.maven.plugin.surefire.SurefireHelperTest;
 import org.apache.maven.plugin.surefire.SurefirePropertiesTest;
+import org.apache.maven.plugin.surefire.booterclient.AdaptiveForkCountTest;
 import org.apache.maven.plugin.surefire.booterclient.BooterDeserializerProviderConfigurationTest;
 import org.apache.maven.plugin.surefire.booterclient.BooterDeserializerStartupConfigurationTest;
 import org.apache.maven.plugin.surefire.booterclient.ChecksumCalculatorTest;
+import org.apache.maven.plugin.surefire.booterclient.ClassDataSharingTest;
 import org.apache.maven.plugin.surefire.booterclient.DefaultForkConfigurationTest;
 import org.apache.maven.plugin.surefire.booterclient.ForkConfigurationTest;
+import org.apache.maven.plugin.surefire.booterclient.ForkPoolTest;
 import org.apache.maven.plugin.surefire.booterclient.ForkStarterTest;
 import org.apache.maven.plugin.surefire.booterclient.ForkingRunListenerTest;
 import org.apache.maven.plugin.surefire.booterclient.JarManifestForkConfigurationTest;
+import org.apache.maven.plugin.surefire.booterclient.LongestFirstTestSchedulerTest;
 import org.apache.maven.plugin.surefire.booterclient.ModularClasspathForkConfigurationTest;
+import org.apache.maven.plugin.surefire.booterclient.SystemResourcesTest;
+import org.apache.maven.plugin.surefire.booterclient.TestMethodChunkerTest;
 import org.apache.maven.plugin.surefire.booterclient.lazytestprovider.TestLessInputStreamBuilderTest;
 import org.apache.maven.plugin.surefire.booterclient.lazytestprovider.TestProvidingInputStreamTest;
 import org.apache.maven.plugin.surefire.booterclient.output.ForkClientTest;
+import org.apache.maven.plugin.surefire.booterclient.output.MpscRingBufferTest;
 import org.apache.maven.plugin.surefire.booterclient.output.ThreadedStreamConsumerTest;
 import org.apache.maven.plugin.surefire.extensions.ConsoleOutputReporterTest;
 import org.apache.maven.plugin.surefire.extensions.E2ETest;
@@ -50,6 +57,9 @@
 import org.apache.maven.plugin.surefire.extensions.StatelessReporterTest;
 import org.apache.maven.plugin.surefire.extensions.StreamFeederTest;
 import org.apache.maven.plugin.surefire.report.DefaultReporterFactoryTest;
+import org.apache.maven.plugin.surefire.report.ForkResourceStatisticsTest;
+import org.apache.maven.plugin.surefire.report.ForkStartupStatisticsTest;
+import org.apache.maven.plugin.surefire.report.MappedSpillArenaTest;
 import org.apache.maven.plugin.surefire.report.StatelessXmlReporterTest;
 import org.apache.maven.plugin.surefire.report.TestSetStatsTest;
 import org.apache.maven.plugin.surefire.report.WrappedReportEntryTest;
@@ -58,6 +68,9 @@
 import org.apache.maven.plugin.surefire.util.DirectoryScannerTest;
 import org.apache.maven.plugin.surefire.util.ScannerUtilTest;
 import org.apache.maven.plugin.surefire.util.SpecificFileFilterTest;
+import org.apache.maven.plugin.surefire.util.TestClassFileFilterTest;
+import org.apache.maven.plugin.surefire.util.TestImpactIndexTest;
+import org.apache.maven.plugin.surefire.util.TestResultCacheTest;
 import org.apache.maven.surefire.extensions.ForkChannelTest;
 import org.apache.maven.surefire.extensions.StatelessTestsetInfoReporterTest;
 import org.apache.maven.surefire.report.FileReporterTest;
@@ -83,6 +96,9 @@ public static Test suite()
         suite.addTestSuite( org.apache.maven.surefire.report.ConsoleOutputFileReporterTest.class );
         suite.addTestSuite( SurefirePropertiesTest.class );
         suite.addTestSuite( SpecificFileFilterTest.class );
+        suite.addTest( new JUnit4TestAdapter( TestImpactIndexTest.class ) );
+        suite.addTest( new JUnit4TestAdapter( TestResultCacheTest.class ) );
+        suite.addTest( new JUnit4TestAdapter( TestClassFileFilterTest.class ) );
         suite.addTest( new JUnit4TestAdapter( DirectoryScannerTest.class ) );
         suite.addTest( new JUnit4TestAdapter( DependenciesScannerTest.class ) );
         suite.addTestSuite( RunEntryStatisticsMapTest.class );
@@ -117,9 +133,19 @@ public static Test suite()
         suite.addTest( new JUnit4TestAdapter( StreamFeederTest.class ) );
         suite.addTest( new JUnit4TestAdapter( E2ETest.class ) );
         suite.addTest( new JUnit4TestAdapter( ThreadedStreamConsumerTest.class ) );
+        suite.addTest( new JUnit4TestAdapter( MpscRingBufferTest.class ) );
         suite.addTest( new JUnit4TestAdapter( EventDecoderTest.class ) );
         suite.addTest( new JUnit4TestAdapter( EventConsumerThreadTest.class ) );
         suite.addTest( new JUnit4TestAdapter( ChecksumCalculatorTest.class ) );
+        suite.addTest( new JUnit4TestAdapter( ClassDataSharingTest.class ) );
+        suite.addTest( new JUnit4TestAdapter( LongestFirstTestSchedulerTest.class ) );
+        suite.addTest( new JUnit4TestAdapter( TestMethodChunkerTest.class ) );
+        suite.addTest( new JUnit4TestAdapter( ForkPoolTest.class ) );
+        suite.addTest( new JUnit4TestAdapter( MappedSpillArenaTest.class ) );
+        suite.addTest( new JUnit4TestAdapter( ForkStartupStatisticsTest.class ) );
+        suite.addTest( new JUnit4TestAdapter( ForkResourceStatisticsTest.class ) );
+        suite.addTest( new JUnit4TestAdapter( AdaptiveForkCountTest.class ) );
+        suite.addTest( new JUnit4TestAdapter( SystemResourcesTest.class ) );
         return suite;
     }
 }
@@ -22,11 +22,16 @@
 import org.apache.maven.plugin.surefire.booterclient.MockReporter;
 import org.apache.maven.plugin.surefire.booterclient.lazytestprovider.TestLessInputStream;
 import org.apache.maven.plugin.surefire.booterclient.lazytestprovider.TestLessInputStream.TestLessInputStreamBuilder;
+import org.apache.maven.plugin.surefire.extensions.SharedMemoryForkNodeFactory;
 import org.apache.maven.plugin.surefire.extensions.SurefireForkNodeFactory;
+import org.apache.maven.plugin.surefire.extensions.UnixDomainSocketForkNodeFactory;
 import org.apache.maven.plugin.surefire.log.api.ConsoleLogger;
 import org.apache.maven.surefire.api.event.ControlByeEvent;
 import org.apache.maven.surefire.api.event.Event;
 import org.apache.maven.surefire.api.fork.ForkNodeArguments;
+import org.apache.maven.surefire.api.util.internal.Channels;
+import org.apache.maven.surefire.api.util.internal.MappedRingBuffer;
+import org.apache.maven.surefire.api.util.internal.UnixDomainSockets;
 import org.apache.maven.surefire.extensions.util.CountdownCloseable;
 import org.junit.Test;
 
@@ -34,11 +39,16 @@
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.net.SocketAddress;
 import java.net.URI;
+import java.net.URLDecoder;
 import java.nio.ByteBuffer;
 import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SocketChannel;
 import java.util.Queue;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -48,6 +58,7 @@
 import static java.nio.charset.StandardCharsets.US_ASCII;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -185,6 +196,185 @@ public void close()
         }
     }
 
+    @Test( timeout = TESTCASE_TIMEOUT )
+    public void shouldRequestReplyMessagesViaUnixDomainSocket() throws Exception
+    {
+        assumeTrue( UnixDomainSockets.isSupported() );
+        final MockReporter reporter = new MockReporter();
+        final String sessionId = UUID.randomUUID().toString();
+        ForkNodeArguments forkNodeArguments = forkNodeArguments( reporter, sessionId );
+
+        ForkNodeFactory factory = new UnixDomainSocketForkNodeFactory();
+        try ( ForkChannel channel = factory.createForkChannel( forkNodeArguments ) )
+        {
+            assertThat( channel.getCountdownCloseablePermits() )
+                .isEqualTo( 3 );
+
+            String connectionString = channel.getForkNodeConnectionString();
+            assertThat( connectionString )
+                .startsWith( "unix://" )
+                .contains( "?sessionId=" + sessionId + "&tcp=" );
+
+            File socketFile = new File( connectionString.substring( 7, connectionString.indexOf( '?' ) ) );
+            assertThat( socketFile )
+                .exists();
+
+            SocketAddress address = UnixDomainSockets.address( socketFile.toPath() );
+            requestReply( channel, new ChannelClient( address, sessionId ), reporter );
+
+            assertThat( socketFile )
+                .doesNotExist();
+
+            assertThat( socketFile.getParentFile() )
+                .doesNotExist();
+        }
+    }
+
+    @Test( timeout = TESTCASE_TIMEOUT )
+    public void shouldFallbackToTcpWithUnixDomainSocket() throws Exception
+    {
+        assumeTrue( UnixDomainSockets.isSupported() );
+        final MockReporter reporter = new MockReporter();
+        final String sessionId = UUID.randomUUID().toString();
+        ForkNodeArguments forkNodeArguments = forkNodeArguments( reporter, sessionId );
+
+        ForkNodeFactory factory = new UnixDomainSocketForkNodeFactory();
+        try ( ForkChannel channel = factory.createForkChannel( forkNodeArguments ) )
+        {
+            String connectionString = channel.getForkNodeConnectionString();
+            String tcp = connectionString.substring( connectionString.indexOf( "&tcp=" ) + 5 );
+            int port = Integer.parseInt( tcp.substring( tcp.lastIndexOf( ':' ) + 1 ) );
+            String localHost = InetAddress.getLoopbackAddress().getHostAddress();
+            requestReply( channel, new ChannelClient( new InetSocketAddress( localHost, port ), sessionId ), reporter );
+        }
+    }
+
+    @Test( timeout = TESTCASE_TIMEOUT )
+    public void shouldRequestReplyMessagesViaSharedMemory() throws Exception
+    {
+        final MockReporter reporter = new MockReporter();
+        final String sessionId = UUID.randomUUID().toString();
+        ForkNodeArguments forkNodeArguments = forkNodeArguments( reporter, sessionId );
+
+        ForkNodeFactory factory = new SharedMemoryForkNodeFactory();
+        try ( ForkChannel channel = factory.createForkChannel( forkNodeArguments ) )
+        {
+            assertThat( channel.getCountdownCloseablePermits() )
+                .isEqualTo( 3 );
+
+            String localHost = InetAddress.getLoopbackAddress().getHostAddress();
+            assertThat( channel.getForkNodeConnectionString() )
+                .startsWith( "shm://" + localHost + ":" )
+                .contains( "?sessionId=" + sessionId + "&events=" );
+
+            URI uri = new URI( channel.getForkNodeConnectionString() );
+            requestReply( channel, new SharedMemoryClient( uri, sessionId ), reporter );
+        }
+    }
+
+    private void requestReply( ForkChannel channel, Thread client, MockReporter reporter )
+        throws Exception
+    {
+        final TestLessInputStreamBuilder builder = new TestLessInputStreamBuilder();
+        TestLessInputStream commandReader = builder.build();
+        final CountDownLatch isCloseableCalled = new CountDownLatch( 1 );
+        Closeable closeable = new Closeable()
+        {
+            @Override
+            public void close()
+            {
+                isCloseableCalled.countDown();
+            }
+        };
+        CountdownCloseable cc = new CountdownCloseable( closeable, 2 );
+        Consumer consumer = new Consumer();
+
+        client.start();
+
+        channel.connectToClient();
+        channel.bindCommandReader( commandReader, null ).start();
+        ReadableByteChannel stdOut = mock( ReadableByteChannel.class );
+        when( stdOut.read( any( ByteBuffer.class ) ) ).thenReturn( -1 );
+        channel.bindEventHandler( consumer, cc, stdOut ).start();
+
+        commandReader.noop();
+
+        client.join( TESTCASE_TIMEOUT );
+
+        assertThat( hasError.get() )
+            .isFalse();
+
+        assertThat( isCloseableCalled.await( TESTCASE_TIMEOUT, MILLISECONDS ) )
+            .isTrue();
+
+        assertThat( reporter.getEvents() )
+            .describedAs( "The decoder captured the list of stream errors: " + reporter.getData().toString() )
+            .isEmpty();
+
+        assertThat( consumer.lines )
+            .hasSize( 1 );
+
+        assertThat( consumer.lines.element() )
+            .isInstanceOf( ControlByeEvent.class );
+    }
+
+    private static ForkNodeArguments forkNodeArguments( final MockReporter reporter, final String sessionId )
+    {
+        return new ForkNodeArguments()
+        {
+            @Override
+            public File getEventStreamBinaryFile()
+            {
+                return null;
+            }
+
+            @Override
+            public File getCommandStreamBinaryFile()
+            {
+                return null;
+            }
+
+            @Nonnull
+            @Override
+            public String getSessionId()
+            {
+                return sessionId;
+            }
+
+            @Override
+            public int getForkChannelId()
+            {
+                return 1;
+            }
+
+            @Override
+            @Nonnull
+            public File dumpStreamText( @Nonnull String text )
+            {
+                return new File( "" );
+            }
+
+            @Nonnull
+            @Override
+            public File dumpStreamException( @Nonnull Throwable t )
+            {
+                return new File( "" );
+            }
+
+            @Override
+            public void logWarningAtEnd( @Nonnull String text )
+            {
+            }
+
+            @Override
+            @Nonnull
+            public ConsoleLogger getConsoleLogger()
+            {
+                return reporter;
+            }
+        };
+    }
+
     private static class Consumer implements EventHandler<Event>
     {
         final Queue<Event> lines = new ConcurrentLinkedQueue<>();
@@ -233,4 +423,91 @@ public void run()
             }
         }
     }
+
+    private final class ChannelClient extends Thread
+    {
+        private final SocketAddress address;
+        private final String sessionId;
+
+        private ChannelClient( SocketAddress address, String sessionId )
+        {
+            this.address = address;
+            this.sessionId = sessionId;
+        }
+
+        @Override
+        public void run()
+        {
+            try ( SocketChannel socket = address instanceof InetSocketAddress
+                ? SocketChannel.open() : UnixDomainSockets.openSocketChannel() )
+            {
+                socket.connect( address );
+                OutputStream os = Channels.newOutputStream( socket );
+                os.write( sessionId.getBytes( US_ASCII ) );
+                byte[] data = new byte[128];
+                int readLength = Channels.newInputStream( socket ).read( data );
+                String token = new String( data, 0, readLength, US_ASCII );
+                assertThat( token ).isEqualTo( ":maven-surefire-command:\u0004:noop:" );
+                os.write( ":maven-surefire-event:\u0003:bye:".getBytes( US_ASCII ) );
+            }
+            catch ( IOException e )
+            {
+                hasError.set( true );
+                e.printStackTrace();
+                throw new IllegalStateException( e );
+            }
+            catch ( RuntimeException e )
+            {
+                hasError.set( true );
+                e.printStackTrace();
+                throw e;
+            }
+        }
+    }
+
+    private final class SharedMemoryClient extends Thread
+    {
+        private final URI uri;
+        private final String sessionId;
+
+        private SharedMemoryClient( URI uri, String sessionId )
+        {
+            this.uri = uri;
+            this.sessionId = sessionId;
+        }
+
+        @Override
+        public void run()
+        {
+            try ( SocketChannel socket = SocketChannel.open( new InetSocketAddress( uri.getHost(), uri.getPort() ) ) )
+            {
+                String query = uri.getRawQuery();
+                int events = query.indexOf( "&events=" );
+                int commands = query.indexOf( "&commands=" );
+                String eventsFile = URLDecoder.decode( query.substring( events + 8, commands ), "UTF-8" );
+                String commandsFile = URLDecoder.decode( query.substring( commands + 10 ), "UTF-8" );
+                MappedRingBuffer eventsRing = MappedRingBuffer.open( new File( eventsFile ) );
+                MappedRingBuffer commandsRing = MappedRingBuffer.open( new File( commandsFile ) );
+                OutputStream os = Channels.newOutputStream( socket );
+                os.write( sessionId.getBytes( US_ASCII ) );
+                ByteBuffer data = ByteBuffer.allocate( 128 );
+                int readLength = commandsRing.newReadableChannel( Channels.newInputStream( socket ) ).read( data );
+                String token = new String( data.array(), 0, readLength, US_ASCII );
+                assertThat( token ).isEqualTo( ":maven-surefire-command:\u0004:noop:" );
+                eventsRing.newOutputStream( os ).write( ":maven-surefire-event:\u0003:bye:".getBytes( US_ASCII ) );
+            }
+            catch ( IOException e )
+            {
+                hasError.set( true );
+                e.printStackTrace();
+                throw new IllegalStateException( e );
+            }
+            catch ( RuntimeException e )
+            {
+                hasError.set( true );
+                e.printStackTrace();
+                throw e;
+            }
+        }
+    }
 }
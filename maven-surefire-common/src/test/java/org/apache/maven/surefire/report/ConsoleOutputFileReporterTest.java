@@ -21,6 +21,8 @@
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
@@ -34,6 +36,7 @@
 import org.apache.maven.surefire.shared.utils.io.FileUtils;
 
 import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.fest.assertions.Assertions.assertThat;
 
 /**
@@ -166,4 +169,31 @@ public Void call()
         //noinspection ResultOfMethodCallIgnored
         expectedReportFile.delete();
     }
+
+    public void testUtf8BytesWrittenAsIs() throws IOException
+    {
+        File reportDir = new File( new File( System.getProperty( "user.dir" ), "target" ), "tmp5" );
+        TestSetReportEntry reportEntry =
+                new SimpleReportEntry( getClass().getName(), null, getClass().getName(), null );
+        ConsoleOutputFileReporter reporter = new ConsoleOutputFileReporter( reportDir, null, false, null, "UTF-8" );
+        reporter.testSetStarting( reportEntry );
+        ByteBuffer utf8Output = ByteBuffer.wrap( "some \u010d\u20ac".getBytes( UTF_8 ) );
+        reporter.writeUtf8TestOutput( utf8Output, true, true );
+        reporter.testSetCompleted( reportEntry );
+        reporter.close();
+
+        File expectedReportFile = new File( reportDir, getClass().getName() + "-output.txt" );
+
+        assertTrue( "Report file (" + expectedReportFile.getAbsolutePath() + ") doesn't exist",
+                expectedReportFile.exists() );
+
+        assertThat( new String( Files.readAllBytes( expectedReportFile.toPath() ), UTF_8 ) )
+                .isEqualTo( "some \u010d\u20ac" + System.lineSeparator() );
+
+        assertThat( utf8Output.position() )
+                .isEqualTo( 0 );
+
+        //noinspection ResultOfMethodCallIgnored
+        expectedReportFile.delete();
+    }
 }
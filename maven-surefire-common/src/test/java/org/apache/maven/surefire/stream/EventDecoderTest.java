@@ -20,6 +20,7 @@
  */
 
 import org.apache.maven.plugin.surefire.log.api.ConsoleLogger;
+import org.apache.maven.plugin.surefire.log.api.NullConsoleLogger;
 import org.apache.maven.surefire.api.booter.ForkedProcessEventType;
 import org.apache.maven.surefire.api.event.ConsoleDebugEvent;
 import org.apache.maven.surefire.api.event.ConsoleErrorEvent;
@@ -34,6 +35,8 @@
 import org.apache.maven.surefire.api.event.StandardStreamErrWithNewLineEvent;
 import org.apache.maven.surefire.api.event.StandardStreamOutEvent;
 import org.apache.maven.surefire.api.event.StandardStreamOutWithNewLineEvent;
+import org.apache.maven.surefire.api.event.ResourceUsageEvent;
+import org.apache.maven.surefire.api.event.StartupPhaseEvent;
 import org.apache.maven.surefire.api.event.SystemPropertyEvent;
 import org.apache.maven.surefire.api.event.TestAssumptionFailureEvent;
 import org.apache.maven.surefire.api.event.TestErrorEvent;
@@ -51,18 +54,31 @@
 import org.apache.maven.surefire.api.stream.AbstractStreamDecoder.Memento;
 import org.apache.maven.surefire.api.stream.AbstractStreamDecoder.Segment;
 import org.apache.maven.surefire.api.stream.SegmentType;
+import org.apache.maven.surefire.api.util.internal.WritableBufferedByteChannel;
+import org.apache.maven.surefire.booter.spi.EventBatchChannel;
+import org.apache.maven.surefire.booter.spi.EventChannelEncoder;
 import org.junit.Test;
 
 import javax.annotation.Nonnull;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.nio.ByteBuffer;
 import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.zip.Deflater;
 
 import static java.lang.Math.min;
 import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.asList;
+import static java.util.Arrays.copyOf;
 import static java.util.Collections.singletonList;
+import static org.apache.maven.surefire.api.booter.Constants.BATCH_DEFLATED;
+import static org.apache.maven.surefire.api.booter.Constants.BATCH_UNCOMPRESSED;
+import static org.apache.maven.surefire.api.booter.ForkedProcessEventType.BOOTERCODE_BATCH;
 import static org.apache.maven.surefire.api.booter.ForkedProcessEventType.BOOTERCODE_BYE;
 import static org.apache.maven.surefire.api.booter.ForkedProcessEventType.BOOTERCODE_CONSOLE_DEBUG;
 import static org.apache.maven.surefire.api.booter.ForkedProcessEventType.BOOTERCODE_CONSOLE_ERROR;
@@ -88,9 +104,12 @@
 import static org.apache.maven.surefire.api.report.RunMode.RERUN_TEST_AFTER_FAILURE;
 import static org.apache.maven.surefire.api.stream.SegmentType.DATA_INTEGER;
 import static org.apache.maven.surefire.api.stream.SegmentType.DATA_STRING;
+import static org.apache.maven.surefire.api.stream.SegmentType.DATA_STRING_BYTES;
 import static org.apache.maven.surefire.api.stream.SegmentType.END_OF_FRAME;
 import static org.apache.maven.surefire.api.stream.SegmentType.RUN_MODE;
+import static org.apache.maven.surefire.booter.spi.EventBatchChannel.BATCH_SIZE;
 import static org.apache.maven.surefire.api.stream.SegmentType.STRING_ENCODING;
+import static org.apache.maven.surefire.api.util.internal.Channels.newBufferedChannel;
 import static org.fest.assertions.Assertions.assertThat;
 import static org.powermock.api.mockito.PowerMockito.mock;
 import static org.powermock.api.mockito.PowerMockito.when;
@@ -178,22 +197,33 @@ public void shouldMapEventTypeToSegmentType()
         segmentTypes = decoder.nextSegmentType( BOOTERCODE_STDOUT );
         assertThat( segmentTypes )
             .hasSize( 4 )
-            .isEqualTo( new SegmentType[] { RUN_MODE, STRING_ENCODING, DATA_STRING, END_OF_FRAME } );
+            .isEqualTo( new SegmentType[] { RUN_MODE, STRING_ENCODING, DATA_STRING_BYTES, END_OF_FRAME } );
 
         segmentTypes = decoder.nextSegmentType( ForkedProcessEventType.BOOTERCODE_STDOUT_NEW_LINE );
         assertThat( segmentTypes )
             .hasSize( 4 )
-            .isEqualTo( new SegmentType[] { RUN_MODE, STRING_ENCODING, DATA_STRING, END_OF_FRAME } );
+            .isEqualTo( new SegmentType[] { RUN_MODE, STRING_ENCODING, DATA_STRING_BYTES, END_OF_FRAME } );
 
         segmentTypes = decoder.nextSegmentType( ForkedProcessEventType.BOOTERCODE_STDERR );
         assertThat( segmentTypes )
             .hasSize( 4 )
-            .isEqualTo( new SegmentType[] { RUN_MODE, STRING_ENCODING, DATA_STRING, END_OF_FRAME } );
+            .isEqualTo( new SegmentType[] { RUN_MODE, STRING_ENCODING, DATA_STRING_BYTES, END_OF_FRAME } );
 
         segmentTypes = decoder.nextSegmentType( ForkedProcessEventType.BOOTERCODE_STDERR_NEW_LINE );
         assertThat( segmentTypes )
             .hasSize( 4 )
-            .isEqualTo( new SegmentType[] { RUN_MODE, STRING_ENCODING, DATA_STRING, END_OF_FRAME } );
+            .isEqualTo( new SegmentType[] { RUN_MODE, STRING_ENCODING, DATA_STRING_BYTES, END_OF_FRAME } );
+
+        segmentTypes = decoder.nextSegmentType( ForkedProcessEventType.BOOTERCODE_STARTUP_PHASE );
+        assertThat( segmentTypes )
+            .hasSize( 4 )
+            .isEqualTo( new SegmentType[] { STRING_ENCODING, DATA_STRING, DATA_INTEGER, END_OF_FRAME } );
+
+        segmentTypes = decoder.nextSegmentType( ForkedProcessEventType.BOOTERCODE_RESOURCE_USAGE );
+        assertThat( segmentTypes )
+            .hasSize( 10 )
+            .isEqualTo( new SegmentType[] { DATA_INTEGER, DATA_INTEGER, DATA_INTEGER, DATA_INTEGER, DATA_INTEGER,
+                DATA_INTEGER, DATA_INTEGER, DATA_INTEGER, DATA_INTEGER, END_OF_FRAME } );
 
         segmentTypes = decoder.nextSegmentType( BOOTERCODE_SYSPROPS );
         assertThat( segmentTypes )
@@ -202,59 +232,59 @@ public void shouldMapEventTypeToSegmentType()
 
         segmentTypes = decoder.nextSegmentType( BOOTERCODE_TESTSET_STARTING );
         assertThat( segmentTypes )
-            .hasSize( 13 )
+            .hasSize( 14 )
             .isEqualTo( new SegmentType[] {
                 RUN_MODE, STRING_ENCODING, DATA_STRING, DATA_STRING, DATA_STRING, DATA_STRING, DATA_STRING,
-                DATA_STRING, DATA_INTEGER, DATA_STRING, DATA_STRING, DATA_STRING, END_OF_FRAME } );
+                DATA_STRING, DATA_INTEGER, DATA_STRING, DATA_STRING, DATA_STRING, DATA_INTEGER, END_OF_FRAME } );
 
         segmentTypes = decoder.nextSegmentType( ForkedProcessEventType.BOOTERCODE_TESTSET_COMPLETED );
         assertThat( segmentTypes )
-            .hasSize( 13 )
+            .hasSize( 14 )
             .isEqualTo( new SegmentType[] { RUN_MODE, STRING_ENCODING, DATA_STRING, DATA_STRING, DATA_STRING,
                 DATA_STRING, DATA_STRING, DATA_STRING, DATA_INTEGER, DATA_STRING, DATA_STRING, DATA_STRING,
-                END_OF_FRAME } );
+                DATA_INTEGER, END_OF_FRAME } );
 
         segmentTypes = decoder.nextSegmentType( ForkedProcessEventType.BOOTERCODE_TEST_STARTING );
         assertThat( segmentTypes )
-            .hasSize( 13 )
+            .hasSize( 14 )
             .isEqualTo( new SegmentType[] { RUN_MODE, STRING_ENCODING, DATA_STRING, DATA_STRING, DATA_STRING,
                 DATA_STRING, DATA_STRING, DATA_STRING, DATA_INTEGER, DATA_STRING, DATA_STRING, DATA_STRING,
-                END_OF_FRAME } );
+                DATA_INTEGER, END_OF_FRAME } );
 
         segmentTypes = decoder.nextSegmentType( BOOTERCODE_TEST_SUCCEEDED );
         assertThat( segmentTypes )
-            .hasSize( 13 )
+            .hasSize( 14 )
             .isEqualTo( new SegmentType[] { RUN_MODE, STRING_ENCODING, DATA_STRING, DATA_STRING, DATA_STRING,
                 DATA_STRING, DATA_STRING, DATA_STRING, DATA_INTEGER, DATA_STRING, DATA_STRING, DATA_STRING,
-                END_OF_FRAME } );
+                DATA_INTEGER, END_OF_FRAME } );
 
         segmentTypes = decoder.nextSegmentType( BOOTERCODE_TEST_FAILED );
         assertThat( segmentTypes )
-            .hasSize( 13 )
+            .hasSize( 14 )
             .isEqualTo( new SegmentType[] { RUN_MODE, STRING_ENCODING, DATA_STRING, DATA_STRING, DATA_STRING,
                 DATA_STRING, DATA_STRING, DATA_STRING, DATA_INTEGER, DATA_STRING, DATA_STRING, DATA_STRING,
-                END_OF_FRAME } );
+                DATA_INTEGER, END_OF_FRAME } );
 
         segmentTypes = decoder.nextSegmentType( ForkedProcessEventType.BOOTERCODE_TEST_SKIPPED );
         assertThat( segmentTypes )
-            .hasSize( 13 )
+            .hasSize( 14 )
             .isEqualTo( new SegmentType[] { RUN_MODE, STRING_ENCODING, DATA_STRING, DATA_STRING, DATA_STRING,
                 DATA_STRING, DATA_STRING, DATA_STRING, DATA_INTEGER, DATA_STRING, DATA_STRING, DATA_STRING,
-                END_OF_FRAME } );
+                DATA_INTEGER, END_OF_FRAME } );
 
         segmentTypes = decoder.nextSegmentType( ForkedProcessEventType.BOOTERCODE_TEST_ERROR );
         assertThat( segmentTypes )
-            .hasSize( 13 )
+            .hasSize( 14 )
             .isEqualTo( new SegmentType[] { RUN_MODE, STRING_ENCODING, DATA_STRING, DATA_STRING, DATA_STRING,
                 DATA_STRING, DATA_STRING, DATA_STRING, DATA_INTEGER, DATA_STRING, DATA_STRING, DATA_STRING,
-                END_OF_FRAME } );
+                DATA_INTEGER, END_OF_FRAME } );
 
         segmentTypes = decoder.nextSegmentType( ForkedProcessEventType.BOOTERCODE_TEST_ASSUMPTIONFAILURE );
         assertThat( segmentTypes )
-            .hasSize( 13 )
+            .hasSize( 14 )
             .isEqualTo( new SegmentType[] { RUN_MODE, STRING_ENCODING, DATA_STRING, DATA_STRING, DATA_STRING,
                 DATA_STRING, DATA_STRING, DATA_STRING, DATA_INTEGER, DATA_STRING, DATA_STRING, DATA_STRING,
-                END_OF_FRAME } );
+                DATA_INTEGER, END_OF_FRAME } );
     }
 
     @Test
@@ -376,7 +406,7 @@ public void shouldCreateEvent() throws Exception
 
         memento = decoder.new Memento();
         memento.getData().addAll( asList( "source", "sourceText", "name", "nameText", "group", "message", 5,
-            "traceMessage", "smartTrimmedStackTrace", "stackTrace" ) );
+            "traceMessage", "smartTrimmedStackTrace", "stackTrace", null ) );
         event = decoder.toMessage( BOOTERCODE_TESTSET_STARTING, NORMAL_RUN, memento );
         assertThat( event ).isInstanceOf( TestsetStartingEvent.class );
         assertThat( ( (TestsetStartingEvent) event ).getRunMode() ).isEqualTo( NORMAL_RUN );
@@ -397,7 +427,7 @@ public void shouldCreateEvent() throws Exception
 
         memento = decoder.new Memento();
         memento.getData().addAll( asList( "source", "sourceText", "name", "nameText", "group", null, 5,
-            "traceMessage", "smartTrimmedStackTrace", "stackTrace" ) );
+            "traceMessage", "smartTrimmedStackTrace", "stackTrace", null ) );
         event = decoder.toMessage( BOOTERCODE_TESTSET_COMPLETED, NORMAL_RUN, memento );
         assertThat( event ).isInstanceOf( TestsetCompletedEvent.class );
         assertThat( ( (TestsetCompletedEvent) event ).getRunMode() ).isEqualTo( NORMAL_RUN );
@@ -418,7 +448,7 @@ public void shouldCreateEvent() throws Exception
 
         memento = decoder.new Memento();
         memento.getData().addAll( asList( "source", "sourceText", "name", "nameText", "group", "message", 5,
-            null, "smartTrimmedStackTrace", "stackTrace" ) );
+            null, "smartTrimmedStackTrace", "stackTrace", null ) );
         event = decoder.toMessage( BOOTERCODE_TEST_STARTING, NORMAL_RUN, memento );
         assertThat( event ).isInstanceOf( TestStartingEvent.class );
         assertThat( ( (TestStartingEvent) event ).getRunMode() ).isEqualTo( NORMAL_RUN );
@@ -439,7 +469,8 @@ public void shouldCreateEvent() throws Exception
 
         memento = decoder.new Memento();
         memento.getData()
-            .addAll( asList( "source", "sourceText", "name", "nameText", "group", "message", 5, null, null, null ) );
+            .addAll( asList( "source", "sourceText", "name", "nameText", "group", "message", 5,
+                null, null, null, null ) );
         event = decoder.toMessage( BOOTERCODE_TEST_SUCCEEDED, NORMAL_RUN, memento );
         assertThat( event ).isInstanceOf( TestSucceededEvent.class );
         assertThat( ( (TestSucceededEvent) event ).getRunMode() ).isEqualTo( NORMAL_RUN );
@@ -454,7 +485,7 @@ public void shouldCreateEvent() throws Exception
 
         memento = decoder.new Memento();
         memento.getData().addAll( asList( "source", null, "name", null, "group", null, 5,
-            "traceMessage", "smartTrimmedStackTrace", "stackTrace" ) );
+            "traceMessage", "smartTrimmedStackTrace", "stackTrace", null ) );
         event = decoder.toMessage( BOOTERCODE_TEST_FAILED, RERUN_TEST_AFTER_FAILURE, memento );
         assertThat( event ).isInstanceOf( TestFailedEvent.class );
         assertThat( ( (TestFailedEvent) event ).getRunMode() ).isEqualTo( RERUN_TEST_AFTER_FAILURE );
@@ -474,7 +505,8 @@ public void shouldCreateEvent() throws Exception
             .isEqualTo( "stackTrace" );
 
         memento = decoder.new Memento();
-        memento.getData().addAll( asList( "source", null, "name", null, null, null, 5, null, null, "stackTrace" ) );
+        memento.getData().addAll( asList( "source", null, "name", null, null, null, 5,
+            null, null, "stackTrace", null ) );
         event = decoder.toMessage( BOOTERCODE_TEST_SKIPPED, NORMAL_RUN, memento );
         assertThat( event ).isInstanceOf( TestSkippedEvent.class );
         assertThat( ( (TestSkippedEvent) event ).getRunMode() ).isEqualTo( NORMAL_RUN );
@@ -497,7 +529,7 @@ public void shouldCreateEvent() throws Exception
 
         memento = decoder.new Memento();
         memento.getData()
-            .addAll( asList( "source", null, "name", "nameText", null, null, 0, null, null, "stackTrace" ) );
+            .addAll( asList( "source", null, "name", "nameText", null, null, 0, null, null, "stackTrace", null ) );
         event = decoder.toMessage( BOOTERCODE_TEST_ERROR, NORMAL_RUN, memento );
         assertThat( event ).isInstanceOf( TestErrorEvent.class );
         assertThat( ( (TestErrorEvent) event ).getRunMode() ).isEqualTo( NORMAL_RUN );
@@ -519,7 +551,8 @@ public void shouldCreateEvent() throws Exception
             .isEqualTo( "stackTrace" );
 
         memento = decoder.new Memento();
-        memento.getData().addAll( asList( "source", null, "name", null, "group", null, 5, null, null, "stackTrace" ) );
+        memento.getData().addAll( asList( "source", null, "name", null, "group", null, 5,
+            null, null, "stackTrace", null ) );
         event = decoder.toMessage( BOOTERCODE_TEST_ASSUMPTIONFAILURE, NORMAL_RUN, memento );
         assertThat( event ).isInstanceOf( TestAssumptionFailureEvent.class );
         assertThat( ( (TestAssumptionFailureEvent) event ).getRunMode() ).isEqualTo( NORMAL_RUN );
@@ -541,6 +574,290 @@ public void shouldCreateEvent() throws Exception
             .isEqualTo( "stackTrace" );
     }
 
+    @Test
+    public void shouldDecodeStandardStreamToUtf8Bytes() throws Exception
+    {
+        byte[] message = "msg \u00e1\u0161\u20ac".getBytes( UTF_8 );
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        frame.write( ( ":maven-surefire-event:\u000e:std-out-stream:\n:normal-run:\u0005:UTF-8:" )
+            .getBytes( US_ASCII ) );
+        frame.write( ByteBuffer.allocate( 4 ).putInt( message.length ).array() );
+        frame.write( ':' );
+        frame.write( message );
+        frame.write( ':' );
+
+        Channel channel = new Channel( frame.toByteArray(), 1 );
+        EventDecoder decoder = new EventDecoder( channel, new MockForkNodeArguments() );
+        Event event = decoder.decode( decoder.new Memento() );
+
+        assertThat( event )
+            .isInstanceOf( StandardStreamOutEvent.class );
+        StandardStreamOutEvent stdOutEvent = (StandardStreamOutEvent) event;
+        assertThat( stdOutEvent.getRunMode() )
+            .isEqualTo( NORMAL_RUN );
+        ByteBuffer utf8Message = stdOutEvent.getUtf8Message();
+        assertThat( utf8Message )
+            .isNotNull();
+        byte[] decodedBytes = new byte[utf8Message.remaining()];
+        utf8Message.get( decodedBytes );
+        assertThat( decodedBytes )
+            .isEqualTo( message );
+        assertThat( stdOutEvent.getMessage() )
+            .isEqualTo( "msg \u00e1\u0161\u20ac" );
+    }
+
+    @Test
+    public void shouldDecodeStartupPhase() throws Exception
+    {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        WritableBufferedByteChannel out = newBufferedChannel( stream );
+        new EventChannelEncoder( out ).startupPhase( "test-discovery", 123456 );
+        out.close();
+
+        Channel channel = new Channel( stream.toByteArray(), 1 );
+        EventDecoder decoder = new EventDecoder( channel, new MockForkNodeArguments() );
+        Event event = decoder.decode( decoder.new Memento() );
+
+        assertThat( event )
+            .isInstanceOf( StartupPhaseEvent.class );
+        assertThat( event.isStartupPhaseCategory() )
+            .isTrue();
+        assertThat( ( (StartupPhaseEvent) event ).getPhase() )
+            .isEqualTo( "test-discovery" );
+        assertThat( ( (StartupPhaseEvent) event ).getElapsedMicros() )
+            .isEqualTo( 123456 );
+    }
+
+    @Test
+    public void shouldDecodeResourceUsage() throws Exception
+    {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        WritableBufferedByteChannel out = newBufferedChannel( stream );
+        new EventChannelEncoder( out ).resourceUsage( new ResourceUsageEvent( 1000, 2, 3, 4, 5, 6, 7, -1, 9 ) );
+        out.close();
+
+        Channel channel = new Channel( stream.toByteArray(), 1 );
+        EventDecoder decoder = new EventDecoder( channel, new MockForkNodeArguments() );
+        Event event = decoder.decode( decoder.new Memento() );
+
+        assertThat( event )
+            .isInstanceOf( ResourceUsageEvent.class );
+        assertThat( event.isResourceUsageCategory() )
+            .isTrue();
+        ResourceUsageEvent usage = (ResourceUsageEvent) event;
+        assertThat( usage.getUptimeMillis() )
+            .isEqualTo( 1000 );
+        assertThat( usage.getHeapUsedKiB() )
+            .isEqualTo( 2 );
+        assertThat( usage.getHeapCommittedKiB() )
+            .isEqualTo( 3 );
+        assertThat( usage.getHeapUsedAfterGcKiB() )
+            .isEqualTo( 4 );
+        assertThat( usage.getGcCount() )
+            .isEqualTo( 5 );
+        assertThat( usage.getGcTimeMillis() )
+            .isEqualTo( 6 );
+        assertThat( usage.getThreadCount() )
+            .isEqualTo( 7 );
+        assertThat( usage.getCpuTimeMillis() )
+            .isEqualTo( ResourceUsageEvent.UNAVAILABLE );
+        assertThat( usage.getLoadedClassCount() )
+            .isEqualTo( 9 );
+    }
+
+    @Test
+    public void shouldShareInternedStackTraces() throws Exception
+    {
+        StackTraceWriter stackTraceWriter = mock( StackTraceWriter.class );
+        when( stackTraceWriter.getThrowable() ).thenReturn( new SafeThrowable( "msg" ) );
+        when( stackTraceWriter.smartTrimmedStackTrace() ).thenReturn( "MyTest:86 >> Error" );
+        when( stackTraceWriter.writeTraceToString() ).thenReturn( "trace line 1\ntrace line 2" );
+        ReportEntry reportEntry = mock( ReportEntry.class );
+        when( reportEntry.getSourceName() ).thenReturn( "pkg.MyTest" );
+        when( reportEntry.getStackTraceWriter() ).thenReturn( stackTraceWriter );
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        WritableBufferedByteChannel out = newBufferedChannel( stream );
+        EventChannelEncoder encoder = new EventChannelEncoder( out );
+        encoder.testFailed( reportEntry, false );
+        encoder.testError( reportEntry, false );
+        out.close();
+
+        Channel channel = new Channel( stream.toByteArray(), 1 );
+        EventDecoder decoder = new EventDecoder( channel, new MockForkNodeArguments() );
+        Memento memento = decoder.new Memento();
+        StackTraceWriter failure = ( (TestFailedEvent) decoder.decode( memento ) )
+            .getReportEntry().getStackTraceWriter();
+        StackTraceWriter error = ( (TestErrorEvent) decoder.decode( memento ) )
+            .getReportEntry().getStackTraceWriter();
+
+        assertThat( failure.getThrowable().getLocalizedMessage() )
+            .isEqualTo( "msg" );
+        assertThat( failure.smartTrimmedStackTrace() )
+            .isEqualTo( "MyTest:86 >> Error" );
+        assertThat( failure.writeTraceToString() )
+            .isEqualTo( "trace line 1\ntrace line 2" );
+        assertThat( error.getThrowable().getLocalizedMessage() )
+            .isEqualTo( "msg" );
+        assertThat( error.smartTrimmedStackTrace() )
+            .isSameAs( failure.smartTrimmedStackTrace() );
+        assertThat( error.writeTraceToString() )
+            .isSameAs( failure.writeTraceToString() );
+    }
+
+    @Test
+    public void shouldUnpackBatches() throws Exception
+    {
+        shouldUnpackBatches( false, 1 );
+        shouldUnpackBatches( false, 1000 );
+    }
+
+    @Test
+    public void shouldUnpackDeflatedBatches() throws Exception
+    {
+        shouldUnpackBatches( true, 1 );
+        shouldUnpackBatches( true, 1000 );
+    }
+
+    private static void shouldUnpackBatches( boolean deflate, int chunkSize ) throws Exception
+    {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        EventChannelEncoder encoder =
+            new EventChannelEncoder( new EventBatchChannel( newBufferedChannel( stream ), deflate ) );
+        for ( int i = 0; i < 2000; i++ )
+        {
+            encoder.stdOut( "line " + i, true );
+        }
+        encoder.consoleInfoLog( "info" );
+        encoder.acquireNextTest();
+        encoder.stdErr( "last line", false );
+        encoder.bye();
+
+        Channel channel = new Channel( stream.toByteArray(), chunkSize );
+        EventDecoder decoder = new EventDecoder( channel, new MockForkNodeArguments() );
+        Memento memento = decoder.new Memento();
+        List<Event> events = new ArrayList<>();
+        try
+        {
+            while ( true )
+            {
+                Event event = decoder.decode( memento );
+                if ( event != null )
+                {
+                    events.add( event );
+                }
+            }
+        }
+        catch ( EOFException e )
+        {
+            // end of stream
+        }
+
+        assertThat( events )
+            .hasSize( 2004 );
+        for ( int i = 0; i < 2000; i++ )
+        {
+            assertThat( events.get( i ) )
+                .isInstanceOf( StandardStreamOutWithNewLineEvent.class );
+            assertThat( ( (StandardStreamOutWithNewLineEvent) events.get( i ) ).getMessage() )
+                .isEqualTo( "line " + i );
+        }
+        assertThat( events.get( 2000 ) )
+            .isInstanceOf( ConsoleInfoEvent.class );
+        assertThat( events.get( 2001 ) )
+            .isInstanceOf( ControlNextTestEvent.class );
+        assertThat( ( (StandardStreamErrEvent) events.get( 2002 ) ).getMessage() )
+            .isEqualTo( "last line" );
+        assertThat( events.get( 2003 ) )
+            .isInstanceOf( ControlByeEvent.class );
+    }
+
+    @Test
+    public void shouldRejectBatchLongerThanBatchSize() throws Exception
+    {
+        ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        WritableBufferedByteChannel out = newBufferedChannel( frames );
+        EventChannelEncoder encoder = new EventChannelEncoder( out );
+        for ( int i = 0; i < BATCH_SIZE / 64; i++ )
+        {
+            encoder.stdOut( "line " + i, true );
+        }
+        out.close();
+        assertThat( frames.size() )
+            .isGreaterThan( BATCH_SIZE );
+        shouldRejectBatch( BATCH_UNCOMPRESSED, frames.size(), frames.toByteArray() );
+
+        Deflater deflater = new Deflater();
+        deflater.setInput( new byte[1] );
+        deflater.finish();
+        byte[] deflated = new byte[64];
+        shouldRejectBatch( BATCH_DEFLATED, Integer.MAX_VALUE, copyOf( deflated, deflater.deflate( deflated ) ) );
+        deflater.end();
+    }
+
+    private static void shouldRejectBatch( byte compression, int length, byte[] frames ) throws Exception
+    {
+        byte[] opcode = BOOTERCODE_BATCH.getOpcodeBinary();
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        stream.write( ":maven-surefire-event:".getBytes( US_ASCII ) );
+        stream.write( opcode.length );
+        stream.write( ':' );
+        stream.write( opcode );
+        stream.write( ':' );
+        stream.write( compression );
+        stream.write( ':' );
+        stream.write( ByteBuffer.allocate( 4 ).putInt( length ).array() );
+        stream.write( ':' );
+        stream.write( ByteBuffer.allocate( 4 ).putInt( frames.length ).array() );
+        stream.write( ':' );
+        stream.write( frames );
+        stream.write( ':' );
+        WritableBufferedByteChannel out = newBufferedChannel( stream );
+        new EventChannelEncoder( out ).bye();
+        out.close();
+
+        Channel channel = new Channel( stream.toByteArray(), 1024 );
+        ForkNodeArguments arguments = new MockForkNodeArguments()
+        {
+            @Nonnull
+            @Override
+            public File dumpStreamText( @Nonnull String text )
+            {
+                return new File( "dump" );
+            }
+
+            @Nonnull
+            @Override
+            public ConsoleLogger getConsoleLogger()
+            {
+                return new NullConsoleLogger();
+            }
+        };
+        EventDecoder decoder = new EventDecoder( channel, arguments );
+        Memento memento = decoder.new Memento();
+        List<Event> events = new ArrayList<>();
+        try
+        {
+            while ( true )
+            {
+                Event event = decoder.decode( memento );
+                if ( event != null )
+                {
+                    events.add( event );
+                }
+            }
+        }
+        catch ( EOFException e )
+        {
+            // end of stream
+        }
+
+        assertThat( events )
+            .hasSize( 1 );
+        assertThat( events.get( 0 ) )
+            .isInstanceOf( ControlByeEvent.class );
+    }
+
     @Test
     public void shouldRecognizeEmptyStream4ReportEntry()
     {
@@ -443,6 +443,12 @@
      *
      * <br>
      *
+     * The {@code handle} (since 3.0.0-M6) is the {@code native} checker which does not spawn the commands
+     * {@code ps} or {@code wmic} every second in every forked JVM. It reads {@code /proc/<ppid>/stat} on Linux
+     * or it uses {@code ProcessHandle} on Java 9+, and falls back to the commands on other platforms.
+     *
+     * <br>
+     *
      * Another useful configuration parameter is {@code forkedProcessTimeoutInSeconds}.
      * <br>
      * See the Frequently Asked Questions page with more details:<br>
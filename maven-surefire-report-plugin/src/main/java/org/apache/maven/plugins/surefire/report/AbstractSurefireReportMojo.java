@@ -89,6 +89,15 @@
     @Parameter( defaultValue = "false", property = "aggregate" )
     private boolean aggregate;
 
+    /**
+     * Whether to keep an index of the parsed XML reports in the reports directories. Only the reports which have
+     * changed since the last build are parsed again.
+     *
+     * @since 3.0.0-M6
+     */
+    @Parameter( defaultValue = "true", property = "useReportIndex" )
+    private boolean useReportIndex;
+
     private List<File> resolvedReportsDirectories;
 
     /**
@@ -134,7 +143,7 @@ public void executeReport( Locale locale )
         }
 
         new SurefireReportGenerator( getReportsDirectories(), locale, showSuccess, determineXrefLocation(),
-                                           getConsoleLogger() )
+                                           getConsoleLogger(), useReportIndex )
                 .doGenerateReport( getBundle( locale ), getSink() );
     }
 
@@ -57,7 +57,13 @@
     public SurefireReportGenerator( List<File> reportsDirectories, Locale locale, boolean showSuccess,
                                     String xrefLocation, ConsoleLogger consoleLogger )
     {
-        report = new SurefireReportParser( reportsDirectories, locale, consoleLogger );
+        this( reportsDirectories, locale, showSuccess, xrefLocation, consoleLogger, false );
+    }
+
+    public SurefireReportGenerator( List<File> reportsDirectories, Locale locale, boolean showSuccess,
+                                    String xrefLocation, ConsoleLogger consoleLogger, boolean useReportIndex )
+    {
+        report = new SurefireReportParser( reportsDirectories, locale, consoleLogger, useReportIndex );
         this.showSuccess = showSuccess;
         this.xrefLocation = xrefLocation;
     }
@@ -35,4 +35,7 @@
     public static final byte[] MAGIC_NUMBER_FOR_COMMANDS_BYTES = MAGIC_NUMBER_FOR_COMMANDS.getBytes( US_ASCII );
     public static final Charset DEFAULT_STREAM_ENCODING = UTF_8;
     public static final byte[] DEFAULT_STREAM_ENCODING_BYTES = UTF_8.name().getBytes( US_ASCII );
+    public static final byte BATCH_UNCOMPRESSED = 0;
+    public static final byte BATCH_DEFLATED = 1;
+    public static final int STACK_TRACE_DICTIONARY_SIZE = 256;
 }
@@ -45,7 +45,7 @@
     /**
      * This is the opcode "testset-starting". The frame is composed of segments and the separator characters ':'
      * <pre>
-     * :maven-surefire-event:testset-starting:RunMode:UTF-8:0xFFFFFFFF:SourceName:0xFFFFFFFF:SourceText:0xFFFFFFFF:Name:0xFFFFFFFF:NameText:0xFFFFFFFF:Group:0xFFFFFFFF:Message:ElapsedTime (binary int):0xFFFFFFFF:LocalizedMessage:0xFFFFFFFF:SmartTrimmedStackTrace:0xFFFFFFFF:toStackTrace( stw, trimStackTraces ):
+     * :maven-surefire-event:testset-starting:RunMode:UTF-8:0xFFFFFFFF:SourceName:0xFFFFFFFF:SourceText:0xFFFFFFFF:Name:0xFFFFFFFF:NameText:0xFFFFFFFF:Group:0xFFFFFFFF:Message:ElapsedTime (binary int):0xFFFFFFFF:LocalizedMessage:0xFFFFFFFF:SmartTrimmedStackTrace:0xFFFFFFFF:toStackTrace( stw, trimStackTraces ):TraceId (binary int):
      * </pre>
      * The constructor with one argument:
      * <ul>
@@ -57,7 +57,7 @@
     /**
      * This is the opcode "testset-completed". The frame is composed of segments and the separator characters ':'
      * <pre>
-     * :maven-surefire-event:testset-completed:RunMode:UTF-8:0xFFFFFFFF:SourceName:0xFFFFFFFF:SourceText:0xFFFFFFFF:Name:0xFFFFFFFF:NameText:0xFFFFFFFF:Group:0xFFFFFFFF:Message:ElapsedTime (binary int):0xFFFFFFFF:LocalizedMessage:0xFFFFFFFF:SmartTrimmedStackTrace:0xFFFFFFFF:toStackTrace( stw, trimStackTraces ):
+     * :maven-surefire-event:testset-completed:RunMode:UTF-8:0xFFFFFFFF:SourceName:0xFFFFFFFF:SourceText:0xFFFFFFFF:Name:0xFFFFFFFF:NameText:0xFFFFFFFF:Group:0xFFFFFFFF:Message:ElapsedTime (binary int):0xFFFFFFFF:LocalizedMessage:0xFFFFFFFF:SmartTrimmedStackTrace:0xFFFFFFFF:toStackTrace( stw, trimStackTraces ):TraceId (binary int):
      * </pre>
      * The constructor with one argument:
      * <ul>
@@ -69,7 +69,7 @@
     /**
      * This is the opcode "test-starting". The frame is composed of segments and the separator characters ':'
      * <pre>
-     * :maven-surefire-event:test-starting:RunMode:UTF-8:0xFFFFFFFF:SourceName:0xFFFFFFFF:SourceText:0xFFFFFFFF:Name:0xFFFFFFFF:NameText:0xFFFFFFFF:Group:0xFFFFFFFF:Message:ElapsedTime (binary int):0xFFFFFFFF:LocalizedMessage:0xFFFFFFFF:SmartTrimmedStackTrace:0xFFFFFFFF:toStackTrace( stw, trimStackTraces ):
+     * :maven-surefire-event:test-starting:RunMode:UTF-8:0xFFFFFFFF:SourceName:0xFFFFFFFF:SourceText:0xFFFFFFFF:Name:0xFFFFFFFF:NameText:0xFFFFFFFF:Group:0xFFFFFFFF:Message:ElapsedTime (binary int):0xFFFFFFFF:LocalizedMessage:0xFFFFFFFF:SmartTrimmedStackTrace:0xFFFFFFFF:toStackTrace( stw, trimStackTraces ):TraceId (binary int):
      * </pre>
      * The constructor with one argument:
      * <ul>
@@ -81,7 +81,7 @@
     /**
      * This is the opcode "test-succeeded". The frame is composed of segments and the separator characters ':'
      * <pre>
-     * :maven-surefire-event:test-succeeded:RunMode:UTF-8:0xFFFFFFFF:SourceName:0xFFFFFFFF:SourceText:0xFFFFFFFF:Name:0xFFFFFFFF:NameText:0xFFFFFFFF:Group:0xFFFFFFFF:Message:ElapsedTime (binary int):0xFFFFFFFF:LocalizedMessage:0xFFFFFFFF:SmartTrimmedStackTrace:0xFFFFFFFF:toStackTrace( stw, trimStackTraces ):
+     * :maven-surefire-event:test-succeeded:RunMode:UTF-8:0xFFFFFFFF:SourceName:0xFFFFFFFF:SourceText:0xFFFFFFFF:Name:0xFFFFFFFF:NameText:0xFFFFFFFF:Group:0xFFFFFFFF:Message:ElapsedTime (binary int):0xFFFFFFFF:LocalizedMessage:0xFFFFFFFF:SmartTrimmedStackTrace:0xFFFFFFFF:toStackTrace( stw, trimStackTraces ):TraceId (binary int):
      * </pre>
      * The constructor with one argument:
      * <ul>
@@ -93,7 +93,7 @@
     /**
      * This is the opcode "test-failed". The frame is composed of segments and the separator characters ':'
      * <pre>
-     * :maven-surefire-event:test-failed:RunMode:UTF-8:0xFFFFFFFF:SourceName:0xFFFFFFFF:SourceText:0xFFFFFFFF:Name:0xFFFFFFFF:NameText:0xFFFFFFFF:Group:0xFFFFFFFF:Message:ElapsedTime (binary int):0xFFFFFFFF:LocalizedMessage:0xFFFFFFFF:SmartTrimmedStackTrace:0xFFFFFFFF:toStackTrace( stw, trimStackTraces ):
+     * :maven-surefire-event:test-failed:RunMode:UTF-8:0xFFFFFFFF:SourceName:0xFFFFFFFF:SourceText:0xFFFFFFFF:Name:0xFFFFFFFF:NameText:0xFFFFFFFF:Group:0xFFFFFFFF:Message:ElapsedTime (binary int):0xFFFFFFFF:LocalizedMessage:0xFFFFFFFF:SmartTrimmedStackTrace:0xFFFFFFFF:toStackTrace( stw, trimStackTraces ):TraceId (binary int):
      * </pre>
      * The constructor with one argument:
      * <ul>
@@ -105,7 +105,7 @@
     /**
      * This is the opcode "test-skipped". The frame is composed of segments and the separator characters ':'
      * <pre>
-     * :maven-surefire-event:test-skipped:RunMode:UTF-8:0xFFFFFFFF:SourceName:0xFFFFFFFF:SourceText:0xFFFFFFFF:Name:0xFFFFFFFF:NameText:0xFFFFFFFF:Group:0xFFFFFFFF:Message:ElapsedTime (binary int):0xFFFFFFFF:LocalizedMessage:0xFFFFFFFF:SmartTrimmedStackTrace:0xFFFFFFFF:toStackTrace( stw, trimStackTraces ):
+     * :maven-surefire-event:test-skipped:RunMode:UTF-8:0xFFFFFFFF:SourceName:0xFFFFFFFF:SourceText:0xFFFFFFFF:Name:0xFFFFFFFF:NameText:0xFFFFFFFF:Group:0xFFFFFFFF:Message:ElapsedTime (binary int):0xFFFFFFFF:LocalizedMessage:0xFFFFFFFF:SmartTrimmedStackTrace:0xFFFFFFFF:toStackTrace( stw, trimStackTraces ):TraceId (binary int):
      * </pre>
      * The constructor with one argument:
      * <ul>
@@ -117,7 +117,7 @@
     /**
      * This is the opcode "test-error". The frame is composed of segments and the separator characters ':'
      * <pre>
-     * :maven-surefire-event:test-error:RunMode:UTF-8:0xFFFFFFFF:SourceName:0xFFFFFFFF:SourceText:0xFFFFFFFF:Name:0xFFFFFFFF:NameText:0xFFFFFFFF:Group:0xFFFFFFFF:Message:ElapsedTime (binary int):0xFFFFFFFF:LocalizedMessage:0xFFFFFFFF:SmartTrimmedStackTrace:0xFFFFFFFF:toStackTrace( stw, trimStackTraces ):
+     * :maven-surefire-event:test-error:RunMode:UTF-8:0xFFFFFFFF:SourceName:0xFFFFFFFF:SourceText:0xFFFFFFFF:Name:0xFFFFFFFF:NameText:0xFFFFFFFF:Group:0xFFFFFFFF:Message:ElapsedTime (binary int):0xFFFFFFFF:LocalizedMessage:0xFFFFFFFF:SmartTrimmedStackTrace:0xFFFFFFFF:toStackTrace( stw, trimStackTraces ):TraceId (binary int):
      * </pre>
      * The constructor with one argument:
      * <ul>
@@ -129,7 +129,7 @@
     /**
      * This is the opcode "test-assumption-failure". The frame is composed of segments and the separator characters ':'
      * <pre>
-     * :maven-surefire-event:test-assumption-failure:RunMode:UTF-8:0xFFFFFFFF:SourceName:0xFFFFFFFF:SourceText:0xFFFFFFFF:Name:0xFFFFFFFF:NameText:0xFFFFFFFF:Group:0xFFFFFFFF:Message:ElapsedTime (binary int):0xFFFFFFFF:LocalizedMessage:0xFFFFFFFF:SmartTrimmedStackTrace:0xFFFFFFFF:toStackTrace( stw, trimStackTraces ):
+     * :maven-surefire-event:test-assumption-failure:RunMode:UTF-8:0xFFFFFFFF:SourceName:0xFFFFFFFF:SourceText:0xFFFFFFFF:Name:0xFFFFFFFF:NameText:0xFFFFFFFF:Group:0xFFFFFFFF:Message:ElapsedTime (binary int):0xFFFFFFFF:LocalizedMessage:0xFFFFFFFF:SmartTrimmedStackTrace:0xFFFFFFFF:toStackTrace( stw, trimStackTraces ):TraceId (binary int):
      * </pre>
      * The constructor with one argument:
      * <ul>
@@ -280,7 +280,57 @@
      *     <li>the opcode is "jvm-exit-error"
      * </ul>
      */
-    BOOTERCODE_JVM_EXIT_ERROR( "jvm-exit-error" );
+    BOOTERCODE_JVM_EXIT_ERROR( "jvm-exit-error" ),
+
+    /**
+     * This is the opcode "startup-phase". The frame is composed of segments and the separator characters ':'
+     * <pre>
+     * :maven-surefire-event:startup-phase:UTF-8:0xFFFFFFFF:phase:ElapsedTime (binary int):
+     * </pre>
+     * The elapsed time of the phase of the startup of the forked JVM is in microseconds.
+     * The constructor with one argument:
+     * <ul>
+     *     <li>the opcode is "startup-phase"
+     * </ul>
+     *
+     * @since 3.0.0-M6
+     */
+    BOOTERCODE_STARTUP_PHASE( "startup-phase" ),
+
+    /**
+     * This is the opcode "resource-usage". The frame is composed of segments and the separator characters ':'
+     * <pre>
+     * :maven-surefire-event:resource-usage:Uptime (binary int):HeapUsed (binary int):HeapCommitted (binary int):
+     * HeapUsedAfterGc (binary int):GcCount (binary int):GcTime (binary int):ThreadCount (binary int):
+     * CpuTime (binary int):LoadedClassCount (binary int):
+     * </pre>
+     * The sample of the resources of the forked JVM, the times are in milliseconds and the memory is in kibibytes.
+     * The constructor with one argument:
+     * <ul>
+     *     <li>the opcode is "resource-usage"
+     * </ul>
+     *
+     * @since 3.0.0-M6
+     */
+    BOOTERCODE_RESOURCE_USAGE( "resource-usage" ),
+
+    /**
+     * This is the opcode "batch". The frame is composed of segments and the separator characters ':'
+     * <pre>
+     * :maven-surefire-event:batch:compression (binary byte):count (binary int):length (binary int):frames:
+     * </pre>
+     * The frames are the bytes of the other events as they would be written to the stream, the count is the number
+     * of these bytes and the length is the number of the bytes which follow in this frame. The frames are deflated if
+     * the compression is {@link Constants#BATCH_DEFLATED}, and copied if {@link Constants#BATCH_UNCOMPRESSED}.
+     * The frame is not decoded to any event, the frames are decoded as if they followed this frame in the stream.
+     * The constructor with one argument:
+     * <ul>
+     *     <li>the opcode is "batch"
+     * </ul>
+     *
+     * @since 3.0.0-M6
+     */
+    BOOTERCODE_BATCH( "batch" );
 
     private final String opcode;
     private final byte[] opcodeBinary;
@@ -345,4 +395,19 @@ public boolean isJvmExitError()
     {
         return this == BOOTERCODE_JVM_EXIT_ERROR;
     }
+
+    public boolean isStartupPhaseCategory()
+    {
+        return this == BOOTERCODE_STARTUP_PHASE;
+    }
+
+    public boolean isResourceUsageCategory()
+    {
+        return this == BOOTERCODE_RESOURCE_USAGE;
+    }
+
+    public boolean isBatch()
+    {
+        return this == BOOTERCODE_BATCH;
+    }
 }
@@ -20,12 +20,14 @@
  */
 
 import org.apache.maven.plugin.surefire.log.api.ConsoleLogger;
-import org.apache.maven.surefire.api.report.ConsoleOutputReceiver;
 import org.apache.maven.surefire.api.report.ConsoleStream;
 import org.apache.maven.surefire.api.report.ReportEntry;
 import org.apache.maven.surefire.api.report.RunListener;
 import org.apache.maven.surefire.api.report.RunMode;
 import org.apache.maven.surefire.api.report.TestSetReportEntry;
+import org.apache.maven.surefire.api.report.Utf8ConsoleOutputReceiver;
+
+import java.nio.ByteBuffer;
 
 import static org.apache.maven.surefire.api.report.RunMode.NORMAL_RUN;
 import static java.util.Objects.requireNonNull;
@@ -48,7 +50,7 @@
  * @author Kristian Rosenvold
  */
 public class ForkingRunListener
-    implements RunListener, ConsoleLogger, ConsoleOutputReceiver, ConsoleStream
+    implements RunListener, ConsoleLogger, Utf8ConsoleOutputReceiver, ConsoleStream
 {
     private final MasterProcessChannelEncoder target;
 
@@ -138,6 +140,19 @@ public void writeTestOutput( String output, boolean newLine, boolean stdout )
         }
     }
 
+    @Override
+    public void writeUtf8TestOutput( ByteBuffer utf8Output, boolean newLine, boolean stdout )
+    {
+        if ( stdout )
+        {
+            target.stdOutUtf8( utf8Output, newLine );
+        }
+        else
+        {
+            target.stdErrUtf8( utf8Output, newLine );
+        }
+    }
+
     @Override
     public boolean isDebugEnabled()
     {
@@ -19,9 +19,11 @@
  * under the License.
  */
 
+import org.apache.maven.surefire.api.event.ResourceUsageEvent;
 import org.apache.maven.surefire.api.report.ReportEntry;
 import org.apache.maven.surefire.api.report.StackTraceWriter;
 
+import java.nio.ByteBuffer;
 import java.util.Map;
 
 /**
@@ -58,6 +60,20 @@
 
     void stdErr( String msg, boolean newLine );
 
+    /**
+     * @param utf8Msg the bytes of the message encoded in UTF-8, the position of the buffer is not changed
+     * @param newLine print on new line
+     * @since 3.0.0-M6
+     */
+    void stdOutUtf8( ByteBuffer utf8Msg, boolean newLine );
+
+    /**
+     * @param utf8Msg the bytes of the message encoded in UTF-8, the position of the buffer is not changed
+     * @param newLine print on new line
+     * @since 3.0.0-M6
+     */
+    void stdErrUtf8( ByteBuffer utf8Msg, boolean newLine );
+
     void consoleInfoLog( String msg );
 
     void consoleErrorLog( String msg );
@@ -79,4 +95,19 @@
     void acquireNextTest();
 
     void sendExitError( StackTraceWriter stackTraceWriter, boolean trimStackTraces );
+
+    /**
+     * @param phase         the name of the completed phase of the startup of the forked JVM
+     * @param elapsedMicros the elapsed time of the phase in microseconds
+     * @since 3.0.0-M6
+     */
+    void startupPhase( String phase, int elapsedMicros );
+
+    /**
+     * Sends the sample of the resources of the forked JVM, the event has low priority.
+     *
+     * @param usage the sample of the heap, the garbage collectors, the threads, the CPU time and the classes
+     * @since 3.0.0-M6
+     */
+    void resourceUsage( ResourceUsageEvent usage );
 }
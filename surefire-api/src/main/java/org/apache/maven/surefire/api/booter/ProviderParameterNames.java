@@ -48,4 +48,8 @@
 
     public static final String PARALLEL_OPTIMIZE_PROP = "paralleloptimization";
 
+    public static final String PARALLEL_WORKSTEALING_PROP = "parallelworkstealing";
+
+    public static final String USEVIRTUALTHREADS_PROP = "usevirtualthreads";
+
 }
@@ -82,4 +82,16 @@ public boolean isJvmExitError()
     {
         return false;
     }
+
+    @Override
+    public boolean isStartupPhaseCategory()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean isResourceUsageCategory()
+    {
+        return false;
+    }
 }
@@ -22,21 +22,38 @@
 import org.apache.maven.surefire.api.booter.ForkedProcessEventType;
 import org.apache.maven.surefire.api.report.RunMode;
 
+import java.nio.ByteBuffer;
+
+import static org.apache.maven.surefire.api.util.internal.StringUtils.decodeUtf8;
+
 /**
  * The base class of an event of standard streams.
+ * <br>
+ * The message may be kept in the bytes encoded in UTF-8 as they have been received from the forked JVM. Then the
+ * string is decoded only if {@link #getMessage()} is called.
  *
  * @since 3.0.0-M5
  */
 public abstract class AbstractStandardStreamEvent extends Event
 {
     private final RunMode runMode;
-    private final String message;
+    private final ByteBuffer utf8Message;
+    private String message;
 
     protected AbstractStandardStreamEvent( ForkedProcessEventType eventType, RunMode runMode, String message )
     {
         super( eventType );
         this.runMode = runMode;
         this.message = message;
+        utf8Message = null;
+    }
+
+    protected AbstractStandardStreamEvent( ForkedProcessEventType eventType, RunMode runMode,
+                                           ByteBuffer utf8Message )
+    {
+        super( eventType );
+        this.runMode = runMode;
+        this.utf8Message = utf8Message;
     }
 
     public RunMode getRunMode()
@@ -46,9 +63,22 @@ public RunMode getRunMode()
 
     public String getMessage()
     {
+        if ( message == null && utf8Message != null )
+        {
+            message = decodeUtf8( utf8Message );
+        }
         return message;
     }
 
+    /**
+     * @return the message encoded in UTF-8, or {@code null} if the event has been created with {@link String}
+     * @since 3.0.0-M6
+     */
+    public ByteBuffer getUtf8Message()
+    {
+        return utf8Message == null ? null : utf8Message.duplicate();
+    }
+
     @Override
     public boolean isControlCategory()
     {
@@ -90,4 +120,16 @@ public boolean isJvmExitError()
     {
         return false;
     }
+
+    @Override
+    public boolean isStartupPhaseCategory()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean isResourceUsageCategory()
+    {
+        return false;
+    }
 }
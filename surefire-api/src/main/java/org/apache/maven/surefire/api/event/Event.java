@@ -43,6 +43,8 @@ public Event( ForkedProcessEventType eventType )
     public abstract boolean isSysPropCategory();
     public abstract boolean isTestCategory();
     public abstract boolean isJvmExitError();
+    public abstract boolean isStartupPhaseCategory();
+    public abstract boolean isResourceUsageCategory();
 
     public final ForkedProcessEventType getEventType()
     {
@@ -0,0 +1,186 @@
+package org.apache.maven.surefire.api.event;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.apache.maven.surefire.api.booter.ForkedProcessEventType.BOOTERCODE_RESOURCE_USAGE;
+
+/**
+ * The sample of the resources of the forked JVM taken from the platform MXBeans. The times are in milliseconds and
+ * the memory is in kibibytes. The value {@link #UNAVAILABLE} means that the JVM does not support the measurement.
+ *
+ * @since 3.0.0-M6
+ */
+public final class ResourceUsageEvent extends Event
+{
+    public static final int UNAVAILABLE = -1;
+
+    private final int uptimeMillis;
+    private final int heapUsedKiB;
+    private final int heapCommittedKiB;
+    private final int heapUsedAfterGcKiB;
+    private final int gcCount;
+    private final int gcTimeMillis;
+    private final int threadCount;
+    private final int cpuTimeMillis;
+    private final int loadedClassCount;
+
+    @SuppressWarnings( "checkstyle:parameternumber" )
+    public ResourceUsageEvent( int uptimeMillis, int heapUsedKiB, int heapCommittedKiB, int heapUsedAfterGcKiB,
+                               int gcCount, int gcTimeMillis, int threadCount, int cpuTimeMillis,
+                               int loadedClassCount )
+    {
+        super( BOOTERCODE_RESOURCE_USAGE );
+        this.uptimeMillis = uptimeMillis;
+        this.heapUsedKiB = heapUsedKiB;
+        this.heapCommittedKiB = heapCommittedKiB;
+        this.heapUsedAfterGcKiB = heapUsedAfterGcKiB;
+        this.gcCount = gcCount;
+        this.gcTimeMillis = gcTimeMillis;
+        this.threadCount = threadCount;
+        this.cpuTimeMillis = cpuTimeMillis;
+        this.loadedClassCount = loadedClassCount;
+    }
+
+    /**
+     * @return the uptime of the forked JVM in milliseconds
+     */
+    public int getUptimeMillis()
+    {
+        return uptimeMillis;
+    }
+
+    /**
+     * @return the used heap memory in kibibytes
+     */
+    public int getHeapUsedKiB()
+    {
+        return heapUsedKiB;
+    }
+
+    /**
+     * @return the committed heap memory in kibibytes
+     */
+    public int getHeapCommittedKiB()
+    {
+        return heapCommittedKiB;
+    }
+
+    /**
+     * @return the heap memory used after the last garbage collection in kibibytes, i.e. the live objects
+     */
+    public int getHeapUsedAfterGcKiB()
+    {
+        return heapUsedAfterGcKiB;
+    }
+
+    /**
+     * @return the count of the garbage collections of all collectors
+     */
+    public int getGcCount()
+    {
+        return gcCount;
+    }
+
+    /**
+     * @return the accumulated time of the garbage collections of all collectors in milliseconds
+     */
+    public int getGcTimeMillis()
+    {
+        return gcTimeMillis;
+    }
+
+    /**
+     * @return the count of the live threads
+     */
+    public int getThreadCount()
+    {
+        return threadCount;
+    }
+
+    /**
+     * @return the CPU time of the forked JVM in milliseconds
+     */
+    public int getCpuTimeMillis()
+    {
+        return cpuTimeMillis;
+    }
+
+    /**
+     * @return the count of the currently loaded classes
+     */
+    public int getLoadedClassCount()
+    {
+        return loadedClassCount;
+    }
+
+    @Override
+    public boolean isControlCategory()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean isConsoleCategory()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean isConsoleErrorCategory()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean isStandardStreamCategory()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean isSysPropCategory()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean isTestCategory()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean isJvmExitError()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean isStartupPhaseCategory()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean isResourceUsageCategory()
+    {
+        return true;
+    }
+}
@@ -21,6 +21,8 @@
 
 import org.apache.maven.surefire.api.report.RunMode;
 
+import java.nio.ByteBuffer;
+
 import static org.apache.maven.surefire.api.booter.ForkedProcessEventType.BOOTERCODE_STDERR_NEW_LINE;
 
 /**
@@ -34,4 +36,14 @@ public StandardStreamErrWithNewLineEvent( RunMode runMode, String message )
     {
         super( BOOTERCODE_STDERR_NEW_LINE, runMode, message );
     }
+
+    /**
+     * @param runMode     run mode
+     * @param utf8Message the message encoded in UTF-8
+     * @since 3.0.0-M6
+     */
+    public StandardStreamErrWithNewLineEvent( RunMode runMode, ByteBuffer utf8Message )
+    {
+        super( BOOTERCODE_STDERR_NEW_LINE, runMode, utf8Message );
+    }
 }
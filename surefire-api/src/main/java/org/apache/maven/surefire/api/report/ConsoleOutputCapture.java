@@ -22,13 +22,18 @@
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 
 import static java.lang.System.setErr;
 import static java.lang.System.setOut;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
  * Deals with system.out/err.
  * <br>
+ * If the default encoding of the JVM is UTF-8 and the target is {@link Utf8ConsoleOutputReceiver}, the bytes
+ * written to the stream are passed through without decoding them to {@link String}.
  */
 public final class ConsoleOutputCapture
 {
@@ -43,18 +48,29 @@ public static void startCapture( ConsoleOutputReceiver target )
     {
         private final boolean isStdout;
         private final ConsoleOutputReceiver target;
+        private final Utf8ConsoleOutputReceiver utf8Target;
 
         ForwardingPrintStream( boolean stdout, ConsoleOutputReceiver target )
         {
             super( new NullOutputStream() );
             isStdout = stdout;
             this.target = target;
+            boolean isUtf8 = UTF_8.equals( Charset.defaultCharset() );
+            utf8Target = isUtf8 && target instanceof Utf8ConsoleOutputReceiver
+                ? (Utf8ConsoleOutputReceiver) target : null;
         }
 
         @Override
         public void write( byte[] buf, int off, int len )
         {
-            target.writeTestOutput( new String( buf, off, len ), false, isStdout );
+            if ( utf8Target == null )
+            {
+                target.writeTestOutput( new String( buf, off, len ), false, isStdout );
+            }
+            else
+            {
+                utf8Target.writeUtf8TestOutput( ByteBuffer.wrap( buf, off, len ), false, isStdout );
+            }
         }
 
         @Override
@@ -0,0 +1,43 @@
+package org.apache.maven.surefire.api.report;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.nio.ByteBuffer;
+
+/**
+ * A receiver of stdout/sterr output which has been already encoded in UTF-8. The receiver can pass the bytes through
+ * to the reports without decoding and encoding the strings again.
+ * <br>
+ * The receiver must not change the position of the buffer, see {@link ByteBuffer#duplicate()}.
+ *
+ * @since 3.0.0-M6
+ */
+public interface Utf8ConsoleOutputReceiver
+    extends ConsoleOutputReceiver
+{
+    /**
+     * Forwards process output from the running test-case into the reporting system
+     *
+     * @param utf8Output stdout/sterr output from running tests encoded in UTF-8
+     * @param newLine print on new line
+     * @param stdout Indicates if this is stdout
+     */
+    void writeUtf8TestOutput( ByteBuffer utf8Output, boolean newLine, boolean stdout );
+}
@@ -209,6 +209,23 @@ public void add( RunEntryStatistics item )
         runEntryStatistics.put( item.getClassMethod(), item );
     }
 
+    /**
+     * Sums up the run times of the test methods recorded in the statistics per test class.
+     *
+     * @return run time in milliseconds indexed by the name of test class
+     */
+    public Map<String, Integer> getTestClassRunTimes()
+    {
+        Map<String, Integer> runTimes = new HashMap<>();
+        for ( RunEntryStatistics item : runEntryStatistics.values() )
+        {
+            String clazz = item.getClassMethod().getClazz();
+            Integer runTime = runTimes.get( clazz );
+            runTimes.put( clazz, ( runTime == null ? 0 : runTime ) + item.getRunTime() );
+        }
+        return runTimes;
+    }
+
     static final class RunCountComparator
         implements Comparator<RunEntryStatistics>
     {
@@ -200,6 +200,51 @@ else if ( readCount == 1 )
         return string;
     }
 
+    /**
+     * Reads the string as bytes without decoding them.
+     *
+     * @param memento current memento object
+     * @return the encoded string, or {@code null} if the string is null
+     * @throws IOException            stream error
+     * @throws MalformedFrameException corrupted frame
+     * @since 3.0.0-M6
+     */
+    protected ByteBuffer readBytes( @Nonnull Memento memento ) throws IOException, MalformedFrameException
+    {
+        int readCount = readInt( memento );
+        if ( readCount < 0 )
+        {
+            throw new MalformedFrameException( memento.getLine().getPositionByteBuffer(),
+                ( (Buffer) memento.getByteBuffer() ).position() );
+        }
+        read( memento, readCount + DELIMITER_LENGTH );
+
+        final ByteBuffer bytes;
+        if ( readCount == 1 )
+        {
+            read( memento, 1 );
+            byte oneChar = memento.getByteBuffer().get();
+            bytes = oneChar == 0 ? null : ByteBuffer.wrap( new byte[] {oneChar} );
+        }
+        else
+        {
+            ByteBuffer input = memento.getByteBuffer();
+            byte[] array = new byte[readCount];
+            for ( int copiedBytes = 0; copiedBytes < readCount; )
+            {
+                int bytesToRead = readCount - copiedBytes;
+                read( memento, bytesToRead );
+                int bytesToCopy = min( input.remaining(), bytesToRead );
+                input.get( array, copiedBytes, bytesToCopy );
+                copiedBytes += bytesToCopy;
+            }
+            bytes = ByteBuffer.wrap( array );
+        }
+        read( memento, 1 );
+        checkDelimiter( memento );
+        return bytes;
+    }
+
     protected Integer readInteger( @Nonnull Memento memento ) throws IOException, MalformedFrameException
     {
         read( memento, BYTE_LENGTH );
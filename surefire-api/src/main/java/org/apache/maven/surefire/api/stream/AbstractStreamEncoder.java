@@ -128,6 +128,21 @@ public void encodeString( CharsetEncoder encoder, ByteBuffer result, String stri
         result.put( (byte) ':' );
     }
 
+    /**
+     * Encodes the bytes of a string which has been already encoded in the charset of this encoder.
+     *
+     * @param result  the frame
+     * @param encoded the encoded string, the position of the buffer is not changed
+     * @since 3.0.0-M6
+     */
+    public void encodeBytes( ByteBuffer result, ByteBuffer encoded )
+    {
+        result.putInt( encoded.remaining() )
+            .put( (byte) ':' )
+            .put( encoded.duplicate() )
+            .put( (byte) ':' );
+    }
+
     public void encodeInteger( ByteBuffer result, Integer i )
     {
         if ( i == null )
@@ -27,6 +27,7 @@
     RUN_MODE,
     STRING_ENCODING,
     DATA_STRING,
+    DATA_STRING_BYTES,
     DATA_INTEGER,
     DATA_INT,
     DATA_BYTE,
@@ -0,0 +1,211 @@
+package org.apache.maven.surefire.api.testset;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The patterns of {@link TestListResolver} compiled for the lookup of the test class and method. The patterns without
+ * wildcards in the class, e.g. {@code MyTest} or {@code my.pkg.MyTest#test*}, and the patterns {@code #test} without
+ * class are indexed in hash maps by the path of the class file and by the method name. The class file
+ * {@code my/pkg/MyTest.class} can be matched only by the class patterns which are its suffixes, i.e.
+ * {@code my/pkg/MyTest.class}, {@code pkg/MyTest.class} and {@code MyTest.class}, with or without the extension, so
+ * that the lookup costs one hash per package of the class. The wildcard and regex patterns are matched one by one.
+ * <br>
+ * The index only selects the candidate patterns, the match itself is always decided by
+ * {@link ResolvedTest#matchAsInclusive(String, String)} and {@link ResolvedTest#matchAsExclusive(String, String)}.
+ *
+ * @since 3.0.0-M6
+ */
+final class ResolvedTestIndex
+{
+    private static final String CLASS_FILE_EXTENSION = ".class";
+
+    private static final String WILDCARD_PATH_PREFIX = "**/";
+
+    private final List<ResolvedTest> allPatterns;
+
+    private final Map<String, List<ResolvedTest>> classPatterns = new HashMap<>();
+
+    private final Map<String, List<ResolvedTest>> methodPatterns = new HashMap<>();
+
+    private final List<ResolvedTest> otherPatterns = new ArrayList<>();
+
+    ResolvedTestIndex( Set<ResolvedTest> patterns )
+    {
+        allPatterns = new ArrayList<>( patterns );
+        for ( ResolvedTest pattern : allPatterns )
+        {
+            String methodPattern = pattern.getTestMethodPattern();
+            String classPath = toClassPath( pattern );
+            if ( classPath != null )
+            {
+                if ( classPath.endsWith( CLASS_FILE_EXTENSION ) )
+                {
+                    put( classPatterns, classPath, pattern );
+                }
+                else
+                {
+                    put( classPatterns, classPath + CLASS_FILE_EXTENSION, pattern );
+                    put( classPatterns, classPath, pattern );
+                }
+            }
+            else if ( !pattern.hasTestClassPattern() && !pattern.isRegexTestMethodPattern()
+                && isPlainName( methodPattern ) )
+            {
+                put( methodPatterns, methodPattern, pattern );
+            }
+            else
+            {
+                otherPatterns.add( pattern );
+            }
+        }
+    }
+
+    boolean matchAsInclusive( String testClassFile, String methodName )
+    {
+        return match( testClassFile, methodName, true );
+    }
+
+    boolean matchAsExclusive( String testClassFile, String methodName )
+    {
+        return match( testClassFile, methodName, false );
+    }
+
+    private boolean match( String testClassFile, String methodName, boolean inclusive )
+    {
+        String classFile = trim( testClassFile );
+        String method = trim( methodName );
+        if ( classFile == null || !isPlainPath( classFile ) || method != null && !isPlainName( method ) )
+        {
+            return match( allPatterns, testClassFile, methodName, inclusive );
+        }
+
+        if ( match( otherPatterns, testClassFile, methodName, inclusive )
+            || match( classPatterns.get( classFile ), testClassFile, methodName, inclusive ) )
+        {
+            return true;
+        }
+
+        for ( int i = classFile.indexOf( '/' ); i != -1; i = classFile.indexOf( '/', i + 1 ) )
+        {
+            if ( match( classPatterns.get( classFile.substring( i + 1 ) ), testClassFile, methodName, inclusive ) )
+            {
+                return true;
+            }
+        }
+
+        if ( method != null )
+        {
+            return match( methodPatterns.get( method ), testClassFile, methodName, inclusive );
+        }
+        else if ( !methodPatterns.isEmpty() )
+        {
+            // all the method patterns without class pattern include the class if the method is not known
+            return match( methodPatterns.values().iterator().next(), testClassFile, null, inclusive );
+        }
+        return false;
+    }
+
+    private static boolean match( List<ResolvedTest> patterns, String testClassFile, String methodName,
+                                  boolean inclusive )
+    {
+        if ( patterns != null )
+        {
+            for ( ResolvedTest pattern : patterns )
+            {
+                if ( inclusive
+                    ? pattern.matchAsInclusive( testClassFile, methodName )
+                    : pattern.matchAsExclusive( testClassFile, methodName ) )
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the path of the class file without the leading {@code **&#47;}, or null if the class pattern is
+     * a regex or has wildcards; the method pattern is matched by the pattern itself
+     */
+    private static String toClassPath( ResolvedTest pattern )
+    {
+        String classPattern = pattern.getTestClassPattern();
+        if ( classPattern == null || pattern.isRegexTestClassPattern()
+            || !classPattern.startsWith( WILDCARD_PATH_PREFIX ) )
+        {
+            return null;
+        }
+
+        String classPath = classPattern.substring( WILDCARD_PATH_PREFIX.length() );
+        return isPlainPath( classPath ) ? classPath : null;
+    }
+
+    private static boolean isPlainPath( String path )
+    {
+        if ( path.isEmpty() || path.charAt( 0 ) == '/' || path.charAt( path.length() - 1 ) == '/'
+            || path.contains( "//" ) || path.startsWith( "./" ) || path.contains( "/./" )
+            || path.startsWith( "../" ) || path.contains( "/../" ) )
+        {
+            return false;
+        }
+
+        for ( int i = 0; i < path.length(); i++ )
+        {
+            char c = path.charAt( i );
+            if ( c == '*' || c == '?' || c == '\\' || c == '%' )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isPlainName( String name )
+    {
+        return name != null && isPlainPath( name ) && name.indexOf( '/' ) == -1;
+    }
+
+    private static String trim( String s )
+    {
+        if ( s == null )
+        {
+            return null;
+        }
+        String trimmed = s.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static void put( Map<String, List<ResolvedTest>> index, String key, ResolvedTest pattern )
+    {
+        List<ResolvedTest> patterns = index.get( key );
+        if ( patterns == null )
+        {
+            patterns = new ArrayList<>( 1 );
+            index.put( key, patterns );
+        }
+        patterns.add( pattern );
+    }
+}
@@ -61,6 +61,10 @@
 
     private final boolean hasExcludedMethodPatterns;
 
+    private volatile ResolvedTestIndex includedIndex;
+
+    private volatile ResolvedTestIndex excludedIndex;
+
     public TestListResolver( Collection<String> tests )
     {
         final IncludedExcludedPatterns patterns = new IncludedExcludedPatterns();
@@ -207,34 +211,12 @@ public boolean shouldRun( String testClassFile, String methodName )
         }
         else
         {
-            boolean shouldRun = false;
-
-            if ( getIncludedPatterns().isEmpty() )
-            {
-                shouldRun = true;
-            }
-            else
-            {
-                for ( ResolvedTest filter : getIncludedPatterns() )
-                {
-                    if ( filter.matchAsInclusive( testClassFile, methodName ) )
-                    {
-                        shouldRun = true;
-                        break;
-                    }
-                }
-            }
+            boolean shouldRun = getIncludedPatterns().isEmpty()
+                || getIncludedIndex().matchAsInclusive( testClassFile, methodName );
 
-            if ( shouldRun )
+            if ( shouldRun && !getExcludedPatterns().isEmpty() )
             {
-                for ( ResolvedTest filter : getExcludedPatterns() )
-                {
-                    if ( filter.matchAsExclusive( testClassFile, methodName ) )
-                    {
-                        shouldRun = false;
-                        break;
-                    }
-                }
+                shouldRun = !getExcludedIndex().matchAsExclusive( testClassFile, methodName );
             }
             return shouldRun;
         }
@@ -246,6 +228,33 @@ public boolean isEmpty()
         return equals( EMPTY );
     }
 
+    /**
+     * The included patterns are compiled on the first use, so that thousands of patterns, e.g. a generated list of
+     * test methods, are not matched one by one for every test.
+     */
+    private ResolvedTestIndex getIncludedIndex()
+    {
+        ResolvedTestIndex index = includedIndex;
+        if ( index == null )
+        {
+            // the index is immutable, it can be created by several threads at the same time
+            index = new ResolvedTestIndex( getIncludedPatterns() );
+            includedIndex = index;
+        }
+        return index;
+    }
+
+    private ResolvedTestIndex getExcludedIndex()
+    {
+        ResolvedTestIndex index = excludedIndex;
+        if ( index == null )
+        {
+            index = new ResolvedTestIndex( getExcludedPatterns() );
+            excludedIndex = index;
+        }
+        return index;
+    }
+
     @Override
     public String getPluginParameterTest()
     {
@@ -0,0 +1,122 @@
+package org.apache.maven.surefire.api.util;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The chunk of the test methods of a test class sent to the forked JVM in place of the name of the test class. The
+ * test methods of one class can be run in several JVMs in parallel, e.g.
+ * {@code my.pkg.MyTest#test1(java.lang.String,int)+test2()}. The methods are the names followed by the comma separated
+ * parameter types, see {@link Class#getName()}, in the same format as the method selectors of JUnit Platform.
+ *
+ * @since 3.0.0-M6
+ */
+public final class TestClassChunk
+{
+    private static final char CLASS_SEPARATOR = '#';
+
+    private static final char METHOD_SEPARATOR = '+';
+
+    private TestClassChunk()
+    {
+        throw new IllegalStateException( "no instantiable constructor" );
+    }
+
+    /**
+     * @param className the test class
+     * @param methods   the test methods of the chunk
+     * @return the chunk which can be sent as the name of the test class, or the class name if {@code methods} is empty
+     */
+    public static String toChunk( String className, Collection<String> methods )
+    {
+        StringBuilder chunk = new StringBuilder( className );
+        char separator = CLASS_SEPARATOR;
+        for ( String method : methods )
+        {
+            chunk.append( separator )
+                .append( method );
+            separator = METHOD_SEPARATOR;
+        }
+        return chunk.toString();
+    }
+
+    /**
+     * @param chunk the chunk or the class name
+     * @return the name of the test class
+     */
+    public static String toClassName( String chunk )
+    {
+        int i = chunk.indexOf( CLASS_SEPARATOR );
+        return i == -1 ? chunk : chunk.substring( 0, i );
+    }
+
+    /**
+     * @param chunk the chunk or the class name
+     * @return the test methods of the chunk, or empty list if the whole class runs
+     */
+    public static List<String> toMethods( String chunk )
+    {
+        int i = chunk.indexOf( CLASS_SEPARATOR );
+        if ( i == -1 )
+        {
+            return Collections.emptyList();
+        }
+
+        List<String> methods = new ArrayList<>();
+        for ( int from = i + 1, to; from < chunk.length(); from = to + 1 )
+        {
+            to = chunk.indexOf( METHOD_SEPARATOR, from );
+            if ( to == -1 )
+            {
+                to = chunk.length();
+            }
+            if ( to > from )
+            {
+                methods.add( chunk.substring( from, to ) );
+            }
+        }
+        return methods;
+    }
+
+    /**
+     * @param method the test method of the chunk, e.g. {@code test1(java.lang.String,int)}
+     * @return the name of the method
+     */
+    public static String toMethodName( String method )
+    {
+        int i = method.indexOf( '(' );
+        return i == -1 ? method : method.substring( 0, i );
+    }
+
+    /**
+     * @param method the test method of the chunk, e.g. {@code test1(java.lang.String,int)}
+     * @return the comma separated parameter types of the method, e.g. {@code java.lang.String,int}
+     */
+    public static String toParameterTypes( String method )
+    {
+        int i = method.indexOf( '(' );
+        int j = method.lastIndexOf( ')' );
+        return i == -1 || j < i ? "" : method.substring( i + 1, j );
+    }
+}
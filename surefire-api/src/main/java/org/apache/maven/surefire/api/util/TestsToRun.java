@@ -118,6 +118,18 @@ public void remove()
         }
     }
 
+    /**
+     * The test methods of the class which has been returned by {@link Iterator#next()} of {@link #iterator()} if only
+     * a {@link TestClassChunk chunk} of the class runs in this JVM.
+     *
+     * @return the test methods in the format of {@link TestClassChunk}, or empty list if the whole class runs
+     * @since 3.0.0-M6
+     */
+    public List<String> getMethodsOfIteratedClass()
+    {
+        return Collections.emptyList();
+    }
+
     public final void markTestSetFinished()
     {
         finished = true;
@@ -183,7 +183,7 @@ public int read() throws IOException
                 }
                 while ( count == 0 );
 
-                return count == -1 ? -1 : b[0];
+                return count == -1 ? -1 : b[0] & 0xFF;
             }
 
             @Override
@@ -204,6 +204,123 @@ public synchronized void close() throws IOException
         };
     }
 
+    /**
+     * The stream of the blocking {@link java.nio.channels.InterruptibleChannel}, e.g. the socket channel. The interrupted
+     * status of the calling Thread is cleared before the I/O operation and restored afterwards, so that the channel is
+     * not closed if the Thread was interrupted before writing.
+     *
+     * @param channel blocking channel
+     * @return the stream writing to the channel
+     * @since 3.0.0-M6
+     */
+    public static OutputStream newOutputStream( final WritableByteChannel channel )
+    {
+        return new OutputStream()
+        {
+            @Override
+            public synchronized void write( byte[] b, int off, int len ) throws IOException
+            {
+                if ( off < 0 || off > b.length || len < 0 || off + len > b.length || off + len < 0 )
+                {
+                    throw new IndexOutOfBoundsException(
+                        "b.length = " + b.length + ", off = " + off + ", len = " + len );
+                }
+                else if ( len > 0 )
+                {
+                    boolean interrupted = Thread.interrupted();
+                    try
+                    {
+                        ByteBuffer bb = ByteBuffer.wrap( b, off, len );
+                        while ( bb.hasRemaining() )
+                        {
+                            channel.write( bb );
+                        }
+                    }
+                    finally
+                    {
+                        if ( interrupted )
+                        {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                }
+            }
+
+            @Override
+            public void write( int b ) throws IOException
+            {
+                write( new byte[] {(byte) b} );
+            }
+
+            @Override
+            public synchronized void close() throws IOException
+            {
+                channel.close();
+            }
+        };
+    }
+
+    /**
+     * The stream of the blocking {@link java.nio.channels.InterruptibleChannel}, e.g. the socket channel. The interrupted
+     * status of the calling Thread is cleared before the I/O operation and restored afterwards, so that the channel is
+     * not closed if the Thread was interrupted before reading.
+     *
+     * @param channel blocking channel
+     * @return the stream reading the channel
+     * @since 3.0.0-M6
+     */
+    public static InputStream newInputStream( final ReadableByteChannel channel )
+    {
+        return new InputStream()
+        {
+            @Override
+            public synchronized int read( byte[] b, int off, int len ) throws IOException
+            {
+                if ( off < 0 || off > b.length || len < 0 || off + len > b.length || off + len < 0 )
+                {
+                    throw new IndexOutOfBoundsException(
+                        "b.length = " + b.length + ", off = " + off + ", len = " + len );
+                }
+                else if ( len == 0 )
+                {
+                    return 0;
+                }
+                boolean interrupted = Thread.interrupted();
+                try
+                {
+                    return channel.read( ByteBuffer.wrap( b, off, len ) );
+                }
+                finally
+                {
+                    if ( interrupted )
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+
+            @Override
+            public int read() throws IOException
+            {
+                int count;
+                byte[] b = new byte[1];
+                do
+                {
+                    count = read( b, 0, 1 );
+                }
+                while ( count == 0 );
+
+                return count == -1 ? -1 : b[0] & 0xFF;
+            }
+
+            @Override
+            public synchronized void close() throws IOException
+            {
+                channel.close();
+            }
+        };
+    }
+
     private static ReadableByteChannel newChannel( @Nonnull InputStream is, @Nonnegative int bufferSize )
     {
         requireNonNull( is, "the stream should not be null" );
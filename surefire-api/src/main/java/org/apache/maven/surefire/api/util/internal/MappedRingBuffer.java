@@ -0,0 +1,536 @@
+package org.apache.maven.surefire.api.util.internal;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.apache.maven.surefire.api.util.ReflectionUtils.tryLoadClass;
+
+/**
+ * Bounded single-producer/single-consumer ring buffer of bytes in a memory-mapped file shared by two processes.
+ * <br>
+ * The header of the file contains the positions of the producer and the consumer in separate cache lines. Both
+ * positions grow monotonically, the producer publishes the bytes by advancing its position, the consumer releases the
+ * space by advancing its position. The producer {@link #newOutputStream(OutputStream) waits} while the buffer is full.
+ * The consumer {@link #newReadableChannel(InputStream) spins} for a while if the buffer is empty, then it sets the
+ * waiting flag in the header and blocks on reading the <em>doorbell</em> stream. The producer writes a byte to the
+ * doorbell if it has found the flag after the bytes have been published. The doorbell is an ordinary socket between
+ * the processes, and its end of stream means that the peer process has gone.
+ * <br>
+ * Java 7 has neither fences nor atomic accesses for a {@link MappedByteBuffer}, therefore the header is accessed by
+ * the volatile and ordered accesses of {@code sun.misc.Unsafe} at the address of the mapped memory. The producer copies
+ * the bytes and then publishes its position by a volatile store, the consumer loads the position by a volatile load
+ * before it copies the bytes, and it releases the space by an ordered store of its position. The waiting flag and the
+ * positions are stored and loaded by volatile accesses which the producer and the consumer cannot reorder. The ring
+ * buffer is {@link #isSupported() supported} if the JVM provides {@code sun.misc.Unsafe}.
+ *
+ * @since 3.0.0-M6
+ */
+public final class MappedRingBuffer
+{
+    private static final int MAGIC = 0x53524E47;
+    private static final int CACHE_LINE = 64;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int CAPACITY_OFFSET = 4;
+    private static final int WRITE_POSITION_OFFSET = CACHE_LINE;
+    private static final int CLOSED_OFFSET = CACHE_LINE + 8;
+    private static final int READ_POSITION_OFFSET = 2 * CACHE_LINE;
+    private static final int CONSUMER_WAITING_OFFSET = 2 * CACHE_LINE + 8;
+    private static final int HEADER_SIZE = 3 * CACHE_LINE;
+    private static final int CONSUMER_SPINS = 1_000;
+    private static final long PRODUCER_PARK_NANOS = 50_000L;
+
+    private static final Object UNSAFE = unsafe();
+    private static final MethodHandle GET_LONG_VOLATILE = unsafeMethod( "getLongVolatile", Object.class, long.class );
+    private static final MethodHandle PUT_LONG_VOLATILE =
+        unsafeMethod( "putLongVolatile", Object.class, long.class, long.class );
+    private static final MethodHandle PUT_ORDERED_LONG =
+        unsafeMethod( "putOrderedLong", Object.class, long.class, long.class );
+    private static final MethodHandle GET_INT_VOLATILE = unsafeMethod( "getIntVolatile", Object.class, long.class );
+    private static final MethodHandle PUT_INT_VOLATILE =
+        unsafeMethod( "putIntVolatile", Object.class, long.class, int.class );
+
+    private final File file;
+    private final MappedByteBuffer header;
+    private final ByteBuffer producerData;
+    private final ByteBuffer consumerData;
+    private final int capacity;
+    private final long address;
+
+    private MappedRingBuffer( File file, MappedByteBuffer buffer ) throws IOException
+    {
+        this.file = file;
+        header = buffer;
+        address = addressOf( buffer );
+        capacity = header.getInt( CAPACITY_OFFSET );
+        ( (Buffer) buffer ).position( HEADER_SIZE );
+        producerData = buffer.slice();
+        consumerData = buffer.slice();
+    }
+
+    /**
+     * Creates new file and maps the ring buffer.
+     *
+     * @param file     new file
+     * @param capacity the maximal number of bytes in the ring buffer
+     * @return the ring buffer
+     * @throws IOException if the file exists or it cannot be mapped, or the ring buffer is not {@link #isSupported()
+     *                     supported}
+     */
+    @Nonnull
+    public static MappedRingBuffer create( @Nonnull File file, @Nonnegative int capacity ) throws IOException
+    {
+        if ( capacity < 1 || capacity > Integer.MAX_VALUE - HEADER_SIZE )
+        {
+            throw new IllegalArgumentException( "Illegal capacity " + capacity );
+        }
+
+        try ( FileChannel channel = FileChannel.open( file.toPath(), CREATE_NEW, READ, WRITE ) )
+        {
+            MappedByteBuffer buffer = channel.map( READ_WRITE, 0, HEADER_SIZE + capacity );
+            buffer.putInt( CAPACITY_OFFSET, capacity );
+            buffer.putInt( MAGIC_OFFSET, MAGIC );
+            return new MappedRingBuffer( file, buffer );
+        }
+    }
+
+    /**
+     * Maps the ring buffer {@link #create(File, int) created} by another process.
+     *
+     * @param file existing file
+     * @return the ring buffer
+     * @throws IOException if the file is not a ring buffer or it cannot be mapped, or the ring buffer is not
+     *                     {@link #isSupported() supported}
+     */
+    @Nonnull
+    public static MappedRingBuffer open( @Nonnull File file ) throws IOException
+    {
+        try ( FileChannel channel = FileChannel.open( file.toPath(), READ, WRITE ) )
+        {
+            MappedByteBuffer buffer = channel.map( READ_WRITE, 0, channel.size() );
+            if ( channel.size() < HEADER_SIZE || buffer.getInt( MAGIC_OFFSET ) != MAGIC
+                || buffer.getInt( CAPACITY_OFFSET ) != channel.size() - HEADER_SIZE )
+            {
+                throw new IOException( "The file " + file + " is not a ring buffer." );
+            }
+            return new MappedRingBuffer( file, buffer );
+        }
+    }
+
+    /**
+     * @return {@code true} if this JVM provides the volatile accesses to the mapped memory
+     */
+    public static boolean isSupported()
+    {
+        return GET_LONG_VOLATILE != null && PUT_LONG_VOLATILE != null && PUT_ORDERED_LONG != null
+            && GET_INT_VOLATILE != null && PUT_INT_VOLATILE != null;
+    }
+
+    @Nonnull
+    public File getFile()
+    {
+        return file;
+    }
+
+    public int capacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * Called by the producer. Copies as many bytes as the free space allows.
+     *
+     * @param src the bytes
+     * @return the number of copied bytes, or zero if the buffer is full
+     * @throws ClosedChannelException if the buffer has been closed
+     */
+    int write( @Nonnull ByteBuffer src ) throws ClosedChannelException
+    {
+        if ( isClosed() )
+        {
+            throw new ClosedChannelException();
+        }
+        long writePosition = getLongVolatile( WRITE_POSITION_OFFSET );
+        long readPosition = getLongVolatile( READ_POSITION_OFFSET );
+        int length = (int) Math.min( capacity - ( writePosition - readPosition ), src.remaining() );
+        if ( length > 0 )
+        {
+            copy( src, producerData, (int) ( writePosition % capacity ), length, true );
+            // the volatile store orders the load of the waiting flag in wakeUpConsumer() as well
+            putLongVolatile( WRITE_POSITION_OFFSET, writePosition + length );
+        }
+        return length;
+    }
+
+    /**
+     * Called by the consumer. Copies as many bytes as available.
+     *
+     * @param dst the destination
+     * @return the number of copied bytes, zero if the buffer is empty, or {@code -1} if the buffer is closed and empty
+     */
+    int read( @Nonnull ByteBuffer dst )
+    {
+        long readPosition = getLongVolatile( READ_POSITION_OFFSET );
+        long writePosition = getLongVolatile( WRITE_POSITION_OFFSET );
+        if ( writePosition == readPosition )
+        {
+            // the producer publishes the last bytes before it closes the buffer
+            boolean closed = isClosed();
+            return closed && getLongVolatile( WRITE_POSITION_OFFSET ) == readPosition ? -1 : 0;
+        }
+        int length = (int) Math.min( writePosition - readPosition, dst.remaining() );
+        copy( dst, consumerData, (int) ( readPosition % capacity ), length, false );
+        putOrderedLong( READ_POSITION_OFFSET, readPosition + length );
+        return length;
+    }
+
+    /**
+     * Called by the producer. The consumer reads the remaining bytes and then the end of stream.
+     */
+    void close()
+    {
+        putIntVolatile( CLOSED_OFFSET, 1 );
+    }
+
+    boolean isClosed()
+    {
+        return getIntVolatile( CLOSED_OFFSET ) != 0;
+    }
+
+    /**
+     * @return the number of published bytes which have not been read yet
+     */
+    int size()
+    {
+        long readPosition = getLongVolatile( READ_POSITION_OFFSET );
+        return (int) ( getLongVolatile( WRITE_POSITION_OFFSET ) - readPosition );
+    }
+
+    /**
+     * The channel of the consumer.
+     *
+     * @param doorbell the producer writes a byte to this stream after it has published new bytes to the waiting
+     *                 consumer, or after it has closed the buffer
+     * @return the channel reading the ring buffer which blocks if the buffer is empty
+     */
+    @Nonnull
+    public ReadableByteChannel newReadableChannel( @Nonnull final InputStream doorbell )
+    {
+        return new ReadableByteChannel()
+        {
+            private final byte[] rings = new byte[64];
+            private volatile boolean open = true;
+
+            @Override
+            public int read( ByteBuffer dst ) throws IOException
+            {
+                if ( !open )
+                {
+                    throw new ClosedChannelException();
+                }
+
+                if ( !dst.hasRemaining() )
+                {
+                    return 0;
+                }
+
+                for ( int spins = 0; spins < CONSUMER_SPINS; spins++ )
+                {
+                    int length = MappedRingBuffer.this.read( dst );
+                    if ( length != 0 )
+                    {
+                        return length;
+                    }
+                    Thread.yield();
+                }
+
+                while ( true )
+                {
+                    putIntVolatile( CONSUMER_WAITING_OFFSET, 1 );
+                    int length = MappedRingBuffer.this.read( dst );
+                    if ( length != 0 )
+                    {
+                        putIntVolatile( CONSUMER_WAITING_OFFSET, 0 );
+                        return length;
+                    }
+                    int bell = doorbell.read( rings );
+                    putIntVolatile( CONSUMER_WAITING_OFFSET, 0 );
+                    if ( bell == -1 )
+                    {
+                        // the producer has gone, there is nothing more than the remaining bytes
+                        length = MappedRingBuffer.this.read( dst );
+                        return length == 0 ? -1 : length;
+                    }
+                }
+            }
+
+            @Override
+            public boolean isOpen()
+            {
+                return open;
+            }
+
+            @Override
+            public void close() throws IOException
+            {
+                open = false;
+                doorbell.close();
+            }
+        };
+    }
+
+    /**
+     * The stream of the producer. The stream is not buffered, see {@link Channels#newBufferedChannel(OutputStream)}.
+     *
+     * @param doorbell the stream which wakes up the waiting consumer
+     * @return the stream writing to the ring buffer which waits if the buffer is full
+     */
+    @Nonnull
+    public OutputStream newOutputStream( @Nonnull final OutputStream doorbell )
+    {
+        return new OutputStream()
+        {
+            @Override
+            public synchronized void write( byte[] b, int off, int len ) throws IOException
+            {
+                if ( off < 0 || off > b.length || len < 0 || off + len > b.length || off + len < 0 )
+                {
+                    throw new IndexOutOfBoundsException(
+                        "b.length = " + b.length + ", off = " + off + ", len = " + len );
+                }
+
+                ByteBuffer bb = ByteBuffer.wrap( b, off, len );
+                while ( bb.hasRemaining() )
+                {
+                    if ( MappedRingBuffer.this.write( bb ) == 0 )
+                    {
+                        // the consumer is slower
+                        wakeUpConsumer( doorbell );
+                        LockSupport.parkNanos( this, PRODUCER_PARK_NANOS );
+                    }
+                }
+                wakeUpConsumer( doorbell );
+            }
+
+            @Override
+            public void write( int b ) throws IOException
+            {
+                write( new byte[] {(byte) b} );
+            }
+
+            @Override
+            public synchronized void close() throws IOException
+            {
+                if ( !isClosed() )
+                {
+                    MappedRingBuffer.this.close();
+                    try
+                    {
+                        doorbell.write( 1 );
+                        doorbell.flush();
+                    }
+                    catch ( IOException e )
+                    {
+                        // the consumer has gone
+                    }
+                }
+            }
+        };
+    }
+
+    private void wakeUpConsumer( OutputStream doorbell ) throws IOException
+    {
+        if ( getIntVolatile( CONSUMER_WAITING_OFFSET ) != 0 )
+        {
+            doorbell.write( 1 );
+            doorbell.flush();
+        }
+    }
+
+    private static void copy( ByteBuffer bytes, ByteBuffer data, int index, int length, boolean toData )
+    {
+        int firstLength = Math.min( length, data.capacity() - index );
+        copyChunk( bytes, data, index, firstLength, toData );
+        if ( firstLength < length )
+        {
+            copyChunk( bytes, data, 0, length - firstLength, toData );
+        }
+    }
+
+    private static void copyChunk( ByteBuffer bytes, ByteBuffer data, int index, int length, boolean toData )
+    {
+        ( (Buffer) data ).limit( index + length ).position( index );
+        if ( toData )
+        {
+            int limit = bytes.limit();
+            ( (Buffer) bytes ).limit( bytes.position() + length );
+            data.put( bytes );
+            ( (Buffer) bytes ).limit( limit );
+        }
+        else
+        {
+            bytes.put( data );
+        }
+        ( (Buffer) data ).clear();
+    }
+
+    private long getLongVolatile( int offset )
+    {
+        try
+        {
+            return (long) GET_LONG_VOLATILE.invokeExact( (Object) null, address + offset );
+        }
+        catch ( Throwable e )
+        {
+            throw new IllegalStateException( e.getLocalizedMessage(), e );
+        }
+    }
+
+    private void putLongVolatile( int offset, long value )
+    {
+        try
+        {
+            PUT_LONG_VOLATILE.invokeExact( (Object) null, address + offset, value );
+        }
+        catch ( Throwable e )
+        {
+            throw new IllegalStateException( e.getLocalizedMessage(), e );
+        }
+    }
+
+    private void putOrderedLong( int offset, long value )
+    {
+        try
+        {
+            PUT_ORDERED_LONG.invokeExact( (Object) null, address + offset, value );
+        }
+        catch ( Throwable e )
+        {
+            throw new IllegalStateException( e.getLocalizedMessage(), e );
+        }
+    }
+
+    private int getIntVolatile( int offset )
+    {
+        try
+        {
+            return (int) GET_INT_VOLATILE.invokeExact( (Object) null, address + offset );
+        }
+        catch ( Throwable e )
+        {
+            throw new IllegalStateException( e.getLocalizedMessage(), e );
+        }
+    }
+
+    private void putIntVolatile( int offset, int value )
+    {
+        try
+        {
+            PUT_INT_VOLATILE.invokeExact( (Object) null, address + offset, value );
+        }
+        catch ( Throwable e )
+        {
+            throw new IllegalStateException( e.getLocalizedMessage(), e );
+        }
+    }
+
+    /**
+     * @return the native address of the mapped memory which is valid while the buffer is reachable
+     */
+    private static long addressOf( MappedByteBuffer buffer ) throws IOException
+    {
+        if ( !isSupported() )
+        {
+            throw new IOException( "The ring buffer in the mapped memory requires sun.misc.Unsafe." );
+        }
+
+        try
+        {
+            Class<?> unsafeType = UNSAFE.getClass();
+            Field addressField = Buffer.class.getDeclaredField( "address" );
+            long fieldOffset = (long) unsafeType.getMethod( "objectFieldOffset", Field.class )
+                .invoke( UNSAFE, addressField );
+            return (long) unsafeType.getMethod( "getLong", Object.class, long.class )
+                .invoke( UNSAFE, buffer, fieldOffset );
+        }
+        catch ( ReflectiveOperationException | RuntimeException e )
+        {
+            throw new IOException( "Cannot find the address of the mapped memory.", e );
+        }
+    }
+
+    private static Object unsafe()
+    {
+        Class<?> unsafeType = tryLoadClass( MappedRingBuffer.class.getClassLoader(), "sun.misc.Unsafe" );
+        if ( unsafeType == null )
+        {
+            return null;
+        }
+
+        try
+        {
+            Field theUnsafe = unsafeType.getDeclaredField( "theUnsafe" );
+            theUnsafe.setAccessible( true );
+            return theUnsafe.get( null );
+        }
+        catch ( ReflectiveOperationException | RuntimeException e )
+        {
+            return null;
+        }
+    }
+
+    private static MethodHandle unsafeMethod( String name, Class<?>... parameterTypes )
+    {
+        if ( UNSAFE == null )
+        {
+            return null;
+        }
+
+        try
+        {
+            Method method = UNSAFE.getClass().getMethod( name, parameterTypes );
+            return MethodHandles.lookup().unreflect( method ).bindTo( UNSAFE );
+        }
+        catch ( ReflectiveOperationException | RuntimeException e )
+        {
+            return null;
+        }
+    }
+}
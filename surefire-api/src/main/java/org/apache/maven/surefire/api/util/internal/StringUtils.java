@@ -19,9 +19,12 @@
  * under the License.
  */
 
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
 import java.util.StringTokenizer;
 
 import static java.lang.System.lineSeparator;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
  * <p>
@@ -104,4 +107,94 @@ public static boolean startsWith( StringBuffer buffer, String pattern )
             return true;
         }
     }
+
+    /**
+     * Decodes the remaining bytes of the buffer without changing its position.
+     *
+     * @param utf8 bytes encoded in UTF-8
+     * @return the decoded string
+     * @since 3.0.0-M6
+     */
+    public static String decodeUtf8( ByteBuffer utf8 )
+    {
+        if ( utf8.hasArray() )
+        {
+            return new String( utf8.array(), utf8.arrayOffset() + ( (Buffer) utf8 ).position(), utf8.remaining(),
+                UTF_8 );
+        }
+        byte[] bytes = new byte[utf8.remaining()];
+        utf8.duplicate().get( bytes );
+        return new String( bytes, UTF_8 );
+    }
+
+    /**
+     * Replaces the malformed sequences of UTF-8 with U+FFFD like {@link #decodeUtf8(ByteBuffer)} does.
+     *
+     * @param utf8 the bytes from the position to the limit of the buffer, the position is not changed
+     * @return the same buffer if the bytes are valid UTF-8, otherwise new buffer
+     * @since 3.0.0-M6
+     */
+    public static ByteBuffer toValidUtf8( ByteBuffer utf8 )
+    {
+        return isValidUtf8( utf8 ) ? utf8 : ByteBuffer.wrap( decodeUtf8( utf8 ).getBytes( UTF_8 ) );
+    }
+
+    /**
+     * @param utf8 the bytes from the position to the limit of the buffer, the position is not changed
+     * @return {@code true} if the bytes are well-formed UTF-8 without surrogates and overlong sequences
+     * @since 3.0.0-M6
+     */
+    @SuppressWarnings( "checkstyle:magicnumber" )
+    public static boolean isValidUtf8( ByteBuffer utf8 )
+    {
+        for ( int i = ( (Buffer) utf8 ).position(), limit = utf8.limit(); i < limit; )
+        {
+            int b = utf8.get( i ) & 0xFF;
+            if ( b < 0x80 )
+            {
+                i++;
+                continue;
+            }
+
+            int continuationBytes;
+            if ( b >= 0xC2 && b <= 0xDF )
+            {
+                continuationBytes = 1;
+            }
+            else if ( b >= 0xE0 && b <= 0xEF )
+            {
+                continuationBytes = 2;
+            }
+            else if ( b >= 0xF0 && b <= 0xF4 )
+            {
+                continuationBytes = 3;
+            }
+            else
+            {
+                return false;
+            }
+
+            if ( i + continuationBytes >= limit )
+            {
+                return false;
+            }
+
+            // the overlong sequences, the surrogates and the code points above U+10FFFF
+            int b1 = utf8.get( i + 1 ) & 0xFF;
+            if ( b == 0xE0 && b1 < 0xA0 || b == 0xED && b1 > 0x9F || b == 0xF0 && b1 < 0x90 || b == 0xF4 && b1 > 0x8F )
+            {
+                return false;
+            }
+
+            for ( int j = 1; j <= continuationBytes; j++ )
+            {
+                if ( ( utf8.get( i + j ) & 0xC0 ) != 0x80 )
+                {
+                    return false;
+                }
+            }
+            i += continuationBytes + 1;
+        }
+        return true;
+    }
 }
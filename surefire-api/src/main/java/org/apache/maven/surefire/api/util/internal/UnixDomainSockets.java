@@ -0,0 +1,155 @@
+package org.apache.maven.surefire.api.util.internal;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+
+import static org.apache.maven.surefire.api.util.ReflectionUtils.tryGetMethod;
+import static org.apache.maven.surefire.api.util.ReflectionUtils.tryLoadClass;
+
+/**
+ * Unix domain socket channels of JDK 16+ reached via reflection, because Surefire is compiled for Java 7.
+ *
+ * @since 3.0.0-M6
+ */
+public final class UnixDomainSockets
+{
+    private static final ProtocolFamily UNIX = unixProtocolFamily();
+
+    private static final Method OPEN_SERVER_SOCKET_CHANNEL =
+        tryGetMethod( ServerSocketChannel.class, "open", ProtocolFamily.class );
+
+    private static final Method OPEN_SOCKET_CHANNEL = tryGetMethod( SocketChannel.class, "open", ProtocolFamily.class );
+
+    private static final Method ADDRESS_OF = unixDomainSocketAddressOf();
+
+    private UnixDomainSockets()
+    {
+        throw new IllegalStateException( "not instantiable constructor" );
+    }
+
+    /**
+     * @return {@code true} if this JVM supports the channels of Unix domain sockets
+     */
+    public static boolean isSupported()
+    {
+        return UNIX != null && OPEN_SERVER_SOCKET_CHANNEL != null && OPEN_SOCKET_CHANNEL != null
+            && ADDRESS_OF != null;
+    }
+
+    /**
+     * @return unbound server socket channel of the {@code UNIX} protocol family
+     * @throws IOException if the channel cannot be opened
+     * @throws UnsupportedOperationException if this JVM does not {@link #isSupported() support} Unix domain sockets
+     */
+    @Nonnull
+    public static ServerSocketChannel openServerSocketChannel() throws IOException
+    {
+        return invoke( OPEN_SERVER_SOCKET_CHANNEL, UNIX );
+    }
+
+    /**
+     * @return unconnected socket channel of the {@code UNIX} protocol family
+     * @throws IOException if the channel cannot be opened
+     * @throws UnsupportedOperationException if this JVM does not {@link #isSupported() support} Unix domain sockets
+     */
+    @Nonnull
+    public static SocketChannel openSocketChannel() throws IOException
+    {
+        return invoke( OPEN_SOCKET_CHANNEL, UNIX );
+    }
+
+    /**
+     * @param path path of the socket file
+     * @return the instance of {@code java.net.UnixDomainSocketAddress}
+     * @throws UnsupportedOperationException if this JVM does not {@link #isSupported() support} Unix domain sockets
+     */
+    @Nonnull
+    public static SocketAddress address( @Nonnull Path path )
+    {
+        try
+        {
+            return invoke( ADDRESS_OF, path );
+        }
+        catch ( IOException e )
+        {
+            throw new IllegalStateException( e.getLocalizedMessage(), e );
+        }
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private static <T> T invoke( Method method, Object argument ) throws IOException
+    {
+        if ( !isSupported() )
+        {
+            throw new UnsupportedOperationException( "Unix domain sockets require Java 16 or later" );
+        }
+
+        try
+        {
+            return (T) method.invoke( null, argument );
+        }
+        catch ( IllegalAccessException e )
+        {
+            throw new IllegalStateException( e.getLocalizedMessage(), e );
+        }
+        catch ( InvocationTargetException e )
+        {
+            Throwable cause = e.getCause();
+            if ( cause instanceof IOException )
+            {
+                throw (IOException) cause;
+            }
+            else if ( cause instanceof RuntimeException )
+            {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException( cause.getLocalizedMessage(), cause );
+        }
+    }
+
+    private static ProtocolFamily unixProtocolFamily()
+    {
+        try
+        {
+            return StandardProtocolFamily.valueOf( "UNIX" );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            return null;
+        }
+    }
+
+    private static Method unixDomainSocketAddressOf()
+    {
+        ClassLoader classLoader = ClassLoader.getSystemClassLoader();
+        Class<?> addressType = tryLoadClass( classLoader, "java.net.UnixDomainSocketAddress" );
+        return addressType == null ? null : tryGetMethod( addressType, "of", Path.class );
+    }
+}
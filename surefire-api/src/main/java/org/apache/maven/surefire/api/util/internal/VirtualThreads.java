@@ -0,0 +1,146 @@
+package org.apache.maven.surefire.api.util.internal;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import javax.annotation.Nonnull;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import static org.apache.maven.surefire.api.util.ReflectionUtils.tryGetMethod;
+import static org.apache.maven.surefire.api.util.ReflectionUtils.tryLoadClass;
+
+/**
+ * Virtual threads of JDK 21+ reached via reflection, because Surefire is compiled for Java 7.
+ * <br>
+ * The virtual threads inherit the values of {@link InheritableThreadLocal} like the platform threads, hence the
+ * output of the tests is attributed to them in the same way.
+ *
+ * @since 3.0.0-M6
+ */
+public final class VirtualThreads
+{
+    private static final Class<?> BUILDER = threadBuilder();
+
+    private static final Method OF_VIRTUAL = tryGetMethod( Thread.class, "ofVirtual" );
+
+    private static final Method NAME = BUILDER == null ? null : tryGetMethod( BUILDER, "name", String.class, long.class );
+
+    private static final Method FACTORY = BUILDER == null ? null : tryGetMethod( BUILDER, "factory" );
+
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR =
+        tryGetMethod( Executors.class, "newThreadPerTaskExecutor", ThreadFactory.class );
+
+    private static final boolean SUPPORTED = canCreateVirtualThreads();
+
+    private VirtualThreads()
+    {
+        throw new IllegalStateException( "not instantiable constructor" );
+    }
+
+    /**
+     * @return {@code true} if this JVM supports virtual threads without preview features
+     */
+    public static boolean isSupported()
+    {
+        return SUPPORTED;
+    }
+
+    /**
+     * @param namePrefix prefix of the names of the threads followed by a counter starting at 1
+     * @return thread-safe factory of virtual threads
+     * @throws UnsupportedOperationException if this JVM does not {@link #isSupported() support} virtual threads
+     */
+    @Nonnull
+    public static ThreadFactory newVirtualThreadFactory( @Nonnull String namePrefix )
+    {
+        if ( !isSupported() )
+        {
+            throw new UnsupportedOperationException( "Virtual threads require Java 21 or later" );
+        }
+        return newFactory( namePrefix );
+    }
+
+    /**
+     * @param namePrefix prefix of the names of the threads followed by a counter starting at 1
+     * @return executor which starts a new virtual thread for each task
+     * @throws UnsupportedOperationException if this JVM does not {@link #isSupported() support} virtual threads
+     */
+    @Nonnull
+    public static ExecutorService newVirtualThreadPerTaskExecutor( @Nonnull String namePrefix )
+    {
+        return invoke( NEW_THREAD_PER_TASK_EXECUTOR, null, newVirtualThreadFactory( namePrefix ) );
+    }
+
+    private static ThreadFactory newFactory( String namePrefix )
+    {
+        Object builder = invoke( OF_VIRTUAL, null );
+        builder = invoke( NAME, builder, namePrefix, 1L );
+        return invoke( FACTORY, builder );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private static <T> T invoke( Method method, Object target, Object... arguments )
+    {
+        try
+        {
+            return (T) method.invoke( target, arguments );
+        }
+        catch ( IllegalAccessException e )
+        {
+            throw new IllegalStateException( e.getLocalizedMessage(), e );
+        }
+        catch ( InvocationTargetException e )
+        {
+            Throwable cause = e.getCause();
+            if ( cause instanceof RuntimeException )
+            {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException( cause.getLocalizedMessage(), cause );
+        }
+    }
+
+    private static boolean canCreateVirtualThreads()
+    {
+        if ( OF_VIRTUAL == null || NAME == null || FACTORY == null || NEW_THREAD_PER_TASK_EXECUTOR == null )
+        {
+            return false;
+        }
+
+        try
+        {
+            // JDK 19 and 20 throw UnsupportedOperationException without --enable-preview
+            newFactory( "" );
+            return true;
+        }
+        catch ( RuntimeException e )
+        {
+            return false;
+        }
+    }
+
+    private static Class<?> threadBuilder()
+    {
+        return tryLoadClass( ClassLoader.getSystemClassLoader(), "java.lang.Thread$Builder" );
+    }
+}
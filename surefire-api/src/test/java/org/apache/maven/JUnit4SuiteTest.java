@@ -29,6 +29,7 @@
 import org.apache.maven.surefire.api.stream.AbstractStreamEncoderTest;
 import org.apache.maven.surefire.api.suite.RunResultTest;
 import org.apache.maven.surefire.api.testset.FundamentalFilterTest;
+import org.apache.maven.surefire.api.testset.ResolvedTestIndexTest;
 import org.apache.maven.surefire.api.testset.ResolvedTestTest;
 import org.apache.maven.surefire.api.testset.TestListResolverTest;
 import org.apache.maven.surefire.api.util.DefaultDirectoryScannerTest;
@@ -36,12 +37,16 @@
 import org.apache.maven.surefire.api.util.RunOrderCalculatorTest;
 import org.apache.maven.surefire.api.util.RunOrderTest;
 import org.apache.maven.surefire.api.util.ScanResultTest;
+import org.apache.maven.surefire.api.util.TestClassChunkTest;
 import org.apache.maven.surefire.api.util.TestsToRunTest;
 import org.apache.maven.surefire.api.util.internal.AsyncSocketTest;
 import org.apache.maven.surefire.api.util.internal.ChannelsReaderTest;
 import org.apache.maven.surefire.api.util.internal.ChannelsWriterTest;
 import org.apache.maven.surefire.api.util.internal.ConcurrencyUtilsTest;
 import org.apache.maven.surefire.api.util.internal.ImmutableMapTest;
+import org.apache.maven.surefire.api.util.internal.MappedRingBufferTest;
+import org.apache.maven.surefire.api.util.internal.StringUtilsTest;
+import org.apache.maven.surefire.api.util.internal.VirtualThreadsTest;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
@@ -57,6 +62,7 @@
     LegacyPojoStackTraceWriterTest.class,
     RunResultTest.class,
     ResolvedTestTest.class,
+    ResolvedTestIndexTest.class,
     TestListResolverTest.class,
     ConcurrencyUtilsTest.class,
     DefaultDirectoryScannerTest.class,
@@ -64,6 +70,7 @@
     RunOrderTest.class,
     ScanResultTest.class,
     TestsToRunTest.class,
+    TestClassChunkTest.class,
     SpecificTestClassFilterTest.class,
     FundamentalFilterTest.class,
     ImmutableMapTest.class,
@@ -71,8 +78,11 @@
     ChannelsReaderTest.class,
     ChannelsWriterTest.class,
     AsyncSocketTest.class,
+    MappedRingBufferTest.class,
+    StringUtilsTest.class,
     AbstractStreamEncoderTest.class,
-    AbstractStreamDecoderTest.class
+    AbstractStreamDecoderTest.class,
+    VirtualThreadsTest.class
 } )
 @RunWith( Suite.class )
 public class JUnit4SuiteTest
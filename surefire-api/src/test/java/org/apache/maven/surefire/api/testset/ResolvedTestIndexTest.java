@@ -0,0 +1,128 @@
+package org.apache.maven.surefire.api.testset;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
+
+/**
+ * The index of the patterns must select the same tests as matching the patterns one by one.
+ */
+public class ResolvedTestIndexTest
+    extends TestCase
+{
+    private static final List<String> PATTERNS = asList( "MyTest", "my.pkg.MyTest", "pkg/MyTest.java",
+        "my/pkg/MyTest.class", "MyTest#test", "my.pkg.MyTest#test+other", "MyTest#test*", "My?est", "**/My*Test",
+        "my/**/MyTest", "#test", "#test*", "%regex[#test.*]", "%regex[.*MyTest.*]", "%regex[my.pkg.*#test]",
+        "Other*Test#test", "OtherTest.*", "**/OtherTest" );
+
+    private static final List<String> CLASS_FILES = asList( null, "", " ", "MyTest.class", "my/pkg/MyTest.class",
+        "pkg/MyTest.class", "other/pkg/MyTest.class", "my/pkg/MyTest", "my/pkg/MyTests.class", "my/MyTest.class",
+        "my/pkg/OtherTest.class", "OtherTest.class", "my/pkg/MyTest$Inner.class", "my//pkg/MyTest.class",
+        "my\\pkg\\MyTest.class", " my/pkg/MyTest.class " );
+
+    private static final List<String> METHODS = asList( null, "", "test", "testOther", "other", " test ", "a/test",
+        "test*", "test[0]" );
+
+    public void testShouldMatchAsPatternsOneByOne()
+    {
+        for ( String pattern : PATTERNS )
+        {
+            assertSameMatches( resolve( pattern ) );
+        }
+
+        for ( int i = 0; i < PATTERNS.size(); i++ )
+        {
+            assertSameMatches( resolve( PATTERNS.subList( i, PATTERNS.size() ).toArray( new String[0] ) ) );
+            assertSameMatches( resolve( PATTERNS.subList( 0, i + 1 ).toArray( new String[0] ) ) );
+        }
+    }
+
+    public void testShouldMatchManyMethods()
+    {
+        List<String> tests = new ArrayList<>();
+        for ( int i = 0; i < 1000; i++ )
+        {
+            tests.add( "org.acme.pkg" + ( i % 10 ) + ".Class" + i + "Test#test" + i );
+        }
+        TestListResolver resolver = new TestListResolver( tests );
+
+        assertTrue( resolver.shouldRun( "org/acme/pkg7/Class7Test.class", "test7" ) );
+        assertTrue( resolver.shouldRun( "org/acme/pkg7/Class997Test.class", "test997" ) );
+        assertTrue( resolver.shouldRun( "org/acme/pkg7/Class997Test.class", null ) );
+        assertFalse( resolver.shouldRun( "org/acme/pkg7/Class997Test.class", "test7" ) );
+        assertFalse( resolver.shouldRun( "org/acme/pkg6/Class997Test.class", "test997" ) );
+        assertFalse( resolver.shouldRun( "org/acme/pkg7/Class1000Test.class", null ) );
+    }
+
+    public void testShouldExcludeManyMethods()
+    {
+        List<String> excluded = new ArrayList<>();
+        for ( int i = 0; i < 1000; i++ )
+        {
+            excluded.add( "Class" + i + "Test#test" + i );
+        }
+        TestListResolver resolver = new TestListResolver( singleton( "**/*Test.java" ), excluded );
+
+        assertFalse( resolver.shouldRun( "org/acme/Class5Test.class", "test5" ) );
+        assertTrue( resolver.shouldRun( "org/acme/Class5Test.class", "test6" ) );
+        assertTrue( resolver.shouldRun( "org/acme/Class5Test.class", null ) );
+        assertTrue( resolver.shouldRun( "org/acme/Class1000Test.class", "test1000" ) );
+    }
+
+    private static void assertSameMatches( Collection<ResolvedTest> patterns )
+    {
+        ResolvedTestIndex index = new ResolvedTestIndex( new LinkedHashSet<>( patterns ) );
+        for ( String classFile : CLASS_FILES )
+        {
+            for ( String method : METHODS )
+            {
+                boolean inclusive = false;
+                boolean exclusive = false;
+                for ( ResolvedTest pattern : patterns )
+                {
+                    inclusive |= pattern.matchAsInclusive( classFile, method );
+                    exclusive |= pattern.matchAsExclusive( classFile, method );
+                }
+                String message = patterns + " " + classFile + "#" + method;
+                assertEquals( message, inclusive, index.matchAsInclusive( classFile, method ) );
+                assertEquals( message, exclusive, index.matchAsExclusive( classFile, method ) );
+            }
+        }
+    }
+
+    private static Set<ResolvedTest> resolve( String... patterns )
+    {
+        Set<ResolvedTest> resolved = new LinkedHashSet<>();
+        for ( String pattern : patterns )
+        {
+            TestListResolver.resolveTestRequest( pattern, new IncludedExcludedPatterns(), resolved, resolved );
+        }
+        return resolved;
+    }
+}
@@ -0,0 +1,66 @@
+package org.apache.maven.surefire.api.util;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import junit.framework.TestCase;
+
+import java.util.Collections;
+
+import static java.util.Arrays.asList;
+import static org.apache.maven.surefire.api.util.TestClassChunk.toChunk;
+import static org.apache.maven.surefire.api.util.TestClassChunk.toClassName;
+import static org.apache.maven.surefire.api.util.TestClassChunk.toMethodName;
+import static org.apache.maven.surefire.api.util.TestClassChunk.toMethods;
+import static org.apache.maven.surefire.api.util.TestClassChunk.toParameterTypes;
+
+/**
+ * Tests for {@link TestClassChunk}.
+ */
+public class TestClassChunkTest
+    extends TestCase
+{
+    public void testChunk()
+    {
+        String chunk = toChunk( "my.pkg.MyTest", asList( "test1(java.lang.String,int)", "test2()" ) );
+
+        assertEquals( "my.pkg.MyTest#test1(java.lang.String,int)+test2()", chunk );
+        assertEquals( "my.pkg.MyTest", toClassName( chunk ) );
+        assertEquals( asList( "test1(java.lang.String,int)", "test2()" ), toMethods( chunk ) );
+    }
+
+    public void testClassName()
+    {
+        String chunk = toChunk( "my.pkg.MyTest", Collections.<String>emptyList() );
+
+        assertEquals( "my.pkg.MyTest", chunk );
+        assertEquals( "my.pkg.MyTest", toClassName( chunk ) );
+        assertTrue( toMethods( chunk ).isEmpty() );
+    }
+
+    public void testMethod()
+    {
+        assertEquals( "test1", toMethodName( "test1(java.lang.String,[I)" ) );
+        assertEquals( "java.lang.String,[I", toParameterTypes( "test1(java.lang.String,[I)" ) );
+        assertEquals( "test2", toMethodName( "test2()" ) );
+        assertEquals( "", toParameterTypes( "test2()" ) );
+        assertEquals( "test3", toMethodName( "test3" ) );
+        assertEquals( "", toParameterTypes( "test3" ) );
+    }
+}
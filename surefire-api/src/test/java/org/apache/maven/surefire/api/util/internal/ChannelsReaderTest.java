@@ -40,6 +40,7 @@
 import java.nio.channels.AsynchronousByteChannel;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.NonReadableChannelException;
+import java.nio.channels.Pipe;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.ShutdownChannelGroupException;
 import java.util.concurrent.ExecutionException;
@@ -520,6 +521,48 @@ public Future<Integer> answer( InvocationOnMock invocation ) throws Throwable
             .isEqualTo( 1 );
     }
 
+    @Test
+    public void shouldReadUnsignedByte() throws Exception
+    {
+        AsynchronousByteChannel channel = mock( AsynchronousByteChannel.class );
+        when( channel.read( any( ByteBuffer.class ) ) )
+            .thenAnswer( new Answer<Future<Integer>>()
+            {
+                @Override
+                public Future<Integer> answer( InvocationOnMock invocation ) throws Throwable
+                {
+                    ByteBuffer bb = (ByteBuffer) invocation.getArguments()[0];
+                    bb.put( (byte) 0xFF );
+                    Future<Integer> future = mock( Future.class );
+                    when( future.get() ).thenReturn( 1 );
+                    return future;
+                }
+            } );
+
+        InputStream is = Channels.newInputStream( channel );
+        assertThat( is.read() )
+            .isEqualTo( 0xFF );
+    }
+
+    @Test
+    public void shouldReadUnsignedBytesOfChannel() throws Exception
+    {
+        ByteArrayInputStream bytes = new ByteArrayInputStream( new byte[] {(byte) 0xFF, (byte) 0x80, 1} );
+        InputStream is = Channels.newInputStream( Channels.newChannel( bytes ) );
+
+        assertThat( is.read() )
+            .isEqualTo( 0xFF );
+
+        assertThat( is.read() )
+            .isEqualTo( 0x80 );
+
+        assertThat( is.read() )
+            .isEqualTo( 1 );
+
+        assertThat( is.read() )
+            .isEqualTo( -1 );
+    }
+
     @Test
     public void shouldThrowExceptionOnRead() throws Exception
     {
@@ -576,4 +619,34 @@ public void shouldThrowExceptionOnFuture3() throws Exception
         ee.expectMessage( "msg" );
         is.read( new byte[1], 0, 1 );
     }
+
+    @Test
+    public void shouldNotCloseInterruptibleChannelIfThreadInterrupted() throws Exception
+    {
+        Pipe pipe = Pipe.open();
+        pipe.sink().write( ByteBuffer.wrap( new byte[] {1, 2, 3} ) );
+        InputStream is = Channels.newInputStream( pipe.source() );
+        byte[] b = new byte[3];
+        Thread.currentThread().interrupt();
+        try
+        {
+            assertThat( is.read( b ) )
+                .isEqualTo( 3 );
+            assertThat( Thread.currentThread().isInterrupted() )
+                .isTrue();
+        }
+        finally
+        {
+            Thread.interrupted();
+        }
+        assertThat( pipe.source().isOpen() )
+            .isTrue();
+        assertThat( b )
+            .isEqualTo( new byte[] {1, 2, 3} );
+
+        is.close();
+        assertThat( pipe.source().isOpen() )
+            .isFalse();
+        pipe.sink().close();
+    }
 }
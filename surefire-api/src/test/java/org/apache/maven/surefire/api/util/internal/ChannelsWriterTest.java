@@ -38,6 +38,7 @@
 import java.nio.channels.AsynchronousByteChannel;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.Pipe;
 import java.nio.channels.ShutdownChannelGroupException;
 import java.nio.channels.WritableByteChannel;
 import java.util.concurrent.ExecutionException;
@@ -488,4 +489,34 @@ public void shouldThrowExceptionOnFuture3() throws Exception
         ee.expectMessage( "msg" );
         os.write( new byte[1], 0, 1 );
     }
+
+    @Test
+    public void shouldNotCloseInterruptibleChannelIfThreadInterrupted() throws Exception
+    {
+        Pipe pipe = Pipe.open();
+        OutputStream os = Channels.newOutputStream( pipe.sink() );
+        Thread.currentThread().interrupt();
+        try
+        {
+            os.write( new byte[] {1, 2, 3} );
+            assertThat( Thread.currentThread().isInterrupted() )
+                .isTrue();
+        }
+        finally
+        {
+            Thread.interrupted();
+        }
+        assertThat( pipe.sink().isOpen() )
+            .isTrue();
+
+        ByteBuffer bb = ByteBuffer.allocate( 3 );
+        pipe.source().read( bb );
+        assertThat( bb.array() )
+            .isEqualTo( new byte[] {1, 2, 3} );
+
+        os.close();
+        assertThat( pipe.sink().isOpen() )
+            .isFalse();
+        pipe.source().close();
+    }
 }
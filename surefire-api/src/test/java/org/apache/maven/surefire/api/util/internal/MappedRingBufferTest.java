@@ -0,0 +1,182 @@
+package org.apache.maven.surefire.api.util.internal;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.Pipe;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.nio.channels.Channels.newInputStream;
+import static java.nio.channels.Channels.newOutputStream;
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * The tests for {@link MappedRingBuffer}. The doorbell is a pipe as the socket between the processes.
+ */
+public class MappedRingBufferTest
+{
+    private static final long TESTCASE_TIMEOUT = 30_000L;
+
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void shouldWrapAround() throws IOException
+    {
+        MappedRingBuffer ring = MappedRingBuffer.create( new File( tmp.getRoot(), "ring" ), 10 );
+        MappedRingBuffer peer = MappedRingBuffer.open( ring.getFile() );
+        assertThat( peer.capacity() )
+            .isEqualTo( 10 );
+
+        assertThat( ring.write( ByteBuffer.wrap( new byte[] {1, 2, 3, 4, 5, 6, 7} ) ) )
+            .isEqualTo( 7 );
+        ByteBuffer bb = ByteBuffer.allocate( 5 );
+        assertThat( peer.read( bb ) )
+            .isEqualTo( 5 );
+        assertThat( bb.array() )
+            .isEqualTo( new byte[] {1, 2, 3, 4, 5} );
+
+        ByteBuffer src = ByteBuffer.wrap( new byte[] {8, 9, 10, 11, 12, 13, 14, 15, 16} );
+        assertThat( ring.write( src ) )
+            .isEqualTo( 8 );
+        assertThat( ring.write( src ) )
+            .isEqualTo( 0 );
+        assertThat( peer.size() )
+            .isEqualTo( 10 );
+
+        bb = ByteBuffer.allocate( 16 );
+        assertThat( peer.read( bb ) )
+            .isEqualTo( 10 );
+        assertThat( peer.read( bb ) )
+            .isEqualTo( 0 );
+        assertThat( ring.write( src ) )
+            .isEqualTo( 1 );
+        assertThat( peer.read( bb ) )
+            .isEqualTo( 1 );
+        assertThat( bb.array() )
+            .isEqualTo( new byte[] {6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 0, 0, 0, 0, 0} );
+    }
+
+    @Test
+    public void shouldReadEndOfStreamAfterClose() throws IOException
+    {
+        MappedRingBuffer ring = MappedRingBuffer.create( new File( tmp.getRoot(), "ring" ), 16 );
+        Pipe doorbell = Pipe.open();
+        OutputStream os = ring.newOutputStream( newOutputStream( doorbell.sink() ) );
+        os.write( new byte[] {1, 2, 3} );
+        os.close();
+
+        ReadableByteChannel channel =
+            MappedRingBuffer.open( ring.getFile() ).newReadableChannel( newInputStream( doorbell.source() ) );
+        ByteBuffer bb = ByteBuffer.allocate( 4 );
+        assertThat( channel.read( bb ) )
+            .isEqualTo( 3 );
+        assertThat( channel.read( bb ) )
+            .isEqualTo( -1 );
+        channel.close();
+    }
+
+    @Test( expected = ClosedChannelException.class )
+    public void shouldNotWriteAfterClose() throws IOException
+    {
+        MappedRingBuffer ring = MappedRingBuffer.create( new File( tmp.getRoot(), "ring" ), 16 );
+        OutputStream os = ring.newOutputStream( new ByteArrayOutputStream() );
+        os.close();
+        os.write( 1 );
+    }
+
+    @Test
+    public void shouldBeSupported()
+    {
+        assertThat( MappedRingBuffer.isSupported() )
+            .isTrue();
+    }
+
+    @Test( expected = IOException.class )
+    public void shouldNotOpenUnknownFile() throws IOException
+    {
+        File file = tmp.newFile( "ring" );
+        Files.write( file.toPath(), new byte[256] );
+        MappedRingBuffer.open( file );
+    }
+
+    @Test( timeout = TESTCASE_TIMEOUT )
+    public void shouldTransferBytesBetweenThreads() throws Exception
+    {
+        MappedRingBuffer ring = MappedRingBuffer.create( new File( tmp.getRoot(), "ring" ), 61 );
+        Pipe doorbell = Pipe.open();
+        final OutputStream os = ring.newOutputStream( newOutputStream( doorbell.sink() ) );
+        final ReadableByteChannel channel =
+            MappedRingBuffer.open( ring.getFile() ).newReadableChannel( newInputStream( doorbell.source() ) );
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<byte[]> consumer = executor.submit( new Callable<byte[]>()
+        {
+            @Override
+            public byte[] call() throws Exception
+            {
+                ByteArrayOutputStream received = new ByteArrayOutputStream();
+                ByteBuffer bb = ByteBuffer.allocate( 7 );
+                while ( channel.read( bb ) != -1 )
+                {
+                    received.write( bb.array(), 0, bb.position() );
+                    bb.clear();
+                }
+                return received.toByteArray();
+            }
+        } );
+
+        ByteArrayOutputStream sent = new ByteArrayOutputStream();
+        for ( int i = 0; i < 10_000; i++ )
+        {
+            byte[] bytes = new byte[i % 100];
+            for ( int j = 0; j < bytes.length; j++ )
+            {
+                bytes[j] = (byte) ( i + j );
+            }
+            os.write( bytes );
+            sent.write( bytes );
+            if ( i % 1_000 == 0 )
+            {
+                // the consumer waits on the doorbell
+                Thread.sleep( 100L );
+            }
+        }
+        os.close();
+
+        assertThat( consumer.get() )
+            .isEqualTo( sent.toByteArray() );
+        executor.shutdown();
+    }
+}
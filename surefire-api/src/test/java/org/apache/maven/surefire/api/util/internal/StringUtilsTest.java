@@ -0,0 +1,105 @@
+package org.apache.maven.surefire.api.util.internal;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.util.Random;
+
+import static java.nio.charset.CodingErrorAction.REPORT;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.maven.surefire.api.util.internal.StringUtils.decodeUtf8;
+import static org.apache.maven.surefire.api.util.internal.StringUtils.isValidUtf8;
+import static org.apache.maven.surefire.api.util.internal.StringUtils.toValidUtf8;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests for the UTF-8 routines of {@link StringUtils}.
+ */
+public class StringUtilsTest
+{
+    @Test
+    public void shouldKeepValidUtf8()
+    {
+        ByteBuffer utf8 = ByteBuffer.wrap( "a\u00e9\u20ac\ud83d\ude00".getBytes( UTF_8 ) );
+        assertThat( toValidUtf8( utf8 ), is( sameInstance( utf8 ) ) );
+    }
+
+    @Test
+    public void shouldReplaceMalformedUtf8()
+    {
+        byte[] bytes = {'a', (byte) 0xFF, 'b', (byte) 0xC3};
+        ByteBuffer utf8 = toValidUtf8( ByteBuffer.wrap( bytes ) );
+        assertThat( decodeUtf8( utf8 ), is( "a\ufffdb\ufffd" ) );
+        assertThat( isValidUtf8( utf8 ), is( true ) );
+    }
+
+    @Test
+    public void shouldValidateFromPositionToLimit()
+    {
+        byte[] bytes = {(byte) 0x80, 'a', 'b', (byte) 0xFF};
+        ByteBuffer utf8 = ByteBuffer.wrap( bytes, 1, 2 );
+        assertThat( isValidUtf8( utf8 ), is( true ) );
+        assertThat( utf8.position(), is( 1 ) );
+    }
+
+    @Test
+    public void shouldValidateLikeDecoder()
+    {
+        Random random = new Random( 1L );
+        byte[][] samples = {{(byte) 0xC0, (byte) 0x80}, {(byte) 0xE0, (byte) 0x9F, (byte) 0xBF},
+            {(byte) 0xED, (byte) 0xA0, (byte) 0x80}, {(byte) 0xF4, (byte) 0x90, (byte) 0x80, (byte) 0x80},
+            {(byte) 0xF0, (byte) 0x90, (byte) 0x80, (byte) 0x80}, {(byte) 0xEF, (byte) 0xBF, (byte) 0xBF}};
+        for ( byte[] sample : samples )
+        {
+            assertThat( isValidUtf8( ByteBuffer.wrap( sample ) ), is( isDecodable( sample ) ) );
+        }
+
+        for ( int i = 0; i < 100_000; i++ )
+        {
+            byte[] bytes = new byte[random.nextInt( 6 )];
+            for ( int j = 0; j < bytes.length; j++ )
+            {
+                // the lead bytes and the continuation bytes more often than ASCII
+                bytes[j] = (byte) ( random.nextBoolean() ? 0x80 | random.nextInt( 0x80 ) : random.nextInt( 0x100 ) );
+            }
+            assertThat( isValidUtf8( ByteBuffer.wrap( bytes ) ), is( isDecodable( bytes ) ) );
+        }
+    }
+
+    private static boolean isDecodable( byte[] bytes )
+    {
+        CharsetDecoder decoder = UTF_8.newDecoder().onMalformedInput( REPORT ).onUnmappableCharacter( REPORT );
+        try
+        {
+            decoder.decode( ByteBuffer.wrap( bytes ) );
+            return true;
+        }
+        catch ( CharacterCodingException e )
+        {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.apache.maven.surefire.api.util.internal;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import junit.framework.TestCase;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * The virtual threads are available only on Java 21+, otherwise the factory methods fail.
+ */
+public class VirtualThreadsTest
+    extends TestCase
+{
+    private static final InheritableThreadLocal<String> TEST_NAME = new InheritableThreadLocal<>();
+
+    public void testShouldNotSupportVirtualThreadsBeforeJava21()
+    {
+        if ( VirtualThreads.isSupported() )
+        {
+            return;
+        }
+
+        try
+        {
+            VirtualThreads.newVirtualThreadFactory( "surefire-" );
+            fail();
+        }
+        catch ( UnsupportedOperationException e )
+        {
+            assertEquals( "Virtual threads require Java 21 or later", e.getLocalizedMessage() );
+        }
+
+        try
+        {
+            VirtualThreads.newVirtualThreadPerTaskExecutor( "surefire-" );
+            fail();
+        }
+        catch ( UnsupportedOperationException e )
+        {
+            assertEquals( "Virtual threads require Java 21 or later", e.getLocalizedMessage() );
+        }
+    }
+
+    public void testShouldCreateNamedVirtualThreads()
+        throws Exception
+    {
+        if ( !VirtualThreads.isSupported() )
+        {
+            return;
+        }
+
+        ThreadFactory factory = VirtualThreads.newVirtualThreadFactory( "surefire-" );
+        final AtomicReference<String> inherited = new AtomicReference<>();
+        TEST_NAME.set( "MyTest" );
+        try
+        {
+            Thread thread = factory.newThread( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    inherited.set( TEST_NAME.get() );
+                }
+            } );
+            thread.start();
+            thread.join();
+
+            assertEquals( "surefire-1", thread.getName() );
+            assertTrue( isVirtual( thread ) );
+            assertEquals( "MyTest", inherited.get() );
+            assertEquals( "surefire-2", factory.newThread( thread ).getName() );
+        }
+        finally
+        {
+            TEST_NAME.remove();
+        }
+    }
+
+    public void testShouldRunTaskInNewVirtualThread()
+        throws Exception
+    {
+        if ( !VirtualThreads.isSupported() )
+        {
+            return;
+        }
+
+        ExecutorService executor = VirtualThreads.newVirtualThreadPerTaskExecutor( "surefire-" );
+        try
+        {
+            Thread thread = executor.submit( new Callable<Thread>()
+            {
+                @Override
+                public Thread call()
+                {
+                    return Thread.currentThread();
+                }
+            } ).get();
+
+            assertNotSame( Thread.currentThread(), thread );
+            assertTrue( isVirtual( thread ) );
+        }
+        finally
+        {
+            executor.shutdown();
+            assertTrue( executor.awaitTermination( 10, SECONDS ) );
+        }
+    }
+
+    private static boolean isVirtual( Thread thread )
+        throws Exception
+    {
+        Method isVirtual = Thread.class.getMethod( "isVirtual" );
+        return (Boolean) isVirtual.invoke( thread );
+    }
+}
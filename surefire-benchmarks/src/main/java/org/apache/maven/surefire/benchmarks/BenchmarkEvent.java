@@ -0,0 +1,144 @@
+package org.apache.maven.surefire.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.surefire.api.booter.MasterProcessChannelEncoder;
+import org.apache.maven.surefire.api.report.LegacyPojoStackTraceWriter;
+import org.apache.maven.surefire.api.report.ReportEntry;
+import org.apache.maven.surefire.api.report.SimpleReportEntry;
+import org.apache.maven.surefire.api.report.StackTraceWriter;
+
+import java.util.Arrays;
+
+/**
+ * The events sent by the forked JVM in the benchmarks. Each constant writes one event of typical size.
+ *
+ * @since 3.0.0-M6
+ */
+public enum BenchmarkEvent
+{
+    TEST_SET_STARTING
+        {
+            @Override
+            void sendTo( MasterProcessChannelEncoder encoder )
+            {
+                encoder.testSetStarting( TEST_SET, true );
+            }
+        },
+    TEST_SUCCEEDED
+        {
+            @Override
+            void sendTo( MasterProcessChannelEncoder encoder )
+            {
+                encoder.testSucceeded( TEST, true );
+            }
+        },
+    TEST_FAILED_WITH_STACK_TRACE
+        {
+            @Override
+            void sendTo( MasterProcessChannelEncoder encoder )
+            {
+                encoder.testFailed( FAILED_TEST, false );
+            }
+        },
+    STDOUT_LINE
+        {
+            @Override
+            void sendTo( MasterProcessChannelEncoder encoder )
+            {
+                encoder.stdOut( "[INFO] the test has printed one line of the standard output", true );
+            }
+        },
+    STDOUT_LARGE
+        {
+            @Override
+            void sendTo( MasterProcessChannelEncoder encoder )
+            {
+                encoder.stdOut( LARGE_OUTPUT, false );
+            }
+        },
+    STDOUT_MULTI_BYTE
+        {
+            @Override
+            void sendTo( MasterProcessChannelEncoder encoder )
+            {
+                encoder.stdOut( MULTI_BYTE_OUTPUT, true );
+            }
+        },
+    CONSOLE_INFO
+        {
+            @Override
+            void sendTo( MasterProcessChannelEncoder encoder )
+            {
+                encoder.consoleInfoLog( "Running pkg.MyTest" );
+            }
+        };
+
+    private static final int LARGE_OUTPUT_LENGTH = 64 * 1024;
+
+    private static final int STACK_TRACE_DEPTH = 256;
+
+    static final String LARGE_OUTPUT = repeat( 'x', LARGE_OUTPUT_LENGTH );
+
+    /**
+     * Two bytes (Cyrillic), three bytes (CJK) and four bytes (emoji as a surrogate pair) per character in UTF-8.
+     */
+    static final String MULTI_BYTE_OUTPUT =
+        "\u041f\u0440\u0438\u0432\u0435\u0442 \u4f60\u597d\u4e16\u754c \ud83d\ude00 \u00e9\u00e8\u00ea";
+
+    private static final ReportEntry TEST_SET =
+        new SimpleReportEntry( "pkg.MyTest", null, null, null );
+
+    private static final ReportEntry TEST =
+        new SimpleReportEntry( "pkg.MyTest", null, "shouldPass", null, 12 );
+
+    private static final ReportEntry FAILED_TEST =
+        new SimpleReportEntry( "pkg.MyTest", null, "shouldFail", null, newStackTraceWriter(), 12 );
+
+    abstract void sendTo( MasterProcessChannelEncoder encoder );
+
+    private static StackTraceWriter newStackTraceWriter()
+    {
+        AssertionError failure = new AssertionError( "expected:<1> but was:<2>" );
+        failure.setStackTrace( newStackTrace( "org.junit.Assert" ) );
+        IllegalStateException cause = new IllegalStateException( "the cause of the failure" );
+        cause.setStackTrace( newStackTrace( "pkg.MyService" ) );
+        failure.initCause( cause );
+        return new LegacyPojoStackTraceWriter( "pkg.MyTest", "shouldFail", failure );
+    }
+
+    private static StackTraceElement[] newStackTrace( String declaringClass )
+    {
+        StackTraceElement[] stackTrace = new StackTraceElement[STACK_TRACE_DEPTH];
+        for ( int i = 0; i < stackTrace.length; i++ )
+        {
+            stackTrace[i] = new StackTraceElement( declaringClass + "$Inner" + ( i % 8 ), "method" + i,
+                "Source" + ( i % 8 ) + ".java", i + 1 );
+        }
+        return stackTrace;
+    }
+
+    private static String repeat( char c, int length )
+    {
+        char[] chars = new char[length];
+        Arrays.fill( chars, c );
+        return new String( chars );
+    }
+}
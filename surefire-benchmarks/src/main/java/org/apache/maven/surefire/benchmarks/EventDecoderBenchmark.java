@@ -0,0 +1,122 @@
+package org.apache.maven.surefire.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.surefire.api.event.Event;
+import org.apache.maven.surefire.api.stream.AbstractStreamDecoder.Memento;
+import org.apache.maven.surefire.api.util.internal.WritableBufferedByteChannel;
+import org.apache.maven.surefire.booter.ForkedNodeArg;
+import org.apache.maven.surefire.booter.spi.EventChannelEncoder;
+import org.apache.maven.surefire.stream.EventDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.apache.maven.surefire.api.util.internal.Channels.newBufferedChannel;
+
+/**
+ * Throughput of {@link EventDecoder} in the plugin process per event type. The stream of the events is encoded
+ * once by {@link EventChannelEncoder} and decoded from the memory in every invocation.
+ * <pre>
+ * java -jar surefire-benchmarks/target/benchmarks.jar EventDecoderBenchmark
+ * </pre>
+ *
+ * @since 3.0.0-M6
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( SECONDS )
+@Fork( 1 )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+public class EventDecoderBenchmark
+{
+    static final int EVENTS_PER_STREAM = 1_000;
+
+    @Param
+    public BenchmarkEvent event;
+
+    private byte[] stream;
+
+    @Setup
+    public void encodeStream() throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        WritableBufferedByteChannel channel = newBufferedChannel( out );
+        EventChannelEncoder encoder = new EventChannelEncoder( channel );
+        for ( int i = 0; i < EVENTS_PER_STREAM; i++ )
+        {
+            event.sendTo( encoder );
+        }
+        // flushes the buffered frames
+        channel.write( ByteBuffer.allocate( 0 ) );
+        stream = out.toByteArray();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( EVENTS_PER_STREAM )
+    public void decode( Blackhole blackhole ) throws IOException
+    {
+        ForkedNodeArg arguments = new ForkedNodeArg( 1, false );
+        try ( EventDecoder decoder =
+                  new EventDecoder( newBufferedChannel( new ByteArrayInputStream( stream ) ), arguments ) )
+        {
+            Memento memento = decoder.new Memento();
+            int decoded = 0;
+            try
+            {
+                do
+                {
+                    Event event = decoder.decode( memento );
+                    if ( event != null )
+                    {
+                        blackhole.consume( event );
+                        decoded++;
+                    }
+                }
+                while ( true );
+            }
+            catch ( EOFException e )
+            {
+                if ( decoded != EVENTS_PER_STREAM )
+                {
+                    throw new IllegalStateException( "Decoded " + decoded + " of " + EVENTS_PER_STREAM + " events." );
+                }
+            }
+        }
+    }
+}
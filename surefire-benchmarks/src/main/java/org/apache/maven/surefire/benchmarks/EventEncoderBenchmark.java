@@ -0,0 +1,97 @@
+package org.apache.maven.surefire.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.surefire.booter.spi.EventChannelEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.apache.maven.surefire.api.util.internal.Channels.newBufferedChannel;
+
+/**
+ * Throughput of {@link EventChannelEncoder} in the forked JVM per event type. The encoded frames are written to
+ * a stream which discards the bytes, so that only the encoding is measured.
+ * <pre>
+ * mvn package -P benchmarks -pl surefire-benchmarks -am -DskipTests
+ * java -jar surefire-benchmarks/target/benchmarks.jar EventEncoderBenchmark
+ * </pre>
+ *
+ * @since 3.0.0-M6
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( SECONDS )
+@Fork( 1 )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+public class EventEncoderBenchmark
+{
+    @Param
+    public BenchmarkEvent event;
+
+    private EventChannelEncoder encoder;
+
+    @Setup
+    public void createEncoder()
+    {
+        encoder = new EventChannelEncoder( newBufferedChannel( new DiscardingOutputStream() ) );
+    }
+
+    @Benchmark
+    public void encode()
+    {
+        event.sendTo( encoder );
+    }
+
+    static final class DiscardingOutputStream
+        extends OutputStream
+    {
+        private long count;
+
+        @Override
+        public void write( int b )
+        {
+            count++;
+        }
+
+        @Override
+        public void write( byte[] b, int off, int len )
+        {
+            count += len;
+        }
+
+        long getCount()
+        {
+            return count;
+        }
+    }
+}
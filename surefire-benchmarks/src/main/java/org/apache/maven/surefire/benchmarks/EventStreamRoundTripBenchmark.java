@@ -0,0 +1,151 @@
+package org.apache.maven.surefire.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.surefire.api.stream.AbstractStreamDecoder.Memento;
+import org.apache.maven.surefire.api.util.internal.WritableBufferedByteChannel;
+import org.apache.maven.surefire.booter.ForkedNodeArg;
+import org.apache.maven.surefire.booter.spi.EventChannelEncoder;
+import org.apache.maven.surefire.stream.EventDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.Pipe;
+import java.util.concurrent.Semaphore;
+
+import static java.nio.channels.Channels.newInputStream;
+import static java.nio.channels.Channels.newOutputStream;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.apache.maven.surefire.api.util.internal.Channels.newBufferedChannel;
+
+/**
+ * Throughput of the event stream from the {@link EventChannelEncoder encoder} through a pipe to the
+ * {@link EventDecoder decoder} running in another thread, similar to the standard output of the forked JVM read by
+ * the plugin process.
+ * <pre>
+ * java -jar surefire-benchmarks/target/benchmarks.jar EventStreamRoundTripBenchmark
+ * </pre>
+ *
+ * @since 3.0.0-M6
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( SECONDS )
+@Fork( 1 )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+public class EventStreamRoundTripBenchmark
+{
+    static final int EVENTS_PER_BATCH = 100;
+
+    @Param
+    public BenchmarkEvent event;
+
+    private final Semaphore decodedEvents = new Semaphore( 0 );
+
+    private Pipe pipe;
+
+    private WritableBufferedByteChannel channel;
+
+    private EventChannelEncoder encoder;
+
+    private Thread decoderThread;
+
+    @Setup( Level.Trial )
+    public void connect() throws IOException
+    {
+        pipe = Pipe.open();
+        channel = newBufferedChannel( newOutputStream( pipe.sink() ) );
+        encoder = new EventChannelEncoder( channel );
+        decoderThread = new Thread( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                decode();
+            }
+        }, "surefire-benchmark-decoder" );
+        decoderThread.setDaemon( true );
+        decoderThread.start();
+    }
+
+    @TearDown( Level.Trial )
+    public void disconnect() throws Exception
+    {
+        pipe.sink().close();
+        decoderThread.join();
+        pipe.source().close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( EVENTS_PER_BATCH )
+    public void sendAndReceive() throws Exception
+    {
+        for ( int i = 0; i < EVENTS_PER_BATCH; i++ )
+        {
+            event.sendTo( encoder );
+        }
+        // flushes the buffered frames
+        channel.write( ByteBuffer.allocate( 0 ) );
+        decodedEvents.acquire( EVENTS_PER_BATCH );
+    }
+
+    private void decode()
+    {
+        ForkedNodeArg arguments = new ForkedNodeArg( 1, false );
+        try ( EventDecoder decoder =
+                  new EventDecoder( newBufferedChannel( newInputStream( pipe.source() ) ), arguments ) )
+        {
+            Memento memento = decoder.new Memento();
+            do
+            {
+                if ( decoder.decode( memento ) != null )
+                {
+                    decodedEvents.release();
+                }
+            }
+            while ( true );
+        }
+        catch ( EOFException | ClosedChannelException e )
+        {
+            // the benchmark has finished
+        }
+        catch ( IOException e )
+        {
+            throw new IllegalStateException( e );
+        }
+    }
+}
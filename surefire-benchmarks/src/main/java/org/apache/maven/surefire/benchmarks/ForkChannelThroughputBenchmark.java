@@ -0,0 +1,354 @@
+package org.apache.maven.surefire.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.surefire.extensions.LegacyForkNodeFactory;
+import org.apache.maven.plugin.surefire.extensions.SharedMemoryForkNodeFactory;
+import org.apache.maven.plugin.surefire.extensions.SurefireForkNodeFactory;
+import org.apache.maven.plugin.surefire.extensions.UnixDomainSocketForkNodeFactory;
+import org.apache.maven.plugin.surefire.log.api.ConsoleLogger;
+import org.apache.maven.plugin.surefire.log.api.NullConsoleLogger;
+import org.apache.maven.surefire.api.event.Event;
+import org.apache.maven.surefire.api.fork.ForkNodeArguments;
+import org.apache.maven.surefire.api.util.internal.MappedRingBuffer;
+import org.apache.maven.surefire.api.util.internal.UnixDomainSockets;
+import org.apache.maven.surefire.api.util.internal.WritableBufferedByteChannel;
+import org.apache.maven.surefire.booter.spi.EventChannelEncoder;
+import org.apache.maven.surefire.extensions.EventHandler;
+import org.apache.maven.surefire.extensions.ForkChannel;
+import org.apache.maven.surefire.extensions.ForkNodeFactory;
+import org.apache.maven.surefire.extensions.util.CountdownCloseable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.annotation.Nonnull;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.Channel;
+import java.nio.channels.Pipe;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Paths;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.apache.maven.surefire.api.util.internal.Channels.newBufferedChannel;
+import static org.apache.maven.surefire.api.util.internal.Channels.newOutputStream;
+
+/**
+ * Throughput of the event stream from the forked JVM to the plugin through the {@link ForkChannel fork channels}:
+ * the legacy standard output of the forked process (a pipe), the loopback TCP/IP, the Unix domain socket and the
+ * ring buffer in the shared memory. The plugin side is the real fork channel including its event consumer thread,
+ * the forked JVM side is the buffered {@link EventChannelEncoder encoder} writing to the same kind of channel as its
+ * factory in the forked JVM.
+ * <pre>
+ * java -jar surefire-benchmarks/target/benchmarks.jar ForkChannelThroughputBenchmark
+ * </pre>
+ * The Unix domain socket requires Java 16 or later, otherwise the benchmark of {@link Transport#UNIX_DOMAIN_SOCKET}
+ * measures the TCP/IP fallback.
+ *
+ * @since 3.0.0-M6
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( SECONDS )
+@Fork( 1 )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+public class ForkChannelThroughputBenchmark
+{
+    static final int EVENTS_PER_BATCH = 100;
+
+    /**
+     * The transport between the plugin and the forked JVM.
+     */
+    public enum Transport
+    {
+        LEGACY
+            {
+                @Override
+                ForkNodeFactory createForkNodeFactory()
+                {
+                    return new LegacyForkNodeFactory();
+                }
+            },
+        TCP
+            {
+                @Override
+                ForkNodeFactory createForkNodeFactory()
+                {
+                    return new SurefireForkNodeFactory();
+                }
+            },
+        UNIX_DOMAIN_SOCKET
+            {
+                @Override
+                ForkNodeFactory createForkNodeFactory()
+                {
+                    return new UnixDomainSocketForkNodeFactory();
+                }
+            },
+        SHARED_MEMORY
+            {
+                @Override
+                ForkNodeFactory createForkNodeFactory()
+                {
+                    return new SharedMemoryForkNodeFactory();
+                }
+            };
+
+        abstract ForkNodeFactory createForkNodeFactory();
+    }
+
+    @Param( { "LEGACY", "TCP", "UNIX_DOMAIN_SOCKET", "SHARED_MEMORY" } )
+    public Transport transport;
+
+    @Param( { "TEST_SUCCEEDED", "STDOUT_LINE", "STDOUT_LARGE" } )
+    public BenchmarkEvent event;
+
+    private final Semaphore decodedEvents = new Semaphore( 0 );
+
+    private ForkChannel forkChannel;
+
+    private Channel forkedJvmChannel;
+
+    private WritableBufferedByteChannel channel;
+
+    private EventChannelEncoder encoder;
+
+    private volatile MappedRingBuffer events;
+
+    @Setup( Level.Trial )
+    public void connect() throws Exception
+    {
+        String sessionId = UUID.randomUUID().toString();
+        forkChannel = transport.createForkNodeFactory().createForkChannel( new Arguments( sessionId ) );
+        ReadableByteChannel stdOut;
+        if ( transport == Transport.LEGACY )
+        {
+            Pipe pipe = Pipe.open();
+            forkedJvmChannel = pipe.sink();
+            channel = newBufferedChannel( java.nio.channels.Channels.newOutputStream( pipe.sink() ) );
+            stdOut = pipe.source();
+        }
+        else
+        {
+            final String connectionString = forkChannel.getForkNodeConnectionString();
+            ExecutorService connector = Executors.newSingleThreadExecutor();
+            Future<Channel> client = connector.submit( new Callable<Channel>()
+            {
+                @Override
+                public Channel call() throws Exception
+                {
+                    if ( connectionString.startsWith( "unix://" ) )
+                    {
+                        return connectUnixDomainSocket( connectionString );
+                    }
+                    return connectionString.startsWith( "shm://" )
+                        ? connectSharedMemory( connectionString )
+                        : connectTcp( connectionString );
+                }
+            } );
+            forkChannel.connectToClient();
+            forkedJvmChannel = client.get();
+            connector.shutdown();
+            if ( events != null )
+            {
+                SocketChannel doorbell = (SocketChannel) forkedJvmChannel;
+                channel = newBufferedChannel( events.newOutputStream( newOutputStream( doorbell ) ) );
+            }
+            else if ( forkedJvmChannel instanceof SocketChannel )
+            {
+                channel = newBufferedChannel( newOutputStream( (SocketChannel) forkedJvmChannel ) );
+            }
+            else
+            {
+                channel = newBufferedChannel( newOutputStream( (AsynchronousSocketChannel) forkedJvmChannel ) );
+            }
+            stdOut = java.nio.channels.Channels.newChannel( new ByteArrayInputStream( new byte[0] ) );
+        }
+        encoder = new EventChannelEncoder( channel );
+
+        Closeable noop = new Closeable()
+        {
+            @Override
+            public void close()
+            {
+            }
+        };
+        CountdownCloseable countdown = new CountdownCloseable( noop, forkChannel.getCountdownCloseablePermits() );
+        forkChannel.bindEventHandler( new EventHandler<Event>()
+        {
+            @Override
+            public void handleEvent( @Nonnull Event event )
+            {
+                decodedEvents.release();
+            }
+        }, countdown, stdOut ).start();
+    }
+
+    @TearDown( Level.Trial )
+    public void disconnect() throws IOException
+    {
+        forkedJvmChannel.close();
+        forkChannel.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( EVENTS_PER_BATCH )
+    public void sendAndReceive() throws Exception
+    {
+        for ( int i = 0; i < EVENTS_PER_BATCH; i++ )
+        {
+            event.sendTo( encoder );
+        }
+        // flushes the buffered frames
+        channel.write( ByteBuffer.allocate( 0 ) );
+        decodedEvents.acquire( EVENTS_PER_BATCH );
+    }
+
+    private static Channel connectTcp( String connectionString ) throws Exception
+    {
+        URI uri = new URI( connectionString );
+        AsynchronousSocketChannel socket = AsynchronousSocketChannel.open();
+        socket.connect( new InetSocketAddress( uri.getHost(), uri.getPort() ) ).get();
+        String sessionId = uri.getQuery().substring( uri.getQuery().indexOf( '=' ) + 1 );
+        socket.write( ByteBuffer.wrap( sessionId.getBytes( US_ASCII ) ) ).get();
+        return socket;
+    }
+
+    private Channel connectSharedMemory( String connectionString ) throws Exception
+    {
+        URI uri = new URI( connectionString );
+        String query = uri.getRawQuery();
+        int eventsFile = query.indexOf( "&events=" ) + 8;
+        String path = URLDecoder.decode( query.substring( eventsFile, query.indexOf( '&', eventsFile ) ), "UTF-8" );
+        events = MappedRingBuffer.open( new File( path ) );
+        SocketChannel socket = SocketChannel.open( new InetSocketAddress( uri.getHost(), uri.getPort() ) );
+        String sessionId = query.substring( query.indexOf( '=' ) + 1, query.indexOf( '&' ) );
+        ByteBuffer buffer = ByteBuffer.wrap( sessionId.getBytes( US_ASCII ) );
+        while ( buffer.hasRemaining() )
+        {
+            socket.write( buffer );
+        }
+        return socket;
+    }
+
+    private static Channel connectUnixDomainSocket( String connectionString ) throws IOException
+    {
+        int query = connectionString.indexOf( '?' );
+        SocketChannel socket = UnixDomainSockets.openSocketChannel();
+        socket.connect( UnixDomainSockets.address( Paths.get( connectionString.substring( 7, query ) ) ) );
+        String sessionId = connectionString.substring( query + 11, connectionString.indexOf( '&', query ) );
+        ByteBuffer buffer = ByteBuffer.wrap( sessionId.getBytes( US_ASCII ) );
+        while ( buffer.hasRemaining() )
+        {
+            socket.write( buffer );
+        }
+        return socket;
+    }
+
+    private static final class Arguments implements ForkNodeArguments
+    {
+        private final String sessionId;
+        private final ConsoleLogger logger = new NullConsoleLogger();
+
+        Arguments( String sessionId )
+        {
+            this.sessionId = sessionId;
+        }
+
+        @Nonnull
+        @Override
+        public String getSessionId()
+        {
+            return sessionId;
+        }
+
+        @Override
+        public int getForkChannelId()
+        {
+            return 1;
+        }
+
+        @Nonnull
+        @Override
+        public File dumpStreamText( @Nonnull String text )
+        {
+            return new File( "" );
+        }
+
+        @Nonnull
+        @Override
+        public File dumpStreamException( @Nonnull Throwable t )
+        {
+            return new File( "" );
+        }
+
+        @Override
+        public void logWarningAtEnd( @Nonnull String text )
+        {
+        }
+
+        @Nonnull
+        @Override
+        public ConsoleLogger getConsoleLogger()
+        {
+            return logger;
+        }
+
+        @Override
+        public File getEventStreamBinaryFile()
+        {
+            return null;
+        }
+
+        @Override
+        public File getCommandStreamBinaryFile()
+        {
+            return null;
+        }
+    }
+}
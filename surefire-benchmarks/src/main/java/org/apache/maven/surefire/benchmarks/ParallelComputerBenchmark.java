@@ -0,0 +1,265 @@
+package org.apache.maven.surefire.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+import org.apache.maven.surefire.api.report.ConsoleStream;
+import org.apache.maven.surefire.api.report.DefaultDirectConsoleReporter;
+import org.apache.maven.surefire.junitcore.JUnitCoreParameters;
+import org.apache.maven.surefire.junitcore.pc.ParallelComputerBuilder;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Time to run synthetic suites with {@code parallel=all} in the JUnit 4.7+ provider. There are two suites of four
+ * classes with eight methods each. The methods either burn the CPU or sleep, as if they were waiting for I/O. The
+ * benchmark {@code fixedPool} runs the tests in the fixed thread pool with the permits of the thread-counts, and
+ * {@code workStealing} runs them in the work-stealing pool of the parameter {@code parallelWorkStealing}.
+ * <pre>
+ * java -jar surefire-benchmarks/target/benchmarks.jar ParallelComputerBenchmark
+ * </pre>
+ *
+ * @since 3.0.0-M6
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( MILLISECONDS )
+@Fork( 1 )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+public class ParallelComputerBenchmark
+{
+    private static final ConsoleStream LOGGER =
+        new DefaultDirectConsoleReporter( new PrintStream( new OutputStream()
+        {
+            @Override
+            public void write( int b )
+            {
+            }
+        } ) );
+
+    private static volatile boolean sleep;
+
+    @Param( { "4", "16" } )
+    public int threadCount;
+
+    @Param( { "cpu", "sleep" } )
+    public String workload;
+
+    private JUnitCoreParameters fixedPool;
+
+    private JUnitCoreParameters workStealing;
+
+    @Setup
+    public void createParameters()
+    {
+        sleep = "sleep".equals( workload );
+        fixedPool = parameters( false );
+        workStealing = parameters( true );
+    }
+
+    @Benchmark
+    public int fixedPool()
+    {
+        return run( fixedPool );
+    }
+
+    @Benchmark
+    public int workStealing()
+    {
+        return run( workStealing );
+    }
+
+    private JUnitCoreParameters parameters( boolean workStealing )
+    {
+        Map<String, String> properties = new HashMap<>();
+        properties.put( JUnitCoreParameters.PARALLEL_KEY, "all" );
+        properties.put( JUnitCoreParameters.THREADCOUNT_KEY, Integer.toString( threadCount ) );
+        properties.put( JUnitCoreParameters.PERCORETHREADCOUNT_KEY, "false" );
+        properties.put( JUnitCoreParameters.PARALLEL_WORKSTEALING_KEY, Boolean.toString( workStealing ) );
+        return new JUnitCoreParameters( properties );
+    }
+
+    private static int run( JUnitCoreParameters parameters )
+    {
+        ParallelComputerBuilder builder = new ParallelComputerBuilder( LOGGER, parameters );
+        Result result = new JUnitCore().run( builder.buildComputer(), Suite1.class, Suite2.class );
+        if ( !result.wasSuccessful() )
+        {
+            throw new IllegalStateException( result.getFailures().toString() );
+        }
+        return result.getRunCount();
+    }
+
+    /**
+     * Synthetic test class.
+     */
+    public static class Class1
+    {
+        @Test
+        public void test1() throws InterruptedException
+        {
+            work();
+        }
+
+        @Test
+        public void test2() throws InterruptedException
+        {
+            work();
+        }
+
+        @Test
+        public void test3() throws InterruptedException
+        {
+            work();
+        }
+
+        @Test
+        public void test4() throws InterruptedException
+        {
+            work();
+        }
+
+        @Test
+        public void test5() throws InterruptedException
+        {
+            work();
+        }
+
+        @Test
+        public void test6() throws InterruptedException
+        {
+            work();
+        }
+
+        @Test
+        public void test7() throws InterruptedException
+        {
+            work();
+        }
+
+        @Test
+        public void test8() throws InterruptedException
+        {
+            work();
+        }
+
+        private static void work() throws InterruptedException
+        {
+            if ( sleep )
+            {
+                Thread.sleep( 1L );
+            }
+            else
+            {
+                Blackhole.consumeCPU( 100_000L );
+            }
+        }
+    }
+
+    /**
+     * Synthetic test class.
+     */
+    public static class Class2 extends Class1
+    {
+    }
+
+    /**
+     * Synthetic test class.
+     */
+    public static class Class3 extends Class1
+    {
+    }
+
+    /**
+     * Synthetic test class.
+     */
+    public static class Class4 extends Class1
+    {
+    }
+
+    /**
+     * Synthetic test class.
+     */
+    public static class Class5 extends Class1
+    {
+    }
+
+    /**
+     * Synthetic test class.
+     */
+    public static class Class6 extends Class1
+    {
+    }
+
+    /**
+     * Synthetic test class.
+     */
+    public static class Class7 extends Class1
+    {
+    }
+
+    /**
+     * Synthetic test class.
+     */
+    public static class Class8 extends Class1
+    {
+    }
+
+    /**
+     * Synthetic suite.
+     */
+    @RunWith( Suite.class )
+    @Suite.SuiteClasses( { Class1.class, Class2.class, Class3.class, Class4.class } )
+    public static class Suite1
+    {
+    }
+
+    /**
+     * Synthetic suite.
+     */
+    @RunWith( Suite.class )
+    @Suite.SuiteClasses( { Class5.class, Class6.class, Class7.class, Class8.class } )
+    public static class Suite2
+    {
+    }
+}
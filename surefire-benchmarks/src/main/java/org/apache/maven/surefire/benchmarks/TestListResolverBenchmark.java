@@ -0,0 +1,133 @@
+package org.apache.maven.surefire.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.surefire.api.testset.ResolvedTest;
+import org.apache.maven.surefire.api.testset.TestListResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Throughput of {@link TestListResolver#shouldRun(String, String)} with a generated list of {@code Class#method}
+ * patterns in the parameter {@code test}, e.g. from a sharding tool, and with a few wildcard patterns. The
+ * {@code linear} benchmark matches the patterns one by one as {@link TestListResolver} did before the patterns were
+ * indexed.
+ * <pre>
+ * java -jar surefire-benchmarks/target/benchmarks.jar TestListResolverBenchmark
+ * </pre>
+ *
+ * @since 3.0.0-M6
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( SECONDS )
+@Fork( 1 )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+public class TestListResolverBenchmark
+{
+    static final int TESTS_PER_INVOCATION = 1_000;
+
+    @Param( { "10", "1000", "20000" } )
+    public int patterns;
+
+    @Param( { "0", "3" } )
+    public int wildcardPatterns;
+
+    private TestListResolver resolver;
+
+    private String[] classFiles;
+
+    private String[] methods;
+
+    @Setup
+    public void createPatterns()
+    {
+        List<String> tests = new ArrayList<>();
+        for ( int i = 0; i < patterns; i++ )
+        {
+            tests.add( "org.acme.pkg" + ( i % 100 ) + ".Class" + ( i / 10 ) + "Test#test" + i );
+        }
+        for ( int i = 0; i < wildcardPatterns; i++ )
+        {
+            tests.add( "org/acme/wildcard" + i + "/**/*Test" );
+        }
+        resolver = new TestListResolver( tests );
+
+        // half of the tests are selected by the patterns
+        classFiles = new String[TESTS_PER_INVOCATION];
+        methods = new String[TESTS_PER_INVOCATION];
+        for ( int i = 0; i < TESTS_PER_INVOCATION; i++ )
+        {
+            int test = i % 2 == 0 ? i * 7 % patterns : patterns + i;
+            classFiles[i] = "org/acme/pkg" + ( test % 100 ) + "/Class" + ( test / 10 ) + "Test.class";
+            methods[i] = "test" + test;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( TESTS_PER_INVOCATION )
+    public int indexed()
+    {
+        int selected = 0;
+        for ( int i = 0; i < TESTS_PER_INVOCATION; i++ )
+        {
+            if ( resolver.shouldRun( classFiles[i], methods[i] ) )
+            {
+                selected++;
+            }
+        }
+        return selected;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( TESTS_PER_INVOCATION )
+    public int linear()
+    {
+        int selected = 0;
+        for ( int i = 0; i < TESTS_PER_INVOCATION; i++ )
+        {
+            for ( ResolvedTest pattern : resolver.getIncludedPatterns() )
+            {
+                if ( pattern.matchAsInclusive( classFiles[i], methods[i] ) )
+                {
+                    selected++;
+                    break;
+                }
+            }
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,113 @@
+package org.apache.maven.surefire.booter;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+/**
+ * Latency of one liveness check of a process with the {@code ps} command used by {@link PpidChecker} and with the
+ * {@link ProcessHandleChecker checkers} of the process checker {@code handle}. The benchmark checks this JVM as if it
+ * was the plugin process. Run it with {@code -prof gc} in order to compare the allocations per check.
+ * <pre>
+ * java -jar surefire-benchmarks/target/benchmarks.jar ProcessCheckerBenchmark -prof gc
+ * </pre>
+ *
+ * @since 3.0.0-M6
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( MICROSECONDS )
+@Fork( 1 )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+public class ProcessCheckerBenchmark
+{
+    private String pid;
+
+    private PpidChecker ps;
+
+    private ProcessHandleChecker procStat;
+
+    private ProcessHandleChecker processHandle;
+
+    @Setup
+    public void createCheckers()
+    {
+        pid = ManagementFactory.getRuntimeMXBean().getName().split( "@" )[0].trim();
+        ps = new PpidChecker( pid );
+        procStat = ProcessHandleChecker.ProcStatChecker.of( pid );
+        processHandle = ProcessHandleChecker.JavaProcessHandleChecker.of( pid );
+    }
+
+    @TearDown
+    public void stopCheckers()
+    {
+        ps.stop();
+        if ( procStat != null )
+        {
+            procStat.stop();
+        }
+        if ( processHandle != null )
+        {
+            processHandle.stop();
+        }
+    }
+
+    @Benchmark
+    public Object ps()
+    {
+        return ps.unix();
+    }
+
+    @Benchmark
+    public boolean procStat()
+    {
+        if ( procStat == null )
+        {
+            throw new IllegalStateException( "/proc/" + pid + "/stat is not available on this platform" );
+        }
+        return procStat.isProcessAlive();
+    }
+
+    @Benchmark
+    public boolean processHandle()
+    {
+        if ( processHandle == null )
+        {
+            throw new IllegalStateException( "java.lang.ProcessHandle is not available in this JVM" );
+        }
+        return processHandle.isProcessAlive();
+    }
+}
@@ -0,0 +1,162 @@
+package org.apache.maven.surefire.junitcore;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+import org.apache.maven.surefire.api.report.ConsoleOutputReceiver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+/**
+ * Buffering of the output of one test in the JUnit 4.7+ provider running the tests in parallel. Each test prints
+ * {@code lines} lines with {@code print} and {@code println}, and the output is replayed to the reporter after the
+ * test. The benchmark {@code queue} is the former {@link LogicalStream} with one queue entry per write, and
+ * {@code chunks} is the current {@link LogicalStream}. Run it with {@code -prof gc} in order to compare the allocation
+ * rate and the number of GC cycles.
+ * <pre>
+ * java -jar surefire-benchmarks/target/benchmarks.jar LogicalStreamBenchmark -prof gc
+ * </pre>
+ *
+ * @since 3.0.0-M6
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( MICROSECONDS )
+@Threads( 4 )
+@Fork( 1 )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+public class LogicalStreamBenchmark
+{
+    @Param( { "100", "10000" } )
+    private int lines;
+
+    @Param( { "20", "200" } )
+    private int lineLength;
+
+    private String prefix;
+
+    private String line;
+
+    @Setup
+    public void createLines()
+    {
+        StringBuilder builder = new StringBuilder( lineLength );
+        for ( int i = 0; i < lineLength; i++ )
+        {
+            builder.append( (char) ( 'a' + i % 26 ) );
+        }
+        line = builder.toString();
+        prefix = "[main] ";
+    }
+
+    @Benchmark
+    public void queue( Blackhole blackhole )
+    {
+        QueueStream stream = new QueueStream();
+        for ( int i = 0; i < lines; i++ )
+        {
+            // the strings created by ConsoleOutputCapture are copies of the bytes written by the test
+            stream.write( true, new String( prefix ), false );
+            stream.write( true, new String( line ), true );
+        }
+        stream.writeDetails( new BlackholeReceiver( blackhole ) );
+    }
+
+    @Benchmark
+    public void chunks( Blackhole blackhole )
+    {
+        LogicalStream stream = new LogicalStream();
+        for ( int i = 0; i < lines; i++ )
+        {
+            stream.write( true, new String( prefix ), false );
+            stream.write( true, new String( line ), true );
+        }
+        stream.writeDetails( new BlackholeReceiver( blackhole ) );
+    }
+
+    private static final class BlackholeReceiver
+        implements ConsoleOutputReceiver
+    {
+        private final Blackhole blackhole;
+
+        BlackholeReceiver( Blackhole blackhole )
+        {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void writeTestOutput( String output, boolean newLine, boolean stdout )
+        {
+            blackhole.consume( output );
+        }
+    }
+
+    /**
+     * The former implementation of {@link LogicalStream}.
+     */
+    private static final class QueueStream
+    {
+        private final Queue<Entry> output = new ConcurrentLinkedQueue<>();
+
+        private static final class Entry
+        {
+            private final boolean stdout;
+            private final String text;
+            private final boolean newLine;
+
+            Entry( boolean stdout, String text, boolean newLine )
+            {
+                this.stdout = stdout;
+                this.text = text;
+                this.newLine = newLine;
+            }
+        }
+
+        synchronized void write( boolean stdout, String text, boolean newLine )
+        {
+            output.add( new Entry( stdout, text, newLine ) );
+        }
+
+        void writeDetails( ConsoleOutputReceiver outputReceiver )
+        {
+            for ( Entry entry = output.poll(); entry != null; entry = output.poll() )
+            {
+                outputReceiver.writeTestOutput( entry.text, entry.newLine, entry.stdout );
+            }
+        }
+    }
+}
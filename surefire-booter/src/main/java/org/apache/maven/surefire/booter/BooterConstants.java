@@ -60,4 +60,7 @@ private BooterConstants()
     public static final String PROCESS_CHECKER = "processChecker";
     public static final String FORK_NODE_CONNECTION_STRING = "forkNodeConnectionString";
     public static final String FORK_NUMBER = "forkNumber";
+    public static final String EVENT_BATCHING = "eventBatching";
+    public static final String STARTUP_PROFILE = "startupProfile";
+    public static final String RESOURCE_USAGE_INTERVAL = "resourceUsageInterval";
 }
@@ -79,6 +79,41 @@ public String getConnectionString()
         return properties.getProperty( FORK_NODE_CONNECTION_STRING );
     }
 
+    /**
+     * The plugin enables the batch frames of the events, the older plugins do not send this property.
+     *
+     * @return the batch frames of the events, {@link EventBatchingType#NONE} if not enabled
+     * @since 3.0.0-M6
+     */
+    @Nonnull
+    public EventBatchingType getEventBatching()
+    {
+        return EventBatchingType.toEnum( properties.getProperty( EVENT_BATCHING ) );
+    }
+
+    /**
+     * The plugin requests the elapsed times of the phases of the startup, the older plugins do not send this property.
+     *
+     * @return {@code true} if the forked JVM should send the startup phases to the plugin
+     * @since 3.0.0-M6
+     */
+    public boolean isStartupProfile()
+    {
+        return properties.getBooleanProperty( STARTUP_PROFILE );
+    }
+
+    /**
+     * The plugin requests the samples of the resources of the forked JVM, the older plugins do not send this property.
+     *
+     * @return the period of the samples in milliseconds, or {@code 0} if the forked JVM should not send the samples
+     * @since 3.0.0-M6
+     */
+    public long getResourceUsageInterval()
+    {
+        Long interval = properties.getLongProperty( RESOURCE_USAGE_INTERVAL );
+        return interval == null ? 0L : interval;
+    }
+
     /**
      * @return PID of Maven process where plugin is executed; or null if PID could not be determined.
      */
@@ -0,0 +1,85 @@
+package org.apache.maven.surefire.booter;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Enumeration;
+import java.util.StringTokenizer;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * The main class of the training run which the plugin starts with {@code -XX:ArchiveClassesAtExit} in order to create
+ * the dynamic class data sharing archive of the forked JVMs. The classes of all jar files on the class path are loaded
+ * by the system class loader without initialization, and the JVM archives them at exit.
+ * <br>
+ * The forked JVMs cannot create the archive themselves because the JVM refuses to archive the class path with
+ * non-empty directories, e.g. {@code target/test-classes}. The class path of the training run is the booter class
+ * path which is the prefix of the class path of the forked JVMs.
+ *
+ * @since 3.0.0-M6
+ */
+public final class ClassDataSharingTrainer
+{
+    private ClassDataSharingTrainer()
+    {
+        throw new IllegalStateException( "no instantiable constructor" );
+    }
+
+    public static void main( String[] args )
+        throws IOException
+    {
+        ClassLoader classLoader = ClassLoader.getSystemClassLoader();
+        String classPath = System.getProperty( "java.class.path" );
+        for ( StringTokenizer paths = new StringTokenizer( classPath, File.pathSeparator ); paths.hasMoreTokens(); )
+        {
+            File path = new File( paths.nextToken() );
+            if ( path.isFile() )
+            {
+                loadClasses( path, classLoader );
+            }
+        }
+    }
+
+    private static void loadClasses( File jar, ClassLoader classLoader )
+        throws IOException
+    {
+        try ( JarFile jarFile = new JarFile( jar ) )
+        {
+            for ( Enumeration<JarEntry> entries = jarFile.entries(); entries.hasMoreElements(); )
+            {
+                String name = entries.nextElement().getName();
+                if ( name.endsWith( ".class" ) && !name.startsWith( "META-INF/" ) && !name.endsWith( "-info.class" ) )
+                {
+                    String className = name.substring( 0, name.length() - 6 ).replace( '/', '.' );
+                    try
+                    {
+                        Class.forName( className, false, classLoader );
+                    }
+                    catch ( ClassNotFoundException | LinkageError e )
+                    {
+                        // the class has a missing optional dependency, the JVM does not archive it
+                    }
+                }
+            }
+        }
+    }
+}
@@ -139,10 +139,16 @@ public boolean equals( Object o )
 
     public ClassLoader createClassLoader( boolean childDelegation, boolean enableAssertions, @Nonnull String roleName )
         throws SurefireExecutionException
+    {
+        return createClassLoader( SystemUtils.platformClassLoader(), childDelegation, enableAssertions, roleName );
+    }
+
+    public ClassLoader createClassLoader( ClassLoader parent, boolean childDelegation, boolean enableAssertions,
+                                          @Nonnull String roleName )
+        throws SurefireExecutionException
     {
         try
         {
-            ClassLoader parent = SystemUtils.platformClassLoader();
             IsolatedClassLoader classLoader = new IsolatedClassLoader( parent, childDelegation, roleName );
             for ( String classPathElement : unmodifiableElements )
             {
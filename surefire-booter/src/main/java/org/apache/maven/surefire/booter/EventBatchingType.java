@@ -0,0 +1,95 @@
+package org.apache.maven.surefire.booter;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.apache.maven.surefire.shared.utils.StringUtils.isBlank;
+
+/**
+ * The way the forked JVM packs the events in the batch frames, see
+ * {@link org.apache.maven.surefire.api.booter.ForkedProcessEventType#BOOTERCODE_BATCH}.
+ *
+ * @since 3.0.0-M6
+ */
+public enum EventBatchingType
+{
+    /**
+     * Every event is written in its own frame.
+     */
+    NONE( "none" ),
+
+    /**
+     * The events are packed in the batch frames.
+     */
+    BATCH( "batch" ),
+
+    /**
+     * The events are packed in the deflated batch frames.
+     */
+    DEFLATE( "deflate" );
+
+    private final String type;
+
+    EventBatchingType( String type )
+    {
+        this.type = type;
+    }
+
+    /**
+     * Converts string (none, batch, deflate) to {@link EventBatchingType}.
+     *
+     * @param type none, batch, deflate
+     * @return {@link EventBatchingType}, {@link #NONE} if blank
+     */
+    public static EventBatchingType toEnum( String type )
+    {
+        if ( isBlank( type ) )
+        {
+            return NONE;
+        }
+
+        for ( EventBatchingType e : values() )
+        {
+            if ( e.type.equals( type ) )
+            {
+                return e;
+            }
+        }
+
+        throw new IllegalArgumentException( "unknown event batching" );
+    }
+
+    public String getType()
+    {
+        return type;
+    }
+
+    public static boolean isValid( String type )
+    {
+        try
+        {
+            toEnum( type );
+            return true;
+        }
+        catch ( IllegalArgumentException e )
+        {
+            return false;
+        }
+    }
+}
@@ -24,6 +24,7 @@
 import org.apache.maven.surefire.api.booter.Command;
 import org.apache.maven.surefire.api.booter.DumpErrorSingleton;
 import org.apache.maven.surefire.api.booter.ForkingReporterFactory;
+import org.apache.maven.surefire.api.booter.ForkingRunListener;
 import org.apache.maven.surefire.api.booter.MasterProcessChannelDecoder;
 import org.apache.maven.surefire.api.booter.MasterProcessChannelEncoder;
 import org.apache.maven.surefire.api.booter.Shutdown;
@@ -32,13 +33,19 @@
 import org.apache.maven.surefire.api.provider.ProviderParameters;
 import org.apache.maven.surefire.api.provider.SurefireProvider;
 import org.apache.maven.surefire.api.report.LegacyPojoStackTraceWriter;
+import org.apache.maven.surefire.api.report.ReportEntry;
+import org.apache.maven.surefire.api.report.RunListener;
 import org.apache.maven.surefire.api.report.StackTraceWriter;
+import org.apache.maven.surefire.api.report.TestSetReportEntry;
 import org.apache.maven.surefire.api.testset.TestSetFailedException;
 import org.apache.maven.surefire.booter.spi.LegacyMasterProcessChannelProcessorFactory;
+import org.apache.maven.surefire.booter.spi.SharedMemoryMasterProcessChannelProcessorFactory;
 import org.apache.maven.surefire.booter.spi.SurefireMasterProcessChannelProcessorFactory;
+import org.apache.maven.surefire.booter.spi.UnixDomainSocketMasterProcessChannelProcessorFactory;
 import org.apache.maven.surefire.shared.utils.cli.ShutdownHookUtils;
 import org.apache.maven.surefire.spi.MasterProcessChannelProcessorFactory;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -52,6 +59,7 @@
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadFactory;
@@ -66,9 +74,15 @@
 import static org.apache.maven.surefire.api.util.ReflectionUtils.instantiateOneArg;
 import static org.apache.maven.surefire.api.util.internal.DaemonThreadFactory.newDaemonThreadFactory;
 import static org.apache.maven.surefire.api.util.internal.StringUtils.NL;
+import static org.apache.maven.surefire.booter.Classpath.join;
 import static org.apache.maven.surefire.booter.ProcessCheckerType.ALL;
+import static org.apache.maven.surefire.booter.ProcessCheckerType.HANDLE;
 import static org.apache.maven.surefire.booter.ProcessCheckerType.NATIVE;
 import static org.apache.maven.surefire.booter.ProcessCheckerType.PING;
+import static org.apache.maven.surefire.booter.StartupProfiler.BOOTER_DESERIALIZATION;
+import static org.apache.maven.surefire.booter.StartupProfiler.FORK_CHANNEL;
+import static org.apache.maven.surefire.booter.StartupProfiler.PROVIDER_INSTANTIATION;
+import static org.apache.maven.surefire.booter.StartupProfiler.TEST_CLASS_LOADER;
 import static org.apache.maven.surefire.booter.SystemPropertyManager.setSystemProperties;
 
 /**
@@ -90,8 +104,11 @@
     private static final String PING_THREAD = "surefire-forkedjvm-ping-";
 
     private final Semaphore exitBarrier = new Semaphore( 0 );
+    private final StartupProfiler startupProfiler = new StartupProfiler();
+    private final boolean pooled;
 
     private volatile MasterProcessChannelEncoder eventChannel;
+    private volatile ResourceUsageSampler resourceUsageSampler;
     private volatile MasterProcessChannelProcessorFactory channelProcessorFactory;
     private volatile CommandReader commandReader;
     private volatile long systemExitTimeoutInSeconds = DEFAULT_SYSTEM_EXIT_TIMEOUT_IN_SECONDS;
@@ -102,10 +119,26 @@
     private ForkingReporterFactory forkingReporterFactory;
     private StartupConfiguration startupConfiguration;
     private Object testSet;
+    private Thread flushEventChannelHook;
+    private ClassLoader testClassLoader;
+
+    ForkedBooter()
+    {
+        this( false );
+    }
+
+    /**
+     * @param pooled {@code true} if this booter runs one test set in the long-living JVM of
+     *               {@link PooledForkedBooter} and must not exit the JVM after the test set has completed
+     */
+    ForkedBooter( boolean pooled )
+    {
+        this.pooled = pooled;
+    }
 
     private void setupBooter( String tmpDir, String dumpFileName, String surefirePropsFileName,
                               String effectiveSystemPropertiesFileName )
-            throws IOException
+            throws IOException, SurefireExecutionException
     {
         BooterDeserializer booterDeserializer =
                 new BooterDeserializer( createSurefirePropertiesIfFileExists( tmpDir, surefirePropsFileName ) );
@@ -125,13 +158,14 @@ private void setupBooter( String tmpDir, String dumpFileName, String surefirePro
         }
 
         startupConfiguration = booterDeserializer.getStartupConfiguration();
+        startupProfiler.phaseCompleted( BOOTER_DESERIALIZATION );
 
         String channelConfig = booterDeserializer.getConnectionString();
         channelProcessorFactory = lookupDecoderFactory( channelConfig );
         channelProcessorFactory.connect( channelConfig );
         boolean isDebugging = isDebugging();
         boolean debug = isDebugging || providerConfiguration.getMainCliOptions().contains( LOGGING_LEVEL_DEBUG );
-        ForkNodeArguments args = new ForkedNodeArg( forkNumber, debug );
+        ForkNodeArguments args = new ForkedNodeArg( forkNumber, debug, booterDeserializer.getEventBatching() );
         eventChannel = channelProcessorFactory.createEncoder( args );
         MasterProcessChannelDecoder decoder = channelProcessorFactory.createDecoder( args );
 
@@ -144,6 +178,7 @@ private void setupBooter( String tmpDir, String dumpFileName, String surefirePro
         pingScheduler = isDebugging ? null : listenToShutdownCommands( booterDeserializer.getPluginPid(), logger );
 
         systemExitTimeoutInSeconds = providerConfiguration.systemExitTimeout( DEFAULT_SYSTEM_EXIT_TIMEOUT_IN_SECONDS );
+        startupProfiler.phaseCompleted( FORK_CHANNEL );
 
         AbstractPathConfiguration classpathConfiguration = startupConfiguration.getClasspathConfiguration();
 
@@ -157,10 +192,24 @@ private void setupBooter( String tmpDir, String dumpFileName, String surefirePro
             startupConfiguration.writeSurefireTestClasspathProperty();
         }
 
-        ClassLoader classLoader = currentThread().getContextClassLoader();
+        ClassLoader classLoader = pooled ? createTestClassLoader() : currentThread().getContextClassLoader();
         classLoader.setDefaultAssertionStatus( classpathConfiguration.isEnableAssertions() );
         boolean readTestsFromCommandReader = providerConfiguration.isReadTestsFromInStream();
         testSet = createTestSet( providerConfiguration.getTestForFork(), readTestsFromCommandReader, classLoader );
+        startupProfiler.phaseCompleted( TEST_CLASS_LOADER );
+
+        if ( booterDeserializer.isStartupProfile() )
+        {
+            // the pooled JVM has been launched for a previous test set
+            startupProfiler.sendTo( eventChannel, !pooled );
+        }
+
+        long resourceUsageInterval = booterDeserializer.getResourceUsageInterval();
+        if ( resourceUsageInterval > 0L )
+        {
+            resourceUsageSampler = new ResourceUsageSampler( eventChannel );
+            resourceUsageSampler.start( resourceUsageInterval );
+        }
     }
 
     private void execute()
@@ -195,6 +244,57 @@ private void execute()
         }
     }
 
+    /**
+     * The test and provider classes are not on the system classpath of the pooled JVM. They are loaded by a fresh
+     * class loader per test set so that the classes of the previous test sets do not leak into the next one.
+     *
+     * @return the test class loader which is the context class loader of the current thread
+     * @throws SurefireExecutionException if the class loader cannot be created
+     */
+    private ClassLoader createTestClassLoader()
+        throws SurefireExecutionException
+    {
+        AbstractPathConfiguration classpathConfiguration = startupConfiguration.getClasspathConfiguration();
+        Classpath classpath =
+            join( classpathConfiguration.getTestClasspath(), classpathConfiguration.getProviderClasspath() );
+        testClassLoader = classpath.createClassLoader( ClassLoader.getSystemClassLoader(), false,
+            classpathConfiguration.isEnableAssertions(), "test" );
+        currentThread().setContextClassLoader( testClassLoader );
+        return testClassLoader;
+    }
+
+    /**
+     * Releases the resources of this test set so that the pooled JVM can run the next one.
+     */
+    private void detachFromPooledJvm()
+    {
+        if ( flushEventChannelHook != null )
+        {
+            ShutdownHookUtils.removeShutdownHook( flushEventChannelHook );
+        }
+
+        synchronized ( this )
+        {
+            if ( jvmTerminator != null )
+            {
+                jvmTerminator.shutdownNow();
+            }
+        }
+
+        currentThread().setContextClassLoader( ClassLoader.getSystemClassLoader() );
+        if ( testClassLoader instanceof Closeable )
+        {
+            try
+            {
+                ( (Closeable) testClassLoader ).close();
+            }
+            catch ( IOException e )
+            {
+                DumpErrorSingleton.getSingleton().dumpException( e );
+            }
+        }
+    }
+
     private Object createTestSet( TypeEncodedValue forkedTestSet, boolean readTestsFromCommandReader, ClassLoader cl )
     {
         if ( forkedTestSet != null )
@@ -208,6 +308,14 @@ else if ( readTestsFromCommandReader )
         return null;
     }
 
+    private void stopResourceUsageSampler()
+    {
+        if ( resourceUsageSampler != null )
+        {
+            resourceUsageSampler.stop();
+        }
+    }
+
     private void cancelPingScheduler()
     {
         if ( pingScheduler != null )
@@ -249,15 +357,15 @@ private void closeForkChannel()
 
     private PingScheduler listenToShutdownCommands( String ppid, ConsoleLogger logger )
     {
-        PpidChecker ppidChecker = ppid == null ? null : new PpidChecker( ppid );
+        ProcessCheckerType checkerType = startupConfiguration.getProcessChecker();
+        PpidChecker ppidChecker = ppid == null ? null : createPpidChecker( ppid, checkerType );
         commandReader.addShutdownListener( createExitHandler( ppidChecker ) );
         AtomicBoolean pingDone = new AtomicBoolean( true );
         commandReader.addNoopListener( createPingHandler( pingDone ) );
         PingScheduler pingMechanisms = new PingScheduler( createPingScheduler(), ppidChecker );
 
-        ProcessCheckerType checkerType = startupConfiguration.getProcessChecker();
-
-        if ( ( checkerType == ALL || checkerType == NATIVE ) && pingMechanisms.pluginProcessChecker != null )
+        if ( ( checkerType == ALL || checkerType == NATIVE || checkerType == HANDLE )
+            && pingMechanisms.pluginProcessChecker != null )
         {
             logger.debug( pingMechanisms.pluginProcessChecker.toString() );
             Runnable checkerJob = processCheckerJob( pingMechanisms );
@@ -273,6 +381,15 @@ private PingScheduler listenToShutdownCommands( String ppid, ConsoleLogger logge
         return pingMechanisms;
     }
 
+    /**
+     * The checker of the type {@link ProcessCheckerType#HANDLE} falls back to the commands {@code ps} or {@code wmic}
+     * if the platform has neither /proc nor {@code ProcessHandle}.
+     */
+    private static PpidChecker createPpidChecker( String ppid, ProcessCheckerType checkerType )
+    {
+        return new PpidChecker( ppid, checkerType == HANDLE ? ProcessHandleChecker.of( ppid ) : null );
+    }
+
     private Runnable processCheckerJob( final PingScheduler pingMechanism )
     {
         return new Runnable()
@@ -416,8 +533,9 @@ public void update( Command command )
                                               }
                                           }
         );
+        stopResourceUsageSampler();
         eventChannel.bye();
-        launchLastDitchDaemonShutdownThread( 0 );
+        ScheduledFuture<?> lastDitchShutdown = launchLastDitchDaemonShutdownThread( 0 );
         long timeoutMillis = max( systemExitTimeoutInSeconds * ONE_SECOND_IN_MILLIS, ONE_SECOND_IN_MILLIS );
         boolean timeoutElapsed = !acquireOnePermit( exitBarrier, timeoutMillis );
         if ( timeoutElapsed && !eventChannel.checkError() )
@@ -427,19 +545,69 @@ public void update( Command command )
         cancelPingScheduler();
         commandReader.stop();
         closeForkChannel();
+        if ( pooled )
+        {
+            lastDitchShutdown.cancel( false );
+            detachFromPooledJvm();
+            return;
+        }
         System.exit( 0 );
     }
 
     private void runSuitesInProcess()
         throws TestSetFailedException, InvocationTargetException
     {
-        createProviderInCurrentClassloader( forkingReporterFactory ).invoke( testSet );
+        SurefireProvider provider = createProviderInCurrentClassloader( forkingReporterFactory );
+        startupProfiler.phaseCompleted( PROVIDER_INSTANTIATION );
+        provider.invoke( testSet );
     }
 
     private ForkingReporterFactory createForkingReporterFactory()
     {
         final boolean trimStackTrace = providerConfiguration.getReporterConfiguration().isTrimStackTrace();
-        return new ForkingReporterFactory( trimStackTrace, eventChannel );
+        return new ForkingReporterFactory( trimStackTrace, eventChannel )
+        {
+            @Override
+            public RunListener createReporter()
+            {
+                return new ForkingRunListener( eventChannel, trimStackTrace )
+                {
+                    @Override
+                    public void testSetStarting( TestSetReportEntry report )
+                    {
+                        startupProfiler.testSetStarting();
+                        super.testSetStarting( report );
+                    }
+
+                    @Override
+                    public void testSetCompleted( TestSetReportEntry report )
+                    {
+                        ResourceUsageSampler sampler = resourceUsageSampler;
+                        if ( sampler != null )
+                        {
+                            // the last sample of the test set
+                            sampler.sendIfStarted();
+                        }
+                        TestImpactAgent.testSetCompleted( report.getSourceName() );
+                        super.testSetCompleted( report );
+                    }
+
+                    @Override
+                    public void testError( ReportEntry report )
+                    {
+                        TestImpactAgent.testFailed( report.getSourceName() );
+                        super.testError( report );
+                    }
+
+                    @Override
+                    public void testFailed( ReportEntry report )
+                    {
+                        TestImpactAgent.testFailed( report.getSourceName() );
+                        super.testFailed( report );
+                    }
+                };
+            }
+        };
     }
 
     private synchronized ScheduledThreadPoolExecutor getJvmTerminator()
@@ -455,9 +623,9 @@ private synchronized ScheduledThreadPoolExecutor getJvmTerminator()
     }
 
     @SuppressWarnings( "checkstyle:emptyblock" )
-    private void launchLastDitchDaemonShutdownThread( final int returnCode )
+    private ScheduledFuture<?> launchLastDitchDaemonShutdownThread( final int returnCode )
     {
-        getJvmTerminator()
+        return getJvmTerminator()
                 .schedule( new Runnable()
                 {
                     @Override
@@ -515,6 +683,7 @@ public void run()
         Thread t = new Thread( target );
         t.setDaemon( true );
         ShutdownHookUtils.addShutDownHook( t );
+        flushEventChannelHook = t;
     }
 
     private static MasterProcessChannelProcessorFactory lookupDecoderFactory( String channelConfig )
@@ -527,7 +696,9 @@ private static MasterProcessChannelProcessorFactory lookupDecoderFactory( String
 
             boolean isSurefireFactory =
                 cls == LegacyMasterProcessChannelProcessorFactory.class
-                    || cls == SurefireMasterProcessChannelProcessorFactory.class;
+                    || cls == SurefireMasterProcessChannelProcessorFactory.class
+                    || cls == UnixDomainSocketMasterProcessChannelProcessorFactory.class
+                    || cls == SharedMemoryMasterProcessChannelProcessorFactory.class;
 
             if ( isSurefireFactory )
             {
@@ -556,6 +727,17 @@ public static void main( String[] args )
         run( booter, args );
     }
 
+    /**
+     * Runs one test set in the long-living JVM of {@link PooledForkedBooter} and returns after the test set has
+     * completed. The JVM exits only if the test set failed to start or the plugin process requested it.
+     *
+     * @param args arguments of one test set
+     */
+    static void runInPooledJvm( String[] args )
+    {
+        run( new ForkedBooter( true ), args );
+    }
+
     /**
      * created for testing purposes.
      *
@@ -578,6 +760,7 @@ private static void run( ForkedBooter booter, String[] args )
                 StackTraceWriter stack = new LegacyPojoStackTraceWriter( "test subsystem", "no method", t );
                 booter.eventChannel.consoleErrorLog( stack, false );
             }
+            booter.stopResourceUsageSampler();
             booter.cancelPingScheduler();
             booter.exit1();
         }
@@ -35,12 +35,19 @@ public final class ForkedNodeArg implements ForkNodeArguments
     private final int forkChannelId;
     private final ConsoleLogger logger;
     private final boolean isDebug;
+    private final EventBatchingType eventBatching;
 
     public ForkedNodeArg( int forkChannelId, boolean isDebug )
+    {
+        this( forkChannelId, isDebug, EventBatchingType.NONE );
+    }
+
+    public ForkedNodeArg( int forkChannelId, boolean isDebug, @Nonnull EventBatchingType eventBatching )
     {
         this.forkChannelId = forkChannelId;
         logger = new NullConsoleLogger();
         this.isDebug = isDebug;
+        this.eventBatching = eventBatching;
     }
 
     @Nonnull
@@ -94,4 +101,14 @@ public File getCommandStreamBinaryFile()
     {
         return isDebug ? DumpErrorSingleton.getSingleton().getCommandStreamBinaryFile() : null;
     }
+
+    /**
+     * @return the batch frames of the events negotiated with the plugin
+     * @since 3.0.0-M6
+     */
+    @Nonnull
+    public EventBatchingType getEventBatching()
+    {
+        return eventBatching;
+    }
 }
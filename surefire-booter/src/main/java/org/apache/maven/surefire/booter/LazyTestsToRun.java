@@ -21,6 +21,7 @@
 
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 
 import org.apache.maven.surefire.api.booter.MasterProcessChannelEncoder;
 import org.apache.maven.surefire.api.provider.SurefireProvider;
@@ -28,6 +29,8 @@
 import org.apache.maven.surefire.api.util.TestsToRun;
 
 import static org.apache.maven.surefire.api.util.ReflectionUtils.loadClass;
+import static org.apache.maven.surefire.api.util.TestClassChunk.toClassName;
+import static org.apache.maven.surefire.api.util.TestClassChunk.toMethods;
 
 /**
  * A variant of TestsToRun that is provided with test class names
@@ -46,6 +49,7 @@
 {
     private final MasterProcessChannelEncoder eventChannel;
     private final CommandReader commandReader;
+    private volatile List<String> methodsOfIteratedClass = Collections.emptyList();
 
     /**
      * C'tor
@@ -73,7 +77,9 @@ public boolean hasNext()
         @Override
         public Class<?> next()
         {
-            return findClass( it.next() );
+            String test = it.next();
+            methodsOfIteratedClass = toMethods( test );
+            return findClass( test );
         }
 
         @Override
@@ -103,6 +109,17 @@ public Iterator<Class<?>> iterator()
         return new BlockingIterator();
     }
 
+    /**
+     * The plugin sends a {@link org.apache.maven.surefire.api.util.TestClassChunk chunk} of the test methods in place
+     * of the class name if the methods of the class are distributed over the forked JVMs.
+     * {@inheritDoc}
+     */
+    @Override
+    public List<String> getMethodsOfIteratedClass()
+    {
+        return methodsOfIteratedClass;
+    }
+
     /* (non-Javadoc)
      * {@inheritDoc}
       * @see org.apache.maven.surefire.util.TestsToRun#toString()
@@ -125,7 +142,7 @@ public boolean allowEagerReading()
 
     private static Class<?> findClass( String clazz )
     {
-        return loadClass( Thread.currentThread().getContextClassLoader(), clazz );
+        return loadClass( Thread.currentThread().getContextClassLoader(), toClassName( clazz ) );
     }
 
     /**
@@ -0,0 +1,104 @@
+package org.apache.maven.surefire.booter;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.Properties;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.copyOfRange;
+
+/**
+ * The main class of the forked JVM which is kept alive by the plugin process and runs test sets of several
+ * Maven modules one after another. Each line of the standard input is a request to run one test set with the
+ * working directory of the module and the arguments of {@link ForkedBooter#main(String[])} separated by a tab.
+ * The working directory is the system property {@code user.dir} of the test set. The test set is loaded by a fresh
+ * class loader, see {@link ForkedBooter#runInPooledJvm(String[])}.
+ * <br>
+ * The system properties and the standard streams are restored after every test set, and the line
+ * {@link #TEST_SET_FINISHED} is printed to the standard output and error stream. The JVM exits when the standard
+ * input is closed by the plugin process.
+ *
+ * @since 3.0.0-M6
+ */
+public final class PooledForkedBooter
+{
+    /**
+     * Marks the end of the native output streams of one test set.
+     */
+    public static final String TEST_SET_FINISHED = "[surefire-pooled-jvm] test set finished";
+
+    /**
+     * Separates the arguments of one test set in the line of the standard input.
+     */
+    public static final char ARGUMENTS_SEPARATOR = '\t';
+
+    private PooledForkedBooter()
+    {
+        throw new IllegalStateException( "no instantiable constructor" );
+    }
+
+    public static void main( String[] args )
+        throws IOException
+    {
+        PrintStream out = System.out;
+        PrintStream err = System.err;
+        Properties systemProperties = copyOf( System.getProperties() );
+        BufferedReader requests = new BufferedReader( new InputStreamReader( System.in, UTF_8 ) );
+        for ( String request = requests.readLine(); request != null; request = requests.readLine() )
+        {
+            if ( request.trim().isEmpty() )
+            {
+                continue;
+            }
+
+            try
+            {
+                String[] arguments = request.split( String.valueOf( ARGUMENTS_SEPARATOR ) );
+                System.setProperty( "user.dir", arguments[0] );
+                ForkedBooter.runInPooledJvm( copyOfRange( arguments, 1, arguments.length ) );
+            }
+            finally
+            {
+                System.setOut( out );
+                System.setErr( err );
+                System.setProperties( copyOf( systemProperties ) );
+                out.println( TEST_SET_FINISHED );
+                out.flush();
+                err.println( TEST_SET_FINISHED );
+                err.flush();
+            }
+        }
+        System.exit( 0 );
+    }
+
+    private static Properties copyOf( Properties properties )
+    {
+        Properties copy = new Properties();
+        for ( String key : properties.stringPropertyNames() )
+        {
+            copy.setProperty( key, properties.getProperty( key ) );
+        }
+        return copy;
+    }
+}
@@ -85,12 +85,26 @@
 
     private final String ppid;
 
+    private final ProcessHandleChecker handleChecker;
+
     private volatile ProcessInfo parentProcessInfo;
     private volatile boolean stopped;
 
     PpidChecker( @Nonnull String ppid )
+    {
+        this( ppid, null );
+    }
+
+    /**
+     * @param ppid          PID of the plugin process
+     * @param handleChecker checks the process without spawning the commands, see {@link ProcessCheckerType#HANDLE};
+     *                      or {@code null} to spawn {@code ps} or {@code wmic}
+     * @since 3.0.0-M6
+     */
+    PpidChecker( @Nonnull String ppid, ProcessHandleChecker handleChecker )
     {
         this.ppid = ppid;
+        this.handleChecker = handleChecker;
     }
 
     boolean canUse()
@@ -99,6 +113,10 @@ boolean canUse()
         {
             return false;
         }
+        if ( handleChecker != null )
+        {
+            return true;
+        }
         final ProcessInfo ppi = parentProcessInfo;
         return ppi == null ? IS_OS_WINDOWS || IS_OS_UNIX && canExecuteUnixPs() : ppi.canUse();
     }
@@ -118,6 +136,11 @@ boolean isProcessAlive()
             throw new IllegalStateException( "irrelevant to call isProcessAlive()" );
         }
 
+        if ( handleChecker != null )
+        {
+            return handleChecker.isProcessAlive();
+        }
+
         final ProcessInfo previousInfo = parentProcessInfo;
         if ( IS_OS_WINDOWS )
         {
@@ -243,7 +266,7 @@ ProcessInfo consumeLine( String line, ProcessInfo previousProcessInfo ) throws E
 
     void destroyActiveCommands()
     {
-        stopped = true;
+        stop();
         for ( Process p = destroyableCommands.poll(); p != null; p = destroyableCommands.poll() )
         {
             p.destroy();
@@ -368,6 +391,10 @@ private static SimpleDateFormat createWindowsCreationDateFormat()
     public void stop()
     {
         stopped = true;
+        if ( handleChecker != null )
+        {
+            handleChecker.stop();
+        }
     }
 
     /**
@@ -462,6 +489,11 @@ public String toString()
                     + ", error=" + processInfo.isError();
         }
 
+        if ( handleChecker != null )
+        {
+            args += ", handleChecker=" + handleChecker;
+        }
+
         if ( IS_OS_UNIX )
         {
             args += ", canExecuteLocalUnixPs=" + canExecuteLocalUnixPs()
@@ -28,7 +28,14 @@
 {
     PING( "ping" ),
     NATIVE( "native" ),
-    ALL( "all" );
+    ALL( "all" ),
+    /**
+     * Same as {@link #NATIVE} but the forked JVM does not spawn a command to check the plugin process, it reads
+     * {@code /proc/<ppid>/stat} on Linux or uses {@code ProcessHandle} on Java 9+.
+     *
+     * @since 3.0.0-M6
+     */
+    HANDLE( "handle" );
 
     private final String type;
 
@@ -38,9 +45,9 @@
     }
 
     /**
-     * Converts string (ping, native, all) to {@link ProcessCheckerType}.
+     * Converts string (ping, native, all, handle) to {@link ProcessCheckerType}.
      *
-     * @param type ping, native, all
+     * @param type ping, native, all, handle
      * @return {@link ProcessCheckerType}
      */
     public static ProcessCheckerType toEnum( String type )
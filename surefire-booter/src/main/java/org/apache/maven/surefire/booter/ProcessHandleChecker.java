@@ -0,0 +1,298 @@
+package org.apache.maven.surefire.booter;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static java.lang.invoke.MethodHandles.publicLookup;
+import static java.lang.invoke.MethodType.methodType;
+import static java.nio.file.StandardOpenOption.READ;
+import static org.apache.maven.surefire.shared.lang3.SystemUtils.IS_OS_LINUX;
+
+/**
+ * Determines the lifetime of the plugin process without spawning the commands {@code ps} or {@code wmic} of
+ * {@link PpidChecker}. The check does not allocate objects after the checker has been created:
+ * <ul>
+ *     <li>on Linux the file {@code /proc/<ppid>/stat} is opened once and read again in a preallocated buffer,
+ *     the process is alive if the file can be read, the process is not a zombie and the start time of the process
+ *     has not changed, i.e. the PID has not been reused by another process;</li>
+ *     <li>on Java 9+ the {@code java.lang.ProcessHandle} of the process is created once, and its method
+ *     {@code isAlive()} compares the start time of the process as well.</li>
+ * </ul>
+ *
+ * @since 3.0.0-M6
+ */
+abstract class ProcessHandleChecker
+{
+    /**
+     * @param ppid PID of the plugin process
+     * @return the checker, or {@code null} if the platform has neither /proc nor {@code ProcessHandle}
+     */
+    static ProcessHandleChecker of( @Nonnull String ppid )
+    {
+        ProcessHandleChecker checker = IS_OS_LINUX ? ProcStatChecker.of( ppid ) : null;
+        return checker == null ? JavaProcessHandleChecker.of( ppid ) : checker;
+    }
+
+    /**
+     * @return {@code true} if the process is alive
+     * @throws IllegalStateException if the checker has been {@link #stop() stopped}
+     */
+    abstract boolean isProcessAlive();
+
+    abstract void stop();
+
+    /**
+     * Reads the file {@code /proc/<ppid>/stat}, see proc(5). The values in the file are separated by spaces,
+     * the second value is the name of the command in parentheses which may contain spaces and parentheses.
+     */
+    static final class ProcStatChecker extends ProcessHandleChecker
+    {
+        // the state is the third value and the start time is the 22nd value
+        private static final int STATE_AFTER_COMMAND = 1;
+        private static final int START_TIME_AFTER_COMMAND = 20;
+        private static final int MAX_STAT_LENGTH = 4096;
+
+        private final String ppid;
+        private final FileChannel stat;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect( MAX_STAT_LENGTH );
+        private final long startTime;
+        private volatile boolean stopped;
+
+        private ProcStatChecker( String ppid, FileChannel stat ) throws IOException
+        {
+            this.ppid = ppid;
+            this.stat = stat;
+            startTime = readStartTime();
+            if ( startTime < 0L )
+            {
+                throw new IOException( "Cannot read the start time of the process " + ppid );
+            }
+        }
+
+        static ProcStatChecker of( String ppid )
+        {
+            return of( ppid, Paths.get( "/proc", ppid, "stat" ) );
+        }
+
+        static ProcStatChecker of( String ppid, Path path )
+        {
+            FileChannel stat = null;
+            try
+            {
+                stat = FileChannel.open( path, READ );
+                return new ProcStatChecker( ppid, stat );
+            }
+            catch ( IOException | RuntimeException e )
+            {
+                closeQuietly( stat );
+                return null;
+            }
+        }
+
+        @Override
+        boolean isProcessAlive()
+        {
+            if ( stopped )
+            {
+                throw new IllegalStateException( "error [STOPPED] to read process " + ppid );
+            }
+
+            try
+            {
+                return readStartTime() == startTime;
+            }
+            catch ( ClosedChannelException e )
+            {
+                throw new IllegalStateException( "error [STOPPED] to read process " + ppid );
+            }
+            catch ( IOException e )
+            {
+                // ESRCH, the process has died
+                return false;
+            }
+        }
+
+        @Override
+        void stop()
+        {
+            stopped = true;
+            closeQuietly( stat );
+        }
+
+        /**
+         * @return the start time of the process in clock ticks after the boot, or {@code -1} if the process is a
+         * zombie or the file cannot be parsed
+         */
+        private synchronized long readStartTime() throws IOException
+        {
+            ( (Buffer) buffer ).clear();
+            // the procfs regenerates the content when the file is read from the beginning,
+            // the position of the buffer is the offset in the file
+            int read;
+            do
+            {
+                read = stat.read( buffer, buffer.position() );
+            }
+            while ( read != -1 && buffer.hasRemaining() );
+
+            int end = buffer.position();
+            int command = end - 1;
+            while ( command >= 0 && buffer.get( command ) != ')' )
+            {
+                command--;
+            }
+            if ( command < 0 )
+            {
+                return -1L;
+            }
+
+            int value = 0;
+            long startTime = -1L;
+            for ( int i = command + 1; i < end; i++ )
+            {
+                byte b = buffer.get( i );
+                if ( b == ' ' )
+                {
+                    if ( ++value > START_TIME_AFTER_COMMAND )
+                    {
+                        break;
+                    }
+                }
+                else if ( value == STATE_AFTER_COMMAND && ( b == 'Z' || b == 'X' || b == 'x' ) )
+                {
+                    // zombie or dead
+                    return -1L;
+                }
+                else if ( value == START_TIME_AFTER_COMMAND )
+                {
+                    if ( b < '0' || b > '9' )
+                    {
+                        break;
+                    }
+                    startTime = ( startTime < 0L ? 0L : 10L * startTime ) + ( b - '0' );
+                }
+            }
+            return startTime;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "ProcStatChecker{ppid=" + ppid + ", startTime=" + startTime + ", stopped=" + stopped + '}';
+        }
+    }
+
+    /**
+     * Calls {@code java.lang.ProcessHandle#isAlive()} via a method handle, the class is not available in Java 7 and 8.
+     */
+    static final class JavaProcessHandleChecker extends ProcessHandleChecker
+    {
+        private final String ppid;
+        private final Object processHandle;
+        private final MethodHandle isAlive;
+        private volatile boolean stopped;
+
+        private JavaProcessHandleChecker( String ppid, Object processHandle, MethodHandle isAlive )
+        {
+            this.ppid = ppid;
+            this.processHandle = processHandle;
+            this.isAlive = isAlive;
+        }
+
+        static JavaProcessHandleChecker of( String ppid )
+        {
+            try
+            {
+                Class<?> processHandleType = Class.forName( "java.lang.ProcessHandle" );
+                Method of = processHandleType.getMethod( "of", long.class );
+                Object optional = of.invoke( null, Long.parseLong( ppid ) );
+                Object processHandle = optional.getClass().getMethod( "orElse", Object.class )
+                    .invoke( optional, (Object) null );
+                if ( processHandle == null )
+                {
+                    return null;
+                }
+                MethodHandle isAlive = publicLookup()
+                    .findVirtual( processHandleType, "isAlive", methodType( boolean.class ) )
+                    .asType( methodType( boolean.class, Object.class ) );
+                return new JavaProcessHandleChecker( ppid, processHandle, isAlive );
+            }
+            catch ( ReflectiveOperationException | RuntimeException e )
+            {
+                return null;
+            }
+        }
+
+        @Override
+        boolean isProcessAlive()
+        {
+            if ( stopped )
+            {
+                throw new IllegalStateException( "error [STOPPED] to read process " + ppid );
+            }
+
+            try
+            {
+                return (boolean) isAlive.invokeExact( processHandle );
+            }
+            catch ( Throwable e )
+            {
+                throw new IllegalStateException( "Cannot check the process " + ppid, e );
+            }
+        }
+
+        @Override
+        void stop()
+        {
+            stopped = true;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "JavaProcessHandleChecker{ppid=" + ppid + ", stopped=" + stopped + '}';
+        }
+    }
+
+    private static void closeQuietly( FileChannel channel )
+    {
+        if ( channel != null )
+        {
+            try
+            {
+                channel.close();
+            }
+            catch ( IOException e )
+            {
+                // ignore
+            }
+        }
+    }
+}
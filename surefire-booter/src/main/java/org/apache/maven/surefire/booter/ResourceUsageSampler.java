@@ -0,0 +1,173 @@
+package org.apache.maven.surefire.booter;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.surefire.api.booter.MasterProcessChannelEncoder;
+import org.apache.maven.surefire.api.event.ResourceUsageEvent;
+
+import javax.annotation.Nonnull;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryUsage;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.management.ManagementFactory.OPERATING_SYSTEM_MXBEAN_NAME;
+import static java.lang.management.ManagementFactory.getClassLoadingMXBean;
+import static java.lang.management.ManagementFactory.getGarbageCollectorMXBeans;
+import static java.lang.management.ManagementFactory.getMemoryMXBean;
+import static java.lang.management.ManagementFactory.getMemoryPoolMXBeans;
+import static java.lang.management.ManagementFactory.getPlatformMBeanServer;
+import static java.lang.management.ManagementFactory.getRuntimeMXBean;
+import static java.lang.management.ManagementFactory.getThreadMXBean;
+import static java.lang.management.MemoryType.HEAP;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.apache.maven.surefire.api.event.ResourceUsageEvent.UNAVAILABLE;
+import static org.apache.maven.surefire.api.util.internal.DaemonThreadFactory.newDaemonThreadFactory;
+
+/**
+ * Periodically samples the heap, the garbage collectors, the threads, the CPU time and the loaded classes of the
+ * forked JVM via the platform MXBeans, and sends the samples to the plugin. The CPU time of the process is read from
+ * the attribute {@code ProcessCpuTime} of the operating system MXBean which is not standard, but both HotSpot and
+ * OpenJ9 provide it.
+ *
+ * @since 3.0.0-M6
+ */
+final class ResourceUsageSampler
+{
+    private static final String SAMPLER_THREAD = "surefire-forkedjvm-resources";
+    private static final String PROCESS_CPU_TIME = "ProcessCpuTime";
+    private static final int KIBIBYTE = 1024;
+
+    private final MasterProcessChannelEncoder eventChannel;
+    private ScheduledThreadPoolExecutor scheduler;
+
+    ResourceUsageSampler( @Nonnull MasterProcessChannelEncoder eventChannel )
+    {
+        this.eventChannel = eventChannel;
+    }
+
+    /**
+     * Starts sampling in a daemon thread, the first sample is sent immediately.
+     *
+     * @param intervalMillis the period of the samples in milliseconds
+     */
+    synchronized void start( long intervalMillis )
+    {
+        if ( scheduler == null )
+        {
+            scheduler = new ScheduledThreadPoolExecutor( 1, newDaemonThreadFactory( SAMPLER_THREAD ) );
+            scheduler.scheduleAtFixedRate( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    send();
+                }
+            }, 0L, intervalMillis, MILLISECONDS );
+        }
+    }
+
+    synchronized void stop()
+    {
+        if ( scheduler != null )
+        {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Sends the current sample if the sampler has been started, e.g. when the test set has completed, so that each
+     * test set has at least one sample.
+     */
+    synchronized void sendIfStarted()
+    {
+        if ( scheduler != null )
+        {
+            send();
+        }
+    }
+
+    private void send()
+    {
+        if ( !eventChannel.checkError() )
+        {
+            eventChannel.resourceUsage( sample() );
+        }
+    }
+
+    @Nonnull
+    static ResourceUsageEvent sample()
+    {
+        MemoryUsage heap = getMemoryMXBean().getHeapMemoryUsage();
+        long heapUsedAfterGc = 0L;
+        boolean hasHeapUsedAfterGc = false;
+        for ( MemoryPoolMXBean pool : getMemoryPoolMXBeans() )
+        {
+            MemoryUsage usageAfterGc = pool.getType() == HEAP ? pool.getCollectionUsage() : null;
+            if ( usageAfterGc != null )
+            {
+                heapUsedAfterGc += usageAfterGc.getUsed();
+                hasHeapUsedAfterGc = true;
+            }
+        }
+        long gcCount = 0L;
+        long gcTime = 0L;
+        for ( GarbageCollectorMXBean gc : getGarbageCollectorMXBeans() )
+        {
+            gcCount += max( gc.getCollectionCount(), 0L );
+            gcTime += max( gc.getCollectionTime(), 0L );
+        }
+        return new ResourceUsageEvent( toInt( getRuntimeMXBean().getUptime() ),
+            toInt( heap.getUsed() / KIBIBYTE ),
+            toInt( heap.getCommitted() / KIBIBYTE ),
+            hasHeapUsedAfterGc ? toInt( heapUsedAfterGc / KIBIBYTE ) : UNAVAILABLE,
+            toInt( gcCount ),
+            toInt( gcTime ),
+            getThreadMXBean().getThreadCount(),
+            getProcessCpuTimeMillis(),
+            getClassLoadingMXBean().getLoadedClassCount() );
+    }
+
+    private static int getProcessCpuTimeMillis()
+    {
+        try
+        {
+            MBeanServer server = getPlatformMBeanServer();
+            Object cpuTime = server.getAttribute( new ObjectName( OPERATING_SYSTEM_MXBEAN_NAME ), PROCESS_CPU_TIME );
+            long cpuTimeNanos = cpuTime instanceof Number ? ( (Number) cpuTime ).longValue() : -1L;
+            return cpuTimeNanos < 0L ? UNAVAILABLE : toInt( NANOSECONDS.toMillis( cpuTimeNanos ) );
+        }
+        catch ( Exception e )
+        {
+            return UNAVAILABLE;
+        }
+    }
+
+    private static int toInt( long value )
+    {
+        return (int) min( value, Integer.MAX_VALUE );
+    }
+}
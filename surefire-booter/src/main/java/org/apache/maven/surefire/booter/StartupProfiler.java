@@ -0,0 +1,129 @@
+package org.apache.maven.surefire.booter;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.surefire.api.booter.MasterProcessChannelEncoder;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.System.currentTimeMillis;
+import static java.lang.System.nanoTime;
+import static java.lang.management.ManagementFactory.getRuntimeMXBean;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Measures the phases of the startup of the forked JVM. Each phase starts when the previous one has completed.
+ * The phases completed before the fork channel has been connected are kept and sent to the plugin when the plugin
+ * requested the startup profile, see {@link #sendTo(MasterProcessChannelEncoder, boolean)}.
+ *
+ * @since 3.0.0-M6
+ */
+final class StartupProfiler
+{
+    static final String JVM_LAUNCH = "jvm-launch";
+    static final String BOOTER_DESERIALIZATION = "booter-deserialization";
+    static final String FORK_CHANNEL = "fork-channel";
+    static final String TEST_CLASS_LOADER = "test-class-loader";
+    static final String PROVIDER_INSTANTIATION = "provider-instantiation";
+    static final String TEST_DISCOVERY = "test-discovery";
+
+    private final long createdAtMillis = currentTimeMillis();
+    private final List<String> phases = new ArrayList<>();
+    private final List<Integer> elapsedTimes = new ArrayList<>();
+    private long phaseStartedAt = nanoTime();
+    private MasterProcessChannelEncoder eventChannel;
+    private volatile boolean testDiscovered;
+
+    /**
+     * Completes the current phase and starts the next one.
+     *
+     * @param phase the name of the completed phase
+     */
+    synchronized void phaseCompleted( @Nonnull String phase )
+    {
+        long now = nanoTime();
+        record( phase, NANOSECONDS.toMicros( now - phaseStartedAt ) );
+        phaseStartedAt = now;
+    }
+
+    /**
+     * Completes the discovery of the tests when the provider starts the first test set.
+     */
+    void testSetStarting()
+    {
+        if ( !testDiscovered )
+        {
+            synchronized ( this )
+            {
+                if ( !testDiscovered )
+                {
+                    testDiscovered = true;
+                    phaseCompleted( TEST_DISCOVERY );
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends the completed phases and all the next phases to the plugin.
+     *
+     * @param eventChannel the fork channel
+     * @param jvmLaunched  {@code true} if this JVM has been launched for the test set, then the time from the start
+     *                     of the JVM to this object is sent as the first phase
+     */
+    synchronized void sendTo( @Nonnull MasterProcessChannelEncoder eventChannel, boolean jvmLaunched )
+    {
+        this.eventChannel = eventChannel;
+        if ( jvmLaunched )
+        {
+            long launchMillis = max( 0L, createdAtMillis - getRuntimeMXBean().getStartTime() );
+            send( JVM_LAUNCH, MILLISECONDS.toMicros( launchMillis ) );
+        }
+        for ( int i = 0; i < phases.size(); i++ )
+        {
+            send( phases.get( i ), elapsedTimes.get( i ) );
+        }
+        phases.clear();
+        elapsedTimes.clear();
+    }
+
+    private void record( String phase, long elapsedMicros )
+    {
+        if ( eventChannel == null )
+        {
+            phases.add( phase );
+            elapsedTimes.add( (int) min( elapsedMicros, Integer.MAX_VALUE ) );
+        }
+        else
+        {
+            send( phase, elapsedMicros );
+        }
+    }
+
+    private void send( String phase, long elapsedMicros )
+    {
+        eventChannel.startupPhase( phase, (int) min( elapsedMicros, Integer.MAX_VALUE ) );
+    }
+}
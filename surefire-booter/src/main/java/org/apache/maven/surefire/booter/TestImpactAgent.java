@@ -0,0 +1,198 @@
+package org.apache.maven.surefire.booter;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import javax.annotation.Nonnull;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.instrument.ClassFileTransformer;
+import java.lang.instrument.Instrumentation;
+import java.security.ProtectionDomain;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Java agent of the forked JVM which records the classes loaded by the tests for the test impact analysis of the
+ * plugin. The agent is started by {@code -javaagent:surefire-booter.jar=<directory>} and it only observes the
+ * classes being loaded by any non-bootstrap class loader, including {@link IsolatedClassLoader}, without
+ * transforming the bytecode.
+ * <br>
+ * Every fork writes one file with the extension {@link #FORK_FILE_EXTENSION} in the directory. The file contains
+ * the internal names of the loaded classes, one per line, in the order of loading. When a test set has completed,
+ * the line {@link #PASSED} or {@link #FAILED} followed by the name of the test set is appended. A class is loaded
+ * once in the JVM, hence the test set may use, e.g. by reflection, any class listed before its line, even if the
+ * class was loaded by another test set of the reused or parallel JVM. The events of the tests are passed to the
+ * agent by the run listener of the forked JVM. The file is closed by the shutdown hook of the JVM.
+ *
+ * @since 3.0.0-M6
+ */
+public final class TestImpactAgent
+{
+    /**
+     * The extension of the files written by the forks.
+     */
+    public static final String FORK_FILE_EXTENSION = ".tia";
+
+    /**
+     * Prefix of the name of the test set which has passed.
+     */
+    public static final char PASSED = '+';
+
+    /**
+     * Prefix of the name of the test set which has failed.
+     */
+    public static final char FAILED = '-';
+
+    private static volatile TestImpactAgent agent;
+
+    private final Queue<String> loadedClasses = new ConcurrentLinkedQueue<>();
+    private final Set<String> failedTestSets = new HashSet<>();
+    private final File directory;
+    private Writer writer;
+    private boolean broken;
+
+    TestImpactAgent( @Nonnull File directory )
+    {
+        this.directory = directory;
+    }
+
+    public static void premain( String agentArgs, Instrumentation instrumentation )
+    {
+        final TestImpactAgent impactAgent = new TestImpactAgent( new File( agentArgs ) );
+        instrumentation.addTransformer( new ClassFileTransformer()
+        {
+            @Override
+            public byte[] transform( ClassLoader loader, String className, Class<?> classBeingRedefined,
+                                     ProtectionDomain protectionDomain, byte[] classfileBuffer )
+            {
+                if ( loader != null && className != null && classBeingRedefined == null )
+                {
+                    impactAgent.classLoaded( className );
+                }
+                return null;
+            }
+        } );
+        Runtime.getRuntime().addShutdownHook( new Thread( "surefire-test-impact-agent" )
+        {
+            @Override
+            public void run()
+            {
+                impactAgent.close();
+            }
+        } );
+        agent = impactAgent;
+    }
+
+    /**
+     * Called by the run listener of the forked JVM if a test of the test set has failed or has thrown an error.
+     *
+     * @param testSet the name of the test set, i.e. the test class
+     */
+    public static void testFailed( String testSet )
+    {
+        TestImpactAgent impactAgent = agent;
+        if ( impactAgent != null && testSet != null )
+        {
+            impactAgent.failed( testSet );
+        }
+    }
+
+    /**
+     * Called by the run listener of the forked JVM when the test set has completed. Writes the classes loaded since
+     * the previous test set.
+     *
+     * @param testSet the name of the test set, i.e. the test class
+     */
+    public static void testSetCompleted( String testSet )
+    {
+        TestImpactAgent impactAgent = agent;
+        if ( impactAgent != null && testSet != null )
+        {
+            impactAgent.completed( testSet );
+        }
+    }
+
+    void classLoaded( String className )
+    {
+        loadedClasses.offer( className );
+    }
+
+    synchronized void failed( String testSet )
+    {
+        failedTestSets.add( testSet );
+    }
+
+    synchronized void completed( String testSet )
+    {
+        if ( broken )
+        {
+            return;
+        }
+
+        try
+        {
+            if ( writer == null )
+            {
+                File forkFile = File.createTempFile( "fork-", FORK_FILE_EXTENSION, directory );
+                writer = new BufferedWriter( new OutputStreamWriter( new FileOutputStream( forkFile ), UTF_8 ) );
+            }
+
+            for ( String className; ( className = loadedClasses.poll() ) != null; )
+            {
+                writer.write( className );
+                writer.write( '\n' );
+            }
+            writer.write( failedTestSets.remove( testSet ) ? FAILED : PASSED );
+            writer.write( testSet );
+            writer.write( '\n' );
+            writer.flush();
+        }
+        catch ( IOException e )
+        {
+            // the plugin runs the test sets again which have not been recorded
+            broken = true;
+        }
+    }
+
+    synchronized void close()
+    {
+        if ( writer != null )
+        {
+            try
+            {
+                writer.close();
+            }
+            catch ( IOException e )
+            {
+                // the test sets have been flushed
+            }
+        }
+        // the test sets completed by the daemon threads during the shutdown are not recorded
+        broken = true;
+    }
+}
@@ -19,7 +19,10 @@
  * under the License.
  */
 
+import org.apache.maven.surefire.api.fork.ForkNodeArguments;
 import org.apache.maven.surefire.api.util.internal.WritableBufferedByteChannel;
+import org.apache.maven.surefire.booter.EventBatchingType;
+import org.apache.maven.surefire.booter.ForkedNodeArg;
 import org.apache.maven.surefire.spi.MasterProcessChannelProcessorFactory;
 
 import java.io.IOException;
@@ -33,6 +36,8 @@
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.apache.maven.surefire.api.util.internal.DaemonThreadFactory.newDaemonThreadFactory;
+import static org.apache.maven.surefire.booter.EventBatchingType.DEFLATE;
+import static org.apache.maven.surefire.booter.EventBatchingType.NONE;
 
 /**
  * Default implementation of {@link MasterProcessChannelProcessorFactory}.
@@ -77,6 +82,23 @@ public void run()
         }, 0L, delayInMillis, MILLISECONDS );
     }
 
+    /**
+     * Packs the events in the batch frames if the plugin has enabled the batches in the arguments of this fork.
+     *
+     * @param channel   the channel of the event frames
+     * @param arguments the arguments of the forked JVM
+     * @return {@link EventBatchChannel} wrapping the {@code channel}, or the {@code channel} if the events are not
+     * batched
+     * @since 3.0.0-M6
+     */
+    protected static WritableBufferedByteChannel batchEvents( WritableBufferedByteChannel channel,
+                                                              ForkNodeArguments arguments )
+    {
+        EventBatchingType batching =
+            arguments instanceof ForkedNodeArg ? ( (ForkedNodeArg) arguments ).getEventBatching() : NONE;
+        return batching == NONE ? channel : new EventBatchChannel( channel, batching == DEFLATE );
+    }
+
     @Override
     public void close() throws IOException
     {
@@ -0,0 +1,308 @@
+package org.apache.maven.surefire.booter.spi;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.surefire.api.booter.ForkedProcessEventType;
+import org.apache.maven.surefire.api.util.internal.WritableBufferedByteChannel;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.util.zip.Deflater;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.zip.Deflater.BEST_SPEED;
+import static org.apache.maven.surefire.api.booter.Constants.BATCH_DEFLATED;
+import static org.apache.maven.surefire.api.booter.Constants.BATCH_UNCOMPRESSED;
+import static org.apache.maven.surefire.api.booter.Constants.MAGIC_NUMBER_FOR_EVENTS_BYTES;
+import static org.apache.maven.surefire.api.booter.ForkedProcessEventType.BOOTERCODE_BATCH;
+import static org.apache.maven.surefire.api.booter.ForkedProcessEventType.BOOTERCODE_BYE;
+import static org.apache.maven.surefire.api.booter.ForkedProcessEventType.BOOTERCODE_CONSOLE_ERROR;
+import static org.apache.maven.surefire.api.booter.ForkedProcessEventType.BOOTERCODE_JVM_EXIT_ERROR;
+import static org.apache.maven.surefire.api.booter.ForkedProcessEventType.BOOTERCODE_NEXT_TEST;
+import static org.apache.maven.surefire.api.booter.ForkedProcessEventType.BOOTERCODE_STOP_ON_NEXT_TEST;
+
+/**
+ * Packs the event frames written by {@link EventChannelEncoder} in the
+ * {@link ForkedProcessEventType#BOOTERCODE_BATCH batch frames}, optionally deflated.
+ * <br>
+ * The batch is written to the channel if it is full, if the channel is {@link #write(ByteBuffer) flushed} by a zero
+ * length buffer (the periodic flusher of the idle channel), and immediately with the control events (next-test,
+ * stop-on-next-test, bye), the errors and any bytes which are not an event frame. The other events are delayed until
+ * then even if the encoder writes them with flush, therefore the latency of the control events is not affected while
+ * the test events and the standard streams share the batches.
+ * <br>
+ * The frames bigger than the batch are written as they are after the pending batch.
+ *
+ * @since 3.0.0-M6
+ */
+public final class EventBatchChannel implements WritableBufferedByteChannel
+{
+    /**
+     * The maximal length of the frames in a batch before deflating them.
+     */
+    public static final int BATCH_SIZE = 32 * 1024;
+
+    private static final int HEADER_LENGTH = 1 + MAGIC_NUMBER_FOR_EVENTS_BYTES.length + 1 + 1 + 1;
+    private static final ForkedProcessEventType[] URGENT_EVENTS = {
+        BOOTERCODE_NEXT_TEST, BOOTERCODE_STOP_ON_NEXT_TEST, BOOTERCODE_BYE, BOOTERCODE_CONSOLE_ERROR,
+        BOOTERCODE_JVM_EXIT_ERROR
+    };
+
+    private final WritableBufferedByteChannel out;
+    private final Deflater deflater;
+    private final byte[] batch = new byte[BATCH_SIZE];
+    private int count;
+    private byte[] deflated;
+    private volatile long batchOverflows;
+    private volatile boolean open = true;
+
+    /**
+     * @param out     the channel of the event frames
+     * @param deflate {@code true} to deflate the batches
+     */
+    public EventBatchChannel( @Nonnull WritableBufferedByteChannel out, boolean deflate )
+    {
+        this.out = requireNonNull( out );
+        deflater = deflate ? new Deflater( BEST_SPEED ) : null;
+    }
+
+    @Override
+    public synchronized void writeBuffered( ByteBuffer src ) throws IOException
+    {
+        write( src, false );
+    }
+
+    @Override
+    public synchronized int write( ByteBuffer src ) throws IOException
+    {
+        return write( src, true );
+    }
+
+    @Override
+    public long countBufferOverflows()
+    {
+        return batchOverflows + out.countBufferOverflows();
+    }
+
+    @Override
+    public boolean isOpen()
+    {
+        return open;
+    }
+
+    @Override
+    public synchronized void close() throws IOException
+    {
+        if ( open )
+        {
+            open = false;
+            try
+            {
+                writeBatch( false );
+            }
+            finally
+            {
+                if ( deflater != null )
+                {
+                    deflater.end();
+                }
+                out.close();
+            }
+        }
+    }
+
+    private int write( ByteBuffer src, boolean flush ) throws IOException
+    {
+        if ( !open )
+        {
+            throw new ClosedChannelException();
+        }
+
+        // the encoder does not flip the frames, see AbstractNoninterruptibleWritableChannel
+        if ( src.remaining() != src.capacity() )
+        {
+            ( (Buffer) src ).flip();
+        }
+
+        int length = src.remaining();
+        byte[] array = src.array();
+        int offset = src.arrayOffset() + ( (Buffer) src ).position();
+        ( (Buffer) src ).position( ( (Buffer) src ).limit() );
+
+        if ( length == 0 && flush )
+        {
+            writeBatch( true );
+        }
+        else if ( !isEventFrame( array, offset, length ) || length >= BATCH_SIZE )
+        {
+            writeBatch( false );
+            ByteBuffer frame = ByteBuffer.wrap( array, offset, length ).slice();
+            if ( flush )
+            {
+                out.write( frame );
+            }
+            else
+            {
+                out.writeBuffered( frame );
+            }
+        }
+        else
+        {
+            if ( count + length > batch.length )
+            {
+                batchOverflows++;
+                writeBatch( false );
+            }
+            System.arraycopy( array, offset, batch, count, length );
+            count += length;
+            if ( flush && isUrgentEvent( array, offset, length ) )
+            {
+                writeBatch( true );
+            }
+        }
+        return length;
+    }
+
+    private void writeBatch( boolean flush ) throws IOException
+    {
+        if ( count == 0 )
+        {
+            if ( flush )
+            {
+                out.write( ByteBuffer.allocate( 0 ) );
+            }
+            return;
+        }
+
+        byte compression = BATCH_UNCOMPRESSED;
+        byte[] frames = batch;
+        int length = count;
+        if ( deflater != null )
+        {
+            int deflatedLength = deflate();
+            if ( deflatedLength < count )
+            {
+                compression = BATCH_DEFLATED;
+                frames = deflated;
+                length = deflatedLength;
+            }
+        }
+
+        byte[] opcode = BOOTERCODE_BATCH.getOpcodeBinary();
+        // header + opcode + ':' + compression + ':' + original length + ':' + length + ':' + frames + ':'
+        ByteBuffer frame = ByteBuffer.allocate( HEADER_LENGTH + opcode.length + 1 + 2 + 5 + 5 + length + 1 );
+        frame.put( (byte) ':' )
+            .put( MAGIC_NUMBER_FOR_EVENTS_BYTES )
+            .put( (byte) ':' )
+            .put( (byte) opcode.length )
+            .put( (byte) ':' )
+            .put( opcode )
+            .put( (byte) ':' )
+            .put( compression )
+            .put( (byte) ':' )
+            .putInt( count )
+            .put( (byte) ':' )
+            .putInt( length )
+            .put( (byte) ':' )
+            .put( frames, 0, length )
+            .put( (byte) ':' );
+        ( (Buffer) frame ).flip();
+        count = 0;
+
+        if ( flush )
+        {
+            out.write( frame );
+        }
+        else
+        {
+            out.writeBuffered( frame );
+        }
+    }
+
+    /**
+     * @return the length of the deflated batch, or the length of the batch if it cannot be deflated to fewer bytes
+     */
+    private int deflate()
+    {
+        if ( deflated == null )
+        {
+            deflated = new byte[BATCH_SIZE];
+        }
+        deflater.reset();
+        deflater.setInput( batch, 0, count );
+        deflater.finish();
+        int length = 0;
+        while ( !deflater.finished() && length < count )
+        {
+            length += deflater.deflate( deflated, length, count - length );
+        }
+        return deflater.finished() ? length : count;
+    }
+
+    private static boolean isEventFrame( byte[] array, int offset, int length )
+    {
+        if ( length < HEADER_LENGTH || array[offset] != ':' || array[offset + HEADER_LENGTH - 1] != ':' )
+        {
+            return false;
+        }
+        for ( int i = 0; i < MAGIC_NUMBER_FOR_EVENTS_BYTES.length; i++ )
+        {
+            if ( array[offset + 1 + i] != MAGIC_NUMBER_FOR_EVENTS_BYTES[i] )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isUrgentEvent( byte[] array, int offset, int length )
+    {
+        int opcodeLength = array[offset + HEADER_LENGTH - 2] & 0xff;
+        int opcodeOffset = offset + HEADER_LENGTH;
+        if ( opcodeOffset + opcodeLength > offset + length )
+        {
+            return true;
+        }
+        for ( ForkedProcessEventType event : URGENT_EVENTS )
+        {
+            byte[] opcode = event.getOpcodeBinary();
+            if ( opcode.length == opcodeLength && regionMatches( array, opcodeOffset, opcode ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean regionMatches( byte[] array, int offset, byte[] expected )
+    {
+        for ( int i = 0; i < expected.length; i++ )
+        {
+            if ( array[offset + i] != expected[i] )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -23,6 +23,7 @@
 import org.apache.maven.surefire.api.booter.DumpErrorSingleton;
 import org.apache.maven.surefire.api.booter.ForkedProcessEventType;
 import org.apache.maven.surefire.api.booter.MasterProcessChannelEncoder;
+import org.apache.maven.surefire.api.event.ResourceUsageEvent;
 import org.apache.maven.surefire.api.report.ReportEntry;
 import org.apache.maven.surefire.api.report.RunMode;
 import org.apache.maven.surefire.api.report.SafeThrowable;
@@ -49,6 +50,8 @@
 import static org.apache.maven.surefire.api.booter.ForkedProcessEventType.BOOTERCODE_CONSOLE_WARNING;
 import static org.apache.maven.surefire.api.booter.ForkedProcessEventType.BOOTERCODE_JVM_EXIT_ERROR;
 import static org.apache.maven.surefire.api.booter.ForkedProcessEventType.BOOTERCODE_NEXT_TEST;
+import static org.apache.maven.surefire.api.booter.ForkedProcessEventType.BOOTERCODE_RESOURCE_USAGE;
+import static org.apache.maven.surefire.api.booter.ForkedProcessEventType.BOOTERCODE_STARTUP_PHASE;
 import static org.apache.maven.surefire.api.booter.ForkedProcessEventType.BOOTERCODE_STDERR;
 import static org.apache.maven.surefire.api.booter.ForkedProcessEventType.BOOTERCODE_STDERR_NEW_LINE;
 import static org.apache.maven.surefire.api.booter.ForkedProcessEventType.BOOTERCODE_STDOUT;
@@ -77,6 +80,7 @@ public class EventChannelEncoder extends EventEncoder implements MasterProcessCh
 {
     private final RunMode runMode;
     private final AtomicBoolean trouble = new AtomicBoolean();
+    private final StackTraceDictionary stackTraces = new StackTraceDictionary();
     private volatile boolean onExit;
 
     /**
@@ -210,12 +214,32 @@ public void stdErr( String msg, boolean newLine )
         setOutErr( event, msg );
     }
 
+    @Override
+    public void stdOutUtf8( ByteBuffer utf8Msg, boolean newLine )
+    {
+        ForkedProcessEventType event = newLine ? BOOTERCODE_STDOUT_NEW_LINE : BOOTERCODE_STDOUT;
+        setOutErr( event, utf8Msg );
+    }
+
+    @Override
+    public void stdErrUtf8( ByteBuffer utf8Msg, boolean newLine )
+    {
+        ForkedProcessEventType event = newLine ? BOOTERCODE_STDERR_NEW_LINE : BOOTERCODE_STDERR;
+        setOutErr( event, utf8Msg );
+    }
+
     private void setOutErr( ForkedProcessEventType eventType, String message )
     {
         ByteBuffer result = encodeMessage( eventType, runMode, message );
         write( result, false );
     }
 
+    private void setOutErr( ForkedProcessEventType eventType, ByteBuffer utf8Message )
+    {
+        ByteBuffer result = encodeMessage( eventType, runMode, utf8Message );
+        write( result, false );
+    }
+
     @Override
     public void consoleInfoLog( String message )
     {
@@ -293,6 +317,38 @@ public void sendExitError( StackTraceWriter stackTraceWriter, boolean trimStackT
         error( stackTraceWriter, trimStackTraces, BOOTERCODE_JVM_EXIT_ERROR, true );
     }
 
+    @Override
+    public void startupPhase( String phase, int elapsedMicros )
+    {
+        CharsetEncoder encoder = newCharsetEncoder();
+        int bufferMaxLength =
+            estimateBufferLength( BOOTERCODE_STARTUP_PHASE.getOpcode().length(), null, encoder, 1, phase );
+        ByteBuffer result = ByteBuffer.allocate( bufferMaxLength );
+        // :maven-surefire-event:startup-phase:UTF-8:<integer>:<phase>:<integer>:
+        encode( encoder, result, BOOTERCODE_STARTUP_PHASE, null, phase );
+        encodeInteger( result, elapsedMicros );
+        write( result, false );
+    }
+
+    @Override
+    public void resourceUsage( ResourceUsageEvent usage )
+    {
+        int bufferMaxLength = estimateBufferLength( BOOTERCODE_RESOURCE_USAGE.getOpcode().length(), null, null, 9 );
+        ByteBuffer result = ByteBuffer.allocate( bufferMaxLength );
+        // :maven-surefire-event:resource-usage:<integer>:<integer>:<integer>:<integer>:<integer>:<integer>:...
+        encodeHeader( result, BOOTERCODE_RESOURCE_USAGE, null );
+        encodeInteger( result, usage.getUptimeMillis() );
+        encodeInteger( result, usage.getHeapUsedKiB() );
+        encodeInteger( result, usage.getHeapCommittedKiB() );
+        encodeInteger( result, usage.getHeapUsedAfterGcKiB() );
+        encodeInteger( result, usage.getGcCount() );
+        encodeInteger( result, usage.getGcTimeMillis() );
+        encodeInteger( result, usage.getThreadCount() );
+        encodeInteger( result, usage.getCpuTimeMillis() );
+        encodeInteger( result, usage.getLoadedClassCount() );
+        write( result, false );
+    }
+
     private void error( StackTraceWriter stackTraceWriter, boolean trimStackTraces, ForkedProcessEventType eventType,
                         @SuppressWarnings( "SameParameterValue" ) boolean sync )
     {
@@ -309,12 +365,30 @@ private void error( StackTraceWriter stackTraceWriter, boolean trimStackTraces,
     }
 
     // example
-    // :maven-surefire-event:testset-starting:rerun-test-after-failure:UTF-8:<integer>:SourceName:<integer>:SourceText:<integer>:Name:<integer>:NameText:<integer>:Group:<integer>:Message:<integer>:ElapsedTime:<integer>:LocalizedMessage:<integer>:SmartTrimmedStackTrace:<integer>:toStackTrace( stw, trimStackTraces ):<integer>:
+    // :maven-surefire-event:testset-starting:rerun-test-after-failure:UTF-8:<integer>:SourceName:<integer>:SourceText:<integer>:Name:<integer>:NameText:<integer>:Group:<integer>:Message:<integer>:ElapsedTime:<integer>:LocalizedMessage:<integer>:SmartTrimmedStackTrace:<integer>:toStackTrace( stw, trimStackTraces ):<integer>:TraceId:
     private void encode( ForkedProcessEventType operation, RunMode runMode, ReportEntry reportEntry,
                          boolean trimStackTraces, @SuppressWarnings( "SameParameterValue" ) boolean sync )
     {
-        ByteBuffer result = encode( operation, runMode, reportEntry, trimStackTraces );
-        write( result, sync );
+        StackTrace stackTraceWrapper = new StackTrace( reportEntry.getStackTraceWriter(), trimStackTraces );
+        if ( stackTraceWrapper.stackTrace == null )
+        {
+            write( encode( operation, runMode, reportEntry, stackTraceWrapper, null, false ), sync );
+            return;
+        }
+
+        // the frame defining the trace must be written before the frames referring to it
+        synchronized ( stackTraces )
+        {
+            String smartTrimmedStackTrace = stackTraceWrapper.smartTrimmedStackTrace;
+            String stackTrace = stackTraceWrapper.stackTrace;
+            Integer traceId = stackTraces.find( smartTrimmedStackTrace, stackTrace );
+            boolean traceSent = traceId != null;
+            if ( !traceSent )
+            {
+                traceId = stackTraces.add( smartTrimmedStackTrace, stackTrace );
+            }
+            write( encode( operation, runMode, reportEntry, stackTraceWrapper, traceId, traceSent ), sync );
+        }
     }
 
     private void encodeOpcode( ForkedProcessEventType eventType, boolean sync )
@@ -391,13 +465,26 @@ ByteBuffer encode( ForkedProcessEventType operation, RunMode runMode, ReportEntr
                                boolean trimStackTraces )
     {
         StackTrace stackTraceWrapper = new StackTrace( reportEntry.getStackTraceWriter(), trimStackTraces );
+        return encode( operation, runMode, reportEntry, stackTraceWrapper, null, false );
+    }
+
+    /**
+     * The stack trace of the event is interned if the {@code traceId} is not null. The plugin remembers the traces
+     * by their ids, therefore the frame does not contain the smart trimmed stack trace and the stack trace if the
+     * trace has been already sent; otherwise the frame defines the trace with the new id.
+     */
+    private ByteBuffer encode( ForkedProcessEventType operation, RunMode runMode, ReportEntry reportEntry,
+                               StackTrace stackTraceWrapper, Integer traceId, boolean traceSent )
+    {
+        String smartTrimmedStackTrace = traceSent ? null : stackTraceWrapper.smartTrimmedStackTrace;
+        String stackTrace = traceSent ? null : stackTraceWrapper.stackTrace;
 
         CharsetEncoder encoder = newCharsetEncoder();
 
-        int bufferMaxLength = estimateBufferLength( operation.getOpcode().length(), runMode, encoder, 1,
+        int bufferMaxLength = estimateBufferLength( operation.getOpcode().length(), runMode, encoder, 2,
             reportEntry.getSourceName(), reportEntry.getSourceText(), reportEntry.getName(), reportEntry.getNameText(),
             reportEntry.getGroup(), reportEntry.getMessage(), stackTraceWrapper.message,
-            stackTraceWrapper.smartTrimmedStackTrace, stackTraceWrapper.stackTrace );
+            smartTrimmedStackTrace, stackTrace );
 
         ByteBuffer result = ByteBuffer.allocate( bufferMaxLength );
 
@@ -412,7 +499,8 @@ ByteBuffer encode( ForkedProcessEventType operation, RunMode runMode, ReportEntr
         encodeString( encoder, result, reportEntry.getMessage() );
         encodeInteger( result, reportEntry.getElapsed() );
 
-        encode( encoder, result, stackTraceWrapper );
+        encode( encoder, result, stackTraceWrapper.message, smartTrimmedStackTrace, stackTrace );
+        encodeInteger( result, traceId );
 
         return result;
     }
@@ -426,6 +514,23 @@ ByteBuffer encodeMessage( ForkedProcessEventType eventType, RunMode runMode, Str
         return result;
     }
 
+    /**
+     * The message has been already encoded in UTF-8 which is the charset of the stream, therefore the bytes are
+     * copied to the frame as they are.
+     */
+    ByteBuffer encodeMessage( ForkedProcessEventType eventType, RunMode runMode, ByteBuffer utf8Message )
+    {
+        CharsetEncoder encoder = newCharsetEncoder();
+        // 4 bytes of string length + one delimiter character ':' + <string> + one delimiter character ':'
+        int bufferMaxLength = estimateBufferLength( eventType.getOpcode().length(), runMode, encoder, 0 )
+            + 4 + 1 + utf8Message.remaining() + 1;
+        ByteBuffer result = ByteBuffer.allocate( bufferMaxLength );
+        encodeHeader( result, eventType, runMode );
+        encodeCharset( result );
+        encodeBytes( result, utf8Message );
+        return result;
+    }
+
     private static String toStackTrace( StackTraceWriter stw, boolean trimStackTraces )
     {
         if ( stw == null )
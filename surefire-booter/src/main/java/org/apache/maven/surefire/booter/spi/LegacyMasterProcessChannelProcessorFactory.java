@@ -66,7 +66,7 @@ public MasterProcessChannelDecoder createDecoder( @Nonnull ForkNodeArguments for
     @Override
     public MasterProcessChannelEncoder createEncoder( @Nonnull ForkNodeArguments forkingArguments )
     {
-        WritableBufferedByteChannel channel = newBufferedChannel( System.out );
+        WritableBufferedByteChannel channel = batchEvents( newBufferedChannel( System.out ), forkingArguments );
         schedulePeriodicFlusher( FLUSH_PERIOD_MILLIS, channel );
         return new EventChannelEncoder( channel );
     }
@@ -0,0 +1,154 @@
+package org.apache.maven.surefire.booter.spi;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.surefire.api.booter.MasterProcessChannelDecoder;
+import org.apache.maven.surefire.api.booter.MasterProcessChannelEncoder;
+import org.apache.maven.surefire.api.fork.ForkNodeArguments;
+import org.apache.maven.surefire.api.util.internal.MappedRingBuffer;
+import org.apache.maven.surefire.api.util.internal.WritableBufferedByteChannel;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SocketChannel;
+import java.util.StringTokenizer;
+
+import static java.net.StandardSocketOptions.TCP_NODELAY;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.apache.maven.surefire.api.util.internal.Channels.newBufferedChannel;
+import static org.apache.maven.surefire.api.util.internal.Channels.newInputStream;
+import static org.apache.maven.surefire.api.util.internal.Channels.newOutputStream;
+
+/**
+ * Producer of encoder and decoder communicating through the {@link MappedRingBuffer ring buffers} in the
+ * memory-mapped files created by the plugin.
+ * <br>
+ * The connection string has the form
+ * {@code shm://<host>:<port>?sessionId=<id>&events=<events file>&commands=<commands file>} with URL-encoded paths.
+ * The TCP/IP connection is the doorbell waking up the consumers of the ring buffers.
+ *
+ * @since 3.0.0-M6
+ */
+public class SharedMemoryMasterProcessChannelProcessorFactory
+    extends AbstractMasterProcessChannelProcessorFactory
+{
+    private static final int FLUSH_PERIOD_MILLIS = 100;
+    private volatile SocketChannel clientSocketChannel;
+    private volatile MappedRingBuffer events;
+    private volatile MappedRingBuffer commands;
+
+    @Override
+    public boolean canUse( String channelConfig )
+    {
+        return channelConfig.startsWith( "shm://" );
+    }
+
+    @Override
+    public void connect( String channelConfig ) throws IOException
+    {
+        if ( !canUse( channelConfig ) )
+        {
+            throw new MalformedURLException( "Unknown channel string " + channelConfig );
+        }
+
+        try
+        {
+            URI uri = new URI( channelConfig );
+            String query = uri.getRawQuery();
+            String eventsFile = extractQueryParameter( query, "events" );
+            String commandsFile = extractQueryParameter( query, "commands" );
+            if ( eventsFile == null || commandsFile == null )
+            {
+                throw new MalformedURLException( "Missing ring buffer files in the channel string " + channelConfig );
+            }
+            events = MappedRingBuffer.open( new File( eventsFile ) );
+            commands = MappedRingBuffer.open( new File( commandsFile ) );
+
+            clientSocketChannel = SocketChannel.open();
+            clientSocketChannel.setOption( TCP_NODELAY, true );
+            clientSocketChannel.connect( new InetSocketAddress( uri.getHost(), uri.getPort() ) );
+            String sessionId = extractQueryParameter( query, "sessionId" );
+            if ( sessionId != null )
+            {
+                ByteBuffer buff = ByteBuffer.wrap( sessionId.getBytes( US_ASCII ) );
+                while ( buff.hasRemaining() )
+                {
+                    clientSocketChannel.write( buff );
+                }
+            }
+        }
+        catch ( URISyntaxException e )
+        {
+            throw new IOException( e.getLocalizedMessage(), e );
+        }
+    }
+
+    @Override
+    public MasterProcessChannelDecoder createDecoder( @Nonnull ForkNodeArguments forkingArguments )
+    {
+        ReadableByteChannel channel = commands.newReadableChannel( newInputStream( clientSocketChannel ) );
+        return new CommandChannelDecoder( channel, forkingArguments );
+    }
+
+    @Override
+    public MasterProcessChannelEncoder createEncoder( @Nonnull ForkNodeArguments forkingArguments )
+    {
+        WritableBufferedByteChannel channel = batchEvents(
+            newBufferedChannel( events.newOutputStream( newOutputStream( clientSocketChannel ) ) ), forkingArguments );
+        schedulePeriodicFlusher( FLUSH_PERIOD_MILLIS, channel );
+        return new EventChannelEncoder( channel );
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        super.close();
+        if ( clientSocketChannel != null && clientSocketChannel.isOpen() )
+        {
+            clientSocketChannel.close();
+        }
+    }
+
+    private static String extractQueryParameter( String query, String name ) throws IOException
+    {
+        if ( query == null )
+        {
+            return null;
+        }
+        for ( StringTokenizer tokenizer = new StringTokenizer( query, "&" ); tokenizer.hasMoreTokens(); )
+        {
+            String token = tokenizer.nextToken();
+            int delimiter = token.indexOf( '=' );
+            if ( delimiter != -1 && name.equals( token.substring( 0, delimiter ) ) )
+            {
+                return URLDecoder.decode( token.substring( delimiter + 1 ), "UTF-8" );
+            }
+        }
+        return null;
+    }
+}
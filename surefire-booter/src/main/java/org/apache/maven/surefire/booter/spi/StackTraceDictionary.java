@@ -0,0 +1,152 @@
+package org.apache.maven.surefire.booter.spi;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.apache.maven.surefire.api.booter.Constants.STACK_TRACE_DICTIONARY_SIZE;
+
+/**
+ * The stack traces which have been sent to the plugin in the test events.
+ * <br>
+ * The plugin remembers the last {@link org.apache.maven.surefire.api.booter.Constants#STACK_TRACE_DICTIONARY_SIZE}
+ * traces by their ids, therefore a trace is sent only once and the next test events failing with the same trace send
+ * its id only. The dictionary forgets the oldest traces before the plugin does, and it also limits the characters of
+ * the traces which the fork retains. Too long traces are never interned.
+ * <br>
+ * Not thread-safe, the encoder holds the lock of the dictionary until the frame is written so that the frame defining
+ * the trace precedes all the frames referring to it.
+ *
+ * @since 3.0.0-M6
+ */
+final class StackTraceDictionary
+{
+    static final int MAX_CHARACTERS = 1024 * 1024;
+    static final int MAX_TRACE_CHARACTERS = 64 * 1024;
+
+    private final Map<Trace, Integer> ids = new LinkedHashMap<>();
+    private int nextId;
+    private int characters;
+
+    /**
+     * @param smartTrimmedStackTrace smart trimmed stack trace
+     * @param stackTrace             the (trimmed) stack trace
+     * @return the id of the trace which has been already sent, or {@code null}
+     */
+    Integer find( String smartTrimmedStackTrace, String stackTrace )
+    {
+        return ids.get( new Trace( smartTrimmedStackTrace, stackTrace ) );
+    }
+
+    /**
+     * Puts a new trace to the dictionary.
+     *
+     * @param smartTrimmedStackTrace smart trimmed stack trace
+     * @param stackTrace             the (trimmed) stack trace
+     * @return the new id of the trace, or {@code null} if the trace is too long to be interned
+     */
+    Integer add( String smartTrimmedStackTrace, String stackTrace )
+    {
+        Trace trace = new Trace( smartTrimmedStackTrace, stackTrace );
+        if ( trace.length() > MAX_TRACE_CHARACTERS )
+        {
+            return null;
+        }
+
+        characters += trace.length();
+        Integer id = nextId++;
+        ids.put( trace, id );
+
+        for ( Iterator<Trace> it = ids.keySet().iterator();
+              ids.size() > STACK_TRACE_DICTIONARY_SIZE || characters > MAX_CHARACTERS; )
+        {
+            characters -= it.next().length();
+            it.remove();
+        }
+
+        return id;
+    }
+
+    int size()
+    {
+        return ids.size();
+    }
+
+    private static final class Trace
+    {
+        private final String smartTrimmedStackTrace;
+        private final String stackTrace;
+        private final int hash;
+
+        Trace( String smartTrimmedStackTrace, String stackTrace )
+        {
+            this.smartTrimmedStackTrace = smartTrimmedStackTrace;
+            this.stackTrace = stackTrace;
+            hash = 31 * hash( smartTrimmedStackTrace ) + hash( stackTrace );
+        }
+
+        int length()
+        {
+            return length( smartTrimmedStackTrace ) + length( stackTrace );
+        }
+
+        @Override
+        public boolean equals( Object o )
+        {
+            if ( this == o )
+            {
+                return true;
+            }
+
+            if ( !( o instanceof Trace ) )
+            {
+                return false;
+            }
+
+            Trace trace = (Trace) o;
+            return hash == trace.hash
+                && equal( smartTrimmedStackTrace, trace.smartTrimmedStackTrace )
+                && equal( stackTrace, trace.stackTrace );
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+
+        private static int hash( String s )
+        {
+            return s == null ? 0 : s.hashCode();
+        }
+
+        private static int length( String s )
+        {
+            return s == null ? 0 : s.length();
+        }
+
+        private static boolean equal( String s1, String s2 )
+        {
+            return s1 == null ? s2 == null : s1.equals( s2 );
+        }
+    }
+}
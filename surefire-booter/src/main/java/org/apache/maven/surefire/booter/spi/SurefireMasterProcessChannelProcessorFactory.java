@@ -109,7 +109,8 @@ public MasterProcessChannelDecoder createDecoder( @Nonnull ForkNodeArguments for
     @Override
     public MasterProcessChannelEncoder createEncoder( @Nonnull ForkNodeArguments forkingArguments )
     {
-        WritableBufferedByteChannel channel = newBufferedChannel( newOutputStream( clientSocketChannel ) );
+        WritableBufferedByteChannel channel =
+            batchEvents( newBufferedChannel( newOutputStream( clientSocketChannel ) ), forkingArguments );
         schedulePeriodicFlusher( FLUSH_PERIOD_MILLIS, channel );
         return new EventChannelEncoder( channel );
     }
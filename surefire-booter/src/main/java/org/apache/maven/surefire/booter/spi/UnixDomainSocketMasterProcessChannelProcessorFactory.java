@@ -0,0 +1,165 @@
+package org.apache.maven.surefire.booter.spi;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.surefire.api.booter.MasterProcessChannelDecoder;
+import org.apache.maven.surefire.api.booter.MasterProcessChannelEncoder;
+import org.apache.maven.surefire.api.fork.ForkNodeArguments;
+import org.apache.maven.surefire.api.util.internal.WritableBufferedByteChannel;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Paths;
+import java.util.StringTokenizer;
+
+import static java.net.StandardSocketOptions.SO_KEEPALIVE;
+import static java.net.StandardSocketOptions.TCP_NODELAY;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.apache.maven.surefire.api.util.internal.Channels.newBufferedChannel;
+import static org.apache.maven.surefire.api.util.internal.Channels.newInputStream;
+import static org.apache.maven.surefire.api.util.internal.Channels.newOutputStream;
+import static org.apache.maven.surefire.api.util.internal.UnixDomainSockets.address;
+import static org.apache.maven.surefire.api.util.internal.UnixDomainSockets.isSupported;
+import static org.apache.maven.surefire.api.util.internal.UnixDomainSockets.openSocketChannel;
+
+/**
+ * Producer of encoder and decoder communicating over Unix domain socket.
+ * <br>
+ * The connection string has the form {@code unix://<socket file>?sessionId=<id>&tcp=<host>:<port>}. If this JVM
+ * does not support Unix domain sockets (before Java 16) or the socket file cannot be connected, the factory connects
+ * to the loopback TCP/IP address {@code tcp} where the plugin listens as well.
+ *
+ * @since 3.0.0-M6
+ */
+public class UnixDomainSocketMasterProcessChannelProcessorFactory
+    extends AbstractMasterProcessChannelProcessorFactory
+{
+    private static final String SCHEME = "unix://";
+    private static final int FLUSH_PERIOD_MILLIS = 100;
+    private volatile SocketChannel clientSocketChannel;
+
+    @Override
+    public boolean canUse( String channelConfig )
+    {
+        return channelConfig.startsWith( SCHEME );
+    }
+
+    @Override
+    public void connect( String channelConfig ) throws IOException
+    {
+        if ( !canUse( channelConfig ) )
+        {
+            throw new MalformedURLException( "Unknown channel string " + channelConfig );
+        }
+
+        int queryDelimiter = channelConfig.lastIndexOf( '?' );
+        if ( queryDelimiter == -1 )
+        {
+            throw new MalformedURLException( "Missing query in the channel string " + channelConfig );
+        }
+
+        String query = channelConfig.substring( queryDelimiter + 1 );
+        if ( isSupported() )
+        {
+            SocketChannel unixSocketChannel = openSocketChannel();
+            try
+            {
+                unixSocketChannel.connect( address( Paths.get( channelConfig.substring( SCHEME.length(),
+                    queryDelimiter ) ) ) );
+                clientSocketChannel = unixSocketChannel;
+            }
+            catch ( IOException e )
+            {
+                // e.g. the socket file is not visible to this process, try the TCP/IP address
+                unixSocketChannel.close();
+            }
+        }
+
+        if ( clientSocketChannel == null )
+        {
+            String tcp = extractQueryParameter( query, "tcp" );
+            int portDelimiter = tcp == null ? -1 : tcp.lastIndexOf( ':' );
+            if ( portDelimiter == -1 )
+            {
+                throw new MalformedURLException( "Missing TCP/IP fallback address in " + channelConfig );
+            }
+            clientSocketChannel = SocketChannel.open();
+            clientSocketChannel.setOption( TCP_NODELAY, true );
+            clientSocketChannel.setOption( SO_KEEPALIVE, true );
+            clientSocketChannel.connect( new InetSocketAddress( tcp.substring( 0, portDelimiter ),
+                Integer.parseInt( tcp.substring( portDelimiter + 1 ) ) ) );
+        }
+
+        String sessionId = extractQueryParameter( query, "sessionId" );
+        if ( sessionId != null )
+        {
+            ByteBuffer buff = ByteBuffer.wrap( sessionId.getBytes( US_ASCII ) );
+            while ( buff.hasRemaining() )
+            {
+                clientSocketChannel.write( buff );
+            }
+        }
+    }
+
+    @Override
+    public MasterProcessChannelDecoder createDecoder( @Nonnull ForkNodeArguments forkingArguments )
+    {
+        ReadableByteChannel bufferedChannel = newBufferedChannel( newInputStream( clientSocketChannel ) );
+        return new CommandChannelDecoder( bufferedChannel, forkingArguments );
+    }
+
+    @Override
+    public MasterProcessChannelEncoder createEncoder( @Nonnull ForkNodeArguments forkingArguments )
+    {
+        WritableBufferedByteChannel channel =
+            batchEvents( newBufferedChannel( newOutputStream( clientSocketChannel ) ), forkingArguments );
+        schedulePeriodicFlusher( FLUSH_PERIOD_MILLIS, channel );
+        return new EventChannelEncoder( channel );
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        super.close();
+        if ( clientSocketChannel != null && clientSocketChannel.isOpen() )
+        {
+            clientSocketChannel.close();
+        }
+    }
+
+    private static String extractQueryParameter( String query, String name )
+    {
+        for ( StringTokenizer tokenizer = new StringTokenizer( query, "&" ); tokenizer.hasMoreTokens(); )
+        {
+            String token = tokenizer.nextToken();
+            int delimiter = token.indexOf( '=' );
+            if ( delimiter != -1 && name.equals( token.substring( 0, delimiter ) ) )
+            {
+                return token.substring( delimiter + 1 );
+            }
+        }
+        return null;
+    }
+}
@@ -24,7 +24,9 @@
 import junit.framework.TestCase;
 import junit.framework.TestSuite;
 import org.apache.maven.surefire.booter.spi.CommandChannelDecoderTest;
+import org.apache.maven.surefire.booter.spi.EventBatchChannelTest;
 import org.apache.maven.surefire.booter.spi.EventChannelEncoderTest;
+import org.apache.maven.surefire.booter.spi.StackTraceDictionaryTest;
 
 /**
  * Adapt the JUnit4 tests which use only annotations to the JUnit3 test suite.
@@ -39,6 +41,7 @@ public static Test suite()
         TestSuite suite = new TestSuite();
         suite.addTest( new JUnit4TestAdapter( CommandReaderTest.class ) );
         suite.addTest( new JUnit4TestAdapter( PpidCheckerTest.class ) );
+        suite.addTest( new JUnit4TestAdapter( ProcessHandleCheckerTest.class ) );
         suite.addTest( new JUnit4TestAdapter( SystemUtilsTest.class ) );
         suite.addTest( new JUnit4TestAdapter( IsolatedClassLoaderTest.class ) );
         suite.addTest( new JUnit4TestAdapter( ForkedBooterTest.class ) );
@@ -48,7 +51,11 @@ public static Test suite()
         suite.addTestSuite( PropertiesWrapperTest.class );
         suite.addTest( new JUnit4TestAdapter( CommandChannelDecoderTest.class ) );
         suite.addTest( new JUnit4TestAdapter( EventChannelEncoderTest.class ) );
+        suite.addTest( new JUnit4TestAdapter( EventBatchChannelTest.class ) );
+        suite.addTest( new JUnit4TestAdapter( StackTraceDictionaryTest.class ) );
         suite.addTestSuite( SurefireReflectorTest.class );
+        suite.addTest( new JUnit4TestAdapter( StartupProfilerTest.class ) );
+        suite.addTest( new JUnit4TestAdapter( ResourceUsageSamplerTest.class ) );
         return suite;
     }
 }
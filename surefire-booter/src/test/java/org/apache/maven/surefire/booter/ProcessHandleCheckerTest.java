@@ -0,0 +1,196 @@
+package org.apache.maven.surefire.booter;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.surefire.booter.ProcessHandleChecker.JavaProcessHandleChecker;
+import org.apache.maven.surefire.booter.ProcessHandleChecker.ProcStatChecker;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.apache.maven.surefire.shared.lang3.SystemUtils.IS_OS_LINUX;
+import static org.apache.maven.surefire.shared.lang3.SystemUtils.IS_OS_UNIX;
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Testing {@link ProcessHandleChecker} on a platform.
+ *
+ * @since 3.0.0-M6
+ */
+public class ProcessHandleCheckerTest
+{
+    private static final String STAT = "%s (%s) %s 1 4242 4242 0 -1 4194560 1234 0 0 0 10 2 0 0 20 0 1 0 %s 123 4 ";
+
+    @Rule
+    public final ExpectedException exceptions = ExpectedException.none();
+
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void shouldCheckThisProcess()
+    {
+        ProcessHandleChecker checker = ProcessHandleChecker.of( currentPid() );
+        assumeTrue( checker != null );
+
+        assertThat( checker.isProcessAlive() )
+            .isTrue();
+        assertThat( checker.isProcessAlive() )
+            .isTrue();
+
+        checker.stop();
+        exceptions.expect( IllegalStateException.class );
+        exceptions.expectMessage( "error [STOPPED] to read process" );
+        checker.isProcessAlive();
+    }
+
+    @Test
+    public void shouldDetectDeadProcessInProcStat() throws Exception
+    {
+        assumeTrue( IS_OS_LINUX );
+        Process process = startSleep();
+        ProcStatChecker checker = ProcStatChecker.of( readPid( process ) );
+        assertThat( checker )
+            .isNotNull();
+        assertThat( checker.isProcessAlive() )
+            .isTrue();
+
+        process.destroy();
+        process.waitFor();
+
+        assertThat( checker.isProcessAlive() )
+            .isFalse();
+        checker.stop();
+    }
+
+    @Test
+    public void shouldDetectDeadProcessWithProcessHandle() throws Exception
+    {
+        assumeTrue( IS_OS_UNIX );
+        Process process = startSleep();
+        JavaProcessHandleChecker checker = JavaProcessHandleChecker.of( readPid( process ) );
+        if ( checker == null )
+        {
+            process.destroy();
+            assumeTrue( "Java 9+", false );
+        }
+        assertThat( checker.isProcessAlive() )
+            .isTrue();
+
+        process.destroy();
+        process.waitFor();
+
+        assertThat( checker.isProcessAlive() )
+            .isFalse();
+    }
+
+    @Test
+    public void shouldParseStartTimeAfterCommandWithParentheses() throws Exception
+    {
+        File stat = writeStat( "42", "java (x) y", "S", "987654" );
+        ProcStatChecker checker = ProcStatChecker.of( "42", stat.toPath() );
+
+        assertThat( checker )
+            .isNotNull();
+        assertThat( checker.toString() )
+            .contains( "startTime=987654" );
+        assertThat( checker.isProcessAlive() )
+            .isTrue();
+
+        // the PID has been reused by another process
+        writeStat( "42", "java", "S", "987655" );
+        assertThat( checker.isProcessAlive() )
+            .isFalse();
+
+        writeStat( "42", "java (x) y", "S", "987654" );
+        assertThat( checker.isProcessAlive() )
+            .isTrue();
+
+        writeStat( "42", "java (x) y", "Z", "987654" );
+        assertThat( checker.isProcessAlive() )
+            .isFalse();
+    }
+
+    @Test
+    public void shouldNotCreateCheckerForMalformedStat() throws Exception
+    {
+        assertThat( ProcStatChecker.of( "42", writeStat( "42", "java", "Z", "987654" ).toPath() ) )
+            .isNull();
+        assertThat( ProcStatChecker.of( "42", new File( tmp.getRoot(), "missing" ).toPath() ) )
+            .isNull();
+
+        File stat = new File( tmp.getRoot(), "stat" );
+        Files.write( stat.toPath(), "42 java S 1".getBytes( US_ASCII ) );
+        assertThat( ProcStatChecker.of( "42", stat.toPath() ) )
+            .isNull();
+    }
+
+    @Test
+    public void shouldDelegateFromPpidChecker()
+    {
+        ProcessHandleChecker handleChecker = ProcessHandleChecker.of( currentPid() );
+        assumeTrue( handleChecker != null );
+        PpidChecker checker = new PpidChecker( currentPid(), handleChecker );
+
+        assertThat( checker.canUse() )
+            .isTrue();
+        assertThat( checker.isProcessAlive() )
+            .isTrue();
+        assertThat( checker.toString() )
+            .contains( "handleChecker=" );
+
+        checker.stop();
+        assertThat( checker.canUse() )
+            .isFalse();
+    }
+
+    private File writeStat( String pid, String command, String state, String startTime ) throws Exception
+    {
+        File stat = new File( tmp.getRoot(), "stat" );
+        String content = String.format( STAT, pid, command, state, startTime );
+        Files.write( stat.toPath(), content.getBytes( US_ASCII ) );
+        return stat;
+    }
+
+    private static String currentPid()
+    {
+        return ManagementFactory.getRuntimeMXBean().getName().split( "@" )[0].trim();
+    }
+
+    private static Process startSleep() throws Exception
+    {
+        return new ProcessBuilder( "/bin/sh", "-c", "echo $$; exec sleep 60" ).start();
+    }
+
+    private static String readPid( Process process ) throws Exception
+    {
+        BufferedReader reader = new BufferedReader( new InputStreamReader( process.getInputStream(), US_ASCII ) );
+        return reader.readLine().trim();
+    }
+}
@@ -0,0 +1,108 @@
+package org.apache.maven.surefire.booter;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.surefire.api.booter.MasterProcessChannelEncoder;
+import org.apache.maven.surefire.api.event.ResourceUsageEvent;
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link ResourceUsageSampler}.
+ *
+ * @since 3.0.0-M6
+ */
+public class ResourceUsageSamplerTest
+{
+    @Test
+    public void shouldSampleThisJvm()
+    {
+        ResourceUsageEvent usage = ResourceUsageSampler.sample();
+
+        assertThat( usage.getUptimeMillis() )
+            .isGreaterThan( 0 );
+        assertThat( usage.getHeapUsedKiB() )
+            .isGreaterThan( 0 );
+        assertThat( usage.getHeapCommittedKiB() )
+            .isGreaterThanOrEqualTo( usage.getHeapUsedKiB() );
+        assertThat( usage.getGcCount() )
+            .isGreaterThanOrEqualTo( 0 );
+        assertThat( usage.getGcTimeMillis() )
+            .isGreaterThanOrEqualTo( 0 );
+        assertThat( usage.getThreadCount() )
+            .isGreaterThan( 0 );
+        assertThat( usage.getLoadedClassCount() )
+            .isGreaterThan( 0 );
+    }
+
+    @Test
+    public void shouldSendSamplesPeriodically()
+    {
+        MasterProcessChannelEncoder eventChannel = mock( MasterProcessChannelEncoder.class );
+        ResourceUsageSampler sampler = new ResourceUsageSampler( eventChannel );
+        try
+        {
+            sampler.start( 10L );
+            verify( eventChannel, timeout( 5000L ).atLeast( 3 ) ).resourceUsage( any( ResourceUsageEvent.class ) );
+        }
+        finally
+        {
+            sampler.stop();
+        }
+    }
+
+    @Test
+    public void shouldSendOnlyIfStarted()
+    {
+        MasterProcessChannelEncoder eventChannel = mock( MasterProcessChannelEncoder.class );
+        ResourceUsageSampler sampler = new ResourceUsageSampler( eventChannel );
+
+        sampler.sendIfStarted();
+        verify( eventChannel, never() ).resourceUsage( any( ResourceUsageEvent.class ) );
+
+        sampler.start( 60000L );
+        sampler.sendIfStarted();
+        sampler.stop();
+        verify( eventChannel, atLeast( 1 ) ).resourceUsage( any( ResourceUsageEvent.class ) );
+    }
+
+    @Test
+    public void shouldNotSendToFailedChannel()
+    {
+        MasterProcessChannelEncoder eventChannel = mock( MasterProcessChannelEncoder.class );
+        when( eventChannel.checkError() )
+            .thenReturn( true );
+        ResourceUsageSampler sampler = new ResourceUsageSampler( eventChannel );
+
+        sampler.start( 60000L );
+        sampler.sendIfStarted();
+        sampler.stop();
+
+        verify( eventChannel, never() ).resourceUsage( any( ResourceUsageEvent.class ) );
+    }
+}
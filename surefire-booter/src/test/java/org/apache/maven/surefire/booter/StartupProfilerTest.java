@@ -0,0 +1,92 @@
+package org.apache.maven.surefire.booter;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.surefire.api.booter.MasterProcessChannelEncoder;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import static org.apache.maven.surefire.booter.StartupProfiler.BOOTER_DESERIALIZATION;
+import static org.apache.maven.surefire.booter.StartupProfiler.FORK_CHANNEL;
+import static org.apache.maven.surefire.booter.StartupProfiler.JVM_LAUNCH;
+import static org.apache.maven.surefire.booter.StartupProfiler.PROVIDER_INSTANTIATION;
+import static org.apache.maven.surefire.booter.StartupProfiler.TEST_DISCOVERY;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+/**
+ * Tests for {@link StartupProfiler}.
+ *
+ * @since 3.0.0-M6
+ */
+public class StartupProfilerTest
+{
+    @Test
+    public void shouldSendCompletedPhasesWhenConnected()
+    {
+        MasterProcessChannelEncoder eventChannel = mock( MasterProcessChannelEncoder.class );
+        StartupProfiler profiler = new StartupProfiler();
+
+        profiler.phaseCompleted( BOOTER_DESERIALIZATION );
+        profiler.phaseCompleted( FORK_CHANNEL );
+        verifyZeroInteractions( eventChannel );
+
+        profiler.sendTo( eventChannel, true );
+        profiler.phaseCompleted( PROVIDER_INSTANTIATION );
+
+        InOrder inOrder = inOrder( eventChannel );
+        inOrder.verify( eventChannel ).startupPhase( eq( JVM_LAUNCH ), anyInt() );
+        inOrder.verify( eventChannel ).startupPhase( eq( BOOTER_DESERIALIZATION ), anyInt() );
+        inOrder.verify( eventChannel ).startupPhase( eq( FORK_CHANNEL ), anyInt() );
+        inOrder.verify( eventChannel ).startupPhase( eq( PROVIDER_INSTANTIATION ), anyInt() );
+        verifyNoMoreInteractions( eventChannel );
+    }
+
+    @Test
+    public void shouldNotSendJvmLaunchInPooledJvm()
+    {
+        MasterProcessChannelEncoder eventChannel = mock( MasterProcessChannelEncoder.class );
+        StartupProfiler profiler = new StartupProfiler();
+
+        profiler.sendTo( eventChannel, false );
+
+        verify( eventChannel, never() ).startupPhase( eq( JVM_LAUNCH ), anyInt() );
+    }
+
+    @Test
+    public void shouldCompleteTestDiscoveryOnce()
+    {
+        MasterProcessChannelEncoder eventChannel = mock( MasterProcessChannelEncoder.class );
+        StartupProfiler profiler = new StartupProfiler();
+        profiler.sendTo( eventChannel, false );
+
+        profiler.testSetStarting();
+        profiler.testSetStarting();
+
+        verify( eventChannel, times( 1 ) ).startupPhase( eq( TEST_DISCOVERY ), anyInt() );
+    }
+}
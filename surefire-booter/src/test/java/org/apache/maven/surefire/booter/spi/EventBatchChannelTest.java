@@ -0,0 +1,226 @@
+package org.apache.maven.surefire.booter.spi;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.surefire.api.util.internal.WritableBufferedByteChannel;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Inflater;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.apache.maven.surefire.api.booter.Constants.BATCH_DEFLATED;
+import static org.apache.maven.surefire.api.booter.Constants.BATCH_UNCOMPRESSED;
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * Test for {@link EventBatchChannel}.
+ *
+ * @since 3.0.0-M6
+ */
+@SuppressWarnings( "checkstyle:magicnumber" )
+public class EventBatchChannelTest
+{
+    private static final String BATCH_HEADER = ":maven-surefire-event:\u0005:batch:";
+
+    @Test
+    public void shouldDelayEventsUntilControlEvent() throws IOException
+    {
+        RecordingChannel out = new RecordingChannel();
+        EventChannelEncoder encoder = new EventChannelEncoder( new EventBatchChannel( out, false ) );
+
+        encoder.stdOut( "msg", true );
+        encoder.consoleWarningLog( "warning" );
+        assertThat( out.frames )
+            .isEmpty();
+
+        encoder.acquireNextTest();
+        assertThat( out.frames )
+            .hasSize( 1 );
+        assertThat( out.flushed )
+            .containsExactly( true );
+
+        byte[] batch = out.frames.get( 0 );
+        assertThat( batch[BATCH_HEADER.length()] )
+            .isEqualTo( BATCH_UNCOMPRESSED );
+        String frames = unpack( batch );
+        assertThat( frames )
+            .contains( ":std-out-stream-new-line:" )
+            .contains( ":console-warning-log:" )
+            .endsWith( ":next-test:" );
+    }
+
+    @Test
+    public void shouldFlushBatchWithZeroLengthBuffer() throws IOException
+    {
+        RecordingChannel out = new RecordingChannel();
+        EventBatchChannel channel = new EventBatchChannel( out, false );
+        EventChannelEncoder encoder = new EventChannelEncoder( channel );
+
+        channel.write( ByteBuffer.allocate( 0 ) );
+        assertThat( out.frames )
+            .hasSize( 1 );
+        assertThat( out.frames.get( 0 ) )
+            .isEmpty();
+
+        encoder.stdErr( "err", false );
+        channel.write( ByteBuffer.allocate( 0 ) );
+        assertThat( out.frames )
+            .hasSize( 2 );
+        assertThat( out.flushed )
+            .containsExactly( true, true );
+        assertThat( unpack( out.frames.get( 1 ) ) )
+            .contains( ":std-err-stream:" );
+    }
+
+    @Test
+    public void shouldDeflateBatch() throws Exception
+    {
+        RecordingChannel out = new RecordingChannel();
+        EventChannelEncoder encoder = new EventChannelEncoder( new EventBatchChannel( out, true ) );
+
+        for ( int i = 0; i < 100; i++ )
+        {
+            encoder.stdOut( "the same line of the standard output", true );
+        }
+        encoder.bye();
+
+        assertThat( out.frames )
+            .hasSize( 1 );
+        byte[] batch = out.frames.get( 0 );
+        assertThat( batch[BATCH_HEADER.length()] )
+            .isEqualTo( BATCH_DEFLATED );
+
+        int lengths = BATCH_HEADER.length() + 2;
+        ByteBuffer frame = ByteBuffer.wrap( batch, lengths, batch.length - lengths );
+        int originalLength = frame.getInt();
+        frame.get();
+        int length = frame.getInt();
+        frame.get();
+        assertThat( length )
+            .isLessThan( originalLength / 10 );
+
+        Inflater inflater = new Inflater();
+        inflater.setInput( batch, frame.position(), length );
+        byte[] frames = new byte[originalLength];
+        assertThat( inflater.inflate( frames ) )
+            .isEqualTo( originalLength );
+        assertThat( inflater.finished() )
+            .isTrue();
+        inflater.end();
+        assertThat( new String( frames, US_ASCII ) )
+            .endsWith( ":bye:" );
+    }
+
+    @Test
+    public void shouldWriteLargeFramesAndOtherBytesAsTheyAre() throws IOException
+    {
+        RecordingChannel out = new RecordingChannel();
+        EventChannelEncoder encoder = new EventChannelEncoder( new EventBatchChannel( out, false ) );
+
+        encoder.stdOut( "msg", false );
+        char[] large = new char[EventBatchChannel.BATCH_SIZE];
+        Arrays.fill( large, 'x' );
+        encoder.stdOut( new String( large ), false );
+        assertThat( out.frames )
+            .hasSize( 2 );
+        assertThat( unpack( out.frames.get( 0 ) ) )
+            .contains( ":std-out-stream:" );
+        assertThat( new String( out.frames.get( 1 ), US_ASCII ) )
+            .contains( ":std-out-stream:" );
+
+        encoder.onJvmExit();
+        assertThat( out.frames )
+            .hasSize( 3 );
+        assertThat( out.frames.get( 2 ) )
+            .isEqualTo( new byte[] {'\n'} );
+        assertThat( out.flushed )
+            .containsExactly( false, false, true );
+    }
+
+    private static String unpack( byte[] batch )
+    {
+        assertThat( new String( batch, 0, BATCH_HEADER.length(), US_ASCII ) )
+            .isEqualTo( BATCH_HEADER );
+        int lengths = BATCH_HEADER.length() + 2;
+        ByteBuffer frame = ByteBuffer.wrap( batch, lengths, batch.length - lengths );
+        int originalLength = frame.getInt();
+        frame.get();
+        int length = frame.getInt();
+        frame.get();
+        assertThat( length )
+            .isEqualTo( originalLength );
+        assertThat( batch[batch.length - 1] )
+            .isEqualTo( (byte) ':' );
+        return new String( batch, frame.position(), length, US_ASCII );
+    }
+
+    private static final class RecordingChannel implements WritableBufferedByteChannel
+    {
+        final List<byte[]> frames = new ArrayList<>();
+        final List<Boolean> flushed = new ArrayList<>();
+
+        @Override
+        public void writeBuffered( ByteBuffer src )
+        {
+            record( src, false );
+        }
+
+        @Override
+        public int write( ByteBuffer src )
+        {
+            return record( src, true );
+        }
+
+        @Override
+        public long countBufferOverflows()
+        {
+            return 0;
+        }
+
+        @Override
+        public boolean isOpen()
+        {
+            return true;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+
+        private int record( ByteBuffer src, boolean flush )
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            while ( src.hasRemaining() )
+            {
+                bytes.write( src.get() );
+            }
+            frames.add( bytes.toByteArray() );
+            flushed.add( flush );
+            return frames.get( frames.size() - 1 ).length;
+        }
+    }
+}
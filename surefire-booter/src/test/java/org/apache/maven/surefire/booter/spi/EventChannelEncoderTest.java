@@ -20,6 +20,7 @@
  */
 
 import org.apache.maven.plugin.surefire.log.api.ConsoleLoggerUtils;
+import org.apache.maven.surefire.api.event.ResourceUsageEvent;
 import org.apache.maven.surefire.api.report.ReportEntry;
 import org.apache.maven.surefire.api.report.SafeThrowable;
 import org.apache.maven.surefire.api.report.StackTraceWriter;
@@ -35,6 +36,7 @@
 import java.util.Map;
 import java.util.Map.Entry;
 
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.copyOfRange;
 import static org.apache.maven.surefire.api.booter.ForkedProcessEventType.BOOTERCODE_TEST_ERROR;
@@ -130,6 +132,8 @@ public void reportEntry() throws IOException
         expectedFrame.write( ':' );
         expectedFrame.write( stackTrace.getBytes( UTF_8 ) );
         expectedFrame.write( ':' );
+        expectedFrame.write( 0 );
+        expectedFrame.write( ':' );
         ( (Buffer) encoded ).flip();
 
         assertThat( toArray( encoded ) )
@@ -185,6 +189,8 @@ public void reportEntry() throws IOException
         expectedFrame.write( ':' );
         expectedFrame.write( trimmedStackTrace.getBytes( UTF_8 ) );
         expectedFrame.write( ':' );
+        expectedFrame.write( 0 );
+        expectedFrame.write( ':' );
         ( (Buffer) encoded ).flip();
 
         assertThat( toArray( encoded ) )
@@ -240,6 +246,9 @@ public void reportEntry() throws IOException
         expectedFrame.write( ':' );
         expectedFrame.write( trimmedStackTrace.getBytes( UTF_8 ) );
         expectedFrame.write( ':' );
+        expectedFrame.write( 0xff );
+        expectedFrame.write( new byte[] {0, 0, 0, 0} );
+        expectedFrame.write( ':' );
         assertThat( out.toByteArray() )
             .isEqualTo( expectedFrame.toByteArray() );
 
@@ -294,6 +303,9 @@ public void reportEntry() throws IOException
         expectedFrame.write( ':' );
         expectedFrame.write( stackTrace.getBytes( UTF_8 ) );
         expectedFrame.write( ':' );
+        expectedFrame.write( 0xff );
+        expectedFrame.write( new byte[] {0, 0, 0, 0} );
+        expectedFrame.write( ':' );
         assertThat( out.toByteArray() )
             .isEqualTo( expectedFrame.toByteArray() );
     }
@@ -373,6 +385,9 @@ public void testSetCompleted() throws IOException
         expectedFrame.write( ':' );
         expectedFrame.write( stackTrace.getBytes( UTF_8 ) );
         expectedFrame.write( ':' );
+        expectedFrame.write( 0xff );
+        expectedFrame.write( new byte[] {0, 0, 0, 0} );
+        expectedFrame.write( ':' );
         assertThat( out.toByteArray() )
             .isEqualTo( expectedFrame.toByteArray() );
     }
@@ -453,6 +468,9 @@ public void testStarting() throws IOException
         expectedFrame.write( ':' );
         expectedFrame.write( stackTrace.getBytes( UTF_8 ) );
         expectedFrame.write( ':' );
+        expectedFrame.write( 0xff );
+        expectedFrame.write( new byte[] {0, 0, 0, 0} );
+        expectedFrame.write( ':' );
         assertThat( out.toByteArray() )
             .isEqualTo( expectedFrame.toByteArray() );
     }
@@ -532,6 +550,9 @@ public void testSuccess() throws IOException
         expectedFrame.write( ':' );
         expectedFrame.write( stackTrace.getBytes( UTF_8 ) );
         expectedFrame.write( ':' );
+        expectedFrame.write( 0xff );
+        expectedFrame.write( new byte[] {0, 0, 0, 0} );
+        expectedFrame.write( ':' );
         assertThat( out.toByteArray() )
             .isEqualTo( expectedFrame.toByteArray() );
     }
@@ -611,6 +632,9 @@ public void testFailed() throws IOException
         expectedFrame.write( ':' );
         expectedFrame.write( stackTrace.getBytes( UTF_8 ) );
         expectedFrame.write( ':' );
+        expectedFrame.write( 0xff );
+        expectedFrame.write( new byte[] {0, 0, 0, 0} );
+        expectedFrame.write( ':' );
         assertThat( out.toByteArray() )
             .isEqualTo( expectedFrame.toByteArray() );
     }
@@ -689,6 +713,9 @@ public void testSkipped() throws IOException
         expectedFrame.write( ':' );
         expectedFrame.write( stackTrace.getBytes( UTF_8 ) );
         expectedFrame.write( ':' );
+        expectedFrame.write( 0xff );
+        expectedFrame.write( new byte[] {0, 0, 0, 0} );
+        expectedFrame.write( ':' );
         assertThat( out.toByteArray() )
             .isEqualTo( expectedFrame.toByteArray() );
     }
@@ -766,6 +793,9 @@ public void testError() throws IOException
         expectedFrame.write( ':' );
         expectedFrame.write( stackTrace.getBytes( UTF_8 ) );
         expectedFrame.write( ':' );
+        expectedFrame.write( 0xff );
+        expectedFrame.write( new byte[] {0, 0, 0, 0} );
+        expectedFrame.write( ':' );
         assertThat( out.toByteArray() )
             .isEqualTo( expectedFrame.toByteArray() );
     }
@@ -843,10 +873,57 @@ public void testAssumptionFailure() throws IOException
         expectedFrame.write( ':' );
         expectedFrame.write( 0 );
         expectedFrame.write( ':' );
+        expectedFrame.write( 0 );
+        expectedFrame.write( ':' );
         assertThat( out.toByteArray() )
                 .isEqualTo( expectedFrame.toByteArray() );
     }
 
+    @Test
+    public void shouldSendStackTraceOnce()
+    {
+        ReportEntry failure = newFailure( "smart", "trace" );
+        ReportEntry otherFailure = newFailure( "smart", "other trace" );
+
+        Stream out = Stream.newStream();
+        EventChannelEncoder encoder = new EventChannelEncoder( newBufferedChannel( out ) );
+        encoder.testFailed( failure, false );
+        encoder.testFailed( failure, false );
+        encoder.testFailed( otherFailure, false );
+        encoder.testFailed( failure, false );
+
+        String expected = failedFrame( "\u0000\u0000\u0000\u0005:smart:\u0000\u0000\u0000\u0005:trace:\u00ff\u0000\u0000\u0000\u0000:" )
+            + failedFrame( "\u0000\u0000\u0000\u0001:\u0000:\u0000\u0000\u0000\u0001:\u0000:\u00ff\u0000\u0000\u0000\u0000:" )
+            + failedFrame( "\u0000\u0000\u0000\u0005:smart:\u0000\u0000\u0000\u000b:other trace:\u00ff\u0000\u0000\u0000\u0001:" )
+            + failedFrame( "\u0000\u0000\u0000\u0001:\u0000:\u0000\u0000\u0000\u0001:\u0000:\u00ff\u0000\u0000\u0000\u0000:" );
+
+        assertThat( new String( out.toByteArray(), ISO_8859_1 ) )
+            .isEqualTo( expected );
+    }
+
+    private static ReportEntry newFailure( String smartTrimmedStackTrace, String stackTrace )
+    {
+        StackTraceWriter stackTraceWriter = mock( StackTraceWriter.class );
+        when( stackTraceWriter.getThrowable() ).thenReturn( new SafeThrowable( "msg" ) );
+        when( stackTraceWriter.smartTrimmedStackTrace() ).thenReturn( smartTrimmedStackTrace );
+        when( stackTraceWriter.writeTraceToString() ).thenReturn( stackTrace );
+        ReportEntry reportEntry = mock( ReportEntry.class );
+        when( reportEntry.getStackTraceWriter() ).thenReturn( stackTraceWriter );
+        return reportEntry;
+    }
+
+    private static String failedFrame( String stackTraces )
+    {
+        StringBuilder frame = new StringBuilder( ":maven-surefire-event:\u000b:test-failed:\n:normal-run:\u0005:UTF-8:" );
+        for ( int i = 0; i < 6; i++ )
+        {
+            frame.append( "\u0000\u0000\u0000\u0001:\u0000:" );
+        }
+        return frame.append( "\u0000:\u0000\u0000\u0000\u0003:msg:" )
+            .append( stackTraces )
+            .toString();
+    }
+
     @Test
     public void testBye()
     {
@@ -1070,6 +1147,42 @@ public void testConsoleWarning()
                 .isEqualTo( expected );
     }
 
+    @Test
+    public void testStartupPhase() throws IOException
+    {
+        Stream out = Stream.newStream();
+        WritableBufferedByteChannel channel = newBufferedChannel( out );
+        EventChannelEncoder encoder = new EventChannelEncoder( channel );
+
+        encoder.startupPhase( "jvm-launch", 0x01020304 );
+        channel.close();
+
+        String expected = ":maven-surefire-event:" + (char) 13 + ":startup-phase:\u0005:UTF-8:\u0000\u0000\u0000"
+            + (char) 10 + ":jvm-launch:\u00ff\u0001\u0002\u0003\u0004:";
+
+        assertThat( new String( out.toByteArray(), ISO_8859_1 ) )
+                .isEqualTo( expected );
+    }
+
+    @Test
+    public void testResourceUsage() throws IOException
+    {
+        Stream out = Stream.newStream();
+        WritableBufferedByteChannel channel = newBufferedChannel( out );
+        EventChannelEncoder encoder = new EventChannelEncoder( channel );
+
+        encoder.resourceUsage( new ResourceUsageEvent( 1, 2, 3, 4, 5, 6, 7, 8, 0x01020304 ) );
+        channel.close();
+
+        String expected = ":maven-surefire-event:" + (char) 14 + ":resource-usage:"
+            + "\u00ff\u0000\u0000\u0000\u0001:\u00ff\u0000\u0000\u0000\u0002:\u00ff\u0000\u0000\u0000\u0003:"
+            + "\u00ff\u0000\u0000\u0000\u0004:\u00ff\u0000\u0000\u0000\u0005:\u00ff\u0000\u0000\u0000\u0006:"
+            + "\u00ff\u0000\u0000\u0000\u0007:\u00ff\u0000\u0000\u0000\u0008:\u00ff\u0001\u0002\u0003\u0004:";
+
+        assertThat( new String( out.toByteArray(), ISO_8859_1 ) )
+                .isEqualTo( expected );
+    }
+
     @Test
     public void testStdOutStream() throws IOException
     {
@@ -1104,6 +1217,48 @@ public void testStdOutStreamLn() throws IOException
                 .isEqualTo( expected );
     }
 
+    @Test
+    public void testStdOutUtf8Stream() throws IOException
+    {
+        Stream out = Stream.newStream();
+        WritableBufferedByteChannel channel = newBufferedChannel( out );
+        EventChannelEncoder encoder = new EventChannelEncoder( channel );
+
+        ByteBuffer msg = ByteBuffer.wrap( "msg".getBytes( UTF_8 ) );
+        encoder.stdOutUtf8( msg, false );
+        channel.close();
+
+        String expected = ":maven-surefire-event:\u000e:std-out-stream:"
+            + (char) 10 + ":normal-run:\u0005:UTF-8:\u0000\u0000\u0000\u0003:msg:";
+
+        assertThat( new String( out.toByteArray(), UTF_8 ) )
+                .isEqualTo( expected );
+
+        assertThat( ( (Buffer) msg ).position() )
+                .isEqualTo( 0 );
+
+        assertThat( ( (Buffer) msg ).remaining() )
+                .isEqualTo( 3 );
+    }
+
+    @Test
+    public void testStdErrUtf8StreamLn() throws IOException
+    {
+        Stream out = Stream.newStream();
+        WritableBufferedByteChannel channel = newBufferedChannel( out );
+        EventChannelEncoder encoder = new EventChannelEncoder( channel );
+
+        byte[] msg = "\u010d\u20ac".getBytes( UTF_8 );
+        encoder.stdErrUtf8( ByteBuffer.wrap( msg ), true );
+        channel.close();
+
+        String expected = ":maven-surefire-event:\u0017:std-err-stream-new-line:"
+            + (char) 10 + ":normal-run:\u0005:UTF-8:\u0000\u0000\u0000\u0005:\u010d\u20ac:";
+
+        assertThat( new String( out.toByteArray(), UTF_8 ) )
+                .isEqualTo( expected );
+    }
+
     @Test
     public void testStdErrStream() throws IOException
     {
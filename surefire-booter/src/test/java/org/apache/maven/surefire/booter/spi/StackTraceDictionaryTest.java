@@ -0,0 +1,94 @@
+package org.apache.maven.surefire.booter.spi;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.junit.Test;
+
+import static org.apache.maven.surefire.api.booter.Constants.STACK_TRACE_DICTIONARY_SIZE;
+import static org.apache.maven.surefire.booter.spi.StackTraceDictionary.MAX_CHARACTERS;
+import static org.apache.maven.surefire.booter.spi.StackTraceDictionary.MAX_TRACE_CHARACTERS;
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * Test for {@link StackTraceDictionary}.
+ */
+public class StackTraceDictionaryTest
+{
+    @Test
+    public void shouldFindAddedTraces()
+    {
+        StackTraceDictionary dictionary = new StackTraceDictionary();
+        assertThat( dictionary.find( "smart", "trace" ) ).isNull();
+
+        assertThat( dictionary.add( "smart", "trace" ) ).isEqualTo( 0 );
+        assertThat( dictionary.add( null, "other trace" ) ).isEqualTo( 1 );
+
+        assertThat( dictionary.find( "smart", "trace" ) ).isEqualTo( 0 );
+        assertThat( dictionary.find( null, "other trace" ) ).isEqualTo( 1 );
+        assertThat( dictionary.find( "other smart", "trace" ) ).isNull();
+        assertThat( dictionary.find( null, "trace" ) ).isNull();
+    }
+
+    @Test
+    public void shouldForgetOldestTraces()
+    {
+        StackTraceDictionary dictionary = new StackTraceDictionary();
+        for ( int i = 0; i < STACK_TRACE_DICTIONARY_SIZE + 10; i++ )
+        {
+            assertThat( dictionary.add( "smart", "trace " + i ) ).isEqualTo( i );
+        }
+
+        assertThat( dictionary.size() ).isEqualTo( STACK_TRACE_DICTIONARY_SIZE );
+        assertThat( dictionary.find( "smart", "trace 9" ) ).isNull();
+        assertThat( dictionary.find( "smart", "trace 10" ) ).isEqualTo( 10 );
+        assertThat( dictionary.find( "smart", "trace " + ( STACK_TRACE_DICTIONARY_SIZE + 9 ) ) )
+            .isEqualTo( STACK_TRACE_DICTIONARY_SIZE + 9 );
+    }
+
+    @Test
+    public void shouldLimitCharacters()
+    {
+        StackTraceDictionary dictionary = new StackTraceDictionary();
+        char[] trace = new char[MAX_TRACE_CHARACTERS];
+        int traces = MAX_CHARACTERS / MAX_TRACE_CHARACTERS;
+        for ( int i = 0; i <= traces; i++ )
+        {
+            trace[0] = (char) i;
+            assertThat( dictionary.add( null, new String( trace ) ) ).isEqualTo( i );
+        }
+
+        assertThat( dictionary.size() ).isEqualTo( traces );
+        trace[0] = 0;
+        assertThat( dictionary.find( null, new String( trace ) ) ).isNull();
+        trace[0] = 1;
+        assertThat( dictionary.find( null, new String( trace ) ) ).isEqualTo( 1 );
+    }
+
+    @Test
+    public void shouldNotInternTooLongTraces()
+    {
+        StackTraceDictionary dictionary = new StackTraceDictionary();
+        String trace = new String( new char[MAX_TRACE_CHARACTERS + 1] );
+        assertThat( dictionary.add( null, trace ) ).isNull();
+        assertThat( dictionary.find( null, trace ) ).isNull();
+        assertThat( dictionary.size() ).isEqualTo( 0 );
+        assertThat( dictionary.add( "smart", "trace" ) ).isEqualTo( 0 );
+    }
+}
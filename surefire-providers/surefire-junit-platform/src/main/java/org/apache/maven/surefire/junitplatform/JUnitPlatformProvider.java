@@ -21,6 +21,7 @@
 
 import static java.util.Arrays.stream;
 import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
 import static java.util.logging.Level.WARNING;
@@ -30,9 +31,12 @@
 import static org.apache.maven.surefire.api.booter.ProviderParameterNames.INCLUDE_JUNIT5_ENGINES_PROP;
 import static org.apache.maven.surefire.api.booter.ProviderParameterNames.EXCLUDE_JUNIT5_ENGINES_PROP;
 import static org.apache.maven.surefire.api.report.ConsoleOutputCapture.startCapture;
+import static org.apache.maven.surefire.api.util.TestClassChunk.toMethodName;
+import static org.apache.maven.surefire.api.util.TestClassChunk.toParameterTypes;
 import static org.apache.maven.surefire.api.util.TestsToRun.fromClass;
 import static org.apache.maven.surefire.shared.utils.StringUtils.isBlank;
 import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectMethod;
 import static org.junit.platform.engine.discovery.DiscoverySelectors.selectUniqueId;
 import static org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request;
 
@@ -197,12 +201,28 @@ private void execute( TestsToRun testsToRun, RunListenerAdapter adapter )
                     LauncherDiscoveryRequestBuilder builder = request()
                         .filters( filters )
                         .configurationParameters( configurationParameters )
-                        .selectors( selectClass( c.getName() ) );
+                        .selectors( toSelectors( c, testsToRun.getMethodsOfIteratedClass() ) );
                     launcher.execute( builder.build(), adapter );
                 } );
         }
     }
 
+    /**
+     * The plugin distributes the test methods of a class over the forked JVMs in chunks if
+     * {@code testMethodChunkSize} is set. Then only the methods of the chunk are selected in the class.
+     */
+    private static List<DiscoverySelector> toSelectors( Class<?> testClass, List<String> methods )
+    {
+        if ( methods.isEmpty() )
+        {
+            return singletonList( selectClass( testClass.getName() ) );
+        }
+        String className = testClass.getName();
+        return methods.stream()
+            .<DiscoverySelector>map( m -> selectMethod( className, toMethodName( m ), toParameterTypes( m ) ) )
+            .collect( toList() );
+    }
+
     private LauncherDiscoveryRequest buildLauncherDiscoveryRequestForRerunFailures( RunListenerAdapter adapter )
     {
         LauncherDiscoveryRequestBuilder builder = request().filters( filters ).configurationParameters(
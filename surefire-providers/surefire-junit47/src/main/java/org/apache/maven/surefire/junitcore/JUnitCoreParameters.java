@@ -50,6 +50,10 @@
 
     public static final String PARALLEL_OPTIMIZE_KEY = ProviderParameterNames.PARALLEL_OPTIMIZE_PROP;
 
+    public static final String PARALLEL_WORKSTEALING_KEY = ProviderParameterNames.PARALLEL_WORKSTEALING_PROP;
+
+    public static final String USEVIRTUALTHREADS_KEY = ProviderParameterNames.USEVIRTUALTHREADS_PROP;
+
     private final String parallel;
 
     private final boolean perCoreThreadCount;
@@ -70,6 +74,10 @@
 
     private final boolean parallelOptimization;
 
+    private final boolean parallelWorkStealing;
+
+    private final boolean useVirtualThreads;
+
     public JUnitCoreParameters( Map<String, String> properties )
     {
         parallel = property( properties, PARALLEL_KEY, "none" ).toLowerCase();
@@ -82,6 +90,8 @@ public JUnitCoreParameters( Map<String, String> properties )
         parallelTestsTimeoutInSeconds = Math.max( property( properties, PARALLEL_TIMEOUT_KEY, 0d ), 0 );
         parallelTestsTimeoutForcedInSeconds = Math.max( property( properties, PARALLEL_TIMEOUTFORCED_KEY, 0d ), 0 );
         parallelOptimization = property( properties, PARALLEL_OPTIMIZE_KEY, true );
+        parallelWorkStealing = property( properties, PARALLEL_WORKSTEALING_KEY, false );
+        useVirtualThreads = property( properties, USEVIRTUALTHREADS_KEY, false );
     }
 
     private static Collection<String> lowerCase( String... elements )
@@ -182,13 +192,24 @@ public boolean isParallelOptimization()
         return parallelOptimization;
     }
 
+    public boolean isParallelWorkStealing()
+    {
+        return parallelWorkStealing;
+    }
+
+    public boolean isUseVirtualThreads()
+    {
+        return useVirtualThreads;
+    }
+
     @Override
     public String toString()
     {
         return "parallel='" + parallel + '\'' + ", perCoreThreadCount=" + perCoreThreadCount + ", threadCount="
             + threadCount + ", useUnlimitedThreads=" + useUnlimitedThreads + ", threadCountSuites=" + threadCountSuites
             + ", threadCountClasses=" + threadCountClasses + ", threadCountMethods=" + threadCountMethods
-            + ", parallelOptimization=" + parallelOptimization;
+            + ", parallelOptimization=" + parallelOptimization + ", parallelWorkStealing=" + parallelWorkStealing
+            + ", useVirtualThreads=" + useVirtualThreads;
     }
 
     private static boolean property( Map<String, String> properties, String key, boolean fallback )
@@ -21,40 +21,290 @@
 
 import org.apache.maven.surefire.api.report.ConsoleOutputReceiver;
 
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
- * A stream-like object that preserves ordering between stdout/stderr
+ * A stream-like object that preserves ordering between stdout/stderr.
+ * <br>
+ * The characters are encoded in UTF-8 to chunks of bytes which are recycled in a pool after the output has been
+ * written to the reporter, therefore the strings of the test output are not retained until the test set has
+ * completed. The first chunk starts with {@link #FIRST_CHUNK_SIZE} bytes and grows up to {@link #CHUNK_SIZE}, so
+ * that the many tests with little output do not hold a full chunk each until the test set is replayed.
+ * The stream and the line break of the writes are stored out of band in the array of segments.
+ * The consecutive writes to the same stream are merged in one segment if there is no line break between them.
  */
 final class LogicalStream
 {
-    private final Queue<Entry> output = new ConcurrentLinkedQueue<>();
+    static final int CHUNK_SIZE = 8192;
+
+    static final int FIRST_CHUNK_SIZE = 128;
+
+    private static final int MAX_POOLED_CHUNKS = 256;
+
+    private static final int MAX_SEGMENT_LENGTH = Integer.MAX_VALUE >>> 2;
+
+    /**
+     * One character is encoded to three bytes at most.
+     */
+    private static final int MAX_SEGMENT_CHARS = MAX_SEGMENT_LENGTH / 3;
+
+    private static final int STDOUT = 2;
+
+    private static final int NEW_LINE = 1;
+
+    private static final Deque<byte[]> CHUNK_POOL = new ArrayDeque<>();
+
+    /**
+     * The length of the segment in bytes shifted by 2 bits, {@link #STDOUT} and {@link #NEW_LINE} flags.
+     */
+    private int[] segments = new int[16];
 
-    private static final class Entry
+    private int segmentsCount;
+
+    private byte[][] chunks = new byte[4][];
+
+    private int chunksCount;
+
+    /**
+     * Position in the last chunk.
+     */
+    private int position;
+
+    synchronized void write( boolean stdout, String text, boolean newLine )
     {
-        private final boolean stdout;
-        private final String text;
-        private final boolean newLine;
+        int length = text.length();
+        for ( int offset = 0; offset < length; )
+        {
+            int end = length - offset > MAX_SEGMENT_CHARS ? offset + MAX_SEGMENT_CHARS : length;
+            if ( end < length && Character.isHighSurrogate( text.charAt( end - 1 ) ) )
+            {
+                end--;
+            }
+            int segmentLength = encode( text, offset, end );
+            offset = end;
+            addSegment( segmentLength, stdout, newLine && offset == length );
+        }
 
-        Entry( boolean stdout, String text, boolean newLine )
+        if ( length == 0 )
         {
-            this.stdout = stdout;
-            this.text = text;
-            this.newLine = newLine;
+            addSegment( 0, stdout, newLine );
         }
     }
 
-    synchronized void write( boolean stdout, String text, boolean newLine )
+    synchronized void writeDetails( ConsoleOutputReceiver outputReceiver )
     {
-        output.add( new Entry( stdout, text, newLine ) );
+        try
+        {
+            int chunk = 0;
+            int offset = 0;
+            for ( int i = 0; i < segmentsCount; i++ )
+            {
+                int segment = segments[i];
+                int length = segment >>> 2;
+                String text;
+                if ( length == 0 )
+                {
+                    text = "";
+                }
+                else if ( offset + length <= chunks[chunk].length )
+                {
+                    text = new String( chunks[chunk], offset, length, UTF_8 );
+                    offset += length;
+                }
+                else
+                {
+                    byte[] bytes = new byte[length];
+                    for ( int copied = 0; copied < length; )
+                    {
+                        if ( offset == chunks[chunk].length )
+                        {
+                            chunk++;
+                            offset = 0;
+                        }
+                        int count = Math.min( length - copied, chunks[chunk].length - offset );
+                        System.arraycopy( chunks[chunk], offset, bytes, copied, count );
+                        offset += count;
+                        copied += count;
+                    }
+                    text = new String( bytes, UTF_8 );
+                }
+
+                if ( chunk + 1 < chunksCount && offset == chunks[chunk].length )
+                {
+                    chunk++;
+                    offset = 0;
+                }
+
+                outputReceiver.writeTestOutput( text, ( segment & NEW_LINE ) != 0, ( segment & STDOUT ) != 0 );
+            }
+        }
+        finally
+        {
+            recycle();
+        }
+    }
+
+    /**
+     * Encodes the characters to UTF-8 like {@link String#getBytes(java.nio.charset.Charset)} without allocating
+     * the array, and replaces the malformed surrogates with {@code '?'}.
+     *
+     * @return the number of encoded bytes
+     */
+    private int encode( String text, int offset, int end )
+    {
+        int length = 0;
+        for ( int i = offset; i < end; i++ )
+        {
+            char c = text.charAt( i );
+            if ( c < 0x80 )
+            {
+                put( (byte) c );
+                length++;
+            }
+            else if ( c < 0x800 )
+            {
+                put( (byte) ( 0xc0 | c >> 6 ) );
+                put( (byte) ( 0x80 | c & 0x3f ) );
+                length += 2;
+            }
+            else if ( Character.isSurrogate( c ) )
+            {
+                char low = i + 1 < end ? text.charAt( i + 1 ) : 0;
+                if ( Character.isHighSurrogate( c ) && Character.isLowSurrogate( low ) )
+                {
+                    int codePoint = Character.toCodePoint( c, low );
+                    put( (byte) ( 0xf0 | codePoint >> 18 ) );
+                    put( (byte) ( 0x80 | codePoint >> 12 & 0x3f ) );
+                    put( (byte) ( 0x80 | codePoint >> 6 & 0x3f ) );
+                    put( (byte) ( 0x80 | codePoint & 0x3f ) );
+                    length += 4;
+                    i++;
+                }
+                else
+                {
+                    put( (byte) '?' );
+                    length++;
+                }
+            }
+            else
+            {
+                put( (byte) ( 0xe0 | c >> 12 ) );
+                put( (byte) ( 0x80 | c >> 6 & 0x3f ) );
+                put( (byte) ( 0x80 | c & 0x3f ) );
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private void put( byte b )
+    {
+        if ( chunksCount == 0 || position == chunks[chunksCount - 1].length )
+        {
+            addChunk();
+        }
+        chunks[chunksCount - 1][position++] = b;
+    }
+
+    private void addSegment( int length, boolean stdout, boolean newLine )
+    {
+        int flags = ( stdout ? STDOUT : 0 ) | ( newLine ? NEW_LINE : 0 );
+        if ( segmentsCount != 0 )
+        {
+            int last = segments[segmentsCount - 1];
+            int lastLength = last >>> 2;
+            // no line break after the last segment of the same stream
+            if ( ( last & NEW_LINE ) == 0 && ( last & STDOUT ) == ( flags & STDOUT )
+                && lastLength <= MAX_SEGMENT_LENGTH - length )
+            {
+                segments[segmentsCount - 1] = ( lastLength + length ) << 2 | flags;
+                return;
+            }
+        }
+
+        if ( segmentsCount == segments.length )
+        {
+            segments = Arrays.copyOf( segments, segmentsCount << 1 );
+        }
+        segments[segmentsCount++] = length << 2 | flags;
+    }
+
+    /**
+     * Allocates the small first chunk, or grows the first chunk up to {@link #CHUNK_SIZE}, or appends a chunk of
+     * {@link #CHUNK_SIZE} bytes from the pool.
+     */
+    private void addChunk()
+    {
+        if ( chunksCount == 0 )
+        {
+            chunks[chunksCount++] = new byte[FIRST_CHUNK_SIZE];
+            position = 0;
+            return;
+        }
+
+        if ( chunksCount == 1 && chunks[0].length < CHUNK_SIZE )
+        {
+            chunks[0] = Arrays.copyOf( chunks[0], Math.min( chunks[0].length << 1, CHUNK_SIZE ) );
+            return;
+        }
+
+        if ( chunksCount == chunks.length )
+        {
+            chunks = Arrays.copyOf( chunks, chunksCount << 1 );
+        }
+        chunks[chunksCount++] = borrowChunk();
+        position = 0;
+    }
+
+    private void recycle()
+    {
+        for ( int i = 0; i < chunksCount; i++ )
+        {
+            if ( chunks[i].length == CHUNK_SIZE )
+            {
+                returnChunk( chunks[i] );
+            }
+            chunks[i] = null;
+        }
+        chunksCount = 0;
+        position = 0;
+        segmentsCount = 0;
+    }
+
+    /**
+     * @return the number of bytes allocated in the chunks
+     */
+    synchronized int getCapacity()
+    {
+        int capacity = 0;
+        for ( int i = 0; i < chunksCount; i++ )
+        {
+            capacity += chunks[i].length;
+        }
+        return capacity;
+    }
+
+    private static byte[] borrowChunk()
+    {
+        synchronized ( CHUNK_POOL )
+        {
+            byte[] chunk = CHUNK_POOL.pollFirst();
+            return chunk == null ? new byte[CHUNK_SIZE] : chunk;
+        }
     }
 
-    void writeDetails( ConsoleOutputReceiver outputReceiver )
+    private static void returnChunk( byte[] chunk )
     {
-        for ( Entry entry = output.poll(); entry != null; entry = output.poll() )
+        synchronized ( CHUNK_POOL )
         {
-            outputReceiver.writeTestOutput( entry.text, entry.newLine, entry.stdout );
+            if ( CHUNK_POOL.size() < MAX_POOLED_CHUNKS )
+            {
+                CHUNK_POOL.addFirst( chunk );
+            }
         }
     }
 }
@@ -0,0 +1,200 @@
+package org.apache.maven.surefire.junitcore.pc;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.surefire.api.report.ConsoleStream;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parallel strategy for a {@link ForkJoinPool} shared by all schedulers in private package.
+ * <br>
+ * A task scheduled in a worker thread of the pool is pushed to the work queue of the worker, where it can be stolen
+ * by idle workers. The call {@link #finished()} in a worker thread joins the tasks, hence the worker runs the pending
+ * tasks of this strategy, or other tasks of the pool, instead of being blocked. If the worker really has to wait,
+ * the pool activates a spare worker so that the parallelism of the pool is kept.
+ *
+ * @see SchedulingStrategies#createParallelWorkStealingStrategy(ConsoleStream, ForkJoinPool)
+ * @since 3.0.0-M6
+ */
+final class ForkJoinPoolStrategy
+    extends SchedulingStrategy
+{
+    private final ForkJoinPool pool;
+
+    private final Collection<Task> tasks = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean isDestroyed;
+
+    ForkJoinPoolStrategy( ConsoleStream logger, ForkJoinPool pool )
+    {
+        super( logger );
+        this.pool = pool;
+    }
+
+    @Override
+    protected void schedule( Runnable task )
+    {
+        if ( task == null )
+        {
+            throw new NullPointerException( "null task" );
+        }
+
+        if ( canSchedule() )
+        {
+            if ( pool.isShutdown() )
+            {
+                throw new RejectedExecutionException( "the pool has been shutdown" );
+            }
+
+            Task forkedTask = new Task( task );
+            tasks.add( forkedTask );
+            Thread currentThread = Thread.currentThread();
+            if ( currentThread instanceof ForkJoinWorkerThread
+                && ( (ForkJoinWorkerThread) currentThread ).getPool() == pool )
+            {
+                forkedTask.fork();
+            }
+            else
+            {
+                pool.execute( forkedTask );
+            }
+        }
+    }
+
+    @Override
+    protected boolean finished()
+    {
+        boolean wasRunningAll = disable();
+        for ( Task task : tasks )
+        {
+            // helps the pool to run the pending tasks, or compensates the blocked worker by a spare one
+            task.quietlyJoin();
+            // cancelled in stop() or stopNow() otherwise
+            if ( !task.isCancelled() && task.isCompletedAbnormally() )
+            {
+                // JUnit core throws exception.
+                logQuietly( task.getException() );
+            }
+        }
+        return wasRunningAll;
+    }
+
+    @Override
+    protected boolean stop()
+    {
+        return stop( false );
+    }
+
+    @Override
+    protected boolean stopNow()
+    {
+        return stop( true );
+    }
+
+    private boolean stop( boolean interrupt )
+    {
+        boolean wasRunning = disable();
+        for ( Task task : tasks )
+        {
+            task.cancel( interrupt );
+        }
+        return wasRunning;
+    }
+
+    @Override
+    protected boolean hasSharedThreadPool()
+    {
+        return true;
+    }
+
+    @Override
+    public boolean destroy()
+    {
+        try
+        {
+            if ( !isDestroyed )//just an optimization
+            {
+                disable();
+                pool.shutdown();
+                isDestroyed |= pool.awaitTermination( Long.MAX_VALUE, TimeUnit.NANOSECONDS );
+            }
+            return isDestroyed;
+        }
+        catch ( InterruptedException e )
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Unlike {@link java.util.concurrent.ForkJoinTask#cancel(boolean)}, the method {@link #cancel(boolean)}
+     * interrupts the running task if called with {@code true}, see {@link java.util.concurrent.Future#cancel(boolean)}.
+     */
+    private static final class Task
+        extends RecursiveAction
+    {
+        private final Runnable runnable;
+
+        private volatile Thread runner;
+
+        Task( Runnable runnable )
+        {
+            this.runnable = runnable;
+        }
+
+        @Override
+        protected void compute()
+        {
+            runner = Thread.currentThread();
+            try
+            {
+                runnable.run();
+            }
+            finally
+            {
+                runner = null;
+                // do not leak the interrupt of a cancelled task to other tasks running in this worker
+                if ( isCancelled() )
+                {
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        @Override
+        public boolean cancel( boolean mayInterruptIfRunning )
+        {
+            boolean cancelled = super.cancel( mayInterruptIfRunning );
+            Thread runner = this.runner;
+            if ( mayInterruptIfRunning && runner != null )
+            {
+                runner.interrupt();
+            }
+            return cancelled;
+        }
+    }
+}
@@ -32,12 +32,14 @@
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ThreadFactory;
 
 import org.apache.maven.surefire.junitcore.JUnitCoreParameters;
 import org.apache.maven.surefire.api.report.ConsoleStream;
 import org.apache.maven.surefire.api.testset.TestSetFailedException;
 import org.apache.maven.surefire.api.util.internal.DaemonThreadFactory;
+import org.apache.maven.surefire.api.util.internal.VirtualThreads;
 import org.junit.internal.runners.ErrorReportingRunner;
 import org.junit.runner.Description;
 import org.junit.runner.Runner;
@@ -52,6 +54,9 @@
 import static org.apache.maven.surefire.junitcore.pc.ParallelComputerUtil.resolveConcurrency;
 import static org.apache.maven.surefire.junitcore.pc.SchedulingStrategies.createParallelStrategy;
 import static org.apache.maven.surefire.junitcore.pc.SchedulingStrategies.createParallelStrategyUnbounded;
+import static org.apache.maven.surefire.junitcore.pc.SchedulingStrategies.createParallelVirtualThreadStrategy;
+import static org.apache.maven.surefire.junitcore.pc.SchedulingStrategies.createParallelWorkStealingStrategy;
+import static org.apache.maven.surefire.junitcore.pc.SchedulingStrategies.newVirtualThreadPool;
 import static org.apache.maven.surefire.junitcore.pc.Type.CLASSES;
 import static org.apache.maven.surefire.junitcore.pc.Type.METHODS;
 import static org.apache.maven.surefire.junitcore.pc.Type.SUITES;
@@ -72,6 +77,14 @@
  * {@link ParallelComputerBuilder#useOnePool(int)} must be greater than the number of concurrent suites and classes
  * altogether.
  * <br>
+ * The one pool is a {@link ForkJoinPool} with the parallelism of the capacity if
+ * {@link ParallelComputerBuilder#workStealing(boolean)}. The threads waiting for the children of suites and classes
+ * run other tests meanwhile, hence the capacity needs not to count them.
+ * <br>
+ * Every test runs in a new virtual thread if {@link ParallelComputerBuilder#virtualThreads(boolean)}, which takes
+ * precedence over the work-stealing pool. The number of threads of suites, classes and methods, and the capacity
+ * of the one pool, limit the number of tests running concurrently instead of the size of the thread pools.
+ * <br>
  * The Computer can be stopped in a separate thread. Pending tests will be interrupted if the argument is
  * {@code true}.
  * <pre>
@@ -91,6 +104,11 @@
 
     static final int TOTAL_POOL_SIZE_UNDEFINED = 0;
 
+    /**
+     * The maximum parallelism of {@link ForkJoinPool}.
+     */
+    private static final int MAX_FORK_JOIN_PARALLELISM = 0x7fff;
+
     private final Map<Type, Integer> parallelGroups = new EnumMap<>( Type.class );
 
     private final ConsoleStream logger;
@@ -103,6 +121,10 @@
 
     private boolean optimize;
 
+    private boolean workStealing;
+
+    private boolean virtualThreads;
+
     private boolean runningInTests;
 
     /**
@@ -125,6 +147,18 @@ public ParallelComputerBuilder( ConsoleStream logger, JUnitCoreParameters parame
         this( logger );
         runningInTests = false;
         this.parameters = parameters;
+        workStealing = parameters.isParallelWorkStealing();
+        if ( parameters.isUseVirtualThreads() )
+        {
+            if ( VirtualThreads.isSupported() )
+            {
+                virtualThreads = true;
+            }
+            else
+            {
+                logger.println( "Virtual threads require Java 21 or later. The tests run in platform threads." );
+            }
+        }
     }
 
     public ParallelComputer buildComputer()
@@ -174,6 +208,38 @@ ParallelComputerBuilder optimize( boolean optimize )
         return this;
     }
 
+    boolean isWorkStealing()
+    {
+        return workStealing;
+    }
+
+    /**
+     * @param workStealing {@code true} to use a {@link ForkJoinPool} in {@link #useOnePool(int)}
+     * @return this builder
+     * @since 3.0.0-M6
+     */
+    ParallelComputerBuilder workStealing( boolean workStealing )
+    {
+        this.workStealing = workStealing;
+        return this;
+    }
+
+    boolean isVirtualThreads()
+    {
+        return virtualThreads;
+    }
+
+    /**
+     * @param virtualThreads {@code true} to run the tests in virtual threads, see {@link VirtualThreads}
+     * @return this builder
+     * @since 3.0.0-M6
+     */
+    ParallelComputerBuilder virtualThreads( boolean virtualThreads )
+    {
+        this.virtualThreads = virtualThreads;
+        return this;
+    }
+
     ParallelComputerBuilder parallelSuites()
     {
         return parallel( SUITES );
@@ -441,11 +507,28 @@ private int countChildren( Runner runner )
 
         private ExecutorService createPool( int poolSize )
         {
+            if ( ParallelComputerBuilder.this.virtualThreads )
+            {
+                return newVirtualThreadPool();
+            }
+            else if ( ParallelComputerBuilder.this.workStealing )
+            {
+                // the worker threads are daemon threads
+                return new ForkJoinPool( Math.min( poolSize, MAX_FORK_JOIN_PARALLELISM ),
+                    ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, false );
+            }
             return poolSize < Integer.MAX_VALUE
                 ? Executors.newFixedThreadPool( poolSize, DAEMON_THREAD_FACTORY )
                 : Executors.newCachedThreadPool( DAEMON_THREAD_FACTORY );
         }
 
+        private SchedulingStrategy createSharedStrategy( ExecutorService pool )
+        {
+            return pool instanceof ForkJoinPool
+                ? createParallelWorkStealingStrategy( ParallelComputerBuilder.this.logger, (ForkJoinPool) pool )
+                : new SharedThreadPoolStrategy( ParallelComputerBuilder.this.logger, pool );
+        }
+
         private Scheduler createMaster( ExecutorService pool, int poolSize )
         {
             // can be 0, 1, 2 or 3
@@ -456,9 +539,10 @@ private Scheduler createMaster( ExecutorService pool, int poolSize )
             {
                 strategy = new InvokerStrategy( ParallelComputerBuilder.this.logger );
             }
-            else if ( pool != null && poolSize == Integer.MAX_VALUE )
+            else if ( pool != null && ( poolSize == Integer.MAX_VALUE || pool instanceof ForkJoinPool
+                || ParallelComputerBuilder.this.virtualThreads ) )
             {
-                strategy = new SharedThreadPoolStrategy( ParallelComputerBuilder.this.logger, pool );
+                strategy = createSharedStrategy( pool );
             }
             else
             {
@@ -539,7 +623,8 @@ private Runner setSchedulers( ParentRunner suiteSuites, ParentRunner suiteClasse
                 // a scheduler for parallel suites
                 if ( commonPool != null && parallelSuites > 0 )
                 {
-                    Balancer balancer = BalancerFactory.createBalancerWithFairness( parallelSuites );
+                    Balancer balancer =
+                        BalancerFactory.createBalancerWithFairness( concurrencyLimit( parallelSuites, poolSize ) );
                     suiteSuites.setScheduler( createScheduler( null, commonPool, true, balancer ) );
                 }
                 else
@@ -557,7 +642,7 @@ private Runner setSchedulers( ParentRunner suiteSuites, ParentRunner suiteClasse
             }
             if ( !allSuites.isEmpty() )
             {
-                setSchedulers( allSuites, parallelClasses, commonPool );
+                setSchedulers( allSuites, parallelClasses, commonPool, poolSize );
             }
 
             // schedulers for parallel methods
@@ -565,7 +650,7 @@ private Runner setSchedulers( ParentRunner suiteSuites, ParentRunner suiteClasse
             allClasses.addAll( nestedClasses );
             if ( !allClasses.isEmpty() )
             {
-                setSchedulers( allClasses, parallelMethods, commonPool );
+                setSchedulers( allClasses, parallelMethods, commonPool, poolSize );
             }
 
             // resulting runner for Computer#getSuite() scheduled by master scheduler
@@ -597,11 +682,13 @@ public void run( RunNotifier notifier )
             };
         }
 
-        private void setSchedulers( Iterable<? extends ParentRunner> runners, int poolSize, ExecutorService commonPool )
+        private void setSchedulers( Iterable<? extends ParentRunner> runners, int poolSize, ExecutorService commonPool,
+                                    int commonPoolSize )
         {
             if ( commonPool != null )
             {
-                Balancer concurrencyLimit = BalancerFactory.createBalancerWithFairness( poolSize );
+                Balancer concurrencyLimit =
+                    BalancerFactory.createBalancerWithFairness( concurrencyLimit( poolSize, commonPoolSize ) );
                 boolean doParallel = poolSize > 0;
                 for ( ParentRunner runner : runners )
                 {
@@ -609,6 +696,20 @@ private void setSchedulers( Iterable<? extends ParentRunner> runners, int poolSi
                         createScheduler( runner.getDescription(), commonPool, doParallel, concurrencyLimit ) );
                 }
             }
+            else if ( ParallelComputerBuilder.this.virtualThreads )
+            {
+                // the pool size limits the concurrency of all runners together
+                ExecutorService pool = poolSize > 0 ? newVirtualThreadPool() : null;
+                Balancer concurrencyLimit = poolSize == Integer.MAX_VALUE
+                    ? BalancerFactory.createInfinitePermitsBalancer()
+                    : BalancerFactory.createBalancerWithFairness( poolSize );
+                boolean doParallel = pool != null;
+                for ( ParentRunner runner : runners )
+                {
+                    runner.setScheduler(
+                        createScheduler( runner.getDescription(), pool, doParallel, concurrencyLimit ) );
+                }
+            }
             else
             {
                 ExecutorService pool = null;
@@ -634,13 +735,31 @@ private Scheduler createScheduler( Description desc, ExecutorService pool, boole
         {
             SchedulingStrategy strategy =
                     doParallel & pool != null
-                    ? new SharedThreadPoolStrategy( ParallelComputerBuilder.this.logger, pool )
+                    ? createSharedStrategy( pool )
                     : new InvokerStrategy( ParallelComputerBuilder.this.logger );
             return new Scheduler( ParallelComputerBuilder.this.logger, desc, master, strategy, concurrency );
         }
 
+        /**
+         * The virtual threads do not occupy the threads of the one pool while they are waiting for the children,
+         * hence the capacity of the pool limits the number of the running children of every type.
+         */
+        private int concurrencyLimit( int parallel, int poolSize )
+        {
+            return ParallelComputerBuilder.this.virtualThreads ? Math.min( parallel, poolSize ) : parallel;
+        }
+
         private Scheduler createScheduler( int poolSize )
         {
+            if ( ParallelComputerBuilder.this.virtualThreads && poolSize > 0 )
+            {
+                Balancer concurrencyLimit = poolSize == Integer.MAX_VALUE
+                    ? BalancerFactory.createInfinitePermitsBalancer()
+                    : BalancerFactory.createBalancer( poolSize );
+                return new Scheduler( ParallelComputerBuilder.this.logger, null, master,
+                    createParallelVirtualThreadStrategy( ParallelComputerBuilder.this.logger ), concurrencyLimit );
+            }
+
             final SchedulingStrategy strategy;
             if ( poolSize == Integer.MAX_VALUE )
             {
@@ -21,9 +21,11 @@
 
 import org.apache.maven.surefire.api.report.ConsoleStream;
 import org.apache.maven.surefire.api.util.internal.DaemonThreadFactory;
+import org.apache.maven.surefire.api.util.internal.VirtualThreads;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ThreadFactory;
 
 /**
@@ -65,6 +67,30 @@ public static SchedulingStrategy createParallelStrategyUnbounded( ConsoleStream
         return new NonSharedThreadPoolStrategy( logger, Executors.newCachedThreadPool( DAEMON_THREAD_FACTORY ) );
     }
 
+    /**
+     * Each task runs in a new virtual thread. The concurrency is not limited by the strategy, hence the
+     * {@link Scheduler} should limit it by a {@link Balancer}.
+     *
+     * @param logger current error logger
+     * @return parallel scheduling strategy running the tasks in virtual threads
+     * @throws UnsupportedOperationException if the JVM does not support virtual threads (Java 21+)
+     * @since 3.0.0-M6
+     */
+    public static SchedulingStrategy createParallelVirtualThreadStrategy( ConsoleStream logger )
+    {
+        return new NonSharedThreadPoolStrategy( logger, newVirtualThreadPool() );
+    }
+
+    /**
+     * @return new executor of the tasks in virtual threads, see {@link VirtualThreads}
+     * @throws UnsupportedOperationException if the JVM does not support virtual threads (Java 21+)
+     * @since 3.0.0-M6
+     */
+    static ExecutorService newVirtualThreadPool()
+    {
+        return VirtualThreads.newVirtualThreadPerTaskExecutor( "surefire-virtual-thread-" );
+    }
+
     /**
      * The <tt>threadPool</tt> passed to this strategy can be shared in other strategies.
      * <br>
@@ -86,4 +112,27 @@ public static SchedulingStrategy createParallelSharedStrategy( ConsoleStream log
         }
         return new SharedThreadPoolStrategy( logger, threadPool );
     }
+
+    /**
+     * The <tt>pool</tt> passed to this strategy can be shared in other strategies, see
+     * {@link #createParallelSharedStrategy(ConsoleStream, ExecutorService)}.
+     * <br>
+     * The tasks scheduled in a worker thread of the <tt>pool</tt> are forked to the queue of the worker, and
+     * the call {@link SchedulingStrategy#finished()} in the worker joins them. Thus an idle worker steals the tasks
+     * and the worker waiting for own tasks to finish runs other tasks instead of being blocked.
+     *
+     * @param logger current error logger
+     * @param pool work-stealing pool possibly shared with other strategies
+     * @return parallel strategy with shared work-stealing pool
+     * @throws NullPointerException if <tt>pool</tt> is null
+     * @since 3.0.0-M6
+     */
+    public static SchedulingStrategy createParallelWorkStealingStrategy( ConsoleStream logger, ForkJoinPool pool )
+    {
+        if ( pool == null )
+        {
+            throw new NullPointerException( "null pool in #createParallelWorkStealingStrategy" );
+        }
+        return new ForkJoinPoolStrategy( logger, pool );
+    }
 }
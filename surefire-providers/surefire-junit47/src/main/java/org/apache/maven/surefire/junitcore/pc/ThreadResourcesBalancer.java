@@ -19,6 +19,8 @@
  * under the License.
  */
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.Semaphore;
 
 /**
@@ -64,6 +66,9 @@
 
     /**
      * Acquires a permit from this balancer, blocking until one is available.
+     * <br>
+     * A worker thread of {@link ForkJoinPool} is blocked via {@link ForkJoinPool#managedBlock}, so that the pool
+     * can activate a spare worker meanwhile.
      *
      * @return {@code true} if current thread is <b>NOT</b> interrupted
      *         while waiting for a permit.
@@ -73,7 +78,14 @@ public boolean acquirePermit()
     {
         try
         {
-            balancer.acquire();
+            if ( Thread.currentThread() instanceof ForkJoinWorkerThread )
+            {
+                ForkJoinPool.managedBlock( new PermitBlocker() );
+            }
+            else
+            {
+                balancer.acquire();
+            }
             return true;
         }
         catch ( InterruptedException e )
@@ -96,4 +108,28 @@ public void releaseAllPermits()
     {
         balancer.release( numPermits );
     }
-}
\ No newline at end of file
+
+    private final class PermitBlocker
+        implements ForkJoinPool.ManagedBlocker
+    {
+        private boolean hasPermit;
+
+        @Override
+        public boolean block()
+            throws InterruptedException
+        {
+            if ( !hasPermit )
+            {
+                balancer.acquire();
+                hasPermit = true;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable()
+        {
+            return hasPermit || ( hasPermit = balancer.tryAcquire() );
+        }
+    }
+}
@@ -45,6 +45,7 @@ public static Test suite()
         suite.addTestSuite( MavenSurefireJUnit47RunnerTest.class );
         suite.addTestSuite( MavenSurefireJUnit48RunnerTest.class );
         suite.addTestSuite( TestMethodTest.class );
+        suite.addTestSuite( LogicalStreamTest.class );
         suite.addTest( new JUnit4TestAdapter( Surefire746Test.class ) );
         suite.addTest( new JUnit4TestAdapter( Surefire813IncorrectResultTest.class ) );
         suite.addTest( new JUnit4TestAdapter( ParallelComputerUtilTest.class ) );
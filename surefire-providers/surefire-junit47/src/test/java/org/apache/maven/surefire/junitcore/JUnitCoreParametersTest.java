@@ -48,6 +48,8 @@ public void defaultParameters()
         assertThat( newTestSetDefault().getParallelTestsTimeoutInSeconds(), is( 0d ) );
         assertThat( newTestSetDefault().getParallelTestsTimeoutForcedInSeconds(), is( 0d ) );
         assertTrue( newTestSetDefault().isParallelOptimization() );
+        assertFalse( newTestSetDefault().isParallelWorkStealing() );
+        assertFalse( newTestSetDefault().isUseVirtualThreads() );
     }
 
     @Test
@@ -56,6 +58,22 @@ public void optimizationParameter()
         assertFalse( newTestSetOptimization( false ).isParallelOptimization() );
     }
 
+    @Test
+    public void workStealingParameter()
+    {
+        Map<String, String> props = new HashMap<>();
+        props.put( JUnitCoreParameters.PARALLEL_WORKSTEALING_KEY, "true" );
+        assertTrue( new JUnitCoreParameters( props ).isParallelWorkStealing() );
+    }
+
+    @Test
+    public void virtualThreadsParameter()
+    {
+        Map<String, String> props = new HashMap<>();
+        props.put( JUnitCoreParameters.USEVIRTUALTHREADS_KEY, "true" );
+        assertTrue( new JUnitCoreParameters( props ).isUseVirtualThreads() );
+    }
+
     @Test
     public void timeoutParameters()
     {
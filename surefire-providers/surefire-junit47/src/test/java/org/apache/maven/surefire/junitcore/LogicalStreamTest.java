@@ -0,0 +1,141 @@
+package org.apache.maven.surefire.junitcore;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+import org.apache.maven.surefire.api.report.ConsoleOutputReceiver;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.nCopies;
+
+/**
+ * The buffered output must be replayed in the order of writes, and the chunks are recycled.
+ */
+public class LogicalStreamTest
+    extends TestCase
+{
+    public void testShouldReplayStdoutAndStderrInOrder()
+    {
+        LogicalStream stream = new LogicalStream();
+        stream.write( true, "out1", true );
+        stream.write( false, "err1", true );
+        stream.write( true, "out2", false );
+        stream.write( false, "err2", false );
+        stream.write( true, "", true );
+
+        Receiver receiver = new Receiver();
+        stream.writeDetails( receiver );
+
+        assertEquals( asList( "out1\n", "[err]err1\n", "out2", "[err]err2", "\n" ), receiver.writes );
+    }
+
+    public void testShouldMergeWritesWithoutLineBreak()
+    {
+        LogicalStream stream = new LogicalStream();
+        stream.write( true, "a", false );
+        stream.write( true, "b", false );
+        stream.write( true, "c", true );
+        stream.write( true, "d", false );
+        stream.write( true, "", false );
+        stream.write( false, "e", true );
+
+        Receiver receiver = new Receiver();
+        stream.writeDetails( receiver );
+
+        assertEquals( asList( "abc\n", "d", "[err]e\n" ), receiver.writes );
+    }
+
+    public void testShouldReplayTextAcrossChunks()
+    {
+        String line = join( nCopies( LogicalStream.CHUNK_SIZE / 3, "xyz" ) ) + "!";
+        String big = join( nCopies( 3 * LogicalStream.CHUNK_SIZE, "0" ) );
+
+        LogicalStream stream = new LogicalStream();
+        stream.write( true, line, true );
+        stream.write( false, big, true );
+        stream.write( true, line, true );
+
+        Receiver receiver = new Receiver();
+        stream.writeDetails( receiver );
+
+        assertEquals( asList( line + "\n", "[err]" + big + "\n", line + "\n" ), receiver.writes );
+    }
+
+    public void testShouldGrowFirstChunk()
+    {
+        LogicalStream stream = new LogicalStream();
+        stream.write( true, "hello", true );
+        assertEquals( LogicalStream.FIRST_CHUNK_SIZE, stream.getCapacity() );
+
+        String line = join( nCopies( LogicalStream.FIRST_CHUNK_SIZE, "\u00e9" ) );
+        stream.write( false, line, true );
+        assertEquals( 4 * LogicalStream.FIRST_CHUNK_SIZE, stream.getCapacity() );
+
+        String big = join( nCopies( LogicalStream.CHUNK_SIZE, "0" ) );
+        stream.write( true, big, false );
+        assertEquals( 2 * LogicalStream.CHUNK_SIZE, stream.getCapacity() );
+
+        Receiver receiver = new Receiver();
+        stream.writeDetails( receiver );
+
+        assertEquals( asList( "hello\n", "[err]" + line + "\n", big ), receiver.writes );
+        assertEquals( 0, stream.getCapacity() );
+    }
+
+    public void testShouldRecycleAfterReplay()
+    {
+        LogicalStream stream = new LogicalStream();
+        stream.write( true, "first", true );
+        stream.writeDetails( new Receiver() );
+
+        Receiver receiver = new Receiver();
+        stream.writeDetails( receiver );
+        assertTrue( receiver.writes.isEmpty() );
+
+        stream.write( true, "second", true );
+        stream.writeDetails( receiver );
+        assertEquals( asList( "second\n" ), receiver.writes );
+    }
+
+    private static String join( List<String> strings )
+    {
+        StringBuilder builder = new StringBuilder();
+        for ( String s : strings )
+        {
+            builder.append( s );
+        }
+        return builder.toString();
+    }
+
+    private static final class Receiver
+        implements ConsoleOutputReceiver
+    {
+        final List<String> writes = new ArrayList<>();
+
+        @Override
+        public void writeTestOutput( String output, boolean newLine, boolean stdout )
+        {
+            writes.add( ( stdout ? "" : "[err]" ) + output + ( newLine ? "\n" : "" ) );
+        }
+    }
+}
@@ -22,6 +22,8 @@
 import net.jcip.annotations.NotThreadSafe;
 import org.apache.maven.surefire.api.report.ConsoleStream;
 import org.apache.maven.surefire.api.report.DefaultDirectConsoleReporter;
+import org.apache.maven.surefire.api.util.internal.VirtualThreads;
+import org.apache.maven.surefire.junitcore.JUnitCoreParameters;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -42,8 +44,10 @@
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
 
@@ -58,6 +62,7 @@
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assume.assumeTrue;
 
 /**
  * @author Tibor Digana (tibor17)
@@ -266,6 +271,80 @@ public void underflowParallelism()
         assertThat( timeSpent, between( 2000 * DELAY_MULTIPLIER - 50, 2250 * DELAY_MULTIPLIER ) );
     }
 
+    @Test( timeout = 2000 * DELAY_MULTIPLIER )
+    public void workStealingPoolRunsMethodsInWaitingThreads()
+    {
+        ParallelComputerBuilder parallelComputerBuilder = new ParallelComputerBuilder( LOGGER );
+        parallelComputerBuilder.useOnePool( 3 ).workStealing( true );
+
+        // The threads of the suite and the classes are waiting for own children, and they run the methods
+        // meanwhile. A fixed pool with the capacity 3 would have no thread left for the methods.
+        parallelComputerBuilder.parallelSuites( 1 );
+        parallelComputerBuilder.parallelClasses( 2 );
+        parallelComputerBuilder.parallelMethods( 2 );
+
+        assertTrue( parallelComputerBuilder.isWorkStealing() );
+        assertFalse( parallelComputerBuilder.isOptimized() );
+
+        ParallelComputerBuilder.PC computer = (ParallelComputerBuilder.PC) parallelComputerBuilder.buildComputer();
+        final JUnitCore core = new JUnitCore();
+        final long t1 = systemMillis();
+        final Result result = core.run( computer, TestSuite.class );
+        final long t2 = systemMillis();
+        final long timeSpent = t2 - t1;
+
+        assertThat( computer.getSuites().size(), is( 1 ) );
+        assertThat( computer.getClasses().size(), is( 0 ) );
+        assertThat( computer.getNestedClasses().size(), is( 2 ) );
+        assertFalse( computer.isSplitPool() );
+        assertThat( computer.getPoolCapacity(), is( 3 ) );
+        assertTrue( result.wasSuccessful() );
+        assertThat( Class1.maxConcurrentMethods, is( 2 ) );
+        assertThat( timeSpent, between( 1000 * DELAY_MULTIPLIER - 50, 1250 * DELAY_MULTIPLIER ) );
+    }
+
+    @Test( timeout = 2000 * DELAY_MULTIPLIER )
+    public void virtualThreadsRunMethodsWhileParentsAreWaiting()
+    {
+        assumeTrue( VirtualThreads.isSupported() );
+
+        ParallelComputerBuilder parallelComputerBuilder = new ParallelComputerBuilder( LOGGER );
+        parallelComputerBuilder.useOnePool( 3 ).virtualThreads( true );
+
+        // The virtual threads of the suite and the classes are waiting for own children without occupying
+        // the capacity 3, which limits the number of concurrent children of every type.
+        parallelComputerBuilder.parallelSuites( 1 );
+        parallelComputerBuilder.parallelClasses( 2 );
+        parallelComputerBuilder.parallelMethods( 2 );
+
+        assertTrue( parallelComputerBuilder.isVirtualThreads() );
+        assertFalse( parallelComputerBuilder.isOptimized() );
+
+        ParallelComputerBuilder.PC computer = (ParallelComputerBuilder.PC) parallelComputerBuilder.buildComputer();
+        final JUnitCore core = new JUnitCore();
+        final long t1 = systemMillis();
+        final Result result = core.run( computer, TestSuite.class );
+        final long t2 = systemMillis();
+        final long timeSpent = t2 - t1;
+
+        assertThat( computer.getSuites().size(), is( 1 ) );
+        assertThat( computer.getNestedClasses().size(), is( 2 ) );
+        assertFalse( computer.isSplitPool() );
+        assertTrue( result.wasSuccessful() );
+        assertThat( Class1.maxConcurrentMethods, is( 2 ) );
+        assertThat( timeSpent, between( 1000 * DELAY_MULTIPLIER - 50, 1250 * DELAY_MULTIPLIER ) );
+    }
+
+    @Test
+    public void virtualThreadsRequireJava21()
+    {
+        Map<String, String> properties = new HashMap<>();
+        properties.put( JUnitCoreParameters.USEVIRTUALTHREADS_KEY, "true" );
+        ParallelComputerBuilder parallelComputerBuilder =
+            new ParallelComputerBuilder( LOGGER, new JUnitCoreParameters( properties ) );
+        assertThat( parallelComputerBuilder.isVirtualThreads(), is( VirtualThreads.isSupported() ) );
+    }
+
     @Test
     public void separatePoolsWithSuite()
     {
@@ -21,15 +21,18 @@
 
 import org.apache.maven.surefire.api.report.ConsoleStream;
 import org.apache.maven.surefire.api.report.DefaultDirectConsoleReporter;
+import org.apache.maven.surefire.api.util.internal.VirtualThreads;
 import org.junit.Test;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ThreadFactory;
 
 import static org.apache.maven.surefire.api.util.internal.DaemonThreadFactory.newDaemonThreadFactory;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
 
 /**
  * Tests the factories in SchedulingStrategy.
@@ -161,6 +164,88 @@ public void infinitePoolStrategy()
         assertTrue( task2.result );
     }
 
+    @Test( expected = NullPointerException.class )
+    public void workStealingStrategyNullPool()
+    {
+        SchedulingStrategies.createParallelWorkStealingStrategy( logger, null );
+    }
+
+    @Test
+    public void workStealingStrategy()
+        throws InterruptedException
+    {
+        ForkJoinPool pool = new ForkJoinPool( 2 );
+
+        SchedulingStrategy strategy1 = SchedulingStrategies.createParallelWorkStealingStrategy( logger, pool );
+        assertTrue( strategy1.hasSharedThreadPool() );
+        assertTrue( strategy1.canSchedule() );
+
+        final SchedulingStrategy strategy2 = SchedulingStrategies.createParallelWorkStealingStrategy( logger, pool );
+        assertTrue( strategy2.hasSharedThreadPool() );
+        assertTrue( strategy2.canSchedule() );
+
+        final Task task1 = new Task();
+        final Task task2 = new Task();
+        final Task task3 = new Task();
+
+        // the nested tasks are scheduled and awaited in a worker thread of the pool
+        strategy1.schedule( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                strategy2.schedule( task1 );
+                strategy2.schedule( task2 );
+                try
+                {
+                    task3.result = strategy2.finished();
+                }
+                catch ( InterruptedException e )
+                {
+                    throw new IllegalStateException( e );
+                }
+            }
+        } );
+
+        assertTrue( strategy1.canSchedule() );
+
+        assertTrue( strategy1.finished() );
+        assertFalse( strategy1.canSchedule() );
+        assertFalse( strategy2.canSchedule() );
+
+        assertTrue( task1.result );
+        assertTrue( task2.result );
+        assertTrue( task3.result );
+
+        assertTrue( strategy1.destroy() );
+        assertTrue( pool.isTerminated() );
+    }
+
+    @Test
+    public void virtualThreadStrategy()
+        throws InterruptedException
+    {
+        assumeTrue( VirtualThreads.isSupported() );
+
+        SchedulingStrategy strategy = SchedulingStrategies.createParallelVirtualThreadStrategy( logger );
+        assertFalse( strategy.hasSharedThreadPool() );
+        assertTrue( strategy.canSchedule() );
+
+        Task task1 = new Task();
+        Task task2 = new Task();
+
+        strategy.schedule( task1 );
+        strategy.schedule( task2 );
+
+        assertTrue( strategy.canSchedule() );
+
+        assertTrue( strategy.finished() );
+        assertFalse( strategy.canSchedule() );
+
+        assertTrue( task1.result );
+        assertTrue( task2.result );
+    }
+
     static class Task
         implements Runnable
     {
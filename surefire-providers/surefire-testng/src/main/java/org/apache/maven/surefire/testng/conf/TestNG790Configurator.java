@@ -0,0 +1,154 @@
+package org.apache.maven.surefire.testng.conf;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.surefire.api.testset.TestSetFailedException;
+import org.apache.maven.surefire.api.util.internal.VirtualThreads;
+import org.testng.TestNG;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.Boolean.parseBoolean;
+import static org.apache.maven.surefire.api.booter.ProviderParameterNames.USEVIRTUALTHREADS_PROP;
+import static org.apache.maven.surefire.api.util.ReflectionUtils.invokeSetter;
+
+/**
+ * TestNG 7.9.0 configurator. TestNG creates its thread pools by a pluggable executor service factory.
+ * If the option {@code usevirtualthreads} is set, the pools of TestNG keep their size given by the thread count,
+ * however their threads are virtual. Uses reflection since the factory does not exist in the former versions.
+ *
+ * @since 3.0.0-M6
+ */
+public class TestNG790Configurator extends TestNG740Configurator
+{
+    private static final String SET_EXECUTOR_SERVICE_FACTORY = "setExecutorServiceFactory";
+
+    @Override
+    public void configure( TestNG testng, Map<String, String> options )
+        throws TestSetFailedException
+    {
+        super.configure( testng, options );
+
+        if ( parseBoolean( options.get( USEVIRTUALTHREADS_PROP ) ) && VirtualThreads.isSupported() )
+        {
+            Method setter = findExecutorServiceFactorySetter( testng.getClass() );
+            if ( setter != null )
+            {
+                Class<?> factoryType = setter.getParameterTypes()[0];
+                Object factory = Proxy.newProxyInstance( factoryType.getClassLoader(), new Class<?>[] {factoryType},
+                    new VirtualThreadPoolFactory() );
+                invokeSetter( testng, setter, factory );
+            }
+        }
+    }
+
+    static Method findExecutorServiceFactorySetter( Class<?> testngType )
+    {
+        for ( Method method : testngType.getMethods() )
+        {
+            Class<?>[] parameters = method.getParameterTypes();
+            if ( SET_EXECUTOR_SERVICE_FACTORY.equals( method.getName() )
+                && parameters.length == 1 && parameters[0].isInterface() )
+            {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Implements the method of TestNG's factory which returns {@link ExecutorService}. The arguments are taken by
+     * their types, and the {@link ThreadFactory} is replaced with the factory of virtual threads. The arguments of
+     * other types are rejected.
+     */
+    static final class VirtualThreadPoolFactory
+        implements InvocationHandler
+    {
+        private final ThreadFactory threadFactory = VirtualThreads.newVirtualThreadFactory( "testng-" );
+
+        @Override
+        public Object invoke( Object proxy, Method method, Object[] args )
+        {
+            switch ( method.getName() )
+            {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode( proxy );
+                case "toString":
+                    return "virtual thread pool factory";
+                default:
+                    if ( method.getReturnType() != ExecutorService.class )
+                    {
+                        throw new UnsupportedOperationException( method.toString() );
+                    }
+                    return newThreadPool( args );
+            }
+        }
+
+        @SuppressWarnings( "unchecked" )
+        private ExecutorService newThreadPool( Object[] args )
+        {
+            int[] poolSizes = new int[2];
+            int poolSizeIndex = 0;
+            long keepAliveTime = 0L;
+            TimeUnit unit = TimeUnit.MILLISECONDS;
+            BlockingQueue<Runnable> queue = null;
+            for ( Object arg : args == null ? new Object[0] : args )
+            {
+                if ( arg instanceof Integer && poolSizeIndex < poolSizes.length )
+                {
+                    poolSizes[poolSizeIndex++] = (Integer) arg;
+                }
+                else if ( arg instanceof Long )
+                {
+                    keepAliveTime = (Long) arg;
+                }
+                else if ( arg instanceof TimeUnit )
+                {
+                    unit = (TimeUnit) arg;
+                }
+                else if ( arg instanceof BlockingQueue )
+                {
+                    queue = (BlockingQueue<Runnable>) arg;
+                }
+                else if ( !( arg instanceof ThreadFactory ) )
+                {
+                    throw new UnsupportedOperationException( "Unknown thread pool argument of TestNG " + arg );
+                }
+            }
+
+            if ( poolSizeIndex != poolSizes.length || queue == null )
+            {
+                throw new UnsupportedOperationException( "Unknown thread pool arguments of TestNG" );
+            }
+
+            return new ThreadPoolExecutor( poolSizes[0], poolSizes[1], keepAliveTime, unit, queue, threadFactory );
+        }
+    }
+}
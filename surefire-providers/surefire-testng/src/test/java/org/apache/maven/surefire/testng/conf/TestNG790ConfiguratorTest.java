@@ -0,0 +1,157 @@
+package org.apache.maven.surefire.testng.conf;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import junit.framework.TestCase;
+import org.apache.maven.surefire.api.util.internal.VirtualThreads;
+import org.apache.maven.surefire.testng.conf.TestNG790Configurator.VirtualThreadPoolFactory;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.apache.maven.surefire.testng.conf.TestNG790Configurator.findExecutorServiceFactorySetter;
+
+/**
+ * The virtual threads are available only on Java 21+, otherwise the checks of the thread pools are skipped.
+ */
+public class TestNG790ConfiguratorTest
+    extends TestCase
+{
+    public void testShouldFindExecutorServiceFactorySetter()
+    {
+        Method setter = findExecutorServiceFactorySetter( TestNGWithFactory.class );
+        assertNotNull( setter );
+        assertEquals( "setExecutorServiceFactory", setter.getName() );
+        assertEquals( ExecutorServiceFactory.class, setter.getParameterTypes()[0] );
+
+        assertNull( findExecutorServiceFactorySetter( TestNGWithoutFactory.class ) );
+    }
+
+    public void testShouldMapArgumentsOfThreadPool()
+        throws Exception
+    {
+        if ( !VirtualThreads.isSupported() )
+        {
+            return;
+        }
+
+        ArrayBlockingQueue<Runnable> queue = new ArrayBlockingQueue<>( 10 );
+        ExecutorService executor =
+            newFactory().create( 2, 4, 30L, SECONDS, queue, Executors.defaultThreadFactory() );
+        try
+        {
+            assertTrue( executor instanceof ThreadPoolExecutor );
+            ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+            assertEquals( 2, pool.getCorePoolSize() );
+            assertEquals( 4, pool.getMaximumPoolSize() );
+            assertEquals( 30L, pool.getKeepAliveTime( SECONDS ) );
+            assertSame( queue, pool.getQueue() );
+
+            Thread thread = executor.submit( new Callable<Thread>()
+            {
+                @Override
+                public Thread call()
+                {
+                    return Thread.currentThread();
+                }
+            } ).get();
+            assertTrue( thread.getName().startsWith( "testng-" ) );
+            assertTrue( (Boolean) Thread.class.getMethod( "isVirtual" ).invoke( thread ) );
+        }
+        finally
+        {
+            executor.shutdown();
+            assertTrue( executor.awaitTermination( 10, SECONDS ) );
+        }
+    }
+
+    public void testShouldRejectUnknownArgumentsOfThreadPool()
+    {
+        if ( !VirtualThreads.isSupported() )
+        {
+            return;
+        }
+
+        try
+        {
+            newFactory().create( 2, 4, 30L, SECONDS, new ArrayBlockingQueue<Runnable>( 10 ), "unknown" );
+            fail();
+        }
+        catch ( UnsupportedOperationException e )
+        {
+            assertEquals( "Unknown thread pool argument of TestNG unknown", e.getLocalizedMessage() );
+        }
+
+        try
+        {
+            newFactory().create( 2, new ArrayBlockingQueue<Runnable>( 10 ) );
+            fail();
+        }
+        catch ( UnsupportedOperationException e )
+        {
+            assertEquals( "Unknown thread pool arguments of TestNG", e.getLocalizedMessage() );
+        }
+    }
+
+    private static ExecutorServiceFactory newFactory()
+    {
+        return (ExecutorServiceFactory) Proxy.newProxyInstance( ExecutorServiceFactory.class.getClassLoader(),
+            new Class<?>[] {ExecutorServiceFactory.class}, new VirtualThreadPoolFactory() );
+    }
+
+    /**
+     * The factory of thread pools in TestNG 7.9.0.
+     */
+    public interface ExecutorServiceFactory
+    {
+        ExecutorService create( int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+                                BlockingQueue<Runnable> workQueue, Object threadFactory );
+
+        ExecutorService create( int poolSize, BlockingQueue<Runnable> workQueue );
+    }
+
+    /**
+     * TestNG 7.9.0.
+     */
+    public static class TestNGWithFactory
+    {
+        public void setExecutorServiceFactory( ExecutorServiceFactory factory )
+        {
+        }
+    }
+
+    /**
+     * TestNG before 7.9.0.
+     */
+    public static class TestNGWithoutFactory
+    {
+        public void setExecutorServiceFactory( String factory )
+        {
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package org.apache.maven.plugins.surefire.report;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Persistent index of the parsed XML reports stored in the file {@link #INDEX_FILE_NAME} in the reports directory.
+ * The report is parsed again only if its path, last modification time or size has changed since the index has been
+ * stored.
+ * <br>
+ * The index is a binary file of the {@link ReportTestSuite suites} and their {@link ReportTestCase test cases} per
+ * report file. An index of another version or a corrupted index is ignored and the reports are parsed again.
+ *
+ * @since 3.0.0-M6
+ */
+final class ReportIndex
+{
+    static final String INDEX_FILE_NAME = ".surefire-report-index";
+
+    private static final int MAGIC = 0x53524958;
+
+    private static final int VERSION = 1;
+
+    private final File indexFile;
+
+    private final Map<String, Entry> storedEntries;
+
+    private final Map<String, Entry> currentEntries = new LinkedHashMap<>();
+
+    private int hits;
+
+    private boolean modified;
+
+    private ReportIndex( File indexFile, Map<String, Entry> storedEntries )
+    {
+        this.indexFile = indexFile;
+        this.storedEntries = storedEntries;
+    }
+
+    /**
+     * Loads the index of the reports directory.
+     *
+     * @param reportsDirectory the reports directory
+     * @return the index, empty if the index file does not exist
+     * @throws IOException the index file cannot be read or it is corrupted
+     */
+    static ReportIndex load( File reportsDirectory )
+        throws IOException
+    {
+        File indexFile = new File( reportsDirectory, INDEX_FILE_NAME );
+        Map<String, Entry> entries = new HashMap<>();
+        if ( indexFile.isFile() )
+        {
+            try ( DataInputStream in =
+                      new DataInputStream( new BufferedInputStream( new FileInputStream( indexFile ), 64 * 1024 ) ) )
+            {
+                if ( in.readInt() != MAGIC || in.readInt() != VERSION )
+                {
+                    throw new IOException( "Unknown format of the report index " + indexFile );
+                }
+                for ( int i = 0, size = in.readInt(); i < size; i++ )
+                {
+                    String reportFile = readString( in );
+                    long lastModified = in.readLong();
+                    long length = in.readLong();
+                    entries.put( reportFile, new Entry( lastModified, length, readSuites( in ) ) );
+                }
+            }
+        }
+        return new ReportIndex( indexFile, entries );
+    }
+
+    /**
+     * Creates an empty index which overrides the index file of the reports directory when it is stored.
+     *
+     * @param reportsDirectory the reports directory
+     * @return empty index
+     */
+    static ReportIndex empty( File reportsDirectory )
+    {
+        return new ReportIndex( new File( reportsDirectory, INDEX_FILE_NAME ), new HashMap<String, Entry>() );
+    }
+
+    /**
+     * @param reportFile   path of the report relative to the reports directory
+     * @param lastModified the last modification time of the report
+     * @param length       the size of the report in bytes
+     * @return the suites of the report or null if the report is not indexed or it has changed
+     */
+    synchronized List<ReportTestSuite> get( String reportFile, long lastModified, long length )
+    {
+        Entry entry = storedEntries.get( reportFile );
+        if ( entry != null && entry.lastModified == lastModified && entry.length == length )
+        {
+            currentEntries.put( reportFile, entry );
+            hits++;
+            return entry.suites;
+        }
+        return null;
+    }
+
+    synchronized void put( String reportFile, long lastModified, long length, List<ReportTestSuite> suites )
+    {
+        currentEntries.put( reportFile, new Entry( lastModified, length, suites ) );
+        modified = true;
+    }
+
+    synchronized int getHits()
+    {
+        return hits;
+    }
+
+    /**
+     * Writes the entries of the reports which have been read since the index was loaded. The index file is not
+     * written if the reports have not changed.
+     *
+     * @throws IOException error writing the index file
+     */
+    synchronized void store()
+        throws IOException
+    {
+        if ( !modified && currentEntries.size() == storedEntries.size() )
+        {
+            return;
+        }
+
+        File tmpIndexFile = new File( indexFile.getParentFile(), indexFile.getName() + ".tmp" );
+        try ( DataOutputStream out =
+                  new DataOutputStream( new BufferedOutputStream( new FileOutputStream( tmpIndexFile ), 64 * 1024 ) ) )
+        {
+            out.writeInt( MAGIC );
+            out.writeInt( VERSION );
+            out.writeInt( currentEntries.size() );
+            for ( Map.Entry<String, Entry> entry : currentEntries.entrySet() )
+            {
+                writeString( out, entry.getKey() );
+                out.writeLong( entry.getValue().lastModified );
+                out.writeLong( entry.getValue().length );
+                writeSuites( out, entry.getValue().suites );
+            }
+        }
+        Files.move( tmpIndexFile.toPath(), indexFile.toPath(), REPLACE_EXISTING );
+    }
+
+    private static void writeSuites( DataOutputStream out, List<ReportTestSuite> suites )
+        throws IOException
+    {
+        out.writeInt( suites.size() );
+        for ( ReportTestSuite suite : suites )
+        {
+            writeString( out, suite.getFullClassName() );
+            writeString( out, suite.getName() );
+            writeString( out, suite.getPackageName() );
+            out.writeInt( suite.getNumberOfErrors() );
+            out.writeInt( suite.getNumberOfFailures() );
+            out.writeInt( suite.getNumberOfSkipped() );
+            out.writeInt( suite.getNumberOfFlakes() );
+            out.writeBoolean( suite.hasNumberOfTests() );
+            out.writeInt( suite.getNumberOfTests() );
+            out.writeFloat( suite.getTimeElapsed() );
+            out.writeInt( suite.getTestCases().size() );
+            for ( ReportTestCase testCase : suite.getTestCases() )
+            {
+                writeString( out, testCase.getFullClassName() );
+                writeString( out, testCase.getClassName() );
+                writeString( out, testCase.getFullName() );
+                writeString( out, testCase.getName() );
+                out.writeFloat( testCase.getTime() );
+                writeString( out, testCase.getFailureMessage() );
+                writeString( out, testCase.getFailureType() );
+                writeString( out, testCase.getFailureErrorLine() );
+                writeString( out, testCase.getFailureDetail() );
+                out.writeBoolean( testCase.hasFailure() );
+                out.writeBoolean( testCase.hasError() );
+                out.writeBoolean( testCase.hasSkipped() );
+            }
+        }
+    }
+
+    private static List<ReportTestSuite> readSuites( DataInputStream in )
+        throws IOException
+    {
+        int suitesCount = in.readInt();
+        List<ReportTestSuite> suites = new ArrayList<>( suitesCount );
+        for ( int i = 0; i < suitesCount; i++ )
+        {
+            ReportTestSuite suite = new ReportTestSuite();
+            String fullClassName = readString( in );
+            if ( fullClassName != null )
+            {
+                suite.setFullClassName( fullClassName );
+            }
+            suite.setName( readString( in ) )
+                .setPackageName( readString( in ) )
+                .setNumberOfErrors( in.readInt() )
+                .setNumberOfFailures( in.readInt() )
+                .setNumberOfSkipped( in.readInt() )
+                .setNumberOfFlakes( in.readInt() );
+            boolean hasNumberOfTests = in.readBoolean();
+            int numberOfTests = in.readInt();
+            if ( hasNumberOfTests )
+            {
+                suite.setNumberOfTests( numberOfTests );
+            }
+            suite.setTimeElapsed( in.readFloat() );
+
+            int testCasesCount = in.readInt();
+            List<ReportTestCase> testCases = new ArrayList<>( testCasesCount );
+            for ( int j = 0; j < testCasesCount; j++ )
+            {
+                ReportTestCase testCase = new ReportTestCase()
+                    .setFullClassName( readString( in ) )
+                    .setClassName( readString( in ) )
+                    .setFullName( readString( in ) )
+                    .setName( readString( in ) )
+                    .setTime( in.readFloat() );
+                String failureMessage = readString( in );
+                String failureType = readString( in );
+                testCase.setFailureErrorLine( readString( in ) )
+                    .setFailureDetail( readString( in ) )
+                    .setFailureState( failureMessage, failureType, in.readBoolean(), in.readBoolean(),
+                        in.readBoolean() );
+                testCases.add( testCase );
+            }
+            suite.setTestCases( testCases );
+            suites.add( suite );
+        }
+        return suites;
+    }
+
+    private static void writeString( DataOutputStream out, String s )
+        throws IOException
+    {
+        if ( s == null )
+        {
+            out.writeInt( -1 );
+        }
+        else
+        {
+            byte[] bytes = s.getBytes( UTF_8 );
+            out.writeInt( bytes.length );
+            out.write( bytes );
+        }
+    }
+
+    private static String readString( DataInputStream in )
+        throws IOException
+    {
+        int length = in.readInt();
+        if ( length == -1 )
+        {
+            return null;
+        }
+        else if ( length < 0 )
+        {
+            throw new IOException( "Corrupted string of the length " + length );
+        }
+        byte[] bytes = new byte[length];
+        in.readFully( bytes );
+        return new String( bytes, UTF_8 );
+    }
+
+    private static final class Entry
+    {
+        private final long lastModified;
+        private final long length;
+        private final List<ReportTestSuite> suites;
+
+        Entry( long lastModified, long length, List<ReportTestSuite> suites )
+        {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.suites = suites;
+        }
+    }
+}
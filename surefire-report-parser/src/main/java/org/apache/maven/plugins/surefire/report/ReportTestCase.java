@@ -167,6 +167,18 @@ public ReportTestCase setSkipped( String message )
         return setFailureMessage( message ).setFailureType( "skipped" );
     }
 
+    /**
+     * Restores the state of {@link #setFailure}, {@link #setError} or {@link #setSkipped}.
+     */
+    ReportTestCase setFailureState( String message, String type, boolean hasFailure, boolean hasError,
+                                    boolean hasSkipped )
+    {
+        this.hasFailure = hasFailure;
+        this.hasError = hasError;
+        this.hasSkipped = hasSkipped;
+        return setFailureMessage( message ).setFailureType( type );
+    }
+
     public boolean isSuccessful()
     {
         return !hasFailure() && !hasError() && !hasSkipped();
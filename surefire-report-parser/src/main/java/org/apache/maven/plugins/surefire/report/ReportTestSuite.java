@@ -131,6 +131,11 @@ public ReportTestSuite setNumberOfTests( int numberOfTests )
         return this;
     }
 
+    boolean hasNumberOfTests()
+    {
+        return numberOfTests != null;
+    }
+
     public String getName()
     {
         return name;
@@ -23,11 +23,14 @@
 import java.io.IOException;
 import java.text.NumberFormat;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import javax.xml.parsers.ParserConfigurationException;
 
@@ -36,6 +39,7 @@
 import org.apache.maven.surefire.shared.utils.io.DirectoryScanner;
 import org.xml.sax.SAXException;
 
+import static java.lang.Math.min;
 import static org.apache.maven.surefire.shared.utils.StringUtils.split;
 
 /**
@@ -58,51 +62,135 @@
 
     private final List<File> reportsDirectories;
 
+    private final boolean useIndex;
+
     public SurefireReportParser( List<File> reportsDirectories, Locale locale, ConsoleLogger consoleLogger )
+    {
+        this( reportsDirectories, locale, consoleLogger, false );
+    }
+
+    /**
+     * @param reportsDirectories directories of the XML reports
+     * @param locale             locale of the numbers in the summary
+     * @param consoleLogger      logger
+     * @param useIndex           {@code true} to read and write the {@link ReportIndex index} of the parsed reports in
+     *                           the reports directories, only the reports which have changed are parsed
+     * @since 3.0.0-M6
+     */
+    public SurefireReportParser( List<File> reportsDirectories, Locale locale, ConsoleLogger consoleLogger,
+                                 boolean useIndex )
     {
         this.reportsDirectories = reportsDirectories;
         numberFormat = NumberFormat.getInstance( locale );
         this.consoleLogger = consoleLogger;
+        this.useIndex = useIndex;
     }
 
+    /**
+     * Parses the XML reports in parallel. The suites are returned in the order of the reports directories and
+     * the report files.
+     *
+     * @return parsed suites
+     * @throws MavenReportException if a report cannot be parsed
+     */
     public List<ReportTestSuite> parseXMLReportFiles()
         throws MavenReportException
     {
-        final Collection<File> xmlReportFiles = new ArrayList<>();
+        final List<ReportFile> xmlReportFiles = new ArrayList<>();
+        final List<ReportIndex> indexes = new ArrayList<>();
         for ( File reportsDirectory : reportsDirectories )
         {
             if ( reportsDirectory.exists() )
             {
+                ReportIndex index = useIndex ? loadIndex( reportsDirectory ) : null;
+                if ( index != null )
+                {
+                    indexes.add( index );
+                }
                 for ( String xmlReportFile : getIncludedFiles( reportsDirectory, INCLUDES, EXCLUDES ) )
                 {
-                    xmlReportFiles.add( new File( reportsDirectory, xmlReportFile ) );
+                    xmlReportFiles.add( new ReportFile( reportsDirectory, xmlReportFile, index ) );
                 }
             }
         }
-        final TestSuiteXmlParser parser = new TestSuiteXmlParser( consoleLogger );
-        for ( File aXmlReportFileList : xmlReportFiles )
+
+        int parallelism = min( Runtime.getRuntime().availableProcessors(), xmlReportFiles.size() );
+        if ( parallelism > 1 )
         {
+            ForkJoinPool pool = new ForkJoinPool( parallelism );
             try
             {
-                testSuites.addAll( parser.parse( aXmlReportFileList.getAbsolutePath() ) );
+                for ( Future<List<ReportTestSuite>> parsed : pool.invokeAll( xmlReportFiles ) )
+                {
+                    testSuites.addAll( parsed.get() );
+                }
             }
-            catch ( ParserConfigurationException e )
+            catch ( InterruptedException e )
             {
-                throw new MavenReportException( "Error setting up parser for JUnit XML report", e );
+                Thread.currentThread().interrupt();
+                throw new MavenReportException( "Parsing of JUnit XML reports has been interrupted", e );
             }
-            catch ( SAXException e )
+            catch ( ExecutionException e )
             {
-                throw new MavenReportException( "Error parsing JUnit XML report " + aXmlReportFileList, e );
+                Throwable cause = e.getCause();
+                if ( cause instanceof MavenReportException )
+                {
+                    throw (MavenReportException) cause;
+                }
+                else if ( cause instanceof Error )
+                {
+                    throw (Error) cause;
+                }
+                throw new MavenReportException( cause.getLocalizedMessage(), (Exception) cause );
             }
-            catch ( IOException e )
+            finally
             {
-                throw new MavenReportException( "Error reading JUnit XML report " + aXmlReportFileList, e );
+                pool.shutdown();
             }
         }
+        else
+        {
+            for ( ReportFile xmlReportFile : xmlReportFiles )
+            {
+                testSuites.addAll( xmlReportFile.call() );
+            }
+        }
+
+        for ( ReportIndex index : indexes )
+        {
+            storeIndex( index );
+        }
 
         return testSuites;
     }
 
+    private ReportIndex loadIndex( File reportsDirectory )
+    {
+        try
+        {
+            return ReportIndex.load( reportsDirectory );
+        }
+        catch ( IOException e )
+        {
+            consoleLogger.warning( "Ignoring the index of JUnit XML reports in " + reportsDirectory + ": "
+                + e.getLocalizedMessage() );
+            return ReportIndex.empty( reportsDirectory );
+        }
+    }
+
+    private void storeIndex( ReportIndex index )
+    {
+        try
+        {
+            consoleLogger.debug( "Reused " + index.getHits() + " parsed JUnit XML reports from the index." );
+            index.store();
+        }
+        catch ( IOException e )
+        {
+            consoleLogger.warning( "Cannot write the index of JUnit XML reports: " + e.getLocalizedMessage() );
+        }
+    }
+
     public Map<String, String> getSummary( List<ReportTestSuite> suites )
     {
         Map<String, String> totalSummary = new HashMap<>();
@@ -211,6 +299,64 @@ public static boolean hasReportFiles( File directory )
             && getIncludedFiles( directory, INCLUDES, EXCLUDES ).length != 0;
     }
 
+    /**
+     * Parses one report file unless it is found in the index.
+     */
+    private final class ReportFile
+        implements Callable<List<ReportTestSuite>>
+    {
+        private final File reportsDirectory;
+        private final String path;
+        private final ReportIndex index;
+
+        ReportFile( File reportsDirectory, String path, ReportIndex index )
+        {
+            this.reportsDirectory = reportsDirectory;
+            this.path = path;
+            this.index = index;
+        }
+
+        @Override
+        public List<ReportTestSuite> call()
+            throws MavenReportException
+        {
+            File xmlReportFile = new File( reportsDirectory, path );
+            long lastModified = xmlReportFile.lastModified();
+            long length = xmlReportFile.length();
+            List<ReportTestSuite> suites = index == null ? null : index.get( path, lastModified, length );
+            if ( suites == null )
+            {
+                suites = parse( xmlReportFile );
+                if ( index != null )
+                {
+                    index.put( path, lastModified, length, suites );
+                }
+            }
+            return suites;
+        }
+
+        private List<ReportTestSuite> parse( File xmlReportFile )
+            throws MavenReportException
+        {
+            try
+            {
+                return new TestSuiteXmlParser( consoleLogger ).parse( xmlReportFile.getAbsolutePath() );
+            }
+            catch ( ParserConfigurationException e )
+            {
+                throw new MavenReportException( "Error setting up parser for JUnit XML report", e );
+            }
+            catch ( SAXException e )
+            {
+                throw new MavenReportException( "Error parsing JUnit XML report " + xmlReportFile, e );
+            }
+            catch ( IOException e )
+            {
+                throw new MavenReportException( "Error reading JUnit XML report " + xmlReportFile, e );
+            }
+        }
+    }
+
     private static String[] getIncludedFiles( File directory, String includes, String excludes )
     {
         DirectoryScanner scanner = new DirectoryScanner();
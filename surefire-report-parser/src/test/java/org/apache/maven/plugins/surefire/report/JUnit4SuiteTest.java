@@ -35,6 +35,7 @@ public class JUnit4SuiteTest extends TestCase
     public static Test suite()
     {
         TestSuite suite = new TestSuite();
+        suite.addTest( new JUnit4TestAdapter( ReportIndexTest.class ) );
         suite.addTestSuite( ReportTestCaseTest.class );
         suite.addTestSuite( ReportTestSuiteTest.class );
         suite.addTestSuite( SurefireReportParserTest.class );
@@ -0,0 +1,168 @@
+package org.apache.maven.plugins.surefire.report;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.apache.maven.plugin.surefire.log.api.NullConsoleLogger;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonList;
+import static java.util.Locale.ENGLISH;
+import static org.apache.maven.plugins.surefire.report.ReportIndex.INDEX_FILE_NAME;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Tests for {@link ReportIndex} and the {@link SurefireReportParser} using the index.
+ */
+@SuppressWarnings( "checkstyle:magicnumber" )
+public class ReportIndexTest
+{
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    private File reportsDirectory;
+
+    @Before
+    public void copyReports() throws IOException, URISyntaxException
+    {
+        reportsDirectory = tmp.newFolder( "test-reports" );
+        File[] reports = new File( getClass().getResource( "/test-reports" ).toURI() ).listFiles();
+        assertThat( reports, is( notNullValue() ) );
+        for ( File report : reports )
+        {
+            Files.copy( report.toPath(), new File( reportsDirectory, report.getName() ).toPath() );
+        }
+    }
+
+    @Test
+    public void shouldRestoreParsedSuites() throws Exception
+    {
+        List<ReportTestSuite> parsed = parse( false );
+        List<ReportTestSuite> indexed = parse( true );
+        assertThat( new File( reportsDirectory, INDEX_FILE_NAME ).isFile(), is( true ) );
+
+        List<ReportTestSuite> restored = parse( true );
+
+        assertThat( indexed.size(), is( parsed.size() ) );
+        assertThat( restored.size(), is( parsed.size() ) );
+        for ( int i = 0; i < parsed.size(); i++ )
+        {
+            assertSuite( restored.get( i ), parsed.get( i ) );
+        }
+    }
+
+    @Test
+    public void shouldHitUnchangedReports() throws Exception
+    {
+        parse( true );
+
+        File report = new File( reportsDirectory, "TEST-com.shape.CircleTest.xml" );
+        ReportIndex index = ReportIndex.load( reportsDirectory );
+        assertThat( index.get( report.getName(), report.lastModified(), report.length() ), is( notNullValue() ) );
+        assertThat( index.get( report.getName(), report.lastModified(), report.length() + 1 ), is( nullValue() ) );
+        assertThat( index.get( report.getName(), report.lastModified() + 1, report.length() ), is( nullValue() ) );
+        assertThat( index.get( "TEST-unknown.xml", report.lastModified(), report.length() ), is( nullValue() ) );
+        assertThat( index.getHits(), is( 1 ) );
+    }
+
+    @Test
+    public void shouldParseChangedReport() throws Exception
+    {
+        parse( true );
+
+        File report = new File( reportsDirectory, "TEST-NoPackageTest.xml" );
+        String xml = new String( Files.readAllBytes( report.toPath() ), UTF_8 )
+            .replace( "name=\"NoPackageTest\"", "name=\"ChangedTest\"" );
+        Files.write( report.toPath(), xml.getBytes( UTF_8 ) );
+
+        boolean found = false;
+        for ( ReportTestSuite suite : parse( true ) )
+        {
+            found |= "ChangedTest".equals( suite.getName() );
+        }
+        assertThat( found, is( true ) );
+    }
+
+    @Test
+    public void shouldIgnoreCorruptedIndex() throws Exception
+    {
+        File indexFile = new File( reportsDirectory, INDEX_FILE_NAME );
+        Files.write( indexFile.toPath(), new byte[] {1, 2, 3} );
+
+        assertThat( parse( true ).size(), is( parse( false ).size() ) );
+        assertThat( ReportIndex.load( reportsDirectory ), is( notNullValue() ) );
+    }
+
+    @Test( expected = IOException.class )
+    public void shouldFailLoadingIndexOfUnknownFormat() throws IOException
+    {
+        Files.write( new File( reportsDirectory, INDEX_FILE_NAME ).toPath(), new byte[8] );
+        ReportIndex.load( reportsDirectory );
+    }
+
+    private List<ReportTestSuite> parse( boolean useIndex ) throws Exception
+    {
+        return new SurefireReportParser( singletonList( reportsDirectory ), ENGLISH, new NullConsoleLogger(),
+            useIndex ).parseXMLReportFiles();
+    }
+
+    private static void assertSuite( ReportTestSuite actual, ReportTestSuite expected )
+    {
+        assertThat( actual.getFullClassName(), is( expected.getFullClassName() ) );
+        assertThat( actual.getName(), is( expected.getName() ) );
+        assertThat( actual.getPackageName(), is( expected.getPackageName() ) );
+        assertThat( actual.getNumberOfTests(), is( expected.getNumberOfTests() ) );
+        assertThat( actual.getNumberOfErrors(), is( expected.getNumberOfErrors() ) );
+        assertThat( actual.getNumberOfFailures(), is( expected.getNumberOfFailures() ) );
+        assertThat( actual.getNumberOfSkipped(), is( expected.getNumberOfSkipped() ) );
+        assertThat( actual.getNumberOfFlakes(), is( expected.getNumberOfFlakes() ) );
+        assertThat( actual.getTimeElapsed(), is( expected.getTimeElapsed() ) );
+        assertThat( actual.getTestCases().size(), is( expected.getTestCases().size() ) );
+        for ( int i = 0; i < expected.getTestCases().size(); i++ )
+        {
+            ReportTestCase actualCase = actual.getTestCases().get( i );
+            ReportTestCase expectedCase = expected.getTestCases().get( i );
+            assertThat( actualCase.getFullClassName(), is( expectedCase.getFullClassName() ) );
+            assertThat( actualCase.getClassName(), is( expectedCase.getClassName() ) );
+            assertThat( actualCase.getFullName(), is( expectedCase.getFullName() ) );
+            assertThat( actualCase.getName(), is( expectedCase.getName() ) );
+            assertThat( actualCase.getTime(), is( expectedCase.getTime() ) );
+            assertThat( actualCase.getFailureMessage(), is( expectedCase.getFailureMessage() ) );
+            assertThat( actualCase.getFailureType(), is( expectedCase.getFailureType() ) );
+            assertThat( actualCase.getFailureErrorLine(), is( expectedCase.getFailureErrorLine() ) );
+            assertThat( actualCase.getFailureDetail(), is( expectedCase.getFailureDetail() ) );
+            assertThat( actualCase.hasFailure(), is( expectedCase.hasFailure() ) );
+            assertThat( actualCase.hasError(), is( expectedCase.hasError() ) );
+            assertThat( actualCase.hasSkipped(), is( expectedCase.hasSkipped() ) );
+        }
+    }
+}